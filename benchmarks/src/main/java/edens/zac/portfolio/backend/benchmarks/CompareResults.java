@@ -0,0 +1,77 @@
+package edens.zac.portfolio.backend.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Diffs two JMH {@code -rf json} result files, e.g. from the base and head of a branch:
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar edens.zac.portfolio.backend.benchmarks.CompareResults \
+ *     base.json head.json
+ * </pre>
+ *
+ * <p>Rows are matched by benchmark name plus parameters. A change is flagged when the two scores'
+ * error intervals do not overlap. Scores are average time here, so a positive delta means slower.
+ */
+public final class CompareResults {
+
+  private CompareResults() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("usage: CompareResults <base.json> <head.json>");
+      System.exit(2);
+    }
+    Map<String, JsonNode> base = load(Path.of(args[0]));
+    Map<String, JsonNode> head = load(Path.of(args[1]));
+
+    System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "base", "head", "delta");
+    for (Map.Entry<String, JsonNode> entry : new TreeMap<>(head).entrySet()) {
+      JsonNode after = entry.getValue().path("primaryMetric");
+      JsonNode before =
+          base.containsKey(entry.getKey()) ? base.get(entry.getKey()).path("primaryMetric") : null;
+      String unit = after.path("scoreUnit").asText();
+      double headScore = after.path("score").asDouble();
+      if (before == null) {
+        System.out.printf(
+            "%-90s %14s %14.3f %9s  %s%n", entry.getKey(), "-", headScore, "new", unit);
+        continue;
+      }
+      double baseScore = before.path("score").asDouble();
+      double delta = baseScore == 0 ? 0 : (headScore - baseScore) / baseScore * 100;
+      boolean significant = Math.abs(headScore - baseScore) > errorOf(before) + errorOf(after);
+      System.out.printf(
+          "%-90s %14.3f %14.3f %+8.1f%%  %s%s%n",
+          entry.getKey(), baseScore, headScore, delta, unit, significant ? "  *" : "");
+    }
+    for (String key : base.keySet()) {
+      if (!head.containsKey(key)) {
+        System.out.printf("%-90s %14s%n", key, "removed");
+      }
+    }
+  }
+
+  private static double errorOf(JsonNode metric) {
+    double error = metric.path("scoreError").asDouble(0);
+    return Double.isNaN(error) ? 0 : error;
+  }
+
+  private static Map<String, JsonNode> load(Path file) throws IOException {
+    Map<String, JsonNode> rows = new LinkedHashMap<>();
+    for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+      StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+      run.path("params").properties().stream()
+          .sorted(Map.Entry.comparingByKey())
+          .forEach(
+              p -> key.append(' ').append(p.getKey()).append('=').append(p.getValue().asText()));
+      rows.put(key.toString(), run);
+    }
+    return rows;
+  }
+}
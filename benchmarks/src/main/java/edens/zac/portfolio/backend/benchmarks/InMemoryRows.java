@@ -0,0 +1,47 @@
+package edens.zac.portfolio.backend.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.Map;
+
+/**
+ * A {@link ResultSet} over one in-memory row, enough for the repository row mappers: the by-label
+ * getters BaseDao's helpers use plus {@code wasNull()}. Lets a benchmark time the mapping itself
+ * without a driver or a socket in the loop.
+ */
+public final class InMemoryRows {
+
+  private InMemoryRows() {}
+
+  /** A result set positioned on {@code row}; absent columns read as SQL NULL. */
+  public static ResultSet of(Map<String, Object> row) {
+    boolean[] lastWasNull = new boolean[1];
+    return (ResultSet)
+        Proxy.newProxyInstance(
+            ResultSet.class.getClassLoader(),
+            new Class<?>[] {ResultSet.class},
+            (proxy, method, args) -> {
+              String name = method.getName();
+              if (name.equals("wasNull")) {
+                return lastWasNull[0];
+              }
+              if (!name.startsWith("get") || args == null || !(args[0] instanceof String column)) {
+                throw new UnsupportedOperationException(name);
+              }
+              Object value = row.get(column);
+              lastWasNull[0] = value == null;
+              return switch (name) {
+                case "getString" -> value == null ? null : value.toString();
+                case "getLong" -> value == null ? 0L : ((Number) value).longValue();
+                case "getInt" -> value == null ? 0 : ((Number) value).intValue();
+                case "getBoolean" -> value != null && (Boolean) value;
+                case "getTimestamp" -> (Timestamp) value;
+                case "getDate" -> (Date) value;
+                case "getObject" -> value;
+                default -> throw new UnsupportedOperationException(name);
+              };
+            });
+  }
+}
@@ -0,0 +1,236 @@
+package edens.zac.portfolio.backend.benchmarks;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.imageio.ImageIO;
+
+/**
+ * Deterministic JPEG fixtures shaped like a Lightroom export: an EXIF APP1 segment (IFD0 + Exif
+ * sub-IFD with camera, lens, exposure and dates) and an XMP APP1 packet (rating, create date,
+ * hierarchical keywords), in front of a gradient-and-noise image so the encoder has real work. Same
+ * seed, same bytes -- results stay comparable between commits.
+ */
+public final class SyntheticJpegs {
+
+  private static final short ASCII = 2;
+  private static final short SHORT = 3;
+  private static final short LONG = 4;
+  private static final short RATIONAL = 5;
+
+  private static final String[] CAMERAS = {"ILCE-7RM4", "X-T5", "Z 8", "EOS R5"};
+  private static final String[] LENSES = {"FE 24-70mm F2.8 GM II", "XF33mmF1.4 R LM WR"};
+
+  private SyntheticJpegs() {}
+
+  /** A decoded image of the given size: diagonal gradient plus seeded noise. */
+  public static BufferedImage image(int width, int height, long seed) {
+    BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = img.createGraphics();
+    g.setPaint(new GradientPaint(0, 0, Color.ORANGE, width, height, Color.BLUE));
+    g.fillRect(0, 0, width, height);
+    g.dispose();
+    Random random = new Random(seed);
+    for (int i = 0; i < width * height / 8; i++) {
+      img.setRGB(random.nextInt(width), random.nextInt(height), random.nextInt(0xFFFFFF));
+    }
+    return img;
+  }
+
+  /** A JPEG with EXIF and XMP metadata; {@code seed} varies camera, lens, exposure and date. */
+  public static byte[] jpegWithMetadata(int width, int height, long seed) {
+    try {
+      ByteArrayOutputStream plain = new ByteArrayOutputStream();
+      ImageIO.write(image(width, height, seed), "jpg", plain);
+      byte[] jpeg = plain.toByteArray();
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream(jpeg.length + 4096);
+      out.write(jpeg, 0, 2); // SOI
+      writeSegment(out, 0xE1, exifPayload(seed));
+      writeSegment(out, 0xE1, xmpPayload(seed));
+      out.write(jpeg, 2, jpeg.length - 2);
+      return out.toByteArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** {@code count} fixtures of mixed sizes, seeded 0..count-1. */
+  public static List<byte[]> corpus(int count) {
+    List<byte[]> corpus = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int longSide = 800 + (i % 4) * 400;
+      corpus.add(
+          i % 2 == 0
+              ? jpegWithMetadata(longSide, longSide * 2 / 3, i)
+              : jpegWithMetadata(longSide * 2 / 3, longSide, i));
+    }
+    return corpus;
+  }
+
+  private static void writeSegment(ByteArrayOutputStream out, int marker, byte[] payload) {
+    out.write(0xFF);
+    out.write(marker);
+    int length = payload.length + 2;
+    out.write(length >> 8);
+    out.write(length & 0xFF);
+    out.write(payload, 0, payload.length);
+  }
+
+  private static byte[] exifPayload(long seed) {
+    Random random = new Random(seed);
+    String date =
+        String.format(
+            "2025:%02d:%02d %02d:%02d:%02d",
+            1 + random.nextInt(12),
+            1 + random.nextInt(28),
+            random.nextInt(24),
+            random.nextInt(60),
+            random.nextInt(60));
+
+    Ifd exif = new Ifd();
+    exif.rational(0x829A, 1, 50 + random.nextInt(2000)); // ExposureTime
+    exif.rational(0x829D, 14 + random.nextInt(100), 10); // FNumber
+    exif.shortValue(0x8827, 100 * (1 + random.nextInt(64))); // ISO
+    exif.ascii(0x9003, date); // DateTimeOriginal
+    exif.ascii(0x9004, date); // DateTimeDigitized
+    exif.rational(0x920A, 24 + random.nextInt(176), 1); // FocalLength
+    exif.ascii(0xA431, "BODY" + seed); // BodySerialNumber
+    exif.ascii(0xA434, LENSES[(int) (seed % LENSES.length)]); // LensModel
+    exif.ascii(0xA435, "LENS" + seed); // LensSerialNumber
+
+    Ifd ifd0 = new Ifd();
+    ifd0.ascii(0x010F, "Synthetic"); // Make
+    ifd0.ascii(0x0110, CAMERAS[(int) (seed % CAMERAS.length)]); // Model
+    ifd0.ascii(0x0132, date); // DateTime
+    ifd0.ascii(0x013B, "Benchmark Author"); // Artist
+    ifd0.longValue(0x8769, 0); // ExifOffset, patched below
+
+    int ifd0Offset = 8;
+    int exifOffset = ifd0Offset + ifd0.size();
+    ifd0.patchLong(0x8769, exifOffset);
+
+    ByteBuffer tiff = ByteBuffer.allocate(exifOffset + exif.size()).order(ByteOrder.LITTLE_ENDIAN);
+    tiff.put((byte) 'I').put((byte) 'I').putShort((short) 42).putInt(ifd0Offset);
+    ifd0.writeTo(tiff, ifd0Offset);
+    exif.writeTo(tiff, exifOffset);
+
+    byte[] header = "Exif\0\0".getBytes(StandardCharsets.US_ASCII);
+    byte[] payload = new byte[header.length + tiff.capacity()];
+    System.arraycopy(header, 0, payload, 0, header.length);
+    System.arraycopy(tiff.array(), 0, payload, header.length, tiff.capacity());
+    return payload;
+  }
+
+  private static byte[] xmpPayload(long seed) {
+    String packet =
+        """
+        <?xpacket begin="" id="W5M0MpCehiHzreSzNTczkc9d"?>
+        <x:xmpmeta xmlns:x="adobe:ns:meta/">
+         <rdf:RDF xmlns:rdf="http://www.w3.org/1999/02/22-rdf-syntax-ns#">
+          <rdf:Description rdf:about=""
+            xmlns:xmp="http://ns.adobe.com/xap/1.0/"
+            xmlns:dc="http://purl.org/dc/elements/1.1/"
+            xmlns:lr="http://ns.adobe.com/lightroom/1.0/"
+            xmp:Rating="%d"
+            xmp:CreateDate="2025-06-01T10:00:00">
+           <dc:subject><rdf:Bag>
+            <rdf:li>sunset</rdf:li><rdf:li>coast</rdf:li><rdf:li>Person %d</rdf:li>
+           </rdf:Bag></dc:subject>
+           <lr:hierarchicalSubject><rdf:Bag>
+            <rdf:li>Weather|sunset</rdf:li><rdf:li>Places|coast</rdf:li>
+            <rdf:li>People|Person %d</rdf:li>
+           </rdf:Bag></lr:hierarchicalSubject>
+          </rdf:Description>
+         </rdf:RDF>
+        </x:xmpmeta>
+        <?xpacket end="w"?>"""
+            .formatted(1 + seed % 5, seed % 7, seed % 7);
+    byte[] header = "http://ns.adobe.com/xap/1.0/\0".getBytes(StandardCharsets.US_ASCII);
+    byte[] body = packet.getBytes(StandardCharsets.UTF_8);
+    byte[] payload = new byte[header.length + body.length];
+    System.arraycopy(header, 0, payload, 0, header.length);
+    System.arraycopy(body, 0, payload, header.length, body.length);
+    return payload;
+  }
+
+  /** Little-endian TIFF IFD with out-of-line values placed right after the entry table. */
+  private static final class Ifd {
+    private record Entry(int tag, short type, int count, byte[] value) {}
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    void ascii(int tag, String value) {
+      byte[] bytes = (value + "\0").getBytes(StandardCharsets.US_ASCII);
+      entries.add(new Entry(tag, ASCII, bytes.length, bytes));
+    }
+
+    void shortValue(int tag, int value) {
+      entries.add(new Entry(tag, SHORT, 1, le(2).putShort((short) value).array()));
+    }
+
+    void longValue(int tag, int value) {
+      entries.add(new Entry(tag, LONG, 1, le(4).putInt(value).array()));
+    }
+
+    void patchLong(int tag, int value) {
+      entries.replaceAll(
+          e -> e.tag() == tag ? new Entry(tag, LONG, 1, le(4).putInt(value).array()) : e);
+    }
+
+    void rational(int tag, int numerator, int denominator) {
+      entries.add(new Entry(tag, RATIONAL, 1, le(8).putInt(numerator).putInt(denominator).array()));
+    }
+
+    int size() {
+      int size = 2 + entries.size() * 12 + 4;
+      for (Entry e : entries) {
+        if (e.value().length > 4) {
+          size += e.value().length + (e.value().length & 1);
+        }
+      }
+      return size;
+    }
+
+    void writeTo(ByteBuffer buffer, int offset) {
+      entries.sort((a, b) -> Integer.compare(a.tag(), b.tag()));
+      int dataOffset = offset + 2 + entries.size() * 12 + 4;
+      buffer.position(offset);
+      buffer.putShort((short) entries.size());
+      List<Entry> outOfLine = new ArrayList<>();
+      for (Entry e : entries) {
+        buffer.putShort((short) e.tag()).putShort(e.type()).putInt(e.count());
+        if (e.value().length <= 4) {
+          byte[] inline = new byte[4];
+          System.arraycopy(e.value(), 0, inline, 0, e.value().length);
+          buffer.put(inline);
+        } else {
+          buffer.putInt(dataOffset);
+          dataOffset += e.value().length + (e.value().length & 1);
+          outOfLine.add(e);
+        }
+      }
+      buffer.putInt(0); // no next IFD
+      for (Entry e : outOfLine) {
+        buffer.put(e.value());
+        if ((e.value().length & 1) == 1) {
+          buffer.put((byte) 0);
+        }
+      }
+    }
+
+    private static ByteBuffer le(int size) {
+      return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+  }
+}
@@ -0,0 +1,176 @@
+package edens.zac.portfolio.backend.dao;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import edens.zac.portfolio.backend.entity.CollectionContentEntity;
+import edens.zac.portfolio.backend.entity.ContentImageEntity;
+import edens.zac.portfolio.backend.model.ImageSearchRequest;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * {@link ContentRepository#searchImages} and {@link CollectionRepository#findContentByCollectionId}
+ * against a real Postgres 16 with {@code images} seeded images. The container is built the same way
+ * as AbstractPostgresIntegrationTest's: base schema init script, then every Flyway migration, so
+ * the indexes under test are the ones production has. Requires Docker.
+ *
+ * <p>Seed shape: 12 cameras, 20 lenses, 200 tags with up to 3 per image, ratings 0-5, capture dates
+ * 17 minutes apart from 2020, and 10 collections holding an equal share of the images each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ContentQueryBenchmark {
+
+  private static final int PAGE = 50;
+
+  @Param({"100000"})
+  public int images;
+
+  private PostgreSQLContainer<?> postgres;
+  private HikariDataSource dataSource;
+  private ContentRepository contentRepository;
+  private CollectionRepository collectionRepository;
+  private long collectionId;
+  private int deepOffset;
+
+  @Setup
+  public void setUp() {
+    postgres =
+        new PostgreSQLContainer<>("postgres:16-alpine").withInitScript("db/test-base-schema.sql");
+    postgres.start();
+
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl(postgres.getJdbcUrl());
+    config.setUsername(postgres.getUsername());
+    config.setPassword(postgres.getPassword());
+    config.setMaximumPoolSize(4);
+    dataSource = new HikariDataSource(config);
+
+    Flyway.configure()
+        .dataSource(dataSource)
+        .locations("classpath:db/migration")
+        .baselineOnMigrate(true)
+        .baselineVersion("0")
+        .load()
+        .migrate();
+
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    seed(jdbcTemplate, images);
+    contentRepository = new ContentRepository(jdbcTemplate);
+    collectionRepository = new CollectionRepository(jdbcTemplate);
+    collectionId =
+        jdbcTemplate.queryForObject("SELECT id FROM collection WHERE slug = 'bench-1'", Long.class);
+    deepOffset = Math.max(0, images / 10 - PAGE - 1000);
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (dataSource != null) {
+      dataSource.close();
+    }
+    if (postgres != null) {
+      postgres.stop();
+    }
+  }
+
+  @Benchmark
+  public List<ContentImageEntity> searchImagesByCameraAndRating() {
+    return contentRepository.searchImages(search(null, 3L, 4, null, null), PAGE, 0);
+  }
+
+  @Benchmark
+  public List<ContentImageEntity> searchImagesByTags() {
+    return contentRepository.searchImages(
+        search(List.of(5L, 17L), null, null, null, null), PAGE, 0);
+  }
+
+  @Benchmark
+  public List<ContentImageEntity> searchImagesByCaptureRange() {
+    return contentRepository.searchImages(
+        search(null, null, null, LocalDate.of(2021, 3, 1), LocalDate.of(2021, 6, 30)), PAGE, 0);
+  }
+
+  @Benchmark
+  public List<CollectionContentEntity> findContentByCollectionIdFirstPage() {
+    return collectionRepository.findContentByCollectionId(collectionId, PAGE, 0);
+  }
+
+  @Benchmark
+  public List<CollectionContentEntity> findContentByCollectionIdDeepPage() {
+    return collectionRepository.findContentByCollectionId(collectionId, PAGE, deepOffset);
+  }
+
+  private static ImageSearchRequest search(
+      List<Long> tagIds, Long cameraId, Integer minRating, LocalDate from, LocalDate to) {
+    return new ImageSearchRequest(
+        null, tagIds, cameraId, null, null, minRating, null, null, from, to, 0, PAGE);
+  }
+
+  private static void seed(JdbcTemplate jdbcTemplate, int images) {
+    jdbcTemplate.execute(
+        """
+        INSERT INTO content_cameras (camera_name)
+          SELECT 'Camera ' || g FROM generate_series(1, 12) g;
+        INSERT INTO content_lenses (lens_name)
+          SELECT 'Lens ' || g FROM generate_series(1, 20) g;
+        INSERT INTO tag (tag_name, slug)
+          SELECT 'tag ' || g, 'tag-' || g FROM generate_series(1, 200) g;
+        INSERT INTO collection (title, slug, visibility)
+          SELECT 'Bench ' || g, 'bench-' || g, 'LISTED' FROM generate_series(1, 10) g;
+        """);
+    jdbcTemplate.update(
+        """
+        INSERT INTO content (content_type, created_at, updated_at)
+          SELECT 'IMAGE', ts, ts
+          FROM (SELECT TIMESTAMP '2020-01-01' + g * INTERVAL '17 minutes' AS ts
+                FROM generate_series(1, ?) g) s
+        """,
+        images);
+    jdbcTemplate.execute(
+        """
+        INSERT INTO content_image (id, title, image_width, image_height, iso, author, rating,
+                                   f_stop, camera_id, lens_id, black_and_white, is_film,
+                                   shutter_speed, focal_length, image_url_web, capture_date,
+                                   original_filename)
+          SELECT c.id, 'Frame ' || c.id, 2500, 1667, 100 * (1 + c.id % 32), 'Bench',
+                 (c.id % 6)::int, 'f/2.8',
+                 (SELECT id FROM content_cameras ORDER BY id OFFSET c.id % 12 LIMIT 1),
+                 (SELECT id FROM content_lenses ORDER BY id OFFSET c.id % 20 LIMIT 1),
+                 c.id % 10 = 0, c.id % 7 = 0, '1/250 sec', '35 mm',
+                 'https://cdn.example/Image/Web/frame-' || c.id || '.webp',
+                 c.created_at, 'DSC' || c.id || '.jpg'
+          FROM content c WHERE c.content_type = 'IMAGE';
+        INSERT INTO content_tags (content_id, tag_id)
+          SELECT c.id, t.id
+          FROM content c
+          JOIN generate_series(1, 3) k ON k <= c.id % 4
+          JOIN tag t ON t.slug = 'tag-' || (1 + (c.id * k) % 200)
+          ON CONFLICT DO NOTHING;
+        INSERT INTO collection_content (collection_id, content_id, order_index, visible)
+          SELECT col.id, c.id, (c.id / 10)::int, true
+          FROM content c
+          JOIN collection col ON col.slug = 'bench-' || (1 + c.id % 10);
+        ANALYZE;
+        """);
+  }
+}
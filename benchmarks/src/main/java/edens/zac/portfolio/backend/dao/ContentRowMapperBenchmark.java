@@ -0,0 +1,141 @@
+package edens.zac.portfolio.backend.dao;
+
+import edens.zac.portfolio.backend.benchmarks.InMemoryRows;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * {@link ContentRepository}'s row mappers over in-memory rows shaped like the real SELECT
+ * fragments. Each op maps one page of {@code rows}; the in-memory result set adds a constant
+ * per-getter cost, so compare runs against each other rather than against driver numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentRowMapperBenchmark {
+
+  @Param({"500"})
+  public int rows;
+
+  private List<ResultSet> imageRows;
+  private List<ResultSet> textRows;
+  private List<ResultSet> gifRows;
+  private List<ResultSet> collectionRows;
+
+  @Setup
+  public void setUp() {
+    Timestamp created = Timestamp.valueOf(LocalDateTime.of(2025, 6, 1, 10, 0));
+    imageRows = new ArrayList<>(rows);
+    textRows = new ArrayList<>(rows);
+    gifRows = new ArrayList<>(rows);
+    collectionRows = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      Map<String, Object> base = new HashMap<>();
+      base.put("id", (long) i + 1);
+      base.put("created_at", created);
+      base.put("updated_at", created);
+
+      Map<String, Object> image = new HashMap<>(base);
+      image.put("title", "Frame " + i);
+      image.put("caption", i % 3 == 0 ? "Golden hour on the coast" : null);
+      image.put("alt", "Frame " + i);
+      image.put("image_width", 2500);
+      image.put("image_height", 1667);
+      image.put("iso", 100 * (1 + i % 32));
+      image.put("author", "Zac Edens");
+      image.put("rating", i % 6);
+      image.put("f_stop", "f/2.8");
+      image.put("black_and_white", i % 10 == 0);
+      image.put("is_film", i % 7 == 0);
+      image.put("film_format", i % 7 == 0 ? "MM_35" : null);
+      image.put("shutter_speed", "1/250 sec");
+      image.put("focal_length", "35 mm");
+      image.put("image_url_web", "https://cdn.example/Image/Web/2025/6/frame-" + i + ".webp");
+      image.put("image_url_original", "https://cdn.example/Image/Full/2025/6/frame-" + i + ".jpg");
+      image.put("capture_date", created);
+      image.put("last_export_date", created);
+      image.put("original_filename", "DSC" + i + ".jpg");
+      image.put("camera_id", (long) (1 + i % 4));
+      image.put("camera_name", "ILCE-7RM4");
+      image.put("lens_id", (long) (1 + i % 3));
+      image.put("lens_name", "FE 24-70mm F2.8 GM II");
+      if (i % 7 == 0) {
+        image.put("film_type_id", 1L);
+        image.put("film_type_name", "PORTRA_400");
+        image.put("film_type_display_name", "Kodak Portra 400");
+        image.put("default_iso", 400);
+      }
+      imageRows.add(InMemoryRows.of(image));
+
+      Map<String, Object> text = new HashMap<>(base);
+      text.put("text_content", "Paragraph " + i + " of the story.");
+      text.put("format_type", "markdown");
+      textRows.add(InMemoryRows.of(text));
+
+      Map<String, Object> gif = new HashMap<>(base);
+      gif.put("title", "Loop " + i);
+      gif.put("gif_url", "https://cdn.example/Gif/Full/loop-" + i + ".mp4");
+      gif.put("gif_url_web", "https://cdn.example/Gif/Web/loop-" + i + ".mp4");
+      gif.put("thumbnail_url", "https://cdn.example/Gif/Thumbnail/loop-" + i + ".webp");
+      gif.put("width", 1080);
+      gif.put("height", 1920);
+      gif.put("rating", i % 6);
+      gif.put("capture_date", created);
+      gifRows.add(InMemoryRows.of(gif));
+
+      Map<String, Object> collection = new HashMap<>(base);
+      collection.put("referenced_collection_id", (long) (1 + i % 50));
+      collectionRows.add(InMemoryRows.of(collection));
+    }
+  }
+
+  @Benchmark
+  public void imageRowMapper(Blackhole bh) throws SQLException {
+    mapAll(ContentRepository.CONTENT_IMAGE_ROW_MAPPER, imageRows, bh);
+  }
+
+  @Benchmark
+  public void textRowMapper(Blackhole bh) throws SQLException {
+    mapAll(ContentRepository.CONTENT_TEXT_ROW_MAPPER, textRows, bh);
+  }
+
+  @Benchmark
+  public void gifRowMapper(Blackhole bh) throws SQLException {
+    mapAll(ContentRepository.CONTENT_GIF_ROW_MAPPER, gifRows, bh);
+  }
+
+  @Benchmark
+  public void collectionRowMapper(Blackhole bh) throws SQLException {
+    mapAll(ContentRepository.CONTENT_COLLECTION_ROW_MAPPER, collectionRows, bh);
+  }
+
+  private static <T> void mapAll(RowMapper<T> mapper, List<ResultSet> page, Blackhole bh)
+      throws SQLException {
+    for (int i = 0; i < page.size(); i++) {
+      bh.consume(mapper.mapRow(page.get(i), i));
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package edens.zac.portfolio.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+/**
+ * Thin {@link HttpClient} wrapper for one simulated user. Redirects are not followed, so the
+ * download scenario can time the 302 and the presigned fetch as one step. A client with a cookie
+ * jar keeps the session cookie from {@link #login}.
+ */
+final class Http {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final Duration TIMEOUT = Duration.ofMinutes(5);
+
+  private final String baseUrl;
+  private final HttpClient client;
+
+  Http(String baseUrl, boolean cookies) {
+    this.baseUrl = baseUrl;
+    HttpClient.Builder builder =
+        HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .executor(Executors.newVirtualThreadPerTaskExecutor());
+    if (cookies) {
+      builder.cookieHandler(new CookieManager());
+    }
+    this.client = builder.build();
+  }
+
+  HttpResponse<String> get(String path) throws IOException, InterruptedException {
+    return client.send(
+        request(path).GET().build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+  }
+
+  HttpResponse<InputStream> download(URI url) throws IOException, InterruptedException {
+    return client.send(
+        HttpRequest.newBuilder(url).timeout(TIMEOUT).GET().build(),
+        HttpResponse.BodyHandlers.ofInputStream());
+  }
+
+  JsonNode json(String path) throws IOException, InterruptedException {
+    HttpResponse<String> response = get(path);
+    if (response.statusCode() != 200) {
+      throw new IOException("GET " + path + " returned " + response.statusCode());
+    }
+    return MAPPER.readTree(response.body());
+  }
+
+  /** The {@code id} of every element of a JSON array endpoint. */
+  List<Long> ids(String path) throws IOException, InterruptedException {
+    List<Long> ids = new ArrayList<>();
+    for (JsonNode node : json(path)) {
+      ids.add(node.path("id").asLong());
+    }
+    return ids;
+  }
+
+  HttpResponse<String> postLogin(String email, String password, String clientIp)
+      throws IOException, InterruptedException {
+    String body = MAPPER.writeValueAsString(Map.of("email", email, "password", password));
+    return client.send(
+        request("/api/auth/login")
+            .header("Content-Type", "application/json")
+            .header("X-Real-IP", clientIp)
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build(),
+        HttpResponse.BodyHandlers.ofString());
+  }
+
+  /** Password login; the session cookie lands in this client's cookie jar. */
+  void login(String email, String password, String clientIp)
+      throws IOException, InterruptedException {
+    int status = postLogin(email, password, clientIp).statusCode();
+    if (status != 204) {
+      throw new IOException("Login as " + email + " returned " + status);
+    }
+  }
+
+  HttpResponse<String> postMultipart(String path, Multipart body)
+      throws IOException, InterruptedException {
+    return client.send(
+        request(path)
+            .header("Content-Type", "multipart/form-data; boundary=" + body.boundary)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body.finish()))
+            .build(),
+        HttpResponse.BodyHandlers.ofString());
+  }
+
+  private HttpRequest.Builder request(String path) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT);
+  }
+
+  /** Minimal multipart/form-data body of file parts. */
+  static final class Multipart {
+    private final String boundary = "lt-" + UUID.randomUUID();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    void file(String field, String filename, byte[] content) {
+      write(
+          "--%s\r\nContent-Disposition: form-data; name=\"%s\"; filename=\"%s\"\r\n"
+                  .formatted(boundary, field, filename)
+              + "Content-Type: image/jpeg\r\n\r\n");
+      out.writeBytes(content);
+      write("\r\n");
+    }
+
+    byte[] finish() {
+      write("--" + boundary + "--\r\n");
+      return out.toByteArray();
+    }
+
+    private void write(String text) {
+      out.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+}
@@ -0,0 +1,247 @@
+package edens.zac.portfolio.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Closed-model load driver for a backend running under the {@code loadtest} profile:
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar edens.zac.portfolio.backend.loadtest.LoadTest \
+ *     --scenarios browse,search,zip --duration 60 --out results.json
+ * </pre>
+ *
+ * <p>Scenarios run one after another. Each starts {@code concurrency} virtual-thread users that
+ * repeat their step back to back for {@code warmup + duration} seconds; only steps that start after
+ * the warmup are recorded. Per scenario it prints request count, unexpected outcomes, status codes,
+ * throughput and p50/p90/p95/p99/max latency, and {@code --out} writes the same as JSON.
+ *
+ * <p>Options (defaults match {@code application-loadtest.properties}): {@code --base-url}, {@code
+ * --scenarios}, {@code --duration}, {@code --warmup}, {@code --concurrency} (all scenarios) or
+ * {@code --<scenario>-concurrency}, {@code --page-size}, {@code --upload-batch}, {@code
+ * --upload-edge}, {@code --admin-email}, {@code --admin-password}, {@code --client-password},
+ * {@code --images}, {@code --portfolios}, {@code --children-per-portfolio}, {@code
+ * --client-galleries}, {@code --out}.
+ */
+public final class LoadTest {
+
+  /** Seeded last by the generator; the driver waits for it before starting. */
+  static final String MARKER_SLUG = "lt-uploads";
+
+  private static final List<String> ALL_SCENARIOS =
+      List.of("browse", "search", "upload", "zip", "login");
+
+  record Settings(
+      String baseUrl,
+      int pageSize,
+      int uploadBatch,
+      int uploadEdge,
+      String adminEmail,
+      String adminPassword,
+      String clientPassword,
+      int images,
+      int portfolios,
+      int childrenPerPortfolio,
+      int clientGalleries) {}
+
+  private LoadTest() {}
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = parse(args);
+    Settings settings =
+        new Settings(
+            stripTrailingSlash(options.getOrDefault("base-url", "http://localhost:8080")),
+            intOption(options, "page-size", 30),
+            intOption(options, "upload-batch", 4),
+            intOption(options, "upload-edge", 4000),
+            options.getOrDefault("admin-email", "admin@loadtest.local"),
+            options.getOrDefault("admin-password", "loadtest-admin"),
+            options.getOrDefault("client-password", "loadtest-client"),
+            intOption(options, "images", 100_000),
+            intOption(options, "portfolios", 40),
+            intOption(options, "children-per-portfolio", 5),
+            intOption(options, "client-galleries", 20));
+    Duration duration = Duration.ofSeconds(intOption(options, "duration", 60));
+    Duration warmup = Duration.ofSeconds(intOption(options, "warmup", 10));
+    List<String> names =
+        options.containsKey("scenarios")
+            ? List.of(options.get("scenarios").split(","))
+            : ALL_SCENARIOS;
+
+    awaitSeed(settings.baseUrl());
+    List<ScenarioStats> results = new ArrayList<>();
+    for (String name : names) {
+      Scenarios.Scenario scenario = Scenarios.byName(name.trim(), settings);
+      int concurrency =
+          intOption(
+              options,
+              scenario.name() + "-concurrency",
+              intOption(options, "concurrency", scenario.defaultConcurrency()));
+      System.out.printf(
+          "Running %s: %d users, %ds warmup + %ds%n",
+          scenario.name(), concurrency, warmup.toSeconds(), duration.toSeconds());
+      results.add(run(scenario, concurrency, warmup, duration));
+    }
+
+    printTable(results);
+    if (options.containsKey("out")) {
+      writeJson(Path.of(options.get("out")), settings, duration, warmup, results);
+    }
+  }
+
+  private static ScenarioStats run(
+      Scenarios.Scenario scenario, int concurrency, Duration warmup, Duration duration)
+      throws InterruptedException {
+    ScenarioStats stats = new ScenarioStats(scenario.name(), concurrency);
+    CountDownLatch ready = new CountDownLatch(concurrency);
+    CountDownLatch start = new CountDownLatch(1);
+    long[] window = new long[2];
+    List<Thread> users = new ArrayList<>();
+    for (int i = 0; i < concurrency; i++) {
+      int index = i;
+      users.add(
+          Thread.ofVirtual()
+              .name(scenario.name() + "-" + i)
+              .start(
+                  () -> {
+                    Scenarios.Worker worker;
+                    try {
+                      worker = scenario.newWorker(index);
+                    } catch (Exception e) {
+                      System.err.printf(
+                          "%s user %d setup failed: %s%n", scenario.name(), index, e.getMessage());
+                      ready.countDown();
+                      return;
+                    }
+                    ready.countDown();
+                    ScenarioStats.Recorder recorder = stats.recorder();
+                    try {
+                      start.await();
+                      while (true) {
+                        long begin = System.nanoTime();
+                        if (begin >= window[1]) {
+                          break;
+                        }
+                        Scenarios.Outcome outcome;
+                        try {
+                          outcome = worker.step();
+                        } catch (IOException e) {
+                          outcome = new Scenarios.Outcome(-1, false);
+                        }
+                        if (begin >= window[0]) {
+                          recorder.record(
+                              System.nanoTime() - begin, outcome.status(), outcome.ok());
+                        }
+                      }
+                    } catch (Exception e) {
+                      System.err.printf(
+                          "%s user %d stopped: %s%n", scenario.name(), index, e.getMessage());
+                    } finally {
+                      stats.merge(recorder);
+                    }
+                  }));
+    }
+    ready.await();
+    long now = System.nanoTime();
+    window[0] = now + warmup.toNanos();
+    window[1] = window[0] + duration.toNanos();
+    start.countDown();
+    for (Thread user : users) {
+      user.join();
+    }
+    stats.finish(duration.toNanos() / 1e9);
+    return stats;
+  }
+
+  /** Blocks until the generator's marker collection is readable (the seed has committed). */
+  private static void awaitSeed(String baseUrl) throws Exception {
+    Http http = new Http(baseUrl, false);
+    Instant deadline = Instant.now().plus(Duration.ofMinutes(15));
+    while (true) {
+      try {
+        if (http.get("/api/read/collections/" + MARKER_SLUG + "/meta").statusCode() == 200) {
+          return;
+        }
+      } catch (IOException e) {
+        // backend not up yet
+      }
+      if (Instant.now().isAfter(deadline)) {
+        throw new IllegalStateException(
+            "No seeded loadtest backend at " + baseUrl + " (is SPRING_PROFILES_ACTIVE=loadtest?)");
+      }
+      System.out.println("Waiting for the loadtest seed at " + baseUrl + " ...");
+      Thread.sleep(5_000);
+    }
+  }
+
+  private static void printTable(List<ScenarioStats> results) {
+    System.out.printf(
+        "%n%-8s %9s %7s %9s %9s %9s %9s %9s %9s  %s%n",
+        "scenario",
+        "requests",
+        "errors",
+        "req/s",
+        "p50 ms",
+        "p90 ms",
+        "p95 ms",
+        "p99 ms",
+        "max ms",
+        "status");
+    for (ScenarioStats s : results) {
+      System.out.printf(
+          "%-8s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f  %s%n",
+          s.name(),
+          s.requests(),
+          s.errors(),
+          s.throughput(),
+          s.percentileMillis(50),
+          s.percentileMillis(90),
+          s.percentileMillis(95),
+          s.percentileMillis(99),
+          s.percentileMillis(100),
+          s.statusSummary());
+    }
+  }
+
+  private static void writeJson(
+      Path file, Settings settings, Duration duration, Duration warmup, List<ScenarioStats> results)
+      throws IOException {
+    Map<String, Object> json = new LinkedHashMap<>();
+    json.put("baseUrl", settings.baseUrl());
+    json.put("finishedAt", Instant.now().toString());
+    json.put("durationSeconds", duration.toSeconds());
+    json.put("warmupSeconds", warmup.toSeconds());
+    json.put("scenarios", results.stream().map(ScenarioStats::toJson).toList());
+    new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), json);
+    System.out.println("Wrote " + file);
+  }
+
+  private static Map<String, String> parse(String[] args) {
+    Map<String, String> options = new HashMap<>();
+    for (int i = 0; i < args.length; i++) {
+      if (!args[i].startsWith("--") || i + 1 == args.length) {
+        throw new IllegalArgumentException("Expected --option value pairs, got: " + args[i]);
+      }
+      options.put(args[i].substring(2), args[++i]);
+    }
+    return options;
+  }
+
+  private static int intOption(Map<String, String> options, String name, int fallback) {
+    return options.containsKey(name) ? Integer.parseInt(options.get(name)) : fallback;
+  }
+
+  private static String stripTrailingSlash(String url) {
+    return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+  }
+}
@@ -0,0 +1,140 @@
+package edens.zac.portfolio.backend.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes for one scenario. Each worker records into its own {@link Recorder} (no
+ * contention on the hot path); recorders are merged once the run ends.
+ */
+final class ScenarioStats {
+
+  private final String name;
+  private final int concurrency;
+  private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+  private final LongAdder errors = new LongAdder();
+  private long[] latenciesNanos = new long[0];
+  private int count;
+  private double measuredSeconds;
+
+  ScenarioStats(String name, int concurrency) {
+    this.name = name;
+    this.concurrency = concurrency;
+  }
+
+  /** Per-worker sample buffer. */
+  final class Recorder {
+    private long[] samples = new long[1024];
+    private int size;
+
+    void record(long latencyNanos, int status, boolean ok) {
+      if (size == samples.length) {
+        samples = Arrays.copyOf(samples, size * 2);
+      }
+      samples[size++] = latencyNanos;
+      statusCounts.computeIfAbsent(status, s -> new LongAdder()).increment();
+      if (!ok) {
+        errors.increment();
+      }
+    }
+  }
+
+  Recorder recorder() {
+    return new Recorder();
+  }
+
+  synchronized void merge(Recorder recorder) {
+    long[] merged = Arrays.copyOf(latenciesNanos, count + recorder.size);
+    System.arraycopy(recorder.samples, 0, merged, count, recorder.size);
+    latenciesNanos = merged;
+    count += recorder.size;
+  }
+
+  void finish(double measuredSeconds) {
+    this.measuredSeconds = measuredSeconds;
+    Arrays.sort(latenciesNanos, 0, count);
+  }
+
+  String name() {
+    return name;
+  }
+
+  int requests() {
+    return count;
+  }
+
+  long errors() {
+    return errors.sum();
+  }
+
+  double throughput() {
+    return measuredSeconds > 0 ? count / measuredSeconds : 0;
+  }
+
+  /** Nearest-rank percentile in milliseconds; 0 when nothing was recorded. */
+  double percentileMillis(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    int rank = (int) Math.ceil(percentile / 100.0 * count);
+    return latenciesNanos[Math.min(count, Math.max(1, rank)) - 1] / 1e6;
+  }
+
+  double meanMillis() {
+    if (count == 0) {
+      return 0;
+    }
+    double total = 0;
+    for (int i = 0; i < count; i++) {
+      total += latenciesNanos[i];
+    }
+    return total / count / 1e6;
+  }
+
+  Map<String, Object> toJson() {
+    Map<String, Object> latency = new LinkedHashMap<>();
+    latency.put("mean", round(meanMillis()));
+    for (double p : new double[] {50, 90, 95, 99}) {
+      latency.put("p" + (int) p, round(percentileMillis(p)));
+    }
+    latency.put("max", round(percentileMillis(100)));
+
+    Map<String, Long> statuses = new TreeMap<>();
+    statusCounts.forEach((status, n) -> statuses.put(statusLabel(status), n.sum()));
+
+    Map<String, Object> json = new LinkedHashMap<>();
+    json.put("scenario", name);
+    json.put("concurrency", concurrency);
+    json.put("measuredSeconds", round(measuredSeconds));
+    json.put("requests", count);
+    json.put("errors", errors());
+    json.put("throughputPerSecond", round(throughput()));
+    json.put("statusCodes", statuses);
+    json.put("latencyMs", latency);
+    return json;
+  }
+
+  String statusSummary() {
+    StringBuilder out = new StringBuilder();
+    new TreeMap<>(statusCounts)
+        .forEach(
+            (status, n) ->
+                out.append(out.isEmpty() ? "" : " ")
+                    .append(statusLabel(status))
+                    .append('=')
+                    .append(n.sum()));
+    return out.toString();
+  }
+
+  private static String statusLabel(int status) {
+    return status < 0 ? "io-error" : Integer.toString(status);
+  }
+
+  private static double round(double value) {
+    return Math.round(value * 100) / 100.0;
+  }
+}
@@ -0,0 +1,320 @@
+package edens.zac.portfolio.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import edens.zac.portfolio.backend.benchmarks.SyntheticJpegs;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The scripted scenarios. Each worker is one simulated user: {@link Scenario#newWorker} does its
+ * untimed setup (logins, lookups) and every {@link Worker#step} is one timed interaction.
+ */
+final class Scenarios {
+
+  private Scenarios() {}
+
+  /** What one timed step produced: the final HTTP status and whether it was the expected one. */
+  record Outcome(int status, boolean ok) {
+    static Outcome expect(int status, int expected) {
+      return new Outcome(status, status == expected);
+    }
+  }
+
+  interface Worker {
+    Outcome step() throws Exception;
+  }
+
+  interface Scenario {
+    String name();
+
+    int defaultConcurrency();
+
+    Worker newWorker(int index) throws Exception;
+  }
+
+  static Scenario byName(String name, LoadTest.Settings settings) {
+    return switch (name) {
+      case "browse" -> new Browse(settings);
+      case "search" -> new Search(settings);
+      case "upload" -> new Upload(settings);
+      case "zip" -> new Zip(settings);
+      case "login" -> new Login(settings);
+      default -> throw new IllegalArgumentException("Unknown scenario: " + name);
+    };
+  }
+
+  /**
+   * Public gallery browsing: the collection index (20%), a portfolio page of child galleries (10%)
+   * and a random page of a child gallery (70%).
+   */
+  static final class Browse implements Scenario {
+    private final LoadTest.Settings settings;
+
+    Browse(LoadTest.Settings settings) {
+      this.settings = settings;
+    }
+
+    @Override
+    public String name() {
+      return "browse";
+    }
+
+    @Override
+    public int defaultConcurrency() {
+      return 32;
+    }
+
+    @Override
+    public Worker newWorker(int index) {
+      Http http = new Http(settings.baseUrl(), false);
+      int perGallery =
+          Math.max(
+              1, settings.images() / (settings.portfolios() * settings.childrenPerPortfolio()));
+      int galleryPages = Math.max(1, (perGallery + settings.pageSize() - 1) / settings.pageSize());
+      return () -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double roll = random.nextDouble();
+        int portfolio = 1 + random.nextInt(settings.portfolios());
+        String path;
+        if (roll < 0.2) {
+          path = "/api/read/collections?page=" + random.nextInt(3) + "&size=50";
+        } else if (roll < 0.3) {
+          path = "/api/read/collections/lt-portfolio-" + portfolio;
+        } else {
+          path =
+              "/api/read/collections/lt-gallery-%d-%d?page=%d&size=%d"
+                  .formatted(
+                      portfolio,
+                      1 + random.nextInt(settings.childrenPerPortfolio()),
+                      random.nextInt(galleryPages),
+                      settings.pageSize());
+        }
+        return Outcome.expect(http.get(path).statusCode(), 200);
+      };
+    }
+  }
+
+  /** Image search with one to three random filters drawn from the seeded metadata. */
+  static final class Search implements Scenario {
+    private final LoadTest.Settings settings;
+    private volatile Map<String, List<Long>> ids;
+
+    Search(LoadTest.Settings settings) {
+      this.settings = settings;
+    }
+
+    @Override
+    public String name() {
+      return "search";
+    }
+
+    @Override
+    public int defaultConcurrency() {
+      return 32;
+    }
+
+    @Override
+    public Worker newWorker(int index) throws Exception {
+      Http http = new Http(settings.baseUrl(), false);
+      synchronized (this) {
+        if (ids == null) {
+          ids =
+              Map.of(
+                  "tagIds", http.ids("/api/read/content/tags"),
+                  "cameraId", http.ids("/api/read/content/cameras"),
+                  "lensId", http.ids("/api/read/content/lenses"),
+                  "personIds", http.ids("/api/read/content/people"),
+                  "locationId", http.ids("/api/read/content/locations"));
+        }
+      }
+      List<String> filters = new ArrayList<>(ids.keySet());
+      filters.addAll(List.of("minRating", "captureRange", "blackAndWhite"));
+      return () -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringJoiner query = new StringJoiner("&", "/api/read/content/images/search?", "");
+        int filterCount = 1 + random.nextInt(3);
+        for (int f = 0; f < filterCount; f++) {
+          String filter = filters.get(random.nextInt(filters.size()));
+          switch (filter) {
+            case "minRating" -> query.add("minRating=" + (2 + random.nextInt(4)));
+            case "blackAndWhite" -> query.add("blackAndWhite=true");
+            case "captureRange" -> {
+              int year = 2020 + random.nextInt(4);
+              int month = 1 + random.nextInt(10);
+              query.add("captureStartDate=%d-%02d-01".formatted(year, month));
+              query.add("captureEndDate=%d-%02d-28".formatted(year, month + 2));
+            }
+            default -> {
+              List<Long> candidates = ids.get(filter);
+              if (!candidates.isEmpty()) {
+                query.add(filter + "=" + candidates.get(random.nextInt(candidates.size())));
+              }
+            }
+          }
+        }
+        query.add("page=" + random.nextInt(3));
+        query.add("size=" + settings.pageSize());
+        return Outcome.expect(http.get(query.toString()).statusCode(), 200);
+      };
+    }
+  }
+
+  /**
+   * Admin bulk upload: each step posts {@code uploadBatch} synthetic JPEGs (EXIF and XMP included)
+   * with fresh filenames to the {@code lt-uploads} collection, through the full image pipeline.
+   */
+  static final class Upload implements Scenario {
+    private final LoadTest.Settings settings;
+    private volatile List<byte[]> pool;
+
+    Upload(LoadTest.Settings settings) {
+      this.settings = settings;
+    }
+
+    @Override
+    public String name() {
+      return "upload";
+    }
+
+    @Override
+    public int defaultConcurrency() {
+      return 4;
+    }
+
+    @Override
+    public Worker newWorker(int index) throws Exception {
+      synchronized (this) {
+        if (pool == null) {
+          List<byte[]> images = new ArrayList<>();
+          for (int seed = 0; seed < 8; seed++) {
+            int edge = settings.uploadEdge();
+            images.add(SyntheticJpegs.jpegWithMetadata(edge, edge * 2 / 3, seed));
+          }
+          pool = images;
+        }
+      }
+      Http http = new Http(settings.baseUrl(), true);
+      http.login(settings.adminEmail(), settings.adminPassword(), "10.250.0." + (index % 250));
+      long collectionId =
+          http.json("/api/read/collections/" + LoadTest.MARKER_SLUG + "/meta").path("id").asLong();
+      return () -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Http.Multipart body = new Http.Multipart();
+        for (int i = 0; i < settings.uploadBatch(); i++) {
+          body.file("files", "LT" + UUID.randomUUID() + ".jpg", pool.get(random.nextInt(8)));
+        }
+        HttpResponse<String> response =
+            http.postMultipart("/api/admin/content/images/" + collectionId, body);
+        return Outcome.expect(response.statusCode(), 201);
+      };
+    }
+  }
+
+  /**
+   * Client ZIP download: a logged-in client requests their gallery (whole, 60%; a random selection
+   * of 5-20 images, 40%), follows the 302 to the presigned URL and reads the archive to the end.
+   */
+  static final class Zip implements Scenario {
+    private final LoadTest.Settings settings;
+
+    Zip(LoadTest.Settings settings) {
+      this.settings = settings;
+    }
+
+    @Override
+    public String name() {
+      return "zip";
+    }
+
+    @Override
+    public int defaultConcurrency() {
+      return 8;
+    }
+
+    @Override
+    public Worker newWorker(int index) throws Exception {
+      int client = 1 + index % settings.clientGalleries();
+      String slug = "lt-client-" + client;
+      Http http = new Http(settings.baseUrl(), true);
+      http.login(
+          "client-" + client + "@loadtest.local",
+          settings.clientPassword(),
+          "10.251." + (index / 250) + "." + (index % 250));
+      List<Long> imageIds = new ArrayList<>();
+      for (JsonNode item :
+          http.json("/api/read/collections/" + slug + "?size=200").path("content")) {
+        if ("IMAGE".equals(item.path("contentType").asText())) {
+          imageIds.add(item.path("id").asLong());
+        }
+      }
+      return () -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String path = "/api/read/collections/" + slug + "/download?format=web";
+        if (!imageIds.isEmpty() && random.nextDouble() < 0.4) {
+          StringJoiner selection = new StringJoiner(",", "&imageIds=", "");
+          int size = Math.min(imageIds.size(), 5 + random.nextInt(16));
+          int start = random.nextInt(imageIds.size() - size + 1);
+          imageIds.subList(start, start + size).forEach(id -> selection.add(id.toString()));
+          path += selection;
+        }
+        HttpResponse<String> redirect = http.get(path);
+        if (redirect.statusCode() != 302) {
+          return new Outcome(redirect.statusCode(), false);
+        }
+        URI location = URI.create(redirect.headers().firstValue("Location").orElseThrow());
+        HttpResponse<InputStream> archive = http.download(location);
+        try (InputStream in = archive.body()) {
+          in.transferTo(OutputStream.nullOutputStream());
+        }
+        return Outcome.expect(archive.statusCode(), 200);
+      };
+    }
+  }
+
+  /**
+   * Login storm: password logins for random client accounts from random client IPs, 20% with a
+   * wrong password. Expected answers are 204 and 401; a 429 means the login limiter tripped.
+   */
+  static final class Login implements Scenario {
+    private final LoadTest.Settings settings;
+
+    Login(LoadTest.Settings settings) {
+      this.settings = settings;
+    }
+
+    @Override
+    public String name() {
+      return "login";
+    }
+
+    @Override
+    public int defaultConcurrency() {
+      return 32;
+    }
+
+    @Override
+    public Worker newWorker(int index) {
+      Http http = new Http(settings.baseUrl(), false);
+      return () -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean correct = random.nextDouble() >= 0.2;
+        String email =
+            "client-" + (1 + random.nextInt(settings.clientGalleries())) + "@loadtest.local";
+        String ip =
+            "10.%d.%d.%d".formatted(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+        int status =
+            http.postLogin(email, correct ? settings.clientPassword() : "wrong-password", ip)
+                .statusCode();
+        return Outcome.expect(status, correct ? 204 : 401);
+      };
+    }
+  }
+}
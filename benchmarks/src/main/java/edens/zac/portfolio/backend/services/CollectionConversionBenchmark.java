@@ -0,0 +1,284 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.dao.CollectionPeopleRepository;
+import edens.zac.portfolio.backend.dao.CollectionRepository;
+import edens.zac.portfolio.backend.dao.CollectionSiblingRepository;
+import edens.zac.portfolio.backend.dao.ContentRepository;
+import edens.zac.portfolio.backend.dao.LocationRepository;
+import edens.zac.portfolio.backend.dao.PersonRepository;
+import edens.zac.portfolio.backend.dao.TagRepository;
+import edens.zac.portfolio.backend.entity.CollectionContentEntity;
+import edens.zac.portfolio.backend.entity.CollectionEntity;
+import edens.zac.portfolio.backend.entity.ContentCameraEntity;
+import edens.zac.portfolio.backend.entity.ContentCollectionEntity;
+import edens.zac.portfolio.backend.entity.ContentEntity;
+import edens.zac.portfolio.backend.entity.ContentImageEntity;
+import edens.zac.portfolio.backend.entity.ContentLensEntity;
+import edens.zac.portfolio.backend.entity.ContentPersonEntity;
+import edens.zac.portfolio.backend.entity.ContentTextEntity;
+import edens.zac.portfolio.backend.entity.LocationEntity;
+import edens.zac.portfolio.backend.entity.TagEntity;
+import edens.zac.portfolio.backend.model.CollectionModel;
+import edens.zac.portfolio.backend.model.Records;
+import edens.zac.portfolio.backend.types.CollectionVisibility;
+import edens.zac.portfolio.backend.types.ContentType;
+import edens.zac.portfolio.backend.types.DisplayMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * {@link CollectionProcessingUtil#convertToModel} for one page of a collection, with every batch
+ * lookup answered from memory. This measures the conversion itself: grouping, per-image tag/people/
+ * location resolution, sorting and record building. The page mixes images (most of it), text blocks
+ * and child-collection tiles with cover images, like a parent collection page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CollectionConversionBenchmark {
+
+  @Param({"50", "500"})
+  public int pageSize;
+
+  private CollectionProcessingUtil util;
+  private CollectionEntity collection;
+  private List<CollectionContentEntity> joinEntries;
+
+  @Setup
+  public void setUp() {
+    LocalDateTime now = LocalDateTime.of(2025, 6, 1, 10, 0);
+    List<TagEntity> tags = new ArrayList<>();
+    for (long t = 1; t <= 40; t++) {
+      tags.add(TagEntity.builder().id(t).tagName("tag " + t).slug("tag-" + t).build());
+    }
+    List<ContentPersonEntity> people = new ArrayList<>();
+    for (long p = 1; p <= 12; p++) {
+      people.add(ContentPersonEntity.builder().id(p).personName("Person " + p).build());
+    }
+    List<LocationEntity> locations = new ArrayList<>();
+    for (long l = 1; l <= 8; l++) {
+      locations.add(
+          LocationEntity.builder().id(l).locationName("Place " + l).slug("place-" + l).build());
+    }
+
+    collection =
+        CollectionEntity.builder()
+            .id(1L)
+            .title("Benchmark collection")
+            .slug("benchmark-collection")
+            .visibility(CollectionVisibility.LISTED)
+            .displayMode(DisplayMode.ORDERED)
+            .coverImageId(1_000_000L)
+            .createdAt(now)
+            .updatedAt(now)
+            .build();
+
+    Map<Long, ContentEntity> contentById = new HashMap<>();
+    Map<Long, ContentImageEntity> imagesById = new HashMap<>();
+    Map<Long, CollectionEntity> childCollections = new HashMap<>();
+    Map<Long, List<TagEntity>> tagsByContent = new HashMap<>();
+    Map<Long, List<ContentPersonEntity>> peopleByContent = new HashMap<>();
+    Map<Long, List<LocationEntity>> locationsByContent = new HashMap<>();
+    joinEntries = new ArrayList<>(pageSize);
+
+    ContentImageEntity cover = image(1_000_000L, now);
+    imagesById.put(cover.getId(), cover);
+    for (long id = 1; id <= pageSize; id++) {
+      ContentEntity content;
+      if (id % 20 == 0) {
+        content =
+            ContentTextEntity.builder()
+                .id(id)
+                .contentType(ContentType.TEXT)
+                .textContent("Notes for section " + id)
+                .formatType("markdown")
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+      } else if (id % 20 == 10) {
+        CollectionEntity child =
+            CollectionEntity.builder()
+                .id(100 + id)
+                .title("Child " + id)
+                .slug("child-" + id)
+                .visibility(CollectionVisibility.LISTED)
+                .coverImageId(1_000_000L)
+                .collectionDate(LocalDate.of(2025, 1, 1).plusDays(id))
+                .build();
+        childCollections.put(child.getId(), child);
+        content =
+            ContentCollectionEntity.builder()
+                .id(id)
+                .contentType(ContentType.COLLECTION)
+                .referencedCollection(child)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+      } else {
+        ContentImageEntity image = image(id, now);
+        imagesById.put(id, image);
+        content = image;
+        List<TagEntity> imageTags = new ArrayList<>();
+        for (int t = 0; t < id % 6; t++) {
+          imageTags.add(tags.get((int) ((id * 7 + t) % tags.size())));
+        }
+        tagsByContent.put(id, imageTags);
+        peopleByContent.put(
+            id, id % 3 == 0 ? List.of(people.get((int) (id % people.size()))) : List.of());
+        locationsByContent.put(id, List.of(locations.get((int) (id % locations.size()))));
+      }
+      contentById.put(id, content);
+      joinEntries.add(
+          CollectionContentEntity.builder()
+              .id(id)
+              .collectionId(1L)
+              .contentId(id)
+              .orderIndex((int) id)
+              .visible(true)
+              .createdAt(now)
+              .updatedAt(now)
+              .build());
+    }
+
+    JdbcTemplate unused = new JdbcTemplate();
+    ContentRepository contentRepository =
+        new ContentRepository(unused) {
+          @Override
+          public List<ContentEntity> findAllByIds(List<Long> ids) {
+            return ids.stream().map(contentById::get).toList();
+          }
+
+          @Override
+          public List<ContentImageEntity> findImagesByIds(List<Long> ids) {
+            return ids.stream().map(imagesById::get).toList();
+          }
+        };
+    CollectionRepository collectionRepository =
+        new CollectionRepository(unused) {
+          @Override
+          public List<CollectionEntity> findByIds(List<Long> ids) {
+            return ids.stream().map(childCollections::get).toList();
+          }
+        };
+    TagRepository tagRepository =
+        new TagRepository(unused) {
+          @Override
+          public Map<Long, List<TagEntity>> findTagsByContentIds(List<Long> contentIds) {
+            return select(tagsByContent, contentIds);
+          }
+        };
+    PersonRepository personRepository =
+        new PersonRepository(unused) {
+          @Override
+          public Map<Long, List<ContentPersonEntity>> findPeopleByContentIds(
+              List<Long> contentIds) {
+            return select(peopleByContent, contentIds);
+          }
+        };
+    LocationRepository locationRepository =
+        new LocationRepository(unused) {
+          @Override
+          public Map<Long, List<LocationEntity>> findLocationsByContentIds(List<Long> contentIds) {
+            return select(locationsByContent, contentIds);
+          }
+
+          @Override
+          public Map<Long, List<LocationEntity>> findLocationsByCollectionIds(
+              List<Long> collectionIds) {
+            return Map.of(1L, List.of(locations.getFirst()));
+          }
+        };
+    CollectionPeopleRepository collectionPeopleRepository =
+        new CollectionPeopleRepository(unused) {
+          @Override
+          public Map<Long, List<Records.Person>> findPeopleForCollections(
+              List<Long> collectionIds) {
+            return Map.of();
+          }
+        };
+
+    ContentModelConverter converter =
+        new ContentModelConverter(
+            contentRepository,
+            collectionRepository,
+            tagRepository,
+            personRepository,
+            locationRepository);
+    util =
+        new CollectionProcessingUtil(
+            collectionRepository,
+            collectionPeopleRepository,
+            new CollectionSiblingRepository(unused),
+            contentRepository,
+            converter,
+            new ContentMutationUtil(
+                contentRepository,
+                collectionRepository,
+                tagRepository,
+                personRepository,
+                locationRepository),
+            locationRepository,
+            tagRepository,
+            personRepository);
+  }
+
+  @Benchmark
+  public CollectionModel convertToModel() {
+    return util.convertToModel(collection, joinEntries, 0, pageSize, pageSize);
+  }
+
+  private static ContentImageEntity image(long id, LocalDateTime now) {
+    return ContentImageEntity.builder()
+        .id(id)
+        .contentType(ContentType.IMAGE)
+        .title("Frame " + id)
+        .imageWidth(2500)
+        .imageHeight(1667)
+        .iso(400)
+        .rating((int) (id % 6))
+        .fStop("f/2.8")
+        .shutterSpeed("1/250 sec")
+        .focalLength("35 mm")
+        .imageUrlWeb("https://cdn.example/Image/Web/frame-" + id + ".webp")
+        .camera(ContentCameraEntity.builder().id(1L).cameraName("ILCE-7RM4").build())
+        .lens(ContentLensEntity.builder().id(1L).lensName("FE 24-70mm F2.8 GM II").build())
+        .captureDate(now.minusMinutes(id))
+        .createdAt(now)
+        .updatedAt(now)
+        .tags(new HashSet<>())
+        .people(new HashSet<>())
+        .build();
+  }
+
+  private static <V> Map<Long, List<V>> select(Map<Long, List<V>> source, List<Long> ids) {
+    Map<Long, List<V>> out = new HashMap<>();
+    for (Long id : ids) {
+      List<V> values = source.get(id);
+      if (values != null && !values.isEmpty()) {
+        out.put(id, values);
+      }
+    }
+    return out;
+  }
+}
@@ -0,0 +1,78 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.benchmarks.SyntheticJpegs;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The CPU stages of {@link ImageProcessingService#prepareImageForUpload}: resize to the 2500px web
+ * rendition, WebP encode at quality 0.85, and the content-hashed web filename. The service is built
+ * without S3, CloudFront or repositories -- these stages touch none of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ImagePipelineBenchmark {
+
+  /** Long edge of the source; 6000 is a 24MP export, 2000 takes the no-resize path. */
+  @Param({"6000", "2000"})
+  public int sourceLongEdge;
+
+  private ImageProcessingService service;
+  private BufferedImage source;
+  private BufferedImage webRendition;
+  private byte[] webp;
+
+  @Setup
+  public void setUp() throws IOException {
+    service =
+        new ImageProcessingService(
+            null,
+            null,
+            null,
+            null,
+            null,
+            new ImageMetadataExtractor(),
+            null,
+            new MediaPipelineMetrics(new SimpleMeterRegistry()),
+            null,
+            "benchmark-bucket",
+            "cdn.example",
+            "");
+    source = SyntheticJpegs.image(sourceLongEdge, sourceLongEdge * 2 / 3, 42);
+    webRendition = service.resizeImage(source, 2500);
+    webp = service.convertToWebP(webRendition);
+  }
+
+  @Benchmark
+  public BufferedImage resizeImage() {
+    return service.resizeImage(source, 2500);
+  }
+
+  @Benchmark
+  public byte[] convertToWebP() throws IOException {
+    return service.convertToWebP(webRendition);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public String hashedWebFilename() {
+    return service.hashedWebFilename("DSC01234.jpg", webp);
+  }
+}
@@ -0,0 +1,185 @@
+package edens.zac.portfolio.backend.services;
+
+import com.drew.imaging.ImageMetadataReader;
+import com.drew.metadata.Directory;
+import com.drew.metadata.Metadata;
+import com.drew.metadata.Tag;
+import edens.zac.portfolio.backend.benchmarks.SyntheticJpegs;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link ImageMetadataExtractor} over a corpus of JPEGs: the whole extraction, the EXIF
+ * tag-to-field mapping alone (table lookup vs. the former scan of every field per tag), and
+ * width/height from the header vs. a full decode.
+ *
+ * <p>The corpus is synthetic ({@link SyntheticJpegs}) unless {@code -p corpusDir=/path} points at
+ * real files -- JPEG exports or RAW files (metadata-extractor reads the TIFF-based RAW formats).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetadataExtractionBenchmark {
+
+  /** Directory of real sample files; empty uses the synthetic corpus. */
+  @Param({""})
+  public String corpusDir;
+
+  @Param({"16"})
+  public int syntheticCount;
+
+  private final ImageMetadataExtractor extractor = new ImageMetadataExtractor();
+  private Path workDir;
+  private List<Path> files;
+  private List<byte[]> jpegs;
+  private List<Metadata> parsed;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    files = new ArrayList<>();
+    jpegs = new ArrayList<>();
+    if (corpusDir.isBlank()) {
+      workDir = Files.createTempDirectory("metadata-bench-");
+      List<byte[]> corpus = SyntheticJpegs.corpus(syntheticCount);
+      for (int i = 0; i < corpus.size(); i++) {
+        Path file = workDir.resolve("fixture-" + i + ".jpg");
+        Files.write(file, corpus.get(i));
+        files.add(file);
+        jpegs.add(corpus.get(i));
+      }
+    } else {
+      try (Stream<Path> listing = Files.list(Path.of(corpusDir))) {
+        listing.filter(Files::isRegularFile).sorted().forEach(files::add);
+      }
+      for (Path file : files) {
+        String name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".jpg") || name.endsWith(".jpeg")) {
+          jpegs.add(Files.readAllBytes(file));
+        }
+      }
+    }
+    parsed = new ArrayList<>();
+    for (Path file : files) {
+      parsed.add(ImageMetadataReader.readMetadata(file.toFile()));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    if (workDir != null) {
+      try (Stream<Path> listing = Files.list(workDir)) {
+        for (Path file : listing.toList()) {
+          Files.deleteIfExists(file);
+        }
+      }
+      Files.deleteIfExists(workDir);
+    }
+  }
+
+  /** The production entry point per file: parse, map EXIF and XMP, keywords, dimensions. */
+  @Benchmark
+  public void extractImageMetadata(Blackhole bh) throws IOException {
+    for (Path file : files) {
+      bh.consume(extractor.extractImageMetadata(file));
+    }
+  }
+
+  /** Tag mapping as shipped: one table lookup per tag, descriptions built only when needed. */
+  @Benchmark
+  public void tagMappingLookupTable(Blackhole bh) {
+    for (Metadata metadata : parsed) {
+      Map<String, String> out = new HashMap<>();
+      for (Directory directory : metadata.getDirectories()) {
+        for (Tag tag : directory.getTags()) {
+          String description = null;
+          for (ImageMetadata.MetadataField field :
+              ImageMetadata.MetadataField.forExifTag(tag.getTagName())) {
+            if (out.containsKey(field.getFieldName())) {
+              continue;
+            }
+            if (description == null) {
+              description = tag.getDescription();
+              if (description == null || description.isEmpty()) {
+                break;
+              }
+            }
+            String value = field.getExtractor().extract(description);
+            if (value != null) {
+              out.put(field.getFieldName(), value);
+            }
+          }
+        }
+      }
+      bh.consume(out);
+    }
+  }
+
+  /** Baseline: the former mapping -- describe every tag, then test it against every field. */
+  @Benchmark
+  public void tagMappingLinearScan(Blackhole bh) {
+    for (Metadata metadata : parsed) {
+      Map<String, String> out = new HashMap<>();
+      for (Directory directory : metadata.getDirectories()) {
+        for (Tag tag : directory.getTags()) {
+          String tagName = tag.getTagName();
+          String description = tag.getDescription();
+          if (description == null || description.isEmpty()) {
+            continue;
+          }
+          for (ImageMetadata.MetadataField field : ImageMetadata.MetadataField.values()) {
+            if (field.getExifTags().matches(tagName) && !out.containsKey(field.getFieldName())) {
+              String value = field.getExtractor().extract(description);
+              if (value != null) {
+                out.put(field.getFieldName(), value);
+              }
+            }
+          }
+        }
+      }
+      bh.consume(out);
+    }
+  }
+
+  /** Dimensions as shipped: the reader stops after the SOF header. */
+  @Benchmark
+  public void dimensionsFromHeader(Blackhole bh) throws IOException {
+    for (byte[] jpeg : jpegs) {
+      bh.consume(ImageMetadataExtractor.readHeaderDimensions(new ByteArrayInputStream(jpeg)));
+    }
+  }
+
+  /** Baseline: the former fallback -- decode every pixel to learn width and height. */
+  @Benchmark
+  public void dimensionsFromFullDecode(Blackhole bh) throws IOException {
+    for (byte[] jpeg : jpegs) {
+      var image = ImageIO.read(new ByteArrayInputStream(jpeg));
+      bh.consume(new int[] {image.getWidth(), image.getHeight()});
+    }
+  }
+}
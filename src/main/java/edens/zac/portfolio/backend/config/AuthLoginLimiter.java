@@ -1,28 +1,40 @@
 package edens.zac.portfolio.backend.config;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
 import java.time.Duration;
 import java.util.Locale;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Per-(IP, email) login failure limiter: {@code app.auth.login.max-attempts} failures per {@code
+ * app.auth.login.window-minutes}, after which {@link #isBlocked} holds until the window refills.
+ * Each failure spends one token of a Bucket4j bucket kept in the {@link RateLimitBucketStore}, so
+ * with the shared backend the budget is per cluster rather than per instance.
+ */
 @Component
 public class AuthLoginLimiter {
 
-  private final int maxAttempts;
-  private final Cache<String, Integer> failures;
+  private static final String NAMESPACE = "auth-login";
+
+  private final RateLimitBucketStore bucketStore;
+  private final Duration window;
+  private final BucketConfiguration configuration;
 
-  @Autowired
   public AuthLoginLimiter(
+      RateLimitBucketStore bucketStore,
       @Value("${app.auth.login.max-attempts:5}") int maxAttempts,
       @Value("${app.auth.login.window-minutes:15}") int windowMinutes) {
-    this.maxAttempts = maxAttempts;
-    this.failures =
-        Caffeine.newBuilder()
-            .expireAfterWrite(Duration.ofMinutes(windowMinutes))
-            .maximumSize(10_000)
+    this.bucketStore = bucketStore;
+    this.window = Duration.ofMinutes(windowMinutes);
+    this.configuration =
+        BucketConfiguration.builder()
+            .addLimit(
+                Bandwidth.builder()
+                    .capacity(maxAttempts)
+                    .refillIntervally(maxAttempts, window)
+                    .build())
             .build();
   }
 
@@ -31,8 +43,8 @@ public class AuthLoginLimiter {
     if (key == null) {
       return false;
     }
-    Integer count = failures.getIfPresent(key);
-    return count != null && count >= maxAttempts;
+    return bucketStore.bucket(NAMESPACE, key, window, () -> configuration).getAvailableTokens()
+        <= 0;
   }
 
   public void recordFailure(String ip, String email) {
@@ -40,13 +52,13 @@ public class AuthLoginLimiter {
     if (key == null) {
       return;
     }
-    failures.asMap().merge(key, 1, Integer::sum);
+    bucketStore.bucket(NAMESPACE, key, window, () -> configuration).tryConsume(1);
   }
 
   public void reset(String ip, String email) {
     String key = key(ip, email);
     if (key != null) {
-      failures.invalidate(key);
+      bucketStore.remove(NAMESPACE, key);
     }
   }
 
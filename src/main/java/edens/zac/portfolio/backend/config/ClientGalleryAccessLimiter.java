@@ -1,9 +1,7 @@
 package edens.zac.portfolio.backend.config;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
 import java.time.Duration;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,10 +9,10 @@ import org.springframework.stereotype.Component;
 
 /**
  * Per-(IP, slug) token-bucket rate limiter for the client-gallery <code>/access</code> endpoint,
- * bounded by a Caffeine cache (10k entries, 30-minute idle TTL).
+ * with its buckets in the {@link RateLimitBucketStore} (30-minute idle TTL in memory).
  *
- * <p>Mirrors {@link ContactMessageLimiter} in shape: Caffeine-backed Bucket4j buckets with bounded
- * memory. Defaults to 5 attempts per 15 minutes, configurable via {@code
+ * <p>Mirrors {@link ContactMessageLimiter} in shape: Bucket4j buckets from the shared store.
+ * Defaults to 5 attempts per 15 minutes, configurable via {@code
  * app.client-gallery.access-attempts-per-window} and {@code
  * app.client-gallery.access-window-minutes}.
  *
@@ -24,30 +22,37 @@ import org.springframework.stereotype.Component;
 @Component
 public class ClientGalleryAccessLimiter {
 
-  private final int attemptsPerWindow;
-  private final Duration window;
-  private final Cache<String, Bucket> buckets;
+  private static final String NAMESPACE = "gallery-access";
+
+  private final RateLimitBucketStore bucketStore;
+  private final Duration idleTtl;
+  private final BucketConfiguration configuration;
 
   @Autowired
   public ClientGalleryAccessLimiter(
+      RateLimitBucketStore bucketStore,
       @Value("${app.client-gallery.access-attempts-per-window:5}") int attemptsPerWindow,
       @Value("${app.client-gallery.access-window-minutes:15}") int windowMinutes) {
-    this(attemptsPerWindow, Duration.ofMinutes(windowMinutes));
+    this(bucketStore, attemptsPerWindow, Duration.ofMinutes(windowMinutes));
   }
 
   /**
    * Test-only constructor that accepts an arbitrary {@link Duration} so refill-timing tests can use
    * sub-second windows without sleeping for minutes.
    */
-  ClientGalleryAccessLimiter(int attemptsPerWindow, Duration window) {
-    this.attemptsPerWindow = attemptsPerWindow;
-    this.window = window;
+  ClientGalleryAccessLimiter(
+      RateLimitBucketStore bucketStore, int attemptsPerWindow, Duration window) {
+    this.bucketStore = bucketStore;
     // Idle expiry slightly larger than the window so an attacker cannot reset their count by
-    // pausing for exactly the refill interval. 10k entries caps memory.
-    this.buckets =
-        Caffeine.newBuilder()
-            .expireAfterAccess(window.plus(Duration.ofMinutes(15)))
-            .maximumSize(10_000)
+    // pausing for exactly the refill interval.
+    this.idleTtl = window.plus(Duration.ofMinutes(15));
+    this.configuration =
+        BucketConfiguration.builder()
+            .addLimit(
+                Bandwidth.builder()
+                    .capacity(attemptsPerWindow)
+                    .refillIntervally(attemptsPerWindow, window)
+                    .build())
             .build();
   }
 
@@ -66,16 +71,6 @@ public class ClientGalleryAccessLimiter {
       return true;
     }
     String key = ip.trim() + "|" + GalleryAccessCookies.normalizeSlug(slug);
-    Bucket bucket = buckets.get(key, k -> newBucket());
-    return bucket.tryConsume(1);
-  }
-
-  private Bucket newBucket() {
-    Bandwidth limit =
-        Bandwidth.builder()
-            .capacity(attemptsPerWindow)
-            .refillIntervally(attemptsPerWindow, window)
-            .build();
-    return Bucket.builder().addLimit(limit).build();
+    return bucketStore.bucket(NAMESPACE, key, idleTtl, () -> configuration).tryConsume(1);
   }
 }
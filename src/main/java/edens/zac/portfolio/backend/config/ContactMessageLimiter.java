@@ -1,15 +1,14 @@
 package edens.zac.portfolio.backend.config;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
 import java.time.Duration;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
- * Per-email token-bucket rate limiter, bounded by a Caffeine cache (10k emails, 2h idle TTL).
+ * Per-email token-bucket rate limiter, with its buckets in the {@link RateLimitBucketStore} (2h
+ * idle TTL in memory).
  *
  * <p>Enforced at the controller layer (after {@code @RequestBody} parsing) for the public messages
  * endpoint. Per-IP limiting is handled separately by {@link RateLimitFilter}.
@@ -17,13 +16,24 @@ import org.springframework.stereotype.Component;
 @Component
 public class ContactMessageLimiter {
 
-  private final int perHour;
-  private final Cache<String, Bucket> buckets =
-      Caffeine.newBuilder().expireAfterAccess(Duration.ofHours(2)).maximumSize(10_000).build();
+  private static final String NAMESPACE = "contact-email";
+  private static final Duration IDLE_TTL = Duration.ofHours(2);
+
+  private final RateLimitBucketStore bucketStore;
+  private final BucketConfiguration configuration;
 
   public ContactMessageLimiter(
+      RateLimitBucketStore bucketStore,
       @Value("${app.contact.rate-limit-per-email-per-hour:5}") int perHour) {
-    this.perHour = perHour;
+    this.bucketStore = bucketStore;
+    this.configuration =
+        BucketConfiguration.builder()
+            .addLimit(
+                Bandwidth.builder()
+                    .capacity(perHour)
+                    .refillIntervally(perHour, Duration.ofHours(1))
+                    .build())
+            .build();
   }
 
   /**
@@ -38,17 +48,6 @@ public class ContactMessageLimiter {
       return true;
     }
     String key = email.trim().toLowerCase(java.util.Locale.ROOT);
-    Bucket bucket =
-        buckets.get(
-            key,
-            k ->
-                Bucket.builder()
-                    .addLimit(
-                        Bandwidth.builder()
-                            .capacity(perHour)
-                            .refillIntervally(perHour, Duration.ofHours(1))
-                            .build())
-                    .build());
-    return bucket.tryConsume(1);
+    return bucketStore.bucket(NAMESPACE, key, IDLE_TTL, () -> configuration).tryConsume(1);
   }
 }
@@ -102,8 +102,8 @@ public final class GalleryAccessCookies {
    *
    * @param request Servlet request
    * @param slug Collection slug for the per-slug cookie lookup
-   * @param password Current plaintext password on the gallery being read; null/blank treats the
-   *     gallery as unprotected and short-circuits to {@code true}
+   * @param password Current stored password (hash or legacy plaintext) on the gallery being read;
+   *     null/blank treats the gallery as unprotected and short-circuits to {@code true}
    * @param auth Auth service for HMAC validation
    */
   public static boolean hasValidAccess(
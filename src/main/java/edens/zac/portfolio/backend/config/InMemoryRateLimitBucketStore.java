@@ -0,0 +1,57 @@
+package edens.zac.portfolio.backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.local.LocalBucketBuilder;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-JVM {@link RateLimitBucketStore}: one Caffeine cache per namespace, each bounded at 10k
+ * buckets with the namespace's idle TTL, so spamming unique keys cannot exhaust memory. Limits are
+ * per instance -- correct only when a single backend serves traffic.
+ */
+public class InMemoryRateLimitBucketStore implements RateLimitBucketStore {
+
+  private final ConcurrentHashMap<String, Cache<String, Bucket>> namespaces =
+      new ConcurrentHashMap<>();
+
+  @Override
+  public Bucket bucket(
+      String namespace, String key, Duration idleTtl, Supplier<BucketConfiguration> configuration) {
+    Cache<String, Bucket> buckets =
+        namespaces.computeIfAbsent(
+            namespace,
+            n -> Caffeine.newBuilder().expireAfterAccess(idleTtl).maximumSize(10_000).build());
+    return buckets.get(key, k -> newBucket(configuration.get()));
+  }
+
+  @Override
+  public void remove(String namespace, String key) {
+    Cache<String, Bucket> buckets = namespaces.get(namespace);
+    if (buckets != null) {
+      buckets.invalidate(key);
+    }
+  }
+
+  /** Buckets currently held for {@code namespace}, after pending evictions run. */
+  long estimatedSize(String namespace) {
+    Cache<String, Bucket> buckets = namespaces.get(namespace);
+    if (buckets == null) {
+      return 0;
+    }
+    buckets.cleanUp();
+    return buckets.estimatedSize();
+  }
+
+  private static Bucket newBucket(BucketConfiguration configuration) {
+    LocalBucketBuilder builder = Bucket.builder();
+    for (var limit : configuration.getBandwidths()) {
+      builder.addLimit(limit);
+    }
+    return builder.build();
+  }
+}
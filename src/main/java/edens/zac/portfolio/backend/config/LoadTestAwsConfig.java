@@ -0,0 +1,80 @@
+package edens.zac.portfolio.backend.config;
+
+import edens.zac.portfolio.backend.loadtest.CapturingSesClient;
+import edens.zac.portfolio.backend.loadtest.FileSystemS3Client;
+import edens.zac.portfolio.backend.loadtest.NoOpCloudFrontClient;
+import java.net.URI;
+import java.nio.file.Path;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+/**
+ * AWS stand-ins for the {@code loadtest} profile, replacing {@link S3Config} and {@link SesConfig}
+ * (both {@code !loadtest}) so the app runs end to end on one machine without AWS credentials:
+ *
+ * <ul>
+ *   <li>S3 is a {@link FileSystemS3Client} under {@code app.loadtest.s3.directory}.
+ *   <li>Presigned GETs point at {@code app.loadtest.public-base-url}{@code /loadtest/s3/...}, which
+ *       {@link edens.zac.portfolio.backend.loadtest.LoadTestObjectController} serves from that
+ *       directory, so download redirects can be followed like real S3 URLs.
+ *   <li>CloudFront invalidations are counted and dropped ({@link NoOpCloudFrontClient}).
+ *   <li>SES messages are captured in memory ({@link CapturingSesClient}).
+ * </ul>
+ *
+ * <p>Real credentials are never read; the presigner signs with fixed dummy keys that nothing
+ * checks.
+ */
+@Slf4j
+@Configuration
+@Profile("loadtest")
+public class LoadTestAwsConfig {
+
+  @Value("${app.loadtest.s3.directory}")
+  private Path s3Directory;
+
+  @Value("${app.loadtest.public-base-url}")
+  private String publicBaseUrl;
+
+  @Value("${app.loadtest.ses.capacity:1000}")
+  private int sesCapacity;
+
+  @Bean
+  public FileSystemS3Client s3Client() {
+    return new FileSystemS3Client(s3Directory);
+  }
+
+  @Bean(destroyMethod = "close")
+  public S3Presigner s3Presigner() {
+    URI endpoint = URI.create(stripTrailingSlash(publicBaseUrl) + "/loadtest/s3");
+    log.info("Load-test presigned URLs point at {}", endpoint);
+    return S3Presigner.builder()
+        .credentialsProvider(
+            StaticCredentialsProvider.create(AwsBasicCredentials.create("loadtest", "loadtest")))
+        .region(Region.US_WEST_2)
+        .endpointOverride(endpoint)
+        .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+        .build();
+  }
+
+  @Bean
+  public NoOpCloudFrontClient cloudFrontClient() {
+    return new NoOpCloudFrontClient();
+  }
+
+  @Bean
+  public CapturingSesClient sesV2Client() {
+    return new CapturingSesClient(sesCapacity);
+  }
+
+  private static String stripTrailingSlash(String url) {
+    return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+  }
+}
@@ -0,0 +1,68 @@
+package edens.zac.portfolio.backend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Authenticates a Prometheus scraper on {@code /actuator/prometheus} by {@code Authorization:
+ * Bearer <app.metrics.scrape-token>}, granting {@code ROLE_METRICS}. The token is compared in
+ * constant time; a blank configured token never matches, so the endpoint stays admin-only until one
+ * is set. Every other path passes through untouched.
+ */
+@Component
+public class MetricsScrapeTokenFilter extends OncePerRequestFilter {
+
+  static final String PROMETHEUS_PATH = "/actuator/prometheus";
+  private static final String BEARER = "Bearer ";
+
+  private final byte[] scrapeToken;
+
+  /**
+   * Spring constructor.
+   *
+   * @param scrapeToken the shared scraper token; blank disables token access
+   */
+  public MetricsScrapeTokenFilter(@Value("${app.metrics.scrape-token:}") String scrapeToken) {
+    this.scrapeToken =
+        scrapeToken == null || scrapeToken.isBlank()
+            ? null
+            : scrapeToken.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !PROMETHEUS_PATH.equals(request.getRequestURI());
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String header = request.getHeader("Authorization");
+    if (scrapeToken != null && header != null && header.startsWith(BEARER)) {
+      byte[] provided = header.substring(BEARER.length()).getBytes(StandardCharsets.UTF_8);
+      if (MessageDigest.isEqual(scrapeToken, provided)) {
+        var auth =
+            new UsernamePasswordAuthenticationToken(
+                "metrics-scraper", null, List.of(new SimpleGrantedAuthority("ROLE_METRICS")));
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(auth);
+        SecurityContextHolder.setContext(context);
+      }
+    }
+    filterChain.doFilter(request, response);
+  }
+}
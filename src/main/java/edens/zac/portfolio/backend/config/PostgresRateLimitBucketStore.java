@@ -0,0 +1,95 @@
+package edens.zac.portfolio.backend.config;
+
+import edens.zac.portfolio.backend.dao.SharedStateRepository;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.jdbc.BucketTableSettings;
+import io.github.bucket4j.distributed.jdbc.PrimaryKeyMapper;
+import io.github.bucket4j.distributed.jdbc.SQLProxyConfiguration;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.postgresql.PostgreSQLSelectForUpdateBasedProxyManager;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cluster-wide {@link RateLimitBucketStore} on the {@code rate_limit_bucket} table (V61), through
+ * bucket4j's PostgreSQL proxy manager: every consume is a short {@code SELECT ... FOR UPDATE}
+ * transaction on its own pooled connection, outside any caller transaction, so instances serialize
+ * on the bucket row and share one token count.
+ *
+ * <p>bucket4j 8.10's JDBC backend has no expiry, so {@link #sweepIdle} deletes rows untouched for
+ * {@code app.shared-state.bucket-idle-minutes}, which must exceed the longest refill period of any
+ * limiter (one hour today).
+ */
+@Slf4j
+public class PostgresRateLimitBucketStore implements RateLimitBucketStore {
+
+  /** Width of {@code rate_limit_bucket.id}. */
+  static final int MAX_ROW_ID_LENGTH = 400;
+
+  private final ProxyManager<String> proxyManager;
+  private final SharedStateRepository sharedStateRepository;
+  private final Duration bucketIdle;
+
+  /**
+   * @param bucketIdle how long an untouched bucket row is kept before {@link #sweepIdle} drops it
+   */
+  public PostgresRateLimitBucketStore(
+      DataSource dataSource, SharedStateRepository sharedStateRepository, Duration bucketIdle) {
+    this.proxyManager =
+        new PostgreSQLSelectForUpdateBasedProxyManager<>(
+            SQLProxyConfiguration.builder()
+                .withPrimaryKeyMapper(PrimaryKeyMapper.STRING)
+                .withTableSettings(
+                    BucketTableSettings.customSettings("rate_limit_bucket", "id", "state"))
+                .build(dataSource));
+    this.sharedStateRepository = sharedStateRepository;
+    this.bucketIdle = bucketIdle;
+  }
+
+  @Override
+  public Bucket bucket(
+      String namespace, String key, Duration idleTtl, Supplier<BucketConfiguration> configuration) {
+    return proxyManager.builder().build(rowId(namespace, key), configuration);
+  }
+
+  @Override
+  public void remove(String namespace, String key) {
+    proxyManager.removeProxy(rowId(namespace, key));
+  }
+
+  /**
+   * Delete buckets idle past the window; they are full again, so nothing is forgotten. Scheduled by
+   * {@code ClusterScheduledTasks}.
+   */
+  public void sweepIdle() {
+    int removed = sharedStateRepository.deleteIdleBuckets(bucketIdle);
+    if (removed > 0) {
+      log.debug("Swept {} idle rate-limit buckets", removed);
+    }
+  }
+
+  /**
+   * Row id for a bucket. Keys come from request headers and bodies, so one too long for the column
+   * is replaced by its SHA-256.
+   */
+  static String rowId(String namespace, String key) {
+    String id = namespace + ":" + key;
+    if (id.length() <= MAX_ROW_ID_LENGTH) {
+      return id;
+    }
+    try {
+      byte[] digest =
+          MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+      return namespace + ":sha256:" + HexFormat.of().formatHex(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 unavailable", e);
+    }
+  }
+}
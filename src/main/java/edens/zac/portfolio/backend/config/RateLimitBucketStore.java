@@ -0,0 +1,31 @@
+package edens.zac.portfolio.backend.config;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Where the rate limiters keep their Bucket4j buckets. {@link InMemoryRateLimitBucketStore} holds
+ * them per JVM (single-node setups); {@link PostgresRateLimitBucketStore} shares them across every
+ * instance behind the load balancer, so a limit means the same thing at any instance count.
+ * Selected by {@code app.shared-state.backend} in {@link SharedStateConfig}.
+ *
+ * <p>Buckets are addressed by {@code (namespace, key)}: the namespace names the limiter, the key
+ * the client it limits (an IP, an email, an IP and slug).
+ */
+public interface RateLimitBucketStore {
+
+  /**
+   * The bucket for {@code key} in {@code namespace}, created full from {@code configuration} on
+   * first use.
+   *
+   * @param idleTtl how long an untouched bucket must be kept; at least the limit's refill period,
+   *     since an idle bucket that old is full again and can be dropped without changing a decision
+   */
+  Bucket bucket(
+      String namespace, String key, Duration idleTtl, Supplier<BucketConfiguration> configuration);
+
+  /** Forget a bucket, so the next {@link #bucket} call starts it full again. */
+  void remove(String namespace, String key);
+}
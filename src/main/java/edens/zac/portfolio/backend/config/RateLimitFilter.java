@@ -4,7 +4,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -28,19 +29,21 @@ import org.springframework.stereotype.Component;
  * the client IP from {@code X-Real-IP} first, then the first hop of {@code X-Forwarded-For}, then
  * falls back to {@code remoteAddr}.
  *
- * <p>Buckets are stored in a Caffeine cache bounded at 10k entries with a 2-hour idle expiration so
- * the filter cannot be used to exhaust memory by spamming unique IPs.
+ * <p>Buckets live in the {@link RateLimitBucketStore}: in memory they are bounded at 10k entries
+ * with a 2-hour idle expiration so the filter cannot be used to exhaust memory by spamming unique
+ * IPs; with the shared backend the limit holds across all instances.
  */
 @Component
 @Order(2)
 @Slf4j
 public class RateLimitFilter implements Filter {
 
-  private final int rateLimitPerHour;
-  private final ObjectMapper objectMapper;
+  private static final String NAMESPACE = "public-ip";
+  private static final Duration IDLE_TTL = Duration.ofHours(2);
 
-  private final Cache<String, Bucket> ipBuckets =
-      Caffeine.newBuilder().expireAfterAccess(Duration.ofHours(2)).maximumSize(10_000).build();
+  private final RateLimitBucketStore bucketStore;
+  private final BucketConfiguration configuration;
+  private final ObjectMapper objectMapper;
 
   /**
    * Tracks IPs that have already triggered a 429 WARN log within the current hour, so that a
@@ -52,14 +55,24 @@ public class RateLimitFilter implements Filter {
   /**
    * Creates a {@code RateLimitFilter} with the configured hourly rate limit.
    *
+   * @param bucketStore where the per-IP buckets are kept
    * @param rateLimitPerHour maximum requests per IP per hour; read from {@code
    *     app.contact.rate-limit-per-hour} (default 500)
    * @param objectMapper Jackson mapper used to serialise 429 error responses
    */
   public RateLimitFilter(
+      RateLimitBucketStore bucketStore,
       @Value("${app.contact.rate-limit-per-hour:500}") int rateLimitPerHour,
       ObjectMapper objectMapper) {
-    this.rateLimitPerHour = rateLimitPerHour;
+    this.bucketStore = bucketStore;
+    this.configuration =
+        BucketConfiguration.builder()
+            .addLimit(
+                Bandwidth.builder()
+                    .capacity(rateLimitPerHour)
+                    .refillIntervally(rateLimitPerHour, Duration.ofHours(1))
+                    .build())
+            .build();
     this.objectMapper = objectMapper;
   }
 
@@ -86,16 +99,19 @@ public class RateLimitFilter implements Filter {
     }
 
     String ip = resolveClientIp(request);
-    Bucket bucket = ipBuckets.get(ip, k -> newBucket(rateLimitPerHour));
+    // One call both consumes and reports the wait, so the shared backend costs one round trip.
+    ConsumptionProbe probe =
+        bucketStore
+            .bucket(NAMESPACE, ip, IDLE_TTL, () -> configuration)
+            .tryConsumeAndReturnRemaining(1);
 
-    if (bucket.tryConsume(1)) {
+    if (probe.isConsumed()) {
       chain.doFilter(req, res);
     } else {
       logSampled429(ip);
       response.setStatus(429);
       response.setContentType("application/json");
-      long retryAfterSeconds =
-          bucket.estimateAbilityToConsume(1).getNanosToWaitForRefill() / 1_000_000_000L;
+      long retryAfterSeconds = probe.getNanosToWaitForRefill() / 1_000_000_000L;
       response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
       var errorBody =
           new GlobalExceptionHandler.ErrorResponse(
@@ -116,15 +132,6 @@ public class RateLimitFilter implements Filter {
     }
   }
 
-  private Bucket newBucket(int perHour) {
-    Bandwidth limit =
-        Bandwidth.builder()
-            .capacity(perHour)
-            .refillIntervally(perHour, Duration.ofHours(1))
-            .build();
-    return Bucket.builder().addLimit(limit).build();
-  }
-
   private String resolveClientIp(HttpServletRequest request) {
     String real = request.getHeader("X-Real-IP");
     if (real != null && !real.isBlank()) {
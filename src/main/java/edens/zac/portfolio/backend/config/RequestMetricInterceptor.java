@@ -1,6 +1,6 @@
 package edens.zac.portfolio.backend.config;
 
-import edens.zac.portfolio.backend.dao.RequestMetricRepository;
+import edens.zac.portfolio.backend.services.RequestMetricAggregator;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.time.Clock;
@@ -23,20 +23,22 @@ import org.springframework.web.servlet.HandlerMapping;
  * InternalSecretFilter} servlet filter ({@code @Order(-200)}, before the MVC DispatcherServlet)
  * rejects requests lacking the BFF secret, so those never reach this interceptor.
  *
- * <p>Recording is best-effort and failure-safe: the entire record step is wrapped so any exception
- * (DB down, etc.) is caught, logged at WARN, and never propagates — a metrics failure must never
- * break or slow the real response. Recording happens in {@link #afterCompletion}, which fires for
- * any request Spring successfully MAPPED to a handler — regardless of the response status (2xx,
- * 4xx, or 5xx) or whether the handler threw. Counting mapped-but-errored requests is intentional:
- * this is a directional traffic datapoint, not a success meter. Requests Spring never mapped to a
- * handler (no route pattern) are skipped.
+ * <p>Recording is best-effort and failure-safe: the request thread only adds to the in-memory
+ * {@link RequestMetricAggregator}, which writes to the database from a background flush, and the
+ * record step is still wrapped so any exception is caught, logged at WARN, and never propagates — a
+ * metrics failure must never break or slow the real response. Latency is measured from {@link
+ * #preHandle} to {@link #afterCompletion}, i.e. handler time including view rendering. Recording
+ * happens in {@link #afterCompletion}, which fires for any request Spring successfully MAPPED to a
+ * handler — regardless of the response status (2xx, 4xx, or 5xx) or whether the handler threw.
+ * Counting mapped-but-errored requests is intentional: this is a directional traffic datapoint, not
+ * a success meter. Requests Spring never mapped to a handler (no route pattern) are skipped.
  *
  * <p>Slug extraction intentionally reads only the {@code slug} path variable, so routes keyed by a
  * different variable (e.g. {@code {id}} on the image download/read routes) are aggregated slug-less
  * by design — they count under their route pattern with a {@code null} slug.
  *
  * <p>This is intentionally NOT a Spring {@code @Component}: it is instantiated by {@link
- * RequestMetricWebConfig} only when a {@link RequestMetricRepository} is present. That keeps sliced
+ * RequestMetricWebConfig} only when a {@link RequestMetricAggregator} is present. That keeps sliced
  * {@code @WebMvcTest} contexts (which pick up {@code HandlerInterceptor} beans but have no DAO
  * layer) loading cleanly.
  */
@@ -49,19 +51,30 @@ public class RequestMetricInterceptor implements HandlerInterceptor {
    */
   private static final String[] SLUG_VARIABLE_NAMES = {"slug"};
 
-  private final RequestMetricRepository requestMetricRepository;
+  /** Request attribute carrying the {@link System#nanoTime} at {@link #preHandle}. */
+  private static final String START_NANOS_ATTRIBUTE =
+      RequestMetricInterceptor.class.getName() + ".startNanos";
+
+  private final RequestMetricAggregator aggregator;
   private final Clock clock;
 
-  public RequestMetricInterceptor(RequestMetricRepository requestMetricRepository) {
-    this(requestMetricRepository, Clock.systemUTC());
+  public RequestMetricInterceptor(RequestMetricAggregator aggregator) {
+    this(aggregator, Clock.systemUTC());
   }
 
   /** Test seam: inject a fixed {@link Clock} so the recorded {@code day} is deterministic. */
-  RequestMetricInterceptor(RequestMetricRepository requestMetricRepository, Clock clock) {
-    this.requestMetricRepository = requestMetricRepository;
+  RequestMetricInterceptor(RequestMetricAggregator aggregator, Clock clock) {
+    this.aggregator = aggregator;
     this.clock = clock;
   }
 
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    request.setAttribute(START_NANOS_ATTRIBUTE, System.nanoTime());
+    return true;
+  }
+
   @Override
   public void afterCompletion(
       HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
@@ -72,13 +85,18 @@ public class RequestMetricInterceptor implements HandlerInterceptor {
         return;
       }
       String slug = extractSlug(request);
-      requestMetricRepository.increment(LocalDate.now(clock), route, slug);
+      aggregator.record(LocalDate.now(clock), route, slug, latencyMs(request));
     } catch (Exception e) {
       // Failure-safety: never let a metrics write break or slow the real response.
       log.warn("Failed to record request metric for {}", request.getRequestURI(), e);
     }
   }
 
+  private static long latencyMs(HttpServletRequest request) {
+    Object start = request.getAttribute(START_NANOS_ATTRIBUTE);
+    return start instanceof Long nanos ? (System.nanoTime() - nanos) / 1_000_000 : 0L;
+  }
+
   private static String bestMatchingPattern(HttpServletRequest request) {
     Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
     return pattern instanceof String s && !s.isBlank() ? s : null;
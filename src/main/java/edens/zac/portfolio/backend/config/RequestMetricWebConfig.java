@@ -1,6 +1,6 @@
 package edens.zac.portfolio.backend.config;
 
-import edens.zac.portfolio.backend.dao.RequestMetricRepository;
+import edens.zac.portfolio.backend.services.RequestMetricAggregator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Configuration;
@@ -14,24 +14,24 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * endpoints are excluded.
  *
  * <p>The interceptor is built here from an {@link ObjectProvider} for {@link
- * RequestMetricRepository} rather than being a {@code @Component}. This keeps sliced
+ * RequestMetricAggregator} rather than being a {@code @Component}. This keeps sliced
  * {@code @WebMvcTest} contexts loading cleanly: those slices pick up {@code
- * HandlerInterceptor}/{@code WebMvcConfigurer} beans but have no DAO layer, so the repository is
- * absent and no interceptor is registered. In the full application the repository is present and
- * the interceptor is wired.
+ * HandlerInterceptor}/{@code WebMvcConfigurer} beans but have no service or DAO layer, so the
+ * aggregator is absent and no interceptor is registered. In the full application the aggregator is
+ * present and the interceptor is wired.
  */
 @Configuration
 @RequiredArgsConstructor
 public class RequestMetricWebConfig implements WebMvcConfigurer {
 
-  private final ObjectProvider<RequestMetricRepository> requestMetricRepository;
+  private final ObjectProvider<RequestMetricAggregator> requestMetricAggregator;
 
   @Override
   public void addInterceptors(InterceptorRegistry registry) {
-    RequestMetricRepository repository = requestMetricRepository.getIfAvailable();
-    if (repository != null) {
+    RequestMetricAggregator aggregator = requestMetricAggregator.getIfAvailable();
+    if (aggregator != null) {
       registry
-          .addInterceptor(new RequestMetricInterceptor(repository))
+          .addInterceptor(new RequestMetricInterceptor(aggregator))
           .addPathPatterns("/api/read/**");
     }
   }
@@ -1,12 +1,15 @@
 package edens.zac.portfolio.backend.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.cloudfront.CloudFrontClient;
 import software.amazon.awssdk.services.s3.S3Client;
@@ -14,6 +17,7 @@ import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 @Slf4j
 @Configuration
+@Profile("!loadtest")
 public class S3Config {
 
   @Value("${aws.access.key.id}")
@@ -25,6 +29,17 @@ public class S3Config {
   @Value("${aws.s3.region}")
   private String region;
 
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * Spring constructor.
+   *
+   * @param meterRegistry registry the SDK clients report request latency and retries to
+   */
+  public S3Config(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
   @PostConstruct
   public void logConfig() {
     log.info("S3Config initialized");
@@ -42,6 +57,7 @@ public class S3Config {
       return S3Client.builder()
           .credentialsProvider(StaticCredentialsProvider.create(credentials))
           .region(Region.of(region))
+          .overrideConfiguration(metricsOverride())
           .build();
     } catch (Exception e) {
       log.error("Failed to create S3Client", e);
@@ -71,6 +87,13 @@ public class S3Config {
     return CloudFrontClient.builder()
         .credentialsProvider(StaticCredentialsProvider.create(credentials))
         .region(Region.AWS_GLOBAL)
+        .overrideConfiguration(metricsOverride())
+        .build();
+  }
+
+  private ClientOverrideConfiguration metricsOverride() {
+    return ClientOverrideConfiguration.builder()
+        .addExecutionInterceptor(new S3MetricsInterceptor(meterRegistry))
         .build();
   }
 }
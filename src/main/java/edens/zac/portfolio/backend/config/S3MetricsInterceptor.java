@@ -0,0 +1,95 @@
+package edens.zac.portfolio.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+/**
+ * AWS SDK interceptor that times every S3 (and CloudFront) call end to end -- including the SDK's
+ * own retries and backoff -- and counts the retries themselves.
+ *
+ * <ul>
+ *   <li>{@code portfolio.s3.request{service, operation, outcome}} -- one sample per API call;
+ *   <li>{@code portfolio.s3.retries{service, operation}} -- HTTP attempts beyond the first.
+ * </ul>
+ *
+ * <p>{@code beforeTransmission} runs once per HTTP attempt, so the attempt count lives in the
+ * call's {@link ExecutionAttributes} next to its start time.
+ */
+public class S3MetricsInterceptor implements ExecutionInterceptor {
+
+  private static final ExecutionAttribute<Long> START_NANOS =
+      new ExecutionAttribute<>("PortfolioMetricsStartNanos");
+  private static final ExecutionAttribute<Integer> ATTEMPTS =
+      new ExecutionAttribute<>("PortfolioMetricsAttempts");
+
+  private final MeterRegistry registry;
+
+  /**
+   * Create an interceptor recording into {@code registry}.
+   *
+   * @param registry the application meter registry
+   */
+  public S3MetricsInterceptor(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes attributes) {
+    attributes.putAttribute(START_NANOS, System.nanoTime());
+    attributes.putAttribute(ATTEMPTS, 0);
+  }
+
+  @Override
+  public void beforeTransmission(
+      Context.BeforeTransmission context, ExecutionAttributes attributes) {
+    Integer attempts = attributes.getAttribute(ATTEMPTS);
+    attributes.putAttribute(ATTEMPTS, attempts == null ? 1 : attempts + 1);
+  }
+
+  @Override
+  public void afterExecution(Context.AfterExecution context, ExecutionAttributes attributes) {
+    record(attributes, "success");
+  }
+
+  @Override
+  public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes attributes) {
+    record(attributes, "failure");
+  }
+
+  private void record(ExecutionAttributes attributes, String outcome) {
+    Long startNanos = attributes.getAttribute(START_NANOS);
+    if (startNanos == null) {
+      return;
+    }
+    String service = tagValue(attributes.getAttribute(SdkExecutionAttribute.SERVICE_NAME));
+    String operation = tagValue(attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME));
+    Timer.builder("portfolio.s3.request")
+        .description("AWS SDK call latency, including retries")
+        .tag("service", service)
+        .tag("operation", operation)
+        .tag("outcome", outcome)
+        .register(registry)
+        .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+
+    Integer attempts = attributes.getAttribute(ATTEMPTS);
+    if (attempts != null && attempts > 1) {
+      Counter.builder("portfolio.s3.retries")
+          .description("AWS SDK HTTP attempts beyond the first")
+          .tag("service", service)
+          .tag("operation", operation)
+          .register(registry)
+          .increment(attempts - 1);
+    }
+  }
+
+  private static String tagValue(String value) {
+    return value != null ? value : "unknown";
+  }
+}
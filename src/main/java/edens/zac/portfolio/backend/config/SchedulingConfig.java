@@ -0,0 +1,42 @@
+package edens.zac.portfolio.backend.config;
+
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Scheduler threads for {@code @Scheduled} methods.
+ *
+ * <ul>
+ *   <li>{@code taskScheduler}: the default, sized by {@code spring.task.scheduling.pool.size}. Runs
+ *       the sweeps, prunes and cluster-wide tasks, some of which (the image-audience verifier, the
+ *       metric rollups) hold a thread for seconds.
+ *   <li>{@value #LIVENESS_SCHEDULER}: a separate pair of threads for the short, latency-sensitive
+ *       ticks -- the job heartbeats and the ACL version poll. A late heartbeat gets a running job
+ *       reaped as abandoned, and a late poll leaves another instance's revocation in effect, so
+ *       neither may queue behind a long sweep.
+ * </ul>
+ *
+ * <p>Declaring a {@code TaskScheduler} bean switches off Boot's own, so the default is declared
+ * here too, from the auto-configured builder.
+ */
+@Configuration
+public class SchedulingConfig {
+
+  /** Bean name to pass to {@code @Scheduled(scheduler = ...)}. */
+  public static final String LIVENESS_SCHEDULER = "livenessTaskScheduler";
+
+  @Bean
+  public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+    return builder.build();
+  }
+
+  @Bean(LIVENESS_SCHEDULER)
+  public ThreadPoolTaskScheduler livenessTaskScheduler() {
+    ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(2);
+    scheduler.setThreadNamePrefix("liveness-");
+    return scheduler;
+  }
+}
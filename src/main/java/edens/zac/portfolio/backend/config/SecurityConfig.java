@@ -23,6 +23,7 @@ public class SecurityConfig {
   public SecurityFilterChain filterChain(
       HttpSecurity http,
       SessionAuthenticationFilter saf,
+      MetricsScrapeTokenFilter metricsScrapeTokenFilter,
       @Value("${app.admin.enforce-authz:true}") boolean enforceAdminAuthz)
       throws Exception {
     http
@@ -58,9 +59,14 @@ public class SecurityConfig {
               if (enforceAdminAuthz) {
                 auth.requestMatchers("/api/admin/**").hasRole("ADMIN");
               }
+              // Metrics are never public, dev included: a scraper presents the bearer token
+              // (MetricsScrapeTokenFilter -> ROLE_METRICS) or an admin opens it in a session.
+              auth.requestMatchers(MetricsScrapeTokenFilter.PROMETHEUS_PATH)
+                  .hasAnyRole("METRICS", "ADMIN");
               auth.anyRequest().permitAll();
             })
         .addFilterBefore(saf, AuthorizationFilter.class)
+        .addFilterBefore(metricsScrapeTokenFilter, AuthorizationFilter.class)
         .exceptionHandling(
             ex ->
                 ex.authenticationEntryPoint(
@@ -88,4 +94,14 @@ public class SecurityConfig {
     registration.setEnabled(false);
     return registration;
   }
+
+  /** Same as {@link #sessionAuthenticationFilterRegistration}: run only inside the chain. */
+  @Bean
+  public FilterRegistrationBean<MetricsScrapeTokenFilter> metricsScrapeTokenFilterRegistration(
+      MetricsScrapeTokenFilter filter) {
+    FilterRegistrationBean<MetricsScrapeTokenFilter> registration =
+        new FilterRegistrationBean<>(filter);
+    registration.setEnabled(false);
+    return registration;
+  }
 }
@@ -0,0 +1,66 @@
+package edens.zac.portfolio.backend.config;
+
+import edens.zac.portfolio.backend.dao.SharedStateRepository;
+import edens.zac.portfolio.backend.services.InMemoryWebAuthnChallengeStore;
+import edens.zac.portfolio.backend.services.PostgresWebAuthnChallengeStore;
+import edens.zac.portfolio.backend.services.WebAuthnChallengeStore;
+import java.time.Duration;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Picks where per-client security state lives -- in-flight WebAuthn challenges and the rate-limit
+ * buckets -- from {@code app.shared-state.backend}:
+ *
+ * <ul>
+ *   <li>{@code memory} (default): per-JVM Caffeine caches. Right for a single backend; behind a
+ *       load balancer a passkey ceremony fails when {@code /finish} lands on another instance, and
+ *       every limit is multiplied by the instance count.
+ *   <li>{@code postgres}: the unlogged V61 tables, shared by every instance. Costs one short
+ *       transaction per rate-limited request and per ceremony step.
+ * </ul>
+ */
+@Slf4j
+@Configuration
+public class SharedStateConfig {
+
+  private static final String BACKEND = "app.shared-state.backend";
+
+  @Bean
+  @ConditionalOnProperty(name = BACKEND, havingValue = "memory", matchIfMissing = true)
+  public RateLimitBucketStore inMemoryRateLimitBucketStore() {
+    return new InMemoryRateLimitBucketStore();
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = BACKEND, havingValue = "memory", matchIfMissing = true)
+  public WebAuthnChallengeStore inMemoryWebAuthnChallengeStore(
+      @Value("${app.auth.webauthn.challenge-ttl-minutes:5}") long ttlMinutes) {
+    return new InMemoryWebAuthnChallengeStore(Duration.ofMinutes(ttlMinutes));
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = BACKEND, havingValue = "postgres")
+  public PostgresRateLimitBucketStore postgresRateLimitBucketStore(
+      DataSource dataSource,
+      SharedStateRepository sharedStateRepository,
+      @Value("${app.shared-state.bucket-idle-minutes:90}") long bucketIdleMinutes) {
+    log.info("Rate-limit buckets shared through Postgres (rate_limit_bucket)");
+    return new PostgresRateLimitBucketStore(
+        dataSource, sharedStateRepository, Duration.ofMinutes(bucketIdleMinutes));
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = BACKEND, havingValue = "postgres")
+  public PostgresWebAuthnChallengeStore postgresWebAuthnChallengeStore(
+      SharedStateRepository sharedStateRepository,
+      @Value("${app.auth.webauthn.challenge-ttl-minutes:5}") long ttlMinutes) {
+    log.info("WebAuthn challenges shared through Postgres (webauthn_challenge)");
+    return new PostgresWebAuthnChallengeStore(
+        sharedStateRepository, Duration.ofMinutes(ttlMinutes));
+  }
+}
@@ -15,6 +15,7 @@ import edens.zac.portfolio.backend.entity.AppUserEntity;
 import edens.zac.portfolio.backend.model.AuthPrincipal;
 import edens.zac.portfolio.backend.model.CollectionModel;
 import edens.zac.portfolio.backend.services.EmailService;
+import edens.zac.portfolio.backend.services.SessionPrincipalCache;
 import edens.zac.portfolio.backend.services.UserInviteService;
 import edens.zac.portfolio.backend.services.UserMergeService;
 import edens.zac.portfolio.backend.services.UserPageAssembler;
@@ -30,8 +31,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.transaction.support.TransactionSynchronization;
-import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -68,6 +67,7 @@ public class AdminUserController {
   private final UserPageAssembler userPageAssembler;
   private final UserMergeService userMergeService;
   private final EmailService emailService;
+  private final SessionPrincipalCache sessionPrincipalCache;
   private final String frontendBaseUrl;
 
   public AdminUserController(
@@ -77,6 +77,7 @@ public class AdminUserController {
       UserPageAssembler userPageAssembler,
       UserMergeService userMergeService,
       EmailService emailService,
+      SessionPrincipalCache sessionPrincipalCache,
       @Value("${email.frontend-base-url}") String frontendBaseUrl) {
     this.appUserRepository = appUserRepository;
     this.userInviteService = userInviteService;
@@ -84,6 +85,7 @@ public class AdminUserController {
     this.userPageAssembler = userPageAssembler;
     this.userMergeService = userMergeService;
     this.emailService = emailService;
+    this.sessionPrincipalCache = sessionPrincipalCache;
     this.frontendBaseUrl = frontendBaseUrl;
   }
 
@@ -121,7 +123,7 @@ public class AdminUserController {
     Long userId = appUserRepository.insert(newUser);
     String rawToken = userInviteService.createInvite(userId, email);
     String inviteUrl = buildInviteUrl(rawToken);
-    sendInviteEmailAfterCommit(email, request.displayName(), inviteUrl);
+    queueInviteEmail(email, request.displayName(), inviteUrl);
 
     log.info("Admin created user (userId={}, email={})", userId, email);
     return ResponseEntity.status(HttpStatus.CREATED)
@@ -168,7 +170,7 @@ public class AdminUserController {
     AppUserEntity user = maybeUser.get();
     String rawToken = userInviteService.regenerateInvite(user.getId(), user.getEmail());
     String inviteUrl = buildInviteUrl(rawToken);
-    sendInviteEmailAfterCommit(user.getEmail(), user.getName(), inviteUrl);
+    queueInviteEmail(user.getEmail(), user.getName(), inviteUrl);
     log.info("Admin regenerated invite (userId={})", user.getId());
     return ResponseEntity.ok(new CreateUserResponse(user.getId(), inviteUrl));
   }
@@ -215,9 +217,10 @@ public class AdminUserController {
 
     appUserRepository.updateEmail(id, email);
     appUserRepository.updateStatus(id, UserStatus.INVITED);
+    sessionPrincipalCache.evictUser(id);
     String rawToken = userInviteService.regenerateInvite(id, email);
     String inviteUrl = buildInviteUrl(rawToken);
-    sendInviteEmailAfterCommit(email, user.getName(), inviteUrl);
+    queueInviteEmail(email, user.getName(), inviteUrl);
 
     log.info(
         "Admin upgraded PERSON to INVITED (userId={}, email={}, actorId={})",
@@ -288,6 +291,8 @@ public class AdminUserController {
     appUserRepository.updateName(id, request.displayName());
     appUserRepository.updateStatus(id, request.status());
     appUserRepository.updateDescription(id, request.description());
+    // Cached sessions carry the principal's email; re-read it on the user's next request.
+    sessionPrincipalCache.evictUser(id);
     AppUserEntity updated = appUserRepository.findById(id).orElseThrow();
     return ResponseEntity.ok(
         new AdminUserSummary(
@@ -404,33 +409,19 @@ public class AdminUserController {
   }
 
   /**
-   * Send the invite email only once the surrounding transaction commits.
+   * Queue the invite email in the surrounding transaction.
    *
-   * <p>Both invite endpoints are {@code @Transactional}. Sending inline would mail a live link for
-   * a token that a rollback then erases, and would hold a database transaction open across an SES
-   * round-trip. Registering an {@code afterCommit} hook keeps the invite row and the email
-   * consistent: no commit, no email.
+   * <p>Every invite endpoint is {@code @Transactional}, and {@link EmailService} writes the message
+   * to the {@code email_outbox} table rather than calling SES, so the invite row and its email
+   * commit or roll back together: a rollback never leaves a mailed link to an erased token, and no
+   * transaction is held open across an SES round-trip. The outbox worker delivers and retries it.
    *
-   * <p>Delivery is best-effort and deliberately never fails the request — {@link EmailService}
-   * returns a typed reason rather than throwing, and while {@code email.enabled} is false it
+   * <p>Queueing deliberately never fails the request, and while {@code email.enabled} is false it
    * short-circuits to a log line. The response still carries {@code inviteUrl}, so the admin
    * copy-link flow works identically whether or not email is switched on.
-   *
-   * <p>With no active transaction (standalone MockMvc tests) there is nothing to wait for, so the
-   * send happens immediately.
    */
-  private void sendInviteEmailAfterCommit(String email, String displayName, String inviteUrl) {
-    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
-      emailService.sendInviteEmail(email, displayName, inviteUrl);
-      return;
-    }
-    TransactionSynchronizationManager.registerSynchronization(
-        new TransactionSynchronization() {
-          @Override
-          public void afterCommit() {
-            emailService.sendInviteEmail(email, displayName, inviteUrl);
-          }
-        });
+  private void queueInviteEmail(String email, String displayName, String inviteUrl) {
+    emailService.sendInviteEmail(email, displayName, inviteUrl);
   }
 
   /** The acting admin's user id for audit columns, or null in dev where the gate is open. */
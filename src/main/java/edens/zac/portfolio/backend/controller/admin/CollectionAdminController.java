@@ -4,11 +4,22 @@ import edens.zac.portfolio.backend.controller.admin.RoleRequests.CollectionRoleG
 import edens.zac.portfolio.backend.dao.RoleRepository;
 import edens.zac.portfolio.backend.model.CollectionRequests.GalleryAccessRequest;
 import edens.zac.portfolio.backend.model.CollectionRequests.GalleryAccessResponse;
+import edens.zac.portfolio.backend.model.ProofingRequests.CollectionSummary;
+import edens.zac.portfolio.backend.model.ProofingRequests.ExportRequest;
+import edens.zac.portfolio.backend.services.CollectionClosureService;
+import edens.zac.portfolio.backend.services.CollectionClosureService.ClosureReport;
 import edens.zac.portfolio.backend.services.CollectionService;
+import edens.zac.portfolio.backend.services.ImageAudienceService;
+import edens.zac.portfolio.backend.services.ImageAudienceService.AudienceReport;
+import edens.zac.portfolio.backend.services.ProofingExportJobService;
+import edens.zac.portfolio.backend.services.ProofingExportJobService.ProofingExportJobResponse;
+import edens.zac.portfolio.backend.services.ProofingService;
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -31,6 +42,10 @@ public class CollectionAdminController {
 
   private final CollectionService collectionService;
   private final RoleRepository roleRepository;
+  private final CollectionClosureService collectionClosureService;
+  private final ImageAudienceService imageAudienceService;
+  private final ProofingService proofingService;
+  private final ProofingExportJobService proofingExportJobService;
 
   /**
    * List the roles granting this collection (the inverse of the role-detail view), for the
@@ -61,4 +76,121 @@ public class CollectionAdminController {
         ? ResponseEntity.ok(response)
         : ResponseEntity.badRequest().body(response);
   }
+
+  /**
+   * Consistency check for the {@code collection_closure} ancestry table: compares it with a fresh
+   * derivation from the link graph without writing anything.
+   *
+   * @return the row count and a sample of drifted pairs (empty when consistent)
+   */
+  @GetMapping("/closure/check")
+  public ClosureReport checkClosure() {
+    return collectionClosureService.check();
+  }
+
+  /**
+   * Rebuild the {@code collection_closure} ancestry table from scratch (repair after drift).
+   *
+   * @return the rebuilt row count and the drift that was repaired
+   */
+  @PostMapping("/closure/rebuild")
+  public ClosureReport rebuildClosure() {
+    ClosureReport report = collectionClosureService.rebuild();
+    log.info(
+        "Rebuilt collection closure: {} rows, {} drifted pairs repaired",
+        report.rows(),
+        report.drift().size());
+    return report;
+  }
+
+  /**
+   * Consistency check for the {@code image_audience} projection: compares each image's stored
+   * audience with a fresh derivation from memberships and role grants without writing anything.
+   *
+   * @return the row count and a sample of drifted images (empty when consistent)
+   */
+  @GetMapping("/image-audience/check")
+  public AudienceReport checkImageAudience() {
+    return imageAudienceService.check();
+  }
+
+  /**
+   * Rebuild the {@code image_audience} projection from scratch (repair after drift).
+   *
+   * @return the rebuilt row count and the drift that was repaired
+   */
+  @PostMapping("/image-audience/rebuild")
+  public AudienceReport rebuildImageAudience() {
+    AudienceReport report = imageAudienceService.rebuild();
+    log.info(
+        "Rebuilt image audience: {} rows, {} drifted images repaired",
+        report.rows(),
+        report.drift().size());
+    return report;
+  }
+
+  /**
+   * Client proofing totals for a collection: selects, images selected, the ratings histogram and
+   * the most-selected images with how many clients selected each.
+   *
+   * @param id the collection id
+   * @return the summary, read from the maintained counters
+   */
+  @GetMapping("/{id}/proofing-summary")
+  public CollectionSummary proofingSummary(@PathVariable Long id) {
+    return proofingService.summarize(id);
+  }
+
+  /**
+   * Rebuild the {@code proofing_summary} counters from selects and rating overrides.
+   *
+   * @return the rebuilt row count
+   */
+  @PostMapping("/proofing-summary/rebuild")
+  public int rebuildProofingSummary() {
+    int rows = proofingService.rebuildSummary();
+    log.info("Rebuilt proofing summary: {} rows", rows);
+    return rows;
+  }
+
+  /**
+   * Export one client's selects from this collection: a delivery child collection in selection
+   * order, optionally the Lightroom filename filter, and a ZIP of the originals, as one background
+   * job. 202 with the job to poll; a second call for the same client while the export is live
+   * returns that job.
+   *
+   * @param id the collection the client proofed
+   * @param request the client and export options
+   * @return the new or joined job
+   */
+  @PostMapping("/{id}/proofing-exports")
+  public ResponseEntity<ProofingExportJobResponse> exportSelects(
+      @PathVariable Long id, @Valid @RequestBody ExportRequest request) {
+    return ResponseEntity.status(HttpStatus.ACCEPTED)
+        .body(proofingExportJobService.submit(id, request));
+  }
+
+  /** Poll a proofing export job by id. */
+  @GetMapping("/proofing-exports/{jobId}")
+  public ResponseEntity<ProofingExportJobResponse> getProofingExport(@PathVariable UUID jobId) {
+    return proofingExportJobService
+        .getJob(jobId)
+        .map(ResponseEntity::ok)
+        .orElse(ResponseEntity.notFound().build());
+  }
+
+  /**
+   * Redirect (302) to a finished export's archive. 409 while the job runs, if it failed or built no
+   * archive; 404 for an unknown or expired job.
+   */
+  @GetMapping("/proofing-exports/{jobId}/file")
+  public ResponseEntity<Void> getProofingExportFile(@PathVariable UUID jobId) {
+    if (proofingExportJobService.getJob(jobId).isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+    return proofingExportJobService
+        .resultUrl(jobId)
+        .map(url -> ResponseEntity.status(HttpStatus.FOUND).location(url).<Void>build())
+        .orElse(ResponseEntity.status(HttpStatus.CONFLICT).build());
+  }
 }
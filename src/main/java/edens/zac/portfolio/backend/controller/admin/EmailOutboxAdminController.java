@@ -0,0 +1,50 @@
+package edens.zac.portfolio.backend.controller.admin;
+
+import edens.zac.portfolio.backend.services.EmailOutboxWorker;
+import edens.zac.portfolio.backend.types.EmailOutboxStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Admin REST controller for the transactional email outbox: see what is queued, sent or
+ * dead-lettered, and resend a dead-lettered message.
+ *
+ * <p>Runs in dev and prod (no {@code @Profile} gating). In prod, access is restricted by {@link
+ * edens.zac.portfolio.backend.config.InternalSecretFilter}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/admin/email-outbox")
+public class EmailOutboxAdminController {
+
+  private final EmailOutboxWorker emailOutboxWorker;
+
+  @GetMapping
+  public ResponseEntity<EmailOutboxWorker.OutboxPage> list(
+      @RequestParam(defaultValue = "DEAD") EmailOutboxStatus status,
+      @RequestParam(defaultValue = "50") int limit,
+      @RequestParam(defaultValue = "0") int offset) {
+    return ResponseEntity.ok(emailOutboxWorker.list(status, limit, offset));
+  }
+
+  /**
+   * Requeue a DEAD message: 202 once queued, 409 if it is missing, not dead-lettered, or lost its
+   * bodies before V65.
+   */
+  @PostMapping("/{id}/resend")
+  public ResponseEntity<Void> resend(@PathVariable long id) {
+    if (!emailOutboxWorker.resend(id)) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+    return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+  }
+}
@@ -54,12 +54,40 @@ public class RequestMetricController {
 
     List<RequestMetricRow> rows = requestMetricRepository.findByDayRange(resolvedFrom, resolvedTo);
     List<RequestMetrics.RequestMetricView> view =
-        rows.stream()
-            .map(r -> new RequestMetrics.RequestMetricView(r.day(), r.route(), r.slug(), r.count()))
-            .toList();
+        rows.stream().map(RequestMetricController::toView).toList();
     long total = view.stream().mapToLong(RequestMetrics.RequestMetricView::count).sum();
 
     return ResponseEntity.ok(
         new RequestMetrics.RequestMetricList(view, resolvedFrom, resolvedTo, total));
   }
+
+  private static RequestMetrics.RequestMetricView toView(RequestMetricRow row) {
+    long timed = row.latencyHistogram().stream().mapToLong(Long::longValue).sum();
+    if (timed == 0) {
+      return new RequestMetrics.RequestMetricView(
+          row.day(), row.route(), row.slug(), row.count(), null, null, null);
+    }
+    return new RequestMetrics.RequestMetricView(
+        row.day(),
+        row.route(),
+        row.slug(),
+        row.count(),
+        row.totalMs() / timed,
+        row.maxMs(),
+        percentileUpperBound(row.latencyHistogram(), timed, 0.95));
+  }
+
+  /** Upper bound of the bucket holding the given percentile; null for the overflow bucket. */
+  private static Long percentileUpperBound(List<Long> histogram, long timed, double percentile) {
+    long rank = (long) Math.ceil(timed * percentile);
+    long seen = 0;
+    List<Long> bounds = RequestMetricRepository.LATENCY_BUCKET_BOUNDS_MS;
+    for (int i = 0; i < histogram.size(); i++) {
+      seen += histogram.get(i);
+      if (seen >= rank) {
+        return i < bounds.size() ? bounds.get(i) : null;
+      }
+    }
+    return null;
+  }
 }
@@ -2,11 +2,16 @@ package edens.zac.portfolio.backend.controller.admin;
 
 import edens.zac.portfolio.backend.model.CollectionRequests.UpdateResponse;
 import edens.zac.portfolio.backend.model.SaveAsCollectionRequest;
+import edens.zac.portfolio.backend.services.TagConversionJobService;
+import edens.zac.portfolio.backend.services.TagConversionJobService.TagConversionJobResponse;
 import edens.zac.portfolio.backend.services.TagService;
 import jakarta.validation.Valid;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -25,6 +30,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class TagAdminController {
 
   private final TagService tagService;
+  private final TagConversionJobService tagConversionJobService;
 
   @PostMapping("/{id}/save-as-collection")
   public ResponseEntity<UpdateResponse> saveAsCollection(
@@ -32,4 +38,25 @@ public class TagAdminController {
       @Valid @RequestBody(required = false) SaveAsCollectionRequest request) {
     return ResponseEntity.ok(tagService.convertTagToCollection(id, request));
   }
+
+  /**
+   * Background form of save-as-collection for very large tags: 202 with a job to poll. A second
+   * call for the same tag while its job is live returns that job.
+   */
+  @PostMapping("/{id}/save-as-collection/jobs")
+  public ResponseEntity<TagConversionJobResponse> saveAsCollectionInBackground(
+      @PathVariable Long id,
+      @Valid @RequestBody(required = false) SaveAsCollectionRequest request) {
+    return ResponseEntity.status(HttpStatus.ACCEPTED)
+        .body(tagConversionJobService.submit(id, request));
+  }
+
+  /** Poll a background conversion job by id. */
+  @GetMapping("/conversion-jobs/{jobId}")
+  public ResponseEntity<TagConversionJobResponse> getConversionJob(@PathVariable UUID jobId) {
+    return tagConversionJobService
+        .getJob(jobId)
+        .map(ResponseEntity::ok)
+        .orElse(ResponseEntity.notFound().build());
+  }
 }
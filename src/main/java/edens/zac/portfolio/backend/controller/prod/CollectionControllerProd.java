@@ -105,13 +105,17 @@ public class CollectionControllerProd {
   }
 
   /**
-   * Get location page with collections and orphan images.
+   * Get location page with collections and orphan images. Each listing pages by the opaque cursor
+   * from the previous response ({@code nextCollectionCursor} / {@code nextImageCursor}); the page
+   * numbers remain for older clients and are ignored when a cursor is given.
    *
    * @param slug Location slug
    * @param collectionPage Collection page number (0-based)
    * @param collectionSize Collections per page
+   * @param collectionCursor Cursor for the next page of collections
    * @param imagePage Image page number (0-based)
    * @param imageSize Images per page
+   * @param imageCursor Cursor for the next page of images
    * @return ResponseEntity with location page data
    */
   @GetMapping("/location/{slug}")
@@ -119,8 +123,10 @@ public class CollectionControllerProd {
       @PathVariable String slug,
       @RequestParam(defaultValue = "0") int collectionPage,
       @RequestParam(defaultValue = "35") int collectionSize,
+      @RequestParam(required = false) String collectionCursor,
       @RequestParam(defaultValue = "0") int imagePage,
-      @RequestParam(defaultValue = "50") int imageSize) {
+      @RequestParam(defaultValue = "50") int imageSize,
+      @RequestParam(required = false) String imageCursor) {
     int normCollPage = PaginationUtil.normalizePage(collectionPage);
     int normCollSize = PaginationUtil.normalizeSize(collectionSize, 35);
     int normImgPage = PaginationUtil.normalizePage(imagePage);
@@ -128,7 +134,13 @@ public class CollectionControllerProd {
 
     LocationPageResponse response =
         collectionService.getLocationPageBySlug(
-            slug, normCollPage, normCollSize, normImgPage, normImgSize);
+            slug,
+            normCollPage,
+            normCollSize,
+            collectionCursor,
+            normImgPage,
+            normImgSize,
+            imageCursor);
     return ResponseEntity.ok(response);
   }
 
@@ -186,8 +198,7 @@ public class CollectionControllerProd {
     }
 
     clientGalleryAuthService
-        .buildAccessCookies(
-            slug, passwordRequest.password(), galleryCookieSecure, GALLERY_COOKIE_MAX_AGE)
+        .buildAccessCookies(slug, galleryCookieSecure, GALLERY_COOKIE_MAX_AGE)
         .forEach(c -> response.addHeader(HttpHeaders.SET_COOKIE, c.toString()));
 
     return ResponseEntity.ok(Map.of("hasAccess", true));
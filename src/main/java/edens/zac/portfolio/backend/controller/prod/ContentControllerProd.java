@@ -1,10 +1,12 @@
 package edens.zac.portfolio.backend.controller.prod;
 
 import edens.zac.portfolio.backend.model.ContentFilmTypeModel;
+import edens.zac.portfolio.backend.model.ImageMapResponse;
 import edens.zac.portfolio.backend.model.ImageSearchRequest;
 import edens.zac.portfolio.backend.model.ImageSearchResponse;
 import edens.zac.portfolio.backend.model.Records;
 import edens.zac.portfolio.backend.services.ContentService;
+import edens.zac.portfolio.backend.services.ImageMapService;
 import edens.zac.portfolio.backend.services.MetadataService;
 import edens.zac.portfolio.backend.types.FilmFormat;
 import jakarta.validation.constraints.Max;
@@ -36,6 +38,7 @@ public class ContentControllerProd {
 
   private final ContentService contentService;
   private final MetadataService metadataService;
+  private final ImageMapService imageMapService;
 
   /**
    * Search images with optional filters. GET /api/read/content/images/search
@@ -76,6 +79,25 @@ public class ContentControllerProd {
     return ResponseEntity.ok(response);
   }
 
+  /**
+   * Clustered image markers for a map view. GET /api/read/content/images/map
+   *
+   * <p>Returns the images with a capture location inside the box that the caller may see, grouped
+   * into clusters sized for the zoom level. {@code east < west} selects a box across the
+   * antimeridian.
+   *
+   * @return ResponseEntity with the clusters, largest first
+   */
+  @GetMapping("/images/map")
+  public ResponseEntity<ImageMapResponse> getImageMap(
+      @RequestParam double south,
+      @RequestParam double west,
+      @RequestParam double north,
+      @RequestParam double east,
+      @RequestParam @Min(0) @Max(ImageMapService.MAX_ZOOM) int zoom) {
+    return ResponseEntity.ok(imageMapService.clusters(south, west, north, east, zoom));
+  }
+
   /**
    * Get all tags (ordered alphabetically) GET /api/read/content/tags
    *
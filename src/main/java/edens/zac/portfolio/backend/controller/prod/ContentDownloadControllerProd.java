@@ -4,6 +4,7 @@ import edens.zac.portfolio.backend.config.GalleryAccessCookies;
 import edens.zac.portfolio.backend.entity.CollectionEntity;
 import edens.zac.portfolio.backend.model.AuthPrincipal;
 import edens.zac.portfolio.backend.model.DownloadResolution;
+import edens.zac.portfolio.backend.services.ArchiveJobService;
 import edens.zac.portfolio.backend.services.ClientGalleryAuthService;
 import edens.zac.portfolio.backend.services.CollectionAccessService;
 import edens.zac.portfolio.backend.services.CollectionService;
@@ -14,6 +15,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.net.URI;
 import java.util.List;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
@@ -22,6 +24,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -45,6 +48,10 @@ import org.springframework.web.bind.annotation.RestController;
  *       collection
  *   <li>{@code GET /api/read/collections/{slug}/download?...&imageIds=1,2,3} — ZIP of the selected
  *       subset (a single selected image redirects straight to that image, no ZIP)
+ *   <li>{@code POST /api/read/collections/{slug}/download-jobs?...} — same ZIP, built in the
+ *       background: 202 with a job id
+ *   <li>{@code GET /api/read/download-jobs/{jobId}} — job progress; {@code .../file} redirects to
+ *       the finished archive
  * </ul>
  */
 @Slf4j
@@ -58,6 +65,7 @@ public class ContentDownloadControllerProd {
   private final ClientGalleryAuthService clientGalleryAuthService;
   private final CollectionAccessService collectionAccessService;
   private final DownloadUrlService downloadUrlService;
+  private final ArchiveJobService archiveJobService;
 
   // ---------------------------------------------------------------------------
   //  Image download
@@ -100,12 +108,117 @@ public class ContentDownloadControllerProd {
       HttpServletResponse response)
       throws IOException {
 
+    AuthorizedDownload download = authorizeCollectionDownload(slug, format, imageIds, request);
+    if (download.error() != null) {
+      response.sendError(download.error().value());
+      return;
+    }
+
+    List<DownloadResolution> entries = download.entries();
+    URI url;
+    if (entries.size() == 1) {
+      // A single resolved image (including a one-image "Download Selected") skips the ZIP and
+      // redirects straight to that image — the recipient gets the file, not a one-entry archive.
+      DownloadResolution only = entries.get(0);
+      url = downloadUrlService.presignObject(only.s3Key(), only.contentType(), only.filename());
+    } else {
+      url =
+          downloadUrlService.cachedZipToS3AndPresign(
+              download.collection().getId(), format, entries, download.zipName());
+    }
+
+    response.setStatus(HttpStatus.FOUND.value());
+    response.setHeader(HttpHeaders.LOCATION, url.toString());
+    log.info("Redirected download (slug={}, format={}, count={})", slug, format, entries.size());
+  }
+
+  /**
+   * Async variant of {@link #downloadCollection}: same auth gate and the same archive, but the ZIP
+   * is built in the background. Returns 202 with the job to poll at {@code /download-jobs/{jobId}};
+   * identical concurrent requests join the same job. A single resolved image still redirects (302)
+   * straight to that image, exactly like the synchronous endpoint.
+   */
+  @PostMapping("/collections/{slug}/download-jobs")
+  public ResponseEntity<ArchiveJobService.ArchiveJobResponse> startCollectionDownload(
+      @PathVariable String slug,
+      @RequestParam(defaultValue = "web") String format,
+      @RequestParam(required = false) List<Long> imageIds,
+      HttpServletRequest request) {
+
+    AuthorizedDownload download = authorizeCollectionDownload(slug, format, imageIds, request);
+    if (download.error() != null) {
+      return ResponseEntity.status(download.error()).build();
+    }
+
+    List<DownloadResolution> entries = download.entries();
+    if (entries.size() == 1) {
+      DownloadResolution only = entries.get(0);
+      return ResponseEntity.status(HttpStatus.FOUND)
+          .location(
+              downloadUrlService.presignObject(only.s3Key(), only.contentType(), only.filename()))
+          .build();
+    }
+    ArchiveJobService.ArchiveJobResponse job =
+        archiveJobService.submit(
+            download.collection().getId(), format, entries, download.zipName());
+    log.info(
+        "Accepted async download (slug={}, format={}, count={}, jobId={})",
+        slug,
+        format,
+        entries.size(),
+        job.jobId());
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+  }
+
+  /** Poll an async ZIP job: status plus entries/bytes written so far. */
+  @GetMapping("/download-jobs/{jobId}")
+  public ResponseEntity<ArchiveJobService.ArchiveJobResponse> getDownloadJob(
+      @PathVariable UUID jobId) {
+    return archiveJobService
+        .getJob(jobId)
+        .map(ResponseEntity::ok)
+        .orElse(ResponseEntity.notFound().build());
+  }
+
+  /**
+   * Redirect (302) to a finished job's archive. 409 while the job is still running or if it failed
+   * (the status endpoint says which); 404 for an unknown or expired job.
+   */
+  @GetMapping("/download-jobs/{jobId}/file")
+  public ResponseEntity<Void> getDownloadJobFile(@PathVariable UUID jobId) {
+    if (archiveJobService.getJob(jobId).isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+    return archiveJobService
+        .resultUrl(jobId)
+        .map(url -> ResponseEntity.status(HttpStatus.FOUND).location(url).<Void>build())
+        .orElse(ResponseEntity.status(HttpStatus.CONFLICT).build());
+  }
+
+  /**
+   * Result of the collection-download gate: either an HTTP error to send, or the authorized
+   * collection, its resolved entries (never empty) and the archive filename.
+   */
+  private record AuthorizedDownload(
+      HttpStatus error,
+      CollectionEntity collection,
+      List<DownloadResolution> entries,
+      String zipName) {
+
+    static AuthorizedDownload denied(HttpStatus error) {
+      return new AuthorizedDownload(error, null, null, null);
+    }
+  }
+
+  /** The auth gate and entry resolution shared by the sync and async collection downloads. */
+  private AuthorizedDownload authorizeCollectionDownload(
+      String slug, String format, List<Long> imageIds, HttpServletRequest request) {
+
     CollectionEntity collection = collectionService.findEntityBySlug(slug);
 
     if (collection.getGalleryPassword() != null && !isDownloadAuthorized(request, collection)) {
       log.warn("Unauthorized collection download (slug={})", slug);
-      response.sendError(HttpStatus.UNAUTHORIZED.value());
-      return;
+      return AuthorizedDownload.denied(HttpStatus.UNAUTHORIZED);
     }
 
     // Second half of the same gate, and the sibling of S1 above: the images this download would
@@ -121,8 +234,7 @@ public class ContentDownloadControllerProd {
             "Unauthorized collection download (slug={}, gatedBy={})",
             slug,
             gatingCollection.getSlug());
-        response.sendError(HttpStatus.UNAUTHORIZED.value());
-        return;
+        return AuthorizedDownload.denied(HttpStatus.UNAUTHORIZED);
       }
     }
 
@@ -130,31 +242,19 @@ public class ContentDownloadControllerProd {
         contentService.resolveCollectionDownloadEntries(collection.getId(), format, imageIds);
 
     if (entries.isEmpty()) {
-      response.sendError(HttpStatus.NOT_FOUND.value());
-      return;
+      return AuthorizedDownload.denied(HttpStatus.NOT_FOUND);
     }
 
-    boolean isSubset = imageIds != null && !imageIds.isEmpty();
-    URI url;
-    if (entries.size() == 1) {
-      // A single resolved image (including a one-image "Download Selected") skips the ZIP and
-      // redirects straight to that image — the recipient gets the file, not a one-entry archive.
-      DownloadResolution only = entries.get(0);
-      url = downloadUrlService.presignObject(only.s3Key(), only.contentType(), only.filename());
-    } else {
-      String zipName =
-          contentService.collectionZipFilename(collection.getSlug(), collection.getId());
-      if (isSubset) {
+    String zipName = null;
+    if (entries.size() > 1) {
+      zipName = contentService.collectionZipFilename(collection.getSlug(), collection.getId());
+      if (imageIds != null && !imageIds.isEmpty()) {
         // Distinguish a selected-subset ZIP from the whole-collection one so a client who downloads
         // "all" and then a subset doesn't get two identically named files. Count is an int -- safe.
         zipName = zipName.replaceFirst("\\.zip$", "-selection-" + imageIds.size() + ".zip");
       }
-      url = downloadUrlService.zipToS3AndPresign(entries, zipName);
     }
-
-    response.setStatus(HttpStatus.FOUND.value());
-    response.setHeader(HttpHeaders.LOCATION, url.toString());
-    log.info("Redirected download (slug={}, format={}, count={})", slug, format, entries.size());
+    return new AuthorizedDownload(null, collection, entries, zipName);
   }
 
   // ---------------------------------------------------------------------------
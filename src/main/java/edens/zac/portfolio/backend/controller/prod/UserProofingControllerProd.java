@@ -0,0 +1,47 @@
+package edens.zac.portfolio.backend.controller.prod;
+
+import edens.zac.portfolio.backend.model.AuthPrincipal;
+import edens.zac.portfolio.backend.model.ProofingRequests.Batch;
+import edens.zac.portfolio.backend.model.ProofingRequests.BatchResult;
+import edens.zac.portfolio.backend.services.ProofingService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Batched client proofing: selects, unselects and rating changes for one collection per request.
+ * Session-required (401 when anonymous), self-only.
+ */
+@RestController
+@RequestMapping("/api/read/user/proofing")
+@RequiredArgsConstructor
+public class UserProofingControllerProd {
+
+  private final ProofingService proofingService;
+
+  /**
+   * Apply a proofing batch. The {@code Idempotency-Key} header makes retries safe: a repeated key
+   * returns the first outcome with {@code replayed = true}. 200 with per-part counts, 400 for a
+   * malformed batch or key, 403 without access to the collection, 401 when anonymous.
+   */
+  @PostMapping("/{collectionId}/batch")
+  public ResponseEntity<BatchResult> applyBatch(
+      @AuthenticationPrincipal AuthPrincipal principal,
+      @PathVariable Long collectionId,
+      @RequestHeader("Idempotency-Key") String idempotencyKey,
+      @Valid @RequestBody Batch body) {
+    if (principal == null) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+    return ResponseEntity.ok(
+        proofingService.applyBatch(principal.userId(), collectionId, idempotencyKey, body));
+  }
+}
@@ -0,0 +1,176 @@
+package edens.zac.portfolio.backend.dao;
+
+import edens.zac.portfolio.backend.entity.BackgroundJobEntity;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JDBC access to {@code background_job} (V66). As with {@link UploadJobRepository}, only the owning
+ * instance writes a live job and every write is conditional on the row still being live and owned,
+ * so a job the reaper has failed stays failed.
+ */
+@Component
+public class BackgroundJobRepository extends BaseDao {
+
+  private static final String COLUMNS =
+      """
+      id, kind, dedupe_key, owner_node, status, state::text AS state, result_key,
+      result_filename, started_at, heartbeat_at, finished_at
+      """;
+
+  private static final RowMapper<BackgroundJobEntity> BACKGROUND_JOB_ROW_MAPPER =
+      (rs, rowNum) ->
+          BackgroundJobEntity.builder()
+              .id(rs.getObject("id", UUID.class))
+              .kind(rs.getString("kind"))
+              .dedupeKey(rs.getString("dedupe_key"))
+              .ownerNode(rs.getString("owner_node"))
+              .status(rs.getString("status"))
+              .state(rs.getString("state"))
+              .resultKey(rs.getString("result_key"))
+              .resultFilename(rs.getString("result_filename"))
+              .startedAt(getLocalDateTime(rs, "started_at"))
+              .heartbeatAt(getLocalDateTime(rs, "heartbeat_at"))
+              .finishedAt(getLocalDateTime(rs, "finished_at"))
+              .build();
+
+  public BackgroundJobRepository(JdbcTemplate jdbcTemplate) {
+    super(jdbcTemplate);
+  }
+
+  /**
+   * Register a new job unless a live one with the same kind and dedupe key exists on any instance.
+   *
+   * @return true if the row was inserted, false if another live job holds the key
+   */
+  @Transactional
+  public boolean insertIfNoLiveJob(BackgroundJobEntity job) {
+    String sql =
+        """
+        INSERT INTO background_job (id, kind, dedupe_key, owner_node, status, state)
+        VALUES (:id, :kind, :dedupeKey, :ownerNode, :status, CAST(:state AS JSONB))
+        ON CONFLICT (kind, dedupe_key) WHERE finished_at IS NULL DO NOTHING
+        """;
+    return update(
+            sql,
+            createParameterSource()
+                .addValue("id", job.getId())
+                .addValue("kind", job.getKind())
+                .addValue("dedupeKey", job.getDedupeKey())
+                .addValue("ownerNode", job.getOwnerNode())
+                .addValue("status", job.getStatus())
+                .addValue("state", job.getState()))
+        == 1;
+  }
+
+  /**
+   * The job a new submit should join: the live one for this key, or else the newest COMPLETED one
+   * started within {@code completedReuse} ({@link Duration#ZERO} for live jobs only).
+   */
+  @Transactional(readOnly = true)
+  public Optional<BackgroundJobEntity> findJoinable(
+      String kind, String dedupeKey, Duration completedReuse) {
+    String sql =
+        "SELECT "
+            + COLUMNS
+            + """
+             FROM background_job
+            WHERE kind = :kind AND dedupe_key = :dedupeKey
+              AND (finished_at IS NULL
+                   OR (status = 'COMPLETED'
+                       AND started_at > now() - make_interval(secs => :reuseSeconds)))
+            ORDER BY finished_at IS NULL DESC, started_at DESC
+            LIMIT 1
+            """;
+    return queryForObject(
+        sql,
+        BACKGROUND_JOB_ROW_MAPPER,
+        createParameterSource()
+            .addValue("kind", kind)
+            .addValue("dedupeKey", dedupeKey)
+            .addValue("reuseSeconds", (double) completedReuse.toSeconds()));
+  }
+
+  /** One job of this kind, whichever node runs it. */
+  @Transactional(readOnly = true)
+  public Optional<BackgroundJobEntity> findById(String kind, UUID id) {
+    return queryForObject(
+        "SELECT " + COLUMNS + " FROM background_job WHERE id = :id AND kind = :kind",
+        BACKGROUND_JOB_ROW_MAPPER,
+        createParameterSource().addValue("id", id).addValue("kind", kind));
+  }
+
+  /**
+   * Write the owner's current view of each job and refresh its heartbeat. A COMPLETED or FAILED
+   * status also stamps {@code finished_at}. Rows that are no longer live, or owned by another node,
+   * are left alone.
+   *
+   * @return Per job, 1 if the row was written and 0 if it was skipped
+   */
+  @Transactional
+  public int[] saveProgress(List<BackgroundJobEntity> jobs) {
+    String sql =
+        """
+        UPDATE background_job
+           SET status = :status, state = CAST(:state AS JSONB), result_key = :resultKey,
+               result_filename = :resultFilename, heartbeat_at = now(),
+               finished_at = CASE WHEN :status IN ('COMPLETED', 'FAILED') THEN now() END
+         WHERE id = :id AND owner_node = :ownerNode AND finished_at IS NULL
+        """;
+    SqlParameterSource[] batch =
+        jobs.stream()
+            .map(
+                job ->
+                    (SqlParameterSource)
+                        createParameterSource()
+                            .addValue("id", job.getId())
+                            .addValue("ownerNode", job.getOwnerNode())
+                            .addValue("status", job.getStatus())
+                            .addValue("state", job.getState())
+                            .addValue("resultKey", job.getResultKey())
+                            .addValue("resultFilename", job.getResultFilename()))
+            .toArray(SqlParameterSource[]::new);
+    return batchUpdate(sql, batch);
+  }
+
+  /**
+   * Fail every live job whose heartbeat is older than {@code staleAfter}, recording {@code error}
+   * as the {@code status} and {@code error} of its stored response.
+   *
+   * @return The jobs failed, as they are now stored
+   */
+  @Transactional
+  public List<BackgroundJobEntity> failStale(Duration staleAfter, String error) {
+    String sql =
+        """
+        UPDATE background_job
+           SET status = 'FAILED', finished_at = now(),
+               state = state || jsonb_build_object('status', 'FAILED', 'error', CAST(:error AS TEXT))
+         WHERE finished_at IS NULL
+           AND heartbeat_at < now() - make_interval(secs => :staleSeconds)
+        RETURNING
+        """
+            + COLUMNS;
+    MapSqlParameterSource params =
+        createParameterSource()
+            .addValue("error", error)
+            .addValue("staleSeconds", (double) staleAfter.toSeconds());
+    return query(sql, BACKGROUND_JOB_ROW_MAPPER, params);
+  }
+
+  /** Delete jobs that finished more than {@code retention} ago. Returns rows deleted. */
+  @Transactional
+  public int deleteFinishedOlderThan(Duration retention) {
+    return update(
+        "DELETE FROM background_job WHERE finished_at < now() - make_interval(secs => :retention)",
+        createParameterSource().addValue("retention", (double) retention.toSeconds()));
+  }
+}
@@ -1,13 +1,17 @@
 package edens.zac.portfolio.backend.dao;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.SortedSet;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -16,20 +20,39 @@ import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.util.ClassUtils;
 
 /**
  * Base DAO utility class providing common JDBC operations. All entity-specific DAOs should extend
  * this class. Uses NamedParameterJdbcTemplate for safer parameter binding.
+ *
+ * <p>Every helper below is timed as {@code portfolio.repository.query{repository, kind}}, with
+ * {@code kind} {@code read} or {@code write}. The timers live on Micrometer's global registry,
+ * which Spring Boot wires to the application registries, so subclasses need no extra constructor
+ * argument. Statements issued straight through {@link #namedParameterJdbcTemplate} are not timed.
  */
 @Slf4j
 abstract class BaseDao {
 
   protected final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
   protected final JdbcTemplate jdbcTemplate;
+  private final Timer readTimer;
+  private final Timer writeTimer;
 
   protected BaseDao(JdbcTemplate jdbcTemplate) {
     this.jdbcTemplate = jdbcTemplate;
     this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    String repository = ClassUtils.getUserClass(getClass()).getSimpleName();
+    this.readTimer = queryTimer(repository, "read");
+    this.writeTimer = queryTimer(repository, "write");
+  }
+
+  private static Timer queryTimer(String repository, String kind) {
+    return Timer.builder("portfolio.repository.query")
+        .description("Statement time through BaseDao helpers")
+        .tag("repository", repository)
+        .tag("kind", kind)
+        .register(Metrics.globalRegistry);
   }
 
   /**
@@ -42,7 +65,7 @@ abstract class BaseDao {
    * @return List of entities
    */
   protected <T> List<T> query(String sql, RowMapper<T> rowMapper, SqlParameterSource paramSource) {
-    return namedParameterJdbcTemplate.query(sql, paramSource, rowMapper);
+    return readTimer.record(() -> namedParameterJdbcTemplate.query(sql, paramSource, rowMapper));
   }
 
   /**
@@ -55,7 +78,7 @@ abstract class BaseDao {
    * @return List of entities
    */
   protected <T> List<T> query(String sql, RowMapper<T> rowMapper, Map<String, Object> params) {
-    return namedParameterJdbcTemplate.query(sql, params, rowMapper);
+    return readTimer.record(() -> namedParameterJdbcTemplate.query(sql, params, rowMapper));
   }
 
   /**
@@ -67,7 +90,7 @@ abstract class BaseDao {
    * @return List of entities
    */
   protected <T> List<T> query(String sql, RowMapper<T> rowMapper) {
-    return namedParameterJdbcTemplate.query(sql, rowMapper);
+    return readTimer.record(() -> namedParameterJdbcTemplate.query(sql, rowMapper));
   }
 
   /**
@@ -82,7 +105,9 @@ abstract class BaseDao {
   protected <T> Optional<T> queryForObject(
       String sql, RowMapper<T> rowMapper, SqlParameterSource paramSource) {
     try {
-      T result = namedParameterJdbcTemplate.queryForObject(sql, paramSource, rowMapper);
+      T result =
+          readTimer.record(
+              () -> namedParameterJdbcTemplate.queryForObject(sql, paramSource, rowMapper));
       return Optional.ofNullable(result);
     } catch (org.springframework.dao.EmptyResultDataAccessException e) {
       return Optional.empty();
@@ -101,7 +126,8 @@ abstract class BaseDao {
   protected <T> Optional<T> queryForObject(
       String sql, RowMapper<T> rowMapper, Map<String, Object> params) {
     try {
-      T result = namedParameterJdbcTemplate.queryForObject(sql, params, rowMapper);
+      T result =
+          readTimer.record(() -> namedParameterJdbcTemplate.queryForObject(sql, params, rowMapper));
       return Optional.ofNullable(result);
     } catch (org.springframework.dao.EmptyResultDataAccessException e) {
       return Optional.empty();
@@ -116,7 +142,7 @@ abstract class BaseDao {
    * @return Number of rows affected
    */
   protected int update(String sql, SqlParameterSource paramSource) {
-    return namedParameterJdbcTemplate.update(sql, paramSource);
+    return writeTimer.record(() -> namedParameterJdbcTemplate.update(sql, paramSource));
   }
 
   /**
@@ -127,7 +153,7 @@ abstract class BaseDao {
    * @return Number of rows affected
    */
   protected int update(String sql, Map<String, Object> params) {
-    return namedParameterJdbcTemplate.update(sql, params);
+    return writeTimer.record(() -> namedParameterJdbcTemplate.update(sql, params));
   }
 
   /**
@@ -141,7 +167,10 @@ abstract class BaseDao {
   protected Long insertAndReturnId(
       String sql, String idColumnName, SqlParameterSource paramSource) {
     KeyHolder keyHolder = new GeneratedKeyHolder();
-    namedParameterJdbcTemplate.update(sql, paramSource, keyHolder, new String[] {idColumnName});
+    writeTimer.record(
+        () ->
+            namedParameterJdbcTemplate.update(
+                sql, paramSource, keyHolder, new String[] {idColumnName}));
     Number key = keyHolder.getKey();
     return key != null ? key.longValue() : null;
   }
@@ -154,7 +183,7 @@ abstract class BaseDao {
    * @return Array of update counts
    */
   protected int[] batchUpdate(String sql, SqlParameterSource[] batchParams) {
-    return namedParameterJdbcTemplate.batchUpdate(sql, batchParams);
+    return writeTimer.record(() -> namedParameterJdbcTemplate.batchUpdate(sql, batchParams));
   }
 
   /**
@@ -166,6 +195,30 @@ abstract class BaseDao {
     return new MapSqlParameterSource();
   }
 
+  /**
+   * Lock key for one bucket of an advisory-lock space: {@code space} in the high 32 bits, {@code id
+   * mod buckets} in the low ones. Bucketing bounds the locks a bulk write takes; two ids that share
+   * a bucket merely wait on each other.
+   */
+  protected static long advisoryBucketKey(int space, long id, int buckets) {
+    return ((long) space << 32) | Math.floorMod(id, buckets);
+  }
+
+  /**
+   * Take the transaction-scoped advisory locks {@code keys}, smallest first, in one statement.
+   * Writers that take all their keys in one call cannot deadlock on each other: each waits only for
+   * keys larger than any it already holds.
+   */
+  protected void lockAdvisoryKeys(SortedSet<Long> keys) {
+    if (keys.isEmpty()) {
+      return;
+    }
+    query(
+        "SELECT pg_advisory_xact_lock(k) FROM unnest(CAST(ARRAY[:keys] AS BIGINT[])) AS k",
+        (rs, n) -> 1,
+        createParameterSource().addValue("keys", new ArrayList<>(keys)));
+  }
+
   /** Helper method to safely get a Long from ResultSet. */
   protected static Long getLong(ResultSet rs, String columnName) throws SQLException {
     long value = rs.getLong(columnName);
@@ -178,6 +231,12 @@ abstract class BaseDao {
     return rs.wasNull() ? null : value;
   }
 
+  /** Helper method to safely get a Double from ResultSet. */
+  protected static Double getDouble(ResultSet rs, String columnName) throws SQLException {
+    double value = rs.getDouble(columnName);
+    return rs.wasNull() ? null : value;
+  }
+
   /** Helper method to safely get a Boolean from ResultSet. */
   protected static Boolean getBoolean(ResultSet rs, String columnName) throws SQLException {
     boolean value = rs.getBoolean(columnName);
@@ -0,0 +1,323 @@
+package edens.zac.portfolio.backend.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The {@code collection_closure} ancestry table (V55): one row per (ancestor, descendant) pair with
+ * the shortest link depth and whether any all-visible chain connects them. Turns "is X above Y"
+ * (link cycle checks), "every ancestor of X" and "every (visible) descendant of X" (the role-grant
+ * waterfall in {@link RoleRepository}, which joins the table directly) into single indexed lookups
+ * instead of one-hop-per-query walks.
+ *
+ * <p>Writes come in two shapes. A new link is applied incrementally (ancestors of the parent
+ * crossed with descendants of the child). Removals and visibility flips can shorten or break chains
+ * that still exist by other routes, so they instead re-derive every row whose ancestor is the
+ * parent or above it -- the only pairs a single link can affect.
+ */
+@Component
+@Slf4j
+public class CollectionClosureRepository extends BaseDao {
+
+  /** A pair whose stored row disagrees with the link graph; null columns mean "no row". */
+  public record ClosureDrift(
+      Long ancestorId,
+      Long descendantId,
+      Integer storedDepth,
+      Boolean storedVisiblePath,
+      Integer expectedDepth,
+      Boolean expectedVisiblePath) {}
+
+  /**
+   * Scratch tables a derivation fills, dropped at commit: {@code closure_links} holds every
+   * parent-to-child link once per pair ({@code visible} when any of its join rows is, self-links
+   * dropped) and {@code closure_derived} the derived rows, in the columns of {@code
+   * collection_closure}. Each pair is written once, so their size is bounded by the pairs rather
+   * than by the chains. Shared by incremental refresh, rebuild and the consistency check, and
+   * mirrored by the V55 backfill, so all four agree.
+   */
+  private static final String SCRATCH_TABLES =
+      """
+      CREATE TEMP TABLE IF NOT EXISTS closure_links (
+        parent_id BIGINT  NOT NULL,
+        child_id  BIGINT  NOT NULL,
+        visible   BOOLEAN NOT NULL,
+        PRIMARY KEY (parent_id, child_id)
+      ) ON COMMIT DROP;
+      CREATE TEMP TABLE IF NOT EXISTS closure_derived (
+        ancestor_id   BIGINT  NOT NULL,
+        descendant_id BIGINT  NOT NULL,
+        depth         INTEGER NOT NULL,
+        visible_path  BOOLEAN NOT NULL DEFAULT false,
+        PRIMARY KEY (ancestor_id, descendant_id)
+      ) ON COMMIT DROP;
+      TRUNCATE closure_links, closure_derived
+      """;
+
+  /**
+   * Advisory lock serializing closure maintenance. An incremental write reads the closure around
+   * its link, so two concurrent links (A to B, B to C) would each miss the other's uncommitted rows
+   * and never write (A, C). Sorts below the projection lock spaces, which are taken at commit.
+   */
+  static final long MAINTENANCE_LOCK_KEY = advisoryBucketKey(0x6363_0001, 0, 1);
+
+  private static final RowMapper<ClosureDrift> DRIFT_ROW_MAPPER =
+      (rs, n) ->
+          new ClosureDrift(
+              getLong(rs, "ancestor_id"),
+              getLong(rs, "descendant_id"),
+              getInteger(rs, "stored_depth"),
+              getBoolean(rs, "stored_visible_path"),
+              getInteger(rs, "expected_depth"),
+              getBoolean(rs, "expected_visible_path"));
+
+  public CollectionClosureRepository(JdbcTemplate jdbcTemplate) {
+    super(jdbcTemplate);
+  }
+
+  /**
+   * Take the closure maintenance lock until the transaction ends. Every writer takes it before it
+   * reads the closure, so each one sees the rows of the writers that committed before it.
+   */
+  @Transactional
+  public void lockForMaintenance() {
+    lockAdvisoryKeys(new TreeSet<>(List.of(MAINTENANCE_LOCK_KEY)));
+  }
+
+  /**
+   * Apply a newly created parent-to-child link: every ancestor of the parent (and the parent)
+   * becomes an ancestor of every descendant of the child (and the child). Existing rows keep the
+   * shorter depth and OR in the new chain's visibility.
+   *
+   * @return Rows inserted or updated
+   */
+  @Transactional
+  public int applyLinkAdded(Long parentId, Long childId, boolean visible) {
+    String sql =
+        """
+        INSERT INTO collection_closure (ancestor_id, descendant_id, depth, visible_path)
+        SELECT a.ancestor_id, d.descendant_id, a.depth + 1 + d.depth,
+               a.visible_path AND :visible AND d.visible_path
+          FROM (SELECT ancestor_id, depth, visible_path
+                  FROM collection_closure WHERE descendant_id = :parentId
+                UNION ALL
+                SELECT CAST(:parentId AS BIGINT), 0, true) a
+         CROSS JOIN
+               (SELECT descendant_id, depth, visible_path
+                  FROM collection_closure WHERE ancestor_id = :childId
+                UNION ALL
+                SELECT CAST(:childId AS BIGINT), 0, true) d
+         WHERE a.ancestor_id <> d.descendant_id
+        ON CONFLICT (ancestor_id, descendant_id) DO UPDATE
+           SET depth = LEAST(collection_closure.depth, EXCLUDED.depth),
+               visible_path = collection_closure.visible_path OR EXCLUDED.visible_path
+        """;
+    MapSqlParameterSource params =
+        createParameterSource()
+            .addValue("parentId", parentId)
+            .addValue("childId", childId)
+            .addValue("visible", visible);
+    return update(sql, params);
+  }
+
+  /**
+   * Re-derive every row whose ancestor is {@code collectionId} or one of its ancestors, after a
+   * link below it was removed or changed visibility. Ancestors are read from the closure itself,
+   * which a link removal below {@code collectionId} cannot change.
+   *
+   * @return Rows written by the re-derivation
+   */
+  @Transactional
+  public int refreshFromAncestorsOf(Long collectionId) {
+    List<Long> scope = new ArrayList<>(findAncestorIds(collectionId));
+    scope.add(collectionId);
+    return rederive(scope);
+  }
+
+  /**
+   * Re-derive the rows of the given ancestors from the current link graph.
+   *
+   * @return Rows written by the re-derivation
+   */
+  @Transactional
+  public int rederive(Collection<Long> ancestorIds) {
+    if (ancestorIds.isEmpty()) {
+      return 0;
+    }
+    MapSqlParameterSource params = createParameterSource().addValue("ids", ancestorIds);
+    update("DELETE FROM collection_closure WHERE ancestor_id IN (:ids)", params);
+    derive("WHERE parent_id IN (:ids)", params);
+    return update(
+        """
+        INSERT INTO collection_closure (ancestor_id, descendant_id, depth, visible_path)
+        SELECT ancestor_id, descendant_id, depth, visible_path FROM closure_derived
+        """,
+        params);
+  }
+
+  /**
+   * Throw the table away and re-derive it from the whole link graph.
+   *
+   * @return Rows in the rebuilt table
+   */
+  @Transactional
+  public int rebuild() {
+    update("DELETE FROM collection_closure", createParameterSource());
+    derive("", createParameterSource());
+    int rows =
+        update(
+            """
+            INSERT INTO collection_closure (ancestor_id, descendant_id, depth, visible_path)
+            SELECT ancestor_id, descendant_id, depth, visible_path FROM closure_derived
+            """,
+            createParameterSource());
+    log.info("Rebuilt collection_closure: {} rows", rows);
+    return rows;
+  }
+
+  /**
+   * Compare the stored table against a fresh derivation from the link graph: missing rows, stale
+   * rows and rows whose depth or visibility differ.
+   *
+   * <p>Not read-only: the derivation is written to a temporary table.
+   *
+   * @param limit Maximum mismatches to return
+   * @return Mismatches, empty when the table is consistent
+   */
+  @Transactional
+  public List<ClosureDrift> findDrift(int limit) {
+    derive("", createParameterSource());
+    String sql =
+        """
+        SELECT COALESCE(s.ancestor_id, d.ancestor_id) AS ancestor_id,
+               COALESCE(s.descendant_id, d.descendant_id) AS descendant_id,
+               s.depth AS stored_depth, s.visible_path AS stored_visible_path,
+               d.depth AS expected_depth, d.visible_path AS expected_visible_path
+          FROM collection_closure s
+          FULL OUTER JOIN closure_derived d
+            ON d.ancestor_id = s.ancestor_id AND d.descendant_id = s.descendant_id
+         WHERE s.ancestor_id IS NULL
+            OR d.ancestor_id IS NULL
+            OR s.depth <> d.depth
+            OR s.visible_path <> d.visible_path
+         ORDER BY 1, 2
+         LIMIT :limit
+        """;
+    return query(sql, DRIFT_ROW_MAPPER, createParameterSource().addValue("limit", limit));
+  }
+
+  /**
+   * Fill {@code closure_derived} from the current link graph for the ancestors {@code seedFilter}
+   * (a {@code WHERE} on {@code closure_links.parent_id}, or empty for all) selects.
+   *
+   * <p>Set-based, so a graph of stacked diamonds costs its pairs rather than its 2^n chains. Depth
+   * comes from a level-by-level walk: level {@code k + 1} extends only the pairs first reached at
+   * level {@code k}, and a pair already reached is skipped, so each pair keeps its shortest depth
+   * and a cycle stops once it reaches nothing new. {@code visible_path} is a recursive {@code
+   * UNION} over the visible links alone.
+   */
+  private void derive(String seedFilter, MapSqlParameterSource params) {
+    jdbcTemplate.execute(SCRATCH_TABLES);
+    update(
+        """
+        INSERT INTO closure_links (parent_id, child_id, visible)
+        SELECT cc.collection_id, cct.referenced_collection_id, bool_or(cc.visible)
+          FROM collection_content cc
+          JOIN content_collection cct ON cct.id = cc.content_id
+         WHERE cct.referenced_collection_id IS NOT NULL
+           AND cct.referenced_collection_id <> cc.collection_id
+         GROUP BY cc.collection_id, cct.referenced_collection_id
+        """,
+        createParameterSource());
+    int reached =
+        update(
+            "INSERT INTO closure_derived (ancestor_id, descendant_id, depth)"
+                + " SELECT parent_id, child_id, 1 FROM closure_links "
+                + seedFilter,
+            params);
+    for (int depth = 1; reached > 0; depth++) {
+      reached =
+          update(
+              """
+              INSERT INTO closure_derived (ancestor_id, descendant_id, depth)
+              SELECT DISTINCT d.ancestor_id, l.child_id, :depth + 1
+                FROM closure_derived d
+                JOIN closure_links l ON l.parent_id = d.descendant_id
+               WHERE d.depth = :depth
+                 AND l.child_id <> d.ancestor_id
+              ON CONFLICT (ancestor_id, descendant_id) DO NOTHING
+              """,
+              createParameterSource().addValue("depth", depth));
+    }
+    update(
+        """
+        WITH RECURSIVE visible_reach(ancestor_id, descendant_id) AS (
+          SELECT parent_id, child_id FROM closure_links %s
+          UNION
+          SELECT r.ancestor_id, l.child_id
+            FROM visible_reach r
+            JOIN closure_links l ON l.parent_id = r.descendant_id AND l.visible
+           WHERE l.child_id <> r.ancestor_id
+        )
+        UPDATE closure_derived d
+           SET visible_path = true
+          FROM visible_reach v
+         WHERE d.ancestor_id = v.ancestor_id AND d.descendant_id = v.descendant_id
+        """
+            .formatted(seedFilter.isEmpty() ? "WHERE visible" : seedFilter + " AND visible"),
+        params);
+  }
+
+  /** Total rows in the table. */
+  @Transactional(readOnly = true)
+  public int count() {
+    return queryForObject(
+            "SELECT count(*) FROM collection_closure",
+            (rs, n) -> rs.getInt(1),
+            createParameterSource())
+        .orElse(0);
+  }
+
+  /** True when {@code ancestorId} sits above {@code descendantId} through any chain of links. */
+  @Transactional(readOnly = true)
+  public boolean isAncestor(Long ancestorId, Long descendantId) {
+    String sql =
+        """
+        SELECT EXISTS (
+          SELECT 1 FROM collection_closure
+           WHERE ancestor_id = :ancestorId AND descendant_id = :descendantId
+        )
+        """;
+    MapSqlParameterSource params =
+        createParameterSource()
+            .addValue("ancestorId", ancestorId)
+            .addValue("descendantId", descendantId);
+    return queryForObject(sql, (rs, n) -> rs.getBoolean(1), params).orElse(false);
+  }
+
+  /**
+   * Every ancestor of the collection regardless of link visibility, farthest first (breadcrumb
+   * order).
+   */
+  @Transactional(readOnly = true)
+  public List<Long> findAncestorIds(Long collectionId) {
+    String sql =
+        """
+        SELECT ancestor_id FROM collection_closure
+         WHERE descendant_id = :collectionId
+         ORDER BY depth DESC, ancestor_id ASC
+        """;
+    return query(
+        sql,
+        (rs, n) -> rs.getLong("ancestor_id"),
+        createParameterSource().addValue("collectionId", collectionId));
+  }
+}
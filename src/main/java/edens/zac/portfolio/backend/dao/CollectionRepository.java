@@ -3,16 +3,23 @@ package edens.zac.portfolio.backend.dao;
 import edens.zac.portfolio.backend.entity.CollectionContentEntity;
 import edens.zac.portfolio.backend.entity.CollectionEntity;
 import edens.zac.portfolio.backend.model.Records;
+import edens.zac.portfolio.backend.services.LocationPageCursor;
 import edens.zac.portfolio.backend.types.CollectionVisibility;
 import edens.zac.portfolio.backend.types.DisplayMode;
 import java.sql.Array;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -24,13 +31,26 @@ import org.springframework.transaction.annotation.Transactional;
 /**
  * Repository for CollectionEntity and CollectionContentEntity. Consolidates CollectionDao and
  * CollectionContentDao.
+ *
+ * <p>Writes that change who can see an image -- collection visibility, membership rows and their
+ * {@code visible} flag -- mark the affected images or collections on {@link
+ * ImageAudienceRepository} and {@link LocationStatsRepository}, which refresh the {@code
+ * image_audience} and {@code location_stats} projections before the transaction commits.
  */
 @Component
 @Slf4j
 public class CollectionRepository extends BaseDao {
 
-  public CollectionRepository(JdbcTemplate jdbcTemplate) {
+  private final ImageAudienceRepository imageAudienceRepository;
+  private final LocationStatsRepository locationStatsRepository;
+
+  public CollectionRepository(
+      JdbcTemplate jdbcTemplate,
+      ImageAudienceRepository imageAudienceRepository,
+      LocationStatsRepository locationStatsRepository) {
     super(jdbcTemplate);
+    this.imageAudienceRepository = imageAudienceRepository;
+    this.locationStatsRepository = locationStatsRepository;
   }
 
   // ============================================================
@@ -349,6 +369,56 @@ public class CollectionRepository extends BaseDao {
     return query(sql, (rs, n) -> rs.getLong("collection_id"), params);
   }
 
+  /**
+   * Every ancestor reachable from the collection through an unbroken upward chain of VISIBLE links
+   * (any depth), in the order a breadth-first walk over {@link
+   * #findVisibleParentCollectionIdsByChildId} would visit them: nearest first, each level in the
+   * order its children were visited, siblings by id. Grant re-materialization depends on that
+   * order, since the first ancestor to reach a descendant becomes its recorded origin.
+   *
+   * <p>One query collects the visible upward edges of the whole ancestry -- the recursive CTE uses
+   * {@code UNION}, so each collection is expanded once however many routes (diamonds) reach it, and
+   * cycles terminate -- and the walk itself runs over those edges in memory.
+   */
+  @Transactional(readOnly = true)
+  public List<Long> findVisiblyLinkedAncestorIds(Long collectionId) {
+    String sql =
+        """
+        WITH RECURSIVE up(id) AS (
+          SELECT CAST(:childId AS BIGINT)
+          UNION
+          SELECT cc.collection_id
+            FROM up u
+            JOIN content_collection cct ON cct.referenced_collection_id = u.id
+            JOIN collection_content cc ON cc.content_id = cct.id AND cc.visible = true
+        )
+        SELECT u.id AS child_id, cc.collection_id AS parent_id
+          FROM up u
+          JOIN content_collection cct ON cct.referenced_collection_id = u.id
+          JOIN collection_content cc ON cc.content_id = cct.id AND cc.visible = true
+         ORDER BY u.id, cc.collection_id
+        """;
+    Map<Long, List<Long>> parentsByChild = new HashMap<>();
+    query(
+            sql,
+            (rs, n) -> new long[] {rs.getLong("child_id"), rs.getLong("parent_id")},
+            createParameterSource().addValue("childId", collectionId))
+        .forEach(
+            edge -> parentsByChild.computeIfAbsent(edge[0], k -> new ArrayList<>()).add(edge[1]));
+
+    Set<Long> visited = new LinkedHashSet<>();
+    visited.add(collectionId);
+    Deque<Long> pending = new ArrayDeque<>(parentsByChild.getOrDefault(collectionId, List.of()));
+    while (!pending.isEmpty()) {
+      Long current = pending.poll();
+      if (visited.add(current)) {
+        pending.addAll(parentsByChild.getOrDefault(current, List.of()));
+      }
+    }
+    visited.remove(collectionId);
+    return new ArrayList<>(visited);
+  }
+
   /**
    * Inverse of {@link #findAllReferencedCollectionsByParentId}: given a child collection, find
    * every parent collection that references it. Walks child -> content_collection ->
@@ -384,9 +454,14 @@ public class CollectionRepository extends BaseDao {
     return query(sql, COLLECTION_ROW_MAPPER);
   }
 
+  /**
+   * One page of the LISTED collections at a location, by rating then collection date (nulls last)
+   * then id, all descending. Pages after the first seek past {@code after}, the last row of the
+   * previous page; {@code offset} only serves callers still paging by number.
+   */
   @Transactional(readOnly = true)
-  public List<CollectionEntity> findListedByLocationName(
-      String locationName, int limit, int offset) {
+  public List<CollectionEntity> findListedByLocationId(
+      Long locationId, LocationPageCursor.CollectionKey after, int limit, int offset) {
     String sql =
         "SELECT "
             + collectionColumns("c")
@@ -394,42 +469,32 @@ public class CollectionRepository extends BaseDao {
             + """
         FROM collection c
         JOIN collection_locations cl ON c.id = cl.collection_id
-        JOIN location l ON cl.location_id = l.id
-        WHERE l.location_name = :locationName AND c.visibility = 'LISTED'
-        ORDER BY c.rating DESC NULLS LAST, c.collection_date DESC NULLS LAST
-        LIMIT :limit OFFSET :offset
+        WHERE cl.location_id = :locationId AND c.visibility = 'LISTED'
         """;
     MapSqlParameterSource params =
         createParameterSource()
-            .addValue("locationName", locationName)
+            .addValue("locationId", locationId)
             .addValue("limit", limit)
             .addValue("offset", offset);
-    return query(sql, COLLECTION_ROW_MAPPER, params);
-  }
-
-  @Transactional(readOnly = true)
-  public List<Long> findListedIdsByLocationName(String locationName) {
-    String sql =
-        "SELECT c.id FROM collection c "
-            + "JOIN collection_locations cl ON c.id = cl.collection_id "
-            + "JOIN location l ON cl.location_id = l.id "
-            + "WHERE l.location_name = :locationName AND c.visibility = 'LISTED'";
-    MapSqlParameterSource params = createParameterSource().addValue("locationName", locationName);
-    return namedParameterJdbcTemplate.queryForList(sql, params, Long.class);
-  }
-
-  @Transactional(readOnly = true)
-  public long countListedByLocationName(String locationName) {
-    String sql =
+    if (after != null) {
+      sql +=
+          """
+           AND (COALESCE(c.rating, -1), COALESCE(c.collection_date, '-infinity'::date), c.id)
+             < (COALESCE(CAST(:afterRating AS int), -1),
+                COALESCE(CAST(:afterDate AS date), '-infinity'::date), :afterId)
+          """;
+      params
+          .addValue("afterRating", after.rating())
+          .addValue("afterDate", after.collectionDate())
+          .addValue("afterId", after.id());
+    }
+    sql +=
         """
-        SELECT COUNT(*) FROM collection c
-        JOIN collection_locations cl ON c.id = cl.collection_id
-        JOIN location l ON cl.location_id = l.id
-        WHERE l.location_name = :locationName AND c.visibility = 'LISTED'
+         ORDER BY COALESCE(c.rating, -1) DESC, COALESCE(c.collection_date, '-infinity'::date) DESC,
+                  c.id DESC
+         LIMIT :limit OFFSET :offset
         """;
-    MapSqlParameterSource params = createParameterSource().addValue("locationName", locationName);
-    Long count = namedParameterJdbcTemplate.queryForObject(sql, params, Long.class);
-    return count != null ? count : 0L;
+    return query(sql, COLLECTION_ROW_MAPPER, params);
   }
 
   @Transactional(readOnly = true)
@@ -724,7 +789,15 @@ public class CollectionRepository extends BaseDao {
               .addValue("rating", entity.getRating())
               .addValue("updatedAt", LocalDateTime.now());
 
+      Optional<String> previousVisibility =
+          queryForObject(
+              "SELECT visibility FROM collection WHERE id = :id",
+              (rs, n) -> rs.getString("visibility"),
+              params);
       update(sql, params);
+      if (!previousVisibility.equals(Optional.of(params.getValue("visibility")))) {
+        markCollections(List.of(entity.getId()));
+      }
       return entity;
     }
   }
@@ -751,7 +824,9 @@ public class CollectionRepository extends BaseDao {
         "UPDATE collection SET visibility = :visibility, updated_at = NOW() WHERE id = :id";
     MapSqlParameterSource params =
         createParameterSource().addValue("id", id).addValue("visibility", visibility.name());
-    return update(sql, params);
+    int rows = update(sql, params);
+    markCollections(List.of(id));
+    return rows;
   }
 
   /**
@@ -768,6 +843,21 @@ public class CollectionRepository extends BaseDao {
     return update(sql, params);
   }
 
+  /**
+   * Replace a legacy plaintext gallery_password with its hash on every collection that still holds
+   * it, so galleries sharing a password keep sharing one stored value. Compare-and-set: a row whose
+   * password changed since it was read is left alone. Returns affected row count.
+   */
+  @Transactional
+  public int upgradeGalleryPassword(String plaintext, String hash) {
+    String sql =
+        "UPDATE collection SET gallery_password = :hash, updated_at = NOW()"
+            + " WHERE gallery_password = :plaintext";
+    MapSqlParameterSource params =
+        createParameterSource().addValue("plaintext", plaintext).addValue("hash", hash);
+    return update(sql, params);
+  }
+
   /** Update gallery_password and recipient_emails atomically for a CLIENT_GALLERY. */
   @Transactional
   public void saveGalleryAccess(Long collectionId, String password, List<String> emails) {
@@ -806,7 +896,20 @@ public class CollectionRepository extends BaseDao {
   public void deleteById(Long id) {
     String sql = "DELETE FROM collection WHERE id = :id";
     MapSqlParameterSource params = createParameterSource().addValue("id", id);
+    // The memberships and location links cascade away with the row, so read them first.
+    List<Long> memberIds =
+        namedParameterJdbcTemplate.queryForList(
+            "SELECT content_id FROM collection_content WHERE collection_id = :id",
+            params,
+            Long.class);
+    List<Long> locationIds =
+        namedParameterJdbcTemplate.queryForList(
+            "SELECT location_id FROM collection_locations WHERE collection_id = :id",
+            params,
+            Long.class);
     update(sql, params);
+    imageAudienceRepository.markImagesRemoved(memberIds, List.of(id));
+    locationStatsRepository.markLocations(locationIds);
   }
 
   @Transactional(readOnly = true)
@@ -911,6 +1014,60 @@ public class CollectionRepository extends BaseDao {
     return namedParameterJdbcTemplate.queryForObject(sql, params, Integer.class);
   }
 
+  /**
+   * Copy the images {@code userId} selected in {@code sourceCollectionId} into {@code
+   * targetCollectionId} as visible rows, in one {@code INSERT ... SELECT}. Images keep the order
+   * the client selected them in, from {@code firstOrderIndex} on; images already in the target are
+   * skipped.
+   *
+   * @return Rows inserted
+   */
+  @Transactional
+  public int copyUserSelects(
+      Long userId, Long sourceCollectionId, Long targetCollectionId, int firstOrderIndex) {
+    String sql =
+        """
+        INSERT INTO collection_content
+            (collection_id, content_id, order_index, visible, created_at, updated_at)
+        SELECT :targetCollectionId, s.content_id,
+               :firstOrderIndex + row_number() OVER (ORDER BY s.created_at, s.content_id) - 1,
+               true, :now, :now
+        FROM user_selects s
+        JOIN content_image ci ON ci.id = s.content_id
+        WHERE s.user_id = :userId AND s.collection_id = :sourceCollectionId
+          AND NOT EXISTS (SELECT 1 FROM collection_content cc
+                          WHERE cc.collection_id = :targetCollectionId
+                            AND cc.content_id = s.content_id)
+        """;
+    MapSqlParameterSource params =
+        createParameterSource()
+            .addValue("userId", userId)
+            .addValue("sourceCollectionId", sourceCollectionId)
+            .addValue("targetCollectionId", targetCollectionId)
+            .addValue("firstOrderIndex", firstOrderIndex)
+            .addValue("now", LocalDateTime.now());
+    int rows = update(sql, params);
+    markCollections(List.of(targetCollectionId));
+    return rows;
+  }
+
+  /**
+   * Original filenames of the collection's images in display order, skipping images without one.
+   */
+  @Transactional(readOnly = true)
+  public List<String> findImageOriginalFilenames(Long collectionId) {
+    String sql =
+        """
+        SELECT ci.original_filename
+        FROM collection_content cc
+        JOIN content_image ci ON ci.id = cc.content_id
+        WHERE cc.collection_id = :collectionId AND ci.original_filename IS NOT NULL
+        ORDER BY cc.order_index ASC, cc.id ASC
+        """;
+    MapSqlParameterSource params = createParameterSource().addValue("collectionId", collectionId);
+    return query(sql, (rs, n) -> rs.getString("original_filename"), params);
+  }
+
   @Transactional
   public void updateContentOrderIndex(Long id, Integer orderIndex) {
     String sql = "UPDATE collection_content SET order_index = :orderIndex WHERE id = :id";
@@ -921,10 +1078,11 @@ public class CollectionRepository extends BaseDao {
 
   @Transactional
   public void updateContentVisible(Long id, Boolean visible) {
-    String sql = "UPDATE collection_content SET visible = :visible WHERE id = :id";
+    String sql =
+        "UPDATE collection_content SET visible = :visible WHERE id = :id RETURNING content_id";
     MapSqlParameterSource params =
         createParameterSource().addValue("visible", visible).addValue("id", id);
-    update(sql, params);
+    markImages(namedParameterJdbcTemplate.queryForList(sql, params, Long.class));
   }
 
   @Transactional
@@ -947,9 +1105,11 @@ public class CollectionRepository extends BaseDao {
 
   @Transactional
   public void deleteContentByCollectionId(Long collectionId) {
-    String sql = "DELETE FROM collection_content WHERE collection_id = :collectionId";
+    String sql =
+        "DELETE FROM collection_content WHERE collection_id = :collectionId RETURNING content_id";
     MapSqlParameterSource params = createParameterSource().addValue("collectionId", collectionId);
-    update(sql, params);
+    markImagesRemoved(
+        namedParameterJdbcTemplate.queryForList(sql, params, Long.class), List.of(collectionId));
   }
 
   @Transactional(readOnly = true)
@@ -977,6 +1137,7 @@ public class CollectionRepository extends BaseDao {
             .addValue("collectionId", collectionId)
             .addValue("contentIds", contentIds);
     update(sql, params);
+    markImagesRemoved(contentIds, List.of(collectionId));
   }
 
   @Transactional(readOnly = true)
@@ -1078,6 +1239,7 @@ public class CollectionRepository extends BaseDao {
                   entity.getUpdatedAt() != null ? entity.getUpdatedAt() : LocalDateTime.now());
       Long id = insertAndReturnId(sql, "id", params);
       entity.setId(id);
+      markImages(List.of(entity.getContentId()));
       return entity;
     } else {
       String sql =
@@ -1095,14 +1257,91 @@ public class CollectionRepository extends BaseDao {
               .addValue("updatedAt", LocalDateTime.now())
               .addValue("id", entity.getId());
       update(sql, params);
+      markImages(List.of(entity.getContentId()));
       return entity;
     }
   }
 
+  /**
+   * Insert many new join rows in one JDBC batch. Unlike {@link #saveContent} the generated ids are
+   * not read back, so callers that need the ids must use the single-row path. Used by the upload
+   * group-commit writer, which only needs the links to exist.
+   */
+  @Transactional
+  public void saveContentBatch(List<CollectionContentEntity> entities) {
+    if (entities == null || entities.isEmpty()) {
+      return;
+    }
+    String sql =
+        """
+        INSERT INTO collection_content (collection_id, content_id, order_index, visible, created_at, updated_at)
+        VALUES (:collectionId, :contentId, :orderIndex, :visible, :createdAt, :updatedAt)
+        """;
+    LocalDateTime now = LocalDateTime.now();
+    MapSqlParameterSource[] batchParams =
+        entities.stream()
+            .map(
+                entity ->
+                    createParameterSource()
+                        .addValue("collectionId", entity.getCollectionId())
+                        .addValue("contentId", entity.getContentId())
+                        .addValue("orderIndex", entity.getOrderIndex())
+                        .addValue("visible", entity.getVisible())
+                        .addValue("createdAt", now)
+                        .addValue("updatedAt", now))
+            .toArray(MapSqlParameterSource[]::new);
+    batchUpdate(sql, batchParams);
+    markImages(entities.stream().map(CollectionContentEntity::getContentId).toList());
+  }
+
+  /**
+   * Which of the given content ids are already linked to a collection. One query for a whole upload
+   * group instead of a {@link #findContentByCollectionIdAndContentId} call per image.
+   */
+  @Transactional(readOnly = true)
+  public Set<Long> findLinkedContentIds(Long collectionId, List<Long> contentIds) {
+    if (contentIds == null || contentIds.isEmpty()) {
+      return Set.of();
+    }
+    String sql =
+        """
+        SELECT content_id FROM collection_content
+        WHERE collection_id = :collectionId AND content_id IN (:contentIds)
+        """;
+    MapSqlParameterSource params =
+        createParameterSource()
+            .addValue("collectionId", collectionId)
+            .addValue("contentIds", contentIds);
+    return new HashSet<>(namedParameterJdbcTemplate.queryForList(sql, params, Long.class));
+  }
+
   @Transactional
   public void deleteContentById(Long id) {
-    String sql = "DELETE FROM collection_content WHERE id = :id";
+    String sql =
+        "DELETE FROM collection_content WHERE id = :id RETURNING content_id, collection_id";
     MapSqlParameterSource params = createParameterSource().addValue("id", id);
-    update(sql, params);
+    for (long[] removed :
+        query(
+            sql,
+            (rs, n) -> new long[] {rs.getLong("content_id"), rs.getLong("collection_id")},
+            params)) {
+      markImagesRemoved(List.of(removed[0]), List.of(removed[1]));
+    }
+  }
+
+  private void markCollections(List<Long> collectionIds) {
+    imageAudienceRepository.markCollections(collectionIds);
+    locationStatsRepository.markCollections(collectionIds);
+  }
+
+  private void markImages(List<Long> imageIds) {
+    imageAudienceRepository.markImages(imageIds);
+    locationStatsRepository.markImages(imageIds);
+  }
+
+  /** The images' memberships in these collections were deleted. */
+  private void markImagesRemoved(List<Long> imageIds, List<Long> collectionIds) {
+    imageAudienceRepository.markImagesRemoved(imageIds, collectionIds);
+    locationStatsRepository.markImages(imageIds);
   }
 }
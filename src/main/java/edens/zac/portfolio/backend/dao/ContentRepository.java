@@ -10,6 +10,8 @@ import edens.zac.portfolio.backend.entity.ContentImageEntity;
 import edens.zac.portfolio.backend.entity.ContentLensEntity;
 import edens.zac.portfolio.backend.entity.ContentTextEntity;
 import edens.zac.portfolio.backend.model.ImageSearchRequest;
+import edens.zac.portfolio.backend.services.GeohashUtil;
+import edens.zac.portfolio.backend.services.LocationPageCursor;
 import edens.zac.portfolio.backend.types.ContentType;
 import edens.zac.portfolio.backend.types.FilmFormat;
 import java.time.LocalDateTime;
@@ -34,15 +36,19 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class ContentRepository extends BaseDao {
 
-  public ContentRepository(JdbcTemplate jdbcTemplate) {
+  private final LocationStatsRepository locationStatsRepository;
+
+  public ContentRepository(
+      JdbcTemplate jdbcTemplate, LocationStatsRepository locationStatsRepository) {
     super(jdbcTemplate);
+    this.locationStatsRepository = locationStatsRepository;
   }
 
   // ============================================================
-  // RowMappers
+  // RowMappers (package-private so benchmarks/ can feed them in-memory rows)
   // ============================================================
 
-  private static final RowMapper<ContentImageEntity> CONTENT_IMAGE_ROW_MAPPER =
+  static final RowMapper<ContentImageEntity> CONTENT_IMAGE_ROW_MAPPER =
       (rs, rowNum) -> {
         ContentImageEntity entity =
             ContentImageEntity.builder()
@@ -71,6 +77,8 @@ public class ContentRepository extends BaseDao {
                 .captureDate(getLocalDateTime(rs, "capture_date"))
                 .lastExportDate(getLocalDateTime(rs, "last_export_date"))
                 .originalFilename(getString(rs, "original_filename"))
+                .gpsLatitude(getDouble(rs, "gps_latitude"))
+                .gpsLongitude(getDouble(rs, "gps_longitude"))
                 .createdAt(getLocalDateTime(rs, "created_at"))
                 .updatedAt(getLocalDateTime(rs, "updated_at"))
                 .tags(new HashSet<>())
@@ -106,7 +114,7 @@ public class ContentRepository extends BaseDao {
         return entity;
       };
 
-  private static final RowMapper<ContentTextEntity> CONTENT_TEXT_ROW_MAPPER =
+  static final RowMapper<ContentTextEntity> CONTENT_TEXT_ROW_MAPPER =
       (rs, rowNum) ->
           ContentTextEntity.builder()
               .id(rs.getLong("id"))
@@ -117,7 +125,7 @@ public class ContentRepository extends BaseDao {
               .updatedAt(getLocalDateTime(rs, "updated_at"))
               .build();
 
-  private static final RowMapper<ContentGifEntity> CONTENT_GIF_ROW_MAPPER =
+  static final RowMapper<ContentGifEntity> CONTENT_GIF_ROW_MAPPER =
       (rs, rowNum) ->
           ContentGifEntity.builder()
               .id(rs.getLong("id"))
@@ -137,7 +145,7 @@ public class ContentRepository extends BaseDao {
               .tags(new HashSet<>())
               .build();
 
-  private static final RowMapper<ContentCollectionEntity> CONTENT_COLLECTION_ROW_MAPPER =
+  static final RowMapper<ContentCollectionEntity> CONTENT_COLLECTION_ROW_MAPPER =
       (rs, rowNum) -> {
         CollectionEntity referencedCollection = new CollectionEntity();
         referencedCollection.setId(rs.getLong("referenced_collection_id"));
@@ -163,6 +171,7 @@ public class ContentRepository extends BaseDao {
              ci.film_format, ci.shutter_speed, ci.camera_id, ci.focal_length,
              ci.image_url_web, ci.image_url_original, ci.image_url_raw,
              ci.capture_date, ci.last_export_date, ci.original_filename,
+             ci.gps_latitude, ci.gps_longitude,
              cam.camera_name,
              lens.lens_name,
              ft.film_type_name, ft.display_name as film_type_display_name, ft.default_iso
@@ -250,30 +259,16 @@ public class ContentRepository extends BaseDao {
   /**
    * True iff {@code userId} may SEE {@code imageId}: the image holds at least one visible
    * membership ({@code collection_content.visible = true}) in a collection that is either LISTED or
-   * one the user reaches through a role grant. The access EXISTS subquery resolves via {@code
-   * role_member} JOIN {@code role_collection}, matching {@code CollectionAccessService.canView}
-   * (any role the user is a member of that grants the collection). UNLISTED/HIDDEN-only images are
-   * not visible unless the caller holds such a role grant. Gates {@code UserSavesService.add} so a
-   * viewer cannot save (and thereby exfiltrate) an image from a gallery they cannot access.
+   * one the user reaches through a role grant. Read from the precomputed {@code image_audience}
+   * projection (V58) -- one primary-key probe plus an overlap with the user's role ids -- whose
+   * derivation matches {@code CollectionAccessService.canView} (any role the user is a member of
+   * that grants the collection). UNLISTED/HIDDEN-only images are not visible unless the caller
+   * holds such a role grant. Gates {@code UserSavesService.add} so a viewer cannot save (and
+   * thereby exfiltrate) an image from a gallery they cannot access.
    */
   @Transactional(readOnly = true)
   public boolean isImageVisibleToUser(Long imageId, Long userId) {
-    String sql =
-        """
-        SELECT EXISTS (
-          SELECT 1
-          FROM collection_content cc
-          JOIN collection col ON col.id = cc.collection_id
-          WHERE cc.content_id = :imageId
-            AND cc.visible = true
-            AND (
-              col.visibility = 'LISTED'
-              OR EXISTS (
-                SELECT 1 FROM role_member rm
-                JOIN role_collection rc ON rc.role_id = rm.role_id
-                WHERE rc.collection_id = col.id AND rm.user_id = :userId))
-        )
-        """;
+    String sql = "SELECT " + ImageAudienceRepository.visibleToUser(":imageId");
     MapSqlParameterSource params =
         createParameterSource().addValue("imageId", imageId).addValue("userId", userId);
     return Boolean.TRUE.equals(
@@ -293,9 +288,10 @@ public class ContentRepository extends BaseDao {
   /**
    * A user's saved images as full entities, newest-saved first. Applies the same visibility gate as
    * {@link #isImageVisibleToUser}: an image is returned only while it still holds a visible
-   * membership in a LISTED collection or one the user has explicit access to. Defense-in-depth — a
-   * save made while an image was visible drops out of the list if the owner later hides it, and it
-   * closes the read side even if a row was ever inserted without the write-side check.
+   * membership in a LISTED collection or one the user has explicit access to (the {@code
+   * image_audience} projection, probed once per saved row). Defense-in-depth — a save made while an
+   * image was visible drops out of the list if the owner later hides it, and it closes the read
+   * side even if a row was ever inserted without the write-side check.
    */
   @Transactional(readOnly = true)
   public List<ContentImageEntity> findSavedImagesByUserId(Long userId) {
@@ -303,17 +299,8 @@ public class ContentRepository extends BaseDao {
         SELECT_CONTENT_IMAGE
             + " JOIN user_saved_image usi ON usi.image_id = c.id"
             + " WHERE usi.user_id = :userId"
-            + "   AND EXISTS ("
-            + "     SELECT 1 FROM collection_content cc"
-            + "     JOIN collection col ON col.id = cc.collection_id"
-            + "     WHERE cc.content_id = c.id"
-            + "       AND cc.visible = true"
-            + "       AND ("
-            + "         col.visibility = 'LISTED'"
-            + "         OR EXISTS ("
-            + "           SELECT 1 FROM role_member rm"
-            + "           JOIN role_collection rc ON rc.role_id = rm.role_id"
-            + "           WHERE rc.collection_id = col.id AND rm.user_id = :userId)))"
+            + "   AND "
+            + ImageAudienceRepository.visibleToUser("c.id")
             + " ORDER BY usi.created_at DESC";
     MapSqlParameterSource params = createParameterSource().addValue("userId", userId);
     return query(sql, CONTENT_IMAGE_ROW_MAPPER, params);
@@ -417,73 +404,47 @@ public class ContentRepository extends BaseDao {
   }
 
   /**
-   * Find images at a location that are NOT in any of the specified collections. These are "orphan"
-   * images that appear on the location page below collections.
+   * One page of the orphan images at a location: images there that no visible membership of a
+   * LISTED collection at the same location shows (they appear on the location page below the
+   * collections). Ordered by capture date (nulls last) then id, descending; pages after the first
+   * seek past {@code after}, the last row of the previous page, and {@code offset} only serves
+   * callers still paging by number.
    */
   @Transactional(readOnly = true)
-  public List<ContentImageEntity> findOrphanImagesByLocationName(
-      String locationName, List<Long> excludeCollectionIds, int limit, int offset) {
+  public List<ContentImageEntity> findOrphanImagesByLocationId(
+      Long locationId, LocationPageCursor.ImageKey after, int limit, int offset) {
     String sql =
         SELECT_CONTENT_IMAGE
             + """
              JOIN content_image_locations cil ON ci.id = cil.content_id
-             JOIN location l ON cil.location_id = l.id
-             WHERE l.location_name = :locationName
+             WHERE cil.location_id = :locationId
+               AND NOT EXISTS (
+                 SELECT 1 FROM collection_content cc
+                 JOIN collection col ON col.id = cc.collection_id AND col.visibility = 'LISTED'
+                 JOIN collection_locations cl
+                   ON cl.collection_id = cc.collection_id AND cl.location_id = :locationId
+                 WHERE cc.content_id = c.id AND cc.visible = true
+               )
             """;
     MapSqlParameterSource params =
         createParameterSource()
-            .addValue("locationName", locationName)
+            .addValue("locationId", locationId)
             .addValue("limit", limit)
             .addValue("offset", offset);
-
-    if (excludeCollectionIds != null && !excludeCollectionIds.isEmpty()) {
+    if (after != null) {
       sql +=
           """
-           AND NOT EXISTS (
-             SELECT 1 FROM collection_content cc
-             WHERE cc.content_id = c.id
-               AND cc.collection_id IN (:excludeCollectionIds)
-               AND cc.visible = true
-           )
+           AND (COALESCE(ci.capture_date, '-infinity'::timestamp), ci.id)
+             < (COALESCE(CAST(:afterCaptureDate AS timestamp), '-infinity'::timestamp), :afterId)
           """;
-      params.addValue("excludeCollectionIds", excludeCollectionIds);
+      params.addValue("afterCaptureDate", after.captureDate()).addValue("afterId", after.id());
     }
-
-    sql += " ORDER BY ci.capture_date DESC NULLS LAST LIMIT :limit OFFSET :offset";
+    sql +=
+        " ORDER BY COALESCE(ci.capture_date, '-infinity'::timestamp) DESC, ci.id DESC"
+            + " LIMIT :limit OFFSET :offset";
     return query(sql, CONTENT_IMAGE_ROW_MAPPER, params);
   }
 
-  @Transactional(readOnly = true)
-  public long countOrphanImagesByLocationName(
-      String locationName, List<Long> excludeCollectionIds) {
-    StringBuilder sql =
-        new StringBuilder(
-            """
-            SELECT COUNT(DISTINCT c.id) FROM content c
-            JOIN content_image ci ON c.id = ci.id
-            JOIN content_image_locations cil ON ci.id = cil.content_id
-            JOIN location l ON cil.location_id = l.id
-            WHERE l.location_name = :locationName
-            """);
-    MapSqlParameterSource params = createParameterSource().addValue("locationName", locationName);
-
-    if (excludeCollectionIds != null && !excludeCollectionIds.isEmpty()) {
-      sql.append(
-          """
-           AND NOT EXISTS (
-             SELECT 1 FROM collection_content cc
-             WHERE cc.content_id = c.id
-               AND cc.collection_id IN (:excludeCollectionIds)
-               AND cc.visible = true
-           )
-          """);
-      params.addValue("excludeCollectionIds", excludeCollectionIds);
-    }
-
-    Long count = namedParameterJdbcTemplate.queryForObject(sql.toString(), params, Long.class);
-    return count != null ? count : 0L;
-  }
-
   @Transactional(readOnly = true)
   public Optional<ContentType> findContentTypeById(Long id) {
     String sql = "SELECT content_type FROM content WHERE id = :id";
@@ -569,13 +530,15 @@ public class ContentRepository extends BaseDao {
                                     f_stop, lens_id, black_and_white, is_film, film_type_id,
                                     film_format, shutter_speed, camera_id, focal_length,
                                     image_url_web, image_url_original, image_url_raw,
-                                    capture_date, last_export_date, original_filename)
+                                    capture_date, last_export_date, original_filename,
+                                    gps_latitude, gps_longitude, geohash)
           VALUES (:id, :title, :caption, :alt, :imageWidth, :imageHeight, :iso,
                   :author, :rating,
                   :fStop, :lensId, :blackAndWhite, :isFilm, :filmTypeId,
                   :filmFormat, :shutterSpeed, :cameraId, :focalLength,
                   :imageUrlWeb, :imageUrlOriginal, :imageUrlRaw,
-                  :captureDate, :lastExportDate, :originalFilename)
+                  :captureDate, :lastExportDate, :originalFilename,
+                  :gpsLatitude, :gpsLongitude, :geohash)
           """;
 
       update(imageSql, buildImageParams(entity, contentId));
@@ -612,7 +575,8 @@ public class ContentRepository extends BaseDao {
               image_url_web = :imageUrlWeb, image_url_original = :imageUrlOriginal,
               image_url_raw = :imageUrlRaw,
               capture_date = :captureDate, last_export_date = :lastExportDate,
-              original_filename = :originalFilename
+              original_filename = :originalFilename,
+              gps_latitude = :gpsLatitude, gps_longitude = :gpsLongitude, geohash = :geohash
           WHERE id = :id
           """;
 
@@ -624,6 +588,8 @@ public class ContentRepository extends BaseDao {
   }
 
   private MapSqlParameterSource buildImageParams(ContentImageEntity entity, Long id) {
+    // Both coordinates or neither; the geohash is derived from them for the map index (V64).
+    boolean hasLocation = entity.getGpsLatitude() != null && entity.getGpsLongitude() != null;
     return createParameterSource()
         .addValue("id", id)
         .addValue("title", entity.getTitle())
@@ -649,7 +615,15 @@ public class ContentRepository extends BaseDao {
         .addValue("imageUrlRaw", entity.getImageUrlRaw())
         .addValue("captureDate", entity.getCaptureDate())
         .addValue("lastExportDate", entity.getLastExportDate())
-        .addValue("originalFilename", entity.getOriginalFilename());
+        .addValue("originalFilename", entity.getOriginalFilename())
+        .addValue("gpsLatitude", hasLocation ? entity.getGpsLatitude() : null)
+        .addValue("gpsLongitude", hasLocation ? entity.getGpsLongitude() : null)
+        .addValue(
+            "geohash",
+            hasLocation
+                ? GeohashUtil.encode(
+                    entity.getGpsLatitude(), entity.getGpsLongitude(), GeohashUtil.STORED_PRECISION)
+                : null);
   }
 
   @Transactional
@@ -686,6 +660,31 @@ public class ContentRepository extends BaseDao {
     }
   }
 
+  /**
+   * Add people links for many content items in one JDBC batch. Additive and idempotent, mirroring
+   * {@link TagRepository#addContentTagsBatch}.
+   */
+  @Transactional
+  public void addContentPeopleBatch(Map<Long, List<Long>> personIdsByContentId) {
+    String insertSql =
+        "INSERT INTO content_image_people (content_id, person_id) VALUES (:contentId, :personId) ON CONFLICT DO NOTHING";
+    MapSqlParameterSource[] batchParams =
+        personIdsByContentId.entrySet().stream()
+            .flatMap(
+                entry ->
+                    entry.getValue().stream()
+                        .distinct()
+                        .map(
+                            personId ->
+                                createParameterSource()
+                                    .addValue("contentId", entry.getKey())
+                                    .addValue("personId", personId)))
+            .toArray(MapSqlParameterSource[]::new);
+    if (batchParams.length > 0) {
+      batchUpdate(insertSql, batchParams);
+    }
+  }
+
   /**
    * Distinct person IDs across all visible images contained in a collection. Used by
    * CollectionService.regeneratePeopleFromContents to auto-fill collection_people from per-image
@@ -748,8 +747,10 @@ public class ContentRepository extends BaseDao {
     String deletePeopleSql = "DELETE FROM content_image_people WHERE content_id = :id";
     update(deletePeopleSql, params);
 
-    String deleteLocationsSql = "DELETE FROM content_image_locations WHERE content_id = :id";
-    update(deleteLocationsSql, params);
+    String deleteLocationsSql =
+        "DELETE FROM content_image_locations WHERE content_id = :id RETURNING location_id";
+    locationStatsRepository.markLocations(
+        namedParameterJdbcTemplate.queryForList(deleteLocationsSql, params, Long.class));
 
     String deleteImageSql = "DELETE FROM content_image WHERE id = :id";
     update(deleteImageSql, params);
@@ -878,6 +879,7 @@ public class ContentRepository extends BaseDao {
                     ci.film_format, ci.shutter_speed, ci.camera_id, ci.focal_length,
                     ci.image_url_web, ci.image_url_original, ci.image_url_raw,
                     ci.capture_date, ci.last_export_date, ci.original_filename,
+                    ci.gps_latitude, ci.gps_longitude,
                     cam.camera_name,
                     lens.lens_name,
                     ft.film_type_name, ft.display_name, ft.default_iso
@@ -0,0 +1,214 @@
+package edens.zac.portfolio.backend.dao;
+
+import edens.zac.portfolio.backend.entity.EmailOutboxEntity;
+import edens.zac.portfolio.backend.types.EmailOutboxStatus;
+import java.util.List;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JDBC access to {@code email_outbox} (V60). {@link #insert} joins the caller's transaction, so the
+ * email commits or rolls back with the change that triggered it; the worker-side methods each run
+ * in their own short transaction so no row lock is held across an SES call.
+ */
+@Component
+@Slf4j
+public class EmailOutboxRepository extends BaseDao {
+
+  private static final String SELECT_COLUMNS =
+      """
+      SELECT id, to_address, subject, html_body, text_body, label, status, attempts,
+             next_attempt_at, last_error, message_id, created_at, sent_at
+      """;
+
+  /** The admin view never needs the bodies, which may hold credentials. */
+  private static final String SELECT_SUMMARY_COLUMNS =
+      """
+      SELECT id, to_address, subject, NULL AS html_body, NULL AS text_body, label, status,
+             attempts, next_attempt_at, last_error, message_id, created_at, sent_at
+      """;
+
+  private static final RowMapper<EmailOutboxEntity> OUTBOX_ROW_MAPPER =
+      (rs, rowNum) ->
+          EmailOutboxEntity.builder()
+              .id(rs.getLong("id"))
+              .toAddress(rs.getString("to_address"))
+              .subject(rs.getString("subject"))
+              .htmlBody(rs.getString("html_body"))
+              .textBody(rs.getString("text_body"))
+              .label(rs.getString("label"))
+              .status(EmailOutboxStatus.valueOf(rs.getString("status")))
+              .attempts(rs.getInt("attempts"))
+              .nextAttemptAt(getLocalDateTime(rs, "next_attempt_at"))
+              .lastError(rs.getString("last_error"))
+              .messageId(rs.getString("message_id"))
+              .createdAt(getLocalDateTime(rs, "created_at"))
+              .sentAt(getLocalDateTime(rs, "sent_at"))
+              .build();
+
+  public EmailOutboxRepository(JdbcTemplate jdbcTemplate) {
+    super(jdbcTemplate);
+  }
+
+  /** Queue one message, due immediately. Returns the new row id. */
+  @Transactional
+  public Long insert(
+      String toAddress, String subject, String htmlBody, String textBody, String label) {
+    String sql =
+        """
+        INSERT INTO email_outbox (to_address, subject, html_body, text_body, label)
+        VALUES (:toAddress, :subject, :htmlBody, :textBody, :label)
+        """;
+    MapSqlParameterSource params =
+        createParameterSource()
+            .addValue("toAddress", toAddress)
+            .addValue("subject", subject)
+            .addValue("htmlBody", htmlBody)
+            .addValue("textBody", textBody)
+            .addValue("label", label);
+    return insertAndReturnId(sql, "id", params);
+  }
+
+  /**
+   * Claim up to {@code limit} due messages: PENDING rows whose retry time has come, and SENDING
+   * rows whose lease expired because their worker died. Each claimed row moves to SENDING, counts
+   * one attempt and is leased for {@code leaseSeconds}. Rows locked by a concurrent claim are
+   * skipped, so instances never claim the same message.
+   */
+  @Transactional
+  public List<EmailOutboxEntity> claimDue(int limit, int leaseSeconds) {
+    String sql =
+        """
+        UPDATE email_outbox
+           SET status = 'SENDING', attempts = attempts + 1,
+               next_attempt_at = now() + make_interval(secs => :leaseSeconds), updated_at = now()
+         WHERE id IN (SELECT id FROM email_outbox
+                       WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= now()
+                       ORDER BY next_attempt_at, id
+                       LIMIT :limit
+                       FOR UPDATE SKIP LOCKED)
+        RETURNING id, to_address, subject, html_body, text_body, label, status, attempts,
+                  next_attempt_at, last_error, message_id, created_at, sent_at
+        """;
+    MapSqlParameterSource params =
+        createParameterSource().addValue("limit", limit).addValue("leaseSeconds", leaseSeconds);
+    return query(sql, OUTBOX_ROW_MAPPER, params);
+  }
+
+  /** Record a delivery and drop the bodies, which are no longer needed. */
+  @Transactional
+  public void markSent(Long id, String messageId) {
+    String sql =
+        """
+        UPDATE email_outbox
+           SET status = 'SENT', message_id = :messageId, sent_at = now(), updated_at = now(),
+               html_body = NULL, text_body = NULL, last_error = NULL
+         WHERE id = :id
+        """;
+    update(sql, createParameterSource().addValue("id", id).addValue("messageId", messageId));
+  }
+
+  /** Return a claimed message to PENDING, due again in {@code delaySeconds}. */
+  @Transactional
+  public void markRetry(Long id, long delaySeconds, String error) {
+    String sql =
+        """
+        UPDATE email_outbox
+           SET status = 'PENDING', next_attempt_at = now() + make_interval(secs => :delay),
+               last_error = :error, updated_at = now()
+         WHERE id = :id
+        """;
+    MapSqlParameterSource params =
+        createParameterSource()
+            .addValue("id", id)
+            .addValue("delay", delaySeconds)
+            .addValue("error", error);
+    update(sql, params);
+  }
+
+  /**
+   * Dead-letter a claimed message. Its bodies stay, still sealed by {@code EmailBodyCipher}, so an
+   * admin can {@link #requeueDead resend} it until the retention prune deletes the row.
+   */
+  @Transactional
+  public void markDead(Long id, String error) {
+    String sql =
+        """
+        UPDATE email_outbox SET status = 'DEAD', last_error = :error, updated_at = now()
+         WHERE id = :id
+        """;
+    update(sql, createParameterSource().addValue("id", id).addValue("error", error));
+  }
+
+  /**
+   * Queue a dead-lettered message again with a fresh attempt budget. A dead letter whose bodies
+   * were dropped (written before V65) has nothing to send and stays DEAD.
+   *
+   * @return 1 if the message was DEAD and is now PENDING, 0 otherwise
+   */
+  @Transactional
+  public int requeueDead(Long id) {
+    String sql =
+        """
+        UPDATE email_outbox
+           SET status = 'PENDING', attempts = 0, next_attempt_at = now(), updated_at = now()
+         WHERE id = :id AND status = 'DEAD'
+           AND (html_body IS NOT NULL OR text_body IS NOT NULL)
+        """;
+    return update(sql, createParameterSource().addValue("id", id));
+  }
+
+  /** Messages in {@code status}, newest first, without their bodies. */
+  @Transactional(readOnly = true)
+  public List<EmailOutboxEntity> findByStatus(EmailOutboxStatus status, int limit, int offset) {
+    String sql =
+        SELECT_SUMMARY_COLUMNS
+            + """
+            FROM email_outbox
+            WHERE status = :status
+            ORDER BY created_at DESC, id DESC
+            LIMIT :limit OFFSET :offset
+            """;
+    MapSqlParameterSource params =
+        createParameterSource()
+            .addValue("status", status.name())
+            .addValue("limit", limit)
+            .addValue("offset", offset);
+    return query(sql, OUTBOX_ROW_MAPPER, params);
+  }
+
+  /** Number of messages in {@code status}. */
+  @Transactional(readOnly = true)
+  public long countByStatus(EmailOutboxStatus status) {
+    return queryForObject(
+            "SELECT count(*) FROM email_outbox WHERE status = :status",
+            (rs, n) -> rs.getLong(1),
+            createParameterSource().addValue("status", status.name()))
+        .orElse(0L);
+  }
+
+  /** One message, bodies included (encrypted) until it is sent. */
+  @Transactional(readOnly = true)
+  public Optional<EmailOutboxEntity> findById(Long id) {
+    return queryForObject(
+        SELECT_COLUMNS + " FROM email_outbox WHERE id = :id",
+        OUTBOX_ROW_MAPPER,
+        createParameterSource().addValue("id", id));
+  }
+
+  /**
+   * Delete SENT and DEAD messages last touched more than {@code days} ago. Returns rows deleted.
+   */
+  @Transactional
+  public int deleteFinishedOlderThanDays(int days) {
+    return update(
+        "DELETE FROM email_outbox WHERE status IN ('SENT', 'DEAD')"
+            + " AND updated_at < now() - make_interval(days => :days)",
+        createParameterSource().addValue("days", days));
+  }
+}
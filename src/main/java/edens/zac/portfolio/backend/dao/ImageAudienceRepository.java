@@ -0,0 +1,417 @@
+package edens.zac.portfolio.backend.dao;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The {@code image_audience} projection (V58): per image, whether a LISTED collection shows it and
+ * which roles reach it through a granted collection. Turns "can this user see this image" into a
+ * primary-key probe instead of a walk over memberships, collections and role grants.
+ *
+ * <p>Write paths do not refresh rows themselves; they {@code mark} what they touched (images,
+ * collections whose members are affected, or roles). Marks made inside a transaction are collected
+ * and flushed once just before it commits, so a bulk write refreshes each image once and a
+ * rolled-back write refreshes nothing. Outside a transaction the refresh runs immediately.
+ */
+@Component
+@Slf4j
+public class ImageAudienceRepository extends BaseDao {
+
+  /** Image ids refreshed per statement, keeping the expanded {@code IN} list well under limits. */
+  static final int REFRESH_CHUNK = 5_000;
+
+  /**
+   * Advisory-lock spaces taken before a flush, keyed by image and by collection bucket (see {@link
+   * #lockFor}). Two flushes that could derive the same image share a key, so the later one waits
+   * until the earlier commits and then reads a snapshot that includes it -- two concurrent writes
+   * to the same image cannot leave the older derivation behind -- while unrelated writes no longer
+   * queue behind one global lock. Both spaces sort below {@link LocationStatsRepository}'s.
+   */
+  static final int IMAGE_LOCK_SPACE = 0x6961_0001;
+
+  static final int COLLECTION_LOCK_SPACE = 0x6961_0002;
+
+  /** Buckets per lock space: the most advisory locks one flush takes per space. */
+  static final int LOCK_BUCKETS = 64;
+
+  /**
+   * Before-commit order of the flush hook: ahead of {@link LocationStatsRepository}'s, so every
+   * transaction takes the two projections' advisory locks in the same order.
+   */
+  static final int FLUSH_ORDER = 100;
+
+  /**
+   * Predicate: the image whose id is {@code %s} is visible to {@code :userId}. Listed, or one of
+   * its roles is one of the user's; the user's role ids are computed once per statement.
+   */
+  private static final String VISIBLE_TO_USER =
+      """
+      EXISTS (
+        SELECT 1 FROM image_audience ia
+         WHERE ia.image_id = %s
+           AND (ia.listed
+                OR ia.role_ids && ARRAY(SELECT rm.role_id FROM role_member rm
+                                         WHERE rm.user_id = :userId)))
+      """;
+
+  /** Predicate: the image whose id is {@code %s} is shown by a LISTED collection. */
+  private static final String LISTED =
+      "EXISTS (SELECT 1 FROM image_audience ia WHERE ia.image_id = %s AND ia.listed)";
+
+  /**
+   * The live definition as {@code derived}: every image with a visible membership and at least one
+   * audience. {@code %s} filters {@code cc.content_id}. Shared by the V58 backfill shape, refresh,
+   * rebuild and the drift check so all four agree.
+   */
+  private static final String DERIVED_CTE =
+      """
+      derived AS (
+        SELECT cc.content_id AS image_id,
+               bool_or(col.visibility = 'LISTED') AS listed,
+               COALESCE(array_agg(DISTINCT rc.role_id ORDER BY rc.role_id)
+                          FILTER (WHERE rc.role_id IS NOT NULL), '{}') AS role_ids
+          FROM collection_content cc
+          JOIN content c ON c.id = cc.content_id AND c.content_type = 'IMAGE'
+          JOIN collection col ON col.id = cc.collection_id
+          LEFT JOIN role_collection rc ON rc.collection_id = cc.collection_id
+         WHERE cc.visible = true
+           %s
+         GROUP BY cc.content_id
+        HAVING bool_or(col.visibility = 'LISTED') OR count(rc.role_id) > 0
+      )
+      """;
+
+  /** An image whose stored row disagrees with the live definition; null columns mean "no row". */
+  public record AudienceDrift(
+      Long imageId,
+      Boolean storedListed,
+      List<Long> storedRoleIds,
+      Boolean expectedListed,
+      List<Long> expectedRoleIds) {}
+
+  private static final RowMapper<AudienceDrift> DRIFT_ROW_MAPPER =
+      (rs, n) ->
+          new AudienceDrift(
+              rs.getLong("image_id"),
+              getBoolean(rs, "stored_listed"),
+              longList(rs.getArray("stored_role_ids")),
+              getBoolean(rs, "expected_listed"),
+              longList(rs.getArray("expected_role_ids")));
+
+  /** What one transaction has marked so far. */
+  private static final class Pending {
+    final Set<Long> imageIds = new LinkedHashSet<>();
+    final Set<Long> collectionIds = new LinkedHashSet<>();
+    final Set<Long> roleIds = new LinkedHashSet<>();
+
+    /** Collections the marked images left: locked by the flush, not refreshed. */
+    final Set<Long> leftCollectionIds = new LinkedHashSet<>();
+  }
+
+  public ImageAudienceRepository(JdbcTemplate jdbcTemplate) {
+    super(jdbcTemplate);
+  }
+
+  /**
+   * SQL predicate for "the image {@code imageIdExpr} is visible to {@code :userId}"; the caller
+   * binds {@code userId}.
+   */
+  public static String visibleToUser(String imageIdExpr) {
+    return VISIBLE_TO_USER.formatted(imageIdExpr);
+  }
+
+  /**
+   * SQL predicate for "the image {@code imageIdExpr} is visible to anonymous visitors": a LISTED
+   * collection shows it.
+   */
+  public static String listed(String imageIdExpr) {
+    return LISTED.formatted(imageIdExpr);
+  }
+
+  // ---- Marks (called by the write paths) ----
+
+  /** The images' memberships changed (added, removed or shown/hidden). */
+  public void markImages(Collection<Long> imageIds) {
+    if (imageIds != null && !imageIds.isEmpty()) {
+      mark(pending -> pending.imageIds.addAll(imageIds));
+    }
+  }
+
+  /**
+   * The images' memberships in these collections were deleted. The images are refreshed as by
+   * {@link #markImages}; the collections are remembered only so the flush locks them, since it can
+   * no longer find a membership that is gone.
+   */
+  public void markImagesRemoved(Collection<Long> imageIds, Collection<Long> collectionIds) {
+    if (imageIds != null && !imageIds.isEmpty()) {
+      mark(
+          pending -> {
+            pending.imageIds.addAll(imageIds);
+            pending.leftCollectionIds.addAll(collectionIds);
+          });
+    }
+  }
+
+  /** Something every member of these collections depends on changed (visibility or grants). */
+  public void markCollections(Collection<Long> collectionIds) {
+    if (collectionIds != null && !collectionIds.isEmpty()) {
+      mark(pending -> pending.collectionIds.addAll(collectionIds));
+    }
+  }
+
+  /**
+   * A role was deleted along with its grants. Its images are found through the projection itself,
+   * which still lists the role until they are refreshed.
+   */
+  public void markRole(Long roleId) {
+    mark(pending -> pending.roleIds.add(roleId));
+  }
+
+  private void mark(Consumer<Pending> change) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      Pending now = new Pending();
+      change.accept(now);
+      flush(now);
+      return;
+    }
+    // Synchronizations are per transaction (a REQUIRES_NEW inner one gets its own list), so the
+    // pending marks live in this transaction's flush hook rather than in a bound resource.
+    FlushBeforeCommit hook =
+        TransactionSynchronizationManager.getSynchronizations().stream()
+            .filter(FlushBeforeCommit.class::isInstance)
+            .map(FlushBeforeCommit.class::cast)
+            .filter(candidate -> candidate.owner() == this)
+            .findFirst()
+            .orElseGet(
+                () -> {
+                  FlushBeforeCommit created = new FlushBeforeCommit(this, new Pending());
+                  TransactionSynchronizationManager.registerSynchronization(created);
+                  return created;
+                });
+    change.accept(hook.pending());
+  }
+
+  private record FlushBeforeCommit(ImageAudienceRepository owner, Pending pending)
+      implements TransactionSynchronization {
+    @Override
+    public int getOrder() {
+      return FLUSH_ORDER;
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      owner.flush(pending);
+    }
+  }
+
+  private void flush(Pending pending) {
+    if (pending.imageIds.isEmpty()
+        && pending.collectionIds.isEmpty()
+        && pending.roleIds.isEmpty()) {
+      return;
+    }
+    lockAdvisoryKeys(lockFor(pending));
+    int rows = 0;
+    if (!pending.collectionIds.isEmpty() || !pending.roleIds.isEmpty()) {
+      rows += refreshCollectionsAndRoles(pending.collectionIds, pending.roleIds);
+    }
+    List<Long> images = new ArrayList<>(pending.imageIds);
+    for (int from = 0; from < images.size(); from += REFRESH_CHUNK) {
+      rows += refreshImages(images.subList(from, Math.min(images.size(), from + REFRESH_CHUNK)));
+    }
+    log.debug(
+        "image_audience flush: {} images, {} collections, {} roles -> {} rows written",
+        pending.imageIds.size(),
+        pending.collectionIds.size(),
+        pending.roleIds.size(),
+        rows);
+  }
+
+  /**
+   * The keys a flush locks. An image's row depends on the image's memberships and on the visibility
+   * and grants of its collections, so a flush locks its marked images, every collection they belong
+   * to (this transaction's new memberships included), every collection this transaction removed
+   * them from, and its marked collections. A deleted role's grants are already gone by the flush,
+   * so a role mark locks every collection bucket; role deletion is a rare admin action.
+   */
+  private SortedSet<Long> lockFor(Pending pending) {
+    SortedSet<Long> keys = new TreeSet<>();
+    for (Long imageId : pending.imageIds) {
+      keys.add(advisoryBucketKey(IMAGE_LOCK_SPACE, imageId, LOCK_BUCKETS));
+    }
+    List<Long> collectionIds = new ArrayList<>(pending.collectionIds);
+    collectionIds.addAll(pending.leftCollectionIds);
+    if (!pending.roleIds.isEmpty()) {
+      for (long bucket = 0; bucket < LOCK_BUCKETS; bucket++) {
+        collectionIds.add(bucket);
+      }
+    } else if (!pending.imageIds.isEmpty()) {
+      List<Long> images = new ArrayList<>(pending.imageIds);
+      for (int from = 0; from < images.size(); from += REFRESH_CHUNK) {
+        collectionIds.addAll(
+            namedParameterJdbcTemplate.queryForList(
+                "SELECT DISTINCT collection_id FROM collection_content"
+                    + " WHERE content_id IN (:imageIds)",
+                createParameterSource()
+                    .addValue(
+                        "imageIds",
+                        images.subList(from, Math.min(images.size(), from + REFRESH_CHUNK))),
+                Long.class));
+      }
+    }
+    for (Long collectionId : collectionIds) {
+      keys.add(advisoryBucketKey(COLLECTION_LOCK_SPACE, collectionId, LOCK_BUCKETS));
+    }
+    return keys;
+  }
+
+  // ---- Refresh primitives ----
+
+  /**
+   * Re-derive the rows of the given images.
+   *
+   * @return Rows inserted, updated or deleted
+   */
+  @Transactional
+  public int refreshImages(Collection<Long> imageIds) {
+    if (imageIds.isEmpty()) {
+      return 0;
+    }
+    return refresh(
+        "SELECT id FROM content WHERE id IN (:imageIds)",
+        createParameterSource().addValue("imageIds", imageIds));
+  }
+
+  private int refreshCollectionsAndRoles(Collection<Long> collectionIds, Collection<Long> roleIds) {
+    List<String> branches = new ArrayList<>();
+    MapSqlParameterSource params = createParameterSource();
+    if (!collectionIds.isEmpty()) {
+      branches.add(
+          "SELECT content_id FROM collection_content WHERE collection_id IN (:collectionIds)");
+      params.addValue("collectionIds", collectionIds);
+    }
+    if (!roleIds.isEmpty()) {
+      branches.add(
+          "SELECT image_id FROM image_audience WHERE role_ids && CAST(ARRAY[:roleIds] AS BIGINT[])");
+      params.addValue("roleIds", roleIds);
+    }
+    return refresh(String.join(" UNION ", branches), params);
+  }
+
+  /**
+   * One statement: derive the target images' rows, delete the ones that lost their audience and
+   * upsert the rest, skipping rows that did not change.
+   */
+  private int refresh(String targetSql, MapSqlParameterSource params) {
+    String sql =
+        "WITH target(image_id) AS ("
+            + targetSql
+            + "), "
+            + DERIVED_CTE.formatted("AND cc.content_id IN (SELECT image_id FROM target)")
+            + """
+            , removed AS (
+              DELETE FROM image_audience ia
+               WHERE ia.image_id IN (SELECT image_id FROM target)
+                 AND NOT EXISTS (SELECT 1 FROM derived d WHERE d.image_id = ia.image_id)
+              RETURNING 1
+            ),
+            upserted AS (
+              INSERT INTO image_audience (image_id, listed, role_ids)
+              SELECT image_id, listed, role_ids FROM derived
+              ON CONFLICT (image_id) DO UPDATE
+                 SET listed = EXCLUDED.listed, role_ids = EXCLUDED.role_ids
+               WHERE image_audience.listed IS DISTINCT FROM EXCLUDED.listed
+                  OR image_audience.role_ids IS DISTINCT FROM EXCLUDED.role_ids
+              RETURNING 1
+            )
+            SELECT (SELECT count(*) FROM removed) + (SELECT count(*) FROM upserted)
+            """;
+    return queryForObject(sql, (rs, n) -> rs.getInt(1), params).orElse(0);
+  }
+
+  /**
+   * Throw the table away and re-derive it from every membership and grant.
+   *
+   * @return Rows in the rebuilt table
+   */
+  @Transactional
+  public int rebuild() {
+    update("DELETE FROM image_audience", createParameterSource());
+    int rows =
+        update(
+            "WITH "
+                + DERIVED_CTE.formatted("")
+                + """
+                INSERT INTO image_audience (image_id, listed, role_ids)
+                SELECT image_id, listed, role_ids FROM derived
+                """,
+            createParameterSource());
+    log.info("Rebuilt image_audience: {} rows", rows);
+    return rows;
+  }
+
+  // ---- Verification ----
+
+  /**
+   * Compare the stored table against a fresh derivation: missing rows, stale rows and rows whose
+   * flag or role set differ.
+   *
+   * @param limit Maximum mismatches to return
+   * @return Mismatches, empty when the table is consistent
+   */
+  @Transactional(readOnly = true)
+  public List<AudienceDrift> findDrift(int limit) {
+    String sql =
+        "WITH "
+            + DERIVED_CTE.formatted("")
+            + """
+            SELECT COALESCE(s.image_id, d.image_id) AS image_id,
+                   s.listed AS stored_listed, s.role_ids AS stored_role_ids,
+                   d.listed AS expected_listed, d.role_ids AS expected_role_ids
+              FROM image_audience s
+              FULL OUTER JOIN derived d ON d.image_id = s.image_id
+             WHERE s.image_id IS NULL
+                OR d.image_id IS NULL
+                OR s.listed <> d.listed
+                OR s.role_ids <> d.role_ids
+             ORDER BY 1
+             LIMIT :limit
+            """;
+    return query(sql, DRIFT_ROW_MAPPER, createParameterSource().addValue("limit", limit));
+  }
+
+  /** Total rows in the table. */
+  @Transactional(readOnly = true)
+  public int count() {
+    return queryForObject(
+            "SELECT count(*) FROM image_audience", (rs, n) -> rs.getInt(1), createParameterSource())
+        .orElse(0);
+  }
+
+  private static List<Long> longList(Array array) throws SQLException {
+    if (array == null) {
+      return null;
+    }
+    List<Long> ids = new ArrayList<>();
+    for (Object id : (Object[]) array.getArray()) {
+      ids.add(((Number) id).longValue());
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,147 @@
+package edens.zac.portfolio.backend.dao;
+
+import edens.zac.portfolio.backend.model.Records;
+import edens.zac.portfolio.backend.services.GeohashUtil;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Map queries over the capture locations in {@code content_image} (V64). Images are found through
+ * the geohash index, one range scan per covering cell, then grouped by a geohash prefix into
+ * clusters; visibility comes from the {@code image_audience} projection, so the map shows exactly
+ * the images a collection read would.
+ *
+ * <p>{@code image_audience} does not know about gallery passwords, so for everyone but an admin an
+ * image also needs a visible membership in an unprotected collection that reaches the viewer. An
+ * image exposed only through password-protected galleries never appears on the map, the same
+ * fail-closed stance the download gates take.
+ */
+@Component
+public class ImageMapRepository extends BaseDao {
+
+  /**
+   * {@code %1$s} is the longitude filter, {@code %2$s} the visibility predicate over {@code ci.id}.
+   * The cover is the best-rated image of the cell, then the most recently captured.
+   */
+  private static final String CLUSTERS_SQL =
+      """
+      WITH visible AS (
+        SELECT left(ci.geohash, :precision) AS cell, ci.id, ci.gps_latitude, ci.gps_longitude,
+               ci.image_url_web, ci.rating, ci.capture_date
+          FROM unnest(CAST(ARRAY[:cells] AS TEXT[])) AS cover(prefix)
+          JOIN content_image ci
+            ON ci.geohash >= cover.prefix COLLATE "C"
+           AND ci.geohash < (cover.prefix || '{') COLLATE "C"
+         WHERE ci.gps_latitude BETWEEN :south AND :north
+           AND %1$s
+           AND %2$s
+      ),
+      ranked AS (
+        SELECT v.*,
+               row_number() OVER (PARTITION BY v.cell
+                                  ORDER BY v.rating DESC NULLS LAST,
+                                           v.capture_date DESC NULLS LAST, v.id DESC) AS rn,
+               count(*) OVER (PARTITION BY v.cell) AS image_count,
+               avg(v.gps_latitude) OVER (PARTITION BY v.cell) AS mean_latitude,
+               avg(v.gps_longitude) OVER (PARTITION BY v.cell) AS mean_longitude
+          FROM visible v
+      )
+      SELECT cell, image_count, mean_latitude, mean_longitude,
+             id AS cover_image_id, image_url_web AS cover_image_url
+        FROM ranked
+       WHERE rn = 1
+       ORDER BY image_count DESC, cell
+      """;
+
+  /**
+   * Predicate: image {@code %1$s} has a visible membership in a collection without a gallery
+   * password that {@code %2$s} (a predicate over {@code col}) lets the viewer see.
+   */
+  private static final String UNPROTECTED_EXPOSURE =
+      """
+      EXISTS (
+        SELECT 1 FROM collection_content cc
+          JOIN collection col ON col.id = cc.collection_id
+         WHERE cc.content_id = %1$s
+           AND cc.visible = true
+           AND col.gallery_password IS NULL
+           AND (%2$s))
+      """;
+
+  /** Collection predicate for an anonymous viewer. */
+  private static final String LISTED_COLLECTION = "col.visibility = 'LISTED'";
+
+  /** Collection predicate for {@code :userId}: listed, or granted to one of the user's roles. */
+  private static final String COLLECTION_VISIBLE_TO_USER =
+      """
+      col.visibility = 'LISTED'
+      OR EXISTS (SELECT 1 FROM role_collection rc
+                   JOIN role_member rm ON rm.role_id = rc.role_id
+                  WHERE rc.collection_id = col.id AND rm.user_id = :userId)
+      """;
+
+  private static final RowMapper<Records.MapCluster> CLUSTER_ROW_MAPPER =
+      (rs, rowNum) ->
+          new Records.MapCluster(
+              rs.getString("cell"),
+              rs.getLong("image_count"),
+              rs.getDouble("mean_latitude"),
+              rs.getDouble("mean_longitude"),
+              rs.getLong("cover_image_id"),
+              rs.getString("cover_image_url"));
+
+  public ImageMapRepository(JdbcTemplate jdbcTemplate) {
+    super(jdbcTemplate);
+  }
+
+  /**
+   * Cluster the images inside {@code bounds} by their first {@code precision} geohash characters.
+   *
+   * @param bounds The box; may cross the antimeridian
+   * @param cells Geohash cells that together cover the box, all no longer than {@code precision}
+   * @param precision Cluster cell size (geohash length)
+   * @param userId The signed-in viewer, or null for an anonymous one (LISTED images only); either
+   *     way images reachable only through password-protected collections are left out
+   * @param admin Whether the viewer is an admin, who sees every image
+   * @return One cluster per non-empty cell, largest first
+   */
+  @Transactional(readOnly = true)
+  public List<Records.MapCluster> findClusters(
+      GeohashUtil.Bounds bounds, List<String> cells, int precision, Long userId, boolean admin) {
+    if (cells.isEmpty()) {
+      return List.of();
+    }
+    String longitude =
+        bounds.wrapsAntimeridian()
+            ? "(ci.gps_longitude >= :west OR ci.gps_longitude <= :east)"
+            : "ci.gps_longitude BETWEEN :west AND :east";
+    String visibility;
+    if (admin) {
+      visibility = "true";
+    } else if (userId != null) {
+      visibility =
+          ImageAudienceRepository.visibleToUser("ci.id")
+              + " AND "
+              + UNPROTECTED_EXPOSURE.formatted("ci.id", COLLECTION_VISIBLE_TO_USER);
+    } else {
+      visibility =
+          ImageAudienceRepository.listed("ci.id")
+              + " AND "
+              + UNPROTECTED_EXPOSURE.formatted("ci.id", LISTED_COLLECTION);
+    }
+    MapSqlParameterSource params =
+        createParameterSource()
+            .addValue("cells", cells)
+            .addValue("precision", precision)
+            .addValue("south", bounds.south())
+            .addValue("north", bounds.north())
+            .addValue("west", bounds.west())
+            .addValue("east", bounds.east())
+            .addValue("userId", userId);
+    return query(CLUSTERS_SQL.formatted(longitude, visibility), CLUSTER_ROW_MAPPER, params);
+  }
+}
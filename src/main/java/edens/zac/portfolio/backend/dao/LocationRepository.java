@@ -1,14 +1,15 @@
 package edens.zac.portfolio.backend.dao;
 
 import edens.zac.portfolio.backend.entity.LocationEntity;
-import edens.zac.portfolio.backend.model.Records;
 import edens.zac.portfolio.backend.services.SlugUtil;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -17,13 +18,23 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-/** Repository for LocationEntity using raw SQL queries. */
+/**
+ * Repository for LocationEntity using raw SQL queries.
+ *
+ * <p>Writes to the location join tables mark the locations they added or removed on {@link
+ * LocationStatsRepository}, which refreshes the {@code location_stats} counts before the
+ * transaction commits.
+ */
 @Component
 @Slf4j
 public class LocationRepository extends BaseDao {
 
-  public LocationRepository(JdbcTemplate jdbcTemplate) {
+  private final LocationStatsRepository locationStatsRepository;
+
+  public LocationRepository(
+      JdbcTemplate jdbcTemplate, LocationStatsRepository locationStatsRepository) {
     super(jdbcTemplate);
+    this.locationStatsRepository = locationStatsRepository;
   }
 
   private static final RowMapper<LocationEntity> LOCATION_ROW_MAPPER =
@@ -146,11 +157,14 @@ public class LocationRepository extends BaseDao {
    */
   @Transactional
   public void saveContentLocations(Long contentId, List<Long> locationIds) {
-    String deleteSql = "DELETE FROM content_image_locations WHERE content_id = :contentId";
+    String deleteSql =
+        "DELETE FROM content_image_locations WHERE content_id = :contentId RETURNING location_id";
     MapSqlParameterSource deleteParams = createParameterSource().addValue("contentId", contentId);
-    update(deleteSql, deleteParams);
+    Set<Long> touched =
+        new HashSet<>(namedParameterJdbcTemplate.queryForList(deleteSql, deleteParams, Long.class));
 
     if (locationIds != null && !locationIds.isEmpty()) {
+      touched.addAll(locationIds);
       String insertSql =
           "INSERT INTO content_image_locations (content_id, location_id) VALUES (:contentId, :locationId) ON CONFLICT DO NOTHING";
       MapSqlParameterSource[] batchParams =
@@ -163,6 +177,43 @@ public class LocationRepository extends BaseDao {
               .toArray(MapSqlParameterSource[]::new);
       batchUpdate(insertSql, batchParams);
     }
+    locationStatsRepository.markLocations(touched);
+  }
+
+  /**
+   * Replace the single location of many content items at once: one DELETE for the whole set and one
+   * JDBC batch of inserts. Same end state as calling {@link #saveContentLocations} with a
+   * one-element list per item.
+   */
+  @Transactional
+  public void replaceContentLocationsBatch(Map<Long, Long> locationIdByContentId) {
+    if (locationIdByContentId == null || locationIdByContentId.isEmpty()) {
+      return;
+    }
+    String deleteSql =
+        "DELETE FROM content_image_locations WHERE content_id IN (:contentIds)"
+            + " RETURNING location_id";
+    Set<Long> touched =
+        new HashSet<>(
+            namedParameterJdbcTemplate.queryForList(
+                deleteSql,
+                createParameterSource()
+                    .addValue("contentIds", new ArrayList<>(locationIdByContentId.keySet())),
+                Long.class));
+    touched.addAll(locationIdByContentId.values());
+
+    String insertSql =
+        "INSERT INTO content_image_locations (content_id, location_id) VALUES (:contentId, :locationId) ON CONFLICT DO NOTHING";
+    MapSqlParameterSource[] batchParams =
+        locationIdByContentId.entrySet().stream()
+            .map(
+                entry ->
+                    createParameterSource()
+                        .addValue("contentId", entry.getKey())
+                        .addValue("locationId", entry.getValue()))
+            .toArray(MapSqlParameterSource[]::new);
+    batchUpdate(insertSql, batchParams);
+    locationStatsRepository.markLocations(touched);
   }
 
   @Transactional(readOnly = true)
@@ -206,12 +257,16 @@ public class LocationRepository extends BaseDao {
 
   @Transactional
   public void saveCollectionLocations(Long collectionId, List<Long> locationIds) {
-    String deleteSql = "DELETE FROM collection_locations WHERE collection_id = :collectionId";
+    String deleteSql =
+        "DELETE FROM collection_locations WHERE collection_id = :collectionId"
+            + " RETURNING location_id";
     MapSqlParameterSource deleteParams =
         createParameterSource().addValue("collectionId", collectionId);
-    update(deleteSql, deleteParams);
+    Set<Long> touched =
+        new HashSet<>(namedParameterJdbcTemplate.queryForList(deleteSql, deleteParams, Long.class));
 
     if (locationIds != null && !locationIds.isEmpty()) {
+      touched.addAll(locationIds);
       String insertSql =
           "INSERT INTO collection_locations (collection_id, location_id) VALUES (:collectionId, :locationId) ON CONFLICT DO NOTHING";
       MapSqlParameterSource[] batchParams =
@@ -224,6 +279,7 @@ public class LocationRepository extends BaseDao {
               .toArray(MapSqlParameterSource[]::new);
       batchUpdate(insertSql, batchParams);
     }
+    locationStatsRepository.markLocations(touched);
   }
 
   @Transactional(readOnly = true)
@@ -282,76 +338,12 @@ public class LocationRepository extends BaseDao {
     return result;
   }
 
-  // ============================================================
-  // Aggregate Queries
-  // ============================================================
-
-  /**
-   * Find all locations that have at least one publicly-listed collection or at least one image,
-   * with counts of collections and orphan images (images not in any listed collection at this
-   * location).
-   *
-   * <p>Migrated from the V20 boolean {@code collection.visible} to the 3-state {@code
-   * collection.visibility} enum: only LISTED collections are counted (UNLISTED stay direct-link
-   * only and HIDDEN are dev-only). The per-membership {@code collection_content.visible} boolean is
-   * unchanged by V20 and continues to gate per-collection content visibility.
-   */
-  @Transactional(readOnly = true)
-  public List<Records.LocationWithCounts> findLocationsWithVisibleContent() {
-    String sql =
-        """
-        SELECT l.id, l.location_name, l.slug,
-          COUNT(DISTINCT c.id) AS collection_count,
-          COUNT(DISTINCT CASE
-            WHEN cil.content_id IS NOT NULL
-              AND NOT EXISTS (
-                SELECT 1 FROM collection_content cc2
-                JOIN collection c2 ON cc2.collection_id = c2.id
-                JOIN collection_locations cl2 ON c2.id = cl2.collection_id
-                WHERE cc2.content_id = cil.content_id
-                  AND cl2.location_id = l.id
-                  AND c2.visibility = 'LISTED'
-                  AND cc2.visible = true
-              )
-            THEN cil.content_id
-          END) AS orphan_image_count
-        FROM location l
-        LEFT JOIN collection_locations cl ON cl.location_id = l.id
-        LEFT JOIN collection c ON c.id = cl.collection_id AND c.visibility = 'LISTED'
-        LEFT JOIN content_image_locations cil ON cil.location_id = l.id
-        GROUP BY l.id, l.location_name, l.slug
-        HAVING COUNT(DISTINCT c.id) > 0
-            OR COUNT(DISTINCT CASE
-                 WHEN cil.content_id IS NOT NULL
-                   AND NOT EXISTS (
-                     SELECT 1 FROM collection_content cc2
-                     JOIN collection c2 ON cc2.collection_id = c2.id
-                     JOIN collection_locations cl2 ON c2.id = cl2.collection_id
-                     WHERE cc2.content_id = cil.content_id
-                       AND cl2.location_id = l.id
-                       AND c2.visibility = 'LISTED'
-                       AND cc2.visible = true
-                   )
-                 THEN cil.content_id
-               END) > 0
-        ORDER BY l.location_name ASC
-        """;
-    return query(
-        sql,
-        (rs, rowNum) ->
-            new Records.LocationWithCounts(
-                rs.getLong("id"),
-                rs.getString("location_name"),
-                rs.getString("slug"),
-                rs.getInt("collection_count"),
-                rs.getInt("orphan_image_count")));
-  }
-
   @Transactional
   public void clearAllAssociationsByLocationId(Long locationId) {
     MapSqlParameterSource params = createParameterSource().addValue("locationId", locationId);
     update("DELETE FROM collection_locations WHERE location_id = :locationId", params);
     update("DELETE FROM content_image_locations WHERE location_id = :locationId", params);
+    locationStatsRepository.markLocations(List.of(locationId));
   }
 
   @Transactional
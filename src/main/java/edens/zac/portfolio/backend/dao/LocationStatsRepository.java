@@ -0,0 +1,340 @@
+package edens.zac.portfolio.backend.dao;
+
+import edens.zac.portfolio.backend.model.Records;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The {@code location_stats} projection (V63): per location, its LISTED collections and the images
+ * at it that none of them shows. Serves the locations index and the location page totals without
+ * re-counting memberships on every read.
+ *
+ * <p>Maintained like {@link ImageAudienceRepository}: write paths {@code mark} the locations,
+ * collections or images they touched and the affected locations are re-derived once, just before
+ * the transaction commits (immediately outside one). Collections and images are resolved to their
+ * locations both when marked and at the flush, so a write that drops an association (or deletes the
+ * row, cascading it away) still refreshes the location it left.
+ *
+ * <p>A flush locks a hashed bucket per location it refreshes, so only writers to the same locations
+ * wait on each other. Its hook runs after {@link ImageAudienceRepository}'s and its lock space
+ * sorts above both of that projection's, so a transaction marking both always takes the locks in
+ * one global order and two such transactions cannot deadlock.
+ */
+@Component
+@Slf4j
+public class LocationStatsRepository extends BaseDao {
+
+  /** Advisory-lock space of the per-location flush locks; above the image_audience spaces. */
+  static final int LOCATION_LOCK_SPACE = 0x6C73_0001;
+
+  /** Before-commit order of the flush hook: after the image_audience flush. */
+  static final int FLUSH_ORDER = ImageAudienceRepository.FLUSH_ORDER + 100;
+
+  /**
+   * The live definition as {@code derived}: one row per location, zero counts included. {@code %s}
+   * filters {@code l.id}. Shared by the V63 backfill shape, refresh, rebuild and the drift check.
+   */
+  private static final String DERIVED_CTE =
+      """
+      derived AS (
+        SELECT l.id AS location_id,
+               (SELECT count(*)
+                  FROM collection_locations cl
+                  JOIN collection c ON c.id = cl.collection_id AND c.visibility = 'LISTED'
+                 WHERE cl.location_id = l.id)::int AS collection_count,
+               (SELECT count(*)
+                  FROM content_image_locations cil
+                  JOIN content_image ci ON ci.id = cil.content_id
+                 WHERE cil.location_id = l.id
+                   AND NOT EXISTS (
+                     SELECT 1
+                       FROM collection_content cc
+                       JOIN collection c ON c.id = cc.collection_id AND c.visibility = 'LISTED'
+                       JOIN collection_locations cl
+                         ON cl.collection_id = cc.collection_id AND cl.location_id = l.id
+                      WHERE cc.content_id = cil.content_id AND cc.visible = true))::int
+                 AS image_count
+          FROM location l
+         WHERE true %s
+      )
+      """;
+
+  /** A location whose stored row disagrees with the live definition; null means "no row". */
+  public record StatsDrift(
+      Long locationId,
+      Integer storedCollections,
+      Integer storedImages,
+      Integer expectedCollections,
+      Integer expectedImages) {}
+
+  private static final RowMapper<StatsDrift> DRIFT_ROW_MAPPER =
+      (rs, n) ->
+          new StatsDrift(
+              rs.getLong("location_id"),
+              getInteger(rs, "stored_collections"),
+              getInteger(rs, "stored_images"),
+              getInteger(rs, "expected_collections"),
+              getInteger(rs, "expected_images"));
+
+  private static final RowMapper<Records.LocationWithCounts> LOCATION_WITH_COUNTS_ROW_MAPPER =
+      (rs, rowNum) ->
+          new Records.LocationWithCounts(
+              rs.getLong("id"),
+              rs.getString("location_name"),
+              rs.getString("slug"),
+              rs.getInt("collection_count"),
+              rs.getInt("image_count"));
+
+  /** What one transaction has marked so far. */
+  private static final class Pending {
+    final Set<Long> locationIds = new LinkedHashSet<>();
+    final Set<Long> collectionIds = new LinkedHashSet<>();
+    final Set<Long> imageIds = new LinkedHashSet<>();
+  }
+
+  public LocationStatsRepository(JdbcTemplate jdbcTemplate) {
+    super(jdbcTemplate);
+  }
+
+  // ---- Reads ----
+
+  /** Every location with a listed collection or an orphan image, by name. */
+  @Transactional(readOnly = true)
+  public List<Records.LocationWithCounts> findAllWithCounts() {
+    String sql =
+        """
+        SELECT l.id, l.location_name, l.slug, s.collection_count, s.image_count
+          FROM location_stats s
+          JOIN location l ON l.id = s.location_id
+         ORDER BY l.location_name ASC
+        """;
+    return query(sql, LOCATION_WITH_COUNTS_ROW_MAPPER);
+  }
+
+  /** One location's counts; empty when it has neither listed collections nor orphan images. */
+  @Transactional(readOnly = true)
+  public Optional<Records.LocationWithCounts> findByLocationId(Long locationId) {
+    String sql =
+        """
+        SELECT l.id, l.location_name, l.slug, s.collection_count, s.image_count
+          FROM location_stats s
+          JOIN location l ON l.id = s.location_id
+         WHERE s.location_id = :locationId
+        """;
+    return queryForObject(
+        sql,
+        LOCATION_WITH_COUNTS_ROW_MAPPER,
+        createParameterSource().addValue("locationId", locationId));
+  }
+
+  // ---- Marks (called by the write paths) ----
+
+  /** These locations' associations changed. */
+  public void markLocations(Collection<Long> locationIds) {
+    if (locationIds != null && !locationIds.isEmpty()) {
+      Set<Long> ids = Set.copyOf(locationIds);
+      mark(pending -> pending.locationIds.addAll(ids));
+    }
+  }
+
+  /**
+   * The collections' visibility or memberships changed. Resolved to their locations at the flush; a
+   * delete, which cascades the associations away, marks the locations it read instead.
+   */
+  public void markCollections(Collection<Long> collectionIds) {
+    if (collectionIds != null && !collectionIds.isEmpty()) {
+      Set<Long> ids = Set.copyOf(collectionIds);
+      mark(pending -> pending.collectionIds.addAll(ids));
+    }
+  }
+
+  /** The images' memberships changed. Resolved to their locations at the flush. */
+  public void markImages(Collection<Long> imageIds) {
+    if (imageIds != null && !imageIds.isEmpty()) {
+      Set<Long> ids = Set.copyOf(imageIds);
+      mark(pending -> pending.imageIds.addAll(ids));
+    }
+  }
+
+  private void mark(Consumer<Pending> change) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      Pending now = new Pending();
+      change.accept(now);
+      flush(now);
+      return;
+    }
+    FlushBeforeCommit hook =
+        TransactionSynchronizationManager.getSynchronizations().stream()
+            .filter(FlushBeforeCommit.class::isInstance)
+            .map(FlushBeforeCommit.class::cast)
+            .filter(candidate -> candidate.owner() == this)
+            .findFirst()
+            .orElseGet(
+                () -> {
+                  FlushBeforeCommit created = new FlushBeforeCommit(this, new Pending());
+                  TransactionSynchronizationManager.registerSynchronization(created);
+                  return created;
+                });
+    change.accept(hook.pending());
+  }
+
+  private record FlushBeforeCommit(LocationStatsRepository owner, Pending pending)
+      implements TransactionSynchronization {
+    @Override
+    public int getOrder() {
+      return FLUSH_ORDER;
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      owner.flush(pending);
+    }
+  }
+
+  private void flush(Pending pending) {
+    Set<Long> locationIds = new LinkedHashSet<>(pending.locationIds);
+    if (!pending.collectionIds.isEmpty()) {
+      locationIds.addAll(locationsOfCollections(pending.collectionIds));
+    }
+    if (!pending.imageIds.isEmpty()) {
+      locationIds.addAll(locationsOfImages(pending.imageIds));
+    }
+    if (locationIds.isEmpty()) {
+      return;
+    }
+    SortedSet<Long> keys = new TreeSet<>();
+    for (Long locationId : locationIds) {
+      keys.add(
+          advisoryBucketKey(LOCATION_LOCK_SPACE, locationId, ImageAudienceRepository.LOCK_BUCKETS));
+    }
+    lockAdvisoryKeys(keys);
+    int rows = refreshLocations(locationIds);
+    log.debug("location_stats flush: {} locations -> {} rows written", locationIds.size(), rows);
+  }
+
+  private List<Long> locationsOfCollections(Collection<Long> collectionIds) {
+    return namedParameterJdbcTemplate.queryForList(
+        "SELECT DISTINCT location_id FROM collection_locations"
+            + " WHERE collection_id IN (:collectionIds)",
+        createParameterSource().addValue("collectionIds", collectionIds),
+        Long.class);
+  }
+
+  private List<Long> locationsOfImages(Collection<Long> imageIds) {
+    return namedParameterJdbcTemplate.queryForList(
+        "SELECT DISTINCT location_id FROM content_image_locations WHERE content_id IN (:imageIds)",
+        createParameterSource().addValue("imageIds", imageIds),
+        Long.class);
+  }
+
+  // ---- Refresh primitives ----
+
+  /**
+   * Re-derive the rows of the given locations in one statement: delete the ones left with nothing
+   * to show and upsert the rest, skipping rows that did not change.
+   *
+   * @return Rows inserted, updated or deleted
+   */
+  @Transactional
+  public int refreshLocations(Collection<Long> locationIds) {
+    if (locationIds.isEmpty()) {
+      return 0;
+    }
+    String sql =
+        "WITH "
+            + DERIVED_CTE.formatted("AND l.id IN (:locationIds)")
+            + """
+            , removed AS (
+              DELETE FROM location_stats s
+               WHERE s.location_id IN (:locationIds)
+                 AND NOT EXISTS (SELECT 1 FROM derived d
+                                  WHERE d.location_id = s.location_id
+                                    AND (d.collection_count > 0 OR d.image_count > 0))
+              RETURNING 1
+            ),
+            upserted AS (
+              INSERT INTO location_stats (location_id, collection_count, image_count)
+              SELECT location_id, collection_count, image_count FROM derived
+               WHERE collection_count > 0 OR image_count > 0
+              ON CONFLICT (location_id) DO UPDATE
+                 SET collection_count = EXCLUDED.collection_count,
+                     image_count = EXCLUDED.image_count
+               WHERE location_stats.collection_count <> EXCLUDED.collection_count
+                  OR location_stats.image_count <> EXCLUDED.image_count
+              RETURNING 1
+            )
+            SELECT (SELECT count(*) FROM removed) + (SELECT count(*) FROM upserted)
+            """;
+    return queryForObject(
+            sql,
+            (rs, n) -> rs.getInt(1),
+            createParameterSource().addValue("locationIds", new ArrayList<>(locationIds)))
+        .orElse(0);
+  }
+
+  /**
+   * Throw the table away and re-derive it for every location.
+   *
+   * @return Rows in the rebuilt table
+   */
+  @Transactional
+  public int rebuild() {
+    update("DELETE FROM location_stats", createParameterSource());
+    int rows =
+        update(
+            "WITH "
+                + DERIVED_CTE.formatted("")
+                + """
+                INSERT INTO location_stats (location_id, collection_count, image_count)
+                SELECT location_id, collection_count, image_count FROM derived
+                 WHERE collection_count > 0 OR image_count > 0
+                """,
+            createParameterSource());
+    log.info("Rebuilt location_stats: {} rows", rows);
+    return rows;
+  }
+
+  // ---- Verification ----
+
+  /**
+   * Compare the stored table against a fresh derivation.
+   *
+   * @return Every mismatched location, empty when the table is consistent
+   */
+  @Transactional(readOnly = true)
+  public List<StatsDrift> findDrift() {
+    String sql =
+        "WITH "
+            + DERIVED_CTE.formatted("")
+            + """
+            , expected AS (
+              SELECT * FROM derived WHERE collection_count > 0 OR image_count > 0
+            )
+            SELECT COALESCE(s.location_id, e.location_id) AS location_id,
+                   s.collection_count AS stored_collections, s.image_count AS stored_images,
+                   e.collection_count AS expected_collections, e.image_count AS expected_images
+              FROM location_stats s
+              FULL OUTER JOIN expected e ON e.location_id = s.location_id
+             WHERE s.location_id IS NULL
+                OR e.location_id IS NULL
+                OR s.collection_count <> e.collection_count
+                OR s.image_count <> e.image_count
+             ORDER BY 1
+            """;
+    return query(sql, DRIFT_ROW_MAPPER);
+  }
+}
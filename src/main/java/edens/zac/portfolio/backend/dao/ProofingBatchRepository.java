@@ -0,0 +1,94 @@
+package edens.zac.portfolio.backend.dao;
+
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JDBC access to {@code proofing_batch} (V59), the idempotency record of applied proofing batches.
+ * A batch claims its key before writing anything; a concurrent request with the same key blocks on
+ * the primary key until the first commits (then finds it claimed) or rolls back (then claims it).
+ */
+@Component
+@Slf4j
+public class ProofingBatchRepository extends BaseDao {
+
+  public ProofingBatchRepository(JdbcTemplate jdbcTemplate) {
+    super(jdbcTemplate);
+  }
+
+  /** The recorded outcome of an applied batch. */
+  public record StoredBatch(
+      Long collectionId, int selected, int unselected, int rated, int cleared) {}
+
+  /** Claim the key for this user. Returns false if it was already claimed. */
+  @Transactional
+  public boolean claim(Long userId, String idempotencyKey, Long collectionId) {
+    String sql =
+        """
+        INSERT INTO proofing_batch (user_id, idempotency_key, collection_id)
+        VALUES (:userId, :key, :collectionId)
+        ON CONFLICT (user_id, idempotency_key) DO NOTHING
+        """;
+    MapSqlParameterSource params =
+        createParameterSource()
+            .addValue("userId", userId)
+            .addValue("key", idempotencyKey)
+            .addValue("collectionId", collectionId);
+    return update(sql, params) == 1;
+  }
+
+  /** The batch recorded under this user's key, if any. */
+  @Transactional(readOnly = true)
+  public Optional<StoredBatch> find(Long userId, String idempotencyKey) {
+    String sql =
+        """
+        SELECT collection_id, selected, unselected, rated, cleared FROM proofing_batch
+        WHERE user_id = :userId AND idempotency_key = :key
+        """;
+    MapSqlParameterSource params =
+        createParameterSource().addValue("userId", userId).addValue("key", idempotencyKey);
+    return queryForObject(
+        sql,
+        (rs, n) ->
+            new StoredBatch(
+                rs.getLong("collection_id"),
+                rs.getInt("selected"),
+                rs.getInt("unselected"),
+                rs.getInt("rated"),
+                rs.getInt("cleared")),
+        params);
+  }
+
+  /** Record what the claimed batch changed, for replays. */
+  @Transactional
+  public void recordCounts(
+      Long userId, String idempotencyKey, int selected, int unselected, int rated, int cleared) {
+    String sql =
+        """
+        UPDATE proofing_batch
+           SET selected = :selected, unselected = :unselected, rated = :rated, cleared = :cleared
+         WHERE user_id = :userId AND idempotency_key = :key
+        """;
+    MapSqlParameterSource params =
+        createParameterSource()
+            .addValue("userId", userId)
+            .addValue("key", idempotencyKey)
+            .addValue("selected", selected)
+            .addValue("unselected", unselected)
+            .addValue("rated", rated)
+            .addValue("cleared", cleared);
+    update(sql, params);
+  }
+
+  /** Delete batches recorded more than {@code hours} ago. Returns rows deleted. */
+  @Transactional
+  public int deleteOlderThanHours(int hours) {
+    return update(
+        "DELETE FROM proofing_batch WHERE created_at < now() - make_interval(hours => :hours)",
+        createParameterSource().addValue("hours", hours));
+  }
+}
@@ -0,0 +1,241 @@
+package edens.zac.portfolio.backend.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The {@code proofing_summary} counters (V59): per (collection, image), how many clients selected
+ * it and how many overrides sit at each rating. Backs the admin proofing view so it never scans
+ * {@code user_selects} or {@code user_rating_override}.
+ *
+ * <p>Written only through {@link #apply}: the select and override repositories turn the rows each
+ * write returned into {@link Deltas} and apply them in the same transaction, one upsert per write
+ * however many images it touched. {@link #rebuild} re-derives the table after drift.
+ */
+@Component
+@Slf4j
+public class ProofingSummaryRepository extends BaseDao {
+
+  /** Rating values 0-5, stored as {@code rating_counts[1..6]}. */
+  static final int RATING_BUCKETS = 6;
+
+  /** Rows per upsert statement; each row binds four parameters. */
+  private static final int APPLY_CHUNK_SIZE = 500;
+
+  /** The live definition, shared by the V59 backfill shape, rebuild and the drift check. */
+  private static final String DERIVED =
+      """
+      SELECT collection_id, content_id, sum(selects)::int AS select_count,
+             ARRAY[sum(r0), sum(r1), sum(r2), sum(r3), sum(r4), sum(r5)]::int[] AS rating_counts
+        FROM (SELECT collection_id, content_id, 1 AS selects, 0 AS r0, 0 AS r1, 0 AS r2, 0 AS r3,
+                     0 AS r4, 0 AS r5
+                FROM user_selects
+              UNION ALL
+              SELECT collection_id, content_id, 0, (rating = 0)::int, (rating = 1)::int,
+                     (rating = 2)::int, (rating = 3)::int, (rating = 4)::int, (rating = 5)::int
+                FROM user_rating_override) s
+       WHERE EXISTS (SELECT 1 FROM collection c WHERE c.id = s.collection_id)
+       GROUP BY collection_id, content_id
+      """;
+
+  /** Collection-wide proofing totals. {@code ratingHistogram.get(r)} counts overrides at r. */
+  public record CollectionProofing(long selects, long imagesSelected, List<Long> ratingHistogram) {}
+
+  /** One image's counters; {@code ratingCounts.get(r)} counts overrides at rating r. */
+  public record ImageProofing(Long contentId, int selectCount, List<Integer> ratingCounts) {}
+
+  /**
+   * Pending counter changes from one write, keyed by (collection, image). Select and rating changes
+   * to the same image collapse into a single row of the upsert.
+   */
+  public static final class Deltas {
+    private final Map<List<Long>, int[]> rows = new LinkedHashMap<>();
+
+    /** Adjust the image's select count by {@code delta}. */
+    public Deltas select(Long collectionId, Long contentId, int delta) {
+      row(collectionId, contentId)[0] += delta;
+      return this;
+    }
+
+    /** Adjust the count of overrides at {@code rating} by {@code delta}. */
+    public Deltas rating(Long collectionId, Long contentId, int rating, int delta) {
+      row(collectionId, contentId)[1 + rating] += delta;
+      return this;
+    }
+
+    /** Whether nothing changed (every counter cancelled out or none was touched). */
+    public boolean isEmpty() {
+      return rows.values().stream()
+          .allMatch(counters -> Arrays.stream(counters).allMatch(c -> c == 0));
+    }
+
+    private int[] row(Long collectionId, Long contentId) {
+      return rows.computeIfAbsent(
+          List.of(collectionId, contentId), key -> new int[1 + RATING_BUCKETS]);
+    }
+  }
+
+  public ProofingSummaryRepository(JdbcTemplate jdbcTemplate) {
+    super(jdbcTemplate);
+  }
+
+  /**
+   * Add the deltas to the counters, creating rows as needed. Rows for a collection that no longer
+   * exists are skipped: an override's {@code collection_id} carries no foreign key, so a re-rate
+   * can move one out of a deleted collection.
+   */
+  @Transactional
+  public void apply(Deltas deltas) {
+    List<Map.Entry<List<Long>, int[]>> changed =
+        deltas.rows.entrySet().stream()
+            .filter(e -> Arrays.stream(e.getValue()).anyMatch(c -> c != 0))
+            .toList();
+    for (int from = 0; from < changed.size(); from += APPLY_CHUNK_SIZE) {
+      List<Map.Entry<List<Long>, int[]>> chunk =
+          changed.subList(from, Math.min(from + APPLY_CHUNK_SIZE, changed.size()));
+      MapSqlParameterSource params = createParameterSource();
+      List<String> values = new ArrayList<>(chunk.size());
+      for (int i = 0; i < chunk.size(); i++) {
+        List<Long> key = chunk.get(i).getKey();
+        int[] counters = chunk.get(i).getValue();
+        values.add(
+            ("(CAST(:collection%1$d AS BIGINT), CAST(:content%1$d AS BIGINT),"
+                    + " CAST(:selects%1$d AS INTEGER), CAST(:ratings%1$d AS INTEGER[]))")
+                .formatted(i));
+        params
+            .addValue("collection" + i, key.get(0))
+            .addValue("content" + i, key.get(1))
+            .addValue("selects" + i, counters[0])
+            .addValue(
+                "ratings" + i,
+                Arrays.stream(counters, 1, counters.length)
+                    .mapToObj(String::valueOf)
+                    .collect(Collectors.joining(",", "{", "}")));
+      }
+      String sql =
+          """
+          INSERT INTO proofing_summary (collection_id, content_id, select_count, rating_counts)
+          SELECT v.collection_id, v.content_id, v.selects, v.ratings
+            FROM (VALUES %s) v(collection_id, content_id, selects, ratings)
+           WHERE EXISTS (SELECT 1 FROM collection c WHERE c.id = v.collection_id)
+          ON CONFLICT (collection_id, content_id)
+          DO UPDATE SET select_count = proofing_summary.select_count + EXCLUDED.select_count,
+                        rating_counts = ARRAY(
+                          SELECT a + b
+                            FROM unnest(proofing_summary.rating_counts, EXCLUDED.rating_counts)
+                                 WITH ORDINALITY AS h(a, b, i)
+                           ORDER BY i)
+          """
+              .formatted(String.join(",\n       ", values));
+      update(sql, params);
+    }
+  }
+
+  /** Totals for one collection, summed over its image rows (zeros when nobody has proofed it). */
+  @Transactional(readOnly = true)
+  public CollectionProofing findCollectionTotals(Long collectionId) {
+    String sql =
+        """
+        SELECT COALESCE(sum(select_count), 0) AS selects,
+               count(*) FILTER (WHERE select_count > 0) AS images_selected,
+               COALESCE(sum(rating_counts[1]), 0) AS r0, COALESCE(sum(rating_counts[2]), 0) AS r1,
+               COALESCE(sum(rating_counts[3]), 0) AS r2, COALESCE(sum(rating_counts[4]), 0) AS r3,
+               COALESCE(sum(rating_counts[5]), 0) AS r4, COALESCE(sum(rating_counts[6]), 0) AS r5
+          FROM proofing_summary
+         WHERE collection_id = :collectionId
+        """;
+    return queryForObject(
+            sql,
+            (rs, n) -> {
+              List<Long> histogram = new ArrayList<>(RATING_BUCKETS);
+              for (int r = 0; r < RATING_BUCKETS; r++) {
+                histogram.add(rs.getLong("r" + r));
+              }
+              return new CollectionProofing(
+                  rs.getLong("selects"), rs.getLong("images_selected"), List.copyOf(histogram));
+            },
+            createParameterSource().addValue("collectionId", collectionId))
+        .orElseThrow();
+  }
+
+  /**
+   * The collection's proofed images, most-selected first.
+   *
+   * @param limit Maximum images to return
+   */
+  @Transactional(readOnly = true)
+  public List<ImageProofing> findImages(Long collectionId, int limit) {
+    String sql =
+        """
+        SELECT content_id, select_count, rating_counts
+          FROM proofing_summary
+         WHERE collection_id = :collectionId
+           AND (select_count <> 0 OR rating_counts <> '{0,0,0,0,0,0}')
+         ORDER BY select_count DESC, content_id ASC
+         LIMIT :limit
+        """;
+    MapSqlParameterSource params =
+        createParameterSource().addValue("collectionId", collectionId).addValue("limit", limit);
+    return query(
+        sql,
+        (rs, n) -> {
+          List<Integer> counts = new ArrayList<>(RATING_BUCKETS);
+          for (Object count : (Object[]) rs.getArray("rating_counts").getArray()) {
+            counts.add(((Number) count).intValue());
+          }
+          return new ImageProofing(
+              rs.getLong("content_id"), rs.getInt("select_count"), List.copyOf(counts));
+        },
+        params);
+  }
+
+  /**
+   * Throw the counters away and re-derive them from every select and override.
+   *
+   * @return Rows in the rebuilt table
+   */
+  @Transactional
+  public int rebuild() {
+    update("DELETE FROM proofing_summary", createParameterSource());
+    int rows =
+        update(
+            "INSERT INTO proofing_summary (collection_id, content_id, select_count, rating_counts) "
+                + DERIVED,
+            createParameterSource());
+    log.info("Rebuilt proofing_summary: {} rows", rows);
+    return rows;
+  }
+
+  /**
+   * Rows whose counters disagree with the selects and overrides they summarize. An all-zero row
+   * matches an image nobody has proofed.
+   */
+  @Transactional(readOnly = true)
+  public int countDrift() {
+    String sql =
+        "WITH derived AS ("
+            + DERIVED
+            + """
+            )
+            SELECT count(*)
+              FROM proofing_summary s
+              FULL OUTER JOIN derived d
+                ON d.collection_id = s.collection_id AND d.content_id = s.content_id
+             WHERE (d.collection_id IS NULL
+                    AND (s.select_count <> 0 OR s.rating_counts <> '{0,0,0,0,0,0}'))
+                OR (s.collection_id IS NULL AND d.collection_id IS NOT NULL)
+                OR s.select_count <> d.select_count
+                OR s.rating_counts <> d.rating_counts
+            """;
+    return queryForObject(sql, (rs, n) -> rs.getInt(1), createParameterSource()).orElse(0);
+  }
+}
@@ -1,7 +1,11 @@
 package edens.zac.portfolio.backend.dao;
 
+import java.sql.Array;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -12,14 +16,48 @@ import org.springframework.transaction.annotation.Transactional;
 /**
  * Persists private, admin-only aggregate API request counts. Stores exactly one row per {@code
  * (day, route, slug)}: no PII (no ip, user id, user-agent, or per-request rows) ever touches this
- * table. See {@code V44__create_request_metric.sql}.
+ * table. See {@code V44__create_request_metric.sql}; V57 adds per-row latency totals and a
+ * fixed-bucket histogram.
  */
 @Component
 @Slf4j
 public class RequestMetricRepository extends BaseDao {
 
-  /** A single aggregated request-count row. {@code slug} is {@code null} for slug-less routes. */
-  public record RequestMetricRow(LocalDate day, String route, String slug, long count) {}
+  /**
+   * Upper bounds (inclusive, ms) of the {@code latency_hist} buckets, in order; one overflow bucket
+   * follows the last bound. Changing this list re-labels existing rows, so only ever append.
+   */
+  public static final List<Long> LATENCY_BUCKET_BOUNDS_MS =
+      List.of(5L, 10L, 25L, 50L, 100L, 250L, 500L, 1000L, 2500L, 5000L);
+
+  /** Rows per multi-row upsert statement; keeps the bind-parameter count well under the limit. */
+  static final int UPSERT_CHUNK_SIZE = 500;
+
+  /**
+   * A single aggregated request-count row. {@code slug} is {@code null} for slug-less routes.
+   * {@code latencyHistogram} is empty for rows counted before V57.
+   */
+  public record RequestMetricRow(
+      LocalDate day,
+      String route,
+      String slug,
+      long count,
+      long totalMs,
+      long maxMs,
+      List<Long> latencyHistogram) {}
+
+  /**
+   * Counts and latencies accumulated in memory for one {@code (day, route, slug)} since the last
+   * flush. {@code latencyHistogram} follows {@link #LATENCY_BUCKET_BOUNDS_MS} plus overflow.
+   */
+  public record RequestMetricDelta(
+      LocalDate day,
+      String route,
+      String slug,
+      long count,
+      long totalMs,
+      long maxMs,
+      List<Long> latencyHistogram) {}
 
   private static final RowMapper<RequestMetricRow> ROW_MAPPER =
       (rs, rowNum) ->
@@ -27,37 +65,69 @@ public class RequestMetricRepository extends BaseDao {
               getLocalDate(rs, "day"),
               rs.getString("route"),
               rs.getString("slug"),
-              rs.getLong("count"));
+              rs.getLong("count"),
+              rs.getLong("total_ms"),
+              rs.getLong("max_ms"),
+              histogram(rs.getArray("latency_hist")));
 
   public RequestMetricRepository(JdbcTemplate jdbcTemplate) {
     super(jdbcTemplate);
   }
 
   /**
-   * Increment the count for a single {@code (day, route, slug)}, inserting the row at count 1 if it
-   * does not yet exist. The {@code ON CONFLICT} target {@code (day, route, (COALESCE(slug, '')))}
-   * matches the unique index in V44 exactly, so a NULL {@code slug} increments the one canonical
-   * NULL-slug row for that {@code (day, route)} rather than inserting a duplicate.
+   * Add a batch of in-memory deltas with one multi-row upsert per {@value #UPSERT_CHUNK_SIZE}
+   * deltas. Counts and totals add, the max keeps the larger value and histograms add bucket-wise
+   * (an empty pre-V57 histogram is padded with zeros). The {@code ON CONFLICT} target {@code (day,
+   * route, (COALESCE(slug, '')))} matches the unique index in V44 exactly, so a NULL {@code slug}
+   * adds to the one canonical NULL-slug row for that {@code (day, route)} rather than inserting a
+   * duplicate. The deltas must be distinct per {@code (day, route, slug)} -- Postgres rejects a
+   * statement that upserts the same row twice.
    *
-   * @param day the UTC-local calendar day of the request
-   * @param route the bounded Spring handler pattern (e.g. {@code /api/read/collections/{slug}})
-   * @param slug the resolved path variable, or {@code null} for routes without one
+   * @param deltas Aggregated deltas, one per key
    */
   @Transactional
-  public void increment(LocalDate day, String route, String slug) {
-    String sql =
-        """
-        INSERT INTO request_metric (day, route, slug, count)
-        VALUES (:day, :route, :slug, 1)
-        ON CONFLICT (day, route, (COALESCE(slug, '')))
-        DO UPDATE SET count = request_metric.count + 1
-        """;
-    MapSqlParameterSource params =
-        createParameterSource()
-            .addValue("day", day)
-            .addValue("route", route)
-            .addValue("slug", slug);
-    update(sql, params);
+  public void upsertBatch(List<RequestMetricDelta> deltas) {
+    for (int from = 0; from < deltas.size(); from += UPSERT_CHUNK_SIZE) {
+      List<RequestMetricDelta> chunk =
+          deltas.subList(from, Math.min(from + UPSERT_CHUNK_SIZE, deltas.size()));
+      MapSqlParameterSource params = createParameterSource();
+      List<String> values = new ArrayList<>(chunk.size());
+      for (int i = 0; i < chunk.size(); i++) {
+        RequestMetricDelta d = chunk.get(i);
+        values.add(
+            ("(:day%1$d, :route%1$d, :slug%1$d, :count%1$d, :totalMs%1$d, :maxMs%1$d,"
+                    + " CAST(:hist%1$d AS BIGINT[]))")
+                .formatted(i));
+        params
+            .addValue("day" + i, d.day())
+            .addValue("route" + i, d.route())
+            .addValue("slug" + i, d.slug())
+            .addValue("count" + i, d.count())
+            .addValue("totalMs" + i, d.totalMs())
+            .addValue("maxMs" + i, d.maxMs())
+            .addValue(
+                "hist" + i,
+                d.latencyHistogram().stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(",", "{", "}")));
+      }
+      String sql =
+          """
+          INSERT INTO request_metric (day, route, slug, count, total_ms, max_ms, latency_hist)
+          VALUES %s
+          ON CONFLICT (day, route, (COALESCE(slug, '')))
+          DO UPDATE SET count = request_metric.count + EXCLUDED.count,
+                        total_ms = request_metric.total_ms + EXCLUDED.total_ms,
+                        max_ms = GREATEST(request_metric.max_ms, EXCLUDED.max_ms),
+                        latency_hist = ARRAY(
+                          SELECT COALESCE(a, 0) + COALESCE(b, 0)
+                            FROM unnest(request_metric.latency_hist, EXCLUDED.latency_hist)
+                                 WITH ORDINALITY AS h(a, b, i)
+                           ORDER BY i)
+          """
+              .formatted(String.join(",\n       ", values));
+      update(sql, params);
+    }
   }
 
   /**
@@ -68,7 +138,7 @@ public class RequestMetricRepository extends BaseDao {
   public List<RequestMetricRow> findByDayRange(LocalDate from, LocalDate to) {
     String sql =
         """
-        SELECT day, route, slug, count
+        SELECT day, route, slug, count, total_ms, max_ms, latency_hist
         FROM request_metric
         WHERE day BETWEEN :from AND :to
         ORDER BY day DESC, count DESC, route ASC
@@ -77,4 +147,15 @@ public class RequestMetricRepository extends BaseDao {
         createParameterSource().addValue("from", from).addValue("to", to);
     return query(sql, ROW_MAPPER, params);
   }
+
+  private static List<Long> histogram(Array array) throws SQLException {
+    if (array == null) {
+      return List.of();
+    }
+    List<Long> buckets = new ArrayList<>();
+    for (Object bucket : (Object[]) array.getArray()) {
+      buckets.add(bucket == null ? 0L : ((Number) bucket).longValue());
+    }
+    return List.copyOf(buckets);
+  }
 }
@@ -4,22 +4,40 @@ import edens.zac.portfolio.backend.entity.RoleEntity;
 import edens.zac.portfolio.backend.types.AccessLevel;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Role-based access data access. Roles hold per-collection grants; users join roles to inherit
  * them. Resolution unions across a user's roles with CLIENT beating GENERAL.
+ *
+ * <p>Every write goes through {@link #aclUpdate} (or {@link #aclGrantUpdate}), which bumps the
+ * {@code acl_version} row (V56) in the same transaction and, once it commits, the in-process {@link
+ * #localAclCommits} counter. The in-memory authorization snapshot uses the counter to see this
+ * instance's writes immediately and polls the version to see other instances'.
+ *
+ * <p>Grant writes also mark the collections they touched (and a deleted role) on {@link
+ * ImageAudienceRepository}, so the per-image {@code image_audience} projection follows them.
  */
 @Component
 @Slf4j
 public class RoleRepository extends BaseDao {
 
-  public RoleRepository(JdbcTemplate jdbcTemplate) {
+  private final AtomicLong localAclCommits = new AtomicLong();
+  private final ImageAudienceRepository imageAudienceRepository;
+
+  public RoleRepository(
+      JdbcTemplate jdbcTemplate, ImageAudienceRepository imageAudienceRepository) {
     super(jdbcTemplate);
+    this.imageAudienceRepository = imageAudienceRepository;
   }
 
   private static final RowMapper<RoleEntity> ROLE_ROW_MAPPER =
@@ -31,6 +49,9 @@ public class RoleRepository extends BaseDao {
               .createdBy(getLong(rs, "created_by"))
               .build();
 
+  /** One (user, collection) pair reachable through any role; {@code client} if any is CLIENT. */
+  public record AclRow(long userId, long collectionId, boolean client) {}
+
   /** A collection this user can reach through a role, at its highest level. */
   public record EffectiveGrant(Long collectionId, AccessLevel level) {}
 
@@ -85,6 +106,29 @@ public class RoleRepository extends BaseDao {
         createParameterSource().addValue("name", name).addValue("createdBy", createdBy));
   }
 
+  /**
+   * The id of the role named {@code name}, creating it (SHARED, like {@link #createRole}) if it
+   * does not exist yet.
+   */
+  @Transactional
+  public Long findOrCreateRole(String name, Long createdBy) {
+    return queryForObject(
+            """
+            WITH created AS (
+              INSERT INTO role (name, kind, created_by) VALUES (:name, 'SHARED', :createdBy)
+              ON CONFLICT (name) DO NOTHING
+              RETURNING id
+            )
+            SELECT id FROM created
+            UNION ALL
+            SELECT id FROM role WHERE name = :name
+            LIMIT 1
+            """,
+            (rs, n) -> rs.getLong("id"),
+            createParameterSource().addValue("name", name).addValue("createdBy", createdBy))
+        .orElseThrow(() -> new IllegalStateException("Role vanished while creating: " + name));
+  }
+
   @Transactional(readOnly = true)
   public List<RoleEntity> findAll() {
     return query("SELECT * FROM role ORDER BY name ASC", ROLE_ROW_MAPPER);
@@ -100,15 +144,20 @@ public class RoleRepository extends BaseDao {
 
   @Transactional
   public int deleteRole(Long roleId) {
-    return update(
-        "DELETE FROM role WHERE id = :id", createParameterSource().addValue("id", roleId));
+    int rows =
+        aclUpdate(
+            "DELETE FROM role WHERE id = :id", createParameterSource().addValue("id", roleId));
+    if (rows > 0) {
+      imageAudienceRepository.markRole(roleId);
+    }
+    return rows;
   }
 
   // ---- Membership ----
 
   @Transactional
   public void addMember(Long roleId, Long userId, Long addedBy) {
-    update(
+    aclUpdate(
         """
         INSERT INTO role_member (role_id, user_id, added_by)
         VALUES (:roleId, :userId, :addedBy)
@@ -122,7 +171,7 @@ public class RoleRepository extends BaseDao {
 
   @Transactional
   public void removeMember(Long roleId, Long userId) {
-    update(
+    aclUpdate(
         "DELETE FROM role_member WHERE role_id = :roleId AND user_id = :userId",
         createParameterSource().addValue("roleId", roleId).addValue("userId", userId));
   }
@@ -167,7 +216,7 @@ public class RoleRepository extends BaseDao {
   @Transactional
   public void setCollectionGrant(
       Long roleId, Long collectionId, AccessLevel level, Long grantedBy) {
-    update(
+    aclGrantUpdate(
         """
         INSERT INTO role_collection (role_id, collection_id, level, granted_by)
         VALUES (:roleId, :collectionId, :level, :grantedBy)
@@ -176,6 +225,7 @@ public class RoleRepository extends BaseDao {
                         granted_by = EXCLUDED.granted_by,
                         granted_at = EXCLUDED.granted_at,
                         inherited_from_collection_id = NULL
+        RETURNING collection_id
         """,
         createParameterSource()
             .addValue("roleId", roleId)
@@ -186,8 +236,11 @@ public class RoleRepository extends BaseDao {
 
   @Transactional
   public void removeCollectionGrant(Long roleId, Long collectionId) {
-    update(
-        "DELETE FROM role_collection WHERE role_id = :roleId AND collection_id = :collectionId",
+    aclGrantUpdate(
+        """
+        DELETE FROM role_collection WHERE role_id = :roleId AND collection_id = :collectionId
+        RETURNING collection_id
+        """,
         createParameterSource().addValue("roleId", roleId).addValue("collectionId", collectionId));
   }
 
@@ -248,7 +301,7 @@ public class RoleRepository extends BaseDao {
   @Transactional
   public void insertInheritedGrant(
       Long roleId, Long collectionId, AccessLevel level, Long originCollectionId) {
-    update(
+    aclGrantUpdate(
         """
         INSERT INTO role_collection (role_id, collection_id, level, inherited_from_collection_id)
         VALUES (:roleId, :collectionId, :level, :originId)
@@ -258,6 +311,7 @@ public class RoleRepository extends BaseDao {
          WHERE role_collection.inherited_from_collection_id IS NOT NULL
            AND role_collection.level = 'GENERAL'
            AND EXCLUDED.level = 'CLIENT'
+        RETURNING collection_id
         """,
         createParameterSource()
             .addValue("roleId", roleId)
@@ -266,13 +320,78 @@ public class RoleRepository extends BaseDao {
             .addValue("originId", originCollectionId));
   }
 
+  /**
+   * Set-based waterfall: upsert an inherited copy of the origin's grant on every collection
+   * reachable from {@code rootId} through VISIBLE links, in one statement. The subtree is read from
+   * {@code collection_closure} (V55) rows with {@code visible_path}, which the link hooks keep in
+   * step before propagation runs. The root and the origin themselves are never written (the caller
+   * owns the root's row, and an origin holds its direct grant). Conflict handling is exactly {@link
+   * #insertInheritedGrant}'s: direct rows are untouched and inherited rows only ever move GENERAL
+   * -&gt; CLIENT.
+   *
+   * @return Rows inserted or upgraded
+   */
+  @Transactional
+  public int propagateInheritedGrant(
+      Long roleId, AccessLevel level, Long originCollectionId, Long rootId) {
+    return aclGrantUpdate(
+        """
+        INSERT INTO role_collection (role_id, collection_id, level, inherited_from_collection_id)
+        SELECT :roleId, cl.descendant_id, :level, :originId
+          FROM collection_closure cl
+         WHERE cl.ancestor_id = :rootId
+           AND cl.visible_path
+           AND cl.descendant_id <> :originId
+        ON CONFLICT (role_id, collection_id) DO UPDATE
+           SET level = EXCLUDED.level,
+               inherited_from_collection_id = EXCLUDED.inherited_from_collection_id
+         WHERE role_collection.inherited_from_collection_id IS NOT NULL
+           AND role_collection.level = 'GENERAL'
+           AND EXCLUDED.level = 'CLIENT'
+        RETURNING collection_id
+        """,
+        createParameterSource()
+            .addValue("roleId", roleId)
+            .addValue("level", level.name())
+            .addValue("originId", originCollectionId)
+            .addValue("rootId", rootId));
+  }
+
+  /**
+   * Set-based unlink revoke: delete, across the child's whole subtree, every inherited row (any
+   * role) whose origin is the parent or one of its ancestors. Both sides are {@code
+   * collection_closure} lookups that ignore {@code visible_path}, so copies under since-hidden
+   * links are stripped too. Removing the link cannot change the child's descendants or the parent's
+   * ancestors, so it does not matter whether the closure hook has run yet.
+   *
+   * @return Rows deleted
+   */
+  @Transactional
+  public int removeInheritedGrantsBelowLink(Long parentId, Long childId) {
+    return aclGrantUpdate(
+        """
+        DELETE FROM role_collection rc
+         WHERE rc.collection_id IN (
+                 SELECT CAST(:childId AS BIGINT)
+                 UNION ALL
+                 SELECT descendant_id FROM collection_closure WHERE ancestor_id = :childId)
+           AND rc.inherited_from_collection_id IN (
+                 SELECT CAST(:parentId AS BIGINT)
+                 UNION ALL
+                 SELECT ancestor_id FROM collection_closure WHERE descendant_id = :parentId)
+        RETURNING rc.collection_id
+        """,
+        createParameterSource().addValue("parentId", parentId).addValue("childId", childId));
+  }
+
   /** Delete every inherited copy of the role's direct grant on the origin, tree-wide. */
   @Transactional
   public void removeInheritedGrantsByOrigin(Long roleId, Long originCollectionId) {
-    update(
+    aclGrantUpdate(
         """
         DELETE FROM role_collection
          WHERE role_id = :roleId AND inherited_from_collection_id = :originId
+        RETURNING collection_id
         """,
         createParameterSource()
             .addValue("roleId", roleId)
@@ -283,11 +402,12 @@ public class RoleRepository extends BaseDao {
   @Transactional
   public void removeInheritedGrantsForCollectionByOrigin(
       Long roleId, Long collectionId, Long originCollectionId) {
-    update(
+    aclGrantUpdate(
         """
         DELETE FROM role_collection
          WHERE role_id = :roleId AND collection_id = :collectionId
            AND inherited_from_collection_id = :originId
+        RETURNING collection_id
         """,
         createParameterSource()
             .addValue("roleId", roleId)
@@ -395,10 +515,94 @@ public class RoleRepository extends BaseDao {
   @Transactional
   public void repointMemberships(Long sourceId, Long targetId) {
     var p = createParameterSource().addValue("src", sourceId).addValue("tgt", targetId);
-    update(
+    aclUpdate(
         "DELETE FROM role_member WHERE user_id = :src "
             + "AND role_id IN (SELECT role_id FROM role_member WHERE user_id = :tgt)",
         p);
-    update("UPDATE role_member SET user_id = :tgt WHERE user_id = :src", p);
+    aclUpdate("UPDATE role_member SET user_id = :tgt WHERE user_id = :src", p);
+  }
+
+  // ---- ACL versioning (feeds the in-memory authorization snapshot) ----
+
+  /**
+   * Run a write against the role tables and, when it changed anything, bump {@code acl_version} in
+   * the same transaction and the local commit counter after it commits.
+   */
+  private int aclUpdate(String sql, MapSqlParameterSource params) {
+    int rows = update(sql, params);
+    if (rows > 0) {
+      bumpAclVersion(params);
+    }
+    return rows;
+  }
+
+  /**
+   * {@link #aclUpdate} for a {@code role_collection} write ending in {@code RETURNING
+   * collection_id}: the collections it touched are also marked for the image-audience refresh.
+   *
+   * @return Rows written
+   */
+  private int aclGrantUpdate(String sql, MapSqlParameterSource params) {
+    List<Long> collectionIds = namedParameterJdbcTemplate.queryForList(sql, params, Long.class);
+    if (!collectionIds.isEmpty()) {
+      bumpAclVersion(params);
+      imageAudienceRepository.markCollections(collectionIds);
+    }
+    return collectionIds.size();
+  }
+
+  private void bumpAclVersion(MapSqlParameterSource params) {
+    update("UPDATE acl_version SET version = version + 1 WHERE id = 1", params);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              localAclCommits.incrementAndGet();
+            }
+          });
+    } else {
+      localAclCommits.incrementAndGet();
+    }
+  }
+
+  /** Committed ACL writes made by this instance; a change means the snapshot is stale. */
+  public long localAclCommits() {
+    return localAclCommits.get();
+  }
+
+  /** The shared ACL version, bumped by every instance's role writes. */
+  @Transactional(readOnly = true)
+  public long aclVersion() {
+    return queryForObject(
+            "SELECT version FROM acl_version WHERE id = 1",
+            (rs, n) -> rs.getLong(1),
+            createParameterSource())
+        .orElse(0L);
+  }
+
+  /** A consistent copy of every reachable pair together with the version it reflects. */
+  public record AclState(long version, List<AclRow> rows) {}
+
+  /**
+   * Load the whole resolved ACL: every (user, collection) pair reachable through a role, with the
+   * version read in the same snapshot so the pair cannot straddle a concurrent write.
+   */
+  @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+  public AclState loadAclState() {
+    long version = aclVersion();
+    List<AclRow> rows =
+        query(
+            """
+            SELECT rm.user_id, rc.collection_id, bool_or(rc.level = 'CLIENT') AS client
+              FROM role_member rm
+              JOIN role_collection rc ON rc.role_id = rm.role_id
+             GROUP BY rm.user_id, rc.collection_id
+            """,
+            (rs, n) ->
+                new AclRow(
+                    rs.getLong("user_id"), rs.getLong("collection_id"), rs.getBoolean("client")),
+            createParameterSource());
+    return new AclState(version, rows);
   }
 }
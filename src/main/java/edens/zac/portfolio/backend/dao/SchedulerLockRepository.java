@@ -0,0 +1,44 @@
+package edens.zac.portfolio.backend.dao;
+
+import java.time.Duration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JDBC access to {@code scheduler_lock} (V62). Leases are judged by the database clock, so
+ * instances with drifting clocks still agree on who holds one.
+ */
+@Component
+public class SchedulerLockRepository extends BaseDao {
+
+  public SchedulerLockRepository(JdbcTemplate jdbcTemplate) {
+    super(jdbcTemplate);
+  }
+
+  /**
+   * Take the lease on {@code name} for {@code leaseFor} if nobody holds it. One statement, so two
+   * instances racing for the same lease cannot both win.
+   *
+   * @return true if {@code owner} now holds the lease
+   */
+  @Transactional
+  public boolean tryAcquire(String name, Duration leaseFor, String owner) {
+    String sql =
+        """
+        INSERT INTO scheduler_lock (name, locked_until, locked_at, locked_by)
+        VALUES (:name, now() + make_interval(secs => :leaseSeconds), now(), :owner)
+        ON CONFLICT (name) DO UPDATE
+           SET locked_until = EXCLUDED.locked_until, locked_at = EXCLUDED.locked_at,
+               locked_by = EXCLUDED.locked_by
+         WHERE scheduler_lock.locked_until <= now()
+        """;
+    return update(
+            sql,
+            createParameterSource()
+                .addValue("name", name)
+                .addValue("leaseSeconds", leaseFor.toMillis() / 1000.0)
+                .addValue("owner", owner))
+        == 1;
+  }
+}
@@ -0,0 +1,70 @@
+package edens.zac.portfolio.backend.dao;
+
+import java.time.Duration;
+import java.util.Optional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JDBC access to the cluster-shared state tables (V61): {@code webauthn_challenge} and the sweep
+ * side of {@code rate_limit_bucket}, whose reads and writes belong to bucket4j's proxy manager.
+ * Only the {@code postgres} shared-state backend calls into this repository.
+ */
+@Component
+public class SharedStateRepository extends BaseDao {
+
+  public SharedStateRepository(JdbcTemplate jdbcTemplate) {
+    super(jdbcTemplate);
+  }
+
+  /** Store (or replace) a ceremony's options, live for {@code ttl}. */
+  @Transactional
+  public void putChallenge(String key, String options, Duration ttl) {
+    String sql =
+        """
+        INSERT INTO webauthn_challenge (challenge_key, options, expires_at)
+        VALUES (:key, :options, now() + make_interval(secs => :ttlSeconds))
+        ON CONFLICT (challenge_key)
+        DO UPDATE SET options = EXCLUDED.options, expires_at = EXCLUDED.expires_at
+        """;
+    update(
+        sql,
+        createParameterSource()
+            .addValue("key", key)
+            .addValue("options", options)
+            .addValue("ttlSeconds", ttl.toMillis() / 1000.0));
+  }
+
+  /**
+   * Delete a ceremony's options and return them if they had not expired. The delete makes the take
+   * single-use even when two instances race for the same key.
+   */
+  @Transactional
+  public Optional<String> takeChallenge(String key) {
+    String sql =
+        """
+        DELETE FROM webauthn_challenge WHERE challenge_key = :key
+        RETURNING options, expires_at > now() AS live
+        """;
+    return queryForObject(
+        sql,
+        (rs, n) -> rs.getBoolean("live") ? rs.getString("options") : null,
+        createParameterSource().addValue("key", key));
+  }
+
+  /** Delete expired, never-taken challenges. Returns rows deleted. */
+  @Transactional
+  public int deleteExpiredChallenges() {
+    return update(
+        "DELETE FROM webauthn_challenge WHERE expires_at <= now()", createParameterSource());
+  }
+
+  /** Delete rate-limit buckets untouched for longer than {@code idle}. Returns rows deleted. */
+  @Transactional
+  public int deleteIdleBuckets(Duration idle) {
+    return update(
+        "DELETE FROM rate_limit_bucket WHERE touched_at < now() - make_interval(secs => :idle)",
+        createParameterSource().addValue("idle", (double) idle.toSeconds()));
+  }
+}
@@ -26,8 +26,16 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class TagRepository extends BaseDao {
 
-  public TagRepository(JdbcTemplate jdbcTemplate) {
+  private final ImageAudienceRepository imageAudienceRepository;
+  private final LocationStatsRepository locationStatsRepository;
+
+  public TagRepository(
+      JdbcTemplate jdbcTemplate,
+      ImageAudienceRepository imageAudienceRepository,
+      LocationStatsRepository locationStatsRepository) {
     super(jdbcTemplate);
+    this.imageAudienceRepository = imageAudienceRepository;
+    this.locationStatsRepository = locationStatsRepository;
   }
 
   private static final RowMapper<TagEntity> TAG_ROW_MAPPER =
@@ -335,6 +343,123 @@ public class TagRepository extends BaseDao {
     return query(sql, (rs, rowNum) -> rs.getLong("id"), params);
   }
 
+  /**
+   * Tagged IMAGE content a snapshot into {@code targetCollectionId} would copy: the {@link
+   * #findImageContentByTagId} set, minus memberships of the target itself. Also the row source of
+   * {@link #snapshotTaggedImages}, ranked capture date first (newest first, undated last) with
+   * {@code created_at} and id as tie-breakers, so the snapshot order is stable.
+   */
+  private static final String RANKED_TAGGED_IMAGES =
+      """
+      SELECT t.id,
+             row_number() OVER (
+               ORDER BY t.capture_date DESC NULLS LAST, t.created_at DESC NULLS LAST, t.id DESC
+             ) AS rn
+      FROM (
+        SELECT DISTINCT c.id, ci.capture_date, c.created_at
+        FROM content c
+        LEFT JOIN content_image ci ON ci.id = c.id
+        JOIN content_tags ctg ON ctg.content_id = c.id
+        JOIN collection_content cc ON cc.content_id = c.id
+        JOIN collection col ON col.id = cc.collection_id
+        WHERE ctg.tag_id = :tagId
+          AND c.content_type = 'IMAGE'
+          AND cc.visible = true
+          AND col.visibility IN (:visibilities)
+          AND cc.collection_id <> :collectionId
+      ) t
+      """;
+
+  /**
+   * Ids of the images {@link #snapshotTaggedImages} would copy into {@code targetCollectionId}, in
+   * snapshot order. Ranks the set once, so a caller copying it in chunks ({@link
+   * #insertSnapshotImages}) does not re-rank the whole set per chunk.
+   */
+  @Transactional(readOnly = true)
+  public List<Long> findTaggedImageIdsForSnapshot(
+      Long tagId, Long targetCollectionId, List<CollectionVisibility> allowed) {
+    if (tagId == null || allowed == null || allowed.isEmpty()) {
+      return List.of();
+    }
+    String sql = "SELECT id FROM (" + RANKED_TAGGED_IMAGES + ") ranked ORDER BY rn";
+    return query(
+        sql,
+        (rs, rowNum) -> rs.getLong("id"),
+        taggedImageParams(tagId, targetCollectionId, allowed));
+  }
+
+  /**
+   * Copy every tagged image into {@code targetCollectionId} as visible rows, in one {@code INSERT
+   * ... SELECT}. Rank {@code r} lands at {@code order_index = firstOrderIndex + r - 1}.
+   *
+   * @return Rows inserted
+   */
+  @Transactional
+  public int snapshotTaggedImages(
+      Long tagId,
+      Long targetCollectionId,
+      List<CollectionVisibility> allowed,
+      int firstOrderIndex) {
+    if (tagId == null || allowed == null || allowed.isEmpty()) {
+      return 0;
+    }
+    String sql =
+        """
+        INSERT INTO collection_content
+            (collection_id, content_id, order_index, visible, created_at, updated_at)
+        SELECT :collectionId, ranked.id, :firstOrderIndex + ranked.rn - 1, true, :now, :now
+        FROM (%s) ranked
+        """
+            .formatted(RANKED_TAGGED_IMAGES);
+    MapSqlParameterSource params =
+        taggedImageParams(tagId, targetCollectionId, allowed)
+            .addValue("firstOrderIndex", firstOrderIndex)
+            .addValue("now", LocalDateTime.now());
+    int rows = update(sql, params);
+    imageAudienceRepository.markCollections(List.of(targetCollectionId));
+    locationStatsRepository.markCollections(List.of(targetCollectionId));
+    return rows;
+  }
+
+  /**
+   * Copy one chunk of {@link #findTaggedImageIdsForSnapshot} into {@code targetCollectionId} as
+   * visible rows: {@code contentIds[i]} lands at {@code order_index = firstOrderIndex + i}.
+   *
+   * @return Rows inserted
+   */
+  @Transactional
+  public int insertSnapshotImages(
+      Long targetCollectionId, List<Long> contentIds, int firstOrderIndex) {
+    if (contentIds == null || contentIds.isEmpty()) {
+      return 0;
+    }
+    String sql =
+        """
+        INSERT INTO collection_content
+            (collection_id, content_id, order_index, visible, created_at, updated_at)
+        SELECT :collectionId, chunk.id, :firstOrderIndex + chunk.pos - 1, true, :now, :now
+        FROM unnest(CAST(ARRAY[:contentIds] AS BIGINT[])) WITH ORDINALITY AS chunk(id, pos)
+        """;
+    MapSqlParameterSource params =
+        createParameterSource()
+            .addValue("collectionId", targetCollectionId)
+            .addValue("contentIds", contentIds)
+            .addValue("firstOrderIndex", firstOrderIndex)
+            .addValue("now", LocalDateTime.now());
+    int rows = update(sql, params);
+    imageAudienceRepository.markCollections(List.of(targetCollectionId));
+    locationStatsRepository.markCollections(List.of(targetCollectionId));
+    return rows;
+  }
+
+  private MapSqlParameterSource taggedImageParams(
+      Long tagId, Long targetCollectionId, List<CollectionVisibility> allowed) {
+    return createParameterSource()
+        .addValue("tagId", tagId)
+        .addValue("collectionId", targetCollectionId)
+        .addValue("visibilities", allowed.stream().map(CollectionVisibility::name).toList());
+  }
+
   @Transactional
   public void deleteCollectionTags(Long collectionId) {
     String sql = "DELETE FROM collection_tags WHERE collection_id = :collectionId";
@@ -385,6 +510,33 @@ public class TagRepository extends BaseDao {
     }
   }
 
+  /**
+   * Add tag links for many content items in one JDBC batch. Additive and idempotent: existing links
+   * are kept, so this is the set-based equivalent of merging with {@link #findTagIdsByContentIds}
+   * and calling {@link #saveContentTags} per item.
+   */
+  @Transactional
+  public void addContentTagsBatch(Map<Long, List<Long>> tagIdsByContentId) {
+    String insertSql =
+        "INSERT INTO content_tags (content_id, tag_id) VALUES (:contentId, :tagId) ON CONFLICT DO NOTHING";
+    MapSqlParameterSource[] batchParams =
+        tagIdsByContentId.entrySet().stream()
+            .flatMap(
+                entry ->
+                    entry.getValue().stream()
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .map(
+                            tagId ->
+                                createParameterSource()
+                                    .addValue("contentId", entry.getKey())
+                                    .addValue("tagId", tagId)))
+            .toArray(MapSqlParameterSource[]::new);
+    if (batchParams.length > 0) {
+      batchUpdate(insertSql, batchParams);
+    }
+  }
+
   @Transactional(readOnly = true)
   public Map<Long, List<Long>> findTagIdsByContentIds(List<Long> contentIds) {
     if (contentIds == null || contentIds.isEmpty()) {
@@ -0,0 +1,151 @@
+package edens.zac.portfolio.backend.dao;
+
+import edens.zac.portfolio.backend.entity.UploadJobEntity;
+import java.sql.Array;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JDBC access to {@code upload_job} (V62). Only the owning instance writes a live job's progress;
+ * every write is conditional on the row still being live and owned, so a job the reaper has failed
+ * stays failed even if its instance comes back.
+ */
+@Component
+public class UploadJobRepository extends BaseDao {
+
+  private static final String COLUMNS =
+      """
+      id, owner_node, status, total_files, processed, created, updated, skipped, errors,
+      started_at, heartbeat_at, finished_at
+      """;
+
+  private static final RowMapper<UploadJobEntity> UPLOAD_JOB_ROW_MAPPER =
+      (rs, rowNum) ->
+          UploadJobEntity.builder()
+              .id(rs.getObject("id", UUID.class))
+              .ownerNode(rs.getString("owner_node"))
+              .status(rs.getString("status"))
+              .totalFiles(rs.getInt("total_files"))
+              .processed(rs.getInt("processed"))
+              .created(rs.getInt("created"))
+              .updated(rs.getInt("updated"))
+              .skipped(rs.getInt("skipped"))
+              .errors(stringList(rs.getArray("errors")))
+              .startedAt(getLocalDateTime(rs, "started_at"))
+              .heartbeatAt(getLocalDateTime(rs, "heartbeat_at"))
+              .finishedAt(getLocalDateTime(rs, "finished_at"))
+              .build();
+
+  public UploadJobRepository(JdbcTemplate jdbcTemplate) {
+    super(jdbcTemplate);
+  }
+
+  /** Register a new PENDING job run by {@code ownerNode}. */
+  @Transactional
+  public void insert(UUID id, String ownerNode, int totalFiles) {
+    String sql =
+        """
+        INSERT INTO upload_job (id, owner_node, total_files)
+        VALUES (:id, :ownerNode, :totalFiles)
+        """;
+    update(
+        sql,
+        createParameterSource()
+            .addValue("id", id)
+            .addValue("ownerNode", ownerNode)
+            .addValue("totalFiles", totalFiles));
+  }
+
+  /**
+   * Write the owner's current view of each job and refresh its heartbeat. A COMPLETED or FAILED
+   * status also stamps {@code finished_at}. Rows that are no longer live, or owned by another node,
+   * are left alone.
+   *
+   * @return Per job, 1 if the row was written and 0 if it was skipped
+   */
+  @Transactional
+  public int[] saveProgress(List<UploadJobEntity> jobs) {
+    String sql =
+        """
+        UPDATE upload_job
+           SET status = :status, processed = :processed, created = :created, updated = :updated,
+               skipped = :skipped, errors = :errors, heartbeat_at = now(),
+               finished_at = CASE WHEN :status IN ('COMPLETED', 'FAILED') THEN now() END
+         WHERE id = :id AND owner_node = :ownerNode AND status IN ('PENDING', 'PROCESSING')
+        """;
+    SqlParameterSource[] batch =
+        jobs.stream()
+            .map(
+                job ->
+                    (SqlParameterSource)
+                        createParameterSource()
+                            .addValue("id", job.getId())
+                            .addValue("ownerNode", job.getOwnerNode())
+                            .addValue("status", job.getStatus())
+                            .addValue("processed", job.getProcessed())
+                            .addValue("created", job.getCreated())
+                            .addValue("updated", job.getUpdated())
+                            .addValue("skipped", job.getSkipped())
+                            .addValue("errors", job.getErrors().toArray(new String[0])))
+            .toArray(SqlParameterSource[]::new);
+    return batchUpdate(sql, batch);
+  }
+
+  /** One job, whichever node runs it. */
+  @Transactional(readOnly = true)
+  public Optional<UploadJobEntity> findById(UUID id) {
+    return queryForObject(
+        "SELECT " + COLUMNS + " FROM upload_job WHERE id = :id",
+        UPLOAD_JOB_ROW_MAPPER,
+        createParameterSource().addValue("id", id));
+  }
+
+  /**
+   * Fail every live job whose heartbeat is older than {@code staleAfter}, appending {@code error}
+   * to its errors.
+   *
+   * @return The jobs failed, as they are now stored
+   */
+  @Transactional
+  public List<UploadJobEntity> failStale(Duration staleAfter, String error) {
+    String sql =
+        """
+        UPDATE upload_job
+           SET status = 'FAILED', errors = array_append(errors, :error), finished_at = now()
+         WHERE status IN ('PENDING', 'PROCESSING')
+           AND heartbeat_at < now() - make_interval(secs => :staleSeconds)
+        RETURNING
+        """
+            + COLUMNS;
+    MapSqlParameterSource params =
+        createParameterSource()
+            .addValue("error", error)
+            .addValue("staleSeconds", (double) staleAfter.toSeconds());
+    return query(sql, UPLOAD_JOB_ROW_MAPPER, params);
+  }
+
+  /** Delete jobs that finished more than {@code retention} ago. Returns rows deleted. */
+  @Transactional
+  public int deleteFinishedOlderThan(Duration retention) {
+    return update(
+        "DELETE FROM upload_job WHERE finished_at < now() - make_interval(secs => :retention)",
+        createParameterSource().addValue("retention", (double) retention.toSeconds()));
+  }
+
+  private static List<String> stringList(Array array) throws SQLException {
+    if (array == null) {
+      return List.of();
+    }
+    return Arrays.asList((String[]) array.getArray());
+  }
+}
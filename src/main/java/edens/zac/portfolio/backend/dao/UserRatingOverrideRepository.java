@@ -1,7 +1,10 @@
 package edens.zac.portfolio.backend.dao;
 
 import edens.zac.portfolio.backend.entity.UserRatingOverrideEntity;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -13,15 +16,47 @@ import org.springframework.transaction.annotation.Transactional;
  * JDBC access for {@code user_rating_override}. Upsert is keyed on the {@code (user_id,
  * content_id)} primary key so a user has at most one override per image. Reads are scoped by {@code
  * (user_id, collection_id)} (the secondary index) so a gallery view loads only its rows.
+ *
+ * <p>Writes report each row's previous (collection, rating) alongside the new one and turn the pair
+ * into {@code proofing_summary} deltas. The previous value is read in the same statement, so writes
+ * for one user are serialized by a transaction-scoped advisory lock: the second writer's statement
+ * then starts after the first commits and sees its row.
  */
 @Component
 @Slf4j
 public class UserRatingOverrideRepository extends BaseDao {
 
-  public UserRatingOverrideRepository(JdbcTemplate jdbcTemplate) {
+  private final ProofingSummaryRepository proofingSummaryRepository;
+
+  public UserRatingOverrideRepository(
+      JdbcTemplate jdbcTemplate, ProofingSummaryRepository proofingSummaryRepository) {
     super(jdbcTemplate);
+    this.proofingSummaryRepository = proofingSummaryRepository;
   }
 
+  /** A written override with the values it replaced (null when newly inserted). */
+  private record Written(
+      Long contentId,
+      Long collectionId,
+      int rating,
+      Long previousCollectionId,
+      Integer previousRating) {}
+
+  private static final RowMapper<Written> WRITTEN_ROW_MAPPER =
+      (rs, rowNum) ->
+          new Written(
+              rs.getLong("content_id"),
+              rs.getLong("collection_id"),
+              rs.getInt("rating"),
+              getLong(rs, "previous_collection_id"),
+              getInteger(rs, "previous_rating"));
+
+  /** A deleted row reads as its own previous value with no replacement. */
+  private static final RowMapper<Written> DELETED_ROW_MAPPER =
+      (rs, rowNum) ->
+          new Written(
+              rs.getLong("content_id"), null, -1, rs.getLong("collection_id"), rs.getInt("rating"));
+
   private static final RowMapper<UserRatingOverrideEntity> ROW_MAPPER =
       (rs, rowNum) ->
           UserRatingOverrideEntity.builder()
@@ -38,14 +73,24 @@ public class UserRatingOverrideRepository extends BaseDao {
    */
   @Transactional
   public void upsert(UserRatingOverrideEntity entity) {
+    lockUser(entity.getUserId());
     String sql =
         """
-        INSERT INTO user_rating_override (user_id, content_id, collection_id, rating, updated_at)
-        VALUES (:userId, :contentId, :collectionId, :rating, now())
-        ON CONFLICT (user_id, content_id)
-        DO UPDATE SET rating = EXCLUDED.rating,
-                      collection_id = EXCLUDED.collection_id,
-                      updated_at = now()
+        WITH previous AS (
+          SELECT collection_id, rating FROM user_rating_override
+           WHERE user_id = :userId AND content_id = :contentId
+        ), written AS (
+          INSERT INTO user_rating_override (user_id, content_id, collection_id, rating, updated_at)
+          VALUES (:userId, :contentId, :collectionId, :rating, now())
+          ON CONFLICT (user_id, content_id)
+          DO UPDATE SET rating = EXCLUDED.rating,
+                        collection_id = EXCLUDED.collection_id,
+                        updated_at = now()
+          RETURNING content_id, collection_id, rating
+        )
+        SELECT w.content_id, w.collection_id, w.rating,
+               p.collection_id AS previous_collection_id, p.rating AS previous_rating
+          FROM written w LEFT JOIN previous p ON true
         """;
     MapSqlParameterSource params =
         createParameterSource()
@@ -53,7 +98,60 @@ public class UserRatingOverrideRepository extends BaseDao {
             .addValue("contentId", entity.getContentId())
             .addValue("collectionId", entity.getCollectionId())
             .addValue("rating", entity.getRating());
-    update(sql, params);
+    applyRatingDeltas(query(sql, WRITTEN_ROW_MAPPER, params));
+  }
+
+  /**
+   * Upsert many of the user's overrides within one collection in a single statement. Ids that are
+   * not visible images of the collection are skipped.
+   *
+   * @param ratings Rating (0-5) per image id
+   * @return The image ids written
+   */
+  @Transactional
+  public List<Long> upsertAll(Long userId, Long collectionId, Map<Long, Integer> ratings) {
+    if (ratings.isEmpty()) {
+      return List.of();
+    }
+    lockUser(userId);
+    List<Long> contentIds = new ArrayList<>(ratings.keySet());
+    String sql =
+        """
+        WITH input AS (
+          SELECT i.content_id, i.rating
+            FROM unnest(CAST(ARRAY[:contentIds] AS BIGINT[]), CAST(ARRAY[:ratings] AS INTEGER[]))
+                 AS i(content_id, rating)
+           WHERE EXISTS (SELECT 1
+                           FROM collection_content cc
+                           JOIN content_image ci ON ci.id = cc.content_id
+                          WHERE cc.collection_id = :collectionId
+                            AND cc.content_id = i.content_id
+                            AND cc.visible = true)
+        ), previous AS (
+          SELECT o.content_id, o.collection_id, o.rating FROM user_rating_override o
+           WHERE o.user_id = :userId AND o.content_id IN (SELECT content_id FROM input)
+        ), written AS (
+          INSERT INTO user_rating_override (user_id, content_id, collection_id, rating, updated_at)
+          SELECT :userId, content_id, :collectionId, rating, now() FROM input
+          ON CONFLICT (user_id, content_id)
+          DO UPDATE SET rating = EXCLUDED.rating,
+                        collection_id = EXCLUDED.collection_id,
+                        updated_at = now()
+          RETURNING content_id, collection_id, rating
+        )
+        SELECT w.content_id, w.collection_id, w.rating,
+               p.collection_id AS previous_collection_id, p.rating AS previous_rating
+          FROM written w LEFT JOIN previous p ON p.content_id = w.content_id
+        """;
+    MapSqlParameterSource params =
+        createParameterSource()
+            .addValue("userId", userId)
+            .addValue("collectionId", collectionId)
+            .addValue("contentIds", contentIds)
+            .addValue("ratings", contentIds.stream().map(ratings::get).toList());
+    List<Written> written = query(sql, WRITTEN_ROW_MAPPER, params);
+    applyRatingDeltas(written);
+    return written.stream().map(Written::contentId).toList();
   }
 
   /** Every override this user holds within the given collection's view. */
@@ -75,10 +173,70 @@ public class UserRatingOverrideRepository extends BaseDao {
   /** Remove a single user's override for one image. Returns rows affected (0 or 1). */
   @Transactional
   public int deleteByUserIdAndContentId(Long userId, Long contentId) {
+    lockUser(userId);
     String sql =
-        "DELETE FROM user_rating_override WHERE user_id = :userId AND content_id = :contentId";
+        """
+        DELETE FROM user_rating_override WHERE user_id = :userId AND content_id = :contentId
+        RETURNING content_id, collection_id, rating
+        """;
     MapSqlParameterSource params =
         createParameterSource().addValue("userId", userId).addValue("contentId", contentId);
-    return update(sql, params);
+    List<Written> deleted = query(sql, DELETED_ROW_MAPPER, params);
+    applyRatingDeltas(deleted);
+    return deleted.size();
+  }
+
+  /**
+   * Remove many of the user's overrides within one collection in a single statement.
+   *
+   * @return The image ids whose override was removed
+   */
+  @Transactional
+  public List<Long> deleteAll(Long userId, Long collectionId, Collection<Long> contentIds) {
+    if (contentIds.isEmpty()) {
+      return List.of();
+    }
+    lockUser(userId);
+    String sql =
+        """
+        DELETE FROM user_rating_override
+         WHERE user_id = :userId AND collection_id = :collectionId
+           AND content_id IN (:contentIds)
+        RETURNING content_id, collection_id, rating
+        """;
+    MapSqlParameterSource params =
+        createParameterSource()
+            .addValue("userId", userId)
+            .addValue("collectionId", collectionId)
+            .addValue("contentIds", contentIds);
+    List<Written> deleted = query(sql, DELETED_ROW_MAPPER, params);
+    applyRatingDeltas(deleted);
+    return deleted.stream().map(Written::contentId).toList();
+  }
+
+  /** Serialize this user's override writes until the transaction ends. */
+  private void lockUser(Long userId) {
+    queryForObject(
+        "SELECT pg_advisory_xact_lock(hashtextextended('user_rating_override:' || :userId, 0))",
+        (rs, n) -> 1,
+        createParameterSource().addValue("userId", userId));
+  }
+
+  private void applyRatingDeltas(List<Written> rows) {
+    if (rows.isEmpty()) {
+      return;
+    }
+    ProofingSummaryRepository.Deltas deltas = new ProofingSummaryRepository.Deltas();
+    for (Written row : rows) {
+      if (row.collectionId() != null) {
+        deltas.rating(row.collectionId(), row.contentId(), row.rating(), 1);
+      }
+      if (row.previousCollectionId() != null) {
+        deltas.rating(row.previousCollectionId(), row.contentId(), row.previousRating(), -1);
+      }
+    }
+    if (!deltas.isEmpty()) {
+      proofingSummaryRepository.apply(deltas);
+    }
   }
 }
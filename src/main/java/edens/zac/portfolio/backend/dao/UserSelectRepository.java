@@ -1,6 +1,7 @@
 package edens.zac.portfolio.backend.dao;
 
 import edens.zac.portfolio.backend.entity.UserSelectEntity;
+import java.util.Collection;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -9,13 +10,21 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-/** JDBC access to {@code user_selects}. Mirrors the BaseDao style. */
+/**
+ * JDBC access to {@code user_selects}. Mirrors the BaseDao style. Every write turns the rows it
+ * actually changed (via {@code RETURNING}) into {@code proofing_summary} deltas, so a no-op insert
+ * or delete leaves the counters alone.
+ */
 @Component
 @Slf4j
 public class UserSelectRepository extends BaseDao {
 
-  public UserSelectRepository(JdbcTemplate jdbcTemplate) {
+  private final ProofingSummaryRepository proofingSummaryRepository;
+
+  public UserSelectRepository(
+      JdbcTemplate jdbcTemplate, ProofingSummaryRepository proofingSummaryRepository) {
     super(jdbcTemplate);
+    this.proofingSummaryRepository = proofingSummaryRepository;
   }
 
   private static final RowMapper<UserSelectEntity> USER_SELECT_ROW_MAPPER =
@@ -35,22 +44,92 @@ public class UserSelectRepository extends BaseDao {
         INSERT INTO user_selects (user_id, content_id, collection_id)
         VALUES (:userId, :contentId, :collectionId)
         ON CONFLICT (user_id, content_id) DO NOTHING
+        RETURNING content_id
         """;
     MapSqlParameterSource params =
         createParameterSource()
             .addValue("userId", entity.getUserId())
             .addValue("contentId", entity.getContentId())
             .addValue("collectionId", entity.getCollectionId());
-    update(sql, params);
+    List<Long> inserted = query(sql, (rs, n) -> rs.getLong("content_id"), params);
+    applySelectDeltas(entity.getCollectionId(), inserted, 1);
+  }
+
+  /**
+   * Select many images of one collection in a single statement. Ids that are not visible images of
+   * the collection are skipped, as are images the user already selects (in any collection).
+   *
+   * @return The image ids newly selected
+   */
+  @Transactional
+  public List<Long> insertAll(Long userId, Long collectionId, Collection<Long> contentIds) {
+    if (contentIds.isEmpty()) {
+      return List.of();
+    }
+    String sql =
+        """
+        INSERT INTO user_selects (user_id, content_id, collection_id)
+        SELECT :userId, cc.content_id, :collectionId
+          FROM collection_content cc
+          JOIN content_image ci ON ci.id = cc.content_id
+         WHERE cc.collection_id = :collectionId
+           AND cc.visible = true
+           AND cc.content_id IN (:contentIds)
+        ON CONFLICT (user_id, content_id) DO NOTHING
+        RETURNING content_id
+        """;
+    MapSqlParameterSource params =
+        createParameterSource()
+            .addValue("userId", userId)
+            .addValue("collectionId", collectionId)
+            .addValue("contentIds", contentIds);
+    List<Long> inserted = query(sql, (rs, n) -> rs.getLong("content_id"), params);
+    applySelectDeltas(collectionId, inserted, 1);
+    return inserted;
   }
 
   /** Remove a select. Returns the number of rows deleted (0 if it was not selected). */
   @Transactional
   public int deleteByUserIdAndContentId(Long userId, Long contentId) {
-    String sql = "DELETE FROM user_selects WHERE user_id = :userId AND content_id = :contentId";
+    String sql =
+        """
+        DELETE FROM user_selects WHERE user_id = :userId AND content_id = :contentId
+        RETURNING collection_id
+        """;
     MapSqlParameterSource params =
         createParameterSource().addValue("userId", userId).addValue("contentId", contentId);
-    return update(sql, params);
+    List<Long> collectionIds = query(sql, (rs, n) -> rs.getLong("collection_id"), params);
+    for (Long collectionId : collectionIds) {
+      applySelectDeltas(collectionId, List.of(contentId), -1);
+    }
+    return collectionIds.size();
+  }
+
+  /**
+   * Remove many of the user's selects within one collection in a single statement.
+   *
+   * @return The image ids that were selected and no longer are
+   */
+  @Transactional
+  public List<Long> deleteAll(Long userId, Long collectionId, Collection<Long> contentIds) {
+    if (contentIds.isEmpty()) {
+      return List.of();
+    }
+    String sql =
+        """
+        DELETE FROM user_selects
+         WHERE user_id = :userId AND collection_id = :collectionId
+           AND content_id IN (:contentIds)
+        RETURNING content_id
+        """;
+    MapSqlParameterSource params =
+        createParameterSource()
+            .addValue("userId", userId)
+            .addValue("collectionId", collectionId)
+            .addValue("contentIds", contentIds);
+    List<Long> deleted = query(sql, (rs, n) -> rs.getLong("content_id"), params);
+    applySelectDeltas(collectionId, deleted, -1);
+    return deleted;
   }
 
   /** The selected image ids for a user within one collection, newest-selected first. */
@@ -79,4 +158,13 @@ public class UserSelectRepository extends BaseDao {
     MapSqlParameterSource params = createParameterSource().addValue("userId", userId);
     return query(sql, USER_SELECT_ROW_MAPPER, params);
   }
+
+  private void applySelectDeltas(Long collectionId, List<Long> contentIds, int delta) {
+    if (contentIds.isEmpty()) {
+      return;
+    }
+    ProofingSummaryRepository.Deltas deltas = new ProofingSummaryRepository.Deltas();
+    contentIds.forEach(contentId -> deltas.select(collectionId, contentId, delta));
+    proofingSummaryRepository.apply(deltas);
+  }
 }
@@ -2,6 +2,7 @@ package edens.zac.portfolio.backend.dao;
 
 import edens.zac.portfolio.backend.entity.UserSessionEntity;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -14,6 +15,9 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class UserSessionRepository extends BaseDao {
 
+  /** A buffered sliding-window update for one session. */
+  public record SessionTouch(Long sessionId, LocalDateTime lastSeenAt, LocalDateTime expiresAt) {}
+
   public UserSessionRepository(JdbcTemplate jdbcTemplate) {
     super(jdbcTemplate);
   }
@@ -77,6 +81,34 @@ public class UserSessionRepository extends BaseDao {
     update(sql, params);
   }
 
+  /**
+   * Apply buffered touches in one JDBC batch. Never moves {@code last_seen_at} or {@code
+   * expires_at} backwards, so a late flush cannot undo a newer direct write.
+   */
+  @Transactional
+  public void touchAll(Collection<SessionTouch> touches) {
+    if (touches.isEmpty()) {
+      return;
+    }
+    String sql =
+        """
+        UPDATE user_session
+           SET last_seen_at = GREATEST(last_seen_at, :lastSeenAt),
+               expires_at = GREATEST(expires_at, :expiresAt)
+         WHERE id = :id
+        """;
+    MapSqlParameterSource[] batch =
+        touches.stream()
+            .map(
+                t ->
+                    createParameterSource()
+                        .addValue("lastSeenAt", t.lastSeenAt())
+                        .addValue("expiresAt", t.expiresAt())
+                        .addValue("id", t.sessionId()))
+            .toArray(MapSqlParameterSource[]::new);
+    batchUpdate(sql, batch);
+  }
+
   @Transactional
   public void revokeByTokenHash(String tokenHash) {
     String sql =
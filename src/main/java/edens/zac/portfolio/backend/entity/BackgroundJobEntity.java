@@ -0,0 +1,41 @@
+package edens.zac.portfolio.backend.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** One archive, tag-conversion or proofing-export job as last written by its instance (V66). */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackgroundJobEntity {
+  private UUID id;
+
+  /** ARCHIVE, TAG_CONVERSION or PROOFING_EXPORT. */
+  private String kind;
+
+  /** What the job works on; one live job per kind and key. */
+  private String dedupeKey;
+
+  /** {@code app.cluster.node-id} of the instance that runs the job. */
+  private String ownerNode;
+
+  private String status;
+
+  /** The job's poll response as JSON. */
+  private String state;
+
+  /** S3 key of the archive the job built, once COMPLETED. */
+  private String resultKey;
+
+  /** Download filename for {@link #resultKey}. */
+  private String resultFilename;
+
+  private LocalDateTime startedAt;
+  private LocalDateTime heartbeatAt;
+  private LocalDateTime finishedAt;
+}
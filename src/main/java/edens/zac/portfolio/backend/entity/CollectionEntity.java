@@ -71,7 +71,10 @@ public class CollectionEntity {
   /** Column: rows_wide (INTEGER) - Number of items per row (chunk size for layout) */
   @Min(1) private Integer rowsWide;
 
-  /** Column: gallery_password (VARCHAR(255)) - plaintext password for client gallery access */
+  /**
+   * Column: gallery_password (VARCHAR(255)) - {bcrypt} hash of the client gallery password, or the
+   * legacy plaintext until its first unlock (see ClientGalleryAuthService)
+   */
   private String galleryPassword;
 
   /** Column: recipient_emails (TEXT[]) - email addresses to notify when gallery access is sent */
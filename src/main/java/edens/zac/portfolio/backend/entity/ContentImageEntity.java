@@ -107,6 +107,12 @@ public class ContentImageEntity extends ContentEntity {
   /** Column: original_filename (VARCHAR) - original uploaded filename for dedupe */
   private String originalFilename;
 
+  /** Column: gps_latitude (DOUBLE PRECISION) - EXIF GPS latitude, WGS84 degrees */
+  private Double gpsLatitude;
+
+  /** Column: gps_longitude (DOUBLE PRECISION) - EXIF GPS longitude, WGS84 degrees */
+  private Double gpsLongitude;
+
   /** Relationship: Many-to-many with TagEntity (via content_tags table) */
   @Builder.Default private Set<TagEntity> tags = new HashSet<>();
 
@@ -0,0 +1,32 @@
+package edens.zac.portfolio.backend.entity;
+
+import edens.zac.portfolio.backend.types.EmailOutboxStatus;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** One queued transactional email (V60). Bodies are null once the message has been sent. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailOutboxEntity {
+  private Long id;
+  private String toAddress;
+  private String subject;
+  private String htmlBody;
+  private String textBody;
+
+  /** Log-safe description, e.g. "invite email"; never carries a token or password. */
+  private String label;
+
+  private EmailOutboxStatus status;
+  private int attempts;
+  private LocalDateTime nextAttemptAt;
+  private String lastError;
+  private String messageId;
+  private LocalDateTime createdAt;
+  private LocalDateTime sentAt;
+}
@@ -0,0 +1,34 @@
+package edens.zac.portfolio.backend.entity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** One disk upload / ingest job as last written by the instance running it (V62). */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadJobEntity {
+  private UUID id;
+
+  /** {@code app.cluster.node-id} of the instance that runs the job. */
+  private String ownerNode;
+
+  /** PENDING, PROCESSING, COMPLETED or FAILED. */
+  private String status;
+
+  private int totalFiles;
+  private int processed;
+  private int created;
+  private int updated;
+  private int skipped;
+  private List<String> errors;
+  private LocalDateTime startedAt;
+  private LocalDateTime heartbeatAt;
+  private LocalDateTime finishedAt;
+}
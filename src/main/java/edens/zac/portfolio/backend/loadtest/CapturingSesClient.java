@@ -0,0 +1,102 @@
+package edens.zac.portfolio.backend.loadtest;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.sesv2.SesV2Client;
+import software.amazon.awssdk.services.sesv2.SesV2ServiceClientConfiguration;
+import software.amazon.awssdk.services.sesv2.model.SendEmailRequest;
+import software.amazon.awssdk.services.sesv2.model.SendEmailResponse;
+
+/**
+ * {@link SesV2Client} for the {@code loadtest} profile: every send succeeds and the message is kept
+ * in memory (the most recent {@code capacity} of them) so invite and gallery emails can be read
+ * back from {@code GET /loadtest/emails} instead of leaving the machine.
+ */
+@Slf4j
+public class CapturingSesClient implements SesV2Client {
+
+  /** One captured message, with only the fields a load test needs to follow a link. */
+  public record CapturedEmail(
+      String messageId,
+      Instant sentAt,
+      String from,
+      List<String> to,
+      String subject,
+      String text,
+      String html) {}
+
+  private final int capacity;
+  private final Deque<CapturedEmail> emails = new ArrayDeque<>();
+  private final AtomicLong sent = new AtomicLong();
+
+  /**
+   * Keep at most {@code capacity} messages; older ones are dropped first.
+   *
+   * @param capacity maximum captured messages held in memory
+   */
+  public CapturingSesClient(int capacity) {
+    this.capacity = capacity;
+  }
+
+  @Override
+  public SendEmailResponse sendEmail(SendEmailRequest request) {
+    String messageId = UUID.randomUUID().toString();
+    var simple = request.content() != null ? request.content().simple() : null;
+    CapturedEmail email =
+        new CapturedEmail(
+            messageId,
+            Instant.now(),
+            request.fromEmailAddress(),
+            request.destination() != null ? request.destination().toAddresses() : List.of(),
+            simple != null && simple.subject() != null ? simple.subject().data() : null,
+            simple != null && simple.body().text() != null ? simple.body().text().data() : null,
+            simple != null && simple.body().html() != null ? simple.body().html().data() : null);
+    synchronized (emails) {
+      emails.addLast(email);
+      while (emails.size() > capacity) {
+        emails.removeFirst();
+      }
+    }
+    sent.incrementAndGet();
+    log.debug("Captured email {} to {}", messageId, email.to());
+    return SendEmailResponse.builder().messageId(messageId).build();
+  }
+
+  /**
+   * Captured messages, oldest first.
+   *
+   * @return a snapshot of the retained messages
+   */
+  public List<CapturedEmail> emails() {
+    synchronized (emails) {
+      return List.copyOf(emails);
+    }
+  }
+
+  /**
+   * Messages sent since startup, including ones no longer retained.
+   *
+   * @return the total count
+   */
+  public long sentCount() {
+    return sent.get();
+  }
+
+  @Override
+  public SesV2ServiceClientConfiguration serviceClientConfiguration() {
+    return SesV2ServiceClientConfiguration.builder().build();
+  }
+
+  @Override
+  public String serviceName() {
+    return SERVICE_NAME;
+  }
+
+  @Override
+  public void close() {}
+}
@@ -0,0 +1,398 @@
+package edens.zac.portfolio.backend.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ServiceClientConfiguration;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CopyPartResult;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartCopyRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartCopyResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+/**
+ * Filesystem-backed {@link S3Client} for the {@code loadtest} profile. Objects live at {@code
+ * <root>/<bucket>/<key>}; multipart uploads stage their parts under {@code <root>/.multipart}. It
+ * implements the operations the app calls: put, get (with byte ranges), head, delete, and multipart
+ * upload including part copy, so uploads and ZIP downloads run their real code paths. Any other
+ * operation throws {@link UnsupportedOperationException} from the SDK's default methods.
+ *
+ * <p>Like S3, every object carries a full-object CRC32 checksum and a last-modified time, so the
+ * copy-based ZIP assembler and the archive-reuse check behave as they do in production.
+ */
+@Slf4j
+public class FileSystemS3Client implements S3Client {
+
+  private static final String MULTIPART_DIR = ".multipart";
+
+  private final Path root;
+  private final Map<Path, String> checksums = new ConcurrentHashMap<>();
+
+  /**
+   * Store objects under {@code root}, creating it if needed.
+   *
+   * @param root directory that holds one subdirectory per bucket
+   */
+  public FileSystemS3Client(Path root) {
+    this.root = root.toAbsolutePath().normalize();
+    try {
+      Files.createDirectories(this.root);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot create S3 stand-in root " + this.root, e);
+    }
+    log.info("Load-test S3 stand-in storing objects under {}", this.root);
+  }
+
+  /**
+   * Resolve the file behind an object, or empty when absent. Used by the presigned-URL endpoint.
+   *
+   * @param bucket bucket name
+   * @param key object key
+   * @return the object's file if it exists
+   */
+  public Optional<Path> objectFile(String bucket, String key) {
+    Path file = objectPath(bucket, key);
+    return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+  }
+
+  @Override
+  public PutObjectResponse putObject(PutObjectRequest request, RequestBody body) {
+    Path file = objectPath(request.bucket(), request.key());
+    writeAtomically(file, body);
+    return PutObjectResponse.builder().eTag(etag(file)).checksumCRC32(checksum(file)).build();
+  }
+
+  @Override
+  public <T> T getObject(
+      GetObjectRequest request, ResponseTransformer<GetObjectResponse, T> transformer) {
+    Path file = existing(request.bucket(), request.key());
+    try {
+      long size = Files.size(file);
+      long start = 0;
+      long end = size - 1;
+      if (request.range() != null) {
+        String[] bounds = request.range().replace("bytes=", "").split("-", 2);
+        start = Long.parseLong(bounds[0]);
+        if (!bounds[1].isEmpty()) {
+          end = Math.min(end, Long.parseLong(bounds[1]));
+        }
+      }
+      long length = Math.max(0, end - start + 1);
+      FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+      channel.position(start);
+      InputStream in = new BoundedInputStream(Channels.newInputStream(channel), length);
+      GetObjectResponse response =
+          GetObjectResponse.builder()
+              .contentLength(length)
+              .eTag(etag(file))
+              .lastModified(Files.getLastModifiedTime(file).toInstant())
+              .build();
+      return transformer.transform(response, AbortableInputStream.create(in));
+    } catch (IOException e) {
+      throw SdkClientException.create("Cannot read " + file, e);
+    } catch (Exception e) {
+      throw e instanceof RuntimeException runtime
+          ? runtime
+          : SdkClientException.create("Response transformer failed", e);
+    }
+  }
+
+  @Override
+  public ResponseInputStream<GetObjectResponse> getObject(GetObjectRequest request) {
+    return getObject(request, ResponseTransformer.toInputStream());
+  }
+
+  @Override
+  public HeadObjectResponse headObject(HeadObjectRequest request) {
+    Path file = existing(request.bucket(), request.key());
+    try {
+      return HeadObjectResponse.builder()
+          .contentLength(Files.size(file))
+          .eTag(etag(file))
+          .checksumCRC32(checksum(file))
+          .lastModified(Files.getLastModifiedTime(file).toInstant())
+          .build();
+    } catch (IOException e) {
+      throw SdkClientException.create("Cannot stat " + file, e);
+    }
+  }
+
+  @Override
+  public DeleteObjectResponse deleteObject(DeleteObjectRequest request) {
+    Path file = objectPath(request.bucket(), request.key());
+    try {
+      Files.deleteIfExists(file);
+      checksums.remove(file);
+    } catch (IOException e) {
+      throw SdkClientException.create("Cannot delete " + file, e);
+    }
+    return DeleteObjectResponse.builder().build();
+  }
+
+  @Override
+  public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+    String uploadId = UUID.randomUUID().toString();
+    try {
+      Files.createDirectories(root.resolve(MULTIPART_DIR).resolve(uploadId));
+    } catch (IOException e) {
+      throw SdkClientException.create("Cannot stage multipart upload", e);
+    }
+    return CreateMultipartUploadResponse.builder()
+        .bucket(request.bucket())
+        .key(request.key())
+        .uploadId(uploadId)
+        .build();
+  }
+
+  @Override
+  public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody body) {
+    Path part = partPath(request.uploadId(), request.partNumber());
+    writeAtomically(part, body);
+    return UploadPartResponse.builder().eTag(etag(part)).build();
+  }
+
+  @Override
+  public UploadPartCopyResponse uploadPartCopy(UploadPartCopyRequest request) {
+    Path part = partPath(request.uploadId(), request.partNumber());
+    GetObjectRequest source =
+        GetObjectRequest.builder()
+            .bucket(request.sourceBucket())
+            .key(request.sourceKey())
+            .range(request.copySourceRange())
+            .build();
+    try (InputStream in = getObject(source)) {
+      writeAtomically(part, RequestBody.fromBytes(in.readAllBytes()));
+    } catch (IOException e) {
+      throw SdkClientException.create("Cannot copy part from " + request.sourceKey(), e);
+    }
+    return UploadPartCopyResponse.builder()
+        .copyPartResult(CopyPartResult.builder().eTag(etag(part)).build())
+        .build();
+  }
+
+  @Override
+  public CompleteMultipartUploadResponse completeMultipartUpload(
+      CompleteMultipartUploadRequest request) {
+    Path staging = stagingDir(request.uploadId());
+    List<CompletedPart> parts = new ArrayList<>(request.multipartUpload().parts());
+    parts.sort(Comparator.comparingInt(CompletedPart::partNumber));
+    Path file = objectPath(request.bucket(), request.key());
+    try {
+      Files.createDirectories(file.getParent());
+      Path tmp = Files.createTempFile(file.getParent(), ".upload-", ".tmp");
+      try (OutputStream out = Files.newOutputStream(tmp)) {
+        for (CompletedPart part : parts) {
+          Files.copy(staging.resolve(Integer.toString(part.partNumber())), out);
+        }
+      }
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      checksums.remove(file);
+      deleteRecursively(staging);
+    } catch (IOException e) {
+      throw SdkClientException.create("Cannot complete multipart upload " + request.key(), e);
+    }
+    // S3 reports a composite checksum ("...-N") for multipart objects; mirror that.
+    checksums.put(file, checksum(file) + "-" + parts.size());
+    return CompleteMultipartUploadResponse.builder()
+        .bucket(request.bucket())
+        .key(request.key())
+        .eTag(etag(file))
+        .build();
+  }
+
+  @Override
+  public AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+    try {
+      deleteRecursively(stagingDir(request.uploadId()));
+    } catch (IOException e) {
+      throw SdkClientException.create("Cannot abort multipart upload " + request.key(), e);
+    }
+    return AbortMultipartUploadResponse.builder().build();
+  }
+
+  @Override
+  public S3ServiceClientConfiguration serviceClientConfiguration() {
+    return S3ServiceClientConfiguration.builder().build();
+  }
+
+  @Override
+  public String serviceName() {
+    return SERVICE_NAME;
+  }
+
+  @Override
+  public void close() {}
+
+  private Path objectPath(String bucket, String key) {
+    Path file = root.resolve(bucket).resolve(key).normalize();
+    if (!file.startsWith(root.resolve(bucket)) || key.startsWith(MULTIPART_DIR)) {
+      throw SdkClientException.create("Key escapes the bucket: " + key);
+    }
+    return file;
+  }
+
+  private Path existing(String bucket, String key) {
+    Path file = objectPath(bucket, key);
+    if (!Files.isRegularFile(file)) {
+      throw NoSuchKeyException.builder()
+          .message("The specified key does not exist: " + key)
+          .statusCode(404)
+          .build();
+    }
+    return file;
+  }
+
+  private Path stagingDir(String uploadId) {
+    Path staging = root.resolve(MULTIPART_DIR).resolve(uploadId).normalize();
+    if (!staging.getParent().equals(root.resolve(MULTIPART_DIR)) || !Files.isDirectory(staging)) {
+      throw NoSuchUploadException.builder()
+          .message("The specified upload does not exist: " + uploadId)
+          .statusCode(404)
+          .build();
+    }
+    return staging;
+  }
+
+  private Path partPath(String uploadId, int partNumber) {
+    return stagingDir(uploadId).resolve(Integer.toString(partNumber));
+  }
+
+  private void writeAtomically(Path file, RequestBody body) {
+    try {
+      Files.createDirectories(file.getParent());
+      Path tmp = Files.createTempFile(file.getParent(), ".upload-", ".tmp");
+      try (InputStream in = body.contentStreamProvider().newStream()) {
+        Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+      }
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      checksums.remove(file);
+    } catch (IOException e) {
+      throw SdkClientException.create("Cannot write " + file, e);
+    }
+  }
+
+  /** Base64 big-endian CRC32 of the whole file, as S3 reports {@code x-amz-checksum-crc32}. */
+  private String checksum(Path file) {
+    return checksums.computeIfAbsent(
+        file,
+        f -> {
+          CRC32 crc = new CRC32();
+          try (InputStream in = Files.newInputStream(f)) {
+            byte[] buffer = new byte[64 * 1024];
+            for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+              crc.update(buffer, 0, n);
+            }
+          } catch (IOException e) {
+            throw SdkClientException.create("Cannot checksum " + f, e);
+          }
+          byte[] bytes = ByteBuffer.allocate(4).putInt((int) crc.getValue()).array();
+          return Base64.getEncoder().encodeToString(bytes);
+        });
+  }
+
+  private String etag(Path file) {
+    try {
+      Instant modified = Files.getLastModifiedTime(file).toInstant();
+      return "\"" + Long.toHexString(Files.size(file)) + "-" + modified.toEpochMilli() + "\"";
+    } catch (NoSuchFileException e) {
+      return "\"0\"";
+    } catch (IOException e) {
+      throw SdkClientException.create("Cannot stat " + file, e);
+    }
+  }
+
+  private static void deleteRecursively(Path dir) throws IOException {
+    if (!Files.exists(dir)) {
+      return;
+    }
+    try (Stream<Path> walk = Files.walk(dir)) {
+      for (Path path : walk.sorted(Comparator.reverseOrder()).toList()) {
+        Files.deleteIfExists(path);
+      }
+    }
+  }
+
+  /** Caps reads at the requested range length. */
+  private static final class BoundedInputStream extends InputStream {
+    private final InputStream in;
+    private long remaining;
+
+    BoundedInputStream(InputStream in, long length) {
+      this.in = in;
+      this.remaining = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      int b = in.read();
+      if (b >= 0) {
+        remaining--;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      int n = in.read(buffer, offset, (int) Math.min(length, remaining));
+      if (n > 0) {
+        remaining -= n;
+      }
+      return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+}
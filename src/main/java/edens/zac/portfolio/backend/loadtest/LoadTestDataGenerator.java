@@ -0,0 +1,386 @@
+package edens.zac.portfolio.backend.loadtest;
+
+import edens.zac.portfolio.backend.services.CollectionClosureService;
+import edens.zac.portfolio.backend.services.ImageAudienceService;
+import edens.zac.portfolio.backend.services.LocationStatsService;
+import edens.zac.portfolio.backend.services.RoleGrantPropagationService;
+import edens.zac.portfolio.backend.types.AccessLevel;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+/**
+ * Seeds the {@code loadtest} database with a production-shaped dataset, once. Everything is
+ * generated set-wise in SQL ({@code generate_series}) inside one transaction, so 100k images take
+ * seconds and a failed seed leaves nothing behind. The {@value #MARKER_SLUG} collection is written
+ * last and doubles as the "already seeded" marker and the load driver's readiness probe.
+ *
+ * <p>Shape, with the defaults from {@code application-loadtest.properties}:
+ *
+ * <ul>
+ *   <li>12 cameras, 20 lenses, {@code tags} tags, {@code people} people (users with status PERSON)
+ *       and {@code locations} locations.
+ *   <li>{@code portfolios} LISTED parent collections ({@code lt-portfolio-N}), each linking {@code
+ *       children-per-portfolio} LISTED child galleries ({@code lt-gallery-N-M}) that share the
+ *       {@code images} images round-robin. Images carry 0-3 tags, a location, every third a person,
+ *       and spread-out cameras, lenses, ratings and capture dates, so every search filter selects.
+ *   <li>{@code client-galleries} UNLISTED client galleries ({@code lt-client-N}, password {@code
+ *       lt-client-N-pw}) of {@code client-gallery-images} images each. Each has an ACTIVE client
+ *       user {@code client-N@loadtest.local} (password {@code app.loadtest.seed.client-password})
+ *       holding a CLIENT grant through their personal role. Only these images get S3 objects,
+ *       {@code object-kb} of incompressible bytes each, so ZIP downloads move real data.
+ *   <li>An empty LISTED {@value #MARKER_SLUG} collection for the upload scenario.
+ * </ul>
+ */
+@Slf4j
+@Component
+@Profile("loadtest")
+public class LoadTestDataGenerator implements ApplicationRunner {
+
+  /** Written last; its presence means the seed is complete. */
+  public static final String MARKER_SLUG = "lt-uploads";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final PasswordEncoder passwordEncoder;
+  private final RoleGrantPropagationService roleGrantPropagationService;
+  private final CollectionClosureService collectionClosureService;
+  private final ImageAudienceService imageAudienceService;
+  private final LocationStatsService locationStatsService;
+  private final FileSystemS3Client s3Client;
+
+  @Value("${app.loadtest.seed.enabled:true}")
+  private boolean enabled;
+
+  @Value("${app.loadtest.seed.images:100000}")
+  private int images;
+
+  @Value("${app.loadtest.seed.portfolios:40}")
+  private int portfolios;
+
+  @Value("${app.loadtest.seed.children-per-portfolio:5}")
+  private int childrenPerPortfolio;
+
+  @Value("${app.loadtest.seed.tags:500}")
+  private int tags;
+
+  @Value("${app.loadtest.seed.people:300}")
+  private int people;
+
+  @Value("${app.loadtest.seed.locations:60}")
+  private int locations;
+
+  @Value("${app.loadtest.seed.client-galleries:20}")
+  private int clientGalleries;
+
+  @Value("${app.loadtest.seed.client-gallery-images:100}")
+  private int clientGalleryImages;
+
+  @Value("${app.loadtest.seed.client-password}")
+  private String clientPassword;
+
+  @Value("${app.loadtest.seed.object-kb:256}")
+  private int objectKb;
+
+  @Value("${aws.portfolio.s3.bucket}")
+  private String bucket;
+
+  @Value("${cloudfront.domain}")
+  private String cloudfrontDomain;
+
+  /** Spring constructor. */
+  public LoadTestDataGenerator(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      PasswordEncoder passwordEncoder,
+      RoleGrantPropagationService roleGrantPropagationService,
+      CollectionClosureService collectionClosureService,
+      ImageAudienceService imageAudienceService,
+      LocationStatsService locationStatsService,
+      FileSystemS3Client s3Client) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.passwordEncoder = passwordEncoder;
+    this.roleGrantPropagationService = roleGrantPropagationService;
+    this.collectionClosureService = collectionClosureService;
+    this.imageAudienceService = imageAudienceService;
+    this.locationStatsService = locationStatsService;
+    this.s3Client = s3Client;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (!enabled) {
+      log.info("Load-test seed disabled (app.loadtest.seed.enabled=false)");
+      return;
+    }
+    Integer seeded =
+        jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM collection WHERE slug = ?", Integer.class, MARKER_SLUG);
+    if (seeded != null && seeded > 0) {
+      log.info("Load-test dataset already present; writing any missing S3 objects only");
+    } else {
+      final long start = System.nanoTime();
+      transactionTemplate.executeWithoutResult(status -> seed());
+      collectionClosureService.rebuild();
+      imageAudienceService.rebuild();
+      locationStatsService.rebuild();
+      log.info(
+          "Seeded load-test dataset ({} portfolio images, {} client galleries) in {} ms",
+          images,
+          clientGalleries,
+          (System.nanoTime() - start) / 1_000_000);
+    }
+    writeClientObjects();
+  }
+
+  private void seed() {
+    String webPrefix = "https://" + cloudfrontDomain + "/Image/Web/";
+    int children = portfolios * childrenPerPortfolio;
+
+    jdbcTemplate.execute(
+        """
+        INSERT INTO content_cameras (camera_name)
+          SELECT 'LT Camera ' || g FROM generate_series(1, 12) g;
+        INSERT INTO content_lenses (lens_name)
+          SELECT 'LT Lens ' || g FROM generate_series(1, 20) g;
+        INSERT INTO tag (tag_name, slug)
+          SELECT 'lt tag ' || g, 'lt-tag-' || g FROM generate_series(1, %1$d) g;
+        INSERT INTO location (location_name, slug)
+          SELECT 'LT Location ' || g, 'lt-location-' || g FROM generate_series(1, %2$d) g;
+        INSERT INTO users (name, webauthn_user_handle, status)
+          SELECT 'LT Person ' || g, gen_random_uuid(), 'PERSON' FROM generate_series(1, %3$d) g;
+
+        CREATE TEMP TABLE lt_portfolio (n INT, id BIGINT) ON COMMIT DROP;
+        WITH ins AS (
+          INSERT INTO collection (title, slug, visibility, display_mode, collection_date)
+          SELECT 'LT Portfolio ' || g, 'lt-portfolio-' || g, 'LISTED', 'ORDERED',
+                 DATE '2020-01-01' + g * 7
+          FROM generate_series(1, %4$d) g
+          RETURNING id, slug)
+        INSERT INTO lt_portfolio SELECT substring(slug FROM 14)::int, id FROM ins;
+
+        CREATE TEMP TABLE lt_child (n INT, parent_n INT, id BIGINT) ON COMMIT DROP;
+        WITH ins AS (
+          INSERT INTO collection (title, slug, visibility, display_mode, collection_date)
+          SELECT 'LT Gallery ' || p || '-' || c, 'lt-gallery-' || p || '-' || c, 'LISTED',
+                 'ORDERED', DATE '2020-01-01' + p * 7 + c
+          FROM generate_series(1, %4$d) p, generate_series(1, %5$d) c
+          RETURNING id, slug)
+        INSERT INTO lt_child
+          SELECT row_number() OVER (ORDER BY id),
+                 split_part(substring(slug FROM 12), '-', 1)::int, id
+          FROM ins;
+
+        CREATE TEMP TABLE lt_image (n INT, id BIGINT) ON COMMIT DROP;
+        WITH ins AS (
+          INSERT INTO content (content_type, created_at, updated_at)
+          SELECT 'IMAGE', ts, ts
+          FROM (SELECT TIMESTAMP '2020-01-01' + g * INTERVAL '17 minutes' AS ts
+                FROM generate_series(1, %6$d) g) s
+          ORDER BY ts
+          RETURNING id)
+        INSERT INTO lt_image SELECT row_number() OVER (ORDER BY id), id FROM ins;
+        """
+            .formatted(tags, locations, people, portfolios, childrenPerPortfolio, images));
+
+    insertImageRows("lt_image", webPrefix + "lt-");
+
+    jdbcTemplate.execute(
+        """
+        INSERT INTO collection_content (collection_id, content_id, order_index, visible)
+          SELECT ch.id, i.id, (i.n - 1) / %1$d, true
+          FROM lt_image i JOIN lt_child ch ON ch.n = 1 + (i.n - 1) %% %1$d;
+
+        INSERT INTO content_tags (content_id, tag_id)
+          SELECT i.id, t.ids[1 + ((i.n * k * 7) %% array_length(t.ids, 1))]
+          FROM lt_image i
+          JOIN generate_series(1, 3) k ON k <= i.n %% 4
+          CROSS JOIN (SELECT array_agg(id ORDER BY id) ids FROM tag WHERE slug LIKE 'lt-tag-%%') t
+          ON CONFLICT DO NOTHING;
+        INSERT INTO content_image_locations (content_id, location_id)
+          SELECT i.id, l.ids[1 + (i.n %% array_length(l.ids, 1))]
+          FROM lt_image i
+          CROSS JOIN (SELECT array_agg(id ORDER BY id) ids FROM location
+                      WHERE slug LIKE 'lt-location-%%') l;
+        INSERT INTO content_image_people (content_id, person_id)
+          SELECT i.id, u.ids[1 + ((i.n / 3) %% array_length(u.ids, 1))]
+          FROM lt_image i
+          CROSS JOIN (SELECT array_agg(id ORDER BY id) ids FROM users
+                      WHERE status = 'PERSON' AND name LIKE 'LT Person %%') u
+          WHERE i.n %% 3 = 0;
+
+        CREATE TEMP TABLE lt_link (n INT, id BIGINT) ON COMMIT DROP;
+        WITH ins AS (
+          INSERT INTO content (content_type)
+          SELECT 'COLLECTION' FROM lt_child ORDER BY n
+          RETURNING id)
+        INSERT INTO lt_link SELECT row_number() OVER (ORDER BY id), id FROM ins;
+        INSERT INTO content_collection (id, referenced_collection_id)
+          SELECT l.id, ch.id FROM lt_link l JOIN lt_child ch ON ch.n = l.n;
+        INSERT INTO collection_content (collection_id, content_id, order_index, visible)
+          SELECT p.id, l.id, ch.n, true
+          FROM lt_link l JOIN lt_child ch ON ch.n = l.n JOIN lt_portfolio p ON p.n = ch.parent_n;
+
+        UPDATE collection c SET cover_image_id = cc.first_image, total_content = cc.total
+          FROM (SELECT collection_id, min(content_id) first_image, count(*) total
+                FROM collection_content GROUP BY collection_id) cc, lt_child ch
+          WHERE c.id = ch.id AND cc.collection_id = ch.id;
+        UPDATE collection p SET cover_image_id = child.cover_image_id, total_content = %2$d
+          FROM lt_portfolio lp, lt_child ch, collection child
+          WHERE p.id = lp.id AND ch.parent_n = lp.n AND child.id = ch.id
+            AND ch.n = (SELECT min(n) FROM lt_child WHERE parent_n = lp.n);
+        """
+            .formatted(children, childrenPerPortfolio));
+
+    jdbcTemplate.execute(
+        """
+        CREATE TEMP TABLE lt_client (n INT, id BIGINT) ON COMMIT DROP;
+        WITH ins AS (
+          INSERT INTO collection (title, slug, visibility, display_mode, is_client,
+                                  gallery_password, collection_date)
+          SELECT 'LT Client ' || g, 'lt-client-' || g, 'UNLISTED', 'ORDERED', true,
+                 'lt-client-' || g || '-pw', DATE '2024-01-01' + g
+          FROM generate_series(1, %1$d) g
+          RETURNING id, slug)
+        INSERT INTO lt_client SELECT substring(slug FROM 11)::int, id FROM ins;
+
+        CREATE TEMP TABLE lt_client_image (n INT, id BIGINT) ON COMMIT DROP;
+        WITH ins AS (
+          INSERT INTO content (content_type)
+          SELECT 'IMAGE' FROM generate_series(1, %1$d * %2$d)
+          RETURNING id)
+        INSERT INTO lt_client_image SELECT row_number() OVER (ORDER BY id), id FROM ins;
+        """
+            .formatted(clientGalleries, clientGalleryImages));
+
+    insertImageRows("lt_client_image", webPrefix + "lt-client-");
+
+    jdbcTemplate.update(
+        """
+        INSERT INTO collection_content (collection_id, content_id, order_index, visible)
+          SELECT c.id, i.id, (i.n - 1) % ?, true
+          FROM lt_client_image i JOIN lt_client c ON c.n = 1 + (i.n - 1) / ?
+        """,
+        clientGalleryImages, clientGalleryImages);
+    jdbcTemplate.execute(
+        """
+        UPDATE collection c SET cover_image_id = cc.first_image, total_content = cc.total
+          FROM (SELECT collection_id, min(content_id) first_image, count(*) total
+                FROM collection_content GROUP BY collection_id) cc, lt_client lc
+          WHERE c.id = lc.id AND cc.collection_id = lc.id;
+        """);
+
+    String passwordHash = passwordEncoder.encode(clientPassword);
+    jdbcTemplate.update(
+        """
+        INSERT INTO users (name, email, password_hash, webauthn_user_handle, status)
+          SELECT 'LT Client ' || g, 'client-' || g || '@loadtest.local', ?, gen_random_uuid(),
+                 'ACTIVE'
+          FROM generate_series(1, ?) g
+        """,
+        passwordHash,
+        clientGalleries);
+    jdbcTemplate.execute(
+        """
+        INSERT INTO role (name, kind)
+          SELECT 'user:' || id, 'PERSONAL' FROM users WHERE email LIKE 'client-%@loadtest.local';
+        INSERT INTO role_member (role_id, user_id)
+          SELECT r.id, u.id FROM users u JOIN role r ON r.name = 'user:' || u.id
+          WHERE u.email LIKE 'client-%@loadtest.local';
+        """);
+    List<Map<String, Object>> grants =
+        jdbcTemplate.queryForList(
+            """
+            SELECT r.id AS role_id, c.id AS collection_id
+            FROM users u
+            JOIN role r ON r.name = 'user:' || u.id
+            JOIN collection c
+              ON c.slug = 'lt-client-' || substring(u.email FROM 8 FOR position('@' IN u.email) - 8)
+            WHERE u.email LIKE 'client-%@loadtest.local'
+            """);
+    for (Map<String, Object> grant : grants) {
+      roleGrantPropagationService.setGrant(
+          ((Number) grant.get("role_id")).longValue(),
+          ((Number) grant.get("collection_id")).longValue(),
+          AccessLevel.CLIENT,
+          null);
+    }
+
+    jdbcTemplate.update(
+        "INSERT INTO collection (title, slug, visibility, display_mode) VALUES (?, ?, ?, ?)",
+        "LT Uploads",
+        MARKER_SLUG,
+        "LISTED",
+        "ORDERED");
+    jdbcTemplate.execute("ANALYZE");
+  }
+
+  /** content_image rows for every id in {@code idTable}, spreading each filterable column. */
+  private void insertImageRows(String idTable, String urlPrefix) {
+    jdbcTemplate.execute(
+        """
+        INSERT INTO content_image (id, title, image_width, image_height, iso, author, rating,
+                                   f_stop, camera_id, lens_id, black_and_white, is_film,
+                                   shutter_speed, focal_length, image_url_web, capture_date,
+                                   original_filename)
+          SELECT i.id, 'Frame ' || i.n, 2500, 1667, 100 * (1 + i.n %% 32), 'Load Test',
+                 i.n %% 6, 'f/2.8',
+                 cam.ids[1 + i.n %% array_length(cam.ids, 1)],
+                 lens.ids[1 + i.n %% array_length(lens.ids, 1)],
+                 i.n %% 10 = 0, i.n %% 7 = 0, '1/250 sec', '35 mm',
+                 '%2$s' || i.id || '.webp',
+                 TIMESTAMP '2020-01-01' + i.n * INTERVAL '17 minutes',
+                 'DSC' || lpad(i.n::text, 6, '0') || '.jpg'
+          FROM %1$s i
+          CROSS JOIN (SELECT array_agg(id ORDER BY id) ids FROM content_cameras
+                      WHERE camera_name LIKE 'LT Camera %%') cam
+          CROSS JOIN (SELECT array_agg(id ORDER BY id) ids FROM content_lenses
+                      WHERE lens_name LIKE 'LT Lens %%') lens;
+        """
+            .formatted(idTable, urlPrefix));
+  }
+
+  /** Web-rendition objects for the client galleries, skipping any already on disk. */
+  private void writeClientObjects() {
+    String prefix = "https://" + cloudfrontDomain + "/";
+    List<String> urls =
+        jdbcTemplate.queryForList(
+            """
+            SELECT ci.image_url_web
+            FROM content_image ci
+            JOIN collection_content cc ON cc.content_id = ci.id
+            JOIN collection c ON c.id = cc.collection_id
+            WHERE c.slug LIKE 'lt-client-%'
+            """,
+            String.class);
+    SplittableRandom random = new SplittableRandom(42);
+    byte[] body = new byte[objectKb * 1024];
+    int written = 0;
+    for (String url : urls) {
+      String key = url.substring(prefix.length());
+      if (s3Client.objectFile(bucket, key).isPresent()) {
+        continue;
+      }
+      for (int i = 0; i < body.length; i++) {
+        body[i] = (byte) random.nextInt(256);
+      }
+      s3Client.putObject(
+          PutObjectRequest.builder().bucket(bucket).key(key).contentType("image/webp").build(),
+          RequestBody.fromBytes(body));
+      written++;
+    }
+    log.info("Load-test S3 stand-in: wrote {} of {} client-gallery objects", written, urls.size());
+  }
+}
@@ -0,0 +1,87 @@
+package edens.zac.portfolio.backend.loadtest;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Serves the {@code loadtest} profile's stand-in endpoints:
+ *
+ * <ul>
+ *   <li>{@code GET /loadtest/s3/{bucket}/{key}} — the target of presigned GET URLs. Streams the
+ *       object from the {@link FileSystemS3Client} directory (byte ranges included) and honours the
+ *       {@code response-content-disposition} override the way S3 does. Signatures and expiry are
+ *       not checked.
+ *   <li>{@code GET /loadtest/emails} — messages captured by {@link CapturingSesClient}.
+ *   <li>{@code GET /loadtest/stats} — stand-in counters, for sanity checks after a run.
+ * </ul>
+ *
+ * <p>Only registered under {@code loadtest}; the paths fall through SecurityConfig's permitAll.
+ */
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/loadtest")
+@Profile("loadtest")
+public class LoadTestObjectController {
+
+  private static final String S3_PREFIX = "/loadtest/s3/";
+
+  private final FileSystemS3Client s3Client;
+  private final CapturingSesClient sesClient;
+  private final NoOpCloudFrontClient cloudFrontClient;
+
+  @GetMapping("/s3/{bucket}/**")
+  public ResponseEntity<Resource> getObject(
+      @PathVariable String bucket,
+      @RequestParam(name = "response-content-disposition", required = false)
+          String contentDisposition,
+      HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    String encodedKey = path.substring(S3_PREFIX.length() + bucket.length() + 1);
+    String key = URLDecoder.decode(encodedKey, StandardCharsets.UTF_8);
+    return s3Client
+        .objectFile(bucket, key)
+        .map(file -> serve(file, contentDisposition))
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  @GetMapping("/emails")
+  public List<CapturingSesClient.CapturedEmail> emails() {
+    return sesClient.emails();
+  }
+
+  @GetMapping("/stats")
+  public Map<String, Long> stats() {
+    return Map.of(
+        "emailsSent", sesClient.sentCount(),
+        "cloudFrontInvalidations", cloudFrontClient.invalidationCount(),
+        "cloudFrontInvalidatedPaths", cloudFrontClient.invalidatedPathCount());
+  }
+
+  private static ResponseEntity<Resource> serve(Path file, String contentDisposition) {
+    MediaType type =
+        MediaTypeFactory.getMediaType(file.getFileName().toString())
+            .orElse(MediaType.APPLICATION_OCTET_STREAM);
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(type);
+    if (contentDisposition != null) {
+      response.header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+    }
+    return response.body(new FileSystemResource(file));
+  }
+}
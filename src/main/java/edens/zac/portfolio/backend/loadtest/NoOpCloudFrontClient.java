@@ -0,0 +1,64 @@
+package edens.zac.portfolio.backend.loadtest;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.cloudfront.CloudFrontClient;
+import software.amazon.awssdk.services.cloudfront.CloudFrontServiceClientConfiguration;
+import software.amazon.awssdk.services.cloudfront.model.CreateInvalidationRequest;
+import software.amazon.awssdk.services.cloudfront.model.CreateInvalidationResponse;
+import software.amazon.awssdk.services.cloudfront.model.Invalidation;
+
+/**
+ * {@link CloudFrontClient} for the {@code loadtest} profile: invalidations succeed immediately and
+ * are only counted, so deletes exercise their real code path without a distribution.
+ */
+@Slf4j
+public class NoOpCloudFrontClient implements CloudFrontClient {
+
+  private final AtomicLong invalidations = new AtomicLong();
+  private final AtomicLong invalidatedPaths = new AtomicLong();
+
+  @Override
+  public CreateInvalidationResponse createInvalidation(CreateInvalidationRequest request) {
+    invalidations.incrementAndGet();
+    Integer quantity = request.invalidationBatch().paths().quantity();
+    invalidatedPaths.addAndGet(quantity == null ? 0 : quantity);
+    String id = "LOADTEST" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+    log.debug("No-op CloudFront invalidation {} ({} path(s))", id, quantity);
+    return CreateInvalidationResponse.builder()
+        .invalidation(Invalidation.builder().id(id).status("Completed").build())
+        .build();
+  }
+
+  /**
+   * Invalidations requested so far.
+   *
+   * @return the count since startup
+   */
+  public long invalidationCount() {
+    return invalidations.get();
+  }
+
+  /**
+   * Paths across all invalidations requested so far.
+   *
+   * @return the count since startup
+   */
+  public long invalidatedPathCount() {
+    return invalidatedPaths.get();
+  }
+
+  @Override
+  public CloudFrontServiceClientConfiguration serviceClientConfiguration() {
+    return CloudFrontServiceClientConfiguration.builder().build();
+  }
+
+  @Override
+  public String serviceName() {
+    return SERVICE_NAME;
+  }
+
+  @Override
+  public void close() {}
+}
@@ -105,7 +105,11 @@ public class CollectionModel {
 
   private Boolean isPasswordProtected;
 
-  /** Admin-only: plaintext gallery password. Populated only in admin/manage responses. */
+  /**
+   * Admin-only: plaintext gallery password. Populated only in admin/manage responses, and only for
+   * a legacy row not yet hashed; a hashed password cannot be shown ({@code isPasswordProtected}
+   * still reports it).
+   */
   private String galleryPassword;
 
   /** Admin-only: recipient email addresses. Populated only in admin/manage responses. */
@@ -1,5 +1,7 @@
 package edens.zac.portfolio.backend.model;
 
+import java.time.LocalDateTime;
+
 /**
  * Resolved download target for a single image. Carries everything the controller needs to stream
  * the response after the service layer has decided which S3 object to serve and what
@@ -9,6 +11,13 @@ package edens.zac.portfolio.backend.model;
  * @param extension canonical file extension including the dot (e.g. {@code .jpg}, {@code .webp})
  * @param contentType MIME type to set on the HTTP response
  * @param filename sanitized {@code Content-Disposition} filename
+ * @param updatedAt the image row's {@code updated_at}, or null when unknown. Part of a cached ZIP's
+ *     content version: a re-uploaded image keeps its S3 key but bumps this.
  */
 public record DownloadResolution(
-    String s3Key, String extension, String contentType, String filename) {}
+    String s3Key, String extension, String contentType, String filename, LocalDateTime updatedAt) {
+
+  public DownloadResolution(String s3Key, String extension, String contentType, String filename) {
+    this(s3Key, extension, contentType, filename, null);
+  }
+}
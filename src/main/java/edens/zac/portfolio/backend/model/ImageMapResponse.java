@@ -0,0 +1,10 @@
+package edens.zac.portfolio.backend.model;
+
+import java.util.List;
+
+/**
+ * Response for the image map endpoint: the images visible to the caller inside the requested box,
+ * clustered by geohash cell. {@code precision} is the cell size used (geohash length), {@code
+ * total} the number of images across all clusters.
+ */
+public record ImageMapResponse(int precision, long total, List<Records.MapCluster> clusters) {}
@@ -4,11 +4,14 @@ import java.util.List;
 
 /**
  * Response for the location page endpoint. Contains visible collections at a location and orphan
- * images (images at this location not in any of the returned collections).
+ * images (images at this location not in any of the listed collections there). The totals come from
+ * {@code location_stats}; each next cursor is null on the last page of its listing.
  */
 public record LocationPageResponse(
     Records.Location location,
     List<CollectionModel> collections,
     List<ContentModels.Image> images,
     long totalCollections,
-    long totalImages) {}
+    long totalImages,
+    String nextCollectionCursor,
+    String nextImageCursor) {}
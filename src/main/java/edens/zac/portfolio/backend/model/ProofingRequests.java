@@ -0,0 +1,59 @@
+package edens.zac.portfolio.backend.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public final class ProofingRequests {
+
+  private ProofingRequests() {}
+
+  /**
+   * One batch of a client's proofing changes within a collection. Any list may be null or empty; an
+   * id may not appear in both {@code select} and {@code unselect}.
+   */
+  public record Batch(
+      List<@NotNull Long> select,
+      List<@NotNull Long> unselect,
+      List<@Valid @NotNull RatingChange> ratings) {}
+
+  /** Set the caller's rating override for an image, or clear it when {@code rating} is null. */
+  public record RatingChange(
+      @NotNull(message = "contentId is required") Long contentId,
+      @Min(value = 0, message = "rating must be between 0 and 5") @Max(value = 5, message = "rating must be between 0 and 5") Integer rating) {}
+
+  /**
+   * Rows each part of a batch changed. {@code replayed} is true when the idempotency key had
+   * already been applied and these are the original counts.
+   */
+  public record BatchResult(
+      int selected, int unselected, int rated, int cleared, boolean replayed) {}
+
+  /** One image's proofing counters. {@code ratingCounts.get(r)} counts overrides at rating r. */
+  public record ImageSummary(Long contentId, int selectedBy, List<Integer> ratingCounts) {}
+
+  /**
+   * Admin view of a collection's proofing: total selects, distinct images selected, the ratings
+   * histogram (index = rating) and the most-selected images.
+   */
+  public record CollectionSummary(
+      Long collectionId,
+      long selects,
+      long imagesSelected,
+      List<Long> ratingHistogram,
+      List<ImageSummary> images) {}
+
+  /**
+   * Export one client's selects from a collection. {@code title} defaults to "{parent} - {client}
+   * selects"; {@code filenameList} (default false) adds the Lightroom filename filter to the job;
+   * {@code archive} (default true) builds a ZIP of the originals.
+   */
+  public record ExportRequest(
+      @NotNull(message = "userId is required") Long userId,
+      @Size(min = 3, max = 100, message = "Title must be between 3 and 100 characters") String title,
+      Boolean filenameList,
+      Boolean archive) {}
+}
@@ -55,6 +55,18 @@ public final class Records {
   public record LocationWithCounts(
       Long id, String name, String slug, int collectionCount, int imageCount) {}
 
+  /**
+   * One marker on the image map: the visible images whose capture location falls in a geohash cell,
+   * placed at their mean position, with the best-rated one as the cover.
+   */
+  public record MapCluster(
+      String geohash,
+      long count,
+      double latitude,
+      double longitude,
+      Long coverImageId,
+      String coverImageUrl) {}
+
   // Collection references
 
   /**
@@ -11,8 +11,14 @@ public final class RequestMetrics {
 
   private RequestMetrics() {}
 
-  /** A single aggregated request-count row. {@code slug} is {@code null} for slug-less routes. */
-  public record RequestMetricView(LocalDate day, String route, String slug, long count) {}
+  /**
+   * A single aggregated request-count row. {@code slug} is {@code null} for slug-less routes. The
+   * latency fields are {@code null} for rows with no recorded latency (counted before V57); {@code
+   * p95Ms} is the upper bound of the histogram bucket holding the 95th percentile, {@code null}
+   * when that is the open-ended overflow bucket.
+   */
+  public record RequestMetricView(
+      LocalDate day, String route, String slug, long count, Long avgMs, Long maxMs, Long p95Ms) {}
 
   /**
    * The aggregated rows for the queried inclusive {@code [from, to]} range, plus the resolved range
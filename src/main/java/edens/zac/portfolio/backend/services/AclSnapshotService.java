@@ -0,0 +1,166 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.config.SchedulingConfig;
+import edens.zac.portfolio.backend.dao.RoleRepository;
+import edens.zac.portfolio.backend.dao.RoleRepository.AclRow;
+import edens.zac.portfolio.backend.dao.RoleRepository.AclState;
+import edens.zac.portfolio.backend.dao.RoleRepository.EffectiveGrant;
+import edens.zac.portfolio.backend.types.AccessLevel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process authorization snapshot: userId to the sorted collection ids the user can view, and the
+ * subset at CLIENT level. {@link CollectionAccessService} answers {@code canView}/{@code isClient}
+ * from it with a map lookup and a binary search instead of a {@code count(*)} join per check.
+ *
+ * <p>Freshness: this instance's own grant writes bump {@link RoleRepository#localAclCommits} on
+ * commit, which the hot path compares against the value the snapshot was built from, so an admin
+ * change is visible to the very next check here. Other instances' writes bump the shared {@code
+ * acl_version} row, polled every {@code app.acl.snapshot.poll-ms}. Either way the whole snapshot is
+ * rebuilt from one grouped query -- grant tables are small, and a rebuild is simpler to keep
+ * correct than patching around waterfall propagation.
+ *
+ * <p>Writes that bypass {@link RoleRepository} (raw SQL, cascades from deleting a user or a
+ * collection) are only picked up by the next rebuild, and only if they bump {@code acl_version}
+ * too; cascades leave rows only for ids that no longer exist, which no request can present.
+ */
+@Component
+@Slf4j
+public class AclSnapshotService {
+
+  private static final long[] NONE = new long[0];
+
+  private final RoleRepository roleRepository;
+  private final boolean enabled;
+
+  private volatile Snapshot snapshot;
+
+  /** Sorted id arrays for one user. */
+  record UserAcl(long[] viewable, long[] client) {}
+
+  /** Immutable view of the ACL as of {@code version} and {@code localCommits}. */
+  record Snapshot(long version, long localCommits, Map<Long, UserAcl> byUser) {}
+
+  /**
+   * @param enabled When false, {@link CollectionAccessService} keeps querying the database per
+   *     check
+   */
+  public AclSnapshotService(
+      RoleRepository roleRepository, @Value("${app.acl.snapshot.enabled:true}") boolean enabled) {
+    this.roleRepository = roleRepository;
+    this.enabled = enabled;
+  }
+
+  /** Whether access checks are answered from the snapshot at all. */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /** True when any of the user's roles grants the collection. */
+  public boolean canView(Long userId, Long collectionId) {
+    if (userId == null || collectionId == null) {
+      return false;
+    }
+    UserAcl acl = current().byUser().get(userId);
+    return acl != null && Arrays.binarySearch(acl.viewable(), collectionId) >= 0;
+  }
+
+  /** True when any of the user's roles grants the collection at CLIENT level. */
+  public boolean isClient(Long userId, Long collectionId) {
+    if (userId == null || collectionId == null) {
+      return false;
+    }
+    UserAcl acl = current().byUser().get(userId);
+    return acl != null && Arrays.binarySearch(acl.client(), collectionId) >= 0;
+  }
+
+  /** The user's viewable collection ids, ascending. */
+  public List<Long> viewableCollectionIds(Long userId) {
+    UserAcl acl = userId == null ? null : current().byUser().get(userId);
+    return acl == null ? List.of() : Arrays.stream(acl.viewable()).boxed().toList();
+  }
+
+  /** The user's reachable collections at their highest level, ascending by id. */
+  public List<EffectiveGrant> effectiveGrants(Long userId) {
+    UserAcl acl = userId == null ? null : current().byUser().get(userId);
+    if (acl == null) {
+      return List.of();
+    }
+    List<EffectiveGrant> grants = new ArrayList<>(acl.viewable().length);
+    for (long id : acl.viewable()) {
+      boolean client = Arrays.binarySearch(acl.client(), id) >= 0;
+      grants.add(new EffectiveGrant(id, client ? AccessLevel.CLIENT : AccessLevel.GENERAL));
+    }
+    return grants;
+  }
+
+  /** Pick up other instances' grant writes. Cheap: reads one row. */
+  @Scheduled(
+      fixedDelayString = "${app.acl.snapshot.poll-ms:2000}",
+      scheduler = SchedulingConfig.LIVENESS_SCHEDULER)
+  public void pollVersion() {
+    Snapshot current = snapshot;
+    if (!enabled || current == null) {
+      return;
+    }
+    if (roleRepository.aclVersion() != current.version()) {
+      rebuild();
+    }
+  }
+
+  /** The snapshot, rebuilt first if this instance has committed grant writes since it was built. */
+  private Snapshot current() {
+    Snapshot current = snapshot;
+    if (current == null || current.localCommits() != roleRepository.localAclCommits()) {
+      return rebuild();
+    }
+    return current;
+  }
+
+  synchronized Snapshot rebuild() {
+    long localCommits = roleRepository.localAclCommits();
+    Snapshot current = snapshot;
+    if (current != null
+        && current.localCommits() == localCommits
+        && current.version() == roleRepository.aclVersion()) {
+      return current;
+    }
+    AclState state = roleRepository.loadAclState();
+    Snapshot rebuilt = new Snapshot(state.version(), localCommits, index(state.rows()));
+    snapshot = rebuilt;
+    log.debug(
+        "Rebuilt ACL snapshot at version {} ({} pairs, {} users)",
+        state.version(),
+        state.rows().size(),
+        rebuilt.byUser().size());
+    return rebuilt;
+  }
+
+  private static Map<Long, UserAcl> index(List<AclRow> rows) {
+    Map<Long, List<AclRow>> grouped = new HashMap<>();
+    for (AclRow row : rows) {
+      grouped.computeIfAbsent(row.userId(), k -> new ArrayList<>()).add(row);
+    }
+    Map<Long, UserAcl> byUser = new HashMap<>(grouped.size() * 2);
+    grouped.forEach(
+        (userId, userRows) -> {
+          long[] viewable = userRows.stream().mapToLong(AclRow::collectionId).sorted().toArray();
+          long[] client =
+              userRows.stream()
+                  .filter(AclRow::client)
+                  .mapToLong(AclRow::collectionId)
+                  .sorted()
+                  .toArray();
+          byUser.put(userId, new UserAcl(viewable, client.length == 0 ? NONE : client));
+        });
+    return Map.copyOf(byUser);
+  }
+}
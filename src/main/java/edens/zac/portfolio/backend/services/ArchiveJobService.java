@@ -0,0 +1,192 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.model.DownloadResolution;
+import jakarta.annotation.PreDestroy;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background collection-ZIP builds for the async download flow. The request thread enqueues a job
+ * and returns 202 immediately; the client polls progress and is redirected to the presigned archive
+ * once it exists, so a multi-gigabyte build no longer pins a Tomcat thread and the BFF connection.
+ *
+ * <p>Jobs are registered in {@link BackgroundJobRegistry}, so a poll or result request may land on
+ * any instance. Identical requests (same collection, format and resolved entries) share one job
+ * while it is pending or running on any instance, and for an hour once it has completed. At most
+ * {@code app.download.zip.max-concurrent-builds} archives are built at once per instance; the rest
+ * wait as PENDING.
+ *
+ * <p>A job id is an unguessable capability, like the presigned URL it ends in: it is only handed to
+ * a request that passed the download auth gate.
+ */
+@Component
+@Slf4j
+public class ArchiveJobService {
+
+  /** How long a completed build is handed to identical requests instead of a new job. */
+  static final Duration COMPLETED_REUSE = Duration.ofHours(1);
+
+  private final DownloadUrlService downloadUrlService;
+  private final BackgroundJobRegistry jobRegistry;
+  private final ExecutorService buildExecutor;
+
+  /**
+   * @param maxConcurrentBuilds Archives built at once; each holds a prefetch budget and a few
+   *     multipart buffers, so this bounds download-build memory
+   */
+  public ArchiveJobService(
+      DownloadUrlService downloadUrlService,
+      BackgroundJobRegistry jobRegistry,
+      @Value("${app.download.zip.max-concurrent-builds:2}") int maxConcurrentBuilds) {
+    this.downloadUrlService = downloadUrlService;
+    this.jobRegistry = jobRegistry;
+    // A fixed pool of virtual threads: the pool size is the build cap, the queue holds the rest.
+    this.buildExecutor =
+        Executors.newFixedThreadPool(
+            Math.max(1, maxConcurrentBuilds), Thread.ofVirtual().name("zip-job-", 0).factory());
+  }
+
+  @PreDestroy
+  void shutdown() {
+    buildExecutor.shutdownNow();
+  }
+
+  /** Mutable job state with thread-safe progress counters. */
+  static class ArchiveJob implements BackgroundJobRegistry.TrackedJob {
+    private final UUID jobId = UUID.randomUUID();
+    private final Long collectionId;
+    private final String format;
+    private final List<DownloadResolution> entries;
+    private final String zipFilename;
+    private final AtomicInteger entriesDone = new AtomicInteger(0);
+    private final AtomicLong bytesDone = new AtomicLong(0);
+    private volatile String status = "PENDING"; // PENDING, PROCESSING, COMPLETED, FAILED
+    private volatile String s3Key;
+    private volatile String error;
+
+    ArchiveJob(
+        Long collectionId, String format, List<DownloadResolution> entries, String zipFilename) {
+      this.collectionId = collectionId;
+      this.format = format;
+      this.entries = List.copyOf(entries);
+      this.zipFilename = zipFilename;
+    }
+
+    @Override
+    public UUID jobId() {
+      return jobId;
+    }
+
+    @Override
+    public String status() {
+      return status;
+    }
+
+    @Override
+    public ArchiveJobResponse response() {
+      return new ArchiveJobResponse(
+          jobId, status, entries.size(), entriesDone.get(), bytesDone.get(), error);
+    }
+
+    @Override
+    public String resultKey() {
+      return s3Key;
+    }
+
+    @Override
+    public String resultFilename() {
+      return zipFilename;
+    }
+  }
+
+  /** Response DTO -- snapshot of current job state with plain fields. */
+  public record ArchiveJobResponse(
+      UUID jobId, String status, int totalEntries, int entriesDone, long bytesDone, String error) {}
+
+  /**
+   * Enqueue a build of this archive, or join the job already building (or that recently built) it
+   * on any instance.
+   *
+   * @return Snapshot of the new or existing job
+   */
+  public ArchiveJobResponse submit(
+      Long collectionId, String format, List<DownloadResolution> entries, String zipFilename) {
+    String archiveKey =
+        DownloadUrlService.archiveCacheKey(collectionId, format, entries) + "/" + zipFilename;
+    UUID jobId =
+        jobRegistry.submit(
+            BackgroundJobRegistry.Kind.ARCHIVE,
+            archiveKey,
+            COMPLETED_REUSE,
+            () -> new ArchiveJob(collectionId, format, entries, zipFilename),
+            job -> {
+              buildExecutor.submit(() -> run(job));
+              log.info(
+                  "Queued ZIP job {} (collectionId={}, format={}, count={})",
+                  job.jobId,
+                  collectionId,
+                  format,
+                  entries.size());
+            });
+    return getJob(jobId).orElseThrow();
+  }
+
+  /**
+   * Get a snapshot of the current job state.
+   *
+   * @param jobId The job ID to look up
+   * @return The job status response, or empty if not found
+   */
+  public Optional<ArchiveJobResponse> getJob(UUID jobId) {
+    return jobRegistry.response(
+        BackgroundJobRegistry.Kind.ARCHIVE, jobId, ArchiveJobResponse.class);
+  }
+
+  /**
+   * Presigned URL for a completed job's archive, signed now so its TTL starts when the client asks.
+   *
+   * @return The URL, or empty if the job is unknown or not (successfully) finished
+   */
+  public Optional<URI> resultUrl(UUID jobId) {
+    return jobRegistry
+        .result(BackgroundJobRegistry.Kind.ARCHIVE, jobId)
+        .map(
+            result ->
+                downloadUrlService.presignObject(
+                    result.s3Key(), "application/zip", result.filename()));
+  }
+
+  private void run(ArchiveJob job) {
+    job.status = "PROCESSING";
+    try {
+      job.s3Key =
+          downloadUrlService.buildCachedZip(
+              job.collectionId,
+              job.format,
+              job.entries,
+              job.zipFilename,
+              bytes -> {
+                job.entriesDone.incrementAndGet();
+                job.bytesDone.addAndGet(bytes);
+              });
+      job.status = "COMPLETED";
+      log.info("ZIP job {} completed (key={})", job.jobId, job.s3Key);
+    } catch (Exception e) {
+      job.error = e.getMessage();
+      job.status = "FAILED";
+      log.error("ZIP job {} failed: {}", job.jobId, e.getMessage(), e);
+    } finally {
+      jobRegistry.finished(job);
+    }
+  }
+}
@@ -0,0 +1,338 @@
+package edens.zac.portfolio.backend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edens.zac.portfolio.backend.config.SchedulingConfig;
+import edens.zac.portfolio.backend.dao.BackgroundJobRepository;
+import edens.zac.portfolio.backend.entity.BackgroundJobEntity;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registry for the archive, tag-conversion and proofing-export jobs, shared across instances
+ * through {@code background_job} (V66) the way {@link JobTrackingService} shares upload jobs.
+ *
+ * <p>The instance running a job keeps it in memory and writes its poll response to the table every
+ * {@code app.jobs.heartbeat-ms} and again the moment it finishes. Polls and result lookups answer
+ * from memory for this instance's jobs and from the table for everyone else's. A submit joins the
+ * live job for the same work on any instance: the table allows one live row per kind and dedupe
+ * key. Stale live jobs are failed and old finished ones pruned under the same {@code app.jobs.*}
+ * settings as upload jobs.
+ */
+@Component
+@Slf4j
+public class BackgroundJobRegistry {
+
+  /** Job kinds, stored in {@code background_job.kind}. */
+  public enum Kind {
+    ARCHIVE,
+    TAG_CONVERSION,
+    PROOFING_EXPORT
+  }
+
+  /** A job run by this instance, as the registry reads it. */
+  public interface TrackedJob {
+
+    /** The job id. */
+    UUID jobId();
+
+    /** PENDING, a kind-specific running status, COMPLETED or FAILED. */
+    String status();
+
+    /** The poll response; stored as JSON, so it must round-trip through Jackson. */
+    Object response();
+
+    /** S3 key of the archive the job built, if any. */
+    default String resultKey() {
+      return null;
+    }
+
+    /** Download filename for {@link #resultKey()}. */
+    default String resultFilename() {
+      return null;
+    }
+  }
+
+  /** A completed job's archive. */
+  public record Result(String s3Key, String filename) {}
+
+  /** Submits that lose the insert race retry the join this many times. */
+  private static final int SUBMIT_ATTEMPTS = 3;
+
+  private final BackgroundJobRepository backgroundJobRepository;
+  private final ObjectMapper objectMapper;
+  private final String nodeId;
+  private final Duration staleAfter;
+  private final Duration retention;
+
+  private final ConcurrentHashMap<UUID, LocalJob> jobs = new ConcurrentHashMap<>();
+
+  /** A job this instance runs. */
+  private static final class LocalJob {
+    private final Kind kind;
+    private final String dedupeKey;
+    private final TrackedJob job;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    /** The final state is in {@code background_job}, so no more writes are due. */
+    private volatile boolean stored;
+
+    LocalJob(Kind kind, String dedupeKey, TrackedJob job) {
+      this.kind = kind;
+      this.dedupeKey = dedupeKey;
+      this.job = job;
+    }
+  }
+
+  /**
+   * @param staleAfterSeconds heartbeat age after which a live job is considered abandoned
+   * @param retentionHours how long finished jobs stay visible
+   */
+  public BackgroundJobRegistry(
+      BackgroundJobRepository backgroundJobRepository,
+      ObjectMapper objectMapper,
+      ClusterNode clusterNode,
+      @Value("${app.jobs.stale-after-seconds:120}") long staleAfterSeconds,
+      @Value("${app.jobs.retention-hours:24}") long retentionHours) {
+    this.backgroundJobRepository = backgroundJobRepository;
+    this.objectMapper = objectMapper;
+    this.nodeId = clusterNode.id();
+    this.staleAfter = Duration.ofSeconds(staleAfterSeconds);
+    this.retention = Duration.ofHours(retentionHours);
+  }
+
+  /**
+   * Join the job already doing this work, or register and start a new one.
+   *
+   * @param completedReuse how long a COMPLETED job stays joinable; {@link Duration#ZERO} joins live
+   *     jobs only
+   * @param factory creates the new job
+   * @param start starts the new job once it is registered
+   * @return The id of the joined or new job
+   */
+  public synchronized <T extends TrackedJob> UUID submit(
+      Kind kind,
+      String dedupeKey,
+      Duration completedReuse,
+      Supplier<T> factory,
+      Consumer<T> start) {
+    for (int attempt = 0; attempt < SUBMIT_ATTEMPTS; attempt++) {
+      Optional<UUID> joinable = findJoinable(kind, dedupeKey, completedReuse);
+      if (joinable.isPresent()) {
+        return joinable.get();
+      }
+      T job = factory.get();
+      boolean inserted =
+          backgroundJobRepository.insertIfNoLiveJob(
+              BackgroundJobEntity.builder()
+                  .id(job.jobId())
+                  .kind(kind.name())
+                  .dedupeKey(dedupeKey)
+                  .ownerNode(nodeId)
+                  .status(job.status())
+                  .state(toJson(job.response()))
+                  .build());
+      if (inserted) {
+        jobs.put(job.jobId(), new LocalJob(kind, dedupeKey, job));
+        start.accept(job);
+        return job.jobId();
+      }
+    }
+    throw new IllegalStateException("Could not register or join a " + kind + " job");
+  }
+
+  /**
+   * A job's poll response, from memory when this instance runs it and from {@code background_job}
+   * otherwise.
+   *
+   * @return The response, or empty if no job of this kind has the id
+   */
+  public <T> Optional<T> response(Kind kind, UUID jobId, Class<T> type) {
+    LocalJob local = jobs.get(jobId);
+    if (local != null) {
+      return local.kind == kind ? Optional.of(type.cast(local.job.response())) : Optional.empty();
+    }
+    return backgroundJobRepository
+        .findById(kind.name(), jobId)
+        .map(row -> fromJson(row.getState(), type));
+  }
+
+  /**
+   * The archive a COMPLETED job built.
+   *
+   * @return The result, or empty if the job is unknown, unfinished, failed or built no archive
+   */
+  public Optional<Result> result(Kind kind, UUID jobId) {
+    LocalJob local = jobs.get(jobId);
+    if (local != null) {
+      TrackedJob job = local.job;
+      return local.kind == kind && "COMPLETED".equals(job.status()) && job.resultKey() != null
+          ? Optional.of(new Result(job.resultKey(), job.resultFilename()))
+          : Optional.empty();
+    }
+    return backgroundJobRepository
+        .findById(kind.name(), jobId)
+        .filter(row -> "COMPLETED".equals(row.getStatus()) && row.getResultKey() != null)
+        .map(row -> new Result(row.getResultKey(), row.getResultFilename()));
+  }
+
+  /** Write a job's final state as soon as it finishes; the heartbeat retries if this fails. */
+  public void finished(TrackedJob job) {
+    LocalJob local = jobs.get(job.jobId());
+    if (local == null) {
+      return;
+    }
+    try {
+      backgroundJobRepository.saveProgress(List.of(toEntity(local)));
+      local.stored = true;
+    } catch (DataAccessException e) {
+      log.warn("Could not store final state of job {}: {}", job.jobId(), e.getMessage());
+    }
+  }
+
+  /**
+   * Write every local job whose final state is not yet stored, refreshing its heartbeat. A failed
+   * write is retried on the next beat.
+   */
+  @Scheduled(
+      fixedDelayString = "${app.jobs.heartbeat-ms:5000}",
+      scheduler = SchedulingConfig.LIVENESS_SCHEDULER)
+  public void heartbeat() {
+    List<LocalJob> pending = jobs.values().stream().filter(job -> !job.stored).toList();
+    if (pending.isEmpty()) {
+      return;
+    }
+    List<BackgroundJobEntity> snapshots = pending.stream().map(this::toEntity).toList();
+    int[] written;
+    try {
+      written = backgroundJobRepository.saveProgress(snapshots);
+    } catch (DataAccessException e) {
+      log.warn("Background job heartbeat failed for {} jobs: {}", pending.size(), e.getMessage());
+      return;
+    }
+    for (int i = 0; i < pending.size(); i++) {
+      LocalJob job = pending.get(i);
+      if (isFinished(snapshots.get(i).getStatus())) {
+        job.stored = true;
+      } else if (written[i] == 0) {
+        // Another instance reaped the row while this one could not reach the database.
+        job.stored = true;
+        log.warn("Job {} was failed by another instance; no longer reporting it", job.job.jobId());
+      }
+    }
+  }
+
+  /**
+   * Fail the live jobs of instances that stopped sending heartbeats. Cluster-wide; scheduled once
+   * per period by {@link ClusterScheduledTasks}.
+   *
+   * @return Jobs failed
+   */
+  public int reapStaleJobs() {
+    List<BackgroundJobEntity> reaped =
+        backgroundJobRepository.failStale(staleAfter, JobTrackingService.ABANDONED_ERROR);
+    for (BackgroundJobEntity job : reaped) {
+      log.warn(
+          "Failed abandoned {} job {} of node {}", job.getKind(), job.getId(), job.getOwnerNode());
+    }
+    return reaped.size();
+  }
+
+  /**
+   * Delete finished jobs past the retention window. Cluster-wide; scheduled by {@link
+   * ClusterScheduledTasks}.
+   *
+   * @return Jobs deleted
+   */
+  public int pruneFinishedJobs() {
+    int removed = backgroundJobRepository.deleteFinishedOlderThan(retention);
+    if (removed > 0) {
+      log.info("Pruned {} finished background jobs", removed);
+    }
+    return removed;
+  }
+
+  /**
+   * Drop local copies of jobs older than 1 hour whose final state is stored; polls for them are
+   * answered from the table. Runs every 10 minutes.
+   */
+  @Scheduled(fixedRate = 600_000)
+  public void cleanupExpiredJobs() {
+    var cutoff = LocalDateTime.now().minusHours(1);
+    int removed = 0;
+    var it = jobs.values().iterator();
+    while (it.hasNext()) {
+      LocalJob job = it.next();
+      if (job.stored && job.startedAt.isBefore(cutoff)) {
+        it.remove();
+        removed++;
+      }
+    }
+    if (removed > 0) {
+      log.debug("Cleaned up {} expired background jobs", removed);
+    }
+  }
+
+  /** A local job first (no query while this instance runs the work), then the table. */
+  private Optional<UUID> findJoinable(Kind kind, String dedupeKey, Duration completedReuse) {
+    LocalDateTime reuseCutoff = LocalDateTime.now().minus(completedReuse);
+    for (LocalJob local : jobs.values()) {
+      if (local.kind != kind || !local.dedupeKey.equals(dedupeKey)) {
+        continue;
+      }
+      String status = local.job.status();
+      if (!isFinished(status)
+          || ("COMPLETED".equals(status) && local.startedAt.isAfter(reuseCutoff))) {
+        return Optional.of(local.job.jobId());
+      }
+    }
+    return backgroundJobRepository
+        .findJoinable(kind.name(), dedupeKey, completedReuse)
+        .map(BackgroundJobEntity::getId);
+  }
+
+  private static boolean isFinished(String status) {
+    return "COMPLETED".equals(status) || "FAILED".equals(status);
+  }
+
+  /** Reads the status before the response, so a snapshot marked finished has final progress. */
+  private BackgroundJobEntity toEntity(LocalJob local) {
+    TrackedJob job = local.job;
+    String status = job.status();
+    return BackgroundJobEntity.builder()
+        .id(job.jobId())
+        .ownerNode(nodeId)
+        .status(status)
+        .state(toJson(job.response()))
+        .resultKey(job.resultKey())
+        .resultFilename(job.resultFilename())
+        .build();
+  }
+
+  private String toJson(Object response) {
+    try {
+      return objectMapper.writeValueAsString(response);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize job state", e);
+    }
+  }
+
+  private <T> T fromJson(String state, Class<T> type) {
+    try {
+      return objectMapper.readValue(state, type);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not read stored job state", e);
+    }
+  }
+}
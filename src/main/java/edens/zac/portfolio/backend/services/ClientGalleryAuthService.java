@@ -1,5 +1,7 @@
 package edens.zac.portfolio.backend.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import edens.zac.portfolio.backend.config.GalleryAccessCookies;
 import edens.zac.portfolio.backend.config.ResourceNotFoundException;
 import edens.zac.portfolio.backend.dao.CollectionRepository;
@@ -17,25 +19,69 @@ import javax.crypto.spec.SecretKeySpec;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseCookie;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Handles client gallery authentication: password validation, HMAC access token generation and
  * verification.
+ *
+ * <p>Gallery passwords are stored as {@code {bcrypt}} hashes from the shared {@link
+ * PasswordEncoder}, so every unlock attempt pays the KDF cost. Rows written before hashing still
+ * hold the plaintext; the first successful unlock of such a row rewrites it -- and every other row
+ * holding the same plaintext, so a propagated password group keeps one stored value and one
+ * fingerprint -- to the hash.
+ *
+ * <p>Per-request cookie checks never touch the KDF. Per-slug tokens that verified are remembered
+ * for {@code app.gallery-access.token-cache.ttl-seconds}, so browsing an unlocked gallery costs a
+ * map lookup instead of a collection read per request.
  */
 @Service
 @Slf4j
 public class ClientGalleryAuthService {
 
+  /**
+   * Prefix of a stored value produced by {@link #hashPassword}; anything else is legacy plaintext.
+   */
+  static final String HASH_PREFIX = "{bcrypt}";
+
   private final CollectionRepository collectionRepository;
   private final String accessTokenSecret;
+  private final PasswordEncoder passwordEncoder;
+
+  /** Verified per-slug tokens ("slug|token") to the token's expiry in epoch seconds. */
+  private final Cache<String, Long> verifiedTokens;
 
   ClientGalleryAuthService(
       CollectionRepository collectionRepository,
-      @Value("${app.access-token.secret}") String accessTokenSecret) {
+      @Value("${app.access-token.secret}") String accessTokenSecret,
+      PasswordEncoder passwordEncoder,
+      @Value("${app.gallery-access.token-cache.ttl-seconds:60}") long tokenCacheTtlSeconds,
+      @Value("${app.gallery-access.token-cache.max-size:10000}") long tokenCacheMaxSize) {
     this.collectionRepository = collectionRepository;
     this.accessTokenSecret = accessTokenSecret;
+    this.passwordEncoder = passwordEncoder;
+    this.verifiedTokens =
+        Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(Math.max(tokenCacheTtlSeconds, 0)))
+            .maximumSize(tokenCacheMaxSize)
+            .build();
+  }
+
+  /**
+   * Hash a gallery password for storage.
+   *
+   * @param password The plaintext password an admin set
+   * @return The value to store in {@code gallery_password}
+   */
+  public String hashPassword(String password) {
+    return passwordEncoder.encode(password);
+  }
+
+  /** Whether a stored {@code gallery_password} is a hash rather than legacy plaintext. */
+  public static boolean isHashed(String storedPassword) {
+    return storedPassword != null && storedPassword.startsWith(HASH_PREFIX);
   }
 
   /**
@@ -45,7 +91,7 @@ public class ClientGalleryAuthService {
    * @param password Submitted password
    * @return true if access is granted
    */
-  @Transactional(readOnly = true)
+  @Transactional
   public boolean validateClientGalleryAccess(String slug, String password) {
     log.debug("Validating access to client gallery: {}", slug);
 
@@ -65,7 +111,17 @@ public class ClientGalleryAuthService {
       return false;
     }
 
-    return collection.getGalleryPassword().equals(password);
+    String stored = collection.getGalleryPassword();
+    if (isHashed(stored)) {
+      return passwordEncoder.matches(password, stored);
+    }
+    if (!MessageDigest.isEqual(
+        stored.getBytes(StandardCharsets.UTF_8), password.getBytes(StandardCharsets.UTF_8))) {
+      return false;
+    }
+    int upgraded = collectionRepository.upgradeGalleryPassword(stored, hashPassword(password));
+    log.info("Hashed legacy gallery password on unlock of {} ({} collections)", slug, upgraded);
+    return true;
   }
 
   /**
@@ -82,7 +138,8 @@ public class ClientGalleryAuthService {
   }
 
   /**
-   * Validate a time-limited HMAC access token for a client gallery.
+   * Validate a time-limited HMAC access token for a client gallery. A token that verified within
+   * the cache TTL is accepted without reading the collection; it stays bounded by its own expiry.
    *
    * @param slug Collection slug
    * @param accessToken The token to validate
@@ -94,6 +151,12 @@ public class ClientGalleryAuthService {
       return false;
     }
 
+    String cacheKey = slug + "|" + accessToken;
+    Long cachedExpiry = verifiedTokens.getIfPresent(cacheKey);
+    if (cachedExpiry != null) {
+      return Instant.now().getEpochSecond() <= cachedExpiry;
+    }
+
     Optional<CollectionEntity> optCollection = collectionRepository.findBySlug(slug);
     if (optCollection.isEmpty()) {
       return false;
@@ -114,20 +177,28 @@ public class ClientGalleryAuthService {
         return false;
       }
       String expectedHmac = computeHmac(slug + "|" + expiry, accessTokenSecret);
-      return MessageDigest.isEqual(
-          expectedHmac.getBytes(StandardCharsets.UTF_8), parts[0].getBytes(StandardCharsets.UTF_8));
+      boolean valid =
+          MessageDigest.isEqual(
+              expectedHmac.getBytes(StandardCharsets.UTF_8),
+              parts[0].getBytes(StandardCharsets.UTF_8));
+      if (valid) {
+        verifiedTokens.put(cacheKey, expiry);
+      }
+      return valid;
     } catch (NumberFormatException e) {
       return false;
     }
   }
 
   /**
-   * Stable, opaque fingerprint of a gallery password. Two galleries with the same password produce
-   * the same fingerprint, enabling shared-unlock cookies across a "password group" without storing
-   * any group identifier. Computed via HMAC keyed by {@code accessTokenSecret} so the fingerprint
-   * is not derivable without the server secret.
+   * Stable, opaque fingerprint of a stored gallery password. Galleries holding the same stored
+   * value -- a parent and the children its password was propagated to -- produce the same
+   * fingerprint, enabling shared-unlock cookies across a "password group" without storing any group
+   * identifier. Computed via HMAC keyed by {@code accessTokenSecret} so the fingerprint is not
+   * derivable without the server secret. It is taken over the stored hash, not the plaintext, so it
+   * never offers a cheaper way to test a guessed password than the KDF.
    *
-   * @param password The plaintext gallery password
+   * @param password The gallery's stored {@code gallery_password}
    * @return URL-safe base64 fingerprint, or {@code null} when {@code password} is null/blank
    */
   public String passwordFingerprint(String password) {
@@ -141,7 +212,7 @@ public class ClientGalleryAuthService {
    * Generate a time-limited HMAC access token bound to a password fingerprint. Issued alongside the
    * per-slug token at unlock so any gallery sharing the same password also unlocks.
    *
-   * @param password The plaintext gallery password (must be non-null/non-empty)
+   * @param password The gallery's stored {@code gallery_password} (must be non-null/non-empty)
    * @return HMAC token with embedded expiry
    */
   public String generatePasswordAccessToken(String password) {
@@ -157,7 +228,7 @@ public class ClientGalleryAuthService {
    * false (gate) when the password is null/blank — fingerprint cookies are only meaningful for
    * protected galleries.
    *
-   * @param password The current plaintext password of the gallery being read
+   * @param password The current stored password of the gallery being read
    * @param accessToken The token from the {@code gallery_access_pw_<fingerprint>} cookie
    * @return true if valid, fingerprint matches, and not expired
    */
@@ -188,17 +259,18 @@ public class ClientGalleryAuthService {
 
   /**
    * Build the {@code Set-Cookie} cookies issued on a successful gallery unlock. Always includes the
-   * per-slug access cookie. When {@code password} is non-blank, additionally includes the shared
-   * password-fingerprint cookie so any other gallery whose password produces the same fingerprint
-   * also passes the gate without re-prompting.
+   * per-slug access cookie. When the gallery has a password, additionally includes the shared
+   * password-fingerprint cookie so any other gallery whose stored password produces the same
+   * fingerprint also passes the gate without re-prompting. The fingerprint is read after {@link
+   * #validateClientGalleryAccess} so a legacy row's cookie already carries its upgraded hash.
    *
    * <p>Centralizing cookie construction here keeps controllers focused on HTTP wiring and prevents
    * drift between the cookie name/value/attributes used at unlock and the names looked up in {@link
    * GalleryAccessCookies#hasValidAccess(jakarta.servlet.http.HttpServletRequest, String, String,
    * ClientGalleryAuthService)}.
    */
-  public List<ResponseCookie> buildAccessCookies(
-      String slug, String password, boolean secure, Duration maxAge) {
+  @Transactional(readOnly = true)
+  public List<ResponseCookie> buildAccessCookies(String slug, boolean secure, Duration maxAge) {
     List<ResponseCookie> cookies = new ArrayList<>(2);
     cookies.add(
         ResponseCookie.from(GalleryAccessCookies.cookieName(slug), generateAccessToken(slug))
@@ -209,6 +281,11 @@ public class ClientGalleryAuthService {
             .maxAge(maxAge)
             .build());
 
+    String password =
+        collectionRepository
+            .findBySlug(slug)
+            .map(CollectionEntity::getGalleryPassword)
+            .orElse(null);
     String fingerprint = passwordFingerprint(password);
     if (fingerprint != null) {
       cookies.add(
@@ -0,0 +1,51 @@
+package edens.zac.portfolio.backend.services;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * This instance's name in the cluster: the owner recorded on the upload jobs it runs and the holder
+ * recorded on the scheduler leases it takes.
+ *
+ * <p>{@code app.cluster.node-id} when set; otherwise the host name plus a random suffix, so a
+ * restarted container never claims its previous life's jobs.
+ */
+@Component
+@Slf4j
+public class ClusterNode {
+
+  private final String id;
+
+  /**
+   * @param configuredId explicit node id; blank derives one from the host name
+   */
+  public ClusterNode(@Value("${app.cluster.node-id:}") String configuredId) {
+    this.id = configuredId.isBlank() ? hostName() + "-" + randomSuffix() : configuredId;
+    log.info("Cluster node id: {}", id);
+  }
+
+  /** This instance's node id. */
+  public String id() {
+    return id;
+  }
+
+  private static String hostName() {
+    String hostname = System.getenv("HOSTNAME");
+    if (hostname != null && !hostname.isBlank()) {
+      return hostname;
+    }
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      return "node";
+    }
+  }
+
+  private static String randomSuffix() {
+    return UUID.randomUUID().toString().substring(0, 8);
+  }
+}
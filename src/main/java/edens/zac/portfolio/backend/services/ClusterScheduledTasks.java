@@ -0,0 +1,162 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.config.PostgresRateLimitBucketStore;
+import java.time.Duration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * The scheduled tasks that work on shared tables and so should run once per period across the
+ * cluster rather than once per instance. Each fires on every instance, and {@link
+ * SchedulerLockService} lets the first one through; the lease is nine tenths of the task's
+ * interval, so the instance that ran it can take it again next period.
+ *
+ * <p>Per-instance tasks stay on their own beans: session-touch and request-metric flushes (each
+ * instance's own buffer), ACL snapshot polling, in-memory job cleanups, the job heartbeats and the
+ * email outbox drain (already safe to run everywhere through {@code SKIP LOCKED}).
+ */
+@Component
+public class ClusterScheduledTasks {
+
+  private final SchedulerLockService schedulerLockService;
+  private final ImageAudienceService imageAudienceService;
+  private final LocationStatsService locationStatsService;
+  private final ProofingService proofingService;
+  private final EmailOutboxWorker emailOutboxWorker;
+  private final JobTrackingService jobTrackingService;
+  private final BackgroundJobRegistry backgroundJobRegistry;
+  private final ObjectProvider<PostgresRateLimitBucketStore> rateLimitBucketStore;
+  private final ObjectProvider<PostgresWebAuthnChallengeStore> webAuthnChallengeStore;
+  private final Duration audienceVerifyLease;
+  private final Duration locationStatsVerifyLease;
+  private final Duration batchPruneLease;
+  private final Duration outboxPruneLease;
+  private final Duration sharedStateSweepLease;
+  private final Duration jobReapLease;
+  private final Duration jobPruneLease;
+
+  /**
+   * Spring constructor. The interval arguments repeat the {@code @Scheduled} settings below and
+   * only size the leases.
+   *
+   * @param rateLimitBucketStore present with the {@code postgres} shared-state backend
+   * @param webAuthnChallengeStore present with the {@code postgres} shared-state backend
+   */
+  public ClusterScheduledTasks(
+      SchedulerLockService schedulerLockService,
+      ImageAudienceService imageAudienceService,
+      LocationStatsService locationStatsService,
+      ProofingService proofingService,
+      EmailOutboxWorker emailOutboxWorker,
+      JobTrackingService jobTrackingService,
+      BackgroundJobRegistry backgroundJobRegistry,
+      ObjectProvider<PostgresRateLimitBucketStore> rateLimitBucketStore,
+      ObjectProvider<PostgresWebAuthnChallengeStore> webAuthnChallengeStore,
+      @Value("${app.image-audience.verify-ms:3600000}") long audienceVerifyMs,
+      @Value("${app.location-stats.verify-ms:3600000}") long locationStatsVerifyMs,
+      @Value("${app.proofing.batch-prune-ms:3600000}") long batchPruneMs,
+      @Value("${email.outbox.prune-ms:3600000}") long outboxPruneMs,
+      @Value("${app.shared-state.sweep-ms:60000}") long sharedStateSweepMs,
+      @Value("${app.jobs.reap-ms:30000}") long jobReapMs,
+      @Value("${app.jobs.prune-ms:3600000}") long jobPruneMs) {
+    this.schedulerLockService = schedulerLockService;
+    this.imageAudienceService = imageAudienceService;
+    this.locationStatsService = locationStatsService;
+    this.proofingService = proofingService;
+    this.emailOutboxWorker = emailOutboxWorker;
+    this.jobTrackingService = jobTrackingService;
+    this.backgroundJobRegistry = backgroundJobRegistry;
+    this.rateLimitBucketStore = rateLimitBucketStore;
+    this.webAuthnChallengeStore = webAuthnChallengeStore;
+    this.audienceVerifyLease = lease(audienceVerifyMs);
+    this.locationStatsVerifyLease = lease(locationStatsVerifyMs);
+    this.batchPruneLease = lease(batchPruneMs);
+    this.outboxPruneLease = lease(outboxPruneMs);
+    this.sharedStateSweepLease = lease(sharedStateSweepMs);
+    this.jobReapLease = lease(jobReapMs);
+    this.jobPruneLease = lease(jobPruneMs);
+  }
+
+  /** Look for image_audience drift and repair it. */
+  @Scheduled(
+      initialDelayString = "${app.image-audience.verify-initial-delay-ms:300000}",
+      fixedDelayString = "${app.image-audience.verify-ms:3600000}")
+  public void verifyImageAudience() {
+    schedulerLockService.runExclusively(
+        "image-audience-verify", audienceVerifyLease, imageAudienceService::verify);
+  }
+
+  /** Look for location_stats drift and repair it. */
+  @Scheduled(
+      initialDelayString = "${app.location-stats.verify-initial-delay-ms:360000}",
+      fixedDelayString = "${app.location-stats.verify-ms:3600000}")
+  public void verifyLocationStats() {
+    schedulerLockService.runExclusively(
+        "location-stats-verify", locationStatsVerifyLease, locationStatsService::verify);
+  }
+
+  /** Forget expired proofing idempotency keys. */
+  @Scheduled(fixedDelayString = "${app.proofing.batch-prune-ms:3600000}")
+  public void pruneProofingBatches() {
+    schedulerLockService.runExclusively(
+        "proofing-batch-prune", batchPruneLease, proofingService::pruneBatches);
+  }
+
+  /** Delete sent and dead-lettered outbox messages past retention. */
+  @Scheduled(fixedDelayString = "${email.outbox.prune-ms:3600000}")
+  public void pruneEmailOutbox() {
+    schedulerLockService.runExclusively(
+        "email-outbox-prune", outboxPruneLease, emailOutboxWorker::prune);
+  }
+
+  /** Delete expired WebAuthn challenges and idle rate-limit buckets (postgres backend only). */
+  @Scheduled(fixedDelayString = "${app.shared-state.sweep-ms:60000}")
+  public void sweepSharedState() {
+    PostgresRateLimitBucketStore buckets = rateLimitBucketStore.getIfAvailable();
+    PostgresWebAuthnChallengeStore challenges = webAuthnChallengeStore.getIfAvailable();
+    if (buckets == null && challenges == null) {
+      return;
+    }
+    schedulerLockService.runExclusively(
+        "shared-state-sweep",
+        sharedStateSweepLease,
+        () -> {
+          if (buckets != null) {
+            buckets.sweepIdle();
+          }
+          if (challenges != null) {
+            challenges.sweepExpired();
+          }
+        });
+  }
+
+  /** Fail upload and background jobs whose instance stopped sending heartbeats. */
+  @Scheduled(fixedDelayString = "${app.jobs.reap-ms:30000}")
+  public void reapStaleJobs() {
+    schedulerLockService.runExclusively(
+        "job-reap",
+        jobReapLease,
+        () -> {
+          jobTrackingService.reapStaleJobs();
+          backgroundJobRegistry.reapStaleJobs();
+        });
+  }
+
+  /** Delete finished upload and background jobs past retention. */
+  @Scheduled(fixedDelayString = "${app.jobs.prune-ms:3600000}")
+  public void pruneJobs() {
+    schedulerLockService.runExclusively(
+        "job-prune",
+        jobPruneLease,
+        () -> {
+          jobTrackingService.pruneFinishedJobs();
+          backgroundJobRegistry.pruneFinishedJobs();
+        });
+  }
+
+  static Duration lease(long intervalMs) {
+    return Duration.ofMillis(intervalMs * 9 / 10);
+  }
+}
@@ -0,0 +1,137 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.dao.CollectionClosureRepository;
+import edens.zac.portfolio.backend.dao.CollectionClosureRepository.ClosureDrift;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps the {@code collection_closure} ancestry table (V55) in step with collection-to-collection
+ * links. The hooks sit beside the {@link RoleGrantPropagationService} hooks in {@link
+ * CollectionService} and run inside the same transaction as the link write, so a rolled-back link
+ * never leaves closure rows behind. Callers must run the closure hook BEFORE anything that reads
+ * the closure: the cycle check of the next link, and the role-grant waterfall, whose subtree
+ * inserts and unlink revokes in {@code RoleRepository} join against it.
+ *
+ * <p>Every hook, the cycle checks and {@link #rebuild} take the closure maintenance lock, held
+ * until the transaction commits, so concurrent link writes apply one after the other against each
+ * other's committed rows, and a cycle check still holds when its link is written.
+ *
+ * <p>{@link #rebuild} and {@link #check} back the admin repair endpoints: the check compares the
+ * table with a fresh derivation, so any link writer that bypasses these hooks shows up as drift.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CollectionClosureService {
+
+  /** Mismatches returned by {@link #check}; the count is what matters beyond a sample. */
+  static final int DRIFT_SAMPLE_LIMIT = 100;
+
+  private final CollectionClosureRepository closureRepository;
+
+  /** Result of a rebuild or consistency check. */
+  public record ClosureReport(int rows, List<ClosureDrift> drift) {}
+
+  /** Link hook: a new parent-to-child link, applied incrementally. */
+  @Transactional
+  public void onChildLinked(Long parentId, Long childId, boolean visible) {
+    closureRepository.lockForMaintenance();
+    closureRepository.applyLinkAdded(parentId, childId, visible);
+  }
+
+  /** Unlink hook: re-derive the pairs the removed link may have carried. */
+  @Transactional
+  public void onChildUnlinked(Long parentId, Long childId) {
+    closureRepository.lockForMaintenance();
+    int rows = closureRepository.refreshFromAncestorsOf(parentId);
+    log.debug(
+        "Unlinked collection {} from {}: re-derived {} closure rows", childId, parentId, rows);
+  }
+
+  /**
+   * Visibility-toggle hook. Revealing only adds a visible chain, so it is applied incrementally;
+   * hiding can break the only visible chain between a pair, so the affected pairs are re-derived.
+   * No-op when the flag did not actually change.
+   */
+  @Transactional
+  public void onChildVisibilityToggled(
+      Long parentId, Long childId, boolean wasVisible, boolean nowVisible) {
+    if (wasVisible == nowVisible) {
+      return;
+    }
+    closureRepository.lockForMaintenance();
+    if (nowVisible) {
+      closureRepository.applyLinkAdded(parentId, childId, true);
+    } else {
+      closureRepository.refreshFromAncestorsOf(parentId);
+    }
+  }
+
+  /**
+   * Delete hook: call after the collection's links have been removed but before the row itself is
+   * deleted, while the closure still knows its ancestors. Their rows are re-derived without the
+   * chains that ran through it; its own rows go with them.
+   */
+  @Transactional
+  public void onCollectionDetached(Long collectionId) {
+    closureRepository.lockForMaintenance();
+    closureRepository.refreshFromAncestorsOf(collectionId);
+  }
+
+  /** Whether linking {@code childId} under {@code parentId} would close a cycle. */
+  @Transactional(readOnly = true)
+  public boolean wouldCreateCycle(Long parentId, Long childId) {
+    if (parentId.equals(childId)) {
+      return true;
+    }
+    closureRepository.lockForMaintenance();
+    return closureRepository.isAncestor(childId, parentId);
+  }
+
+  /**
+   * Batch form of {@link #wouldCreateCycle}: the candidates that would close a cycle under {@code
+   * parentId}, from one read of the parent's ancestors. Linking one candidate never adds an
+   * ancestor to the parent, so the answer holds for the whole batch however it is applied.
+   */
+  @Transactional(readOnly = true)
+  public List<Long> cycleClosingChildren(Long parentId, Collection<Long> childIds) {
+    closureRepository.lockForMaintenance();
+    Set<Long> blocked = new HashSet<>(closureRepository.findAncestorIds(parentId));
+    blocked.add(parentId);
+    return childIds.stream().filter(blocked::contains).toList();
+  }
+
+  /**
+   * Rebuild the whole table from the link graph.
+   *
+   * @return The rebuilt row count and the drift found (and repaired) beforehand
+   */
+  @Transactional
+  public ClosureReport rebuild() {
+    closureRepository.lockForMaintenance();
+    List<ClosureDrift> drift = closureRepository.findDrift(DRIFT_SAMPLE_LIMIT);
+    if (!drift.isEmpty()) {
+      log.warn("collection_closure drift before rebuild: {} mismatches (sampled)", drift.size());
+    }
+    return new ClosureReport(closureRepository.rebuild(), drift);
+  }
+
+  /**
+   * Compare the table with the link graph without changing it. Not a read-only transaction: the
+   * fresh derivation goes through temporary tables.
+   *
+   * @return The current row count and a sample of mismatched pairs (empty when consistent)
+   */
+  @Transactional
+  public ClosureReport check() {
+    return new ClosureReport(
+        closureRepository.count(), closureRepository.findDrift(DRIFT_SAMPLE_LIMIT));
+  }
+}
@@ -9,6 +9,7 @@ import edens.zac.portfolio.backend.dao.CollectionRepository;
 import edens.zac.portfolio.backend.dao.CollectionSiblingRepository;
 import edens.zac.portfolio.backend.dao.ContentRepository;
 import edens.zac.portfolio.backend.dao.LocationRepository;
+import edens.zac.portfolio.backend.dao.LocationStatsRepository;
 import edens.zac.portfolio.backend.dao.TagRepository;
 import edens.zac.portfolio.backend.entity.CollectionContentEntity;
 import edens.zac.portfolio.backend.entity.CollectionEntity;
@@ -32,12 +33,11 @@ import edens.zac.portfolio.backend.types.CollectionVisibility;
 import edens.zac.portfolio.backend.types.ContentType;
 import edens.zac.portfolio.backend.types.FilmFormat;
 import java.time.LocalDateTime;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -70,6 +70,7 @@ public class CollectionService {
   private final CollectionSiblingRepository collectionSiblingRepository;
   private final ContentRepository contentRepository;
   private final LocationRepository locationRepository;
+  private final LocationStatsRepository locationStatsRepository;
   private final TagRepository tagRepository;
   private final ContentMutationUtil contentMutationUtil;
   private final ContentModelConverter contentModelConverter;
@@ -81,6 +82,7 @@ public class CollectionService {
   private final ClientGalleryAuthService clientGalleryAuthService;
   private final CollectionAccessService collectionAccessService;
   private final RoleGrantPropagationService roleGrantPropagationService;
+  private final CollectionClosureService collectionClosureService;
   private final Environment springEnv;
   private final CacheManager cacheManager;
 
@@ -202,57 +204,22 @@ public class CollectionService {
     return collectionProcessingUtil.batchConvertToBasicModels(entities);
   }
 
-  @Transactional(readOnly = true)
-  public LocationPageResponse getLocationPage(
-      String locationName, int collectionPage, int collectionSize, int imagePage, int imageSize) {
-    log.debug("Getting location page for: {}", locationName);
-
-    // Get visible collections at this location
-    long totalCollections = collectionRepository.countListedByLocationName(locationName);
-    int collectionOffset = collectionPage * collectionSize;
-    List<CollectionEntity> collectionEntities =
-        collectionRepository.findListedByLocationName(
-            locationName, collectionSize, collectionOffset);
-
-    List<CollectionModel> collections =
-        collectionProcessingUtil.batchConvertToBasicModels(collectionEntities);
-
-    // Get IDs of ALL visible collections at this location (for orphan exclusion).
-    // If the paginated result already covers all collections, extract IDs directly
-    // to avoid a redundant query.
-    List<Long> allCollectionIds;
-    if (totalCollections <= collectionSize) {
-      allCollectionIds = collectionEntities.stream().map(CollectionEntity::getId).toList();
-    } else {
-      allCollectionIds = collectionRepository.findListedIdsByLocationName(locationName);
-    }
-
-    // Get orphan images (at this location but not in any of those collections)
-    int imageOffset = imagePage * imageSize;
-    List<ContentImageEntity> orphanImageEntities =
-        contentRepository.findOrphanImagesByLocationName(
-            locationName, allCollectionIds, imageSize, imageOffset);
-    long totalImages =
-        contentRepository.countOrphanImagesByLocationName(locationName, allCollectionIds);
-
-    List<ContentModels.Image> images =
-        contentModelConverter.batchConvertImageEntitiesToModels(orphanImageEntities);
-
-    // Resolve the location record from the location entity (looked up by name)
-    LocationEntity locationEntity =
-        locationRepository.findByLocationName(locationName).orElse(null);
-    Records.Location location =
-        locationEntity != null
-            ? new Records.Location(
-                locationEntity.getId(), locationEntity.getLocationName(), locationEntity.getSlug())
-            : new Records.Location(null, locationName, SlugUtil.generateSlug(locationName));
-
-    return new LocationPageResponse(location, collections, images, totalCollections, totalImages);
-  }
-
+  /**
+   * The location page: one page of the LISTED collections at the location and one page of its
+   * orphan images, with totals from {@code location_stats}. Each listing pages by its opaque cursor
+   * when one is given, else by page number.
+   *
+   * @throws IllegalArgumentException if a cursor is malformed
+   */
   @Transactional(readOnly = true)
   public LocationPageResponse getLocationPageBySlug(
-      String slug, int collectionPage, int collectionSize, int imagePage, int imageSize) {
+      String slug,
+      int collectionPage,
+      int collectionSize,
+      String collectionCursor,
+      int imagePage,
+      int imageSize,
+      String imageCursor) {
     log.debug("Getting location page by slug: {}", slug);
 
     LocationEntity locationEntity =
@@ -260,9 +227,55 @@ public class CollectionService {
             .findBySlug(slug)
             .orElseThrow(
                 () -> new ResourceNotFoundException("Location not found with slug: " + slug));
+    Long locationId = locationEntity.getId();
+
+    // One extra row tells whether another page follows without a count query.
+    LocationPageCursor.CollectionKey collectionsAfter =
+        LocationPageCursor.decodeCollection(collectionCursor);
+    List<CollectionEntity> collectionEntities =
+        collectionRepository.findListedByLocationId(
+            locationId,
+            collectionsAfter,
+            collectionSize + 1,
+            collectionsAfter == null ? collectionPage * collectionSize : 0);
+    String nextCollectionCursor = null;
+    if (collectionEntities.size() > collectionSize) {
+      collectionEntities = collectionEntities.subList(0, collectionSize);
+      CollectionEntity last = collectionEntities.getLast();
+      nextCollectionCursor =
+          LocationPageCursor.encode(
+              new LocationPageCursor.CollectionKey(
+                  last.getRating(), last.getCollectionDate(), last.getId()));
+    }
 
-    return getLocationPage(
-        locationEntity.getLocationName(), collectionPage, collectionSize, imagePage, imageSize);
+    LocationPageCursor.ImageKey imagesAfter = LocationPageCursor.decodeImage(imageCursor);
+    List<ContentImageEntity> orphanImageEntities =
+        contentRepository.findOrphanImagesByLocationId(
+            locationId,
+            imagesAfter,
+            imageSize + 1,
+            imagesAfter == null ? imagePage * imageSize : 0);
+    String nextImageCursor = null;
+    if (orphanImageEntities.size() > imageSize) {
+      orphanImageEntities = orphanImageEntities.subList(0, imageSize);
+      ContentImageEntity last = orphanImageEntities.getLast();
+      nextImageCursor =
+          LocationPageCursor.encode(
+              new LocationPageCursor.ImageKey(last.getCaptureDate(), last.getId()));
+    }
+
+    Optional<Records.LocationWithCounts> counts =
+        locationStatsRepository.findByLocationId(locationId);
+
+    return new LocationPageResponse(
+        new Records.Location(
+            locationId, locationEntity.getLocationName(), locationEntity.getSlug()),
+        collectionProcessingUtil.batchConvertToBasicModels(collectionEntities),
+        contentModelConverter.batchConvertImageEntitiesToModels(orphanImageEntities),
+        counts.map(Records.LocationWithCounts::collectionCount).orElse(0),
+        counts.map(Records.LocationWithCounts::imageCount).orElse(0),
+        nextCollectionCursor,
+        nextImageCursor);
   }
 
   @Transactional(readOnly = true)
@@ -342,17 +355,29 @@ public class CollectionService {
   }
 
   /**
-   * Link an existing collection as a child of a parent collection. Creates the
+   * Link an existing collection as a visible child of a parent collection. Creates the
    * ContentCollectionEntity if needed and adds the join table entry. No-op if already linked.
    */
   @Transactional
   public void linkCollectionToParent(Long parentId, Long childCollectionId) {
+    linkCollectionToParent(parentId, childCollectionId, true);
+  }
+
+  /**
+   * Link an existing collection as a child of a parent collection, visibly or hidden. A hidden link
+   * does not waterfall the parent's role grants (mirroring the {@code cc.visible} gate used by
+   * propagation), so the child is reachable only through grants made on it directly. No-op if
+   * already linked.
+   */
+  @Transactional
+  public void linkCollectionToParent(Long parentId, Long childCollectionId, boolean visible) {
     // `final` is load-bearing for checkstyle's VariableDeclarationUsageDistance: the parent is
     // resolved up front (it must exist before anything else happens) but is not read until the
     // S6 password propagation at the end of the method.
     // NOTE: this is not the only writer of a parent-to-child join row --
-    // handleCollectionToCollectionUpdates builds one inline for the admin Structure tab. Both must
-    // run validateNoLinkCycle and propagateGalleryPasswordOnLink.
+    // handleCollectionToCollectionUpdates builds one inline for the admin Structure tab, and
+    // linkCollectionsToParent batches them for tag conversion. All must run the cycle check and
+    // propagateGalleryPasswordOnLink.
     final CollectionEntity parentEntity =
         collectionRepository
             .findById(parentId)
@@ -393,24 +418,110 @@ public class CollectionService {
             .collectionId(parentId)
             .contentId(contentCollectionEntity.getId())
             .orderIndex(orderIndex)
-            .visible(true)
+            .visible(visible)
             .createdAt(LocalDateTime.now())
             .updatedAt(LocalDateTime.now())
             .build();
 
     collectionRepository.saveContent(joinEntry);
     log.info(
-        "Linked child collection {} to parent {} at index {}",
+        "Linked child collection {} to parent {} at index {} (visible={})",
         childCollectionId,
         parentId,
-        orderIndex);
+        orderIndex,
+        visible);
 
-    // Waterfall: the new child inherits every grant the parent holds (origin preserved).
-    roleGrantPropagationService.onChildLinked(parentId, childCollectionId);
+    collectionClosureService.onChildLinked(parentId, childCollectionId, visible);
+    // Waterfall: a visibly linked child inherits every grant the parent holds (origin preserved).
+    if (visible) {
+      roleGrantPropagationService.onChildLinked(parentId, childCollectionId);
+    }
 
     propagateGalleryPasswordOnLink(parentEntity, childEntity);
   }
 
+  /**
+   * Batch form of {@link #linkCollectionToParent} for many children of one parent (tag conversion).
+   * The parent and children are loaded once, the cycle check is one closure read for the whole
+   * batch, already-linked children are found with one query, and the new join rows go in as one
+   * JDBC batch with consecutive order indexes in {@code childCollectionIds} order. The closure,
+   * role-grant and S6 password hooks still run per new link, exactly as on the single path.
+   *
+   * @return Number of links created (already-linked and duplicate children are skipped)
+   */
+  @Transactional
+  public int linkCollectionsToParent(Long parentId, List<Long> childCollectionIds) {
+    List<Long> childIds = childCollectionIds.stream().distinct().toList();
+    if (childIds.isEmpty()) {
+      return 0;
+    }
+    final CollectionEntity parentEntity =
+        collectionRepository
+            .findById(parentId)
+            .orElseThrow(
+                () ->
+                    new ResourceNotFoundException(
+                        "Parent collection not found with ID: " + parentId));
+
+    List<Long> cycles = collectionClosureService.cycleClosingChildren(parentId, childIds);
+    if (!cycles.isEmpty()) {
+      throw new IllegalArgumentException(
+          "Cycle detected: collections "
+              + cycles
+              + " are "
+              + parentId
+              + " or its ancestors and cannot also be its children");
+    }
+
+    Map<Long, CollectionEntity> childrenById =
+        collectionRepository.findByIds(childIds).stream()
+            .collect(Collectors.toMap(CollectionEntity::getId, c -> c));
+    List<Long> missing = childIds.stream().filter(id -> !childrenById.containsKey(id)).toList();
+    if (!missing.isEmpty()) {
+      throw new ResourceNotFoundException("Child collections not found with IDs: " + missing);
+    }
+
+    Map<Long, ContentCollectionEntity> contentByChildId = new LinkedHashMap<>();
+    for (Long childId : childIds) {
+      contentByChildId.put(childId, findOrCreateContentCollectionEntity(childrenById.get(childId)));
+    }
+    Set<Long> alreadyLinked =
+        collectionRepository.findLinkedContentIds(
+            parentId,
+            contentByChildId.values().stream().map(ContentCollectionEntity::getId).toList());
+
+    Integer maxOrderIndex = collectionRepository.getMaxOrderIndexForCollection(parentId);
+    int orderIndex = maxOrderIndex != null ? maxOrderIndex + 1 : 0;
+    LocalDateTime now = LocalDateTime.now();
+    List<Long> linkedChildIds = new ArrayList<>();
+    List<CollectionContentEntity> joinEntries = new ArrayList<>();
+    for (Map.Entry<Long, ContentCollectionEntity> entry : contentByChildId.entrySet()) {
+      if (alreadyLinked.contains(entry.getValue().getId())) {
+        log.debug("Collection {} already linked to parent {}", entry.getKey(), parentId);
+        continue;
+      }
+      linkedChildIds.add(entry.getKey());
+      joinEntries.add(
+          CollectionContentEntity.builder()
+              .collectionId(parentId)
+              .contentId(entry.getValue().getId())
+              .orderIndex(orderIndex++)
+              .visible(true)
+              .createdAt(now)
+              .updatedAt(now)
+              .build());
+    }
+    collectionRepository.saveContentBatch(joinEntries);
+
+    for (Long childId : linkedChildIds) {
+      collectionClosureService.onChildLinked(parentId, childId, true);
+      roleGrantPropagationService.onChildLinked(parentId, childId);
+      propagateGalleryPasswordOnLink(parentEntity, childrenById.get(childId));
+    }
+    log.info("Linked {} child collections to parent {}", linkedChildIds.size(), parentId);
+    return linkedChildIds.size();
+  }
+
   /**
    * S6: linkage is a password-propagation trigger, symmetric with the role-grant waterfall. {@code
    * updateGalleryAccess} was the only writer, so a client gallery linked after the parent's
@@ -439,49 +550,32 @@ public class CollectionService {
 
   /**
    * Reject a link that would close a cycle. Called from both writers that create a parent-to-child
-   * join row: {@link #linkCollectionToParent} (createChildCollection, the staging auto-link and tag
-   * conversion) and {@code handleCollectionToCollectionUpdates} (the admin Structure tab, which
-   * builds the join row inline).
+   * join row: {@link #linkCollectionToParent} (createChildCollection and the staging auto-link) and
+   * {@code handleCollectionToCollectionUpdates} (the admin Structure tab, which builds the join row
+   * inline). {@link #linkCollectionsToParent} runs the batch form for tag conversion.
    *
    * <p>The pre-existing {@code validateNoParentCycles} runs only on the inverse {@code parents}
-   * path and catches only self- and 2-cycles by its own admission. This is a full ancestor walk,
-   * cycle-guarded with a visited set exactly like {@code RoleGrantPropagationService#subtreeOf}, so
-   * an existing cycle in the data cannot make the guard itself loop. A cycle matters because every
-   * member becomes simultaneously an ancestor and a descendant of every other, so role grants merge
-   * across it -- a client gallery's grants would waterfall onto a public collection.
+   * path and catches only self- and 2-cycles by its own admission. This checks the full ancestry
+   * with a single {@code collection_closure} lookup (is the child already above the parent?), so it
+   * costs the same at any depth. A cycle matters because every member becomes simultaneously an
+   * ancestor and a descendant of every other, so role grants merge across it -- a client gallery's
+   * grants would waterfall onto a public collection.
    */
   private void validateNoLinkCycle(Long parentId, Long childCollectionId) {
     if (parentId.equals(childCollectionId)) {
       throw new IllegalArgumentException(
           "A collection cannot be its own parent (id=" + parentId + ")");
     }
-    Set<Long> visited = new HashSet<>();
-    visited.add(parentId);
-    Deque<Long> pending = new ArrayDeque<>(parentIdsOf(parentId));
-    while (!pending.isEmpty()) {
-      Long current = pending.poll();
-      if (!visited.add(current)) {
-        continue;
-      }
-      if (current.equals(childCollectionId)) {
-        throw new IllegalArgumentException(
-            "Cycle detected: collection "
-                + childCollectionId
-                + " is already an ancestor of "
-                + parentId
-                + " and cannot also be its child");
-      }
-      pending.addAll(parentIdsOf(current));
+    if (collectionClosureService.wouldCreateCycle(parentId, childCollectionId)) {
+      throw new IllegalArgumentException(
+          "Cycle detected: collection "
+              + childCollectionId
+              + " is already an ancestor of "
+              + parentId
+              + " and cannot also be its child");
     }
   }
 
-  /** Ids of every collection referencing this one as a child, regardless of link visibility. */
-  private List<Long> parentIdsOf(Long collectionId) {
-    return collectionRepository.findAllParentCollectionsByChildId(collectionId).stream()
-        .map(CollectionEntity::getId)
-        .toList();
-  }
-
   @Transactional(readOnly = true)
   public CollectionModel findById(Long id) {
     log.debug("Finding collection by ID: {}", id);
@@ -712,6 +806,8 @@ public class CollectionService {
     // removed by ON DELETE CASCADE when the collection row is deleted.
     collectionRepository.deleteContentByCollectionId(id);
     tagRepository.deleteCollectionTags(id);
+    // With every link to and from it gone, drop the ancestry chains that ran through it.
+    collectionClosureService.onCollectionDetached(id);
     log.debug("Disassociated content, tags, and parent references for collection ID: {}", id);
 
     // Delete collection
@@ -815,7 +911,11 @@ public class CollectionService {
     }
 
     // Populate admin-only fields so the manage page can display/edit them.
-    collection.setGalleryPassword(entity.getGalleryPassword());
+    // Hashed passwords cannot be shown back; only a legacy plaintext row still has one to display.
+    collection.setGalleryPassword(
+        ClientGalleryAuthService.isHashed(entity.getGalleryPassword())
+            ? null
+            : entity.getGalleryPassword());
     collection.setRecipientEmails(entity.getRecipientEmails());
 
     collection.setParents(
@@ -984,8 +1084,10 @@ public class CollectionService {
             .filter(Objects::nonNull)
             .map(CollectionEntity::getId)
             .forEach(
-                childId ->
-                    roleGrantPropagationService.onChildUnlinked(parentCollection.getId(), childId));
+                childId -> {
+                  collectionClosureService.onChildUnlinked(parentCollection.getId(), childId);
+                  roleGrantPropagationService.onChildUnlinked(parentCollection.getId(), childId);
+                });
       } else {
         log.debug(
             "No matching content collections found to remove from collection {}",
@@ -1048,6 +1150,10 @@ public class CollectionService {
               childCollectionEntity.getId(),
               parentCollection.getId(),
               orderIndex);
+          collectionClosureService.onChildLinked(
+              parentCollection.getId(),
+              childCollectionEntity.getId(),
+              Boolean.TRUE.equals(newEntry.getVisible()));
 
           // Waterfall: a visibly linked child inherits the parent's grants. Hidden links do not
           // waterfall (mirrors the cc.visible gate used by propagation and the V47 backfill).
@@ -1070,6 +1176,11 @@ public class CollectionService {
             boolean wasVisible = Boolean.TRUE.equals(existingJoinEntry.getVisible());
             collectionRepository.updateContentVisible(
                 existingJoinEntry.getId(), childCollection.visible());
+            collectionClosureService.onChildVisibilityToggled(
+                parentCollection.getId(),
+                childCollectionEntity.getId(),
+                wasVisible,
+                childCollection.visible());
             // Waterfall: flipping an existing link's visibility re-syncs the child subtree's
             // inherited grants (materialize on reveal, strip on hide) -- the toggle otherwise
             // bypasses propagation and drifts from the cc.visible gate.
@@ -1113,6 +1224,8 @@ public class CollectionService {
           if (prev.visible() != null) {
             boolean wasVisible = Boolean.TRUE.equals(joinEntry.getVisible());
             collectionRepository.updateContentVisible(joinEntry.getId(), prev.visible());
+            collectionClosureService.onChildVisibilityToggled(
+                parentCollection.getId(), prev.collectionId(), wasVisible, prev.visible());
             // Waterfall: same visibility re-sync as the newValue path (materialize on reveal,
             // strip on hide).
             roleGrantPropagationService.onChildVisibilityToggled(
@@ -1630,14 +1743,17 @@ public class CollectionService {
     List<String> emails =
         request.emails() != null && !request.emails().isEmpty() ? request.emails() : List.of();
 
-    collectionRepository.saveGalleryAccess(id, request.password(), emails);
+    // Hashed once so the target and every propagated child store the same value, which is what
+    // their shared fingerprint cookie keys on. The plaintext only goes to the emails below.
+    String passwordHash = clientGalleryAuthService.hashPassword(request.password());
+    collectionRepository.saveGalleryAccess(id, passwordHash, emails);
     log.info(
         "Set gallery password (id={}, slug={}, recipients={})",
         id,
         entity.getSlug(),
         emails.size());
 
-    propagatePasswordToChildrenIfRequested(entity, request);
+    propagatePasswordToChildrenIfRequested(entity, request, passwordHash);
 
     if (emails.isEmpty()) {
       return new GalleryAccessResponse(true, false, null, request.password(), List.of());
@@ -1668,7 +1784,7 @@ public class CollectionService {
    * it upstream, and a target with no client children simply writes nothing.
    */
   private void propagatePasswordToChildrenIfRequested(
-      CollectionEntity parent, GalleryAccessRequest request) {
+      CollectionEntity parent, GalleryAccessRequest request, String passwordHash) {
     if (!Boolean.TRUE.equals(request.propagateToChildren())) {
       log.debug(
           "Skipping password propagation (parentId={}, propagate={})",
@@ -1687,7 +1803,7 @@ public class CollectionService {
         clientGalleryCount);
     for (CollectionEntity child : children) {
       if (child.isClient()) {
-        collectionRepository.updateGalleryPassword(child.getId(), request.password());
+        collectionRepository.updateGalleryPassword(child.getId(), passwordHash);
         log.info(
             "Propagated parent (id={}) gallery password to client child (id={}, slug={})",
             parent.getId(),
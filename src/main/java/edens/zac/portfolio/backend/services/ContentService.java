@@ -858,7 +858,8 @@ public class ContentService {
         continue;
       }
       String filename = sanitizeFilename(image.getOriginalFilename(), image.getId(), extension);
-      resolutions.add(new DownloadResolution(s3Key, extension, contentType, filename));
+      resolutions.add(
+          new DownloadResolution(s3Key, extension, contentType, filename, image.getUpdatedAt()));
     }
     return resolutions;
   }
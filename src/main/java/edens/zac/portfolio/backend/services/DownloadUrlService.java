@@ -1,12 +1,17 @@
 package edens.zac.portfolio.backend.services;
 
 import edens.zac.portfolio.backend.model.DownloadResolution;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import lombok.RequiredArgsConstructor;
@@ -14,10 +19,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 
@@ -34,6 +43,16 @@ import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignReques
  * <p>For a multi-image download we can't presign a not-yet-existing archive, so we build the ZIP
  * into a temporary S3 object (streamed via {@link S3MultipartOutputStream}, memory-flat) and
  * presign that. Temp objects live under {@link #TMP_PREFIX} and are reaped by an S3 lifecycle rule.
+ * Entry GETs are prefetched a few at a time ({@link ZipEntryPrefetcher}) and finished parts upload
+ * in the background, so building the archive is bounded by S3 throughput rather than per-request
+ * latency.
+ *
+ * <p>Entries are written STORED, not DEFLATEd: JPEG and WebP are already compressed, so deflating
+ * them only burns CPU. Archives past 4 GB or 65,535 entries get ZIP64 records from {@link
+ * ZipOutputStream} automatically. Collection archives are content-addressed under {@link
+ * #CACHE_PREFIX} so a repeat "download all" of an unchanged gallery presigns the existing object
+ * instead of rebuilding it -- but only an archive built without {@code .error.txt} placeholders, so
+ * a transient S3 failure is not served to every later download of the gallery.
  */
 @Slf4j
 @Service
@@ -48,12 +67,75 @@ public class DownloadUrlService {
    */
   static final String TMP_PREFIX = "downloads-tmp/";
 
+  /**
+   * Prefix for reusable collection archives. Inside {@link #TMP_PREFIX}, so the same lifecycle rule
+   * expires them.
+   */
+  static final String CACHE_PREFIX = TMP_PREFIX + "cache/";
+
+  /**
+   * Suffix of the empty marker object written beside a cached archive once it has been built with
+   * every entry present. Reuse is decided on the marker, so an archive carrying placeholders is
+   * rebuilt on the next request instead of being presigned again.
+   */
+  static final String COMPLETE_MARKER_SUFFIX = ".complete";
+
+  private static final String FORMAT_ORIGINAL = "original";
+
+  /** Receives one callback per ZIP entry written, with the entry's body size. */
+  @FunctionalInterface
+  public interface ZipProgress {
+    ZipProgress NONE = bytes -> {};
+
+    void entryWritten(long bytes);
+  }
+
   private final S3Client s3Client;
   private final S3Presigner s3Presigner;
+  private final S3CopyZipAssembler copyZipAssembler;
 
   @Value("${aws.portfolio.s3.bucket}")
   private String bucketName;
 
+  /** How many upcoming ZIP entries are fetched from S3 ahead of the writer. */
+  @Value("${app.download.zip.prefetch-concurrency:8}")
+  private int prefetchConcurrency;
+
+  /** Cap on bytes reserved by prefetched-but-unwritten entries. */
+  @Value("${app.download.zip.prefetch-budget-mb:256}")
+  private long prefetchBudgetMb;
+
+  /** Entries larger than this are streamed into the archive instead of buffered. */
+  @Value("${app.download.zip.stream-threshold-mb:32}")
+  private long streamThresholdMb;
+
+  /** Multipart parts uploaded concurrently; each holds one ~5 MB buffer. */
+  @Value("${app.download.zip.upload-concurrency:4}")
+  private int uploadConcurrency;
+
+  /**
+   * How long a cached archive is reused. Must stay below the 1-day lifecycle expiry by more than
+   * {@link #URL_TTL}, so a presigned URL never points at an object about to be reaped. 0 disables
+   * reuse.
+   */
+  @Value("${app.download.zip.cache-reuse-hours:20}")
+  private long cacheReuseHours;
+
+  /**
+   * Assemble originals archives with server-side part copies ({@link S3CopyZipAssembler}) instead
+   * of streaming every byte through the JVM.
+   */
+  @Value("${app.download.zip.server-side-copy:true}")
+  private boolean serverSideCopy;
+
+  // Virtual threads: ZIP prefetch and part uploads are pure S3 I/O waits.
+  private final ExecutorService zipIoExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+  @PreDestroy
+  void shutdown() {
+    zipIoExecutor.shutdownNow();
+  }
+
   /**
    * Presign a GET for an existing S3 object, forcing a browser download with the given filename and
    * content type.
@@ -76,53 +158,253 @@ public class DownloadUrlService {
 
   /**
    * Build a ZIP of {@code entries} into a temporary S3 object and return a presigned URL to it. The
-   * archive is streamed to S3 part-by-part, so peak memory is one ~5 MB part regardless of gallery
-   * size. A per-image S3 failure is written into the ZIP as a small {@code .error.txt} placeholder
-   * rather than aborting the whole download.
+   * archive is streamed to S3 part-by-part, so peak memory is the prefetch budget plus a few ~5 MB
+   * parts regardless of gallery size or of the size of any one image. A per-image S3 failure is
+   * written into the ZIP as a small {@code .error.txt} placeholder rather than aborting the whole
+   * download.
    */
   public URI zipToS3AndPresign(List<DownloadResolution> entries, String zipFilename)
       throws IOException {
     String key = TMP_PREFIX + UUID.randomUUID() + "/" + zipFilename;
-    S3MultipartOutputStream s3Out = new S3MultipartOutputStream(s3Client, bucketName, key);
+    buildZip(entries, key, ZipProgress.NONE);
+    return presignObject(key, "application/zip", zipFilename);
+  }
+
+  /**
+   * Like {@link #zipToS3AndPresign}, but the archive is stored under a key derived from {@code
+   * (collectionId, format, content version, selection)}. If that object already exists and is
+   * younger than the reuse window it is presigned again without touching the source images. An
+   * archive in which any entry became an {@code .error.txt} placeholder is never reused.
+   *
+   * <p>The content version and selection both come from {@code entries}: every entry's S3 key,
+   * filename and {@code updatedAt}, in order. Reordering, re-uploading or swapping an image
+   * therefore yields a new key, and the stale archive simply ages out. Two concurrent builds of the
+   * same key write identical bytes, so whichever completes last is still correct.
+   *
+   * <p>A {@code format=original} archive is assembled server-side by {@link S3CopyZipAssembler}
+   * when enabled. Web images are small enough that part-size coalescing would read them all anyway,
+   * so those keep the streaming builder.
+   */
+  public URI cachedZipToS3AndPresign(
+      Long collectionId, String format, List<DownloadResolution> entries, String zipFilename)
+      throws IOException {
+    String key = buildCachedZip(collectionId, format, entries, zipFilename, ZipProgress.NONE);
+    return presignObject(key, "application/zip", zipFilename);
+  }
+
+  /**
+   * Ensure the cached archive for these entries exists and return its S3 key, reporting each entry
+   * to {@code progress} as it is written (a reused archive reports nothing). Used directly by
+   * {@link ArchiveJobService}, which presigns the key only when the client asks for the file.
+   */
+  String buildCachedZip(
+      Long collectionId,
+      String format,
+      List<DownloadResolution> entries,
+      String zipFilename,
+      ZipProgress progress)
+      throws IOException {
+    String key = CACHE_PREFIX + archiveCacheKey(collectionId, format, entries) + "/" + zipFilename;
+    String marker = key + COMPLETE_MARKER_SUFFIX;
+    if (isReusableArchive(marker)) {
+      log.info("Reusing cached ZIP download (key={}, count={})", key, entries.size());
+      return key;
+    }
+    int placeholders;
+    if (serverSideCopy && FORMAT_ORIGINAL.equalsIgnoreCase(format)) {
+      placeholders =
+          copyZipAssembler.assemble(entries, key, zipIoExecutor, uploadConcurrency, progress);
+    } else {
+      placeholders = buildZip(entries, key, progress);
+    }
+    if (placeholders > 0) {
+      log.warn(
+          "Not caching ZIP download with {} missing entries (key={}); the next request rebuilds it",
+          placeholders,
+          key);
+    } else if (cacheReuseHours > 0) {
+      markComplete(marker);
+    }
+    return key;
+  }
+
+  static String archiveCacheKey(
+      Long collectionId, String format, List<DownloadResolution> entries) {
+    StringBuilder manifest = new StringBuilder();
+    manifest.append(collectionId).append('\n').append(format.toLowerCase()).append('\n');
+    for (DownloadResolution entry : entries) {
+      manifest
+          .append(entry.s3Key())
+          .append('\t')
+          .append(entry.filename())
+          .append('\t')
+          .append(entry.updatedAt())
+          .append('\n');
+    }
+    return TokenUtil.sha256Hex(manifest.toString());
+  }
+
+  /** True when the archive's complete-marker exists and was written within the reuse window. */
+  private boolean isReusableArchive(String marker) {
+    if (cacheReuseHours <= 0) {
+      return false;
+    }
+    try {
+      HeadObjectResponse head = s3Client.headObject(b -> b.bucket(bucketName).key(marker));
+      return head.lastModified() != null
+          && head.lastModified().isAfter(Instant.now().minus(Duration.ofHours(cacheReuseHours)));
+    } catch (NoSuchKeyException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Mark a freshly built archive as reusable. Written after the archive completes, so the marker
+   * never outlives it under the shared lifecycle rule. A failure only costs the next request a
+   * rebuild.
+   */
+  private void markComplete(String marker) {
+    try {
+      s3Client.putObject(b -> b.bucket(bucketName).key(marker), RequestBody.empty());
+    } catch (SdkException e) {
+      log.warn("Failed to mark cached ZIP complete (key={}): {}", marker, e.getMessage());
+    }
+  }
+
+  /**
+   * Stream a ZIP of {@code entries} to {@code key}.
+   *
+   * @return Entries written as {@code .error.txt} placeholders
+   */
+  private int buildZip(List<DownloadResolution> entries, String key, ZipProgress progress)
+      throws IOException {
+    S3MultipartOutputStream s3Out =
+        new S3MultipartOutputStream(s3Client, bucketName, key, zipIoExecutor, uploadConcurrency);
+    int placeholders;
     try {
       ZipOutputStream zos = new ZipOutputStream(s3Out);
-      writeZipEntries(zos, entries);
+      placeholders = writeZipEntries(zos, entries, progress);
       zos.finish();
       zos.close(); // completes the multipart upload via S3MultipartOutputStream.close()
     } catch (IOException | RuntimeException e) {
       s3Out.abort(); // never complete a truncated archive
       throw e;
     }
-    log.info("Built ZIP download to S3 (key={}, count={})", key, entries.size());
-    return presignObject(key, "application/zip", zipFilename);
+    log.info(
+        "Built ZIP download to S3 (key={}, count={}, placeholders={})",
+        key,
+        entries.size(),
+        placeholders);
+    return placeholders;
   }
 
-  private void writeZipEntries(ZipOutputStream zos, List<DownloadResolution> entries)
+  /** Write every entry in order; returns how many became {@code .error.txt} placeholders. */
+  private int writeZipEntries(
+      ZipOutputStream zos, List<DownloadResolution> entries, ZipProgress progress)
       throws IOException {
-    int seq = 0;
-    for (DownloadResolution entry : entries) {
-      // S3 keys are unique but original_filenames are not — prefix with a sequence number so
-      // ZipOutputStream never throws on duplicate entry names.
-      GetObjectRequest req =
-          GetObjectRequest.builder().bucket(bucketName).key(entry.s3Key()).build();
-      try (ResponseInputStream<GetObjectResponse> in = s3Client.getObject(req)) {
-        zos.putNextEntry(new ZipEntry(String.format("%03d_%s", seq++, entry.filename())));
+    int placeholders = 0;
+    try (ZipEntryPrefetcher prefetcher =
+        new ZipEntryPrefetcher(
+            entries,
+            this::openObject,
+            zipIoExecutor,
+            prefetchConcurrency,
+            prefetchBudgetMb * 1024 * 1024,
+            streamThresholdMb * 1024 * 1024)) {
+      int seq = 0;
+      for (DownloadResolution entry : entries) {
+        ZipEntryPrefetcher.Fetched fetched = prefetcher.next();
+        // S3 keys are unique but original_filenames are not — prefix with a sequence number so
+        // ZipOutputStream never throws on duplicate entry names.
+        String name = String.format("%03d_%s", seq++, entry.filename());
+        SdkException error = fetched.error();
+        if (error == null && fetched.streamed()) {
+          try {
+            writeStreamedEntry(zos, name, entry, fetched);
+          } catch (SdkException e) {
+            error = e;
+          }
+        } else if (error == null) {
+          zos.putNextEntry(storedEntry(name, fetched.size(), fetched.crc()));
+          zos.write(fetched.bytes());
+          zos.closeEntry();
+        }
+        if (error != null) {
+          // Per-image failure must not corrupt the rest of the ZIP: write a placeholder so the
+          // recipient sees something is missing without tearing down the whole download.
+          log.warn(
+              "Failed to fetch S3 object for ZIP entry (key={}): {}",
+              entry.s3Key(),
+              error.getMessage());
+          writeStoredEntry(
+              zos,
+              name + ".error.txt",
+              ("Could not include this image: " + error.getClass().getSimpleName())
+                  .getBytes(StandardCharsets.UTF_8));
+          placeholders++;
+        }
+        progress.entryWritten(error == null ? fetched.size() : 0);
+      }
+    }
+    return placeholders;
+  }
+
+  /**
+   * Write an entry too large to buffer. The prefetcher has read it once for its CRC, so it is
+   * fetched again and copied straight into the archive. Failing to fetch it again, or finding its
+   * size changed, throws {@link SdkException} before anything is written, so the caller can write a
+   * placeholder instead. Once the header is out, a failed read fails the archive.
+   */
+  private void writeStreamedEntry(
+      ZipOutputStream zos,
+      String name,
+      DownloadResolution entry,
+      ZipEntryPrefetcher.Fetched fetched)
+      throws IOException {
+    try (ResponseInputStream<GetObjectResponse> in = openObject(entry)) {
+      if (in.response().contentLength() != fetched.size()) {
+        in.abort();
+        throw SdkClientException.create("Object changed while the archive was being built");
+      }
+      zos.putNextEntry(storedEntry(name, fetched.size(), fetched.crc()));
+      try {
         in.transferTo(zos);
-        zos.closeEntry();
       } catch (SdkException e) {
-        // Per-image failure must not corrupt the rest of the ZIP: write a placeholder so the
-        // recipient sees something is missing without tearing down the whole download.
-        log.warn(
-            "Failed to fetch S3 object for ZIP entry (key={}): {}", entry.s3Key(), e.getMessage());
-        zos.putNextEntry(new ZipEntry(String.format("%03d_%s.error.txt", seq++, entry.filename())));
-        zos.write(
-            ("Could not include this image: " + e.getClass().getSimpleName())
-                .getBytes(StandardCharsets.UTF_8));
-        zos.closeEntry();
+        throw new IOException("Failed to read " + entry.s3Key() + " into the archive", e);
       }
+      zos.closeEntry();
     }
   }
 
+  /** Write one small STORED entry held in memory, such as an error placeholder. */
+  private static void writeStoredEntry(ZipOutputStream zos, String name, byte[] bytes)
+      throws IOException {
+    CRC32 crc = new CRC32();
+    crc.update(bytes);
+    zos.putNextEntry(storedEntry(name, bytes.length, crc.getValue()));
+    zos.write(bytes);
+    zos.closeEntry();
+  }
+
+  /**
+   * A STORED entry header. STORED requires size and CRC-32 up front; the prefetcher has computed
+   * both before the writer reaches the entry, whether or not it kept the bytes.
+   */
+  private static ZipEntry storedEntry(String name, long size, long crc) {
+    ZipEntry zipEntry = new ZipEntry(name);
+    zipEntry.setMethod(ZipEntry.STORED);
+    zipEntry.setSize(size);
+    zipEntry.setCompressedSize(size);
+    zipEntry.setCrc(crc);
+    return zipEntry;
+  }
+
+  /** Send one S3 GET. Runs on a prefetch thread; SdkException becomes a placeholder. */
+  private ResponseInputStream<GetObjectResponse> openObject(DownloadResolution entry) {
+    return s3Client.getObject(
+        GetObjectRequest.builder().bucket(bucketName).key(entry.s3Key()).build());
+  }
+
   private static String contentDisposition(String filename) {
     return "attachment; filename=\"" + filename + "\"";
   }
@@ -0,0 +1,127 @@
+package edens.zac.portfolio.backend.services;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Encrypts {@code email_outbox} bodies at rest. Gallery-password and invite emails carry a password
+ * or a bearer link, so the rendered bodies are sealed with AES-256-GCM before they are queued and
+ * only opened by {@link EmailService#deliver} for the SES call.
+ *
+ * <p>The key is the SHA-256 of {@code email.outbox.encryption-key}. A stored value is {@value
+ * #PREFIX} followed by base64 of a random 12-byte IV and the ciphertext with its tag; a value
+ * without the prefix is a row queued before V65 and is passed through unchanged. The key is
+ * required whenever {@code email.enabled} is true, so nothing is ever queued in plaintext.
+ */
+@Component
+public class EmailBodyCipher {
+
+  /** Version prefix of an encrypted body. */
+  static final String PREFIX = "v1:";
+
+  private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+  private static final int IV_BYTES = 12;
+  private static final int TAG_BITS = 128;
+
+  private final SecretKeySpec key;
+  private final SecureRandom random = new SecureRandom();
+
+  /**
+   * Derive the body key.
+   *
+   * @param secret the {@code email.outbox.encryption-key} secret; may be blank only while email is
+   *     disabled
+   * @param enabled whether email is enabled, in which case a secret is required
+   * @throws IllegalStateException if email is enabled without a secret
+   */
+  public EmailBodyCipher(
+      @Value("${email.outbox.encryption-key:}") String secret,
+      @Value("${email.enabled:false}") boolean enabled) {
+    if (secret == null || secret.isBlank()) {
+      if (enabled) {
+        throw new IllegalStateException(
+            "email.outbox.encryption-key must be set when email.enabled is true");
+      }
+      this.key = null;
+      return;
+    }
+    try {
+      byte[] digest =
+          MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+      this.key = new SecretKeySpec(digest, "AES");
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("SHA-256 unavailable", e);
+    }
+  }
+
+  /**
+   * Seal one body for storage.
+   *
+   * @param plaintext the rendered body
+   * @return the stored form, {@value #PREFIX} plus base64
+   * @throws IllegalStateException if no key is configured
+   */
+  public String encrypt(String plaintext) {
+    if (plaintext == null) {
+      return null;
+    }
+    byte[] iv = new byte[IV_BYTES];
+    random.nextBytes(iv);
+    try {
+      Cipher cipher = cipher(Cipher.ENCRYPT_MODE, iv);
+      byte[] sealed = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+      ByteBuffer out = ByteBuffer.allocate(IV_BYTES + sealed.length).put(iv).put(sealed);
+      return PREFIX + Base64.getEncoder().encodeToString(out.array());
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Could not encrypt outbox body", e);
+    }
+  }
+
+  /**
+   * Open a stored body.
+   *
+   * @param stored a value written by {@link #encrypt}, or a legacy plaintext body
+   * @return the rendered body
+   * @throws IllegalStateException if the value was sealed with another key or has been altered
+   */
+  public String decrypt(String stored) {
+    if (stored == null || !stored.startsWith(PREFIX)) {
+      return stored;
+    }
+    byte[] bytes;
+    try {
+      bytes = Base64.getDecoder().decode(stored.substring(PREFIX.length()));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("Outbox body is not valid base64", e);
+    }
+    if (bytes.length < IV_BYTES) {
+      throw new IllegalStateException("Outbox body is truncated");
+    }
+    try {
+      Cipher cipher = cipher(Cipher.DECRYPT_MODE, Arrays.copyOf(bytes, IV_BYTES));
+      byte[] plain = cipher.doFinal(bytes, IV_BYTES, bytes.length - IV_BYTES);
+      return new String(plain, StandardCharsets.UTF_8);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Could not decrypt outbox body", e);
+    }
+  }
+
+  private Cipher cipher(int mode, byte[] iv) throws GeneralSecurityException {
+    if (key == null) {
+      throw new IllegalStateException("email.outbox.encryption-key is not set");
+    }
+    Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+    cipher.init(mode, key, new GCMParameterSpec(TAG_BITS, iv));
+    return cipher;
+  }
+}
@@ -0,0 +1,234 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.dao.EmailOutboxRepository;
+import edens.zac.portfolio.backend.entity.EmailOutboxEntity;
+import edens.zac.portfolio.backend.types.EmailOutboxStatus;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers the {@code email_outbox} (V60) that {@link EmailService} fills.
+ *
+ * <p>Every {@code email.outbox.poll-ms} the worker claims the due messages -- at most one second's
+ * worth at {@code email.outbox.max-send-rate} -- and sends them no faster than that rate, the SES
+ * account's per-second sending quota. A transient failure puts the message back with exponential
+ * backoff ({@code base-backoff-seconds} doubling per attempt, capped at {@code
+ * max-backoff-seconds}); a rejection SES will repeat, or the {@code max-attempts}-th failure,
+ * dead-letters it for an admin to {@link #resend}. A dead letter keeps its bodies, still encrypted,
+ * until the retention prune.
+ *
+ * <p>Claims use {@code FOR UPDATE SKIP LOCKED}, so several instances can drain the same outbox; the
+ * rate cap is per instance. Delivery is at least once: a worker that dies between the SES call and
+ * recording it leaves the claim to expire, and the message is sent again.
+ */
+@Component
+@Slf4j
+public class EmailOutboxWorker {
+
+  /** How long a claimed message stays reserved for its worker. */
+  static final int CLAIM_LEASE_SECONDS = 300;
+
+  /** Longest page the admin view returns. */
+  static final int MAX_PAGE_SIZE = 200;
+
+  private final EmailOutboxRepository outboxRepository;
+  private final EmailService emailService;
+  private final boolean enabled;
+  private final double maxSendRate;
+  private final int maxAttempts;
+  private final long baseBackoffSeconds;
+  private final long maxBackoffSeconds;
+  private final int retentionDays;
+
+  /** Earliest {@link System#nanoTime} at which the next send may start. */
+  private long nextSendNanos;
+
+  /**
+   * Spring constructor: binds the {@code email.*} settings.
+   *
+   * @param maxSendRate sends per second; match the SES account's maximum send rate
+   * @param maxAttempts attempts before a retryable failure is dead-lettered
+   * @param baseBackoffSeconds delay after the first failed attempt, doubled per further attempt
+   * @param maxBackoffSeconds upper bound on a single retry delay
+   * @param retentionDays how long SENT and DEAD messages are kept
+   */
+  public EmailOutboxWorker(
+      EmailOutboxRepository outboxRepository,
+      EmailService emailService,
+      @Value("${email.enabled:false}") boolean enabled,
+      @Value("${email.outbox.max-send-rate:14}") double maxSendRate,
+      @Value("${email.outbox.max-attempts:8}") int maxAttempts,
+      @Value("${email.outbox.base-backoff-seconds:30}") long baseBackoffSeconds,
+      @Value("${email.outbox.max-backoff-seconds:3600}") long maxBackoffSeconds,
+      @Value("${email.outbox.retention-days:3}") int retentionDays) {
+    this.outboxRepository = outboxRepository;
+    this.emailService = emailService;
+    this.enabled = enabled;
+    this.maxSendRate = Math.max(maxSendRate, 0.1);
+    this.maxAttempts = Math.max(maxAttempts, 1);
+    this.baseBackoffSeconds = Math.max(baseBackoffSeconds, 1);
+    this.maxBackoffSeconds = Math.max(maxBackoffSeconds, this.baseBackoffSeconds);
+    this.retentionDays = retentionDays;
+    this.nextSendNanos = System.nanoTime();
+  }
+
+  /** One outbox message as the admin sees it: delivery state only, never the bodies. */
+  public record OutboxMessage(
+      Long id,
+      String toAddress,
+      String subject,
+      String label,
+      EmailOutboxStatus status,
+      int attempts,
+      LocalDateTime nextAttemptAt,
+      String lastError,
+      String messageId,
+      LocalDateTime createdAt,
+      LocalDateTime sentAt) {}
+
+  /** Admin page of outbox messages in one status, newest first. */
+  public record OutboxPage(
+      EmailOutboxStatus status, List<OutboxMessage> messages, long total, int limit, int offset) {}
+
+  /**
+   * Claim and send the due messages. Runs on the shared scheduler, so one pass is bounded to about
+   * a second of sends.
+   *
+   * @return Messages sent in this pass
+   */
+  @Scheduled(fixedDelayString = "${email.outbox.poll-ms:1000}")
+  public synchronized int drain() {
+    if (!enabled) {
+      return 0;
+    }
+    int batch = (int) Math.max(1, Math.ceil(maxSendRate));
+    List<EmailOutboxEntity> claimed = outboxRepository.claimDue(batch, CLAIM_LEASE_SECONDS);
+    int sent = 0;
+    for (EmailOutboxEntity message : claimed) {
+      if (!awaitSendSlot()) {
+        // Interrupted (shutdown): leave the rest claimed; their leases expire and they go again.
+        break;
+      }
+      if (send(message)) {
+        sent++;
+      }
+    }
+    return sent;
+  }
+
+  /**
+   * Delay before the retry that follows failed attempt number {@code attempts}: the base delay,
+   * doubled per earlier attempt, capped at the maximum.
+   */
+  long backoffSeconds(int attempts) {
+    int doublings = Math.min(Math.max(attempts - 1, 0), 30);
+    return Math.min(baseBackoffSeconds << doublings, maxBackoffSeconds);
+  }
+
+  /**
+   * Outbox messages in {@code status}, for the admin resend view.
+   *
+   * @param limit page size, clamped to 1-{@value #MAX_PAGE_SIZE}
+   * @param offset rows to skip
+   */
+  public OutboxPage list(EmailOutboxStatus status, int limit, int offset) {
+    int safeLimit = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    int safeOffset = Math.max(0, offset);
+    return new OutboxPage(
+        status,
+        outboxRepository.findByStatus(status, safeLimit, safeOffset).stream()
+            .map(
+                m ->
+                    new OutboxMessage(
+                        m.getId(),
+                        m.getToAddress(),
+                        m.getSubject(),
+                        m.getLabel(),
+                        m.getStatus(),
+                        m.getAttempts(),
+                        m.getNextAttemptAt(),
+                        m.getLastError(),
+                        m.getMessageId(),
+                        m.getCreatedAt(),
+                        m.getSentAt()))
+            .toList(),
+        outboxRepository.countByStatus(status),
+        safeLimit,
+        safeOffset);
+  }
+
+  /**
+   * Queue a dead-lettered message again with a fresh attempt budget.
+   *
+   * @return true if the message was DEAD and is queued again
+   */
+  public boolean resend(Long id) {
+    boolean requeued = outboxRepository.requeueDead(id) == 1;
+    if (requeued) {
+      log.info("Requeued dead-lettered outbox message {}", id);
+    }
+    return requeued;
+  }
+
+  /**
+   * Delete SENT and DEAD messages past the retention window. Runs hourly on one instance, through
+   * {@link ClusterScheduledTasks}.
+   */
+  public void prune() {
+    int removed = outboxRepository.deleteFinishedOlderThanDays(retentionDays);
+    if (removed > 0) {
+      log.info("Pruned {} finished outbox messages", removed);
+    }
+  }
+
+  private boolean send(EmailOutboxEntity message) {
+    EmailService.Delivery delivery = emailService.deliver(message);
+    if (delivery.sent()) {
+      outboxRepository.markSent(message.getId(), delivery.messageId());
+      return true;
+    }
+    if (!delivery.retryable() || message.getAttempts() >= maxAttempts) {
+      outboxRepository.markDead(message.getId(), delivery.error());
+      log.error(
+          "Dead-lettered outbox message {} ({}, to={}) after {} attempts: {}",
+          message.getId(),
+          message.getLabel(),
+          message.getToAddress(),
+          message.getAttempts(),
+          delivery.error());
+      return false;
+    }
+    long delay = backoffSeconds(message.getAttempts());
+    outboxRepository.markRetry(message.getId(), delay, delivery.error());
+    log.info(
+        "Outbox message {} ({}) failed attempt {}; retrying in {}s",
+        message.getId(),
+        message.getLabel(),
+        message.getAttempts(),
+        delay);
+    return false;
+  }
+
+  /** Wait until the rate cap allows the next send, then reserve the slot after it. */
+  private boolean awaitSendSlot() {
+    long now = System.nanoTime();
+    long start = Math.max(now, nextSendNanos);
+    nextSendNanos = start + (long) (TimeUnit.SECONDS.toNanos(1) / maxSendRate);
+    long waitNanos = start - now;
+    if (waitNanos <= 0) {
+      return true;
+    }
+    try {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package edens.zac.portfolio.backend.services;
 
+import edens.zac.portfolio.backend.dao.EmailOutboxRepository;
+import edens.zac.portfolio.backend.entity.EmailOutboxEntity;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -12,26 +14,38 @@ import software.amazon.awssdk.services.sesv2.model.Destination;
 import software.amazon.awssdk.services.sesv2.model.EmailContent;
 import software.amazon.awssdk.services.sesv2.model.Message;
 import software.amazon.awssdk.services.sesv2.model.SendEmailRequest;
+import software.amazon.awssdk.services.sesv2.model.SendEmailResponse;
 import software.amazon.awssdk.services.sesv2.model.SesV2Exception;
 
 /**
- * Sends transactional emails via AWS SES v2.
+ * Sends transactional emails via AWS SES v2, through the {@code email_outbox} table (V60).
  *
  * <p>Two public methods: {@link #sendGalleryPasswordEmail}, which delivers a clickable gallery URL
  * plus the plaintext password the admin just set, and {@link #sendInviteEmail}, which delivers a
- * single-use account-setup link to a newly invited client. Both return a typed {@link SendResult}
- * so the caller can surface "email-disabled" or "ses-error" reasons without leaking exception
- * detail.
+ * single-use account-setup link to a newly invited client. Both render the message and queue it in
+ * the caller's transaction, so it is only ever sent if the invite or password change commits, and
+ * the admin request never waits on SES. {@link EmailOutboxWorker} then delivers it through {@link
+ * #deliver}, retrying transient SES failures. Both return a typed {@link SendResult} so the caller
+ * can surface an "email-disabled" reason without leaking exception detail.
  *
- * <p>The {@code email.enabled} flag short-circuits the whole flow before any AWS call. This lets
- * the rest of the password admin endpoint ship while SES domain verification and sandbox-removal
- * are in flight — invite creation still returns a copyable link, so nothing depends on delivery.
+ * <p>The bodies carry a password or a bearer link, so they are queued sealed by {@link
+ * EmailBodyCipher} and only opened for the SES call.
+ *
+ * <p>The {@code email.enabled} flag short-circuits the whole flow before anything is queued. This
+ * lets the rest of the password admin endpoint ship while SES domain verification and
+ * sandbox-removal are in flight — invite creation still returns a copyable link, so nothing depends
+ * on delivery.
  */
 @Service
 @Slf4j
 public class EmailService {
 
+  /** Longest {@code last_error} kept for the admin outbox view. */
+  private static final int MAX_ERROR_LENGTH = 500;
+
   private final SesV2Client sesClient;
+  private final EmailOutboxRepository outboxRepository;
+  private final EmailBodyCipher bodyCipher;
   private final boolean enabled;
   private final String fromAddress;
   private final String frontendBaseUrl;
@@ -43,18 +57,31 @@ public class EmailService {
    */
   public EmailService(
       SesV2Client sesClient,
+      EmailOutboxRepository outboxRepository,
+      EmailBodyCipher bodyCipher,
       @Value("${email.enabled:false}") boolean enabled,
       @Value("${email.from-address}") String fromAddress,
       @Value("${email.frontend-base-url}") String frontendBaseUrl) {
     this.sesClient = sesClient;
+    this.outboxRepository = outboxRepository;
+    this.bodyCipher = bodyCipher;
     this.enabled = enabled;
     this.fromAddress = fromAddress;
     this.frontendBaseUrl = frontendBaseUrl;
   }
 
-  /** Result of a send attempt. {@code reason} is {@code null} on success. */
+  /**
+   * Result of a send request. {@code sent} means the message was queued for delivery; {@code
+   * reason} is {@code null} in that case.
+   */
   public record SendResult(boolean sent, String reason) {}
 
+  /**
+   * Outcome of one SES attempt for a queued message. {@code retryable} distinguishes a throttle,
+   * SES-side error or network failure from a rejection that will not succeed on retry.
+   */
+  public record Delivery(boolean sent, String messageId, boolean retryable, String error) {}
+
   /**
    * Send the "your gallery is ready" email to a client with a link plus the plaintext password.
    *
@@ -62,7 +89,7 @@ public class EmailService {
    * @param collectionTitle gallery display title (HTML-escaped before interpolation)
    * @param slug URL slug used to build the gallery link
    * @param plaintextPassword the password the admin just set (escaped in HTML, raw in text body)
-   * @return {@link SendResult} with {@code sent=true} on success, otherwise a reason code
+   * @return {@link SendResult} with {@code sent=true} once queued, otherwise a reason code
    */
   public SendResult sendGalleryPasswordEmail(
       String toEmail, String collectionTitle, String slug, String plaintextPassword) {
@@ -76,7 +103,7 @@ public class EmailService {
     String htmlBody = buildHtml(collectionTitle, galleryUrl, plaintextPassword);
     String textBody = buildText(collectionTitle, galleryUrl, plaintextPassword);
 
-    return dispatch(
+    return enqueue(
         toEmail, subject, htmlBody, textBody, "gallery password email (slug=" + slug + ")");
   }
 
@@ -92,7 +119,7 @@ public class EmailService {
    * @param toEmail recipient address (the invited account's email)
    * @param displayName invitee's display name for the greeting; may be null or blank
    * @param inviteUrl the fully-built {@code <origin>/invite/<token>} link
-   * @return {@link SendResult} with {@code sent=true} on success, otherwise a reason code
+   * @return {@link SendResult} with {@code sent=true} once queued, otherwise a reason code
    */
   public SendResult sendInviteEmail(String toEmail, String displayName, String inviteUrl) {
     if (!enabled) {
@@ -104,25 +131,55 @@ public class EmailService {
     String htmlBody = buildInviteHtml(displayName, inviteUrl);
     String textBody = buildInviteText(displayName, inviteUrl);
 
-    return dispatch(toEmail, subject, htmlBody, textBody, "invite email");
+    return enqueue(toEmail, subject, htmlBody, textBody, "invite email");
   }
 
   /**
-   * Build and send one SES message, mapping both failure families onto {@code "ses-error"}.
+   * Queue one rendered message in the caller's transaction, its bodies encrypted.
    *
    * @param label short description used only for logging; never include a token or password
    */
-  private SendResult dispatch(
+  private SendResult enqueue(
       String toEmail, String subject, String htmlBody, String textBody, String label) {
+    Long id =
+        outboxRepository.insert(
+            toEmail, subject, bodyCipher.encrypt(htmlBody), bodyCipher.encrypt(textBody), label);
+    log.info("Queued {} as outbox message {} (to={})", label, id, toEmail);
+    return new SendResult(true, null);
+  }
+
+  /**
+   * Send one queued message through SES. Never throws for an SES or client failure; the outcome
+   * says whether a retry can help.
+   *
+   * @param message a claimed outbox row, bodies included (still encrypted)
+   * @return the SES message id on success, otherwise the failure and whether it is retryable
+   */
+  public Delivery deliver(EmailOutboxEntity message) {
+    String htmlBody;
+    String textBody;
+    try {
+      htmlBody = bodyCipher.decrypt(message.getHtmlBody());
+      textBody = bodyCipher.decrypt(message.getTextBody());
+    } catch (IllegalStateException e) {
+      // Sealed under a key this instance does not hold: no retry will open it.
+      log.error(
+          "Cannot decrypt {} (id={}): {}", message.getLabel(), message.getId(), e.getMessage());
+      return new Delivery(false, null, false, describe(e));
+    }
     SendEmailRequest request =
         SendEmailRequest.builder()
             .fromEmailAddress(fromAddress)
-            .destination(Destination.builder().toAddresses(toEmail).build())
+            .destination(Destination.builder().toAddresses(message.getToAddress()).build())
             .content(
                 EmailContent.builder()
                     .simple(
                         Message.builder()
-                            .subject(Content.builder().data(subject).charset("UTF-8").build())
+                            .subject(
+                                Content.builder()
+                                    .data(message.getSubject())
+                                    .charset("UTF-8")
+                                    .build())
                             .body(
                                 Body.builder()
                                     .html(Content.builder().data(htmlBody).charset("UTF-8").build())
@@ -133,22 +190,40 @@ public class EmailService {
             .build();
 
     try {
-      sesClient.sendEmail(request);
-      log.info("Sent {} (to={})", label, toEmail);
-      return new SendResult(true, null);
-    } catch (SesV2Exception | SdkClientException e) {
-      // SesV2Exception = SES API rejected the request (verification, sandbox, recipient).
-      // SdkClientException = client-side failure (timeout, credentials, region, network).
-      log.error(
+      SendEmailResponse response = sesClient.sendEmail(request);
+      log.info("Sent {} (to={})", message.getLabel(), message.getToAddress());
+      return new Delivery(true, response.messageId(), false, null);
+    } catch (SesV2Exception e) {
+      // SES answered: 429 (TooManyRequests, LimitExceeded) and 5xx are worth retrying; any other
+      // 4xx (MessageRejected, MailFromDomainNotVerified, AccountSuspended, BadRequest) is not.
+      int status = e.statusCode();
+      boolean retryable = status == 429 || status >= 500;
+      log.warn(
+          "Failed to send {} (to={}, kind={}, status={}, retryable={}): {}",
+          message.getLabel(),
+          message.getToAddress(),
+          e.getClass().getSimpleName(),
+          status,
+          retryable,
+          e.getMessage());
+      return new Delivery(false, null, retryable, describe(e));
+    } catch (SdkClientException e) {
+      // Client-side failure (timeout, credentials, region, network): retry.
+      log.warn(
           "Failed to send {} (to={}, kind={}): {}",
-          label,
-          toEmail,
+          message.getLabel(),
+          message.getToAddress(),
           e.getClass().getSimpleName(),
           e.getMessage());
-      return new SendResult(false, "ses-error");
+      return new Delivery(false, null, true, describe(e));
     }
   }
 
+  private static String describe(Exception e) {
+    String text = e.getClass().getSimpleName() + ": " + e.getMessage();
+    return text.length() > MAX_ERROR_LENGTH ? text.substring(0, MAX_ERROR_LENGTH) : text;
+  }
+
   /**
    * Hardcoded inline-styled HTML email body. Black/white minimal, ~50 lines, no template engine.
    * All interpolated values are HTML-escaped to defend against any future caller passing
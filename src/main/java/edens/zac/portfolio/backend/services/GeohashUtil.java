@@ -0,0 +1,181 @@
+package edens.zac.portfolio.backend.services;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Geohash encoding and the cell arithmetic behind the map view.
+ *
+ * <p>A geohash of precision {@code p} names one cell of a fixed grid: {@code 5p} bits interleaved
+ * longitude-first, so the cell is {@code 360 / 2^ceil(5p/2)} degrees wide and {@code 180 /
+ * 2^floor(5p/2)} degrees tall. Every point in a cell shares its hash as a prefix, which is what
+ * lets {@code content_image.geohash} (V64) answer "images in this cell" with a btree range scan.
+ */
+public final class GeohashUtil {
+
+  /** Precision stored in {@code content_image.geohash}: cells of a few centimetres. */
+  public static final int STORED_PRECISION = 12;
+
+  /** Finest precision the map clusters at (cells of roughly 40 x 20 metres). */
+  public static final int MAX_CLUSTER_PRECISION = 8;
+
+  /** On-screen width, in pixels, a cluster cell should reach before the next precision is used. */
+  private static final double TARGET_CELL_PIXELS = 64;
+
+  /** Web-mercator tile size: the whole world is {@code 256 * 2^zoom} pixels wide. */
+  private static final double TILE_PIXELS = 256;
+
+  private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+  private GeohashUtil() {}
+
+  /**
+   * A latitude/longitude box. {@code west > east} means the box crosses the antimeridian.
+   *
+   * @param south Southern edge, -90 to 90
+   * @param west Western edge, -180 to 180
+   * @param north Northern edge, -90 to 90, not below {@code south}
+   * @param east Eastern edge, -180 to 180
+   */
+  public record Bounds(double south, double west, double north, double east) {
+
+    /** Whether the box crosses the antimeridian (its longitude span wraps past 180). */
+    public boolean wrapsAntimeridian() {
+      return west > east;
+    }
+  }
+
+  /**
+   * Geohash of a point.
+   *
+   * <p>Example: (57.64911, 10.40744) at precision 11 -> "u4pruydqqvj"
+   *
+   * @param latitude -90 to 90
+   * @param longitude -180 to 180
+   * @param precision Characters in the hash, 1-12
+   * @return The geohash
+   */
+  public static String encode(double latitude, double longitude, int precision) {
+    if (precision < 1 || precision > STORED_PRECISION) {
+      throw new IllegalArgumentException("Geohash precision must be 1-" + STORED_PRECISION);
+    }
+    double minLat = -90;
+    double maxLat = 90;
+    double minLng = -180;
+    double maxLng = 180;
+    StringBuilder hash = new StringBuilder(precision);
+    boolean lngBit = true;
+    int bits = 0;
+    int value = 0;
+    while (hash.length() < precision) {
+      if (lngBit) {
+        double mid = (minLng + maxLng) / 2;
+        if (longitude >= mid) {
+          value = (value << 1) | 1;
+          minLng = mid;
+        } else {
+          value <<= 1;
+          maxLng = mid;
+        }
+      } else {
+        double mid = (minLat + maxLat) / 2;
+        if (latitude >= mid) {
+          value = (value << 1) | 1;
+          minLat = mid;
+        } else {
+          value <<= 1;
+          maxLat = mid;
+        }
+      }
+      lngBit = !lngBit;
+      if (++bits == 5) {
+        hash.append(BASE32[value]);
+        bits = 0;
+        value = 0;
+      }
+    }
+    return hash.toString();
+  }
+
+  /**
+   * Cluster precision for a map zoom level: the finest precision whose cells are still at least 64
+   * pixels wide on screen, between 1 and {@value #MAX_CLUSTER_PRECISION}.
+   *
+   * @param zoom Web-mercator zoom level (0 shows the whole world in one 256-pixel tile)
+   */
+  public static int precisionForZoom(int zoom) {
+    double worldPixels = TILE_PIXELS * Math.pow(2, Math.max(zoom, 0));
+    int precision = 1;
+    while (precision < MAX_CLUSTER_PRECISION
+        && cellWidth(precision + 1) / 360 * worldPixels >= TARGET_CELL_PIXELS) {
+      precision++;
+    }
+    return precision;
+  }
+
+  /**
+   * Number of precision-{@code precision} cells that intersect {@code bounds}, without listing
+   * them.
+   */
+  public static long cellCount(Bounds bounds, int precision) {
+    long rows = span(bounds.south(), bounds.north(), -90, cellHeight(precision));
+    if (bounds.wrapsAntimeridian()) {
+      double width = cellWidth(precision);
+      return rows
+          * (span(bounds.west(), 180, -180, width) + span(-180, bounds.east(), -180, width));
+    }
+    return rows * span(bounds.west(), bounds.east(), -180, cellWidth(precision));
+  }
+
+  /**
+   * The precision-{@code precision} cells that together cover {@code bounds}, row by row from the
+   * south-west corner. Cells are disjoint, so a point lies in at most one of them.
+   */
+  public static List<String> coveringCells(Bounds bounds, int precision) {
+    Set<String> cells = new LinkedHashSet<>();
+    if (bounds.wrapsAntimeridian()) {
+      addCells(cells, bounds.south(), bounds.west(), bounds.north(), 180, precision);
+      addCells(cells, bounds.south(), -180, bounds.north(), bounds.east(), precision);
+    } else {
+      addCells(cells, bounds.south(), bounds.west(), bounds.north(), bounds.east(), precision);
+    }
+    return new ArrayList<>(cells);
+  }
+
+  private static void addCells(
+      Set<String> cells, double south, double west, double north, double east, int precision) {
+    double height = cellHeight(precision);
+    double width = cellWidth(precision);
+    int firstRow = index(south, -90, height);
+    int lastRow = index(north, -90, height);
+    int firstCol = index(west, -180, width);
+    int lastCol = index(east, -180, width);
+    for (int row = firstRow; row <= lastRow; row++) {
+      double latitude = -90 + (row + 0.5) * height;
+      for (int col = firstCol; col <= lastCol; col++) {
+        cells.add(encode(latitude, -180 + (col + 0.5) * width, precision));
+      }
+    }
+  }
+
+  /** Cells of size {@code size} from {@code from} to {@code to}, both inclusive. */
+  private static long span(double from, double to, double origin, double size) {
+    return (long) index(to, origin, size) - index(from, origin, size) + 1;
+  }
+
+  /** Grid index of {@code value}; the far edge (90 or 180) belongs to the last cell. */
+  private static int index(double value, double origin, double size) {
+    int last = (int) Math.round((-2 * origin) / size) - 1;
+    return Math.min((int) Math.floor((value - origin) / size), last);
+  }
+
+  private static double cellWidth(int precision) {
+    return 360 / Math.pow(2, (5 * precision + 1) / 2);
+  }
+
+  private static double cellHeight(int precision) {
+    return 180 / Math.pow(2, (5 * precision) / 2);
+  }
+}
@@ -0,0 +1,81 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.dao.ImageAudienceRepository;
+import edens.zac.portfolio.backend.dao.ImageAudienceRepository.AudienceDrift;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Verification and repair for the {@code image_audience} projection (V58). The write paths keep it
+ * current through {@link ImageAudienceRepository}'s marks; this service compares it with the live
+ * definition so a writer that bypasses them (a raw SQL fix, a missed hook) shows up as drift.
+ *
+ * <p>{@link #check} and {@link #rebuild} back the admin endpoints, like the closure table's. {@link
+ * #verify} runs on a schedule and re-derives just the images it found drifted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageAudienceService {
+
+  /** Mismatches returned by one check; the count is what matters beyond a sample. */
+  static final int DRIFT_SAMPLE_LIMIT = 100;
+
+  private final ImageAudienceRepository imageAudienceRepository;
+
+  /** Result of a rebuild or consistency check. */
+  public record AudienceReport(int rows, List<AudienceDrift> drift) {}
+
+  /**
+   * Compare the table with the live definition without changing anything.
+   *
+   * @return The current row count and a sample of mismatched images (empty when consistent)
+   */
+  @Transactional(readOnly = true)
+  public AudienceReport check() {
+    return new AudienceReport(
+        imageAudienceRepository.count(), imageAudienceRepository.findDrift(DRIFT_SAMPLE_LIMIT));
+  }
+
+  /**
+   * Rebuild the whole table from memberships and grants.
+   *
+   * @return The rebuilt row count and the drift found (and repaired) beforehand
+   */
+  @Transactional
+  public AudienceReport rebuild() {
+    List<AudienceDrift> drift = imageAudienceRepository.findDrift(DRIFT_SAMPLE_LIMIT);
+    if (!drift.isEmpty()) {
+      log.warn("image_audience drift before rebuild: {} mismatches (sampled)", drift.size());
+    }
+    return new AudienceReport(imageAudienceRepository.rebuild(), drift);
+  }
+
+  /**
+   * Scheduled verifier ({@link ClusterScheduledTasks}, once per period across instances): look for
+   * drift and re-derive the images it finds. A full sample suggests more, so it is logged for an
+   * admin rebuild rather than chased here.
+   *
+   * @return Images repaired
+   */
+  @Transactional
+  public int verify() {
+    List<AudienceDrift> drift = imageAudienceRepository.findDrift(DRIFT_SAMPLE_LIMIT);
+    if (drift.isEmpty()) {
+      return 0;
+    }
+    List<Long> imageIds = drift.stream().map(AudienceDrift::imageId).toList();
+    imageAudienceRepository.refreshImages(imageIds);
+    if (drift.size() == DRIFT_SAMPLE_LIMIT) {
+      log.warn(
+          "image_audience drift: repaired the first {} images, more remain -- run the admin rebuild",
+          drift.size());
+    } else {
+      log.warn("image_audience drift: repaired {} images {}", drift.size(), imageIds);
+    }
+    return drift.size();
+  }
+}
@@ -0,0 +1,306 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.dao.CollectionRepository;
+import edens.zac.portfolio.backend.dao.ContentRepository;
+import edens.zac.portfolio.backend.dao.LocationRepository;
+import edens.zac.portfolio.backend.dao.PersonRepository;
+import edens.zac.portfolio.backend.dao.TagRepository;
+import edens.zac.portfolio.backend.entity.CollectionContentEntity;
+import edens.zac.portfolio.backend.entity.ContentPersonEntity;
+import edens.zac.portfolio.backend.entity.LocationEntity;
+import edens.zac.portfolio.backend.entity.TagEntity;
+import edens.zac.portfolio.backend.model.ImageUploadResult;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Group-commit writer for phase 2 of the parallel upload pipeline. Prepared images are flushed in
+ * groups of {@link #GROUP_SIZE}, one transaction per group, with the tag, people, location and
+ * collection_content inserts for the whole group sent as JDBC batches instead of per-image
+ * statements.
+ *
+ * <p>Failures stay isolated per image: when a group transaction fails it is rolled back and each of
+ * its images is retried alone in its own transaction, so one bad row costs the group a retry rather
+ * than taking its neighbours down with it. Tag and people links run behind a savepoint: a keyword
+ * failure is rolled back on its own and reported as a {@link ImageUploadResult.FileError} for the
+ * image, which stays saved (the same contract as the single-image path, see V53).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ImageGroupCommitWriter {
+
+  /** Images per transaction. Small enough that a rollback-and-retry stays cheap. */
+  static final int GROUP_SIZE = 25;
+
+  private final ImageProcessingService imageProcessingService;
+  private final CollectionRepository collectionRepository;
+  private final ContentRepository contentRepository;
+  private final TagRepository tagRepository;
+  private final PersonRepository personRepository;
+  private final LocationRepository locationRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * A prepared image waiting to be written, with its pre-assigned position in the collection.
+   *
+   * @param data Output of the parallel preparation stage (S3 URLs + metadata)
+   * @param filename Original upload filename, used for result reporting
+   * @param orderIndex Order index the image takes in the target collection
+   */
+  public record PendingImage(
+      ImageProcessingService.PreparedImageData data, String filename, int orderIndex) {}
+
+  /** An image whose database write committed, with the dedupe action that was taken. */
+  public record WrittenImage(PendingImage source, ImageProcessingService.DedupeResult dedupe) {}
+
+  /**
+   * Everything committed, plus one error per image that failed even when retried alone and one per
+   * image whose tags or people could not be linked (that image is still in {@code written}).
+   */
+  public record WriteOutcome(
+      List<WrittenImage> written, List<ImageUploadResult.FileError> failures) {}
+
+  /**
+   * Write prepared images to the database and link them to a collection, {@link #GROUP_SIZE} per
+   * transaction.
+   *
+   * @param collectionId Collection the images are appended to
+   * @param images Prepared images in upload order
+   * @return Committed images (including dedupe SKIPs) and per-image failures
+   */
+  public WriteOutcome write(Long collectionId, List<PendingImage> images) {
+    List<WrittenImage> written = new ArrayList<>();
+    List<ImageUploadResult.FileError> failures = new ArrayList<>();
+
+    for (int i = 0; i < images.size(); i += GROUP_SIZE) {
+      List<PendingImage> group = images.subList(i, Math.min(i + GROUP_SIZE, images.size()));
+      try {
+        GroupResult result =
+            transactionTemplate.execute(status -> writeGroup(collectionId, group, status));
+        written.addAll(result.written());
+        failures.addAll(result.keywordFailures());
+      } catch (Exception e) {
+        log.warn(
+            "Group of {} images for collection {} failed ({}); retrying row by row",
+            group.size(),
+            collectionId,
+            e.getMessage());
+        for (PendingImage image : group) {
+          try {
+            GroupResult result =
+                transactionTemplate.execute(
+                    status -> writeGroup(collectionId, List.of(image), status));
+            written.addAll(result.written());
+            failures.addAll(result.keywordFailures());
+          } catch (Exception rowError) {
+            log.error(
+                "Failed to save image {}: {}", image.filename(), rowError.getMessage(), rowError);
+            failures.add(new ImageUploadResult.FileError(image.filename(), rowError.getMessage()));
+          }
+        }
+      }
+    }
+    return new WriteOutcome(written, failures);
+  }
+
+  /** One committed group: its images and the keyword links that failed for some of them. */
+  private record GroupResult(
+      List<WrittenImage> written, List<ImageUploadResult.FileError> keywordFailures) {}
+
+  /**
+   * Write one group inside the caller's transaction. Image rows are saved one by one (each needs
+   * its generated id and camera/lens resolution); every join-table insert is then issued once for
+   * the group.
+   */
+  private GroupResult writeGroup(
+      Long collectionId, List<PendingImage> group, TransactionStatus status) {
+    List<WrittenImage> written = new ArrayList<>(group.size());
+    for (PendingImage image : group) {
+      written.add(
+          new WrittenImage(
+              image, imageProcessingService.saveImageEntityWithDedupe(image.data(), null)));
+    }
+
+    List<WrittenImage> saved =
+        written.stream()
+            .filter(w -> w.dedupe().action() != ImageProcessingService.DedupeAction.SKIP)
+            .toList();
+    if (saved.isEmpty()) {
+      return new GroupResult(written, List.of());
+    }
+
+    linkLocations(saved);
+    List<ImageUploadResult.FileError> keywordFailures = new ArrayList<>();
+    keywordFailures.addAll(linkIsolated(status, saved, "tags", this::linkTags));
+    keywordFailures.addAll(linkIsolated(status, saved, "people", this::linkPeople));
+    linkToCollection(collectionId, saved);
+    return new GroupResult(written, keywordFailures);
+  }
+
+  /**
+   * Run one keyword link step behind a savepoint. If the batch fails it is rolled back alone and
+   * retried image by image, so only the images whose keywords really fail are reported; their rows
+   * and the rest of the group still commit.
+   */
+  private List<ImageUploadResult.FileError> linkIsolated(
+      TransactionStatus status,
+      List<WrittenImage> saved,
+      String what,
+      Consumer<List<WrittenImage>> link) {
+    Object savepoint = status.createSavepoint();
+    try {
+      link.accept(saved);
+      status.releaseSavepoint(savepoint);
+      return List.of();
+    } catch (RuntimeException e) {
+      status.rollbackToSavepoint(savepoint);
+      status.releaseSavepoint(savepoint);
+      if (saved.size() > 1) {
+        List<ImageUploadResult.FileError> failures = new ArrayList<>();
+        for (WrittenImage w : saved) {
+          failures.addAll(linkIsolated(status, List.of(w), what, link));
+        }
+        return failures;
+      }
+      WrittenImage w = saved.get(0);
+      log.warn(
+          "Failed to associate {} with image {}: {}",
+          what,
+          w.dedupe().entity().getId(),
+          e.getMessage(),
+          e);
+      return List.of(
+          new ImageUploadResult.FileError(
+              w.source().filename(), "failed to associate " + what + ": " + e.getMessage()));
+    }
+  }
+
+  /** Replace each image's location with its extracted {@code location}, when it has one. */
+  private void linkLocations(List<WrittenImage> saved) {
+    Map<String, Long> locationIdsByName = new HashMap<>();
+    Map<Long, Long> locationIdByContentId = new LinkedHashMap<>();
+    for (WrittenImage w : saved) {
+      String name = w.source().data().metadata().get("location");
+      if (name == null) {
+        continue;
+      }
+      Long locationId =
+          locationIdsByName.computeIfAbsent(
+              name,
+              n -> {
+                LocationEntity location = locationRepository.findOrCreate(n);
+                return location != null ? location.getId() : null;
+              });
+      if (locationId != null) {
+        locationIdByContentId.put(w.dedupe().entity().getId(), locationId);
+      }
+    }
+    locationRepository.replaceContentLocationsBatch(locationIdByContentId);
+  }
+
+  /** Resolve every distinct extracted tag once for the group, then add all links in one batch. */
+  private void linkTags(List<WrittenImage> saved) {
+    Map<String, Long> tagIdsByName = new HashMap<>();
+    Map<Long, List<Long>> tagIdsByContentId = new LinkedHashMap<>();
+    for (WrittenImage w : saved) {
+      List<String> tagNames = w.source().data().extractedTags();
+      if (tagNames == null || tagNames.isEmpty()) {
+        continue;
+      }
+      List<Long> tagIds =
+          tagNames.stream()
+              .map(name -> tagIdsByName.computeIfAbsent(name.toLowerCase(), k -> resolveTag(name)))
+              .distinct()
+              .toList();
+      tagIdsByContentId.put(w.dedupe().entity().getId(), tagIds);
+    }
+    if (!tagIdsByContentId.isEmpty()) {
+      tagRepository.addContentTagsBatch(tagIdsByContentId);
+    }
+  }
+
+  /**
+   * Resolve every distinct extracted person once for the group, then add all links in one batch.
+   */
+  private void linkPeople(List<WrittenImage> saved) {
+    Map<String, Long> personIdsByName = new HashMap<>();
+    Map<Long, List<Long>> personIdsByContentId = new LinkedHashMap<>();
+    for (WrittenImage w : saved) {
+      List<String> peopleNames = w.source().data().extractedPeople();
+      if (peopleNames == null || peopleNames.isEmpty()) {
+        continue;
+      }
+      List<Long> personIds =
+          peopleNames.stream()
+              .map(
+                  name ->
+                      personIdsByName.computeIfAbsent(name.toLowerCase(), k -> resolvePerson(name)))
+              .distinct()
+              .toList();
+      personIdsByContentId.put(w.dedupe().entity().getId(), personIds);
+    }
+    if (!personIdsByContentId.isEmpty()) {
+      contentRepository.addContentPeopleBatch(personIdsByContentId);
+    }
+  }
+
+  /**
+   * Link every CREATE, and every UPDATE not already in the collection, in one batch. Already-linked
+   * images keep their existing position, as in the single-image path.
+   */
+  private void linkToCollection(Long collectionId, List<WrittenImage> saved) {
+    List<Long> updatedIds =
+        saved.stream()
+            .filter(w -> w.dedupe().action() == ImageProcessingService.DedupeAction.UPDATE)
+            .map(w -> w.dedupe().entity().getId())
+            .toList();
+    Set<Long> alreadyLinked = collectionRepository.findLinkedContentIds(collectionId, updatedIds);
+
+    List<CollectionContentEntity> links =
+        saved.stream()
+            .filter(w -> !alreadyLinked.contains(w.dedupe().entity().getId()))
+            .map(
+                w ->
+                    CollectionContentEntity.builder()
+                        .collectionId(collectionId)
+                        .contentId(w.dedupe().entity().getId())
+                        .orderIndex(w.source().orderIndex())
+                        .visible(true)
+                        .build())
+            .toList();
+    collectionRepository.saveContentBatch(links);
+  }
+
+  private Long resolveTag(String tagName) {
+    return tagRepository
+        .findBySlug(SlugUtil.generateSlug(tagName))
+        .map(TagEntity::getId)
+        .orElseGet(
+            () -> {
+              log.info("Created new tag from XMP keyword: {}", tagName);
+              return tagRepository.save(new TagEntity(tagName)).getId();
+            });
+  }
+
+  private Long resolvePerson(String personName) {
+    return personRepository
+        .findByPersonNameIgnoreCase(personName)
+        .map(ContentPersonEntity::getId)
+        .orElseGet(
+            () -> {
+              log.info("Created new person from XMP keyword: {}", personName);
+              return personRepository.save(new ContentPersonEntity(personName)).getId();
+            });
+  }
+}
@@ -0,0 +1,125 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.dao.ImageMapRepository;
+import edens.zac.portfolio.backend.model.AuthPrincipal;
+import edens.zac.portfolio.backend.model.ImageMapResponse;
+import edens.zac.portfolio.backend.model.Records;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Server-side clustering for the image map. The visible box is covered with geohash cells, the
+ * images in them are read through the {@code content_image.geohash} index, and each cluster cell
+ * becomes one marker with a count and a cover image -- so the response stays a few hundred markers
+ * whatever the number of photos in view.
+ *
+ * <p>The viewer sees what a collection read would show them: anonymous visitors only images in
+ * LISTED collections, signed-in users also those their roles reach, admins everything -- and no one
+ * but an admin sees an image reachable only through a password-protected gallery. Anonymous viewers
+ * also get coarse positions: clusters no finer than {@value #ANONYMOUS_MAX_PRECISION} geohash
+ * characters and coordinates rounded to two decimals (about a kilometre), so a lone photo does not
+ * pin down where it was taken.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ImageMapService {
+
+  /** Highest zoom level accepted (street level on common tile servers). */
+  public static final int MAX_ZOOM = 22;
+
+  /**
+   * Most cluster cells a box may span. A zoom that would cut the box into more (a client asking for
+   * a huge box at a high zoom) is clustered coarser instead.
+   */
+  static final int MAX_CLUSTER_CELLS = 1_024;
+
+  /** Most index range scans one request runs; the covering cells are coarsened to fit. */
+  static final int MAX_COVER_CELLS = 64;
+
+  /** Finest cluster precision an anonymous viewer gets: cells of about 5 x 5 km. */
+  static final int ANONYMOUS_MAX_PRECISION = 5;
+
+  /** Coordinate step anonymous cluster positions are rounded to (0.01 degrees, about 1 km). */
+  private static final double ANONYMOUS_COORDINATE_SCALE = 100;
+
+  private final ImageMapRepository imageMapRepository;
+
+  /**
+   * Cluster the images inside a box for a map at {@code zoom}.
+   *
+   * @param south Southern edge, -90 to 90
+   * @param west Western edge, -180 to 180
+   * @param north Northern edge, -90 to 90, not below {@code south}
+   * @param east Eastern edge, -180 to 180; less than {@code west} when the box crosses the
+   *     antimeridian
+   * @param zoom Web-mercator zoom level, 0 to {@value #MAX_ZOOM}
+   * @return The clusters visible to the current viewer, largest first
+   * @throws IllegalArgumentException if the box or zoom is out of range
+   */
+  public ImageMapResponse clusters(double south, double west, double north, double east, int zoom) {
+    if (!inRange(south, 90) || !inRange(north, 90) || south > north) {
+      throw new IllegalArgumentException("south and north must be latitudes with south <= north");
+    }
+    if (!inRange(west, 180) || !inRange(east, 180)) {
+      throw new IllegalArgumentException("west and east must be longitudes between -180 and 180");
+    }
+    if (zoom < 0 || zoom > MAX_ZOOM) {
+      throw new IllegalArgumentException("zoom must be between 0 and " + MAX_ZOOM);
+    }
+    GeohashUtil.Bounds bounds = new GeohashUtil.Bounds(south, west, north, east);
+    var auth = SecurityContextHolder.getContext().getAuthentication();
+    AuthPrincipal viewer =
+        (auth != null && auth.getPrincipal() instanceof AuthPrincipal p) ? p : null;
+
+    int precision = GeohashUtil.precisionForZoom(zoom);
+    if (viewer == null) {
+      precision = Math.min(precision, ANONYMOUS_MAX_PRECISION);
+    }
+    while (precision > 1 && GeohashUtil.cellCount(bounds, precision) > MAX_CLUSTER_CELLS) {
+      precision--;
+    }
+    int coverPrecision = precision;
+    while (coverPrecision > 1 && GeohashUtil.cellCount(bounds, coverPrecision) > MAX_COVER_CELLS) {
+      coverPrecision--;
+    }
+    List<String> cells = GeohashUtil.coveringCells(bounds, coverPrecision);
+
+    List<Records.MapCluster> clusters =
+        imageMapRepository.findClusters(
+            bounds,
+            cells,
+            precision,
+            viewer != null ? viewer.userId() : null,
+            viewer != null && viewer.isAdmin());
+    if (viewer == null) {
+      clusters = clusters.stream().map(ImageMapService::coarsen).toList();
+    }
+    long total = clusters.stream().mapToLong(Records.MapCluster::count).sum();
+    log.debug(
+        "Map zoom {} precision {} over {} cells: {} clusters, {} images",
+        zoom,
+        precision,
+        cells.size(),
+        clusters.size(),
+        total);
+    return new ImageMapResponse(precision, total, clusters);
+  }
+
+  private static Records.MapCluster coarsen(Records.MapCluster cluster) {
+    return new Records.MapCluster(
+        cluster.geohash(),
+        cluster.count(),
+        Math.round(cluster.latitude() * ANONYMOUS_COORDINATE_SCALE) / ANONYMOUS_COORDINATE_SCALE,
+        Math.round(cluster.longitude() * ANONYMOUS_COORDINATE_SCALE) / ANONYMOUS_COORDINATE_SCALE,
+        cluster.coverImageId(),
+        cluster.coverImageUrl());
+  }
+
+  private static boolean inRange(double value, double limit) {
+    return value >= -limit && value <= limit;
+  }
+}
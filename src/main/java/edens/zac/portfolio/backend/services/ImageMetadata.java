@@ -1,9 +1,13 @@
 package edens.zac.portfolio.backend.services;
 
 import com.adobe.internal.xmp.XMPConst;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.function.Predicate;
 import lombok.Getter;
 
@@ -142,6 +146,49 @@ public class ImageMetadata {
       this.xmpProperty = xmpProperty;
       this.extractor = extractor;
     }
+
+    /** Lower-cased EXIF tag name to the fields it feeds, in declaration order. */
+    private static final Map<String, List<MetadataField>> BY_EXIF_TAG;
+
+    /** Fields with at least one XMP property, in declaration order. */
+    private static final List<MetadataField> XMP_FIELDS;
+
+    static {
+      Map<String, List<MetadataField>> byTag = new HashMap<>();
+      List<MetadataField> xmpFields = new ArrayList<>();
+      for (MetadataField field : values()) {
+        for (String tagName : field.exifTags.getTagNames()) {
+          byTag
+              .computeIfAbsent(tagName.toLowerCase(Locale.ROOT), k -> new ArrayList<>())
+              .add(field);
+        }
+        if (field.xmpProperty.hasProperties()) {
+          xmpFields.add(field);
+        }
+      }
+      byTag.replaceAll((k, v) -> List.copyOf(v));
+      BY_EXIF_TAG = Map.copyOf(byTag);
+      XMP_FIELDS = List.copyOf(xmpFields);
+    }
+
+    /**
+     * Fields fed by the EXIF tag with this (metadata-extractor display) name, matched without
+     * regard to case -- the same match as {@link ExifTags#matches}, as one hash lookup.
+     *
+     * @param tagName the tag's display name, e.g. {@code "ISO Speed Ratings"}
+     * @return matching fields in declaration order; empty for tags we do not extract
+     */
+    public static List<MetadataField> forExifTag(String tagName) {
+      if (tagName == null) {
+        return List.of();
+      }
+      return BY_EXIF_TAG.getOrDefault(tagName.toLowerCase(Locale.ROOT), List.of());
+    }
+
+    /** Fields that have XMP properties, in declaration order. */
+    public static List<MetadataField> withXmpProperties() {
+      return XMP_FIELDS;
+    }
   }
 
   // ==================== Helper Classes ====================
@@ -5,11 +5,12 @@ import com.adobe.internal.xmp.XMPException;
 import com.adobe.internal.xmp.XMPMeta;
 import com.adobe.internal.xmp.properties.XMPProperty;
 import com.drew.imaging.ImageMetadataReader;
+import com.drew.lang.GeoLocation;
 import com.drew.metadata.Directory;
 import com.drew.metadata.Metadata;
 import com.drew.metadata.Tag;
+import com.drew.metadata.exif.GpsDirectory;
 import com.drew.metadata.xmp.XmpDirectory;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
@@ -21,10 +22,13 @@ import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
@@ -72,10 +76,12 @@ public class ImageMetadataExtractor {
       result = extractFromStream(inputStream, filename);
     }
 
-    // Fallback: Get dimensions from BufferedImage if not found
+    // Fallback: read dimensions from the image header if no tag carried them
     if (!result.metadata().containsKey("imageWidth")
         || !result.metadata().containsKey("imageHeight")) {
-      ensureDimensions(file, result.metadata());
+      try (InputStream is = file.getInputStream()) {
+        putHeaderDimensions(is, filename, result.metadata());
+      }
     }
 
     return result;
@@ -95,10 +101,12 @@ public class ImageMetadataExtractor {
       result = extractFromStream(inputStream, filename);
     }
 
-    // Fallback: Get dimensions from BufferedImage if not found
+    // Fallback: read dimensions from the image header if no tag carried them
     if (!result.metadata().containsKey("imageWidth")
         || !result.metadata().containsKey("imageHeight")) {
-      ensureDimensionsFromPath(filePath, result.metadata());
+      try (InputStream is = Files.newInputStream(filePath)) {
+        putHeaderDimensions(is, filename, result.metadata());
+      }
     }
 
     return result;
@@ -118,6 +126,11 @@ public class ImageMetadataExtractor {
         }
       }
 
+      GpsDirectory gpsDirectory = imageMetadata.getFirstDirectoryOfType(GpsDirectory.class);
+      if (gpsDirectory != null) {
+        putGpsCoordinates(gpsDirectory.getGeoLocation(), metadata);
+      }
+
       // Extract XMP metadata for all defined fields + keywords/people
       for (XmpDirectory xmpDirectory : imageMetadata.getDirectoriesOfType(XmpDirectory.class)) {
         extractFromXmpDirectory(xmpDirectory, metadata);
@@ -150,31 +163,55 @@ public class ImageMetadataExtractor {
   }
 
   /**
-   * Extract metadata from a single EXIF tag using the ImageMetadata enum configuration.
+   * Extract metadata from a single EXIF tag using the ImageMetadata enum configuration. The fields
+   * are found with one table lookup on the tag name, and the tag's description -- which
+   * metadata-extractor formats on every call -- is only built for a tag that still feeds an unset
+   * field.
    *
    * @param tag The EXIF tag to process
    * @param metadata The metadata map to populate
    */
   private void extractFromExifTag(Tag tag, Map<String, String> metadata) {
-    String tagName = tag.getTagName();
-    String description = tag.getDescription();
+    List<ImageMetadata.MetadataField> fields =
+        ImageMetadata.MetadataField.forExifTag(tag.getTagName());
+    String description = null;
+    for (ImageMetadata.MetadataField field : fields) {
+      // Only set if not already extracted
+      if (metadata.containsKey(field.getFieldName())) {
+        continue;
+      }
+      if (description == null) {
+        description = tag.getDescription();
+        if (description == null || description.isEmpty()) {
+          return;
+        }
+      }
+      String extractedValue = field.getExtractor().extract(description);
+      if (extractedValue != null) {
+        metadata.put(field.getFieldName(), extractedValue);
+      }
+    }
+  }
 
-    if (description == null || description.isEmpty()) {
+  /**
+   * Put the capture location into {@code metadata} as {@code gpsLatitude} / {@code gpsLongitude}
+   * decimal degrees. Skips a missing or incomplete GPS block, coordinates out of range, and the (0,
+   * 0) some cameras write when they had no fix.
+   *
+   * @param location The EXIF GPS location, or null
+   * @param metadata The metadata map to populate
+   */
+  static void putGpsCoordinates(GeoLocation location, Map<String, String> metadata) {
+    if (location == null || location.isZero()) {
       return;
     }
-
-    // Try each metadata field
-    for (ImageMetadata.MetadataField field : ImageMetadata.MetadataField.values()) {
-      if (field.getExifTags().matches(tagName)) {
-        // Only set if not already extracted
-        if (!metadata.containsKey(field.getFieldName())) {
-          String extractedValue = field.getExtractor().extract(description);
-          if (extractedValue != null) {
-            metadata.put(field.getFieldName(), extractedValue);
-          }
-        }
-      }
+    double latitude = location.getLatitude();
+    double longitude = location.getLongitude();
+    if (!(Math.abs(latitude) <= 90) || !(Math.abs(longitude) <= 180)) {
+      return;
     }
+    metadata.put("gpsLatitude", String.valueOf(latitude));
+    metadata.put("gpsLongitude", String.valueOf(longitude));
   }
 
   /**
@@ -186,14 +223,10 @@ public class ImageMetadataExtractor {
   private void extractFromXmpDirectory(XmpDirectory xmpDirectory, Map<String, String> metadata) {
     XMPMeta xmpMeta = xmpDirectory.getXMPMeta();
 
-    // Try each metadata field
-    for (ImageMetadata.MetadataField field : ImageMetadata.MetadataField.values()) {
+    // Try each metadata field that has XMP properties
+    for (ImageMetadata.MetadataField field : ImageMetadata.MetadataField.withXmpProperties()) {
       ImageMetadata.XmpProperty xmpProperty = field.getXmpProperty();
 
-      if (!xmpProperty.hasProperties()) {
-        continue;
-      }
-
       // Try each (namespace, propertyName) pair in priority order
       for (ImageMetadata.XmpProperty.NamespaceProp entry : xmpProperty.getEntries()) {
         try {
@@ -310,32 +343,47 @@ public class ImageMetadataExtractor {
   }
 
   /**
-   * Ensure dimensions are present in metadata, reading from BufferedImage if needed.
+   * Put the image's width and height into {@code metadata}, read from the format header (JPEG SOF,
+   * PNG IHDR, WebP VP8 frame header) by the matching {@link ImageReader} without decoding any
+   * pixels. Leaves the map untouched when no reader recognises the stream.
    *
-   * @param file The image file
+   * @param in The image bytes; not closed
+   * @param filename For logging only
    * @param metadata The metadata map to populate
    */
-  private void ensureDimensions(MultipartFile file, Map<String, String> metadata) {
-    try (InputStream is = file.getInputStream()) {
-      BufferedImage img = ImageIO.read(is);
-      if (img != null) {
-        metadata.put("imageWidth", String.valueOf(img.getWidth()));
-        metadata.put("imageHeight", String.valueOf(img.getHeight()));
+  private void putHeaderDimensions(InputStream in, String filename, Map<String, String> metadata) {
+    try {
+      int[] dims = readHeaderDimensions(in);
+      if (dims != null) {
+        metadata.put("imageWidth", String.valueOf(dims[0]));
+        metadata.put("imageHeight", String.valueOf(dims[1]));
       }
     } catch (IOException e) {
-      log.warn("Failed to read image dimensions from BufferedImage: {}", e.getMessage());
+      log.warn("Failed to read image dimensions for {}: {}", filename, e.getMessage());
     }
   }
 
-  private void ensureDimensionsFromPath(Path filePath, Map<String, String> metadata) {
-    try (InputStream is = Files.newInputStream(filePath)) {
-      BufferedImage img = ImageIO.read(is);
-      if (img != null) {
-        metadata.put("imageWidth", String.valueOf(img.getWidth()));
-        metadata.put("imageHeight", String.valueOf(img.getHeight()));
+  /**
+   * Width and height of the first image in the stream, from its header only.
+   *
+   * @return int[]{width, height}, or null when no ImageIO reader recognises the format
+   */
+  static int[] readHeaderDimensions(InputStream in) throws IOException {
+    try (ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+      if (iis == null) {
+        return null;
+      }
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+      if (!readers.hasNext()) {
+        return null;
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(iis, true, true);
+        return new int[] {reader.getWidth(0), reader.getHeight(0)};
+      } finally {
+        reader.dispose();
       }
-    } catch (IOException e) {
-      log.warn("Failed to read image dimensions from path: {}", e.getMessage());
     }
   }
 
@@ -448,6 +496,24 @@ public class ImageMetadataExtractor {
     }
   }
 
+  /**
+   * Parse a string to a Double, returning a default value if parsing fails.
+   *
+   * @param value The string value to parse
+   * @param defaultValue The default value to return if parsing fails
+   * @return The parsed double or default value
+   */
+  public Double parseDoubleOrDefault(String value, Double defaultValue) {
+    if (value == null || value.trim().isEmpty()) {
+      return defaultValue;
+    }
+    try {
+      return Double.valueOf(value.trim());
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
   /**
    * Parse a string to a Boolean, returning a default value if parsing fails.
    *
@@ -7,6 +7,7 @@ import edens.zac.portfolio.backend.entity.ContentCameraEntity;
 import edens.zac.portfolio.backend.entity.ContentGifEntity;
 import edens.zac.portfolio.backend.entity.ContentImageEntity;
 import edens.zac.portfolio.backend.entity.ContentLensEntity;
+import edens.zac.portfolio.backend.services.MediaPipelineMetrics.Stage;
 import edens.zac.portfolio.backend.services.validator.ContentValidator;
 import edens.zac.portfolio.backend.types.ContentType;
 import edens.zac.portfolio.backend.types.FilmFormat;
@@ -17,7 +18,6 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.MessageDigest;
@@ -25,7 +25,6 @@ import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HexFormat;
 import java.util.Iterator;
 import java.util.List;
@@ -41,11 +40,14 @@ import javax.imageio.stream.ImageOutputStream;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.cloudfront.CloudFrontClient;
 import software.amazon.awssdk.services.cloudfront.model.CreateInvalidationResponse;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
 /**
@@ -63,6 +65,8 @@ public class ImageProcessingService {
   private final LocationRepository locationRepository;
   private final ImageMetadataExtractor imageMetadataExtractor;
   private final ContentValidator contentValidator;
+  private final MediaPipelineMetrics pipelineMetrics;
+  private final VideoProcessor videoProcessor;
   private final String bucketName;
   private final String cloudfrontDomain;
   private final String cloudFrontDistributionId;
@@ -75,6 +79,8 @@ public class ImageProcessingService {
       LocationRepository locationRepository,
       ImageMetadataExtractor imageMetadataExtractor,
       ContentValidator contentValidator,
+      MediaPipelineMetrics pipelineMetrics,
+      VideoProcessor videoProcessor,
       @Value("${aws.portfolio.s3.bucket}") String bucketName,
       @Value("${cloudfront.domain}") String cloudfrontDomain,
       @Value("${cloudfront.distribution-id:}") String cloudFrontDistributionId) {
@@ -85,6 +91,8 @@ public class ImageProcessingService {
     this.locationRepository = locationRepository;
     this.imageMetadataExtractor = imageMetadataExtractor;
     this.contentValidator = contentValidator;
+    this.pipelineMetrics = pipelineMetrics;
+    this.videoProcessor = videoProcessor;
     this.bucketName = bucketName;
     this.cloudfrontDomain = cloudfrontDomain;
     this.cloudFrontDistributionId = cloudFrontDistributionId;
@@ -164,7 +172,7 @@ public class ImageProcessingService {
 
     // Extract metadata from original file (no DB calls)
     ImageMetadataExtractor.MetadataExtractionResult extraction =
-        imageMetadataExtractor.extractImageMetadata(file);
+        pipelineMetrics.time(Stage.EXIF, () -> imageMetadataExtractor.extractImageMetadata(file));
     Map<String, String> metadata = extraction.metadata();
 
     // Parse image capture date for S3 path organization
@@ -182,14 +190,19 @@ public class ImageProcessingService {
             file.getBytes(), originalFilename, contentType, PATH_IMAGE_FULL, imageYear, imageMonth);
 
     // Resize if needed (max 2500px on longest side)
-    BufferedImage originalImage;
-    try (InputStream imageStream = file.getInputStream()) {
-      originalImage = ImageIO.read(imageStream);
-    }
+    BufferedImage originalImage =
+        pipelineMetrics.time(
+            Stage.DECODE,
+            () -> {
+              try (InputStream imageStream = file.getInputStream()) {
+                return ImageIO.read(imageStream);
+              }
+            });
     if (originalImage == null) {
       throw new IOException("Failed to read image: " + originalFilename);
     }
-    BufferedImage resizedImage = resizeImage(originalImage, 2500);
+    BufferedImage resizedImage =
+        pipelineMetrics.time(Stage.RESIZE, () -> resizeImage(originalImage, 2500));
     recordRenditionDimensions(resizedImage, metadata);
 
     // Convert to WebP
@@ -267,7 +280,8 @@ public class ImageProcessingService {
 
     // Extract metadata from JPEG on disk
     ImageMetadataExtractor.MetadataExtractionResult extraction =
-        imageMetadataExtractor.extractImageMetadata(jpegPath);
+        pipelineMetrics.time(
+            Stage.EXIF, () -> imageMetadataExtractor.extractImageMetadata(jpegPath));
     Map<String, String> metadata = extraction.metadata();
 
     // Parse image capture date for S3 path organization
@@ -285,11 +299,13 @@ public class ImageProcessingService {
             jpegPath, originalFilename, contentType, PATH_IMAGE_FULL, imageYear, imageMonth);
 
     // Read image for resize + WebP conversion
-    BufferedImage originalImage = ImageIO.read(jpegPath.toFile());
+    BufferedImage originalImage =
+        pipelineMetrics.time(Stage.DECODE, () -> ImageIO.read(jpegPath.toFile()));
     if (originalImage == null) {
       throw new IOException("Failed to read image: " + originalFilename);
     }
-    BufferedImage resizedImage = resizeImage(originalImage, 2500);
+    BufferedImage resizedImage =
+        pipelineMetrics.time(Stage.RESIZE, () -> resizeImage(originalImage, 2500));
     recordRenditionDimensions(resizedImage, metadata);
 
     // Convert to WebP
@@ -339,6 +355,23 @@ public class ImageProcessingService {
    * @return DedupeResult indicating the action taken and the entity
    */
   public DedupeResult savePreparedImageWithDedupe(PreparedImageData prepared, String title) {
+    DedupeResult result = saveImageEntityWithDedupe(prepared, title);
+    if (result.action() != DedupeAction.SKIP && prepared.metadata().get("location") != null) {
+      Long locId = locationRepository.findOrCreate(prepared.metadata().get("location")).getId();
+      locationRepository.saveContentLocations(result.entity().getId(), List.of(locId));
+    }
+    return result;
+  }
+
+  /**
+   * The entity half of {@link #savePreparedImageWithDedupe}: dedupe, create or update the image row
+   * (camera/lens resolved), but leave the extracted {@code location} metadata unapplied. The upload
+   * group-commit writer calls this and links locations for a whole group in one batch.
+   *
+   * <p>Superseded S3 objects of an UPDATE are deleted only once the surrounding transaction
+   * commits, so a group that rolls back never leaves a row pointing at a deleted file.
+   */
+  DedupeResult saveImageEntityWithDedupe(PreparedImageData prepared, String title) {
     Map<String, String> metadata = prepared.metadata();
     // Display-title fallback only — not the S3 web key (that is content-hashed via
     // hashedWebFilename).
@@ -383,22 +416,20 @@ public class ImageProcessingService {
         // Tags and people are handled via associateExtractedKeywords in ContentService
 
         // Save DB first -- if this fails, old S3 files remain valid
-        final ContentImageEntity savedEntity = contentRepository.saveImage(existing);
+        final ContentImageEntity savedEntity =
+            pipelineMetrics.time(Stage.DB_SAVE, () -> contentRepository.saveImage(existing));
 
-        // Only update location if new export has one — never clear user-curated location data.
-        if (metadata.get("location") != null) {
-          Long locId = locationRepository.findOrCreate(metadata.get("location")).getId();
-          locationRepository.saveContentLocations(savedEntity.getId(), List.of(locId));
-        }
+        // Location is applied by the caller (savePreparedImageWithDedupe or the group writer),
+        // and only when the new export has one — never clear user-curated location data.
 
         // Only delete old S3 files if the URLs actually changed (different key).
         // Re-exporting the same image produces the same S3 key — deleting would
         // destroy the file we just uploaded.
         if (!prepared.imageUrlWeb().equals(oldImageUrlWeb)) {
-          deleteS3ObjectByUrl(oldImageUrlWeb);
+          deleteS3ObjectAfterCommit(oldImageUrlWeb);
         }
         if (!prepared.imageUrlOriginal().equals(oldImageUrlOriginal)) {
-          deleteS3ObjectByUrl(oldImageUrlOriginal);
+          deleteS3ObjectAfterCommit(oldImageUrlOriginal);
         }
 
         return new DedupeResult(savedEntity, DedupeAction.UPDATE);
@@ -417,16 +448,30 @@ public class ImageProcessingService {
             .build();
     applyMetadataToEntity(entity, metadata, prepared);
 
-    ContentImageEntity savedEntity = contentRepository.saveImage(entity);
-
-    if (metadata.get("location") != null) {
-      Long locId = locationRepository.findOrCreate(metadata.get("location")).getId();
-      locationRepository.saveContentLocations(savedEntity.getId(), List.of(locId));
-    }
+    ContentImageEntity savedEntity =
+        pipelineMetrics.time(Stage.DB_SAVE, () -> contentRepository.saveImage(entity));
     log.info("Created new image entity with ID: {}", savedEntity.getId());
     return new DedupeResult(savedEntity, DedupeAction.CREATE);
   }
 
+  /**
+   * Delete a superseded S3 object once the active transaction commits, or immediately when there is
+   * none (the single-image path, where {@code saveImage} has already committed on its own).
+   */
+  private void deleteS3ObjectAfterCommit(String url) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      deleteS3ObjectByUrl(url);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            deleteS3ObjectByUrl(url);
+          }
+        });
+  }
+
   /**
    * Apply all EXIF/XMP metadata and prepared image data to an entity. Used by both create and
    * update paths so field mappings stay in sync.
@@ -448,6 +493,14 @@ public class ImageProcessingService {
     if (metadata.get("rating") != null) {
       entity.setRating(imageMetadataExtractor.parseIntegerOrDefault(metadata.get("rating"), null));
     }
+    // GPS follows the file: a re-export with location stripped drops the stored coordinates.
+    Double latitude =
+        imageMetadataExtractor.parseDoubleOrDefault(metadata.get("gpsLatitude"), null);
+    Double longitude =
+        imageMetadataExtractor.parseDoubleOrDefault(metadata.get("gpsLongitude"), null);
+    boolean hasLocation = latitude != null && longitude != null;
+    entity.setGpsLatitude(hasLocation ? latitude : null);
+    entity.setGpsLongitude(hasLocation ? longitude : null);
     entity.setFStop(metadata.get("fStop"));
     entity.setShutterSpeed(metadata.get("shutterSpeed"));
     entity.setFocalLength(metadata.get("focalLength"));
@@ -587,34 +640,22 @@ public class ImageProcessingService {
       String gifUrlWeb;
       byte[] fullBytes;
 
+      BufferedImage firstFrame = null;
       if (isVideo) {
-        // Probe dimensions; if probing fails, fall back to re-encoding both variants (safe: a
-        // re-encode of an unknown-size file still caps it to the web ceilings).
-        int[] dims = probeVideoDimensions(originalBytes, originalFilename);
-        VideoVariantPlanner.VideoVariantPlan plan =
-            dims != null
-                ? VideoVariantPlanner.compute(dims[0], dims[1])
-                : new VideoVariantPlanner.VideoVariantPlan(
-                    true,
-                    VideoVariantPlanner.FULL_MAX_LONGEST_SIDE,
-                    true,
-                    VideoVariantPlanner.WEB_MAX_LONGEST_SIDE);
-
-        // FULL (2000px master): re-encode only when the source exceeds the cap; otherwise a
-        // lossless remux that strips audio + faststart and preserves a good export untouched.
-        fullBytes =
-            plan.fullNeedsReencode()
-                ? encodeVideoVariant(originalBytes, originalFilename, plan.fullTargetLongestSide())
-                : remuxVideo(originalBytes, originalFilename);
+        // One worker-pool job: a single probe, then every variant plus the first frame from one
+        // ffmpeg run (see VideoProcessor / VideoVariantPlanner for the re-encode vs remux rules).
+        VideoProcessor.VideoRenditions renditions =
+            videoProcessor.process(originalBytes, originalFilename);
+        fullBytes = renditions.full();
+        firstFrame = renditions.firstFrame();
         gifUrl = uploadToS3(fullBytes, baseName + ".mp4", "video/mp4", PATH_GIF_FULL, year, month);
 
-        // WEB (1080px display): separate encode only when the source is larger than the web
-        // ceiling; otherwise the small full file IS the web file (never upscale).
-        if (plan.webIsSeparate()) {
-          byte[] webBytes =
-              encodeVideoVariant(originalBytes, originalFilename, plan.webTargetLongestSide());
+        // WEB (1080px display): only produced when the source is larger than the web ceiling;
+        // otherwise the small full file IS the web file (never upscale).
+        if (renditions.web() != null) {
           gifUrlWeb =
-              uploadToS3(webBytes, baseName + "-web.mp4", "video/mp4", PATH_GIF_WEB, year, month);
+              uploadToS3(
+                  renditions.web(), baseName + "-web.mp4", "video/mp4", PATH_GIF_WEB, year, month);
         } else {
           gifUrlWeb = gifUrl;
         }
@@ -627,12 +668,9 @@ public class ImageProcessingService {
         gifUrlWeb = null;
       }
 
-      // Thumbnail: extract the first frame from the FULL bytes so width/height reflect the master
-      // and the poster matches what fullscreen shows.
-      BufferedImage firstFrame;
-      if (isVideo) {
-        firstFrame = extractFirstFrameViaFfmpeg(fullBytes, originalFilename);
-      } else {
+      // Thumbnail: the first frame at FULL dimensions so width/height reflect the master and the
+      // poster matches what fullscreen shows. Videos already have it from the ffmpeg run.
+      if (!isVideo) {
         try (InputStream is = new ByteArrayInputStream(fullBytes)) {
           firstFrame = ImageIO.read(is);
         }
@@ -669,7 +707,7 @@ public class ImageProcessingService {
               .rating(4)
               .build();
 
-      return contentRepository.saveGif(entity);
+      return pipelineMetrics.time(Stage.DB_SAVE, () -> contentRepository.saveGif(entity));
 
     } catch (IOException e) {
       log.error("Error processing GIF/MP4 content: {}", e.getMessage(), e);
@@ -711,9 +749,12 @@ public class ImageProcessingService {
             .key(s3Key)
             .contentType(contentType)
             .contentLength((long) imageBytes.length)
+            // S3 stores the CRC32, so S3CopyZipAssembler can copy this object into a ZIP unread.
+            .checksumAlgorithm(ChecksumAlgorithm.CRC32)
             .build();
 
-    s3Client.putObject(putRequest, RequestBody.fromBytes(imageBytes));
+    pipelineMetrics.time(
+        Stage.S3_PUT, () -> s3Client.putObject(putRequest, RequestBody.fromBytes(imageBytes)));
 
     String cloudfrontUrl = "https://" + cloudfrontDomain + "/" + s3Key;
 
@@ -735,9 +776,11 @@ public class ImageProcessingService {
             .key(s3Key)
             .contentType(contentType)
             .contentLength(fileSize)
+            .checksumAlgorithm(ChecksumAlgorithm.CRC32)
             .build();
 
-    s3Client.putObject(putRequest, RequestBody.fromFile(filePath));
+    pipelineMetrics.time(
+        Stage.S3_PUT, () -> s3Client.putObject(putRequest, RequestBody.fromFile(filePath)));
 
     String cloudfrontUrl = "https://" + cloudfrontDomain + "/" + s3Key;
 
@@ -895,7 +938,7 @@ public class ImageProcessingService {
    * @param maxDimension The maximum allowed dimension (width or height)
    * @return Resized BufferedImage, or original if no resize needed
    */
-  private BufferedImage resizeImage(BufferedImage originalImage, int maxDimension) {
+  BufferedImage resizeImage(BufferedImage originalImage, int maxDimension) {
     int originalWidth = originalImage.getWidth();
     int originalHeight = originalImage.getHeight();
 
@@ -960,7 +1003,11 @@ public class ImageProcessingService {
    * @return byte array containing the WebP image data
    * @throws IOException If there's an error during conversion
    */
-  private byte[] convertToWebP(BufferedImage bufferedImage) throws IOException {
+  byte[] convertToWebP(BufferedImage bufferedImage) throws IOException {
+    return pipelineMetrics.time(Stage.WEBP_ENCODE, () -> encodeWebP(bufferedImage));
+  }
+
+  private byte[] encodeWebP(BufferedImage bufferedImage) throws IOException {
     log.trace("Converting to WebP: {}x{}", bufferedImage.getWidth(), bufferedImage.getHeight());
 
     ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
@@ -1052,56 +1099,6 @@ public class ImageProcessingService {
   // GIF/MP4 HELPERS
   // ============================================================================
 
-  /**
-   * Extract the first frame of an MP4/MOV video using ffmpeg.
-   *
-   * @param videoBytes The raw video file bytes
-   * @param filename The original filename (for logging)
-   * @return BufferedImage of the first frame, or null if extraction fails
-   */
-  private BufferedImage extractFirstFrameViaFfmpeg(byte[] videoBytes, String filename)
-      throws IOException {
-    Path tempInput = Files.createTempFile("gif-upload-", "-" + filename);
-    Path tempOutput = Files.createTempFile("gif-frame-", ".png");
-    try {
-      Files.write(tempInput, videoBytes);
-
-      ProcessBuilder pb =
-          new ProcessBuilder(
-              "ffmpeg",
-              "-y",
-              "-i",
-              tempInput.toAbsolutePath().toString(),
-              "-vframes",
-              "1",
-              "-f",
-              "image2",
-              tempOutput.toAbsolutePath().toString());
-      pb.redirectErrorStream(true);
-      Process process = pb.start();
-
-      String ffmpegOutput;
-      try (InputStream is = process.getInputStream()) {
-        ffmpegOutput = new String(is.readAllBytes(), StandardCharsets.UTF_8);
-      }
-
-      int exitCode = process.waitFor();
-      if (exitCode != 0) {
-        log.error("ffmpeg exited with code {}: {}", exitCode, ffmpegOutput);
-        return null;
-      }
-
-      return ImageIO.read(tempOutput.toFile());
-
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
-      throw new IOException("ffmpeg was interrupted", e);
-    } finally {
-      Files.deleteIfExists(tempInput);
-      Files.deleteIfExists(tempOutput);
-    }
-  }
-
   private String stripVideoExtension(String filename) {
     if (filename == null) {
       return "gif-upload-" + UUID.randomUUID();
@@ -1109,152 +1106,6 @@ public class ImageProcessingService {
     return filename.replaceAll("(?i)\\.(mp4|mov|gif)$", "");
   }
 
-  /**
-   * Probe the pixel dimensions of a video's primary stream via ffprobe.
-   *
-   * @return int[]{width, height}, or null if ffprobe fails or output is unparseable.
-   */
-  private int[] probeVideoDimensions(byte[] videoBytes, String filename) throws IOException {
-    Path tempInput = Files.createTempFile("gif-probe-", "-" + safeTempName(filename));
-    try {
-      Files.write(tempInput, videoBytes);
-
-      ProcessBuilder pb =
-          new ProcessBuilder(
-              "ffprobe",
-              "-v",
-              "error",
-              "-select_streams",
-              "v:0",
-              "-show_entries",
-              "stream=width,height",
-              "-of",
-              "csv=s=x:p=0",
-              tempInput.toAbsolutePath().toString());
-      pb.redirectErrorStream(true);
-      Process process = pb.start();
-
-      String out;
-      try (InputStream is = process.getInputStream()) {
-        out = new String(is.readAllBytes(), StandardCharsets.UTF_8).trim();
-      }
-      int exitCode = process.waitFor();
-      if (exitCode != 0) {
-        log.error("ffprobe exited with code {}: {}", exitCode, out);
-        return null;
-      }
-
-      String[] parts = out.split("x");
-      if (parts.length != 2) {
-        log.error("ffprobe returned unexpected dimensions output: '{}'", out);
-        return null;
-      }
-      return new int[] {Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim())};
-
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
-      throw new IOException("ffprobe was interrupted", e);
-    } catch (NumberFormatException e) {
-      log.error("ffprobe dimensions not numeric for {}: {}", filename, e.getMessage());
-      return null;
-    } finally {
-      Files.deleteIfExists(tempInput);
-    }
-  }
-
-  /**
-   * Re-encode a video to fit within {@code maxLongestSide} (preserving aspect ratio, even
-   * dimensions, never upscaling — the decrease-only scale filter only shrinks). Strips audio and
-   * enables faststart. H.264 / yuv420p / CRF 23 for broad mobile + browser support.
-   */
-  private byte[] encodeVideoVariant(byte[] videoBytes, String filename, int maxLongestSide)
-      throws IOException {
-    String scale =
-        String.format(
-            "scale=w=%d:h=%d:force_original_aspect_ratio=decrease:force_divisible_by=2",
-            maxLongestSide, maxLongestSide);
-    return runFfmpegToMp4(
-        videoBytes,
-        filename,
-        new String[] {
-          "-vf",
-          scale,
-          "-c:v",
-          "libx264",
-          "-profile:v",
-          "high",
-          "-pix_fmt",
-          "yuv420p",
-          "-crf",
-          "23",
-          "-preset",
-          "medium",
-          "-an",
-          "-movflags",
-          "+faststart"
-        });
-  }
-
-  /**
-   * Lossless container rewrap for an already web-sized video: copy the video bitstream verbatim (no
-   * quality loss, near-instant), drop audio, enable faststart.
-   */
-  private byte[] remuxVideo(byte[] videoBytes, String filename) throws IOException {
-    return runFfmpegToMp4(
-        videoBytes, filename, new String[] {"-c:v", "copy", "-an", "-movflags", "+faststart"});
-  }
-
-  /**
-   * Run ffmpeg with the given output args, reading raw input from a temp file and returning the
-   * encoded MP4 bytes. Shared glue for {@link #encodeVideoVariant} and {@link #remuxVideo}.
-   */
-  private byte[] runFfmpegToMp4(byte[] videoBytes, String filename, String[] outputArgs)
-      throws IOException {
-    Path tempInput = Files.createTempFile("gif-src-", "-" + safeTempName(filename));
-    Path tempOutput = Files.createTempFile("gif-out-", ".mp4");
-    try {
-      Files.write(tempInput, videoBytes);
-
-      List<String> command = new ArrayList<>();
-      command.add("ffmpeg");
-      command.add("-y");
-      command.add("-i");
-      command.add(tempInput.toAbsolutePath().toString());
-      command.addAll(Arrays.asList(outputArgs));
-      command.add(tempOutput.toAbsolutePath().toString());
-
-      ProcessBuilder pb = new ProcessBuilder(command);
-      pb.redirectErrorStream(true);
-      Process process = pb.start();
-
-      String ffmpegOutput;
-      try (InputStream is = process.getInputStream()) {
-        ffmpegOutput = new String(is.readAllBytes(), StandardCharsets.UTF_8);
-      }
-      int exitCode = process.waitFor();
-      if (exitCode != 0) {
-        log.error("ffmpeg exited with code {}: {}", exitCode, ffmpegOutput);
-        throw new IOException("ffmpeg failed with exit code " + exitCode);
-      }
-      return Files.readAllBytes(tempOutput);
-
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
-      throw new IOException("ffmpeg was interrupted", e);
-    } finally {
-      Files.deleteIfExists(tempInput);
-      Files.deleteIfExists(tempOutput);
-    }
-  }
-
-  /** Filename safe for a temp suffix: strip path separators, fall back to a UUID. */
-  private String safeTempName(String filename) {
-    if (filename == null || filename.isBlank()) {
-      return UUID.randomUUID() + ".mp4";
-    }
-    return filename.replaceAll("[/\\\\]", "_");
-  }
-
   // ============================================================================
   // CAMERA/LENS CREATION HELPERS
   // ============================================================================
@@ -59,6 +59,7 @@ public class ImageUploadPipelineService {
   private final CacheManager cacheManager;
   private final ContentService contentService;
   private final TransactionTemplate transactionTemplate;
+  private final ImageGroupCommitWriter groupCommitWriter;
 
   /** Batch size for parallel image processing to avoid overwhelming resources */
   private static final int PARALLEL_BATCH_SIZE = 3;
@@ -168,7 +169,8 @@ public class ImageUploadPipelineService {
    * OPTIMIZED: Create and upload images with parallel processing.
    *
    * <p>Architecture: 1. PARALLEL: S3 upload, resize, convert using virtual threads (NO database
-   * calls) 2. SEQUENTIAL: Save all results to database in a single short transaction
+   * calls) 2. SEQUENTIAL: Save all results through {@link ImageGroupCommitWriter}, a few short
+   * transactions of batched inserts
    *
    * <p>Images are processed in batches of PARALLEL_BATCH_SIZE to avoid overwhelming S3/memory.
    * Virtual threads handle I/O concurrency without blocking OS threads.
@@ -252,9 +254,8 @@ public class ImageUploadPipelineService {
           files.size(),
           allFailures.size());
 
-      // PHASE 2: Save images to database individually
-      // Each image saves in its own transaction (via @Transactional repository methods)
-      // so that one failure doesn't cascade and kill the entire batch
+      // PHASE 2: Save images to database in small group-commit transactions
+      // A failed group is retried row by row, so one failure doesn't cascade and kill the batch
       return saveProcessedImages(collectionId, allPrepared, allFailures);
     } finally {
       uploadSemaphore.release();
@@ -674,8 +675,10 @@ public class ImageUploadPipelineService {
   }
 
   /**
-   * Save prepared images to database in a single transaction. Handles all DB work: camera/lens
-   * lookups, duplicate detection, entity saves, and collection join entries.
+   * Save prepared images to the database through the group-commit writer: images are written in
+   * small transactions with batched join-table inserts, and a failed group is retried row by row.
+   * Order indices are assigned up front from a single max(order_index) lookup; a dedupe SKIP keeps
+   * its slot, as before.
    *
    * @param collectionId The collection to add images to
    * @param preparedImages List of prepared image data (S3 URLs + metadata)
@@ -691,47 +694,41 @@ public class ImageUploadPipelineService {
     List<ContentModels.Image> createdImages = new ArrayList<>();
     List<ImageUploadResult.FileError> failures = new ArrayList<>(previousFailures);
     List<ImageUploadResult.SkippedFile> skipped = new ArrayList<>();
-    int orderIndex = contentService.nextOrderIndex(collectionId);
 
+    int orderIndex = contentService.nextOrderIndex(collectionId);
+    List<ImageGroupCommitWriter.PendingImage> pending = new ArrayList<>(preparedImages.size());
     for (PreparedImage prepared : preparedImages) {
-      try {
-        // Save to DB with dedupe: CREATE, UPDATE, or SKIP
-        ImageProcessingService.DedupeResult dedupeResult =
-            imageProcessingService.savePreparedImageWithDedupe(prepared.data(), null);
+      pending.add(
+          new ImageGroupCommitWriter.PendingImage(
+              prepared.data(), prepared.filename(), orderIndex++));
+    }
 
-        if (dedupeResult.action() == ImageProcessingService.DedupeAction.SKIP) {
-          skipped.add(
-              new ImageUploadResult.SkippedFile(
-                  prepared.filename(), "Duplicate with same or older export date"));
-          orderIndex++;
-          continue;
-        }
+    ImageGroupCommitWriter.WriteOutcome outcome = groupCommitWriter.write(collectionId, pending);
+    failures.addAll(outcome.failures());
 
-        // Wire up keywords, RAW upload, and collection link (same as disk upload path). The image
-        // itself succeeded, so a keyword failure is reported alongside it rather than replacing it.
-        wireImageAfterDedupe(
-                dedupeResult,
-                prepared.data().extractedTags(),
-                prepared.data().extractedPeople(),
-                prepared.data().rawFilePath(),
-                prepared.data().imageYear(),
-                prepared.data().imageMonth(),
-                collectionId,
-                orderIndex)
-            .forEach(
-                message ->
-                    failures.add(new ImageUploadResult.FileError(prepared.filename(), message)));
+    for (ImageGroupCommitWriter.WrittenImage written : outcome.written()) {
+      ImageProcessingService.DedupeResult dedupeResult = written.dedupe();
+      if (dedupeResult.action() == ImageProcessingService.DedupeAction.SKIP) {
+        skipped.add(
+            new ImageUploadResult.SkippedFile(
+                written.source().filename(), "Duplicate with same or older export date"));
+        continue;
+      }
+      try {
+        // RAW uploads are scheduled only after the row has committed.
+        scheduleRawUploadIfNeeded(
+            dedupeResult,
+            written.source().data().rawFilePath(),
+            written.source().data().imageYear(),
+            written.source().data().imageMonth());
 
         // Convert entity to model for the result list
         ContentModel contentModel =
             contentModelConverter.convertRegularContentEntityToModel(dedupeResult.entity());
         createdImages.add(ContentService.castContentModel(contentModel, ContentModels.Image.class));
-
-        orderIndex++;
-
       } catch (Exception e) {
-        log.error("Failed to save image {}: {}", prepared.filename(), e.getMessage(), e);
-        failures.add(new ImageUploadResult.FileError(prepared.filename(), e.getMessage()));
+        log.error("Failed to finish image {}: {}", written.source().filename(), e.getMessage(), e);
+        failures.add(new ImageUploadResult.FileError(written.source().filename(), e.getMessage()));
       }
     }
 
@@ -0,0 +1,33 @@
+package edens.zac.portfolio.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Per-JVM {@link WebAuthnChallengeStore}. Caffeine bounds memory and expires stragglers after the
+ * TTL.
+ */
+public class InMemoryWebAuthnChallengeStore implements WebAuthnChallengeStore {
+
+  private final Cache<String, Object> cache;
+
+  /**
+   * @param ttl how long a challenge stays takeable after {@link #put}
+   */
+  public InMemoryWebAuthnChallengeStore(Duration ttl) {
+    this.cache = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(10_000).build();
+  }
+
+  @Override
+  public void put(String key, Object options) {
+    cache.put(key, options);
+  }
+
+  @Override
+  public Optional<Object> take(String key) {
+    Object value = cache.asMap().remove(key);
+    return Optional.ofNullable(value);
+  }
+}
@@ -1,5 +1,9 @@
 package edens.zac.portfolio.backend.services;
 
+import edens.zac.portfolio.backend.config.SchedulingConfig;
+import edens.zac.portfolio.backend.dao.UploadJobRepository;
+import edens.zac.portfolio.backend.entity.UploadJobEntity;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -7,20 +11,61 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 /**
- * In-memory job tracker for background disk upload processing. Thread-safe via ConcurrentHashMap
- * and AtomicInteger counters. Jobs auto-expire after 1 hour.
+ * Job tracker for background disk upload processing, shared across instances through {@code
+ * upload_job} (V62).
+ *
+ * <p>The instance running a job keeps its live state in memory (thread-safe via ConcurrentHashMap
+ * and AtomicInteger counters) and writes it to the table every {@code app.jobs.heartbeat-ms} and
+ * again the moment the job finishes. {@link #getJob} answers from memory for this instance's jobs
+ * and from the table for everyone else's, so a poll may land on any instance. Local copies expire
+ * an hour after they start once their final state is stored.
+ *
+ * <p>A live job whose heartbeat is older than {@code app.jobs.stale-after-seconds} belonged to an
+ * instance that died; {@link #reapStaleJobs} marks it FAILED. It cannot be resumed elsewhere: its
+ * files are paths on the dead instance's disk. Finished rows are kept {@code
+ * app.jobs.retention-hours}.
  */
 @Component
 @Slf4j
 public class JobTrackingService {
 
+  /** Errors written per job; a poll from another instance sees at most this many. */
+  static final int MAX_STORED_ERRORS = 500;
+
+  static final String ABANDONED_ERROR =
+      "Job abandoned: the instance running it stopped responding (restart or crash)";
+
+  private final UploadJobRepository uploadJobRepository;
+  private final String nodeId;
+  private final Duration staleAfter;
+  private final Duration retention;
+
   private final ConcurrentHashMap<UUID, JobStatus> jobs = new ConcurrentHashMap<>();
 
+  /**
+   * @param staleAfterSeconds heartbeat age after which a live job is considered abandoned; keep it
+   *     well above {@code app.jobs.heartbeat-ms}
+   * @param retentionHours how long finished jobs stay visible
+   */
+  public JobTrackingService(
+      UploadJobRepository uploadJobRepository,
+      ClusterNode clusterNode,
+      @Value("${app.jobs.stale-after-seconds:120}") long staleAfterSeconds,
+      @Value("${app.jobs.retention-hours:24}") long retentionHours) {
+    this.uploadJobRepository = uploadJobRepository;
+    this.nodeId = clusterNode.id();
+    this.staleAfter = Duration.ofSeconds(staleAfterSeconds);
+    this.retention = Duration.ofHours(retentionHours);
+  }
+
   /** Mutable job status with thread-safe counters. */
   public static class JobStatus {
     private final UUID jobId;
@@ -33,6 +78,12 @@ public class JobTrackingService {
     private final List<String> errors = new CopyOnWriteArrayList<>();
     private final LocalDateTime startedAt;
 
+    /** Writes the final state; set for jobs created through {@link #createJob}. */
+    private volatile Consumer<JobStatus> onFinished;
+
+    /** The final state is in {@code upload_job}, so no more writes are due. */
+    private volatile boolean stored;
+
     JobStatus(UUID jobId, int totalFiles) {
       this.jobId = jobId;
       this.status = "PENDING";
@@ -80,8 +131,17 @@ public class JobTrackingService {
       this.status = "PROCESSING";
     }
 
+    /** Finish the job (FAILED if any file errored) and store its final state. */
     public void markCompleted() {
       this.status = errors.isEmpty() ? "COMPLETED" : "FAILED";
+      Consumer<JobStatus> callback = onFinished;
+      if (callback != null) {
+        callback.accept(this);
+      }
+    }
+
+    boolean isFinished() {
+      return JobTrackingService.isFinished(status);
     }
   }
 
@@ -97,7 +157,7 @@ public class JobTrackingService {
       List<String> errors) {}
 
   /**
-   * Create a new job with PENDING status.
+   * Create a new job with PENDING status, registered in {@code upload_job} under this instance.
    *
    * @param totalFiles Number of files to process
    * @return The new JobStatus instance
@@ -105,32 +165,109 @@ public class JobTrackingService {
   public JobStatus createJob(int totalFiles) {
     var jobId = UUID.randomUUID();
     var job = new JobStatus(jobId, totalFiles);
+    uploadJobRepository.insert(jobId, nodeId, totalFiles);
+    job.onFinished = this::storeFinished;
     jobs.put(jobId, job);
     return job;
   }
 
   /**
-   * Get a snapshot of the current job state.
+   * Get a snapshot of the current job state, from memory when this instance runs the job and from
+   * {@code upload_job} otherwise.
    *
    * @param jobId The job ID to look up
    * @return The job status response, or empty if not found
    */
   public Optional<JobStatusResponse> getJob(UUID jobId) {
     var job = jobs.get(jobId);
-    if (job == null) {
-      return Optional.empty();
+    if (job != null) {
+      return Optional.of(toResponse(job));
     }
-    return Optional.of(toResponse(job));
+    return uploadJobRepository.findById(jobId).map(JobTrackingService::toResponse);
   }
 
-  /** Clean up jobs older than 1 hour. Runs every 10 minutes. */
+  /**
+   * Write every local job whose final state is not yet stored, refreshing its heartbeat. A failed
+   * write is retried on the next beat.
+   */
+  @Scheduled(
+      fixedDelayString = "${app.jobs.heartbeat-ms:5000}",
+      scheduler = SchedulingConfig.LIVENESS_SCHEDULER)
+  public void heartbeat() {
+    List<JobStatus> pending = jobs.values().stream().filter(job -> !job.stored).toList();
+    if (pending.isEmpty()) {
+      return;
+    }
+    // toEntity reads the status before the counters, so a snapshot marked finished has final
+    // counts.
+    List<UploadJobEntity> snapshots = pending.stream().map(this::toEntity).toList();
+    int[] written;
+    try {
+      written = uploadJobRepository.saveProgress(snapshots);
+    } catch (DataAccessException e) {
+      log.warn("Job heartbeat failed for {} jobs: {}", pending.size(), e.getMessage());
+      return;
+    }
+    for (int i = 0; i < pending.size(); i++) {
+      JobStatus job = pending.get(i);
+      if (isFinished(snapshots.get(i).getStatus())) {
+        job.stored = true;
+      } else if (written[i] == 0) {
+        // The row is no longer live: the job finished meanwhile and stored itself, or another
+        // instance reaped it while this one could not reach the database. Either way it is done.
+        job.stored = true;
+        if (!job.isFinished()) {
+          log.warn("Job {} was failed by another instance; no longer reporting it", job.jobId);
+        }
+      }
+    }
+  }
+
+  /**
+   * Fail the live jobs of instances that stopped sending heartbeats. Cluster-wide; scheduled once
+   * per period by {@link ClusterScheduledTasks}.
+   *
+   * @return Jobs failed
+   */
+  public int reapStaleJobs() {
+    List<UploadJobEntity> reaped = uploadJobRepository.failStale(staleAfter, ABANDONED_ERROR);
+    for (UploadJobEntity job : reaped) {
+      log.warn(
+          "Failed abandoned job {} of node {} ({} of {} files processed)",
+          job.getId(),
+          job.getOwnerNode(),
+          job.getProcessed(),
+          job.getTotalFiles());
+    }
+    return reaped.size();
+  }
+
+  /**
+   * Delete finished jobs past the retention window. Cluster-wide; scheduled by {@link
+   * ClusterScheduledTasks}.
+   *
+   * @return Jobs deleted
+   */
+  public int pruneFinishedJobs() {
+    int removed = uploadJobRepository.deleteFinishedOlderThan(retention);
+    if (removed > 0) {
+      log.info("Pruned {} finished upload jobs", removed);
+    }
+    return removed;
+  }
+
+  /**
+   * Drop local copies of jobs older than 1 hour whose final state is stored; polls for them are
+   * answered from the table. Runs every 10 minutes.
+   */
   @Scheduled(fixedRate = 600_000)
   public void cleanupExpiredJobs() {
     var cutoff = LocalDateTime.now().minusHours(1);
     int removed = 0;
-    var it = jobs.entrySet().iterator();
+    var it = jobs.values().iterator();
     while (it.hasNext()) {
-      if (it.next().getValue().startedAt().isBefore(cutoff)) {
+      JobStatus job = it.next();
+      if (job.stored && job.startedAt().isBefore(cutoff)) {
         it.remove();
         removed++;
       }
@@ -140,7 +277,48 @@ public class JobTrackingService {
     }
   }
 
-  private JobStatusResponse toResponse(JobStatus job) {
+  /** Write a job's final state as soon as it finishes; the heartbeat retries if this fails. */
+  private void storeFinished(JobStatus job) {
+    try {
+      uploadJobRepository.saveProgress(List.of(toEntity(job)));
+      job.stored = true;
+    } catch (DataAccessException e) {
+      log.warn("Could not store final state of job {}: {}", job.jobId, e.getMessage());
+    }
+  }
+
+  private static boolean isFinished(String status) {
+    return "COMPLETED".equals(status) || "FAILED".equals(status);
+  }
+
+  private UploadJobEntity toEntity(JobStatus job) {
+    List<String> errors = List.copyOf(job.errors());
+    return UploadJobEntity.builder()
+        .id(job.jobId())
+        .ownerNode(nodeId)
+        .status(job.status())
+        .totalFiles(job.totalFiles())
+        .processed(job.processed().get())
+        .created(job.created().get())
+        .updated(job.updated().get())
+        .skipped(job.skipped().get())
+        .errors(errors.size() > MAX_STORED_ERRORS ? errors.subList(0, MAX_STORED_ERRORS) : errors)
+        .build();
+  }
+
+  private static JobStatusResponse toResponse(UploadJobEntity job) {
+    return new JobStatusResponse(
+        job.getId(),
+        job.getStatus(),
+        job.getTotalFiles(),
+        job.getProcessed(),
+        job.getCreated(),
+        job.getUpdated(),
+        job.getSkipped(),
+        List.copyOf(job.getErrors()));
+  }
+
+  private static JobStatusResponse toResponse(JobStatus job) {
     return new JobStatusResponse(
         job.jobId(),
         job.status(),
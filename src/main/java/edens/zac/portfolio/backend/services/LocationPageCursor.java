@@ -0,0 +1,112 @@
+package edens.zac.portfolio.backend.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursors for the location page listings. A cursor is the sort key of the last row on
+ * the previous page, so the next page starts with a seek on that key instead of skipping {@code
+ * page * size} rows. Callers treat the encoded string as opaque; a malformed one is rejected with
+ * {@link IllegalArgumentException} (400).
+ */
+public final class LocationPageCursor {
+
+  private static final String COLLECTION_PREFIX = "c1";
+  private static final String IMAGE_PREFIX = "i1";
+  private static final String SEPARATOR = "|";
+
+  private LocationPageCursor() {}
+
+  /**
+   * Position in the collection listing, ordered by rating, then collection date, then id, all
+   * descending with nulls last.
+   */
+  public record CollectionKey(Integer rating, LocalDate collectionDate, long id) {}
+
+  /** Position in the orphan image listing, ordered by capture date then id, descending. */
+  public record ImageKey(LocalDateTime captureDate, long id) {}
+
+  /** Encode a collection listing position. */
+  public static String encode(CollectionKey key) {
+    return join(COLLECTION_PREFIX, text(key.rating()), text(key.collectionDate()), text(key.id()));
+  }
+
+  /** Encode an image listing position. */
+  public static String encode(ImageKey key) {
+    return join(IMAGE_PREFIX, text(key.captureDate()), text(key.id()));
+  }
+
+  /**
+   * Decode a collection listing cursor.
+   *
+   * @return The position, or null for a blank cursor (first page)
+   * @throws IllegalArgumentException if the cursor is malformed
+   */
+  public static CollectionKey decodeCollection(String cursor) {
+    String[] parts = decode(cursor, COLLECTION_PREFIX, 4);
+    if (parts == null) {
+      return null;
+    }
+    try {
+      return new CollectionKey(
+          parts[1].isEmpty() ? null : Integer.valueOf(parts[1]),
+          parts[2].isEmpty() ? null : LocalDate.parse(parts[2]),
+          Long.parseLong(parts[3]));
+    } catch (NumberFormatException | DateTimeParseException e) {
+      throw invalid();
+    }
+  }
+
+  /**
+   * Decode an image listing cursor.
+   *
+   * @return The position, or null for a blank cursor (first page)
+   * @throws IllegalArgumentException if the cursor is malformed
+   */
+  public static ImageKey decodeImage(String cursor) {
+    String[] parts = decode(cursor, IMAGE_PREFIX, 3);
+    if (parts == null) {
+      return null;
+    }
+    try {
+      return new ImageKey(
+          parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+    } catch (NumberFormatException | DateTimeParseException e) {
+      throw invalid();
+    }
+  }
+
+  private static String join(String... parts) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(String.join(SEPARATOR, parts).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String[] decode(String cursor, String prefix, int expectedParts) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+    String raw;
+    try {
+      raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw invalid();
+    }
+    String[] parts = raw.split("\\" + SEPARATOR, -1);
+    if (parts.length != expectedParts || !parts[0].equals(prefix)) {
+      throw invalid();
+    }
+    return parts;
+  }
+
+  private static String text(Object value) {
+    return value == null ? "" : value.toString();
+  }
+
+  private static IllegalArgumentException invalid() {
+    return new IllegalArgumentException("Invalid page cursor");
+  }
+}
@@ -0,0 +1,52 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.dao.LocationStatsRepository;
+import edens.zac.portfolio.backend.dao.LocationStatsRepository.StatsDrift;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Verification and repair for the {@code location_stats} counts (V63), the location-page
+ * counterpart of {@link ImageAudienceService}. The write paths keep the table current through
+ * {@link LocationStatsRepository}'s marks; {@link #verify} runs on a schedule and re-derives any
+ * location whose stored counts disagree with the live definition.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LocationStatsService {
+
+  private final LocationStatsRepository locationStatsRepository;
+
+  /**
+   * Scheduled verifier ({@link ClusterScheduledTasks}, once per period across instances): look for
+   * drift and re-derive the locations it finds. There are few enough locations to compare them all
+   * in one pass.
+   *
+   * @return Locations repaired
+   */
+  @Transactional
+  public int verify() {
+    List<StatsDrift> drift = locationStatsRepository.findDrift();
+    if (drift.isEmpty()) {
+      return 0;
+    }
+    List<Long> locationIds = drift.stream().map(StatsDrift::locationId).toList();
+    locationStatsRepository.refreshLocations(locationIds);
+    log.warn("location_stats drift: repaired {} locations {}", drift.size(), locationIds);
+    return drift.size();
+  }
+
+  /**
+   * Rebuild the whole table, for bulk loads that write the join tables directly.
+   *
+   * @return Rows in the rebuilt table
+   */
+  @Transactional
+  public int rebuild() {
+    return locationStatsRepository.rebuild();
+  }
+}
@@ -0,0 +1,101 @@
+package edens.zac.portfolio.backend.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timers for the upload pipeline and the ffmpeg/ffprobe subprocesses, so a slow upload can be
+ * pinned to a stage instead of reconstructed from log timestamps.
+ *
+ * <ul>
+ *   <li>{@code portfolio.image.pipeline{stage}} -- one timer per {@link Stage};
+ *   <li>{@code portfolio.ffmpeg.process{tool, operation, exit_code}} -- wall time of each
+ *       subprocess, tagged with its exit code ({@code interrupted} when the wait was interrupted).
+ * </ul>
+ */
+@Component
+public class MediaPipelineMetrics {
+
+  /** Upload pipeline stages, timed independently. */
+  public enum Stage {
+    EXIF,
+    DECODE,
+    RESIZE,
+    WEBP_ENCODE,
+    S3_PUT,
+    DB_SAVE;
+
+    String tag() {
+      return name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  /** A stage body; may throw the checked exception the surrounding code already handles. */
+  @FunctionalInterface
+  public interface StageBody<T, E extends Exception> {
+    T run() throws E;
+  }
+
+  private final MeterRegistry registry;
+
+  /**
+   * Spring constructor.
+   *
+   * @param registry the application meter registry
+   */
+  public MediaPipelineMetrics(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  /** Start timing a stage; pass the sample to {@link #stop}. */
+  public Timer.Sample start() {
+    return Timer.start(registry);
+  }
+
+  /** Record the stage's duration, whether or not it succeeded. */
+  public void stop(Timer.Sample sample, Stage stage) {
+    sample.stop(
+        Timer.builder("portfolio.image.pipeline")
+            .description("Upload pipeline stage duration")
+            .tag("stage", stage.tag())
+            .register(registry));
+  }
+
+  /**
+   * Run {@code body} and record its duration under {@code stage}, whether or not it succeeded.
+   *
+   * @param stage the pipeline stage
+   * @param body the work to time
+   * @return what {@code body} returned
+   * @throws E whatever {@code body} threw
+   */
+  public <T, E extends Exception> T time(Stage stage, StageBody<T, E> body) throws E {
+    Timer.Sample sample = start();
+    try {
+      return body.run();
+    } finally {
+      stop(sample, stage);
+    }
+  }
+
+  /**
+   * Record one ffmpeg/ffprobe run.
+   *
+   * @param tool {@code ffmpeg} or {@code ffprobe}
+   * @param operation what the run was for, e.g. {@code first_frame}, {@code encode}, {@code probe}
+   * @param startNanos {@link System#nanoTime} taken before the process was started
+   * @param exitCode the process exit code, or null when the wait was interrupted
+   */
+  public void recordProcess(String tool, String operation, long startNanos, Integer exitCode) {
+    Timer.builder("portfolio.ffmpeg.process")
+        .description("ffmpeg/ffprobe subprocess wall time")
+        .tag("tool", tool)
+        .tag("operation", operation)
+        .tag("exit_code", exitCode == null ? "interrupted" : String.valueOf(exitCode))
+        .register(registry)
+        .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+}
@@ -3,6 +3,7 @@ package edens.zac.portfolio.backend.services;
 import edens.zac.portfolio.backend.config.ResourceNotFoundException;
 import edens.zac.portfolio.backend.dao.EquipmentRepository;
 import edens.zac.portfolio.backend.dao.LocationRepository;
+import edens.zac.portfolio.backend.dao.LocationStatsRepository;
 import edens.zac.portfolio.backend.dao.PersonRepository;
 import edens.zac.portfolio.backend.dao.TagRepository;
 import edens.zac.portfolio.backend.entity.ContentCameraEntity;
@@ -37,6 +38,7 @@ public class MetadataService {
   private final PersonRepository personRepository;
   private final EquipmentRepository equipmentRepository;
   private final LocationRepository locationRepository;
+  private final LocationStatsRepository locationStatsRepository;
   private final MetadataValidator metadataValidator;
 
   // ========== Tag Operations ==========
@@ -356,7 +358,7 @@ public class MetadataService {
 
   @Transactional(readOnly = true)
   public List<Records.LocationWithCounts> getLocationsWithCounts() {
-    return locationRepository.findLocationsWithVisibleContent();
+    return locationStatsRepository.findAllWithCounts();
   }
 
   @Transactional
@@ -0,0 +1,51 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.dao.SharedStateRepository;
+import java.time.Duration;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cluster-wide {@link WebAuthnChallengeStore} on the unlogged {@code webauthn_challenge} table
+ * (V61), so a passkey ceremony can start on one instance and finish on another. Options are stored
+ * as {@link WebAuthnOptionsCodec} text; a take deletes the row, so a challenge is consumed at most
+ * once across the cluster. Expired rows that were never taken are swept on a schedule.
+ */
+@Slf4j
+public class PostgresWebAuthnChallengeStore implements WebAuthnChallengeStore {
+
+  private final SharedStateRepository sharedStateRepository;
+  private final Duration ttl;
+
+  /**
+   * @param ttl how long a challenge stays takeable after {@link #put}
+   */
+  public PostgresWebAuthnChallengeStore(SharedStateRepository sharedStateRepository, Duration ttl) {
+    this.sharedStateRepository = sharedStateRepository;
+    this.ttl = ttl;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalArgumentException if {@code options} are not WebAuthn creation or request
+   *     options
+   */
+  @Override
+  public void put(String key, Object options) {
+    sharedStateRepository.putChallenge(key, WebAuthnOptionsCodec.encode(options), ttl);
+  }
+
+  @Override
+  public Optional<Object> take(String key) {
+    return sharedStateRepository.takeChallenge(key).map(WebAuthnOptionsCodec::decode);
+  }
+
+  /** Delete expired challenges nobody finished. Scheduled by {@link ClusterScheduledTasks}. */
+  public void sweepExpired() {
+    int removed = sharedStateRepository.deleteExpiredChallenges();
+    if (removed > 0) {
+      log.debug("Swept {} expired WebAuthn challenges", removed);
+    }
+  }
+}
@@ -0,0 +1,268 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.model.DownloadResolution;
+import edens.zac.portfolio.backend.model.ProofingRequests.ExportRequest;
+import jakarta.annotation.PreDestroy;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background proofing exports: one client's selects in a collection become a delivery child
+ * collection ({@link ProofingService#createDeliveryCollection}), optionally a Lightroom filename
+ * filter, and a ZIP of the originals built through {@link DownloadUrlService} -- all tracked as one
+ * job the admin polls.
+ *
+ * <p>Registered in {@link BackgroundJobRegistry} like {@link TagConversionJobService}, so the admin
+ * may poll any instance. A (collection, client) pair has at most one live export cluster-wide -- a
+ * second submit while one is pending or running joins it -- and at most {@code
+ * app.proofing.export.max-concurrent-jobs} run at once per instance.
+ *
+ * <p>The collection is created in its own transaction before the archive is built, so a failed
+ * archive leaves the delivery collection in place; the FAILED job still reports its id.
+ */
+@Component
+@Slf4j
+public class ProofingExportJobService {
+
+  private static final String FORMAT_ORIGINAL = "original";
+
+  private final ProofingService proofingService;
+  private final ContentService contentService;
+  private final DownloadUrlService downloadUrlService;
+  private final BackgroundJobRegistry jobRegistry;
+  private final ExecutorService exportExecutor;
+
+  /**
+   * @param maxConcurrentJobs Exports run at once; each may build one archive
+   */
+  public ProofingExportJobService(
+      ProofingService proofingService,
+      ContentService contentService,
+      DownloadUrlService downloadUrlService,
+      BackgroundJobRegistry jobRegistry,
+      @Value("${app.proofing.export.max-concurrent-jobs:1}") int maxConcurrentJobs) {
+    this.proofingService = proofingService;
+    this.contentService = contentService;
+    this.downloadUrlService = downloadUrlService;
+    this.jobRegistry = jobRegistry;
+    this.exportExecutor =
+        Executors.newFixedThreadPool(
+            Math.max(1, maxConcurrentJobs),
+            Thread.ofVirtual().name("proofing-export-", 0).factory());
+  }
+
+  @PreDestroy
+  void shutdown() {
+    exportExecutor.shutdownNow();
+  }
+
+  /** Mutable job state; the export thread writes it as each phase finishes. */
+  static class ExportJob implements BackgroundJobRegistry.TrackedJob {
+    private final UUID jobId = UUID.randomUUID();
+    private final Long collectionId;
+    private final ExportRequest request;
+    private final AtomicInteger entriesDone = new AtomicInteger(0);
+    private final AtomicLong bytesDone = new AtomicLong(0);
+    // PENDING, COPYING, ARCHIVING, COMPLETED, FAILED
+    private volatile String status = "PENDING";
+    private volatile Long deliveryCollectionId;
+    private volatile String deliverySlug;
+    private volatile int imagesCopied;
+    private volatile List<String> filenames;
+    private volatile String lightroomFilter;
+    private volatile int archiveEntries = -1;
+    private volatile String s3Key;
+    private volatile String zipFilename;
+    private volatile String error;
+
+    ExportJob(Long collectionId, ExportRequest request) {
+      this.collectionId = collectionId;
+      this.request = request;
+    }
+
+    @Override
+    public UUID jobId() {
+      return jobId;
+    }
+
+    @Override
+    public String status() {
+      return status;
+    }
+
+    @Override
+    public ProofingExportJobResponse response() {
+      return new ProofingExportJobResponse(
+          jobId,
+          collectionId,
+          request.userId(),
+          status,
+          deliveryCollectionId,
+          deliverySlug,
+          imagesCopied,
+          filenames,
+          lightroomFilter,
+          archiveEntries,
+          entriesDone.get(),
+          bytesDone.get(),
+          error);
+    }
+
+    @Override
+    public String resultKey() {
+      return s3Key;
+    }
+
+    @Override
+    public String resultFilename() {
+      return zipFilename;
+    }
+  }
+
+  /**
+   * Response DTO -- snapshot of current job state. The delivery fields are set once the collection
+   * exists; {@code filenames} and {@code lightroomFilter} only when requested; {@code
+   * archiveEntries} is -1 until the archive's entries are resolved (and stays -1 when no archive
+   * was requested).
+   */
+  public record ProofingExportJobResponse(
+      UUID jobId,
+      Long collectionId,
+      Long userId,
+      String status,
+      Long deliveryCollectionId,
+      String deliverySlug,
+      int imagesCopied,
+      List<String> filenames,
+      String lightroomFilter,
+      int archiveEntries,
+      int entriesDone,
+      long bytesDone,
+      String error) {}
+
+  /**
+   * Enqueue an export of {@code request.userId()}'s selects in {@code collectionId}, or join the
+   * live export of the same selection.
+   *
+   * @return Snapshot of the new or existing job
+   * @throws IllegalArgumentException if the user holds no selects in the collection
+   */
+  public ProofingExportJobResponse submit(Long collectionId, ExportRequest request) {
+    proofingService.requireSelects(request.userId(), collectionId);
+    UUID jobId =
+        jobRegistry.submit(
+            BackgroundJobRegistry.Kind.PROOFING_EXPORT,
+            collectionId + "/" + request.userId(),
+            Duration.ZERO,
+            () -> new ExportJob(collectionId, request),
+            job -> {
+              exportExecutor.submit(() -> run(job));
+              log.info(
+                  "Queued proofing export job {} (collectionId={}, userId={})",
+                  job.jobId,
+                  collectionId,
+                  request.userId());
+            });
+    return getJob(jobId).orElseThrow();
+  }
+
+  /**
+   * Get a snapshot of the current job state.
+   *
+   * @param jobId The job ID to look up
+   * @return The job status response, or empty if not found
+   */
+  public Optional<ProofingExportJobResponse> getJob(UUID jobId) {
+    return jobRegistry.response(
+        BackgroundJobRegistry.Kind.PROOFING_EXPORT, jobId, ProofingExportJobResponse.class);
+  }
+
+  /**
+   * Presigned URL for a completed job's archive, signed now so its TTL starts when the admin asks.
+   *
+   * @return The URL, or empty if the job is unknown, unfinished, failed or built no archive
+   */
+  public Optional<URI> resultUrl(UUID jobId) {
+    return jobRegistry
+        .result(BackgroundJobRegistry.Kind.PROOFING_EXPORT, jobId)
+        .map(
+            result ->
+                downloadUrlService.presignObject(
+                    result.s3Key(), "application/zip", result.filename()));
+  }
+
+  /**
+   * Lightroom Library filter text for these filenames: extension-less base names joined by ", ",
+   * for a "Filename contains" text filter. Dropping the extension lets the list match the raw files
+   * the delivered JPEGs were exported from.
+   */
+  static String lightroomFilter(List<String> filenames) {
+    return filenames.stream()
+        .map(name -> name.replaceFirst("\\.[^.]+$", ""))
+        .distinct()
+        .collect(Collectors.joining(", "));
+  }
+
+  private void run(ExportJob job) {
+    job.status = "COPYING";
+    try {
+      ProofingService.Delivery delivery =
+          proofingService.createDeliveryCollection(
+              job.request.userId(), job.collectionId, job.request.title());
+      job.deliveryCollectionId = delivery.collectionId();
+      job.deliverySlug = delivery.slug();
+      job.imagesCopied = delivery.imagesCopied();
+
+      if (Boolean.TRUE.equals(job.request.filenameList())) {
+        List<String> filenames = proofingService.findOriginalFilenames(delivery.collectionId());
+        job.filenames = filenames;
+        job.lightroomFilter = lightroomFilter(filenames);
+      }
+
+      if (!Boolean.FALSE.equals(job.request.archive())) {
+        job.status = "ARCHIVING";
+        List<DownloadResolution> entries =
+            contentService.resolveCollectionDownloadEntries(
+                delivery.collectionId(), FORMAT_ORIGINAL);
+        job.archiveEntries = entries.size();
+        job.zipFilename =
+            contentService.collectionZipFilename(delivery.slug(), delivery.collectionId());
+        job.s3Key =
+            downloadUrlService.buildCachedZip(
+                delivery.collectionId(),
+                FORMAT_ORIGINAL,
+                entries,
+                job.zipFilename,
+                bytes -> {
+                  job.entriesDone.incrementAndGet();
+                  job.bytesDone.addAndGet(bytes);
+                });
+      }
+      job.status = "COMPLETED";
+      log.info(
+          "Proofing export job {} completed: collection {} user {} -> collection {} ({} images)",
+          job.jobId,
+          job.collectionId,
+          job.request.userId(),
+          job.deliveryCollectionId,
+          job.imagesCopied);
+    } catch (Exception e) {
+      job.error = e.getMessage();
+      job.status = "FAILED";
+      log.error("Proofing export job {} failed: {}", job.jobId, e.getMessage(), e);
+    } finally {
+      jobRegistry.finished(job);
+    }
+  }
+}
@@ -0,0 +1,310 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.config.ResourceNotFoundException;
+import edens.zac.portfolio.backend.dao.AppUserRepository;
+import edens.zac.portfolio.backend.dao.CollectionRepository;
+import edens.zac.portfolio.backend.dao.ProofingBatchRepository;
+import edens.zac.portfolio.backend.dao.ProofingBatchRepository.StoredBatch;
+import edens.zac.portfolio.backend.dao.ProofingSummaryRepository;
+import edens.zac.portfolio.backend.dao.ProofingSummaryRepository.CollectionProofing;
+import edens.zac.portfolio.backend.dao.RoleRepository;
+import edens.zac.portfolio.backend.dao.UserRatingOverrideRepository;
+import edens.zac.portfolio.backend.dao.UserSelectRepository;
+import edens.zac.portfolio.backend.entity.AppUserEntity;
+import edens.zac.portfolio.backend.entity.CollectionEntity;
+import edens.zac.portfolio.backend.model.CollectionRequests;
+import edens.zac.portfolio.backend.model.ProofingRequests.Batch;
+import edens.zac.portfolio.backend.model.ProofingRequests.BatchResult;
+import edens.zac.portfolio.backend.model.ProofingRequests.CollectionSummary;
+import edens.zac.portfolio.backend.model.ProofingRequests.ImageSummary;
+import edens.zac.portfolio.backend.model.ProofingRequests.RatingChange;
+import edens.zac.portfolio.backend.types.AccessLevel;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Client proofing sessions: a culling client sends selects, unselects and rating changes in batches
+ * rather than one request per image. A batch is authorized once, applied with one set-based
+ * statement per kind of change, and recorded under the client's idempotency key so a retry replays
+ * the original outcome instead of applying twice.
+ *
+ * <p>Authorization matches the single-image paths: any gallery viewer may select ({@link
+ * CollectionAccessService#canView}); ratings need a CLIENT grant ({@link
+ * CollectionAccessService#isClient}). Ids that are not visible images of the collection are
+ * skipped, and unselects and clears only touch the caller's rows in this collection.
+ *
+ * <p>The admin summary reads the {@code proofing_summary} counters the repositories maintain, and
+ * {@link #createDeliveryCollection} turns one client's selects into a child collection (the first
+ * step of a {@link ProofingExportJobService} export).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProofingService {
+
+  /** Upper bound on selects + unselects + rating changes in one batch. */
+  static final int MAX_BATCH_OPERATIONS = 5_000;
+
+  /** Longest accepted idempotency key (the {@code proofing_batch} column width). */
+  static final int MAX_KEY_LENGTH = 64;
+
+  /** How long an idempotency key is remembered. */
+  static final int BATCH_RETENTION_HOURS = 24;
+
+  /** Longest collection title {@link CollectionRequests.Create} accepts. */
+  static final int MAX_TITLE_LENGTH = 100;
+
+  /** Name prefix of the per-client role delivery collections are granted to. */
+  static final String DELIVERY_ROLE_PREFIX = "Deliveries: user ";
+
+  /** Images listed in an admin summary, most-selected first. */
+  static final int SUMMARY_IMAGE_LIMIT = 500;
+
+  private final UserSelectRepository userSelectRepository;
+  private final UserRatingOverrideRepository overrideRepository;
+  private final ProofingBatchRepository proofingBatchRepository;
+  private final ProofingSummaryRepository proofingSummaryRepository;
+  private final CollectionAccessService collectionAccessService;
+  private final CollectionService collectionService;
+  private final CollectionRepository collectionRepository;
+  private final AppUserRepository appUserRepository;
+  private final RoleRepository roleRepository;
+  private final RoleGrantPropagationService roleGrantPropagationService;
+
+  /** A delivery collection created from a client's selects. */
+  public record Delivery(Long collectionId, String slug, int imagesCopied) {}
+
+  /**
+   * Apply one proofing batch for {@code userId} in {@code collectionId}. Unselects run before
+   * selects, and clears before ratings, all in one transaction.
+   *
+   * @param idempotencyKey Client-chosen key; a repeat within the retention window replays the first
+   *     outcome
+   * @return Rows changed by each part of the batch
+   * @throws IllegalArgumentException if the key or batch is malformed, or the key was used for
+   *     another collection
+   * @throws AccessDeniedException if the user may not proof the collection
+   */
+  @Transactional
+  public BatchResult applyBatch(
+      Long userId, Long collectionId, String idempotencyKey, Batch batch) {
+    if (idempotencyKey == null
+        || idempotencyKey.isBlank()
+        || idempotencyKey.length() > MAX_KEY_LENGTH) {
+      throw new IllegalArgumentException(
+          "Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+    }
+    Set<Long> select = distinct(batch.select());
+    Set<Long> unselect = distinct(batch.unselect());
+    Map<Long, Integer> ratings = new LinkedHashMap<>();
+    Set<Long> clears = new LinkedHashSet<>();
+    List<RatingChange> ratingChanges = batch.ratings() == null ? List.of() : batch.ratings();
+    if (select.size() + unselect.size() + ratingChanges.size() > MAX_BATCH_OPERATIONS) {
+      throw new IllegalArgumentException(
+          "A proofing batch may hold at most " + MAX_BATCH_OPERATIONS + " changes");
+    }
+    for (RatingChange change : ratingChanges) {
+      if (change.contentId() == null) {
+        throw new IllegalArgumentException("contentId is required for every rating change");
+      }
+      if (change.rating() == null) {
+        ratings.remove(change.contentId());
+        clears.add(change.contentId());
+      } else if (change.rating() < 0 || change.rating() > 5) {
+        throw new IllegalArgumentException(
+            "rating must be between 0 and 5, was " + change.rating());
+      } else {
+        clears.remove(change.contentId());
+        ratings.put(change.contentId(), change.rating());
+      }
+    }
+    if (select.stream().anyMatch(unselect::contains)) {
+      throw new IllegalArgumentException("An image cannot be both selected and unselected");
+    }
+
+    if (!collectionAccessService.canView(userId, collectionId)) {
+      throw new AccessDeniedException("No gallery access for collection " + collectionId);
+    }
+    if (!ratingChanges.isEmpty() && !collectionAccessService.isClient(userId, collectionId)) {
+      throw new AccessDeniedException(
+          "user " + userId + " may not override ratings in collection " + collectionId);
+    }
+
+    if (!proofingBatchRepository.claim(userId, idempotencyKey, collectionId)) {
+      return replay(userId, collectionId, idempotencyKey);
+    }
+    int unselected = userSelectRepository.deleteAll(userId, collectionId, unselect).size();
+    int selected = userSelectRepository.insertAll(userId, collectionId, select).size();
+    int cleared = overrideRepository.deleteAll(userId, collectionId, clears).size();
+    int rated = overrideRepository.upsertAll(userId, collectionId, ratings).size();
+    proofingBatchRepository.recordCounts(
+        userId, idempotencyKey, selected, unselected, rated, cleared);
+    log.info(
+        "Applied proofing batch user={} collection={} selected={} unselected={} rated={}"
+            + " cleared={}",
+        userId,
+        collectionId,
+        selected,
+        unselected,
+        rated,
+        cleared);
+    return new BatchResult(selected, unselected, rated, cleared, false);
+  }
+
+  /**
+   * Create a child of {@code collectionId} holding the images {@code userId} selected there, in the
+   * order they were selected. The child is UNLISTED and linked hidden, so it inherits none of the
+   * parent's role grants: the only grant it gets is CLIENT for the client's delivery role ({@value
+   * #DELIVERY_ROLE_PREFIX} plus the user id, created on first use with the client as its member),
+   * and another viewer of the parent gallery cannot see one client's picks.
+   *
+   * @param title Title for the new collection, or null for "{parent} - {client} selects"
+   * @return The new collection and the number of images copied into it
+   * @throws ResourceNotFoundException if the collection or user does not exist
+   * @throws IllegalArgumentException if the user holds no selects in the collection
+   */
+  @Transactional
+  public Delivery createDeliveryCollection(Long userId, Long collectionId, String title) {
+    CollectionEntity parent =
+        collectionRepository
+            .findById(collectionId)
+            .orElseThrow(
+                () ->
+                    new ResourceNotFoundException("Collection not found with ID: " + collectionId));
+    AppUserEntity client =
+        appUserRepository
+            .findById(userId)
+            .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+    requireSelects(userId, collectionId);
+
+    String deliveryTitle = title != null && !title.isBlank() ? title : defaultTitle(parent, client);
+    Long deliveryId =
+        collectionService
+            .createCollection(new CollectionRequests.Create(deliveryTitle))
+            .collection()
+            .getId();
+    collectionService.linkCollectionToParent(collectionId, deliveryId, false);
+    Long roleId = roleRepository.findOrCreateRole(DELIVERY_ROLE_PREFIX + userId, null);
+    roleRepository.addMember(roleId, userId, null);
+    roleGrantPropagationService.setGrant(roleId, deliveryId, AccessLevel.CLIENT, null);
+    int copied = collectionRepository.copyUserSelects(userId, collectionId, deliveryId, 0);
+    String slug =
+        collectionRepository
+            .findById(deliveryId)
+            .map(CollectionEntity::getSlug)
+            .orElseThrow(
+                () -> new IllegalStateException("Delivery collection vanished: " + deliveryId));
+    log.info(
+        "Created delivery collection {} from {} selects of user {} in collection {}",
+        deliveryId,
+        copied,
+        userId,
+        collectionId);
+    return new Delivery(deliveryId, slug, copied);
+  }
+
+  /** Original filenames of a collection's images in display order (for a Lightroom filter). */
+  @Transactional(readOnly = true)
+  public List<String> findOriginalFilenames(Long collectionId) {
+    return collectionRepository.findImageOriginalFilenames(collectionId);
+  }
+
+  /**
+   * Reject an export before it is queued when there is nothing to deliver.
+   *
+   * @throws IllegalArgumentException if the user holds no selects in the collection
+   */
+  @Transactional(readOnly = true)
+  public void requireSelects(Long userId, Long collectionId) {
+    if (userSelectRepository
+        .findContentIdsByUserIdAndCollectionId(userId, collectionId)
+        .isEmpty()) {
+      throw new IllegalArgumentException(
+          "User " + userId + " has no selects in collection " + collectionId);
+    }
+  }
+
+  /**
+   * Admin proofing view of one collection from the maintained counters.
+   *
+   * @return Totals, ratings histogram and the most-selected images
+   */
+  @Transactional(readOnly = true)
+  public CollectionSummary summarize(Long collectionId) {
+    CollectionProofing totals = proofingSummaryRepository.findCollectionTotals(collectionId);
+    List<ImageSummary> images =
+        proofingSummaryRepository.findImages(collectionId, SUMMARY_IMAGE_LIMIT).stream()
+            .map(row -> new ImageSummary(row.contentId(), row.selectCount(), row.ratingCounts()))
+            .toList();
+    return new CollectionSummary(
+        collectionId, totals.selects(), totals.imagesSelected(), totals.ratingHistogram(), images);
+  }
+
+  /**
+   * Re-derive every collection's counters from the selects and overrides.
+   *
+   * @return Rows in the rebuilt summary table
+   */
+  @Transactional
+  public int rebuildSummary() {
+    int drift = proofingSummaryRepository.countDrift();
+    if (drift > 0) {
+      log.warn("proofing_summary drift before rebuild: {} rows", drift);
+    }
+    return proofingSummaryRepository.rebuild();
+  }
+
+  /**
+   * Forget idempotency keys older than the retention window. Scheduled by {@link
+   * ClusterScheduledTasks}.
+   */
+  public void pruneBatches() {
+    int removed = proofingBatchRepository.deleteOlderThanHours(BATCH_RETENTION_HOURS);
+    if (removed > 0) {
+      log.info("Pruned {} proofing batch records", removed);
+    }
+  }
+
+  private BatchResult replay(Long userId, Long collectionId, String idempotencyKey) {
+    StoredBatch stored =
+        proofingBatchRepository
+            .find(userId, idempotencyKey)
+            .orElseThrow(
+                () ->
+                    new IllegalStateException(
+                        "Claimed proofing batch vanished: " + idempotencyKey));
+    if (!stored.collectionId().equals(collectionId)) {
+      throw new IllegalArgumentException(
+          "Idempotency-Key was already used for collection " + stored.collectionId());
+    }
+    return new BatchResult(
+        stored.selected(), stored.unselected(), stored.rated(), stored.cleared(), true);
+  }
+
+  private static String defaultTitle(CollectionEntity parent, AppUserEntity client) {
+    String who =
+        client.getName() != null && !client.getName().isBlank()
+            ? client.getName()
+            : client.getEmail();
+    String title = parent.getTitle() + " - " + who + " selects";
+    return title.length() > MAX_TITLE_LENGTH ? title.substring(0, MAX_TITLE_LENGTH) : title;
+  }
+
+  private static Set<Long> distinct(List<Long> ids) {
+    if (ids == null) {
+      return Set.of();
+    }
+    if (ids.stream().anyMatch(id -> id == null)) {
+      throw new IllegalArgumentException("Content ids must not be null");
+    }
+    return new LinkedHashSet<>(ids);
+  }
+}
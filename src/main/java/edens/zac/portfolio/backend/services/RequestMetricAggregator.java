@@ -0,0 +1,195 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.dao.RequestMetricRepository;
+import edens.zac.portfolio.backend.dao.RequestMetricRepository.RequestMetricDelta;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory buffer behind {@link edens.zac.portfolio.backend.config.RequestMetricInterceptor}: the
+ * request thread only adds to a per-{@code (day, route, slug)} cell, and a background flush writes
+ * every cell in one multi-row upsert every {@code app.metrics.requests.flush-ms}. No request ever
+ * waits on a connection or a {@code request_metric} row lock.
+ *
+ * <p>Cells live in a {@link ConcurrentHashMap} and are only mutated inside {@code compute}, so
+ * concurrent requests contend on one hash bin at most, and the flush's {@code remove} of a cell
+ * cannot race a late increment into it -- the next increment simply starts a fresh cell.
+ *
+ * <p>Memory is bounded by {@code app.metrics.requests.max-keys}: once the buffer holds that many
+ * keys, requests for a new key are dropped (and counted) until the next flush drains it. When a
+ * flush fails, {@code app.metrics.requests.drop-policy} decides what happens to the batch: {@code
+ * RETAIN} merges it back for the next attempt (still within the key bound), {@code DROP} discards
+ * it so a struggling database is not handed an ever-growing statement.
+ */
+@Component
+@Slf4j
+public class RequestMetricAggregator {
+
+  /** What a failed flush does with the batch it could not write. */
+  public enum DropPolicy {
+    RETAIN,
+    DROP
+  }
+
+  private static final int BUCKETS = RequestMetricRepository.LATENCY_BUCKET_BOUNDS_MS.size() + 1;
+
+  private record Key(LocalDate day, String route, String slug) {}
+
+  /** Mutable accumulator; only touched inside {@code compute} or after being removed. */
+  private static final class Cell {
+    private long count;
+    private long totalMs;
+    private long maxMs;
+    private final long[] histogram = new long[BUCKETS];
+
+    void add(long latencyMs) {
+      count++;
+      totalMs += latencyMs;
+      maxMs = Math.max(maxMs, latencyMs);
+      histogram[bucketOf(latencyMs)]++;
+    }
+
+    void merge(RequestMetricDelta delta) {
+      count += delta.count();
+      totalMs += delta.totalMs();
+      maxMs = Math.max(maxMs, delta.maxMs());
+      for (int i = 0; i < BUCKETS && i < delta.latencyHistogram().size(); i++) {
+        histogram[i] += delta.latencyHistogram().get(i);
+      }
+    }
+  }
+
+  private final RequestMetricRepository requestMetricRepository;
+  private final int maxKeys;
+  private final DropPolicy dropPolicy;
+  private final ConcurrentHashMap<Key, Cell> cells = new ConcurrentHashMap<>();
+  private final AtomicLong dropped = new AtomicLong();
+
+  /**
+   * Spring constructor: binds config and the repository the flush writes through.
+   *
+   * @param requestMetricRepository the {@code request_metric} repository
+   * @param maxKeys distinct {@code (day, route, slug)} keys buffered between flushes
+   * @param dropPolicy what a failed flush does with its batch
+   */
+  public RequestMetricAggregator(
+      RequestMetricRepository requestMetricRepository,
+      @Value("${app.metrics.requests.max-keys:10000}") int maxKeys,
+      @Value("${app.metrics.requests.drop-policy:RETAIN}") DropPolicy dropPolicy) {
+    this.requestMetricRepository = requestMetricRepository;
+    this.maxKeys = maxKeys;
+    this.dropPolicy = dropPolicy;
+  }
+
+  /**
+   * Count one request. Never blocks on I/O and never throws for a full buffer.
+   *
+   * @param day the UTC calendar day of the request
+   * @param route the bounded Spring handler pattern
+   * @param slug the resolved slug path variable, or {@code null}
+   * @param latencyMs handler latency in milliseconds
+   */
+  public void record(LocalDate day, String route, String slug, long latencyMs) {
+    Key key = new Key(day, route, slug);
+    if (cells.size() >= maxKeys && !cells.containsKey(key)) {
+      dropped.incrementAndGet();
+      return;
+    }
+    long latency = Math.max(latencyMs, 0);
+    cells.compute(
+        key,
+        (k, cell) -> {
+          Cell c = cell != null ? cell : new Cell();
+          c.add(latency);
+          return c;
+        });
+  }
+
+  /** Write every buffered cell in one upsert; also runs on shutdown. */
+  @Scheduled(fixedDelayString = "${app.metrics.requests.flush-ms:5000}")
+  @PreDestroy
+  public void flush() {
+    long droppedSinceLastFlush = dropped.getAndSet(0);
+    if (droppedSinceLastFlush > 0) {
+      log.warn(
+          "Request metrics buffer full ({} keys): dropped {} requests",
+          maxKeys,
+          droppedSinceLastFlush);
+    }
+    if (cells.isEmpty()) {
+      return;
+    }
+    List<RequestMetricDelta> batch = drain();
+    try {
+      requestMetricRepository.upsertBatch(batch);
+      log.debug("Flushed {} request metric rows", batch.size());
+    } catch (RuntimeException e) {
+      if (dropPolicy == DropPolicy.RETAIN) {
+        batch.forEach(this::restore);
+      }
+      log.warn(
+          "Request metrics flush of {} rows failed ({}): {}",
+          batch.size(),
+          dropPolicy == DropPolicy.RETAIN ? "retained for retry" : "dropped",
+          e.getMessage());
+    }
+  }
+
+  /** Keys currently buffered. */
+  int bufferedKeys() {
+    return cells.size();
+  }
+
+  private List<RequestMetricDelta> drain() {
+    List<RequestMetricDelta> batch = new ArrayList<>(cells.size());
+    for (Key key : List.copyOf(cells.keySet())) {
+      Cell cell = cells.remove(key);
+      if (cell != null) {
+        batch.add(
+            new RequestMetricDelta(
+                key.day(),
+                key.route(),
+                key.slug(),
+                cell.count,
+                cell.totalMs,
+                cell.maxMs,
+                Arrays.stream(cell.histogram).boxed().toList()));
+      }
+    }
+    return batch;
+  }
+
+  private void restore(RequestMetricDelta delta) {
+    Key key = new Key(delta.day(), delta.route(), delta.slug());
+    if (cells.size() >= maxKeys && !cells.containsKey(key)) {
+      dropped.addAndGet(delta.count());
+      return;
+    }
+    cells.compute(
+        key,
+        (k, cell) -> {
+          Cell c = cell != null ? cell : new Cell();
+          c.merge(delta);
+          return c;
+        });
+  }
+
+  static int bucketOf(long latencyMs) {
+    List<Long> bounds = RequestMetricRepository.LATENCY_BUCKET_BOUNDS_MS;
+    for (int i = 0; i < bounds.size(); i++) {
+      if (latencyMs <= bounds.get(i)) {
+        return i;
+      }
+    }
+    return bounds.size();
+  }
+}
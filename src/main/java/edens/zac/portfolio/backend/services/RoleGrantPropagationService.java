@@ -3,14 +3,7 @@ package edens.zac.portfolio.backend.services;
 import edens.zac.portfolio.backend.dao.CollectionRepository;
 import edens.zac.portfolio.backend.dao.RoleRepository;
 import edens.zac.portfolio.backend.dao.RoleRepository.CollectionGrant;
-import edens.zac.portfolio.backend.entity.CollectionEntity;
 import edens.zac.portfolio.backend.types.AccessLevel;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
-import java.util.List;
-import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -24,7 +17,10 @@ import org.springframework.transaction.annotation.Transactional;
  * links ({@code cc.visible = true}), matching the V47 backfill; removal walks are
  * visibility-agnostic so stale copies are always stripped. Direct grants are sticky: propagation
  * never clobbers or downgrades a direct row, and removing a parent grant leaves a child's own
- * direct grant in place.
+ * direct grant in place. Subtrees are read from the {@code collection_closure} ancestry table (V55)
+ * inside the propagation statements, so a propagation costs a handful of indexed statements however
+ * deep or wide the tree is; {@link CollectionService} runs the {@link CollectionClosureService}
+ * hook for a link before this service's hook for it.
  */
 @Service
 @RequiredArgsConstructor
@@ -79,19 +75,15 @@ public class RoleGrantPropagationService {
     }
   }
 
-  /** Unlink hook: strip the child subtree's inherited copies originating at/above the parent. */
+  /**
+   * Unlink hook: strip the child subtree's inherited copies originating at/above the parent, as one
+   * set-based delete.
+   */
   @Transactional
   public void onChildUnlinked(Long parentId, Long childId) {
-    Set<Long> origins = ancestorsOf(parentId);
-    origins.add(parentId);
-    for (Long member : subtreeOf(childId)) {
-      for (CollectionGrant grant : roleRepository.allGrantsForCollection(member)) {
-        if (!grant.direct() && origins.contains(grant.inheritedFromCollectionId())) {
-          roleRepository.removeInheritedGrantsForCollectionByOrigin(
-              grant.roleId(), member, grant.inheritedFromCollectionId());
-        }
-      }
-    }
+    int removed = roleRepository.removeInheritedGrantsBelowLink(parentId, childId);
+    log.debug(
+        "Unlinked collection {} from {}: removed {} inherited grants", childId, parentId, removed);
   }
 
   /**
@@ -120,26 +112,13 @@ public class RoleGrantPropagationService {
 
   /**
    * Insert inherited copies of the origin's direct grant on every collection reachable from {@code
-   * rootId} through visible links, cycle-guarded. The root itself is not written -- for a grant it
-   * already holds the direct row, and for a link the caller inserts the child's copy before
-   * descending.
+   * rootId} through visible links. The root itself is not written -- for a grant it already holds
+   * the direct row, and for a link the caller inserts the child's copy before descending. One
+   * {@code INSERT ... SELECT} over the closure rather than a statement per descendant.
    */
   private void propagateToVisibleSubtree(
       Long roleId, AccessLevel level, Long originCollectionId, Long rootId) {
-    Set<Long> visited = new HashSet<>();
-    visited.add(rootId);
-    Deque<Long> pending =
-        new ArrayDeque<>(collectionRepository.findVisibleReferencedCollectionIdsByParentId(rootId));
-    while (!pending.isEmpty()) {
-      Long current = pending.poll();
-      if (!visited.add(current)) {
-        continue;
-      }
-      if (!current.equals(originCollectionId)) {
-        roleRepository.insertInheritedGrant(roleId, current, level, originCollectionId);
-      }
-      pending.addAll(collectionRepository.findVisibleReferencedCollectionIdsByParentId(current));
-    }
+    roleRepository.propagateInheritedGrant(roleId, level, originCollectionId, rootId);
   }
 
   /**
@@ -150,10 +129,11 @@ public class RoleGrantPropagationService {
    * Only ancestors connected to the collection through an unbroken chain of visible links qualify:
    * a hidden link on the way down blocks re-materialization exactly as it blocks forward
    * propagation. The root itself is upserted too (a no-op right after {@code setGrant}, where it
-   * holds a fresh direct row; the re-inherited copy after {@code removeGrant}).
+   * holds a fresh direct row; the re-inherited copy after {@code removeGrant}). Ancestors are
+   * applied nearest first, so among equal levels the closest origin is the one recorded.
    */
   private void rematerializeSubtreeFromAncestors(Long roleId, Long collectionId) {
-    for (Long ancestorId : visiblyLinkedAncestorsOf(collectionId)) {
+    for (Long ancestorId : collectionRepository.findVisiblyLinkedAncestorIds(collectionId)) {
       roleRepository.directGrantsForCollection(ancestorId).stream()
           .filter(g -> g.roleId().equals(roleId))
           .forEach(
@@ -163,74 +143,4 @@ public class RoleGrantPropagationService {
               });
     }
   }
-
-  /** Every ancestor of the collection through the content graph (any depth), cycle-guarded. */
-  private Set<Long> ancestorsOf(Long collectionId) {
-    Set<Long> visited = new HashSet<>();
-    visited.add(collectionId);
-    Set<Long> ancestors = new LinkedHashSet<>();
-    Deque<Long> pending = new ArrayDeque<>(parentIdsOf(collectionId));
-    while (!pending.isEmpty()) {
-      Long current = pending.poll();
-      if (!visited.add(current)) {
-        continue;
-      }
-      ancestors.add(current);
-      pending.addAll(parentIdsOf(current));
-    }
-    return ancestors;
-  }
-
-  /**
-   * The collection plus every descendant, regardless of link visibility (removal must also reach
-   * copies under links that were later hidden), cycle-guarded.
-   */
-  private Set<Long> subtreeOf(Long rootId) {
-    Set<Long> visited = new LinkedHashSet<>();
-    visited.add(rootId);
-    Deque<Long> pending = new ArrayDeque<>(childIdsOf(rootId));
-    while (!pending.isEmpty()) {
-      Long current = pending.poll();
-      if (!visited.add(current)) {
-        continue;
-      }
-      pending.addAll(childIdsOf(current));
-    }
-    return visited;
-  }
-
-  /**
-   * Ancestors reachable from the collection through an unbroken upward chain of VISIBLE links,
-   * cycle-guarded. Only these can waterfall grants down to it (single-parent trees; multi-parent
-   * inheritance is a declared non-goal).
-   */
-  private Set<Long> visiblyLinkedAncestorsOf(Long collectionId) {
-    Set<Long> visited = new HashSet<>();
-    visited.add(collectionId);
-    Set<Long> ancestors = new LinkedHashSet<>();
-    Deque<Long> pending =
-        new ArrayDeque<>(
-            collectionRepository.findVisibleParentCollectionIdsByChildId(collectionId));
-    while (!pending.isEmpty()) {
-      Long current = pending.poll();
-      if (!visited.add(current)) {
-        continue;
-      }
-      ancestors.add(current);
-      pending.addAll(collectionRepository.findVisibleParentCollectionIdsByChildId(current));
-    }
-    return ancestors;
-  }
-
-  private List<Long> parentIdsOf(Long collectionId) {
-    return collectionRepository.findAllParentCollectionsByChildId(collectionId).stream()
-        .map(CollectionEntity::getId)
-        .toList();
-  }
-
-  private List<Long> childIdsOf(Long collectionId) {
-    return collectionRepository.findAllReferencedCollectionsByParentId(collectionId).stream()
-        .map(CollectionEntity::getId)
-        .toList();
-  }
 }
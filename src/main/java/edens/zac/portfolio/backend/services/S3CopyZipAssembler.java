@@ -0,0 +1,545 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.model.DownloadResolution;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartCopyRequest;
+
+/**
+ * Builds a STORED ZIP in S3 mostly server-side: local headers and the central directory are
+ * uploaded as small inline parts, and each image body is spliced in with {@code UploadPartCopy}
+ * straight from its existing object. Bytes only pass through the JVM where the multipart rules
+ * force it, so a multi-gigabyte originals archive costs requests, not EC2 bandwidth.
+ *
+ * <p><strong>Part sizing.</strong> Every part but the last must be at least {@link #MIN_PART_SIZE}.
+ * Headers are tiny, so an inline part is topped up to the minimum with the first bytes of the
+ * following body (one ranged GET), and the rest of that body is copied. A body too small to leave a
+ * copyable remainder is fetched whole and coalesced with its neighbours. Bodies larger than {@link
+ * #MAX_COPY_PART_SIZE} are split into balanced copy ranges.
+ *
+ * <p><strong>CRC-32.</strong> STORED headers need each body's CRC before the body is written. It is
+ * read from the object's stored full-object CRC32 checksum (uploads set {@code
+ * ChecksumAlgorithm.CRC32}), with the HEADs for all entries issued up front, {@code
+ * app.download.zip.head-concurrency} at a time. Objects without one — uploaded before that, or
+ * multipart with a composite checksum — are read through a {@link ZipEntryPrefetcher} under the
+ * same {@code app.download.zip.prefetch-*} limits as the streaming builder, so a legacy gallery is
+ * not fetched one object at a time. One up to {@code app.download.zip.stream-threshold-mb} is
+ * buffered and written inline; a larger one is only read for its CRC and then copied like any
+ * other.
+ *
+ * <p><strong>Consistency.</strong> A body's header carries the CRC and size from its HEAD, so every
+ * copy and ranged GET of it is conditional on that HEAD's ETag. If the object was replaced in
+ * between, S3 answers 412; the upload is aborted and the archive rebuilt with that entry as a
+ * placeholder, so the cache never marks a mismatched archive complete.
+ *
+ * <p>Entry naming and the {@code .error.txt} placeholder for an unreadable object match the
+ * streaming builder in {@link DownloadUrlService}, so either path yields the same archive listing.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class S3CopyZipAssembler {
+
+  /** S3's minimum size for every part except the last. */
+  static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+  /** S3's maximum size of a single part, copied or uploaded. */
+  static final long MAX_COPY_PART_SIZE = 5L * 1024 * 1024 * 1024;
+
+  /** S3's maximum number of parts in one multipart upload. */
+  static final int MAX_PARTS = 10_000;
+
+  private final S3Client s3Client;
+
+  @Value("${aws.portfolio.s3.bucket}")
+  private String bucketName;
+
+  @Value("${app.download.zip.head-concurrency:16}")
+  private int headConcurrency;
+
+  @Value("${app.download.zip.prefetch-concurrency:8}")
+  private int prefetchConcurrency;
+
+  @Value("${app.download.zip.prefetch-budget-mb:256}")
+  private long prefetchBudgetMb;
+
+  @Value("${app.download.zip.stream-threshold-mb:32}")
+  private long streamThresholdMb;
+
+  /** One entry's HEAD: the response, or the S3 failure that becomes a placeholder. */
+  private record Head(HeadObjectResponse response, SdkException error) {}
+
+  /** How one entry's body gets into the archive. */
+  private sealed interface Body {
+    long size();
+
+    long crc();
+  }
+
+  /** Body already in memory: a small object without a stored CRC, or an error placeholder. */
+  private record InlineBody(byte[] bytes, long crc, boolean placeholder) implements Body {
+    @Override
+    public long size() {
+      return bytes.length;
+    }
+  }
+
+  /** Body copied server-side from {@code s3Key}, as long as it still has {@code etag}. */
+  private record CopiedBody(String s3Key, String etag, long size, long crc) implements Body {}
+
+  /** A copy or ranged GET answered 412: the object changed after its HEAD. */
+  private static final class SourceChangedException extends RuntimeException {
+    private final String s3Key;
+
+    SourceChangedException(String s3Key, S3Exception cause) {
+      super("S3 object changed during ZIP assembly: " + s3Key, cause);
+      this.s3Key = s3Key;
+    }
+  }
+
+  /**
+   * Assemble a ZIP of {@code entries} at {@code key}. Part requests run on {@code executor}, at
+   * most {@code maxInFlightParts} at a time. On any failure the multipart upload is aborted and the
+   * error rethrown.
+   *
+   * @return Entries written as {@code .error.txt} placeholders
+   */
+  public int assemble(
+      List<DownloadResolution> entries, String key, Executor executor, int maxInFlightParts) {
+    return assemble(entries, key, executor, maxInFlightParts, DownloadUrlService.ZipProgress.NONE);
+  }
+
+  /**
+   * As above, reporting each entry to {@code progress} once its parts have been submitted.
+   *
+   * @return Entries written as {@code .error.txt} placeholders
+   */
+  public int assemble(
+      List<DownloadResolution> entries,
+      String key,
+      Executor executor,
+      int maxInFlightParts,
+      DownloadUrlService.ZipProgress progress) {
+    List<Head> heads = headAll(entries, executor);
+    Map<String, SdkException> changed = new HashMap<>();
+    AtomicInteger reported = new AtomicInteger();
+    while (true) {
+      try {
+        return assembleOnce(
+            entries, heads, changed, key, executor, maxInFlightParts, progress, reported);
+      } catch (SourceChangedException e) {
+        if (changed.putIfAbsent(e.s3Key, (S3Exception) e.getCause()) != null) {
+          throw e;
+        }
+        log.warn(
+            "S3 object changed while being copied into a ZIP; rebuilding with a placeholder"
+                + " (key={}, source={})",
+            key,
+            e.s3Key);
+      }
+    }
+  }
+
+  /**
+   * One pass over the entries into a fresh multipart upload, with the {@code changed} entries as
+   * placeholders. Entries below {@code reported} were reported by an earlier pass and are not
+   * reported again.
+   */
+  private int assembleOnce(
+      List<DownloadResolution> entries,
+      List<Head> heads,
+      Map<String, SdkException> changed,
+      String key,
+      Executor executor,
+      int maxInFlightParts,
+      DownloadUrlService.ZipProgress progress,
+      AtomicInteger reported) {
+    List<DownloadResolution> uncopyable = new ArrayList<>();
+    for (int i = 0; i < entries.size(); i++) {
+      if (heads.get(i).error() == null
+          && !changed.containsKey(entries.get(i).s3Key())
+          && storedCrc(heads.get(i)) == null) {
+        uncopyable.add(entries.get(i));
+      }
+    }
+    try (ZipEntryPrefetcher inlineFetches =
+        new ZipEntryPrefetcher(
+            uncopyable,
+            this::openObject,
+            executor,
+            prefetchConcurrency,
+            prefetchBudgetMb * 1024 * 1024,
+            streamThresholdMb * 1024 * 1024)) {
+      PartWriter parts = new PartWriter(key, executor, maxInFlightParts);
+      int copied = 0;
+      int placeholders = 0;
+      try {
+        StoredZipLayout layout = new StoredZipLayout(LocalDateTime.now());
+        int seq = 0;
+        for (int i = 0; i < entries.size(); i++) {
+          DownloadResolution entry = entries.get(i);
+          SdkException change = changed.get(entry.s3Key());
+          Body body =
+              change != null
+                  ? placeholder(change)
+                  : resolveBody(entry, heads.get(i), inlineFetches);
+          boolean placeholder = body instanceof InlineBody inline && inline.placeholder();
+          String name =
+              String.format(placeholder ? "%03d_%s.error.txt" : "%03d_%s", seq++, entry.filename());
+          parts.writeInline(layout.addEntry(name, body.size(), body.crc()));
+          switch (body) {
+            case InlineBody inline -> parts.writeInline(inline.bytes());
+            case CopiedBody copy -> {
+              parts.writeCopy(copy.s3Key(), copy.etag(), copy.size());
+              copied++;
+            }
+          }
+          if (placeholder) {
+            placeholders++;
+          }
+          if (i >= reported.get()) {
+            progress.entryWritten(placeholder ? 0 : body.size());
+            reported.set(i + 1);
+          }
+        }
+        parts.writeInline(layout.finish());
+        parts.complete();
+      } catch (RuntimeException e) {
+        parts.abort();
+        throw e;
+      }
+      log.info(
+          "Assembled ZIP in S3 by part copy (key={}, count={}, copied={}, parts={},"
+              + " placeholders={})",
+          key,
+          entries.size(),
+          copied,
+          parts.partCount(),
+          placeholders);
+      return placeholders;
+    }
+  }
+
+  /** HEAD every entry up front, at most {@code app.download.zip.head-concurrency} at a time. */
+  private List<Head> headAll(List<DownloadResolution> entries, Executor executor) {
+    Semaphore slots = new Semaphore(Math.max(1, headConcurrency));
+    List<CompletableFuture<Head>> pending = new ArrayList<>(entries.size());
+    for (DownloadResolution entry : entries) {
+      try {
+        slots.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for a HEAD slot", e);
+      }
+      CompletableFuture<Head> future = CompletableFuture.supplyAsync(() -> head(entry), executor);
+      future.whenComplete((head, error) -> slots.release());
+      pending.add(future);
+    }
+    List<Head> heads = new ArrayList<>(pending.size());
+    for (CompletableFuture<Head> future : pending) {
+      try {
+        heads.add(future.join());
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+      }
+    }
+    return heads;
+  }
+
+  private Head head(DownloadResolution entry) {
+    try {
+      return new Head(
+          s3Client.headObject(
+              HeadObjectRequest.builder()
+                  .bucket(bucketName)
+                  .key(entry.s3Key())
+                  .checksumMode(ChecksumMode.ENABLED)
+                  .build()),
+          null);
+    } catch (SdkException e) {
+      log.warn(
+          "Failed to read S3 object for ZIP entry (key={}): {}", entry.s3Key(), e.getMessage());
+      return new Head(null, e);
+    }
+  }
+
+  private static Long storedCrc(Head head) {
+    return fullObjectCrc32(head.response().checksumCRC32());
+  }
+
+  /**
+   * Copy the body when the HEAD found a stored CRC; otherwise take the next prefetched object, in
+   * the order {@link #assemble} listed the uncopyable entries, and copy it too if the prefetcher
+   * only computed its CRC.
+   */
+  private Body resolveBody(DownloadResolution entry, Head head, ZipEntryPrefetcher inlineFetches) {
+    if (head.error() != null) {
+      return placeholder(head.error());
+    }
+    Long crc = storedCrc(head);
+    if (crc != null) {
+      return new CopiedBody(
+          entry.s3Key(), head.response().eTag(), head.response().contentLength(), crc);
+    }
+    log.debug("No stored CRC32 for {}; reading it to compute one", entry.s3Key());
+    ZipEntryPrefetcher.Fetched fetched;
+    try {
+      fetched = inlineFetches.next();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (fetched.error() != null) {
+      log.warn(
+          "Failed to read S3 object for ZIP entry (key={}): {}",
+          entry.s3Key(),
+          fetched.error().getMessage());
+      return placeholder(fetched.error());
+    }
+    if (fetched.streamed()) {
+      return new CopiedBody(entry.s3Key(), head.response().eTag(), fetched.size(), fetched.crc());
+    }
+    return new InlineBody(fetched.bytes(), fetched.crc(), false);
+  }
+
+  private static InlineBody placeholder(SdkException error) {
+    return inline(
+        ("Could not include this image: " + error.getClass().getSimpleName())
+            .getBytes(StandardCharsets.UTF_8),
+        true);
+  }
+
+  private static InlineBody inline(byte[] bytes, boolean placeholder) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes);
+    return new InlineBody(bytes, crc.getValue(), placeholder);
+  }
+
+  /**
+   * Decode S3's base64 big-endian CRC32. A composite checksum of a multipart object ({@code
+   * "...-N"}) is a CRC of part CRCs, not of the body, so it is treated as absent.
+   */
+  static Long fullObjectCrc32(String checksum) {
+    if (checksum == null || checksum.contains("-")) {
+      return null;
+    }
+    return ByteBuffer.wrap(Base64.getDecoder().decode(checksum)).getInt() & 0xFFFFFFFFL;
+  }
+
+  /** Send one whole-object GET. Runs on a prefetch thread; SdkException becomes a placeholder. */
+  private ResponseInputStream<GetObjectResponse> openObject(DownloadResolution entry) {
+    return s3Client.getObject(
+        GetObjectRequest.builder().bucket(bucketName).key(entry.s3Key()).build());
+  }
+
+  private byte[] readRange(String s3Key, String etag, long start, long endExclusive) {
+    if (endExclusive <= start) {
+      return new byte[0];
+    }
+    GetObjectRequest request =
+        GetObjectRequest.builder()
+            .bucket(bucketName)
+            .key(s3Key)
+            .ifMatch(etag)
+            .range("bytes=" + start + "-" + (endExclusive - 1))
+            .build();
+    try (ResponseInputStream<GetObjectResponse> in = s3Client.getObject(request)) {
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (S3Exception e) {
+      throw sourceChanged(s3Key, e);
+    }
+  }
+
+  /** A 412 becomes {@link SourceChangedException}; any other failure is returned as is. */
+  private static RuntimeException sourceChanged(String s3Key, S3Exception e) {
+    return e.statusCode() == 412 ? new SourceChangedException(s3Key, e) : e;
+  }
+
+  /**
+   * Turns the archive's byte stream (inline bytes and copied ranges) into valid multipart parts,
+   * buffering inline bytes until they reach {@link #MIN_PART_SIZE}.
+   */
+  private final class PartWriter {
+    private final String key;
+    private final String uploadId;
+    private final Executor executor;
+    private final Semaphore inFlight;
+    private final List<CompletableFuture<CompletedPart>> pending = new ArrayList<>();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private int partNumber = 1;
+
+    PartWriter(String key, Executor executor, int maxInFlightParts) {
+      this.key = key;
+      this.executor = executor;
+      this.inFlight = new Semaphore(Math.max(1, maxInFlightParts));
+      this.uploadId = s3Client.createMultipartUpload(b -> b.bucket(bucketName).key(key)).uploadId();
+    }
+
+    int partCount() {
+      return partNumber - 1;
+    }
+
+    void writeInline(byte[] bytes) {
+      buffer.writeBytes(bytes);
+      if (buffer.size() >= MIN_PART_SIZE) {
+        flushBuffer();
+      }
+    }
+
+    void writeCopy(String sourceKey, String etag, long size) {
+      long position = 0;
+      if (buffer.size() > 0) {
+        long need = MIN_PART_SIZE - buffer.size();
+        if (size - need < MIN_PART_SIZE) {
+          // Too small to leave a copyable remainder: coalesce the whole body.
+          writeInline(readRange(sourceKey, etag, 0, size));
+          return;
+        }
+        buffer.writeBytes(readRange(sourceKey, etag, 0, need));
+        flushBuffer();
+        position = need;
+      }
+      long remaining = size - position;
+      if (remaining < MIN_PART_SIZE) {
+        writeInline(readRange(sourceKey, etag, position, size));
+        return;
+      }
+      long chunks = (remaining + MAX_COPY_PART_SIZE - 1) / MAX_COPY_PART_SIZE;
+      long chunkSize = (remaining + chunks - 1) / chunks;
+      while (position < size) {
+        long end = Math.min(size, position + chunkSize);
+        String range = "bytes=" + position + "-" + (end - 1);
+        submit(number -> () -> copyPart(number, sourceKey, etag, range));
+        position = end;
+      }
+    }
+
+    private CompletedPart copyPart(int number, String sourceKey, String etag, String range) {
+      try {
+        return CompletedPart.builder()
+            .partNumber(number)
+            .eTag(
+                s3Client
+                    .uploadPartCopy(
+                        UploadPartCopyRequest.builder()
+                            .sourceBucket(bucketName)
+                            .sourceKey(sourceKey)
+                            .copySourceIfMatch(etag)
+                            .copySourceRange(range)
+                            .destinationBucket(bucketName)
+                            .destinationKey(key)
+                            .uploadId(uploadId)
+                            .partNumber(number)
+                            .build())
+                    .copyPartResult()
+                    .eTag())
+            .build();
+      } catch (S3Exception e) {
+        throw sourceChanged(sourceKey, e);
+      }
+    }
+
+    private void flushBuffer() {
+      byte[] part = buffer.toByteArray();
+      buffer.reset();
+      submit(
+          number ->
+              () ->
+                  CompletedPart.builder()
+                      .partNumber(number)
+                      .eTag(
+                          s3Client
+                              .uploadPart(
+                                  b ->
+                                      b.bucket(bucketName)
+                                          .key(key)
+                                          .uploadId(uploadId)
+                                          .partNumber(number),
+                                  RequestBody.fromBytes(part))
+                              .eTag())
+                      .build());
+    }
+
+    private void submit(IntFunction<Supplier<CompletedPart>> request) {
+      if (partNumber > MAX_PARTS) {
+        throw new IllegalStateException(
+            "ZIP needs more than " + MAX_PARTS + " parts; too many entries for part copy");
+      }
+      Supplier<CompletedPart> call = request.apply(partNumber++);
+      try {
+        inFlight.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for a part slot", e);
+      }
+      CompletableFuture<CompletedPart> future = CompletableFuture.supplyAsync(call, executor);
+      future.whenComplete((part, error) -> inFlight.release());
+      pending.add(future);
+    }
+
+    void complete() {
+      if (buffer.size() > 0) {
+        flushBuffer(); // the final part may be any size
+      }
+      List<CompletedPart> completed = new ArrayList<>(pending.size());
+      for (CompletableFuture<CompletedPart> future : pending) {
+        try {
+          completed.add(future.join());
+        } catch (CompletionException e) {
+          throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        }
+      }
+      completed.sort(Comparator.comparingInt(CompletedPart::partNumber));
+      CompletedMultipartUpload upload = CompletedMultipartUpload.builder().parts(completed).build();
+      s3Client.completeMultipartUpload(
+          b -> b.bucket(bucketName).key(key).uploadId(uploadId).multipartUpload(upload));
+    }
+
+    void abort() {
+      // Let in-flight parts settle so none lands after the abort as an orphan.
+      for (CompletableFuture<CompletedPart> future : pending) {
+        future.handle((part, error) -> null).join();
+      }
+      try {
+        s3Client.abortMultipartUpload(b -> b.bucket(bucketName).key(key).uploadId(uploadId));
+      } catch (RuntimeException e) {
+        log.warn("Failed to abort multipart upload (key={}): {}", key, e.getMessage());
+      }
+    }
+  }
+}
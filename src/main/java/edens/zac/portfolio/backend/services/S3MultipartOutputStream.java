@@ -3,7 +3,13 @@ package edens.zac.portfolio.backend.services;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.extern.slf4j.Slf4j;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
@@ -22,7 +28,11 @@ import software.amazon.awssdk.services.s3.model.CompletedPart;
  *   <li>S3 requires every part except the last to be at least 5 MB. We flush a part only when the
  *       buffer is completely full (exactly {@link #PART_SIZE}), so every non-final part is exactly
  *       5 MB and the trailing part (flushed on {@link #close()}) is whatever remains.
- *   <li>The stream is single-threaded / not thread-safe — one download builds one ZIP.
+ *   <li>The stream is single-threaded / not thread-safe — one download builds one ZIP. With an
+ *       {@link Executor} the part <em>uploads</em> run in the background (at most {@code
+ *       maxInFlightParts} at once, so memory stays bounded at that many parts) while the writer
+ *       keeps filling the next buffer; a failed background upload surfaces on the next write or on
+ *       {@link #close()}.
  *   <li>{@link #close()} completes the upload. If any write or the completion fails, the multipart
  *       upload is aborted so S3 doesn't retain orphaned parts (which would otherwise accrue storage
  *       cost until a lifecycle rule reaps them).
@@ -40,6 +50,13 @@ public class S3MultipartOutputStream extends OutputStream {
   private final String uploadId;
   private final List<CompletedPart> completedParts = new ArrayList<>();
 
+  /** Null for synchronous uploads on the writing thread. */
+  private final Executor partUploader;
+
+  private final Semaphore inFlightParts;
+  private final List<CompletableFuture<CompletedPart>> pendingParts = new ArrayList<>();
+  private final AtomicReference<Throwable> uploadFailure = new AtomicReference<>();
+
   private final byte[] buffer = new byte[PART_SIZE];
   private int bufferLen = 0;
   private int partNumber = 1;
@@ -48,9 +65,20 @@ public class S3MultipartOutputStream extends OutputStream {
 
   /** Opens the multipart upload immediately so writes can begin streaming parts. */
   public S3MultipartOutputStream(S3Client s3Client, String bucket, String key) {
+    this(s3Client, bucket, key, null, 1);
+  }
+
+  /**
+   * Opens the multipart upload with parts uploaded asynchronously on {@code partUploader}, at most
+   * {@code maxInFlightParts} at a time. The writer blocks only when that many parts are in flight.
+   */
+  public S3MultipartOutputStream(
+      S3Client s3Client, String bucket, String key, Executor partUploader, int maxInFlightParts) {
     this.s3Client = s3Client;
     this.bucket = bucket;
     this.key = key;
+    this.partUploader = partUploader;
+    this.inFlightParts = new Semaphore(Math.max(1, maxInFlightParts));
     this.uploadId = s3Client.createMultipartUpload(b -> b.bucket(bucket).key(key)).uploadId();
   }
 
@@ -81,15 +109,70 @@ public class S3MultipartOutputStream extends OutputStream {
   /** Uploads the current buffer as the next part (full 5 MB parts, plus the final part). */
   private void uploadBufferedPart() {
     final int number = partNumber;
+    final byte[] part = Arrays.copyOf(buffer, bufferLen);
+    partNumber++;
+    bufferLen = 0;
+    if (partUploader == null) {
+      completedParts.add(uploadPart(number, part));
+      return;
+    }
+    rethrowUploadFailure();
+    try {
+      inFlightParts.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a part upload slot", e);
+    }
+    CompletableFuture<CompletedPart> future =
+        CompletableFuture.supplyAsync(() -> uploadPart(number, part), partUploader);
+    future.whenComplete(
+        (completed, error) -> {
+          inFlightParts.release();
+          if (error != null) {
+            uploadFailure.compareAndSet(null, unwrap(error));
+          }
+        });
+    pendingParts.add(future);
+  }
+
+  private CompletedPart uploadPart(int number, byte[] part) {
     String etag =
         s3Client
             .uploadPart(
                 b -> b.bucket(bucket).key(key).uploadId(uploadId).partNumber(number),
-                RequestBody.fromBytes(Arrays.copyOf(buffer, bufferLen)))
+                RequestBody.fromBytes(part))
             .eTag();
-    completedParts.add(CompletedPart.builder().partNumber(number).eTag(etag).build());
-    partNumber++;
-    bufferLen = 0;
+    return CompletedPart.builder().partNumber(number).eTag(etag).build();
+  }
+
+  /** Wait for every background part upload; rethrows the first failure. */
+  private void awaitPendingParts() {
+    for (CompletableFuture<CompletedPart> future : pendingParts) {
+      try {
+        completedParts.add(future.join());
+      } catch (CompletionException e) {
+        uploadFailure.compareAndSet(null, unwrap(e));
+      }
+    }
+    pendingParts.clear();
+    rethrowUploadFailure();
+    completedParts.sort(Comparator.comparingInt(CompletedPart::partNumber));
+  }
+
+  private void rethrowUploadFailure() {
+    Throwable failure = uploadFailure.get();
+    if (failure instanceof RuntimeException runtime) {
+      throw runtime;
+    }
+    if (failure != null) {
+      throw new IllegalStateException("Multipart part upload failed", failure);
+    }
+  }
+
+  private static Throwable unwrap(Throwable error) {
+    return error instanceof CompletionException && error.getCause() != null
+        ? error.getCause()
+        : error;
   }
 
   /** Aborts the multipart upload, best-effort. Safe to call more than once. */
@@ -98,6 +181,12 @@ public class S3MultipartOutputStream extends OutputStream {
       return;
     }
     aborted = true;
+    // Let in-flight part uploads settle first: a part that lands after the abort would be
+    // retained by S3 as an orphan.
+    for (CompletableFuture<CompletedPart> future : pendingParts) {
+      future.handle((completed, error) -> null).join();
+    }
+    pendingParts.clear();
     try {
       s3Client.abortMultipartUpload(b -> b.bucket(bucket).key(key).uploadId(uploadId));
     } catch (RuntimeException e) {
@@ -116,6 +205,7 @@ public class S3MultipartOutputStream extends OutputStream {
       if (bufferLen > 0) {
         uploadBufferedPart();
       }
+      awaitPendingParts();
       // A well-formed ZIP always has an end-of-central-directory record, so completedParts is never
       // empty in practice. Guard anyway: an empty multipart upload cannot be completed.
       if (completedParts.isEmpty()) {
@@ -0,0 +1,49 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.dao.SchedulerLockRepository;
+import java.time.Duration;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs a scheduled task on one instance per period, ShedLock-style, on the {@code scheduler_lock}
+ * table (V62).
+ *
+ * <p>The instance that takes a task's lease runs it; the lease is not released when the task
+ * finishes but expires after {@code leaseFor}, so instances whose schedules fire later in the same
+ * period find it held and skip. A lease is only a database row, so no connection is held while the
+ * task runs, and a crashed holder's lease simply lapses. A task that outlives its lease may overlap
+ * with the next holder, so leased tasks must be idempotent.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SchedulerLockService {
+
+  private final SchedulerLockRepository schedulerLockRepository;
+  private final ClusterNode clusterNode;
+
+  /**
+   * Run {@code task} here if this instance takes the lease on {@code name}.
+   *
+   * @param leaseFor how long other instances skip the task; keep it a little under its interval
+   * @return true if the task ran here
+   */
+  public boolean runExclusively(String name, Duration leaseFor, Runnable task) {
+    boolean acquired;
+    try {
+      acquired = schedulerLockRepository.tryAcquire(name, leaseFor, clusterNode.id());
+    } catch (DataAccessException e) {
+      log.warn("Could not take scheduler lease {}; skipping this run: {}", name, e.getMessage());
+      return false;
+    }
+    if (!acquired) {
+      log.trace("Scheduler lease {} is held elsewhere; skipping", name);
+      return false;
+    }
+    task.run();
+    return true;
+  }
+}
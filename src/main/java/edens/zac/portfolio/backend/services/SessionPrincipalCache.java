@@ -0,0 +1,153 @@
+package edens.zac.portfolio.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import edens.zac.portfolio.backend.dao.UserSessionRepository;
+import edens.zac.portfolio.backend.dao.UserSessionRepository.SessionTouch;
+import edens.zac.portfolio.backend.model.AuthPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-instance cache of resolved sessions, keyed by the SHA-256 token hash, so an authenticated
+ * request normally costs a hash and a map lookup instead of a {@code user_session} read, a {@code
+ * users} read and the occasional sliding-window UPDATE.
+ *
+ * <p>Entries live for {@code app.auth.session.cache.ttl-seconds} after they were loaded, which
+ * bounds how long a revocation or user change made on another instance can go unnoticed here.
+ * Changes made on this instance evict explicitly: logout by token, and user edits and merges by
+ * user id (immediately and again after commit, so a request racing the transaction cannot re-cache
+ * the old row).
+ *
+ * <p>Sliding-window touches are buffered and written in one batch every {@code
+ * app.auth.session.touch-flush-ms}; a touch only ever extends {@code expires_at}, so losing a
+ * buffered one on a crash merely lets the session lapse at its previous expiry.
+ *
+ * <p>Hit, miss and eviction counts are exported as the {@code cache.*} meters tagged {@code
+ * cache=session_principal}.
+ */
+@Component
+@Slf4j
+public class SessionPrincipalCache implements MeterBinder {
+
+  /** A resolved session as of its last load or slide. */
+  record CachedSession(
+      Long sessionId,
+      AuthPrincipal principal,
+      LocalDateTime createdAt,
+      LocalDateTime lastSeenAt,
+      LocalDateTime expiresAt) {}
+
+  private final UserSessionRepository sessionRepository;
+  private final boolean enabled;
+  private final Cache<String, CachedSession> sessions;
+  private final Map<Long, SessionTouch> pendingTouches = new ConcurrentHashMap<>();
+
+  /**
+   * Spring constructor: binds config and the session repository used for touch flushes.
+   *
+   * @param sessionRepository the repository for {@code user_session} rows
+   * @param ttlSeconds how long a resolved session is trusted without re-reading it; 0 disables
+   *     caching (every resolve reads the database)
+   * @param maxSize upper bound on cached sessions
+   */
+  public SessionPrincipalCache(
+      UserSessionRepository sessionRepository,
+      @Value("${app.auth.session.cache.ttl-seconds:30}") long ttlSeconds,
+      @Value("${app.auth.session.cache.max-size:10000}") long maxSize) {
+    this.sessionRepository = sessionRepository;
+    this.enabled = ttlSeconds > 0;
+    this.sessions =
+        Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(Math.max(ttlSeconds, 0)))
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, sessions, "session_principal");
+  }
+
+  CachedSession get(String tokenHash) {
+    return sessions.getIfPresent(tokenHash);
+  }
+
+  void put(String tokenHash, CachedSession session) {
+    if (!enabled) {
+      return;
+    }
+    sessions.put(tokenHash, session);
+  }
+
+  /** Forget one session, e.g. on logout. */
+  public void evictToken(String tokenHash) {
+    sessions.invalidate(tokenHash);
+  }
+
+  /**
+   * Forget every cached session of {@code userId} because the user row (email, admin flag) or the
+   * identity itself changed. Evicts now and, inside a transaction, once more after commit.
+   */
+  public void evictUser(Long userId) {
+    evictUserNow(userId);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              evictUserNow(userId);
+            }
+          });
+    }
+  }
+
+  private void evictUserNow(Long userId) {
+    sessions.asMap().values().removeIf(s -> s.principal().userId().equals(userId));
+  }
+
+  /** Buffer a sliding-window touch; a later touch for the same session replaces it. */
+  void recordTouch(Long sessionId, LocalDateTime lastSeenAt, LocalDateTime expiresAt) {
+    pendingTouches.put(sessionId, new SessionTouch(sessionId, lastSeenAt, expiresAt));
+  }
+
+  /** Write every buffered touch in one batch; also runs on shutdown. */
+  @Scheduled(fixedDelayString = "${app.auth.session.touch-flush-ms:10000}")
+  @PreDestroy
+  public void flushTouches() {
+    if (pendingTouches.isEmpty()) {
+      return;
+    }
+    List<SessionTouch> batch = new ArrayList<>(pendingTouches.size());
+    for (Long sessionId : List.copyOf(pendingTouches.keySet())) {
+      SessionTouch touch = pendingTouches.remove(sessionId);
+      if (touch != null) {
+        batch.add(touch);
+      }
+    }
+    try {
+      sessionRepository.touchAll(batch);
+    } catch (RuntimeException e) {
+      // Put them back unless a newer touch arrived meanwhile; the next flush retries.
+      batch.forEach(t -> pendingTouches.putIfAbsent(t.sessionId(), t));
+      log.warn("Session touch flush failed ({} pending): {}", batch.size(), e.getMessage());
+      return;
+    }
+    log.debug("Flushed {} session touches", batch.size());
+  }
+}
@@ -5,6 +5,7 @@ import edens.zac.portfolio.backend.dao.UserSessionRepository;
 import edens.zac.portfolio.backend.entity.AppUserEntity;
 import edens.zac.portfolio.backend.entity.UserSessionEntity;
 import edens.zac.portfolio.backend.model.AuthPrincipal;
+import edens.zac.portfolio.backend.services.SessionPrincipalCache.CachedSession;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.time.Duration;
@@ -21,6 +22,9 @@ import org.springframework.stereotype.Service;
  * ezac_session} cookie; only its SHA-256 hash is persisted (a DB leak never yields a usable
  * cookie). Sessions slide a 60-day window and can be revoked instantly. Cookie construction lives
  * here so controllers stay focused on HTTP wiring.
+ *
+ * <p>Resolved sessions are cached per instance by {@link SessionPrincipalCache} and sliding-window
+ * touches are written behind in batches, so a logged-in request normally resolves without a query.
  */
 @Service
 @Slf4j
@@ -30,6 +34,7 @@ public class SessionService {
 
   private final UserSessionRepository sessionRepository;
   private final AppUserRepository appUserRepository;
+  private final SessionPrincipalCache principalCache;
   private final boolean cookieSecure;
   private final long ttlDays;
   private final long refreshThresholdHours;
@@ -40,6 +45,7 @@ public class SessionService {
    *
    * @param sessionRepository the repository for {@code user_session} rows
    * @param appUserRepository the repository for {@code app_user} rows
+   * @param principalCache the per-instance resolved-session cache and touch buffer
    * @param cookieSecure whether the {@code ezac_session} cookie should carry the {@code Secure}
    *     flag (false in dev)
    * @param ttlDays sliding idle TTL in days; the cookie {@code Max-Age} matches and each slide
@@ -51,12 +57,14 @@ public class SessionService {
   public SessionService(
       UserSessionRepository sessionRepository,
       AppUserRepository appUserRepository,
+      SessionPrincipalCache principalCache,
       @Value("${app.auth.cookie-secure:true}") boolean cookieSecure,
       @Value("${app.auth.session.ttl-days:60}") long ttlDays,
       @Value("${app.auth.session.refresh-threshold-hours:24}") long refreshThresholdHours,
       @Value("${app.auth.session.max-lifetime-days:90}") long maxLifetimeDays) {
     this.sessionRepository = sessionRepository;
     this.appUserRepository = appUserRepository;
+    this.principalCache = principalCache;
     this.cookieSecure = cookieSecure;
     this.ttlDays = ttlDays;
     this.refreshThresholdHours = refreshThresholdHours;
@@ -117,33 +125,68 @@ public class SessionService {
     if (rawToken == null || rawToken.isBlank()) {
       return Optional.empty();
     }
-    Optional<UserSessionEntity> maybeSession =
-        sessionRepository.findByTokenHash(TokenUtil.sha256Hex(rawToken));
-    if (maybeSession.isEmpty()) {
-      return Optional.empty();
-    }
-    UserSessionEntity session = maybeSession.get();
+    String tokenHash = TokenUtil.sha256Hex(rawToken);
     LocalDateTime now = LocalDateTime.now();
-    if (session.getRevokedAt() != null || session.getExpiresAt().isBefore(now)) {
+
+    CachedSession cached = principalCache.get(tokenHash);
+    boolean changed = false;
+    if (cached == null) {
+      Optional<CachedSession> loaded = load(tokenHash, now);
+      if (loaded.isEmpty()) {
+        return Optional.empty();
+      }
+      cached = loaded.get();
+      changed = true;
+    } else if (cached.expiresAt().isBefore(now)) {
+      principalCache.evictToken(tokenHash);
       return Optional.empty();
     }
 
-    if (session.getLastSeenAt().isBefore(now.minusHours(refreshThresholdHours))) {
+    if (cached.lastSeenAt().isBefore(now.minusHours(refreshThresholdHours))) {
       // Slide the idle window to now + ttlDays, but never past the absolute ceiling. The capped
       // expires_at then enforces the absolute timeout via the expires_at < now rejection above.
-      LocalDateTime absoluteMax = session.getCreatedAt().plusDays(maxLifetimeDays);
+      // The UPDATE is buffered; the cached copy carries the new window until it is flushed.
+      LocalDateTime absoluteMax = cached.createdAt().plusDays(maxLifetimeDays);
       LocalDateTime slideTo = now.plusDays(ttlDays);
       LocalDateTime newExpiry = slideTo.isBefore(absoluteMax) ? slideTo : absoluteMax;
-      sessionRepository.touch(session.getId(), now, newExpiry);
+      principalCache.recordTouch(cached.sessionId(), now, newExpiry);
+      cached =
+          new CachedSession(
+              cached.sessionId(), cached.principal(), cached.createdAt(), now, newExpiry);
+      changed = true;
     }
+    // Only (re)cache on a load or slide: a plain hit must not extend the entry's TTL, which is what
+    // bounds staleness against other instances.
+    if (changed) {
+      principalCache.put(tokenHash, cached);
+    }
+    return Optional.of(cached.principal());
+  }
 
+  /** Read a valid session and its user from the database; empty when either is not usable. */
+  private Optional<CachedSession> load(String tokenHash, LocalDateTime now) {
+    Optional<UserSessionEntity> maybeSession = sessionRepository.findByTokenHash(tokenHash);
+    if (maybeSession.isEmpty()) {
+      return Optional.empty();
+    }
+    UserSessionEntity session = maybeSession.get();
+    if (session.getRevokedAt() != null || session.getExpiresAt().isBefore(now)) {
+      return Optional.empty();
+    }
     Optional<AppUserEntity> maybeUser = appUserRepository.findById(session.getUserId());
     if (maybeUser.isEmpty()) {
       return Optional.empty();
     }
     AppUserEntity user = maybeUser.get();
+    AuthPrincipal principal =
+        new AuthPrincipal(user.getId(), user.getEmail(), user.isAdmin(), session.isMfaSatisfied());
     return Optional.of(
-        new AuthPrincipal(user.getId(), user.getEmail(), user.isAdmin(), session.isMfaSatisfied()));
+        new CachedSession(
+            session.getId(),
+            principal,
+            session.getCreatedAt(),
+            session.getLastSeenAt(),
+            session.getExpiresAt()));
   }
 
   /**
@@ -154,7 +197,9 @@ public class SessionService {
    */
   public void revoke(String rawToken, HttpServletResponse response) {
     if (rawToken != null && !rawToken.isBlank()) {
-      sessionRepository.revokeByTokenHash(TokenUtil.sha256Hex(rawToken));
+      String tokenHash = TokenUtil.sha256Hex(rawToken);
+      sessionRepository.revokeByTokenHash(tokenHash);
+      principalCache.evictToken(tokenHash);
     }
     response.addHeader(
         HttpHeaders.SET_COOKIE,
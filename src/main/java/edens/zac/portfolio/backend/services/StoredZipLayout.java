@@ -0,0 +1,193 @@
+package edens.zac.portfolio.backend.services;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes the records of a STORED (uncompressed) ZIP archive without ever seeing the entry bodies:
+ * the caller supplies each entry's size and CRC-32 up front, receives the local file header to
+ * emit, and is then responsible for emitting exactly {@code size} body bytes after it. {@link
+ * #finish()} returns the central directory and end records.
+ *
+ * <p>This is what lets {@link S3CopyZipAssembler} splice bodies in with server-side copies: the
+ * only bytes this class produces are headers, so they can be uploaded as small inline parts.
+ *
+ * <p>ZIP64 extra fields and end records are emitted only for values that do not fit the classic
+ * 32-bit (or, for the entry count, 16-bit) fields. The threshold is injectable so tests can force
+ * the ZIP64 path on a tiny archive.
+ */
+final class StoredZipLayout {
+
+  private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+  private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+  private static final int VERSION_STORED = 10;
+  private static final int VERSION_ZIP64 = 45;
+  private static final int FLAG_UTF8 = 0x0800;
+  private static final short ZIP64_EXTRA_ID = 0x0001;
+
+  private record Entry(byte[] name, long size, long crc, long offset) {}
+
+  private final long zip64Threshold;
+  private final int dosTime;
+  private final int dosDate;
+  private final List<Entry> entries = new ArrayList<>();
+  private long offset = 0;
+  private boolean finished = false;
+
+  StoredZipLayout(LocalDateTime modified) {
+    this(modified, ZIP64_MAGIC);
+  }
+
+  /**
+   * @param zip64Threshold Values at or above this are written as ZIP64. Production uses {@code
+   *     0xFFFFFFFF}; tests pass 0 to force every ZIP64 field.
+   */
+  StoredZipLayout(LocalDateTime modified, long zip64Threshold) {
+    this.zip64Threshold = zip64Threshold;
+    LocalDateTime t = modified.getYear() < 1980 ? LocalDateTime.of(1980, 1, 1, 0, 0) : modified;
+    this.dosTime = (t.getHour() << 11) | (t.getMinute() << 5) | (t.getSecond() / 2);
+    this.dosDate = ((t.getYear() - 1980) << 9) | (t.getMonthValue() << 5) | t.getDayOfMonth();
+  }
+
+  /** Bytes emitted so far, i.e. the archive offset of whatever is written next. */
+  long offset() {
+    return offset;
+  }
+
+  /**
+   * Register the next entry and return its local file header. The caller must follow it with
+   * exactly {@code size} body bytes.
+   */
+  byte[] addEntry(String name, long size, long crc) {
+    if (finished) {
+      throw new IllegalStateException("ZIP layout already finished");
+    }
+    byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+    boolean zip64 = size >= zip64Threshold;
+
+    ByteBuffer header = buffer(30 + nameBytes.length + (zip64 ? 20 : 0));
+    header.putInt(0x04034b50);
+    header.putShort((short) (zip64 ? VERSION_ZIP64 : VERSION_STORED));
+    header.putShort((short) FLAG_UTF8);
+    header.putShort((short) 0); // method: STORED
+    header.putShort((short) dosTime);
+    header.putShort((short) dosDate);
+    header.putInt((int) crc);
+    header.putInt((int) (zip64 ? ZIP64_MAGIC : size)); // compressed size
+    header.putInt((int) (zip64 ? ZIP64_MAGIC : size)); // uncompressed size
+    header.putShort((short) nameBytes.length);
+    header.putShort((short) (zip64 ? 20 : 0));
+    header.put(nameBytes);
+    if (zip64) {
+      header.putShort(ZIP64_EXTRA_ID);
+      header.putShort((short) 16);
+      header.putLong(size);
+      header.putLong(size);
+    }
+
+    entries.add(new Entry(nameBytes, size, crc, offset));
+    offset += header.capacity() + size;
+    return header.array();
+  }
+
+  /** Return the central directory plus (ZIP64 and classic) end records; ends the archive. */
+  byte[] finish() {
+    finished = true;
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long centralDirectoryOffset = offset;
+    for (Entry entry : entries) {
+      out.writeBytes(centralDirectoryHeader(entry));
+    }
+    long centralDirectorySize = out.size();
+    long end = centralDirectoryOffset + centralDirectorySize;
+
+    boolean zip64End =
+        entries.size() >= ZIP64_MAGIC_COUNT
+            || centralDirectoryOffset >= zip64Threshold
+            || centralDirectorySize >= zip64Threshold;
+    if (zip64End) {
+      ByteBuffer record = buffer(56 + 20);
+      record.putInt(0x06064b50);
+      record.putLong(44); // size of the remaining record
+      record.putShort((short) VERSION_ZIP64);
+      record.putShort((short) VERSION_ZIP64);
+      record.putInt(0); // this disk
+      record.putInt(0); // disk with the central directory
+      record.putLong(entries.size());
+      record.putLong(entries.size());
+      record.putLong(centralDirectorySize);
+      record.putLong(centralDirectoryOffset);
+      // Locator
+      record.putInt(0x07064b50);
+      record.putInt(0);
+      record.putLong(end);
+      record.putInt(1);
+      out.writeBytes(record.array());
+    }
+
+    ByteBuffer eocd = buffer(22);
+    eocd.putInt(0x06054b50);
+    eocd.putShort((short) 0);
+    eocd.putShort((short) 0);
+    short count = (short) (zip64End ? ZIP64_MAGIC_COUNT : entries.size());
+    eocd.putShort(count);
+    eocd.putShort(count);
+    eocd.putInt((int) (zip64End ? ZIP64_MAGIC : centralDirectorySize));
+    eocd.putInt((int) (zip64End ? ZIP64_MAGIC : centralDirectoryOffset));
+    eocd.putShort((short) 0); // comment length
+    out.writeBytes(eocd.array());
+
+    offset += out.size();
+    return out.toByteArray();
+  }
+
+  private byte[] centralDirectoryHeader(Entry entry) {
+    // The ZIP64 extra carries only the fields whose 32-bit slot holds the magic value, in the
+    // order the spec fixes: uncompressed size, compressed size, local header offset.
+    boolean sizeZip64 = entry.size() >= zip64Threshold;
+    boolean offsetZip64 = entry.offset() >= zip64Threshold;
+    int extraData = (sizeZip64 ? 16 : 0) + (offsetZip64 ? 8 : 0);
+    int extraLength = extraData == 0 ? 0 : 4 + extraData;
+
+    ByteBuffer header = buffer(46 + entry.name().length + extraLength);
+    header.putInt(0x02014b50);
+    header.putShort((short) VERSION_ZIP64); // version made by
+    header.putShort((short) (extraLength > 0 ? VERSION_ZIP64 : VERSION_STORED));
+    header.putShort((short) FLAG_UTF8);
+    header.putShort((short) 0);
+    header.putShort((short) dosTime);
+    header.putShort((short) dosDate);
+    header.putInt((int) entry.crc());
+    header.putInt((int) (sizeZip64 ? ZIP64_MAGIC : entry.size()));
+    header.putInt((int) (sizeZip64 ? ZIP64_MAGIC : entry.size()));
+    header.putShort((short) entry.name().length);
+    header.putShort((short) extraLength);
+    header.putShort((short) 0); // comment length
+    header.putShort((short) 0); // disk number start
+    header.putShort((short) 0); // internal attributes
+    header.putInt(0); // external attributes
+    header.putInt((int) (offsetZip64 ? ZIP64_MAGIC : entry.offset()));
+    header.put(entry.name());
+    if (extraLength > 0) {
+      header.putShort(ZIP64_EXTRA_ID);
+      header.putShort((short) extraData);
+      if (sizeZip64) {
+        header.putLong(entry.size());
+        header.putLong(entry.size());
+      }
+      if (offsetZip64) {
+        header.putLong(entry.offset());
+      }
+    }
+    return header.array();
+  }
+
+  private static ByteBuffer buffer(int size) {
+    return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+  }
+}
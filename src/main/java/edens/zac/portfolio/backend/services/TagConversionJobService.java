@@ -0,0 +1,184 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.model.SaveAsCollectionRequest;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background tag-to-collection conversions for tags too large to convert inside one admin request.
+ * The request thread enqueues a job and returns 202; the admin polls member and image counts while
+ * {@link TagService} copies the images in chunks, all in the conversion's single transaction.
+ *
+ * <p>Registered in {@link BackgroundJobRegistry} like {@link ArchiveJobService}, so the admin may
+ * poll any instance. A tag has at most one live job cluster-wide -- a second submit while one is
+ * pending or running joins it -- and at most {@code app.tags.conversion.max-concurrent-jobs}
+ * conversions run at once per instance.
+ */
+@Component
+@Slf4j
+public class TagConversionJobService {
+
+  private final TagService tagService;
+  private final BackgroundJobRegistry jobRegistry;
+  private final ExecutorService conversionExecutor;
+
+  /**
+   * @param maxConcurrentJobs Conversions run at once; each holds one long write transaction
+   */
+  public TagConversionJobService(
+      TagService tagService,
+      BackgroundJobRegistry jobRegistry,
+      @Value("${app.tags.conversion.max-concurrent-jobs:1}") int maxConcurrentJobs) {
+    this.tagService = tagService;
+    this.jobRegistry = jobRegistry;
+    this.conversionExecutor =
+        Executors.newFixedThreadPool(
+            Math.max(1, maxConcurrentJobs), Thread.ofVirtual().name("tag-convert-", 0).factory());
+  }
+
+  @PreDestroy
+  void shutdown() {
+    conversionExecutor.shutdownNow();
+  }
+
+  /** Mutable job state; the progress callbacks write it from the conversion thread. */
+  static class ConversionJob
+      implements TagService.ConversionProgress, BackgroundJobRegistry.TrackedJob {
+    private final UUID jobId = UUID.randomUUID();
+    private final Long tagId;
+    private final SaveAsCollectionRequest request;
+    private final AtomicInteger membersLinked = new AtomicInteger(0);
+    private final AtomicInteger imagesCopied = new AtomicInteger(0);
+    private volatile String status = "PENDING"; // PENDING, PROCESSING, COMPLETED, FAILED
+    private volatile int imagesTotal = -1;
+    private volatile Long collectionId;
+    private volatile String slug;
+    private volatile String error;
+
+    ConversionJob(Long tagId, SaveAsCollectionRequest request) {
+      this.tagId = tagId;
+      this.request = request;
+    }
+
+    @Override
+    public UUID jobId() {
+      return jobId;
+    }
+
+    @Override
+    public String status() {
+      return status;
+    }
+
+    @Override
+    public TagConversionJobResponse response() {
+      boolean completed = "COMPLETED".equals(status);
+      return new TagConversionJobResponse(
+          jobId,
+          tagId,
+          status,
+          membersLinked.get(),
+          imagesTotal,
+          imagesCopied.get(),
+          completed ? collectionId : null,
+          completed ? slug : null,
+          error);
+    }
+
+    @Override
+    public void collectionCreated(Long collectionId) {
+      this.collectionId = collectionId;
+    }
+
+    @Override
+    public void membersLinked(int count) {
+      membersLinked.addAndGet(count);
+    }
+
+    @Override
+    public void imagesPlanned(int total) {
+      imagesTotal = total;
+    }
+
+    @Override
+    public void imagesCopied(int count) {
+      imagesCopied.addAndGet(count);
+    }
+  }
+
+  /**
+   * Response DTO -- snapshot of current job state. {@code imagesTotal} is -1 until the member links
+   * are done and the image count is known; {@code collectionId} and {@code slug} are set only on
+   * COMPLETED (a failed conversion rolls its collection back).
+   */
+  public record TagConversionJobResponse(
+      UUID jobId,
+      Long tagId,
+      String status,
+      int membersLinked,
+      int imagesTotal,
+      int imagesCopied,
+      Long collectionId,
+      String slug,
+      String error) {}
+
+  /**
+   * Enqueue a conversion of this tag, or join the live job already converting it.
+   *
+   * @return Snapshot of the new or existing job
+   */
+  public TagConversionJobResponse submit(Long tagId, SaveAsCollectionRequest request) {
+    UUID jobId =
+        jobRegistry.submit(
+            BackgroundJobRegistry.Kind.TAG_CONVERSION,
+            tagId.toString(),
+            Duration.ZERO,
+            () -> new ConversionJob(tagId, request),
+            job -> {
+              conversionExecutor.submit(() -> run(job));
+              log.info("Queued conversion job {} for tag {}", job.jobId, tagId);
+            });
+    return getJob(jobId).orElseThrow();
+  }
+
+  /**
+   * Get a snapshot of the current job state.
+   *
+   * @param jobId The job ID to look up
+   * @return The job status response, or empty if not found
+   */
+  public Optional<TagConversionJobResponse> getJob(UUID jobId) {
+    return jobRegistry.response(
+        BackgroundJobRegistry.Kind.TAG_CONVERSION, jobId, TagConversionJobResponse.class);
+  }
+
+  private void run(ConversionJob job) {
+    job.status = "PROCESSING";
+    try {
+      job.slug =
+          tagService.convertTagToCollection(job.tagId, job.request, job).collection().getSlug();
+      job.status = "COMPLETED";
+      log.info(
+          "Conversion job {} completed: tag {} -> collection {} ({} members, {} images)",
+          job.jobId,
+          job.tagId,
+          job.collectionId,
+          job.membersLinked.get(),
+          job.imagesCopied.get());
+    } catch (Exception e) {
+      job.error = e.getMessage();
+      job.status = "FAILED";
+      log.error("Conversion job {} for tag {} failed: {}", job.jobId, job.tagId, e.getMessage(), e);
+    } finally {
+      jobRegistry.finished(job);
+    }
+  }
+}
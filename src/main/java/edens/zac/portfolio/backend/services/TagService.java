@@ -3,13 +3,11 @@ package edens.zac.portfolio.backend.services;
 import edens.zac.portfolio.backend.config.ResourceNotFoundException;
 import edens.zac.portfolio.backend.dao.CollectionRepository;
 import edens.zac.portfolio.backend.dao.TagRepository;
-import edens.zac.portfolio.backend.entity.CollectionContentEntity;
 import edens.zac.portfolio.backend.entity.CollectionEntity;
 import edens.zac.portfolio.backend.entity.TagEntity;
 import edens.zac.portfolio.backend.model.CollectionRequests;
 import edens.zac.portfolio.backend.model.SaveAsCollectionRequest;
 import edens.zac.portfolio.backend.types.CollectionVisibility;
-import java.time.LocalDateTime;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -34,6 +32,33 @@ public class TagService {
   private final CollectionRepository collectionRepository;
   private final CollectionService collectionService;
 
+  /**
+   * Images per {@code INSERT} in a background conversion, so progress advances between statements.
+   * The synchronous path copies every image in one statement.
+   */
+  static final int BACKGROUND_IMAGE_CHUNK = 5_000;
+
+  /**
+   * Progress callbacks for {@link #convertTagToCollection(Long, SaveAsCollectionRequest,
+   * ConversionProgress)}; every method defaults to a no-op.
+   */
+  public interface ConversionProgress {
+    /** The synchronous path: no reporting, images copied in one statement. */
+    ConversionProgress NONE = new ConversionProgress() {};
+
+    /** The target collection exists; {@code collectionId} is final even if the job later fails. */
+    default void collectionCreated(Long collectionId) {}
+
+    /** Member collections linked under the new collection. */
+    default void membersLinked(int count) {}
+
+    /** Number of images the snapshot will copy, known before the first chunk. */
+    default void imagesPlanned(int total) {}
+
+    /** Images copied by the latest chunk. */
+    default void imagesCopied(int count) {}
+  }
+
   /**
    * Promotes a tag into a real collection at {@code tag.slug}: creates the collection, snapshots
    * the tag's current members into it, and flags the tag converted so its tag-view stops rendering.
@@ -45,6 +70,23 @@ public class TagService {
   @Transactional
   public CollectionRequests.UpdateResponse convertTagToCollection(
       Long tagId, SaveAsCollectionRequest request) {
+    return convertTagToCollection(tagId, request, ConversionProgress.NONE);
+  }
+
+  /**
+   * {@link #convertTagToCollection(Long, SaveAsCollectionRequest)} reporting to {@code progress}.
+   * Anything other than {@link ConversionProgress#NONE} copies images in chunks of {@link
+   * #BACKGROUND_IMAGE_CHUNK} so the count moves; it is still one transaction, so a failed
+   * conversion leaves nothing behind.
+   *
+   * @param tagId tag to convert
+   * @param request optional client/blog flags and visibility (default UNLISTED)
+   * @param progress receives phase and image counts as the conversion runs
+   * @return the new collection in the same shape {@code createChildCollection} returns
+   */
+  @Transactional
+  public CollectionRequests.UpdateResponse convertTagToCollection(
+      Long tagId, SaveAsCollectionRequest request, ConversionProgress progress) {
     TagEntity tag =
         tagRepository
             .findById(tagId)
@@ -86,8 +128,9 @@ public class TagService {
     newCollection.setSlug(tag.getSlug());
     newCollection.setVisibility(visibility);
     collectionRepository.save(newCollection);
+    progress.collectionCreated(newCollectionId);
 
-    snapshotMembers(tagId, newCollectionId, request);
+    snapshotMembers(tagId, newCollectionId, request, progress);
 
     tagRepository.updateConvertedCollectionId(tagId, newCollectionId);
     log.info(
@@ -105,34 +148,40 @@ public class TagService {
    * the new collection. Image ids are derived from a visible membership in an in-scope collection
    * (see {@code TagRepository.findImageContentByTagId}), so HIDDEN-only images are already excluded
    * by the same scope.
+   *
+   * <p>Set-based: the members are linked as one batch ({@code
+   * CollectionService.linkCollectionsToParent}) and the images are copied by {@code INSERT ...
+   * SELECT}, ranked by capture date, rather than a statement per row.
    */
-  private void snapshotMembers(Long tagId, Long collectionId, SaveAsCollectionRequest request) {
+  private void snapshotMembers(
+      Long tagId, Long collectionId, SaveAsCollectionRequest request, ConversionProgress progress) {
     boolean includeHidden = request != null && request.includeHiddenMembers();
     List<CollectionVisibility> scope =
         includeHidden ? CollectionVisibility.visibleScope(true) : DEFAULT_SNAPSHOT_SCOPE;
 
-    List<CollectionEntity> memberCollections = tagRepository.findCollectionsByTagId(tagId, scope);
-    for (CollectionEntity member : memberCollections) {
-      // Skip password-gated member collections unless explicitly opted in.
-      if (!includeHidden && member.getGalleryPassword() != null) {
-        continue;
-      }
-      collectionService.linkCollectionToParent(collectionId, member.getId());
-    }
+    // Skip password-gated member collections unless explicitly opted in.
+    List<Long> memberIds =
+        tagRepository.findCollectionsByTagId(tagId, scope).stream()
+            .filter(member -> includeHidden || member.getGalleryPassword() == null)
+            .map(CollectionEntity::getId)
+            .toList();
+    progress.membersLinked(collectionService.linkCollectionsToParent(collectionId, memberIds));
 
-    List<Long> imageContentIds = tagRepository.findImageContentByTagId(tagId, scope);
     Integer maxOrderIndex = collectionRepository.getMaxOrderIndexForCollection(collectionId);
-    int orderIndex = maxOrderIndex != null ? maxOrderIndex + 1 : 0;
-    for (Long imageContentId : imageContentIds) {
-      collectionRepository.saveContent(
-          CollectionContentEntity.builder()
-              .collectionId(collectionId)
-              .contentId(imageContentId)
-              .orderIndex(orderIndex++)
-              .visible(true)
-              .createdAt(LocalDateTime.now())
-              .updatedAt(LocalDateTime.now())
-              .build());
+    int firstOrderIndex = maxOrderIndex != null ? maxOrderIndex + 1 : 0;
+    if (progress == ConversionProgress.NONE) {
+      int copied = tagRepository.snapshotTaggedImages(tagId, collectionId, scope, firstOrderIndex);
+      log.debug("Snapshotted {} tagged images into collection {}", copied, collectionId);
+      return;
+    }
+    // Rank once, then copy the ranked ids in chunks.
+    List<Long> imageIds = tagRepository.findTaggedImageIdsForSnapshot(tagId, collectionId, scope);
+    progress.imagesPlanned(imageIds.size());
+    for (int from = 0; from < imageIds.size(); from += BACKGROUND_IMAGE_CHUNK) {
+      List<Long> chunk =
+          imageIds.subList(from, Math.min(from + BACKGROUND_IMAGE_CHUNK, imageIds.size()));
+      progress.imagesCopied(
+          tagRepository.insertSnapshotImages(collectionId, chunk, firstOrderIndex + from));
     }
   }
 }
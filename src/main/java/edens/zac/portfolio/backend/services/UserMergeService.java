@@ -23,6 +23,7 @@ public class UserMergeService {
   private final AppUserRepository appUserRepository;
   private final PersonRepository personRepository;
   private final RoleRepository roleRepository;
+  private final SessionPrincipalCache sessionPrincipalCache;
 
   /**
    * Counts what a merge of {@code sourceId} into {@code targetId} would move, without mutating
@@ -76,6 +77,8 @@ public class UserMergeService {
     personRepository.repointTags(sourceId, targetId);
     roleRepository.repointMemberships(sourceId, targetId);
     personRepository.deletePersonById(sourceId);
+    sessionPrincipalCache.evictUser(sourceId);
+    sessionPrincipalCache.evictUser(targetId);
 
     log.info(
         "Merged person {} into {} (images={}, collections={}, collapsed={})",
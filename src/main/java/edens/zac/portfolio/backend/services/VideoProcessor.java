@@ -0,0 +1,376 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.services.VideoVariantPlanner.VideoVariantPlan;
+import jakarta.annotation.PreDestroy;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.imageio.ImageIO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the ffprobe/ffmpeg work for an MP4/MOV upload on a small dedicated worker pool, so video
+ * jobs are capped independently of image uploads and never run more than {@code app.video.workers}
+ * encoders at once.
+ *
+ * <p>One job writes the upload to a temp file once, probes it once, and produces every rendition
+ * from a single ffmpeg invocation: a {@code -filter_complex split} feeds the FULL re-encode (or a
+ * lossless stream copy), the separate WEB encode when {@link VideoVariantPlanner} asks for one, and
+ * the first frame, which comes back as PNG on stdout. MP4 outputs stay temp files: {@code
+ * +faststart} rewrites the file after encoding and needs a seekable output, and MP4 input with a
+ * trailing {@code moov} atom cannot be read from a pipe either.
+ *
+ * <p>Each job gets {@code app.video.job-timeout-seconds} from the moment a worker picks it up; a
+ * watchdog kills a process that outlives the deadline. CPU is capped per process with ffmpeg's
+ * {@code -threads}/{@code -filter_complex_threads} and, where {@code nice} exists, a lowered
+ * scheduling priority -- the in-process equivalent of a cgroup CPU share. At most {@code
+ * app.video.queue-capacity} jobs wait for a worker; beyond that an upload is refused rather than
+ * queued indefinitely.
+ */
+@Component
+@Slf4j
+public class VideoProcessor {
+
+  private static final Path NICE = Path.of("/usr/bin/nice");
+
+  /**
+   * Everything a video upload needs from ffmpeg.
+   *
+   * @param full the FULL (2000px master) MP4
+   * @param web the separate WEB MP4, or null when the full file doubles as the web file
+   * @param firstFrame the first frame at FULL dimensions, or null when it could not be decoded
+   */
+  public record VideoRenditions(byte[] full, byte[] web, BufferedImage firstFrame) {}
+
+  /** Output of one finished subprocess. */
+  record ProcessResult(int exitCode, byte[] stdout, String stderr) {}
+
+  private final MediaPipelineMetrics pipelineMetrics;
+  private final ThreadPoolExecutor workers;
+  private final ScheduledExecutorService watchdog;
+  private final long jobTimeoutNanos;
+  private final int ffmpegThreads;
+  private final List<String> nicePrefix;
+
+  /**
+   * Spring constructor: binds the pool and CPU limits.
+   *
+   * @param pipelineMetrics process timers
+   * @param workerCount concurrent video jobs
+   * @param queueCapacity jobs allowed to wait for a worker
+   * @param jobTimeoutSeconds wall-clock budget of one job, probe and encode together
+   * @param ffmpegThreads threads each ffmpeg process may use for decode, filters and encode
+   * @param niceness scheduling niceness for ffmpeg/ffprobe; 0 disables
+   */
+  public VideoProcessor(
+      MediaPipelineMetrics pipelineMetrics,
+      @Value("${app.video.workers:1}") int workerCount,
+      @Value("${app.video.queue-capacity:4}") int queueCapacity,
+      @Value("${app.video.job-timeout-seconds:300}") long jobTimeoutSeconds,
+      @Value("${app.video.ffmpeg-threads:2}") int ffmpegThreads,
+      @Value("${app.video.nice:10}") int niceness) {
+    this.pipelineMetrics = pipelineMetrics;
+    int poolSize = Math.max(1, workerCount);
+    this.workers =
+        new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+            Thread.ofPlatform().name("video-worker-", 0).daemon(true).factory());
+    this.watchdog =
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("video-watchdog").daemon(true).factory());
+    this.jobTimeoutNanos = TimeUnit.SECONDS.toNanos(jobTimeoutSeconds);
+    this.ffmpegThreads = Math.max(1, ffmpegThreads);
+    this.nicePrefix =
+        niceness > 0 && Files.isExecutable(NICE)
+            ? List.of(NICE.toString(), "-n", String.valueOf(niceness))
+            : List.of();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    workers.shutdownNow();
+    watchdog.shutdownNow();
+  }
+
+  /**
+   * Produce the renditions of one video on the worker pool; the calling thread waits for them.
+   *
+   * @param videoBytes the uploaded MP4/MOV
+   * @param filename the original filename (temp-file suffix and logging only)
+   * @return the encoded renditions
+   * @throws IOException if the queue is full, ffmpeg fails, or the job times out
+   */
+  public VideoRenditions process(byte[] videoBytes, String filename) throws IOException {
+    Future<VideoRenditions> job;
+    try {
+      job = workers.submit(() -> runJob(videoBytes, filename));
+    } catch (RejectedExecutionException e) {
+      throw new IOException("Video processing queue is full; retry the upload shortly", e);
+    }
+    try {
+      return job.get();
+    } catch (InterruptedException e) {
+      job.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted waiting for video processing", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException io) {
+        throw io;
+      }
+      throw new IOException("Video processing failed", e.getCause());
+    }
+  }
+
+  private VideoRenditions runJob(byte[] videoBytes, String filename) throws IOException {
+    long deadline = System.nanoTime() + jobTimeoutNanos;
+    Path input = Files.createTempFile("video-src-", "-" + safeTempName(filename));
+    Path full = Files.createTempFile("video-full-", ".mp4");
+    Path web = Files.createTempFile("video-web-", ".mp4");
+    try {
+      Files.write(input, videoBytes);
+
+      // Probe once; if probing fails, re-encode both variants (safe: a re-encode of an
+      // unknown-size file still caps it to the web ceilings).
+      int[] dims = probeDimensions(input, filename, deadline);
+      VideoVariantPlan plan =
+          dims != null
+              ? VideoVariantPlanner.compute(dims[0], dims[1])
+              : new VideoVariantPlan(
+                  true,
+                  VideoVariantPlanner.FULL_MAX_LONGEST_SIDE,
+                  true,
+                  VideoVariantPlanner.WEB_MAX_LONGEST_SIDE);
+
+      ProcessResult result =
+          run(
+              renditionCommand(plan, input, full, web, ffmpegThreads),
+              "ffmpeg",
+              plan.fullNeedsReencode() || plan.webIsSeparate() ? "encode" : "remux",
+              deadline);
+      if (result.exitCode() != 0) {
+        log.error("ffmpeg exited with code {}: {}", result.exitCode(), result.stderr());
+        throw new IOException("ffmpeg failed with exit code " + result.exitCode());
+      }
+
+      BufferedImage firstFrame = null;
+      if (result.stdout().length > 0) {
+        try (InputStream is = new ByteArrayInputStream(result.stdout())) {
+          firstFrame = ImageIO.read(is);
+        }
+      }
+      return new VideoRenditions(
+          Files.readAllBytes(full),
+          plan.webIsSeparate() ? Files.readAllBytes(web) : null,
+          firstFrame);
+    } finally {
+      Files.deleteIfExists(input);
+      Files.deleteIfExists(full);
+      Files.deleteIfExists(web);
+    }
+  }
+
+  /**
+   * Probe the pixel dimensions of the primary video stream.
+   *
+   * @return int[]{width, height}, or null if ffprobe fails or output is unparseable.
+   */
+  private int[] probeDimensions(Path input, String filename, long deadline) throws IOException {
+    ProcessResult result =
+        run(
+            List.of(
+                "ffprobe",
+                "-v",
+                "error",
+                "-select_streams",
+                "v:0",
+                "-show_entries",
+                "stream=width,height",
+                "-of",
+                "csv=s=x:p=0",
+                input.toAbsolutePath().toString()),
+            "ffprobe",
+            "probe",
+            deadline);
+    String out = new String(result.stdout(), StandardCharsets.UTF_8).trim();
+    if (result.exitCode() != 0) {
+      log.error("ffprobe exited with code {}: {}", result.exitCode(), result.stderr());
+      return null;
+    }
+    String[] parts = out.split("x");
+    if (parts.length != 2) {
+      log.error("ffprobe returned unexpected dimensions output: '{}'", out);
+      return null;
+    }
+    try {
+      return new int[] {Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim())};
+    } catch (NumberFormatException e) {
+      log.error("ffprobe dimensions not numeric for {}: {}", filename, e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * The single ffmpeg invocation for a plan. Re-encodes fit within the planned longest side
+   * (preserving aspect ratio, even dimensions, never upscaling -- the decrease-only scale filter
+   * only shrinks) as H.264 / yuv420p / CRF 23; a FULL variant that fits already is a lossless
+   * stream copy. Audio is dropped and faststart enabled on every MP4. The first frame, at FULL
+   * dimensions, goes to stdout as PNG.
+   */
+  static List<String> renditionCommand(
+      VideoVariantPlan plan, Path input, Path full, Path web, int threads) {
+    List<String> branches = new ArrayList<>();
+    if (plan.fullNeedsReencode()) {
+      branches.add("[v_full]" + scale(plan.fullTargetLongestSide()) + "[full]");
+    }
+    if (plan.webIsSeparate()) {
+      branches.add("[v_web]" + scale(plan.webTargetLongestSide()) + "[web]");
+    }
+    branches.add(
+        "[v_thumb]"
+            + (plan.fullNeedsReencode() ? scale(plan.fullTargetLongestSide()) : "null")
+            + "[thumb]");
+    StringBuilder graph = new StringBuilder("[0:v:0]split=").append(branches.size());
+    if (plan.fullNeedsReencode()) {
+      graph.append("[v_full]");
+    }
+    if (plan.webIsSeparate()) {
+      graph.append("[v_web]");
+    }
+    graph.append("[v_thumb];").append(String.join(";", branches));
+
+    String threadCount = String.valueOf(threads);
+    List<String> command = new ArrayList<>();
+    command.addAll(
+        List.of(
+            "ffmpeg",
+            "-nostdin",
+            "-y",
+            "-loglevel",
+            "error",
+            "-threads",
+            threadCount,
+            "-i",
+            input.toAbsolutePath().toString(),
+            "-filter_complex_threads",
+            threadCount,
+            "-filter_complex",
+            graph.toString()));
+    if (plan.fullNeedsReencode()) {
+      command.addAll(List.of("-map", "[full]"));
+      command.addAll(h264(threadCount));
+    } else {
+      command.addAll(List.of("-map", "0:v:0", "-c:v", "copy"));
+    }
+    command.addAll(List.of("-an", "-movflags", "+faststart", full.toAbsolutePath().toString()));
+    if (plan.webIsSeparate()) {
+      command.addAll(List.of("-map", "[web]"));
+      command.addAll(h264(threadCount));
+      command.addAll(List.of("-an", "-movflags", "+faststart", web.toAbsolutePath().toString()));
+    }
+    command.addAll(
+        List.of("-map", "[thumb]", "-frames:v", "1", "-c:v", "png", "-f", "image2pipe", "pipe:1"));
+    return command;
+  }
+
+  private static String scale(int maxLongestSide) {
+    return String.format(
+        "scale=w=%d:h=%d:force_original_aspect_ratio=decrease:force_divisible_by=2",
+        maxLongestSide, maxLongestSide);
+  }
+
+  private static List<String> h264(String threads) {
+    return List.of(
+        "-c:v",
+        "libx264",
+        "-profile:v",
+        "high",
+        "-pix_fmt",
+        "yuv420p",
+        "-crf",
+        "23",
+        "-preset",
+        "medium",
+        "-threads",
+        threads);
+  }
+
+  /**
+   * Run one process under the job deadline, collecting stdout in memory and stderr in a temp file
+   * (read back only for logging), so neither pipe can fill up and stall the process. A process
+   * still running at the deadline is killed and reported as a timeout.
+   */
+  ProcessResult run(List<String> command, String tool, String operation, long deadline)
+      throws IOException {
+    long remaining = deadline - System.nanoTime();
+    if (remaining <= 0) {
+      throw new IOException(tool + " not started: video job timed out");
+    }
+    List<String> full = new ArrayList<>(nicePrefix);
+    full.addAll(command);
+    Path stderr = Files.createTempFile("video-" + tool + "-", ".log");
+    ProcessBuilder pb = new ProcessBuilder(full).redirectError(stderr.toFile());
+    long startNanos = System.nanoTime();
+    Process process = pb.start();
+    AtomicBoolean timedOut = new AtomicBoolean();
+    ScheduledFuture<?> kill =
+        watchdog.schedule(
+            () -> {
+              timedOut.set(true);
+              process.destroyForcibly();
+            },
+            remaining,
+            TimeUnit.NANOSECONDS);
+    Integer exitCode = null;
+    try {
+      byte[] stdout;
+      try (InputStream is = process.getInputStream()) {
+        stdout = is.readAllBytes();
+      }
+      exitCode = process.waitFor();
+      if (timedOut.get()) {
+        throw new IOException(
+            tool + " killed after exceeding the video job timeout (" + operation + ")");
+      }
+      return new ProcessResult(exitCode, stdout, Files.readString(stderr));
+    } catch (InterruptedException e) {
+      process.destroyForcibly();
+      Thread.currentThread().interrupt();
+      throw new IOException(tool + " was interrupted", e);
+    } finally {
+      kill.cancel(false);
+      pipelineMetrics.recordProcess(tool, operation, startNanos, exitCode);
+      Files.deleteIfExists(stderr);
+    }
+  }
+
+  /** Filename safe for a temp suffix: strip path separators, fall back to a UUID. */
+  private static String safeTempName(String filename) {
+    if (filename == null || filename.isBlank()) {
+      return UUID.randomUUID() + ".mp4";
+    }
+    return filename.replaceAll("[/\\\\]", "_");
+  }
+}
@@ -1,12 +1,6 @@
 package edens.zac.portfolio.backend.services;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import java.time.Duration;
 import java.util.Optional;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Component;
 
 /**
  * Short-TTL, single-use store for in-flight WebAuthn ceremony options (the challenge). Because we
@@ -14,24 +8,13 @@ import org.springframework.stereotype.Component;
  * options minted in {@code /start} must be held server-side until {@code /finish}.
  *
  * <p>Keyed by {@code webauthn_user_handle} (registration) or a per-attempt id (login). {@link
- * #take(String)} removes-and-returns, so each challenge is consumed once (replay defence). Caffeine
- * bounds memory and expires stragglers after the TTL.
+ * #take(String)} removes-and-returns, so each challenge is consumed once (replay defence).
+ *
+ * <p>{@link InMemoryWebAuthnChallengeStore} keeps the options in this JVM, so {@code /finish} must
+ * reach the instance that served {@code /start}; {@link PostgresWebAuthnChallengeStore} lets any
+ * instance finish. Selected by {@code app.shared-state.backend}.
  */
-@Component
-public class WebAuthnChallengeStore {
-
-  private final Cache<String, Object> cache;
-
-  @Autowired
-  public WebAuthnChallengeStore(
-      @Value("${app.auth.webauthn.challenge-ttl-minutes:5}") long ttlMinutes) {
-    this(Duration.ofMinutes(ttlMinutes));
-  }
-
-  /** Test-friendly constructor accepting an explicit TTL so expiry can be exercised in millis. */
-  WebAuthnChallengeStore(Duration ttl) {
-    this.cache = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(10_000).build();
-  }
+public interface WebAuthnChallengeStore {
 
   /**
    * Store ceremony options under a key (user handle or per-attempt id).
@@ -39,9 +22,7 @@ public class WebAuthnChallengeStore {
    * @param key cache key
    * @param options ceremony options object to store
    */
-  public void put(String key, Object options) {
-    cache.put(key, options);
-  }
+  void put(String key, Object options);
 
   /**
    * Remove and return the stored options, or empty if absent/expired. Single-use.
@@ -49,8 +30,5 @@ public class WebAuthnChallengeStore {
    * @param key cache key
    * @return stored value if present, otherwise empty
    */
-  public Optional<Object> take(String key) {
-    Object value = cache.asMap().remove(key);
-    return Optional.ofNullable(value);
-  }
+  Optional<Object> take(String key);
 }
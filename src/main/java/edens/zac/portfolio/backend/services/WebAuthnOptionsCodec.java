@@ -0,0 +1,334 @@
+package edens.zac.portfolio.backend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import org.springframework.security.web.webauthn.api.AttestationConveyancePreference;
+import org.springframework.security.web.webauthn.api.AuthenticationExtensionsClientInput;
+import org.springframework.security.web.webauthn.api.AuthenticationExtensionsClientInputs;
+import org.springframework.security.web.webauthn.api.AuthenticatorAttachment;
+import org.springframework.security.web.webauthn.api.AuthenticatorSelectionCriteria;
+import org.springframework.security.web.webauthn.api.AuthenticatorTransport;
+import org.springframework.security.web.webauthn.api.Bytes;
+import org.springframework.security.web.webauthn.api.CredProtectAuthenticationExtensionsClientInput;
+import org.springframework.security.web.webauthn.api.CredProtectAuthenticationExtensionsClientInput.CredProtect;
+import org.springframework.security.web.webauthn.api.ImmutableAuthenticationExtensionsClientInput;
+import org.springframework.security.web.webauthn.api.ImmutableAuthenticationExtensionsClientInputs;
+import org.springframework.security.web.webauthn.api.ImmutablePublicKeyCredentialUserEntity;
+import org.springframework.security.web.webauthn.api.PublicKeyCredentialCreationOptions;
+import org.springframework.security.web.webauthn.api.PublicKeyCredentialDescriptor;
+import org.springframework.security.web.webauthn.api.PublicKeyCredentialParameters;
+import org.springframework.security.web.webauthn.api.PublicKeyCredentialRequestOptions;
+import org.springframework.security.web.webauthn.api.PublicKeyCredentialRpEntity;
+import org.springframework.security.web.webauthn.api.PublicKeyCredentialType;
+import org.springframework.security.web.webauthn.api.ResidentKeyRequirement;
+import org.springframework.security.web.webauthn.api.UserVerificationRequirement;
+
+/**
+ * Text form of the ceremony options {@link PostgresWebAuthnChallengeStore} persists between {@code
+ * /start} and {@code /finish}. Spring Security's option types are neither {@code Serializable} nor
+ * Jackson-deserializable (its WebAuthn module only writes them, for the browser), so every field
+ * the finish-side verification can consult is written and rebuilt explicitly here.
+ *
+ * <p>Extension inputs survive when they are boolean-valued ({@code credProps}) or {@code
+ * credProtect}, the only kinds the relying-party operations mint; others are dropped, which
+ * verification never notices because it reads extension outputs, not inputs.
+ */
+final class WebAuthnOptionsCodec {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static final String CREATION = "creation";
+  private static final String REQUEST = "request";
+
+  private WebAuthnOptionsCodec() {}
+
+  /**
+   * Encode creation or request options.
+   *
+   * @throws IllegalArgumentException for any other type
+   */
+  static String encode(Object options) {
+    ObjectNode root = MAPPER.createObjectNode();
+    if (options instanceof PublicKeyCredentialCreationOptions creation) {
+      root.put("kind", CREATION);
+      root.putObject("rp")
+          .put("id", creation.getRp().getId())
+          .put("name", creation.getRp().getName());
+      root.putObject("user")
+          .put("id", creation.getUser().getId().toBase64UrlString())
+          .put("name", creation.getUser().getName())
+          .put("displayName", creation.getUser().getDisplayName());
+      root.put("challenge", creation.getChallenge().toBase64UrlString());
+      ArrayNode params = root.putArray("pubKeyCredParams");
+      for (PublicKeyCredentialParameters param : nullToEmpty(creation.getPubKeyCredParams())) {
+        params.add(param.getAlg().getValue());
+      }
+      putTimeout(root, creation.getTimeout());
+      writeDescriptors(root.putArray("excludeCredentials"), creation.getExcludeCredentials());
+      AuthenticatorSelectionCriteria selection = creation.getAuthenticatorSelection();
+      if (selection != null) {
+        ObjectNode node = root.putObject("authenticatorSelection");
+        putValue(
+            node,
+            "authenticatorAttachment",
+            selection.getAuthenticatorAttachment(),
+            AuthenticatorAttachment::getValue);
+        putValue(node, "residentKey", selection.getResidentKey(), ResidentKeyRequirement::getValue);
+        putValue(
+            node,
+            "userVerification",
+            selection.getUserVerification(),
+            UserVerificationRequirement::getValue);
+      }
+      putValue(
+          root,
+          "attestation",
+          creation.getAttestation(),
+          AttestationConveyancePreference::getValue);
+      writeExtensions(root, creation.getExtensions());
+    } else if (options instanceof PublicKeyCredentialRequestOptions request) {
+      root.put("kind", REQUEST);
+      root.put("challenge", request.getChallenge().toBase64UrlString());
+      putTimeout(root, request.getTimeout());
+      root.put("rpId", request.getRpId());
+      writeDescriptors(root.putArray("allowCredentials"), request.getAllowCredentials());
+      putValue(
+          root,
+          "userVerification",
+          request.getUserVerification(),
+          UserVerificationRequirement::getValue);
+      writeExtensions(root, request.getExtensions());
+    } else {
+      throw new IllegalArgumentException(
+          "Not WebAuthn ceremony options: "
+              + (options == null ? "null" : options.getClass().getName()));
+    }
+    return root.toString();
+  }
+
+  /**
+   * Rebuild options written by {@link #encode}.
+   *
+   * @throws IllegalArgumentException if the text is not an encoding of ceremony options
+   */
+  static Object decode(String encoded) {
+    JsonNode root;
+    try {
+      root = MAPPER.readTree(encoded);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Unreadable WebAuthn options", e);
+    }
+    String kind = root.path("kind").asText();
+    if (CREATION.equals(kind)) {
+      JsonNode rp = root.path("rp");
+      JsonNode user = root.path("user");
+      List<PublicKeyCredentialParameters> params = new ArrayList<>();
+      for (JsonNode alg : root.path("pubKeyCredParams")) {
+        params.add(
+            byValue(
+                alg.asLong(),
+                p -> p.getAlg().getValue(),
+                PublicKeyCredentialParameters.EdDSA,
+                PublicKeyCredentialParameters.ES256,
+                PublicKeyCredentialParameters.ES384,
+                PublicKeyCredentialParameters.ES512,
+                PublicKeyCredentialParameters.RS256,
+                PublicKeyCredentialParameters.RS384,
+                PublicKeyCredentialParameters.RS512,
+                PublicKeyCredentialParameters.RS1));
+      }
+      PublicKeyCredentialCreationOptions.PublicKeyCredentialCreationOptionsBuilder builder =
+          PublicKeyCredentialCreationOptions.builder()
+              .rp(
+                  PublicKeyCredentialRpEntity.builder()
+                      .id(text(rp, "id"))
+                      .name(text(rp, "name"))
+                      .build())
+              .user(
+                  ImmutablePublicKeyCredentialUserEntity.builder()
+                      .id(Bytes.fromBase64(text(user, "id")))
+                      .name(text(user, "name"))
+                      .displayName(text(user, "displayName"))
+                      .build())
+              .challenge(Bytes.fromBase64(text(root, "challenge")))
+              .pubKeyCredParams(params)
+              .timeout(timeout(root))
+              .excludeCredentials(readDescriptors(root.path("excludeCredentials")))
+              .attestation(
+                  byValue(
+                      text(root, "attestation"),
+                      AttestationConveyancePreference::getValue,
+                      AttestationConveyancePreference.NONE,
+                      AttestationConveyancePreference.INDIRECT,
+                      AttestationConveyancePreference.DIRECT,
+                      AttestationConveyancePreference.ENTERPRISE))
+              .extensions(readExtensions(root));
+      JsonNode selection = root.get("authenticatorSelection");
+      if (selection != null) {
+        builder.authenticatorSelection(
+            AuthenticatorSelectionCriteria.builder()
+                .authenticatorAttachment(
+                    byValue(
+                        text(selection, "authenticatorAttachment"),
+                        AuthenticatorAttachment::getValue,
+                        AuthenticatorAttachment.values()))
+                .residentKey(
+                    byValue(
+                        text(selection, "residentKey"),
+                        ResidentKeyRequirement::getValue,
+                        ResidentKeyRequirement.DISCOURAGED,
+                        ResidentKeyRequirement.PREFERRED,
+                        ResidentKeyRequirement.REQUIRED))
+                .userVerification(userVerification(text(selection, "userVerification")))
+                .build());
+      }
+      return builder.build();
+    }
+    if (REQUEST.equals(kind)) {
+      return PublicKeyCredentialRequestOptions.builder()
+          .challenge(Bytes.fromBase64(text(root, "challenge")))
+          .timeout(timeout(root))
+          .rpId(text(root, "rpId"))
+          .allowCredentials(readDescriptors(root.path("allowCredentials")))
+          .userVerification(userVerification(text(root, "userVerification")))
+          .extensions(readExtensions(root))
+          .build();
+    }
+    throw new IllegalArgumentException("Unknown WebAuthn options kind: " + kind);
+  }
+
+  private static void writeDescriptors(
+      ArrayNode target, List<PublicKeyCredentialDescriptor> descriptors) {
+    for (PublicKeyCredentialDescriptor descriptor : nullToEmpty(descriptors)) {
+      ObjectNode node = target.addObject();
+      node.put("type", descriptor.getType().getValue());
+      node.put("id", descriptor.getId().toBase64UrlString());
+      ArrayNode transports = node.putArray("transports");
+      if (descriptor.getTransports() != null) {
+        descriptor.getTransports().forEach(t -> transports.add(t.getValue()));
+      }
+    }
+  }
+
+  private static List<PublicKeyCredentialDescriptor> readDescriptors(JsonNode array) {
+    List<PublicKeyCredentialDescriptor> descriptors = new ArrayList<>();
+    for (JsonNode node : array) {
+      Set<AuthenticatorTransport> transports = new LinkedHashSet<>();
+      for (JsonNode transport : node.path("transports")) {
+        transports.add(
+            byValue(
+                transport.asText(),
+                AuthenticatorTransport::getValue,
+                AuthenticatorTransport.values()));
+      }
+      descriptors.add(
+          PublicKeyCredentialDescriptor.builder()
+              .type(PublicKeyCredentialType.valueOf(text(node, "type")))
+              .id(Bytes.fromBase64(text(node, "id")))
+              .transports(transports)
+              .build());
+    }
+    return descriptors;
+  }
+
+  private static void writeExtensions(
+      ObjectNode root, AuthenticationExtensionsClientInputs inputs) {
+    if (inputs == null) {
+      return;
+    }
+    ObjectNode node = root.putObject("extensions");
+    for (AuthenticationExtensionsClientInput<?> input : inputs.getInputs()) {
+      if (input.getInput() instanceof Boolean flag) {
+        node.put(input.getExtensionId(), flag);
+      } else if (input.getInput() instanceof CredProtect credProtect) {
+        node.putObject(input.getExtensionId())
+            .put("policy", credProtect.getCredProtectionPolicy().name())
+            .put("enforce", credProtect.isEnforceCredentialProtectionPolicy());
+      }
+    }
+  }
+
+  private static AuthenticationExtensionsClientInputs readExtensions(JsonNode root) {
+    JsonNode node = root.get("extensions");
+    if (node == null) {
+      return null;
+    }
+    List<AuthenticationExtensionsClientInput> inputs = new ArrayList<>();
+    node.fields()
+        .forEachRemaining(
+            field -> {
+              JsonNode value = field.getValue();
+              if (value.isBoolean()) {
+                inputs.add(
+                    new ImmutableAuthenticationExtensionsClientInput<>(
+                        field.getKey(), value.booleanValue()));
+              } else if (value.has("policy")) {
+                inputs.add(
+                    new CredProtectAuthenticationExtensionsClientInput(
+                        new CredProtect(
+                            CredProtect.ProtectionPolicy.valueOf(text(value, "policy")),
+                            value.path("enforce").asBoolean())));
+              }
+            });
+    return new ImmutableAuthenticationExtensionsClientInputs(inputs);
+  }
+
+  private static UserVerificationRequirement userVerification(String value) {
+    return byValue(
+        value,
+        UserVerificationRequirement::getValue,
+        UserVerificationRequirement.DISCOURAGED,
+        UserVerificationRequirement.PREFERRED,
+        UserVerificationRequirement.REQUIRED);
+  }
+
+  private static void putTimeout(ObjectNode root, Duration timeout) {
+    if (timeout != null) {
+      root.put("timeoutMs", timeout.toMillis());
+    }
+  }
+
+  private static Duration timeout(JsonNode root) {
+    JsonNode millis = root.get("timeoutMs");
+    return millis == null ? null : Duration.ofMillis(millis.asLong());
+  }
+
+  private static <T> void putValue(
+      ObjectNode node, String field, T value, Function<T, String> toText) {
+    if (value != null) {
+      node.put(field, toText.apply(value));
+    }
+  }
+
+  private static String text(JsonNode node, String field) {
+    JsonNode value = node.get(field);
+    return value == null || value.isNull() ? null : value.asText();
+  }
+
+  /** The candidate whose wire value is {@code value}; null for a null value. */
+  @SafeVarargs
+  private static <T, V> T byValue(V value, Function<T, V> toValue, T... candidates) {
+    if (value == null) {
+      return null;
+    }
+    for (T candidate : candidates) {
+      if (value.equals(toValue.apply(candidate))) {
+        return candidate;
+      }
+    }
+    throw new IllegalArgumentException("Unknown WebAuthn option value: " + value);
+  }
+
+  private static <T> List<T> nullToEmpty(List<T> list) {
+    return list == null ? List.of() : list;
+  }
+}
@@ -0,0 +1,215 @@
+package edens.zac.portfolio.backend.services;
+
+import edens.zac.portfolio.backend.model.DownloadResolution;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+/**
+ * Downloads the next few ZIP entries concurrently while the ZIP writer drains them strictly in
+ * order, so a collection download waits on S3 GET latency once per window instead of once per
+ * image.
+ *
+ * <p>Memory is bounded by reservation. Each fetch reserves {@code bufferLimit} bytes of {@code
+ * byteBudget} before its GET is sent, and gives back the difference once the object's length is
+ * known. An object larger than {@code bufferLimit} is never buffered: it is read once to compute
+ * its CRC-32 and handed back as {@linkplain Fetched#streamed() streamed}, for the writer to read
+ * again straight into the archive. At most {@code concurrency} entries are fetched or buffered
+ * ahead of the writer. The entry the writer is waiting on is always fetched, so buffered bytes stay
+ * under {@code byteBudget} plus one {@code bufferLimit}.
+ *
+ * <p>Like {@link S3MultipartOutputStream}, an instance belongs to one download and is driven from a
+ * single thread; only the fetches run on the executor. {@link #close} aborts the open GETs and
+ * interrupts the fetch threads, so an abandoned archive does not keep downloading.
+ */
+final class ZipEntryPrefetcher implements AutoCloseable {
+
+  /**
+   * One fetched entry: its bytes and CRC-32, only the size and CRC-32 of an entry too large to
+   * buffer, or the S3 failure that becomes an {@code .error.txt} placeholder in the archive.
+   */
+  record Fetched(byte[] bytes, long size, long crc, SdkException error) {
+
+    static Fetched buffered(byte[] bytes) {
+      CRC32 crc = new CRC32();
+      crc.update(bytes);
+      return new Fetched(bytes, bytes.length, crc.getValue(), null);
+    }
+
+    static Fetched crcOnly(long size, long crc) {
+      return new Fetched(null, size, crc, null);
+    }
+
+    static Fetched failed(SdkException error) {
+      return new Fetched(null, 0, 0, error);
+    }
+
+    /** Read for its CRC only; the writer must read the object again for the body. */
+    boolean streamed() {
+      return bytes == null && error == null;
+    }
+  }
+
+  private final List<DownloadResolution> entries;
+  private final Function<DownloadResolution, ResponseInputStream<GetObjectResponse>> opener;
+  private final Executor executor;
+  private final int concurrency;
+  private final long byteBudget;
+  private final long bufferLimit;
+
+  private final List<CompletableFuture<Fetched>> futures;
+  private final AtomicLong reservedBytes = new AtomicLong();
+  private final Set<ResponseInputStream<GetObjectResponse>> openStreams =
+      ConcurrentHashMap.newKeySet();
+  private final Set<Thread> fetchThreads = ConcurrentHashMap.newKeySet();
+  private volatile boolean closed = false;
+  private int submitted = 0;
+  private int next = 0;
+
+  /**
+   * @param opener Sends one S3 GET; may throw {@link SdkException} (becomes a placeholder). A read
+   *     that fails with {@link IOException} fails the download.
+   * @param bufferLimit Largest object held in memory; larger ones come back streamed
+   */
+  ZipEntryPrefetcher(
+      List<DownloadResolution> entries,
+      Function<DownloadResolution, ResponseInputStream<GetObjectResponse>> opener,
+      Executor executor,
+      int concurrency,
+      long byteBudget,
+      long bufferLimit) {
+    this.entries = entries;
+    this.opener = opener;
+    this.executor = executor;
+    this.concurrency = Math.max(1, concurrency);
+    this.byteBudget = byteBudget;
+    this.bufferLimit = Math.max(0, bufferLimit);
+    this.futures = new ArrayList<>(entries.size());
+    topUp();
+  }
+
+  boolean hasNext() {
+    return next < entries.size();
+  }
+
+  /** Block until the next entry, in input order, has been fetched. */
+  Fetched next() throws IOException {
+    topUp();
+    CompletableFuture<Fetched> future = futures.get(next);
+    futures.set(next, null); // let the bytes go once the writer has them
+    next++;
+    Fetched fetched;
+    try {
+      fetched = future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof UncheckedIOException io) {
+        throw io.getCause();
+      }
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw e;
+    }
+    if (fetched.bytes() != null) {
+      reservedBytes.addAndGet(-fetched.bytes().length);
+    }
+    topUp();
+    return fetched;
+  }
+
+  /** Start fetches until the window is full or the next reservation would exceed the budget. */
+  private void topUp() {
+    while (submitted < entries.size()
+        && (submitted == next
+            || (submitted - next < concurrency
+                && reservedBytes.get() <= byteBudget - bufferLimit))) {
+      DownloadResolution entry = entries.get(submitted++);
+      reservedBytes.addAndGet(bufferLimit);
+      futures.add(CompletableFuture.supplyAsync(() -> fetch(entry), executor));
+    }
+  }
+
+  /**
+   * Runs on the executor holding a {@code bufferLimit} reservation. It keeps only the length of a
+   * buffered object, which {@link #next} releases when the writer takes it.
+   */
+  private Fetched fetch(DownloadResolution entry) {
+    Thread thread = Thread.currentThread();
+    fetchThreads.add(thread);
+    long held = bufferLimit;
+    try {
+      if (closed) {
+        throw new IllegalStateException("Prefetcher closed");
+      }
+      ResponseInputStream<GetObjectResponse> in = opener.apply(entry);
+      openStreams.add(in);
+      try (in) {
+        long size = in.response().contentLength();
+        if (size > bufferLimit) {
+          return Fetched.crcOnly(size, crc(in, size));
+        }
+        reservedBytes.addAndGet(size - held);
+        held = size;
+        Fetched fetched = Fetched.buffered(in.readAllBytes());
+        held = 0; // now owned by the buffered entry
+        return fetched;
+      } finally {
+        openStreams.remove(in);
+      }
+    } catch (SdkException e) {
+      return Fetched.failed(e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      reservedBytes.addAndGet(-held);
+      fetchThreads.remove(thread);
+      if (closed) {
+        Thread.interrupted(); // do not leak close()'s interrupt into the executor's next task
+      }
+    }
+  }
+
+  private static long crc(InputStream in, long size) throws IOException {
+    CRC32 crc = new CRC32();
+    byte[] chunk = new byte[64 * 1024];
+    long read = 0;
+    for (int n = in.read(chunk); n != -1; n = in.read(chunk)) {
+      crc.update(chunk, 0, n);
+      read += n;
+    }
+    if (read != size) {
+      throw new IOException("Expected " + size + " bytes but read " + read);
+    }
+    return crc.getValue();
+  }
+
+  /**
+   * Drop any fetches the writer never consumed (e.g. the archive was aborted part-way): cancel the
+   * queued ones, abort the open GETs and interrupt the threads still running.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    for (int i = next; i < futures.size(); i++) {
+      CompletableFuture<Fetched> future = futures.get(i);
+      if (future != null) {
+        future.cancel(true);
+      }
+    }
+    openStreams.forEach(ResponseInputStream::abort);
+    fetchThreads.forEach(Thread::interrupt);
+  }
+}
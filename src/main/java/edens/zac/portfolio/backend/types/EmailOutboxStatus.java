@@ -0,0 +1,11 @@
+package edens.zac.portfolio.backend.types;
+
+/** Lifecycle of an {@code email_outbox} row (V60). */
+public enum EmailOutboxStatus {
+  PENDING,
+  // Claimed by a worker; next_attempt_at is the claim lease, after which another worker retries.
+  SENDING,
+  SENT,
+  // Permanently failed or out of attempts; stays until an admin resends it or it is pruned.
+  DEAD
+}
@@ -0,0 +1,74 @@
+-- V55: collection ancestry closure table. One row per (ancestor, descendant) pair connected by at
+-- least one chain of parent -> collection_content -> content_collection -> child links:
+--   depth        = length of the SHORTEST such chain (1 = direct child);
+--   visible_path = true when at least one chain uses only visible links (cc.visible = true), the
+--                  same gate role-grant propagation applies.
+-- Non-reflexive: a collection is not its own ancestor. Maintained transactionally by
+-- CollectionClosureService at every link add/remove/visibility write; the admin rebuild endpoint
+-- re-derives it from scratch with the same steps as this backfill.
+BEGIN;
+
+CREATE TABLE collection_closure (
+  ancestor_id   BIGINT  NOT NULL REFERENCES collection(id) ON DELETE CASCADE,
+  descendant_id BIGINT  NOT NULL REFERENCES collection(id) ON DELETE CASCADE,
+  depth         INTEGER NOT NULL CHECK (depth > 0),
+  visible_path  BOOLEAN NOT NULL,
+  PRIMARY KEY (ancestor_id, descendant_id)
+);
+-- The primary key serves "descendants of X"; this serves "ancestors of X" (cycle checks,
+-- breadcrumbs).
+CREATE INDEX idx_collection_closure_descendant ON collection_closure(descendant_id, depth);
+
+-- Backfill, set-based so a graph of stacked diamonds costs its pairs rather than its 2^n chains
+-- (CollectionClosureRepository.derive runs the same steps). Each link pair once, visible when any
+-- of its join rows is; self-links dropped.
+CREATE TEMP TABLE closure_links ON COMMIT DROP AS
+SELECT cc.collection_id AS parent_id, cct.referenced_collection_id AS child_id,
+       bool_or(cc.visible) AS visible
+  FROM collection_content cc
+  JOIN content_collection cct ON cct.id = cc.content_id
+ WHERE cct.referenced_collection_id IS NOT NULL
+   AND cct.referenced_collection_id <> cc.collection_id
+ GROUP BY cc.collection_id, cct.referenced_collection_id;
+ALTER TABLE closure_links ADD PRIMARY KEY (parent_id, child_id);
+
+-- Depth: a level-by-level walk. Level k + 1 extends only the pairs first reached at level k and
+-- skips pairs already reached, so each pair keeps its shortest depth and a cycle stops once it
+-- reaches nothing new.
+DO $$
+DECLARE
+  level   INTEGER := 1;
+  reached INTEGER;
+BEGIN
+  INSERT INTO collection_closure (ancestor_id, descendant_id, depth, visible_path)
+  SELECT parent_id, child_id, 1, false FROM closure_links;
+  GET DIAGNOSTICS reached = ROW_COUNT;
+  WHILE reached > 0 LOOP
+    INSERT INTO collection_closure (ancestor_id, descendant_id, depth, visible_path)
+    SELECT DISTINCT c.ancestor_id, l.child_id, level + 1, false
+      FROM collection_closure c
+      JOIN closure_links l ON l.parent_id = c.descendant_id
+     WHERE c.depth = level
+       AND l.child_id <> c.ancestor_id
+    ON CONFLICT (ancestor_id, descendant_id) DO NOTHING;
+    GET DIAGNOSTICS reached = ROW_COUNT;
+    level := level + 1;
+  END LOOP;
+END
+$$;
+
+-- visible_path: reachability over the visible links alone.
+WITH RECURSIVE visible_reach(ancestor_id, descendant_id) AS (
+  SELECT parent_id, child_id FROM closure_links WHERE visible
+  UNION
+  SELECT r.ancestor_id, l.child_id
+    FROM visible_reach r
+    JOIN closure_links l ON l.parent_id = r.descendant_id AND l.visible
+   WHERE l.child_id <> r.ancestor_id
+)
+UPDATE collection_closure c
+   SET visible_path = true
+  FROM visible_reach v
+ WHERE c.ancestor_id = v.ancestor_id AND c.descendant_id = v.descendant_id;
+
+COMMIT;
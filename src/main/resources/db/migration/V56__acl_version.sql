@@ -0,0 +1,9 @@
+-- V56: ACL version counter. A single row bumped (in the writing transaction) by every
+-- RoleRepository write to role, role_member or role_collection. Each instance's in-memory
+-- authorization snapshot (AclSnapshotService) polls this one row to detect grants changed by
+-- another instance, instead of re-querying role_member/role_collection per request.
+CREATE TABLE acl_version (
+  id      SMALLINT PRIMARY KEY CHECK (id = 1),
+  version BIGINT   NOT NULL
+);
+INSERT INTO acl_version (id, version) VALUES (1, 0);
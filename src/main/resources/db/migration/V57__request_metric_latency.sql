@@ -0,0 +1,12 @@
+-- V57: per-(day, route, slug) latency alongside the V44 request counts, written by the buffered
+-- RequestMetricAggregator in one multi-row upsert per flush.
+--   total_ms     = sum of handler latencies (avg = total_ms / count);
+--   max_ms       = slowest single request;
+--   latency_hist = request counts per fixed bucket, upper bounds (ms) 5, 10, 25, 50, 100, 250, 500,
+--                  1000, 2500, 5000, then one overflow bucket (RequestMetricRepository
+--                  LATENCY_BUCKET_BOUNDS_MS). Rows counted before V57 keep an empty histogram, so
+--                  sum(latency_hist) can be lower than count.
+ALTER TABLE request_metric
+  ADD COLUMN total_ms     BIGINT   NOT NULL DEFAULT 0,
+  ADD COLUMN max_ms       BIGINT   NOT NULL DEFAULT 0,
+  ADD COLUMN latency_hist BIGINT[] NOT NULL DEFAULT '{}';
@@ -0,0 +1,35 @@
+-- V58: precomputed image audience. One row per image that someone besides the admin can see:
+--   listed   = the image has a visible membership (cc.visible = true) in a LISTED collection;
+--   role_ids = every role granting (directly or via the V47 waterfall) a collection that holds a
+--              visible membership of the image, sorted and de-duplicated.
+-- An image with no audience has no row. "Can user U see image I" becomes a primary-key probe plus
+-- an array overlap against U's role ids instead of a per-row walk over collection_content,
+-- collection, role_collection and role_member.
+-- Maintained by ImageAudienceRepository from the collection / membership / role-grant write paths
+-- (coalesced per transaction); the admin check endpoint and the scheduled verifier compare it with
+-- this same derivation.
+BEGIN;
+
+CREATE TABLE image_audience (
+  image_id BIGINT   PRIMARY KEY REFERENCES content(id) ON DELETE CASCADE,
+  listed   BOOLEAN  NOT NULL,
+  role_ids BIGINT[] NOT NULL DEFAULT '{}',
+  CHECK (listed OR cardinality(role_ids) > 0)
+);
+-- Serves "every image a role can see" when a role is deleted or its grants move.
+CREATE INDEX idx_image_audience_role_ids ON image_audience USING GIN (role_ids);
+
+INSERT INTO image_audience (image_id, listed, role_ids)
+SELECT cc.content_id,
+       bool_or(col.visibility = 'LISTED'),
+       COALESCE(array_agg(DISTINCT rc.role_id ORDER BY rc.role_id)
+                  FILTER (WHERE rc.role_id IS NOT NULL), '{}')
+  FROM collection_content cc
+  JOIN content c ON c.id = cc.content_id AND c.content_type = 'IMAGE'
+  JOIN collection col ON col.id = cc.collection_id
+  LEFT JOIN role_collection rc ON rc.collection_id = cc.collection_id
+ WHERE cc.visible = true
+ GROUP BY cc.content_id
+HAVING bool_or(col.visibility = 'LISTED') OR count(rc.role_id) > 0;
+
+COMMIT;
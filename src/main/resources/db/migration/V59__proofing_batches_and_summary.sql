@@ -0,0 +1,51 @@
+-- V59: client proofing sessions.
+--
+-- proofing_batch: one row per applied batch of selects / unselects / rating changes, keyed by the
+-- client's idempotency key. Claiming the key is the batch's first write, so a retried or doubled
+-- request either waits for the original to commit and replays its recorded counts, or (after a
+-- rollback) applies afresh. Rows are pruned after a day by ProofingService.
+--
+-- proofing_summary: per (collection, image) counters the admin proofing view reads instead of
+-- scanning user_selects / user_rating_override:
+--   select_count  = clients holding a select on the image in this collection (the selects PK is
+--                   (user_id, content_id), so this is also "selected by N clients");
+--   rating_counts = overrides per rating value, index 1 = rating 0 ... index 6 = rating 5.
+-- Maintained by UserSelectRepository / UserRatingOverrideRepository from the rows each write
+-- returns; the admin rebuild endpoint re-derives it with the same query as this backfill.
+BEGIN;
+
+CREATE TABLE proofing_batch (
+  user_id         BIGINT      NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+  idempotency_key VARCHAR(64) NOT NULL,
+  collection_id   BIGINT      NOT NULL,
+  selected        INTEGER     NOT NULL DEFAULT 0,
+  unselected      INTEGER     NOT NULL DEFAULT 0,
+  rated           INTEGER     NOT NULL DEFAULT 0,
+  cleared         INTEGER     NOT NULL DEFAULT 0,
+  created_at      TIMESTAMPTZ NOT NULL DEFAULT now(),
+  PRIMARY KEY (user_id, idempotency_key)
+);
+CREATE INDEX idx_proofing_batch_created_at ON proofing_batch(created_at);
+
+CREATE TABLE proofing_summary (
+  collection_id BIGINT    NOT NULL REFERENCES collection(id) ON DELETE CASCADE,
+  content_id    BIGINT    NOT NULL REFERENCES content(id)    ON DELETE CASCADE,
+  select_count  INTEGER   NOT NULL DEFAULT 0,
+  rating_counts INTEGER[] NOT NULL DEFAULT '{0,0,0,0,0,0}',
+  PRIMARY KEY (collection_id, content_id)
+);
+
+INSERT INTO proofing_summary (collection_id, content_id, select_count, rating_counts)
+SELECT collection_id, content_id, sum(selects)::int,
+       ARRAY[sum(r0), sum(r1), sum(r2), sum(r3), sum(r4), sum(r5)]::int[]
+  FROM (SELECT collection_id, content_id, 1 AS selects, 0 AS r0, 0 AS r1, 0 AS r2, 0 AS r3,
+               0 AS r4, 0 AS r5
+          FROM user_selects
+        UNION ALL
+        SELECT collection_id, content_id, 0, (rating = 0)::int, (rating = 1)::int,
+               (rating = 2)::int, (rating = 3)::int, (rating = 4)::int, (rating = 5)::int
+          FROM user_rating_override) s
+ WHERE EXISTS (SELECT 1 FROM collection c WHERE c.id = s.collection_id)
+ GROUP BY collection_id, content_id;
+
+COMMIT;
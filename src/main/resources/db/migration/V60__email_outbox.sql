@@ -0,0 +1,39 @@
+-- V60: transactional email outbox.
+--
+-- EmailService writes one row per message in the caller's transaction (invite creation, gallery
+-- password change), so a rollback takes the email with it and a commit guarantees it is delivered
+-- eventually. EmailOutboxWorker claims due rows with FOR UPDATE SKIP LOCKED, sends them through SES
+-- at a capped rate and records the outcome:
+--   PENDING -> SENDING -> SENT
+--                      -> PENDING (transient failure, next_attempt_at pushed out exponentially)
+--                      -> DEAD    (permanent failure or attempts exhausted; admin may resend)
+-- A SENDING row whose next_attempt_at (the claim lease) has passed belonged to a worker that died
+-- mid-send and is claimed again.
+--
+-- The bodies carry bearer credentials (invite links, gallery passwords), so they are nulled once
+-- the message is sent, and SENT / DEAD rows are pruned after the retention window.
+BEGIN;
+
+CREATE TABLE email_outbox (
+  id              BIGSERIAL    PRIMARY KEY,
+  to_address      VARCHAR(320) NOT NULL,
+  subject         VARCHAR(500) NOT NULL,
+  html_body       TEXT,
+  text_body       TEXT,
+  label           VARCHAR(200) NOT NULL,
+  status          VARCHAR(16)  NOT NULL DEFAULT 'PENDING'
+                    CHECK (status IN ('PENDING', 'SENDING', 'SENT', 'DEAD')),
+  attempts        INTEGER      NOT NULL DEFAULT 0,
+  next_attempt_at TIMESTAMPTZ  NOT NULL DEFAULT now(),
+  last_error      TEXT,
+  message_id      VARCHAR(255),
+  created_at      TIMESTAMPTZ  NOT NULL DEFAULT now(),
+  updated_at      TIMESTAMPTZ  NOT NULL DEFAULT now(),
+  sent_at         TIMESTAMPTZ
+);
+
+CREATE INDEX idx_email_outbox_due ON email_outbox(next_attempt_at)
+  WHERE status IN ('PENDING', 'SENDING');
+CREATE INDEX idx_email_outbox_status_created ON email_outbox(status, created_at DESC);
+
+COMMIT;
@@ -0,0 +1,45 @@
+-- V61: cluster-shared WebAuthn challenges and rate-limit buckets.
+--
+-- Used only when app.shared-state.backend=postgres; the default in-memory backend leaves both
+-- tables empty. Each row is short-lived, recomputable state: losing it after a crash at worst
+-- restarts an in-flight passkey ceremony or refills a rate-limit bucket, so both tables are
+-- UNLOGGED (no WAL, not replicated) and swept on a schedule rather than kept forever.
+BEGIN;
+
+-- One row per in-flight ceremony, keyed by user handle (registration) or attempt id (login).
+-- PostgresWebAuthnChallengeStore consumes a row with DELETE ... RETURNING, so each challenge is
+-- used at most once across all instances.
+CREATE UNLOGGED TABLE webauthn_challenge (
+  challenge_key VARCHAR(100) PRIMARY KEY,
+  options       TEXT         NOT NULL,
+  expires_at    TIMESTAMPTZ  NOT NULL
+);
+
+CREATE INDEX idx_webauthn_challenge_expires ON webauthn_challenge(expires_at);
+
+-- bucket4j's PostgreSQL proxy manager owns id and state; touched_at is ours, maintained by the
+-- trigger below because bucket4j's UPDATE only writes state. A bucket whose state has not changed
+-- for longer than its refill period is full again, so the sweep can delete it without changing any
+-- decision.
+CREATE UNLOGGED TABLE rate_limit_bucket (
+  id         VARCHAR(400) PRIMARY KEY,
+  state      BYTEA,
+  touched_at TIMESTAMPTZ  NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_rate_limit_bucket_touched ON rate_limit_bucket(touched_at);
+
+CREATE FUNCTION rate_limit_bucket_touch() RETURNS trigger AS $$
+BEGIN
+  IF NEW.state IS DISTINCT FROM OLD.state THEN
+    NEW.touched_at := now();
+  END IF;
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_rate_limit_bucket_touch
+  BEFORE UPDATE ON rate_limit_bucket
+  FOR EACH ROW EXECUTE FUNCTION rate_limit_bucket_touch();
+
+COMMIT;
@@ -0,0 +1,41 @@
+-- V62: disk-upload jobs visible from every instance, and leases for cluster-wide scheduled tasks.
+--
+-- upload_job mirrors JobTrackingService's in-memory job state. The instance running a job inserts
+-- it, writes its counters with a heartbeat every few seconds and writes the final state on
+-- completion, so a status poll that lands on any instance can answer. A PENDING / PROCESSING row
+-- whose heartbeat stops belonged to an instance that died; the reaper marks it FAILED (its input
+-- files were paths on that instance's disk, so no other instance can resume it).
+--
+-- scheduler_lock holds one lease row per cluster-wide scheduled task (ShedLock-style). An instance
+-- runs the task only if it moved locked_until forward from the past, so each run happens on one
+-- instance; a crashed holder's lease simply expires.
+BEGIN;
+
+CREATE TABLE upload_job (
+  id           UUID         PRIMARY KEY,
+  owner_node   VARCHAR(200) NOT NULL,
+  status       VARCHAR(16)  NOT NULL DEFAULT 'PENDING'
+                 CHECK (status IN ('PENDING', 'PROCESSING', 'COMPLETED', 'FAILED')),
+  total_files  INTEGER      NOT NULL,
+  processed    INTEGER      NOT NULL DEFAULT 0,
+  created      INTEGER      NOT NULL DEFAULT 0,
+  updated      INTEGER      NOT NULL DEFAULT 0,
+  skipped      INTEGER      NOT NULL DEFAULT 0,
+  errors       TEXT[]       NOT NULL DEFAULT '{}',
+  started_at   TIMESTAMPTZ  NOT NULL DEFAULT now(),
+  heartbeat_at TIMESTAMPTZ  NOT NULL DEFAULT now(),
+  finished_at  TIMESTAMPTZ
+);
+
+CREATE INDEX idx_upload_job_live_heartbeat ON upload_job(heartbeat_at)
+  WHERE status IN ('PENDING', 'PROCESSING');
+CREATE INDEX idx_upload_job_finished ON upload_job(finished_at) WHERE finished_at IS NOT NULL;
+
+CREATE TABLE scheduler_lock (
+  name         VARCHAR(100) PRIMARY KEY,
+  locked_until TIMESTAMPTZ  NOT NULL,
+  locked_at    TIMESTAMPTZ  NOT NULL,
+  locked_by    VARCHAR(200) NOT NULL
+);
+
+COMMIT;
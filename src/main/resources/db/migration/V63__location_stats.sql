@@ -0,0 +1,41 @@
+-- V63: per-location counts for the locations index and location pages.
+--   collection_count = LISTED collections at the location;
+--   image_count      = images at the location that no visible membership (cc.visible = true) of a
+--                      LISTED collection at the same location already shows -- the "orphans" the
+--                      location page lists below its collections.
+-- A location with neither has no row, so the index is a join of this table with location instead
+-- of a grouped walk over collection_locations, content_image_locations and collection_content.
+-- Maintained by LocationStatsRepository from the location-association, collection-visibility and
+-- membership write paths (coalesced per transaction); the scheduled verifier compares it with this
+-- same derivation.
+BEGIN;
+
+CREATE TABLE location_stats (
+  location_id      BIGINT  PRIMARY KEY REFERENCES location(id) ON DELETE CASCADE,
+  collection_count INTEGER NOT NULL,
+  image_count      INTEGER NOT NULL,
+  CHECK (collection_count > 0 OR image_count > 0)
+);
+
+INSERT INTO location_stats (location_id, collection_count, image_count)
+SELECT location_id, collection_count, image_count
+  FROM (SELECT l.id AS location_id,
+               (SELECT count(*)
+                  FROM collection_locations cl
+                  JOIN collection c ON c.id = cl.collection_id AND c.visibility = 'LISTED'
+                 WHERE cl.location_id = l.id) AS collection_count,
+               (SELECT count(*)
+                  FROM content_image_locations cil
+                  JOIN content_image ci ON ci.id = cil.content_id
+                 WHERE cil.location_id = l.id
+                   AND NOT EXISTS (
+                     SELECT 1
+                       FROM collection_content cc
+                       JOIN collection c ON c.id = cc.collection_id AND c.visibility = 'LISTED'
+                       JOIN collection_locations cl
+                         ON cl.collection_id = cc.collection_id AND cl.location_id = l.id
+                      WHERE cc.content_id = cil.content_id AND cc.visible = true)) AS image_count
+          FROM location l) derived
+ WHERE collection_count > 0 OR image_count > 0;
+
+COMMIT;
@@ -0,0 +1,25 @@
+-- V64: capture location (EXIF GPS) for images, indexed for the map view.
+--
+-- gps_latitude / gps_longitude are WGS84 degrees as the camera or phone recorded them. geohash is
+-- the same point as a 12-character geohash, written by ContentRepository alongside the coordinates.
+-- A geohash prefix is a lat/lng cell and every point in the cell shares it, so "images in these
+-- cells" is a range scan per cell on a plain btree (geohash >= prefix AND geohash < prefix || '{')
+-- -- no PostGIS or other extension needed. The "C" collation keeps the comparisons bytewise, which
+-- is the order of the geohash alphabet.
+--
+-- Existing images have no coordinates until they are re-uploaded; the extractor fills them in.
+BEGIN;
+
+ALTER TABLE content_image
+  ADD COLUMN gps_latitude  DOUBLE PRECISION,
+  ADD COLUMN gps_longitude DOUBLE PRECISION,
+  ADD COLUMN geohash       VARCHAR(12) COLLATE "C",
+  ADD CONSTRAINT content_image_gps_range
+    CHECK (gps_latitude BETWEEN -90 AND 90 AND gps_longitude BETWEEN -180 AND 180),
+  ADD CONSTRAINT content_image_gps_complete
+    CHECK ((gps_latitude IS NULL) = (gps_longitude IS NULL)
+       AND (gps_latitude IS NULL) = (geohash IS NULL));
+
+CREATE INDEX idx_content_image_geohash ON content_image(geohash) WHERE geohash IS NOT NULL;
+
+COMMIT;
@@ -0,0 +1,12 @@
+-- V65: email_outbox bodies are stored encrypted.
+--
+-- From this version EmailService queues html_body / text_body sealed by EmailBodyCipher
+-- (AES-256-GCM, "v1:" prefix, key from email.outbox.encryption-key); a dead-lettered message keeps
+-- its sealed bodies for an admin resend until it is pruned. Dead letters written before this
+-- version still hold plaintext, so drop their bodies here -- requeueDead then refuses them. Rows
+-- still PENDING / SENDING are delivered as they are and then nulled by markSent.
+BEGIN;
+
+UPDATE email_outbox SET html_body = NULL, text_body = NULL WHERE status = 'DEAD';
+
+COMMIT;
@@ -0,0 +1,37 @@
+-- V66: archive builds, tag conversions and proofing exports visible from every instance.
+--
+-- background_job is upload_job (V62) for the other three job kinds. The instance running a job
+-- inserts it, writes its poll response (state) with a heartbeat every few seconds and writes the
+-- final state on completion, so a poll or a result download that lands on any instance can answer.
+-- A live row whose heartbeat stops belonged to an instance that died; the reaper marks it FAILED
+-- (a half-built archive or conversion is not resumable elsewhere).
+--
+-- dedupe_key names the work (archive cache key, tag id, collection/client pair). The partial unique
+-- index lets one live job per key exist cluster-wide: a second submit on any instance loses the
+-- insert and joins the running job.
+BEGIN;
+
+CREATE TABLE background_job (
+  id              UUID         PRIMARY KEY,
+  kind            VARCHAR(32)  NOT NULL
+                    CHECK (kind IN ('ARCHIVE', 'TAG_CONVERSION', 'PROOFING_EXPORT')),
+  dedupe_key      VARCHAR(600) NOT NULL,
+  owner_node      VARCHAR(200) NOT NULL,
+  status          VARCHAR(16)  NOT NULL DEFAULT 'PENDING',
+  state           JSONB        NOT NULL DEFAULT '{}',
+  result_key      TEXT,
+  result_filename TEXT,
+  started_at      TIMESTAMPTZ  NOT NULL DEFAULT now(),
+  heartbeat_at    TIMESTAMPTZ  NOT NULL DEFAULT now(),
+  finished_at     TIMESTAMPTZ
+);
+
+CREATE UNIQUE INDEX uq_background_job_live_key ON background_job(kind, dedupe_key)
+  WHERE finished_at IS NULL;
+CREATE INDEX idx_background_job_key ON background_job(kind, dedupe_key, started_at DESC);
+CREATE INDEX idx_background_job_live_heartbeat ON background_job(heartbeat_at)
+  WHERE finished_at IS NULL;
+CREATE INDEX idx_background_job_finished ON background_job(finished_at)
+  WHERE finished_at IS NOT NULL;
+
+COMMIT;
@@ -1,6 +1,8 @@
 package edens.zac.portfolio.backend;
 
+import edens.zac.portfolio.backend.services.AclSnapshotService;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -20,6 +22,11 @@ import org.testcontainers.containers.PostgreSQLContainer;
  * <p>After each test method, auth tables are truncated so every test starts from a clean slate,
  * eliminating order-dependent failures (e.g. row counts leaking from a previous test class).
  * Non-auth tables (collections, content, etc.) are intentionally left untouched.
+ *
+ * <p>The ACL snapshot is on, as in prod. The truncate cascades into the role tables and restarts
+ * user ids, so it bumps {@code acl_version}; each test then starts by syncing this context's
+ * snapshot to that version. Fixtures that write role tables with raw SQL call {@link
+ * #aclChanged()}.
  */
 @SpringBootTest
 @ActiveProfiles("test")
@@ -40,6 +47,23 @@ public abstract class AbstractPostgresIntegrationTest {
   }
 
   @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private AclSnapshotService aclSnapshotService;
+
+  /** Rebuild this context's snapshot if another context or a raw-SQL fixture moved the version. */
+  @BeforeEach
+  void syncAclSnapshot() {
+    aclSnapshotService.pollVersion();
+  }
+
+  /**
+   * Record a raw-SQL write to {@code role}, {@code role_member} or {@code role_collection}: bump
+   * {@code acl_version} the way {@code RoleRepository} does and let the snapshot pick it up now
+   * rather than at the next poll.
+   */
+  protected void aclChanged() {
+    jdbcTemplate.update("UPDATE acl_version SET version = version + 1 WHERE id = 1");
+    aclSnapshotService.pollVersion();
+  }
 
   /**
    * Truncate all auth tables after each test so rows from one test (or test class) cannot affect
@@ -53,5 +77,6 @@ public abstract class AbstractPostgresIntegrationTest {
     jdbcTemplate.execute(
         "TRUNCATE TABLE user_invite, webauthn_credential, user_collection, user_session, users"
             + " RESTART IDENTITY CASCADE");
+    aclChanged();
   }
 }
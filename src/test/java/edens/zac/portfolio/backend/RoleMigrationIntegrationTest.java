@@ -52,6 +52,7 @@ class RoleMigrationIntegrationTest extends AbstractPostgresIntegrationTest {
             + "SELECT ?, collection_id, role FROM user_collection WHERE user_id = ?",
         roleId,
         user);
+    aclChanged();
 
     assertThat(roleRepository.canView(user, coll)).isTrue();
     assertThat(roleRepository.isClient(user, coll)).isTrue();
@@ -102,6 +102,7 @@ class RoleWaterfallMigrationIntegrationTest extends AbstractPostgresIntegrationT
     assertThat(roleRepository.canView(user, child)).isFalse();
 
     jdbc.execute(V47_BACKFILL);
+    aclChanged();
 
     // Visible descendants inherit CLIENT with the origin recorded.
     assertThat(roleRepository.isClient(user, child)).isTrue();
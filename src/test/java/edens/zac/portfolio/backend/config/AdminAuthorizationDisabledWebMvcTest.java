@@ -25,6 +25,8 @@ import org.springframework.web.bind.annotation.RestController;
 @Import({
   SecurityConfig.class,
   SessionAuthenticationFilter.class,
+  SharedStateConfig.class,
+  MetricsScrapeTokenFilter.class,
   AdminAuthorizationDisabledWebMvcTest.StubAdminControllers.class
 })
 @TestPropertySource(properties = "app.admin.enforce-authz=false")
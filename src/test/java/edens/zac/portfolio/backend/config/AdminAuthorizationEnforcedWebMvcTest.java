@@ -34,6 +34,8 @@ import org.springframework.web.bind.annotation.RestController;
 @Import({
   SecurityConfig.class,
   SessionAuthenticationFilter.class,
+  SharedStateConfig.class,
+  MetricsScrapeTokenFilter.class,
   AdminAuthorizationEnforcedWebMvcTest.StubAdminControllers.class
 })
 @TestPropertySource(properties = "app.admin.enforce-authz=true")
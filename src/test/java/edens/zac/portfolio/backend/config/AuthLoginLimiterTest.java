@@ -8,7 +8,7 @@ class AuthLoginLimiterTest {
 
   @Test
   void fiveFailuresAllowedSixthIsBlocked() {
-    AuthLoginLimiter limiter = new AuthLoginLimiter(5, 15);
+    AuthLoginLimiter limiter = new AuthLoginLimiter(new InMemoryRateLimitBucketStore(), 5, 15);
     for (int i = 0; i < 5; i++) {
       assertThat(limiter.isBlocked("203.0.113.1", "a@example.com")).isFalse();
       limiter.recordFailure("203.0.113.1", "a@example.com");
@@ -18,7 +18,7 @@ class AuthLoginLimiterTest {
 
   @Test
   void resetClearsTheCounter() {
-    AuthLoginLimiter limiter = new AuthLoginLimiter(2, 15);
+    AuthLoginLimiter limiter = new AuthLoginLimiter(new InMemoryRateLimitBucketStore(), 2, 15);
     limiter.recordFailure("203.0.113.1", "b@example.com");
     limiter.recordFailure("203.0.113.1", "b@example.com");
     assertThat(limiter.isBlocked("203.0.113.1", "b@example.com")).isTrue();
@@ -29,7 +29,7 @@ class AuthLoginLimiterTest {
 
   @Test
   void keyIsCaseInsensitiveOnEmail() {
-    AuthLoginLimiter limiter = new AuthLoginLimiter(2, 15);
+    AuthLoginLimiter limiter = new AuthLoginLimiter(new InMemoryRateLimitBucketStore(), 2, 15);
     limiter.recordFailure("203.0.113.1", "Case@Example.com");
     limiter.recordFailure("203.0.113.1", "case@example.com");
     // Two failures against the same normalized key -> blocked.
@@ -38,7 +38,7 @@ class AuthLoginLimiterTest {
 
   @Test
   void differentIpsAndEmailsHaveIndependentCounters() {
-    AuthLoginLimiter limiter = new AuthLoginLimiter(1, 15);
+    AuthLoginLimiter limiter = new AuthLoginLimiter(new InMemoryRateLimitBucketStore(), 1, 15);
     limiter.recordFailure("203.0.113.1", "x@example.com");
     assertThat(limiter.isBlocked("203.0.113.1", "x@example.com")).isTrue();
     assertThat(limiter.isBlocked("203.0.113.2", "x@example.com")).isFalse();
@@ -47,7 +47,7 @@ class AuthLoginLimiterTest {
 
   @Test
   void nullIpOrEmailNeverBlocks() {
-    AuthLoginLimiter limiter = new AuthLoginLimiter(1, 15);
+    AuthLoginLimiter limiter = new AuthLoginLimiter(new InMemoryRateLimitBucketStore(), 1, 15);
     assertThat(limiter.isBlocked(null, "z@example.com")).isFalse();
     assertThat(limiter.isBlocked("203.0.113.1", null)).isFalse();
     limiter.recordFailure(null, null);
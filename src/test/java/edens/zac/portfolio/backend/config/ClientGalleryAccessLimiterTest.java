@@ -9,7 +9,8 @@ class ClientGalleryAccessLimiterTest {
 
   @Test
   void firstFiveAttemptsSucceedSixthFails() {
-    ClientGalleryAccessLimiter limiter = new ClientGalleryAccessLimiter(5, 15);
+    ClientGalleryAccessLimiter limiter =
+        new ClientGalleryAccessLimiter(new InMemoryRateLimitBucketStore(), 5, 15);
     for (int i = 0; i < 5; i++) {
       assertThat(limiter.allow("203.0.113.1", "client-gallery")).isTrue();
     }
@@ -18,7 +19,8 @@ class ClientGalleryAccessLimiterTest {
 
   @Test
   void differentIpsHaveIndependentBuckets() {
-    ClientGalleryAccessLimiter limiter = new ClientGalleryAccessLimiter(2, 15);
+    ClientGalleryAccessLimiter limiter =
+        new ClientGalleryAccessLimiter(new InMemoryRateLimitBucketStore(), 2, 15);
     assertThat(limiter.allow("203.0.113.1", "gallery")).isTrue();
     assertThat(limiter.allow("203.0.113.1", "gallery")).isTrue();
     assertThat(limiter.allow("203.0.113.1", "gallery")).isFalse();
@@ -31,7 +33,8 @@ class ClientGalleryAccessLimiterTest {
 
   @Test
   void differentSlugsHaveIndependentBuckets() {
-    ClientGalleryAccessLimiter limiter = new ClientGalleryAccessLimiter(2, 15);
+    ClientGalleryAccessLimiter limiter =
+        new ClientGalleryAccessLimiter(new InMemoryRateLimitBucketStore(), 2, 15);
     assertThat(limiter.allow("203.0.113.1", "gallery-a")).isTrue();
     assertThat(limiter.allow("203.0.113.1", "gallery-a")).isTrue();
     assertThat(limiter.allow("203.0.113.1", "gallery-a")).isFalse();
@@ -44,7 +47,8 @@ class ClientGalleryAccessLimiterTest {
 
   @Test
   void slugCaseAndWhitespaceIsNormalized() {
-    ClientGalleryAccessLimiter limiter = new ClientGalleryAccessLimiter(2, 15);
+    ClientGalleryAccessLimiter limiter =
+        new ClientGalleryAccessLimiter(new InMemoryRateLimitBucketStore(), 2, 15);
     assertThat(limiter.allow("203.0.113.1", "Gallery-Slug")).isTrue();
     assertThat(limiter.allow("203.0.113.1", "  gallery-slug ")).isTrue();
     // Same effective key — third attempt must fail.
@@ -55,7 +59,8 @@ class ClientGalleryAccessLimiterTest {
   void limiterAndCookieKeyShareNormalization() {
     // BE-H1 invariant: the limiter key and the cookie name must derive from the same
     // normalizer, so brute-force protection cannot be bypassed by varying slug casing.
-    ClientGalleryAccessLimiter limiter = new ClientGalleryAccessLimiter(2, 15);
+    ClientGalleryAccessLimiter limiter =
+        new ClientGalleryAccessLimiter(new InMemoryRateLimitBucketStore(), 2, 15);
 
     // Two attempts on "MyGallery" (mixed case) — bucket key uses normalized "mygallery".
     assertThat(limiter.allow("203.0.113.1", "MyGallery")).isTrue();
@@ -70,7 +75,8 @@ class ClientGalleryAccessLimiterTest {
 
   @Test
   void nullOrBlankPassesThrough() {
-    ClientGalleryAccessLimiter limiter = new ClientGalleryAccessLimiter(1, 15);
+    ClientGalleryAccessLimiter limiter =
+        new ClientGalleryAccessLimiter(new InMemoryRateLimitBucketStore(), 1, 15);
     assertThat(limiter.allow(null, "gallery")).isTrue();
     assertThat(limiter.allow("", "gallery")).isTrue();
     assertThat(limiter.allow("   ", "gallery")).isTrue();
@@ -82,7 +88,9 @@ class ClientGalleryAccessLimiterTest {
   @Test
   void windowRefillRestoresBudget() throws InterruptedException {
     // Use the test-only millisecond-window constructor so we don't have to sleep for minutes.
-    ClientGalleryAccessLimiter limiter = new ClientGalleryAccessLimiter(2, Duration.ofMillis(200));
+    ClientGalleryAccessLimiter limiter =
+        new ClientGalleryAccessLimiter(
+            new InMemoryRateLimitBucketStore(), 2, Duration.ofMillis(200));
 
     assertThat(limiter.allow("203.0.113.5", "gallery")).isTrue();
     assertThat(limiter.allow("203.0.113.5", "gallery")).isTrue();
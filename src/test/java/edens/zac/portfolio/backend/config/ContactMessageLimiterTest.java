@@ -8,7 +8,8 @@ class ContactMessageLimiterTest {
 
   @Test
   void firstFiveAttemptsSucceedSixthFails() {
-    ContactMessageLimiter limiter = new ContactMessageLimiter(5);
+    ContactMessageLimiter limiter =
+        new ContactMessageLimiter(new InMemoryRateLimitBucketStore(), 5);
     for (int i = 0; i < 5; i++) {
       assertThat(limiter.tryConsume("user@example.com")).isTrue();
     }
@@ -17,7 +18,8 @@ class ContactMessageLimiterTest {
 
   @Test
   void differentEmailsHaveIndependentBuckets() {
-    ContactMessageLimiter limiter = new ContactMessageLimiter(2);
+    ContactMessageLimiter limiter =
+        new ContactMessageLimiter(new InMemoryRateLimitBucketStore(), 2);
     assertThat(limiter.tryConsume("a@example.com")).isTrue();
     assertThat(limiter.tryConsume("a@example.com")).isTrue();
     assertThat(limiter.tryConsume("a@example.com")).isFalse();
@@ -30,7 +32,8 @@ class ContactMessageLimiterTest {
 
   @Test
   void caseAndWhitespaceIsNormalized() {
-    ContactMessageLimiter limiter = new ContactMessageLimiter(2);
+    ContactMessageLimiter limiter =
+        new ContactMessageLimiter(new InMemoryRateLimitBucketStore(), 2);
     assertThat(limiter.tryConsume("Foo@Example.com")).isTrue();
     assertThat(limiter.tryConsume("  foo@example.com ")).isTrue();
     // Same effective key — third attempt must fail.
@@ -39,7 +42,8 @@ class ContactMessageLimiterTest {
 
   @Test
   void nullOrBlankPassesThrough() {
-    ContactMessageLimiter limiter = new ContactMessageLimiter(1);
+    ContactMessageLimiter limiter =
+        new ContactMessageLimiter(new InMemoryRateLimitBucketStore(), 1);
     assertThat(limiter.tryConsume(null)).isTrue();
     assertThat(limiter.tryConsume("")).isTrue();
     assertThat(limiter.tryConsume("   ")).isTrue();
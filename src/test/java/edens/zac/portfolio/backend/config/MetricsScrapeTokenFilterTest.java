@@ -0,0 +1,65 @@
+package edens.zac.portfolio.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/** ROLE_METRICS is granted only for the configured bearer token, and only on the scrape path. */
+class MetricsScrapeTokenFilterTest {
+
+  @AfterEach
+  void clearContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void matchingTokenGrantsRoleMetrics() throws Exception {
+    Authentication auth =
+        run(new MetricsScrapeTokenFilter("s3cret"), "/actuator/prometheus", "s3cret");
+
+    assertThat(auth).isNotNull();
+    assertThat(auth.getAuthorities())
+        .extracting(GrantedAuthority::getAuthority)
+        .containsExactly("ROLE_METRICS");
+  }
+
+  @Test
+  void wrongOrMissingTokenGrantsNothing() throws Exception {
+    MetricsScrapeTokenFilter filter = new MetricsScrapeTokenFilter("s3cret");
+
+    assertThat(run(filter, "/actuator/prometheus", "s3cret-not")).isNull();
+    assertThat(run(filter, "/actuator/prometheus", null)).isNull();
+  }
+
+  @Test
+  void blankConfiguredTokenNeverMatches() throws Exception {
+    assertThat(run(new MetricsScrapeTokenFilter(""), "/actuator/prometheus", "")).isNull();
+  }
+
+  @Test
+  void otherPathsAreIgnored() throws Exception {
+    assertThat(run(new MetricsScrapeTokenFilter("s3cret"), "/api/admin/ping", "s3cret")).isNull();
+  }
+
+  private Authentication run(MetricsScrapeTokenFilter filter, String path, String token)
+      throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+    if (token != null) {
+      request.addHeader("Authorization", "Bearer " + token);
+    }
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    FilterChain chain = mock(FilterChain.class);
+    filter.doFilter(request, response, chain);
+    verify(chain).doFilter(request, response);
+    return SecurityContextHolder.getContext().getAuthentication();
+  }
+}
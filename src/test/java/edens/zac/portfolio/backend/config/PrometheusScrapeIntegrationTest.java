@@ -0,0 +1,62 @@
+package edens.zac.portfolio.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import edens.zac.portfolio.backend.AbstractPostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Scrapes {@code /actuator/prometheus} over a real port: the bearer token opens it, anything else
+ * is rejected, and the exposition carries the Hikari pool and repository timers.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "app.metrics.scrape-token=test-scrape-token")
+@AutoConfigureObservability(tracing = false)
+class PrometheusScrapeIntegrationTest extends AbstractPostgresIntegrationTest {
+
+  @LocalServerPort private int port;
+
+  private final TestRestTemplate restTemplate = new TestRestTemplate();
+
+  private ResponseEntity<String> scrape(String token) {
+    HttpHeaders headers = new HttpHeaders();
+    if (token != null) {
+      headers.setBearerAuth(token);
+    }
+    return restTemplate.exchange(
+        "http://localhost:" + port + "/actuator/prometheus",
+        HttpMethod.GET,
+        new HttpEntity<>(headers),
+        String.class);
+  }
+
+  @Test
+  void scrapeWithTokenExposesPoolAndRepositoryMetrics() {
+    // Any request through a BaseDao helper, so the repository timer has a sample.
+    restTemplate.getForEntity("http://localhost:" + port + "/api/read/collections", String.class);
+
+    ResponseEntity<String> response = scrape("test-scrape-token");
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getBody())
+        .contains("hikaricp_connections_acquire_seconds")
+        .contains("portfolio_repository_query_seconds")
+        .contains("application=\"portfolio-backend\"");
+  }
+
+  @Test
+  void scrapeWithoutOrWithWrongTokenIsRejected() {
+    assertThat(scrape(null).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    assertThat(scrape("nope").getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+  }
+}
@@ -8,9 +8,7 @@ import static org.mockito.Mockito.verify;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.github.benmanes.caffeine.cache.Cache;
 import jakarta.servlet.FilterChain;
-import java.lang.reflect.Field;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -20,13 +18,15 @@ import org.springframework.mock.web.MockHttpServletResponse;
 class RateLimitFilterTest {
 
   private RateLimitFilter filter;
+  private InMemoryRateLimitBucketStore bucketStore;
   private ObjectMapper objectMapper;
 
   @BeforeEach
   void setUp() {
     objectMapper = new ObjectMapper();
     objectMapper.registerModule(new JavaTimeModule());
-    filter = new RateLimitFilter(2, objectMapper);
+    bucketStore = new InMemoryRateLimitBucketStore();
+    filter = new RateLimitFilter(bucketStore, 2, objectMapper);
   }
 
   private MockHttpServletRequest publicRequest(String ip) {
@@ -146,13 +146,13 @@ class RateLimitFilterTest {
   class CaffeineEviction {
 
     @Test
-    void bucketsBackingCacheIsCaffeineBounded() throws Exception {
-      // Compile-time assertion: the buckets field must be a Caffeine Cache, not a
-      // ConcurrentHashMap. This guards against a regression where the unbounded map returns.
-      Field f = RateLimitFilter.class.getDeclaredField("ipBuckets");
-      f.setAccessible(true);
-      Object value = f.get(filter);
-      assertThat(value).isInstanceOf(Cache.class);
+    void bucketsAreKeptInTheBoundedStore() throws Exception {
+      // The filter holds no buckets of its own: they live in the store's Caffeine cache, so the
+      // unbounded-map regression cannot return through the filter.
+      filter.doFilter(
+          publicRequest("1.2.3.4"), new MockHttpServletResponse(), mock(FilterChain.class));
+
+      assertThat(bucketStore.estimatedSize("public-ip")).isEqualTo(1);
     }
 
     @Test
@@ -167,13 +167,8 @@ class RateLimitFilterTest {
         filter.doFilter(req, new MockHttpServletResponse(), chain);
       }
 
-      Field f = RateLimitFilter.class.getDeclaredField("ipBuckets");
-      f.setAccessible(true);
-      Cache<?, ?> cache = (Cache<?, ?>) f.get(filter);
-      // Force any pending eviction maintenance.
-      cache.cleanUp();
       // Caffeine maximumSize is a soft bound; allow ~20% slack.
-      assertThat(cache.estimatedSize()).isLessThanOrEqualTo(12_000L);
+      assertThat(bucketStore.estimatedSize("public-ip")).isLessThanOrEqualTo(12_000L);
     }
   }
 }
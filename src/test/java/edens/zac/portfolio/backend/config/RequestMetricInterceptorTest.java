@@ -1,12 +1,14 @@
 package edens.zac.portfolio.backend.config;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 
-import edens.zac.portfolio.backend.dao.RequestMetricRepository;
+import edens.zac.portfolio.backend.services.RequestMetricAggregator;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -15,6 +17,7 @@ import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockHttpServletRequest;
@@ -28,13 +31,13 @@ class RequestMetricInterceptorTest {
   private static final Clock FIXED_CLOCK =
       Clock.fixed(Instant.parse("2026-07-07T10:15:30Z"), ZoneOffset.UTC);
 
-  @Mock private RequestMetricRepository repository;
+  @Mock private RequestMetricAggregator aggregator;
 
   private RequestMetricInterceptor interceptor;
 
   @BeforeEach
   void setUp() {
-    interceptor = new RequestMetricInterceptor(repository, FIXED_CLOCK);
+    interceptor = new RequestMetricInterceptor(aggregator, FIXED_CLOCK);
   }
 
   private MockHttpServletRequest routedRequest(String pattern, Map<String, String> pathVars) {
@@ -53,7 +56,8 @@ class RequestMetricInterceptorTest {
 
     interceptor.afterCompletion(request, new MockHttpServletResponse(), new Object(), null);
 
-    verify(repository).increment(FIXED_DAY, "/api/read/collections/{slug}", "iceland-2026");
+    verify(aggregator)
+        .record(eq(FIXED_DAY), eq("/api/read/collections/{slug}"), eq("iceland-2026"), anyLong());
   }
 
   @Test
@@ -62,7 +66,7 @@ class RequestMetricInterceptorTest {
 
     interceptor.afterCompletion(request, new MockHttpServletResponse(), new Object(), null);
 
-    verify(repository).increment(FIXED_DAY, "/api/read/collections", null);
+    verify(aggregator).record(eq(FIXED_DAY), eq("/api/read/collections"), eq(null), anyLong());
   }
 
   @Test
@@ -72,20 +76,35 @@ class RequestMetricInterceptorTest {
 
     interceptor.afterCompletion(request, new MockHttpServletResponse(), new Object(), null);
 
-    verifyNoInteractions(repository);
+    verifyNoInteractions(aggregator);
   }
 
   @Test
   void swallowsRepositoryExceptionAndNeverPropagates() {
     MockHttpServletRequest request =
         routedRequest("/api/read/collections/{slug}", Map.of("slug", "boom"));
-    doThrow(new RuntimeException("db down"))
-        .when(repository)
-        .increment(any(LocalDate.class), eq("/api/read/collections/{slug}"), eq("boom"));
+    doThrow(new RuntimeException("buffer broken"))
+        .when(aggregator)
+        .record(any(LocalDate.class), eq("/api/read/collections/{slug}"), eq("boom"), anyLong());
 
     // Must NOT throw — a metrics failure cannot break the real response.
     interceptor.afterCompletion(request, new MockHttpServletResponse(), new Object(), null);
 
-    verify(repository).increment(FIXED_DAY, "/api/read/collections/{slug}", "boom");
+    verify(aggregator)
+        .record(eq(FIXED_DAY), eq("/api/read/collections/{slug}"), eq("boom"), anyLong());
+  }
+
+  @Test
+  void recordsLatencyMeasuredFromPreHandle() throws Exception {
+    MockHttpServletRequest request = routedRequest("/api/read/collections", Map.of());
+    interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+    Thread.sleep(20);
+
+    interceptor.afterCompletion(request, new MockHttpServletResponse(), new Object(), null);
+
+    ArgumentCaptor<Long> latency = ArgumentCaptor.forClass(Long.class);
+    verify(aggregator)
+        .record(eq(FIXED_DAY), eq("/api/read/collections"), eq(null), latency.capture());
+    assertThat(latency.getValue()).isGreaterThanOrEqualTo(20L);
   }
 }
@@ -0,0 +1,55 @@
+package edens.zac.portfolio.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+/** Drives the interceptor callbacks in SDK order and checks the recorded meters. */
+class S3MetricsInterceptorTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final S3MetricsInterceptor interceptor = new S3MetricsInterceptor(registry);
+
+  private ExecutionAttributes attributes() {
+    ExecutionAttributes attributes = new ExecutionAttributes();
+    attributes.putAttribute(SdkExecutionAttribute.SERVICE_NAME, "S3");
+    attributes.putAttribute(SdkExecutionAttribute.OPERATION_NAME, "PutObject");
+    return attributes;
+  }
+
+  @Test
+  void successfulCallIsTimedWithoutRetries() {
+    ExecutionAttributes attributes = attributes();
+    interceptor.beforeExecution(null, attributes);
+    interceptor.beforeTransmission(null, attributes);
+    interceptor.afterExecution(null, attributes);
+
+    Timer timer =
+        registry
+            .get("portfolio.s3.request")
+            .tags("service", "S3", "operation", "PutObject", "outcome", "success")
+            .timer();
+    assertThat(timer.count()).isEqualTo(1);
+    assertThat(registry.find("portfolio.s3.retries").counter()).isNull();
+  }
+
+  @Test
+  void retriedFailureCountsExtraAttempts() {
+    ExecutionAttributes attributes = attributes();
+    interceptor.beforeExecution(null, attributes);
+    interceptor.beforeTransmission(null, attributes);
+    interceptor.beforeTransmission(null, attributes);
+    interceptor.beforeTransmission(null, attributes);
+    interceptor.onExecutionFailure(null, attributes);
+
+    assertThat(registry.get("portfolio.s3.request").tags("outcome", "failure").timer().count())
+        .isEqualTo(1);
+    assertThat(
+            registry.get("portfolio.s3.retries").tags("operation", "PutObject").counter().count())
+        .isEqualTo(2.0);
+  }
+}
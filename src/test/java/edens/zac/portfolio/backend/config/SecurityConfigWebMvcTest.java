@@ -26,6 +26,8 @@ import org.springframework.web.bind.annotation.RestController;
 @Import({
   SecurityConfig.class,
   SessionAuthenticationFilter.class,
+  SharedStateConfig.class,
+  MetricsScrapeTokenFilter.class,
   SecurityConfigWebMvcTest.StubControllers.class
 })
 class SecurityConfigWebMvcTest {
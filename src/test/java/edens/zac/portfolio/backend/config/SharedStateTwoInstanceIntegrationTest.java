@@ -0,0 +1,145 @@
+package edens.zac.portfolio.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import edens.zac.portfolio.backend.AbstractPostgresIntegrationTest;
+import edens.zac.portfolio.backend.dao.SharedStateRepository;
+import edens.zac.portfolio.backend.services.PostgresWebAuthnChallengeStore;
+import edens.zac.portfolio.backend.services.WebAuthnChallengeStore;
+import java.time.Duration;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.web.webauthn.api.Bytes;
+import org.springframework.security.web.webauthn.api.PublicKeyCredentialRequestOptions;
+import org.springframework.security.web.webauthn.api.UserVerificationRequirement;
+
+/**
+ * Two backend instances on one database with {@code app.shared-state.backend=postgres}: instance A
+ * is the Spring context, instance B a second set of stores and limiters built on the same
+ * DataSource, as a second JVM would. A ceremony started on one finishes on the other, and the
+ * limits hold across both rather than per instance.
+ */
+@SpringBootTest(properties = "app.shared-state.backend=postgres")
+class SharedStateTwoInstanceIntegrationTest extends AbstractPostgresIntegrationTest {
+
+  @Autowired private WebAuthnChallengeStore challengesA;
+  @Autowired private RateLimitBucketStore bucketsA;
+  @Autowired private AuthLoginLimiter loginLimiterA;
+  @Autowired private ClientGalleryAccessLimiter galleryLimiterA;
+  @Autowired private SharedStateRepository sharedStateRepository;
+  @Autowired private DataSource dataSource;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private WebAuthnChallengeStore challengesB;
+  private PostgresRateLimitBucketStore bucketsB;
+  private AuthLoginLimiter loginLimiterB;
+  private ClientGalleryAccessLimiter galleryLimiterB;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate.execute("TRUNCATE webauthn_challenge, rate_limit_bucket");
+    challengesB = new PostgresWebAuthnChallengeStore(sharedStateRepository, Duration.ofMinutes(5));
+    bucketsB =
+        new PostgresRateLimitBucketStore(dataSource, sharedStateRepository, Duration.ofMinutes(90));
+    loginLimiterB = new AuthLoginLimiter(bucketsB, 5, 15);
+    galleryLimiterB = new ClientGalleryAccessLimiter(bucketsB, 5, 15);
+  }
+
+  private static PublicKeyCredentialRequestOptions loginOptions() {
+    return PublicKeyCredentialRequestOptions.builder()
+        .challenge(Bytes.random())
+        .timeout(Duration.ofMinutes(5))
+        .rpId("localhost")
+        .allowCredentials(List.of())
+        .userVerification(UserVerificationRequirement.REQUIRED)
+        .build();
+  }
+
+  @Test
+  void postgresBackendIsWired() {
+    assertThat(challengesA).isInstanceOf(PostgresWebAuthnChallengeStore.class);
+    assertThat(bucketsA).isInstanceOf(PostgresRateLimitBucketStore.class);
+  }
+
+  @Test
+  void ceremonyStartedOnOneInstanceFinishesOnTheOther() {
+    PublicKeyCredentialRequestOptions options = loginOptions();
+    challengesA.put("attempt-1", options);
+
+    assertThat(challengesB.take("attempt-1")).get().usingRecursiveComparison().isEqualTo(options);
+    // Single use across the cluster: the replay fails on either instance.
+    assertThat(challengesA.take("attempt-1")).isEmpty();
+    assertThat(challengesB.take("attempt-1")).isEmpty();
+  }
+
+  @Test
+  void expiredChallengeCannotBeTakenAndIsSwept() {
+    challengesA.put("attempt-2", loginOptions());
+    challengesA.put("attempt-3", loginOptions());
+    jdbcTemplate.update("UPDATE webauthn_challenge SET expires_at = now() - interval '1 second'");
+
+    assertThat(challengesB.take("attempt-2")).isEmpty();
+
+    ((PostgresWebAuthnChallengeStore) challengesA).sweepExpired();
+    assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM webauthn_challenge", Long.class))
+        .isZero();
+  }
+
+  @Test
+  void galleryAccessLimitIsSharedAcrossInstances() {
+    for (int i = 0; i < 3; i++) {
+      assertThat(galleryLimiterA.allow("203.0.113.7", "smith")).isTrue();
+    }
+    assertThat(galleryLimiterB.allow("203.0.113.7", "smith")).isTrue();
+    assertThat(galleryLimiterB.allow("203.0.113.7", "smith")).isTrue();
+
+    // Five attempts spent between the two instances; the sixth is refused on both.
+    assertThat(galleryLimiterA.allow("203.0.113.7", "smith")).isFalse();
+    assertThat(galleryLimiterB.allow("203.0.113.7", "smith")).isFalse();
+    assertThat(galleryLimiterB.allow("203.0.113.8", "smith")).isTrue();
+  }
+
+  @Test
+  void loginFailuresOnOneInstanceBlockTheOtherUntilReset() {
+    for (int i = 0; i < 5; i++) {
+      (i % 2 == 0 ? loginLimiterA : loginLimiterB).recordFailure("203.0.113.9", "a@example.com");
+    }
+
+    assertThat(loginLimiterA.isBlocked("203.0.113.9", "a@example.com")).isTrue();
+    assertThat(loginLimiterB.isBlocked("203.0.113.9", "A@Example.com")).isTrue();
+
+    loginLimiterB.reset("203.0.113.9", "a@example.com");
+    assertThat(loginLimiterA.isBlocked("203.0.113.9", "a@example.com")).isFalse();
+  }
+
+  @Test
+  void overlongKeysAreHashedIntoTheIdColumn() {
+    String slug = "s".repeat(PostgresRateLimitBucketStore.MAX_ROW_ID_LENGTH);
+
+    assertThat(galleryLimiterA.allow("203.0.113.10", slug)).isTrue();
+
+    String id = jdbcTemplate.queryForObject("SELECT id FROM rate_limit_bucket", String.class);
+    assertThat(id).startsWith("gallery-access:sha256:");
+  }
+
+  @Test
+  void idleBucketsAreSwept() {
+    galleryLimiterA.allow("203.0.113.11", "smith");
+    galleryLimiterB.allow("203.0.113.12", "smith");
+    jdbcTemplate.update(
+        "UPDATE rate_limit_bucket SET touched_at = now() - interval '2 hours'"
+            + " WHERE id LIKE '%203.0.113.11%'");
+
+    bucketsB.sweepIdle();
+
+    assertThat(jdbcTemplate.queryForList("SELECT id FROM rate_limit_bucket", String.class))
+        .singleElement()
+        .asString()
+        .contains("203.0.113.12");
+  }
+}
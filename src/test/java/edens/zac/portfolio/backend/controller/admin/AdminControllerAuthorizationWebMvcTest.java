@@ -7,6 +7,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import edens.zac.portfolio.backend.config.SecurityConfig;
 import edens.zac.portfolio.backend.config.SessionAuthenticationFilter;
+import edens.zac.portfolio.backend.config.SharedStateConfig;
 import edens.zac.portfolio.backend.model.AuthPrincipal;
 import edens.zac.portfolio.backend.model.GeneralMetadataDTO;
 import edens.zac.portfolio.backend.services.AdminHomeService;
@@ -39,7 +40,7 @@ import org.springframework.test.web.servlet.MockMvc;
  * @see edens.zac.portfolio.backend.config.AdminAuthorizationEnforcedWebMvcTest
  */
 @WebMvcTest(AdminController.class)
-@Import({SecurityConfig.class, SessionAuthenticationFilter.class})
+@Import({SecurityConfig.class, SessionAuthenticationFilter.class, SharedStateConfig.class})
 class AdminControllerAuthorizationWebMvcTest {
 
   @Autowired private MockMvc mockMvc;
@@ -22,6 +22,7 @@ import edens.zac.portfolio.backend.entity.AppUserEntity;
 import edens.zac.portfolio.backend.entity.RoleEntity;
 import edens.zac.portfolio.backend.model.CollectionModel;
 import edens.zac.portfolio.backend.services.EmailService;
+import edens.zac.portfolio.backend.services.SessionPrincipalCache;
 import edens.zac.portfolio.backend.services.UserInviteService;
 import edens.zac.portfolio.backend.services.UserMergeService;
 import edens.zac.portfolio.backend.services.UserPageAssembler;
@@ -51,6 +52,7 @@ class AdminUserControllerTest {
   @Mock private UserPageAssembler userPageAssembler;
   @Mock private UserMergeService userMergeService;
   @Mock private EmailService emailService;
+  @Mock private SessionPrincipalCache sessionPrincipalCache;
 
   // Trailing slash on purpose: exercises the trailing-slash-safe invite-URL join.
   private static final String FRONTEND_BASE_URL = "https://app.example.com/";
@@ -65,6 +67,7 @@ class AdminUserControllerTest {
             userPageAssembler,
             userMergeService,
             emailService,
+            sessionPrincipalCache,
             FRONTEND_BASE_URL);
     mockMvc =
         MockMvcBuilders.standaloneSetup(controller)
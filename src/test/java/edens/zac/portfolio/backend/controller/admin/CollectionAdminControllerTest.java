@@ -3,6 +3,8 @@ package edens.zac.portfolio.backend.controller.admin;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -11,13 +13,27 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import edens.zac.portfolio.backend.config.GlobalExceptionHandler;
+import edens.zac.portfolio.backend.dao.CollectionClosureRepository.ClosureDrift;
+import edens.zac.portfolio.backend.dao.ImageAudienceRepository.AudienceDrift;
 import edens.zac.portfolio.backend.dao.RoleRepository;
 import edens.zac.portfolio.backend.dao.RoleRepository.CollectionRoleGrant;
 import edens.zac.portfolio.backend.model.CollectionRequests.GalleryAccessRequest;
 import edens.zac.portfolio.backend.model.CollectionRequests.GalleryAccessResponse;
+import edens.zac.portfolio.backend.model.ProofingRequests.CollectionSummary;
+import edens.zac.portfolio.backend.model.ProofingRequests.ExportRequest;
+import edens.zac.portfolio.backend.model.ProofingRequests.ImageSummary;
+import edens.zac.portfolio.backend.services.CollectionClosureService;
+import edens.zac.portfolio.backend.services.CollectionClosureService.ClosureReport;
 import edens.zac.portfolio.backend.services.CollectionService;
+import edens.zac.portfolio.backend.services.ImageAudienceService;
+import edens.zac.portfolio.backend.services.ImageAudienceService.AudienceReport;
+import edens.zac.portfolio.backend.services.ProofingExportJobService;
+import edens.zac.portfolio.backend.services.ProofingExportJobService.ProofingExportJobResponse;
+import edens.zac.portfolio.backend.services.ProofingService;
 import edens.zac.portfolio.backend.types.AccessLevel;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -38,6 +54,14 @@ class CollectionAdminControllerTest {
 
   @Mock private RoleRepository roleRepository;
 
+  @Mock private CollectionClosureService collectionClosureService;
+
+  @Mock private ImageAudienceService imageAudienceService;
+
+  @Mock private ProofingService proofingService;
+
+  @Mock private ProofingExportJobService proofingExportJobService;
+
   @InjectMocks private CollectionAdminController controller;
 
   @BeforeEach
@@ -246,4 +270,158 @@ class CollectionAdminControllerTest {
           .andExpect(status().isBadRequest());
     }
   }
+
+  @Nested
+  class Closure {
+
+    @Test
+    void checkReportsDriftWithoutRebuilding() throws Exception {
+      when(collectionClosureService.check())
+          .thenReturn(
+              new ClosureReport(12, List.of(new ClosureDrift(1L, 3L, null, null, 2, true))));
+
+      mockMvc
+          .perform(get("/api/admin/collections/closure/check"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.rows").value(12))
+          .andExpect(jsonPath("$.drift[0].ancestorId").value(1))
+          .andExpect(jsonPath("$.drift[0].storedDepth").value(nullValue()))
+          .andExpect(jsonPath("$.drift[0].expectedDepth").value(2));
+      verify(collectionClosureService, never()).rebuild();
+    }
+
+    @Test
+    void rebuildReturnsRebuiltRowCount() throws Exception {
+      when(collectionClosureService.rebuild()).thenReturn(new ClosureReport(14, List.of()));
+
+      mockMvc
+          .perform(post("/api/admin/collections/closure/rebuild"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.rows").value(14))
+          .andExpect(jsonPath("$.drift").isEmpty());
+    }
+  }
+
+  @Nested
+  class ImageAudience {
+
+    @Test
+    void checkReportsDriftWithoutRebuilding() throws Exception {
+      when(imageAudienceService.check())
+          .thenReturn(
+              new AudienceReport(
+                  40, List.of(new AudienceDrift(9L, true, List.of(), true, List.of(3L)))));
+
+      mockMvc
+          .perform(get("/api/admin/collections/image-audience/check"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.rows").value(40))
+          .andExpect(jsonPath("$.drift[0].imageId").value(9))
+          .andExpect(jsonPath("$.drift[0].storedRoleIds").isEmpty())
+          .andExpect(jsonPath("$.drift[0].expectedRoleIds[0]").value(3));
+      verify(imageAudienceService, never()).rebuild();
+    }
+
+    @Test
+    void rebuildReturnsRebuiltRowCount() throws Exception {
+      when(imageAudienceService.rebuild()).thenReturn(new AudienceReport(41, List.of()));
+
+      mockMvc
+          .perform(post("/api/admin/collections/image-audience/rebuild"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.rows").value(41))
+          .andExpect(jsonPath("$.drift").isEmpty());
+    }
+  }
+
+  @Nested
+  class ProofingSummary {
+
+    @Test
+    void summaryReturnsTotalsHistogramAndSelectedBy() throws Exception {
+      when(proofingService.summarize(42L))
+          .thenReturn(
+              new CollectionSummary(
+                  42L,
+                  5,
+                  3,
+                  List.of(0L, 0L, 1L, 0L, 2L, 4L),
+                  List.of(new ImageSummary(7L, 3, List.of(0, 0, 0, 0, 1, 2)))));
+
+      mockMvc
+          .perform(get("/api/admin/collections/42/proofing-summary"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.selects").value(5))
+          .andExpect(jsonPath("$.imagesSelected").value(3))
+          .andExpect(jsonPath("$.ratingHistogram[5]").value(4))
+          .andExpect(jsonPath("$.images[0].contentId").value(7))
+          .andExpect(jsonPath("$.images[0].selectedBy").value(3));
+    }
+
+    @Test
+    void rebuildReturnsRowCount() throws Exception {
+      when(proofingService.rebuildSummary()).thenReturn(12);
+
+      mockMvc
+          .perform(post("/api/admin/collections/proofing-summary/rebuild"))
+          .andExpect(status().isOk())
+          .andExpect(content().string("12"));
+    }
+  }
+
+  @Nested
+  class ProofingExport {
+
+    private final UUID jobId = UUID.fromString("00000000-0000-0000-0000-000000000044");
+
+    private ProofingExportJobResponse job(String status) {
+      return new ProofingExportJobResponse(
+          jobId, 42L, 7L, status, null, null, 0, null, null, -1, 0, 0, null);
+    }
+
+    @Test
+    void exportAcceptsAndReturnsTheJob() throws Exception {
+      when(proofingExportJobService.submit(42L, new ExportRequest(7L, null, true, null)))
+          .thenReturn(job("PENDING"));
+
+      mockMvc
+          .perform(
+              post("/api/admin/collections/42/proofing-exports")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content("{\"userId\":7,\"filenameList\":true}"))
+          .andExpect(status().isAccepted())
+          .andExpect(jsonPath("$.jobId").value(jobId.toString()))
+          .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    void exportWithoutUserIsBadRequest() throws Exception {
+      mockMvc
+          .perform(
+              post("/api/admin/collections/42/proofing-exports")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content("{}"))
+          .andExpect(status().isBadRequest());
+      verify(proofingExportJobService, never()).submit(any(), any());
+    }
+
+    @Test
+    void fileIsConflictUntilTheArchiveExists() throws Exception {
+      when(proofingExportJobService.getJob(jobId)).thenReturn(Optional.of(job("ARCHIVING")));
+      when(proofingExportJobService.resultUrl(jobId)).thenReturn(Optional.empty());
+
+      mockMvc
+          .perform(get("/api/admin/collections/proofing-exports/" + jobId + "/file"))
+          .andExpect(status().isConflict());
+    }
+
+    @Test
+    void unknownJobIsNotFound() throws Exception {
+      when(proofingExportJobService.getJob(jobId)).thenReturn(Optional.empty());
+
+      mockMvc
+          .perform(get("/api/admin/collections/proofing-exports/" + jobId))
+          .andExpect(status().isNotFound());
+    }
+  }
 }
@@ -0,0 +1,83 @@
+package edens.zac.portfolio.backend.controller.admin;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import edens.zac.portfolio.backend.config.GlobalExceptionHandler;
+import edens.zac.portfolio.backend.services.EmailOutboxWorker;
+import edens.zac.portfolio.backend.services.EmailOutboxWorker.OutboxMessage;
+import edens.zac.portfolio.backend.services.EmailOutboxWorker.OutboxPage;
+import edens.zac.portfolio.backend.types.EmailOutboxStatus;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxAdminControllerTest {
+
+  private MockMvc mockMvc;
+
+  @Mock private EmailOutboxWorker emailOutboxWorker;
+
+  @InjectMocks private EmailOutboxAdminController controller;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc =
+        MockMvcBuilders.standaloneSetup(controller)
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+  }
+
+  @Test
+  void list_defaultsToDeadLetters() throws Exception {
+    OutboxMessage dead =
+        new OutboxMessage(
+            7L,
+            "client@example.com",
+            "Your gallery is ready",
+            "gallery password email (slug=smith)",
+            EmailOutboxStatus.DEAD,
+            8,
+            LocalDateTime.of(2026, 10, 1, 12, 0),
+            "MessageRejected: bad address",
+            null,
+            LocalDateTime.of(2026, 10, 1, 11, 0),
+            null);
+    when(emailOutboxWorker.list(EmailOutboxStatus.DEAD, 50, 0))
+        .thenReturn(new OutboxPage(EmailOutboxStatus.DEAD, List.of(dead), 1, 50, 0));
+
+    mockMvc
+        .perform(get("/api/admin/email-outbox"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value("DEAD"))
+        .andExpect(jsonPath("$.total").value(1))
+        .andExpect(jsonPath("$.messages[0].id").value(7))
+        .andExpect(jsonPath("$.messages[0].lastError").value("MessageRejected: bad address"))
+        .andExpect(jsonPath("$.messages[0].htmlBody").doesNotExist());
+  }
+
+  @Test
+  void resend_returns202WhenRequeued() throws Exception {
+    when(emailOutboxWorker.resend(7L)).thenReturn(true);
+
+    mockMvc.perform(post("/api/admin/email-outbox/7/resend")).andExpect(status().isAccepted());
+  }
+
+  @Test
+  void resend_returns409WhenNotDeadLettered() throws Exception {
+    when(emailOutboxWorker.resend(8L)).thenReturn(false);
+
+    mockMvc.perform(post("/api/admin/email-outbox/8/resend")).andExpect(status().isConflict());
+  }
+}
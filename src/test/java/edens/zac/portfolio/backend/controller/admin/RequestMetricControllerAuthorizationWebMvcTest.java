@@ -8,6 +8,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import edens.zac.portfolio.backend.config.SecurityConfig;
 import edens.zac.portfolio.backend.config.SessionAuthenticationFilter;
+import edens.zac.portfolio.backend.config.SharedStateConfig;
 import edens.zac.portfolio.backend.dao.RequestMetricRepository;
 import edens.zac.portfolio.backend.model.AuthPrincipal;
 import edens.zac.portfolio.backend.services.SessionService;
@@ -29,7 +30,7 @@ import org.springframework.test.web.servlet.MockMvc;
  * an admin is 200.
  */
 @WebMvcTest(RequestMetricController.class)
-@Import({SecurityConfig.class, SessionAuthenticationFilter.class})
+@Import({SecurityConfig.class, SessionAuthenticationFilter.class, SharedStateConfig.class})
 class RequestMetricControllerAuthorizationWebMvcTest {
 
   private static final String PATH = "/api/admin/metrics/requests";
@@ -50,9 +50,21 @@ class RequestMetricControllerTest {
           .thenReturn(
               List.of(
                   new RequestMetricRow(
-                      LocalDate.of(2026, 7, 6), "/api/read/collections/{slug}", "iceland", 40L),
+                      LocalDate.of(2026, 7, 6),
+                      "/api/read/collections/{slug}",
+                      "iceland",
+                      40L,
+                      1200L,
+                      400L,
+                      List.of(0L, 0L, 10L, 20L, 6L, 3L, 1L, 0L, 0L, 0L, 0L)),
                   new RequestMetricRow(
-                      LocalDate.of(2026, 7, 6), "/api/read/collections", null, 2L)));
+                      LocalDate.of(2026, 7, 6),
+                      "/api/read/collections",
+                      null,
+                      2L,
+                      0L,
+                      0L,
+                      List.of())));
 
       mockMvc
           .perform(
@@ -64,6 +76,10 @@ class RequestMetricControllerTest {
           .andExpect(jsonPath("$.metrics[0].route").value("/api/read/collections/{slug}"))
           .andExpect(jsonPath("$.metrics[0].slug").value("iceland"))
           .andExpect(jsonPath("$.metrics[0].count").value(40))
+          .andExpect(jsonPath("$.metrics[0].avgMs").value(30))
+          .andExpect(jsonPath("$.metrics[0].maxMs").value(400))
+          .andExpect(jsonPath("$.metrics[0].p95Ms").value(250))
+          .andExpect(jsonPath("$.metrics[1].avgMs").doesNotExist())
           .andExpect(jsonPath("$.metrics[1].slug").doesNotExist())
           .andExpect(jsonPath("$.total").value(42));
 
@@ -76,7 +92,13 @@ class RequestMetricControllerTest {
           .thenReturn(
               List.of(
                   new RequestMetricRow(
-                      LocalDate.of(2026, 7, 6), "/api/read/collections", null, 5L)));
+                      LocalDate.of(2026, 7, 6),
+                      "/api/read/collections",
+                      null,
+                      5L,
+                      0L,
+                      0L,
+                      List.of())));
 
       String body =
           mockMvc
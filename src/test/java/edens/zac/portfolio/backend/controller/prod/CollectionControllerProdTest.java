@@ -5,6 +5,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -327,7 +328,7 @@ class CollectionControllerProdTest {
             eq("test-client-gallery"), eq("correct-password")))
         .thenReturn(true);
     when(clientGalleryAuthService.buildAccessCookies(
-            eq("test-client-gallery"), eq("correct-password"), eq(true), any(Duration.class)))
+            eq("test-client-gallery"), eq(true), any(Duration.class)))
         .thenReturn(
             List.of(
                 ResponseCookie.from("gallery_access_test-client-gallery", "hmac-token|1234567890")
@@ -369,7 +370,7 @@ class CollectionControllerProdTest {
             eq("test-client-gallery"), eq("shared-pw")))
         .thenReturn(true);
     when(clientGalleryAuthService.buildAccessCookies(
-            eq("test-client-gallery"), eq("shared-pw"), eq(true), any(Duration.class)))
+            eq("test-client-gallery"), eq(true), any(Duration.class)))
         .thenReturn(
             List.of(
                 ResponseCookie.from("gallery_access_test-client-gallery", "slug-token")
@@ -419,7 +420,7 @@ class CollectionControllerProdTest {
             eq("test-client-gallery"), eq("correct-password")))
         .thenReturn(true);
     when(clientGalleryAuthService.buildAccessCookies(
-            eq("test-client-gallery"), eq("correct-password"), eq(false), any(Duration.class)))
+            eq("test-client-gallery"), eq(false), any(Duration.class)))
         .thenReturn(
             List.of(
                 ResponseCookie.from("gallery_access_test-client-gallery", "hmac-token|1234567890")
@@ -543,10 +544,10 @@ class CollectionControllerProdTest {
     ContentModels.Image image = createStubImage(10L, "Sunset");
 
     LocationPageResponse response =
-        new LocationPageResponse(location, List.of(collection), List.of(image), 1L, 1L);
+        new LocationPageResponse(location, List.of(collection), List.of(image), 1L, 1L, null, null);
 
     when(collectionService.getLocationPageBySlug(
-            eq("seattle"), anyInt(), anyInt(), anyInt(), anyInt()))
+            eq("seattle"), anyInt(), anyInt(), isNull(), anyInt(), anyInt(), isNull()))
         .thenReturn(response);
 
     // Act & Assert
@@ -563,6 +564,36 @@ class CollectionControllerProdTest {
         .andExpect(jsonPath("$.totalImages", is(1)));
   }
 
+  @Test
+  @DisplayName("GET /collections/location/{slug} should pass cursors through and return the next")
+  void getLocationPage_withCursors_shouldPassThemToService() throws Exception {
+    Records.Location location = new Records.Location(1L, "Seattle", "seattle");
+    LocationPageResponse response =
+        new LocationPageResponse(
+            location,
+            List.of(),
+            List.of(createStubImage(11L, "Dusk")),
+            0L,
+            120L,
+            null,
+            "next-images");
+
+    when(collectionService.getLocationPageBySlug(
+            "seattle", 0, 35, "coll-cursor", 0, 50, "img-cursor"))
+        .thenReturn(response);
+
+    mockMvc
+        .perform(
+            get("/api/read/collections/location/seattle")
+                .param("collectionCursor", "coll-cursor")
+                .param("imageCursor", "img-cursor")
+                .contentType(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.images", hasSize(1)))
+        .andExpect(jsonPath("$.nextImageCursor", is("next-images")))
+        .andExpect(jsonPath("$.nextCollectionCursor").doesNotExist());
+  }
+
   @Test
   @DisplayName("GET /collections/{slug}/meta should return metadata only")
   void getCollectionMeta_shouldReturnMetadataOnly() throws Exception {
@@ -842,7 +873,7 @@ class CollectionControllerProdTest {
             eq("test-client-gallery"), eq("correct-password")))
         .thenReturn(true);
     when(clientGalleryAuthService.buildAccessCookies(
-            eq("test-client-gallery"), eq("correct-password"), eq(true), any(Duration.class)))
+            eq("test-client-gallery"), eq(true), any(Duration.class)))
         .thenReturn(
             List.of(
                 ResponseCookie.from("gallery_access_test-client-gallery", "some-token")
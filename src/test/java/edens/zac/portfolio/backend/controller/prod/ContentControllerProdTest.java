@@ -10,10 +10,12 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import edens.zac.portfolio.backend.config.GlobalExceptionHandler;
 import edens.zac.portfolio.backend.model.ContentFilmTypeModel;
 import edens.zac.portfolio.backend.model.ContentModels;
+import edens.zac.portfolio.backend.model.ImageMapResponse;
 import edens.zac.portfolio.backend.model.ImageSearchRequest;
 import edens.zac.portfolio.backend.model.ImageSearchResponse;
 import edens.zac.portfolio.backend.model.Records;
 import edens.zac.portfolio.backend.services.ContentService;
+import edens.zac.portfolio.backend.services.ImageMapService;
 import edens.zac.portfolio.backend.services.MetadataService;
 import edens.zac.portfolio.backend.types.FilmFormat;
 import java.util.List;
@@ -42,6 +44,8 @@ class ContentControllerProdTest {
 
   @Mock private MetadataService metadataService;
 
+  @Mock private ImageMapService imageMapService;
+
   @InjectMocks private ContentControllerProd contentControllerProd;
 
   @BeforeEach
@@ -211,6 +215,58 @@ class ContentControllerProdTest {
         .andExpect(jsonPath("$", hasSize(0)));
   }
 
+  @Nested
+  @DisplayName("GET /content/images/map")
+  class GetImageMap {
+
+    @Test
+    @DisplayName("should return the clusters for the box and zoom")
+    void getImageMap_shouldReturnClusters() throws Exception {
+      when(imageMapService.clusters(47.3, -122.6, 47.8, -122.0, 8))
+          .thenReturn(
+              new ImageMapResponse(
+                  4,
+                  7,
+                  List.of(
+                      new Records.MapCluster(
+                          "c23n", 7, 47.61, -122.33, 11L, "https://cdn.example.com/11.jpg"))));
+
+      mockMvc
+          .perform(
+              get("/api/read/content/images/map")
+                  .param("south", "47.3")
+                  .param("west", "-122.6")
+                  .param("north", "47.8")
+                  .param("east", "-122.0")
+                  .param("zoom", "8"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.precision", is(4)))
+          .andExpect(jsonPath("$.total", is(7)))
+          .andExpect(jsonPath("$.clusters", hasSize(1)))
+          .andExpect(jsonPath("$.clusters[0].geohash", is("c23n")))
+          .andExpect(jsonPath("$.clusters[0].count", is(7)))
+          .andExpect(jsonPath("$.clusters[0].coverImageId", is(11)))
+          .andExpect(jsonPath("$.clusters[0].coverImageUrl", is("https://cdn.example.com/11.jpg")));
+    }
+
+    @Test
+    @DisplayName("should return 400 for an invalid box")
+    void getImageMap_invalidBox_shouldReturnBadRequest() throws Exception {
+      when(imageMapService.clusters(50, 0, 40, 10, 5))
+          .thenThrow(new IllegalArgumentException("south and north must be latitudes"));
+
+      mockMvc
+          .perform(
+              get("/api/read/content/images/map")
+                  .param("south", "50")
+                  .param("west", "0")
+                  .param("north", "40")
+                  .param("east", "10")
+                  .param("zoom", "5"))
+          .andExpect(status().isBadRequest());
+    }
+  }
+
   @Nested
   @DisplayName("GET /content/images/search")
   class SearchImages {
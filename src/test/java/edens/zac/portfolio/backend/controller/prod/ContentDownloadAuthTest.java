@@ -285,7 +285,7 @@ class ContentDownloadAuthTest {
 
       verify(contentService, never()).resolveCollectionDownloadEntries(any(), any(), any());
       verify(downloadUrlService, never()).presignObject(any(), any(), any());
-      verify(downloadUrlService, never()).zipToS3AndPresign(any(), any());
+      verify(downloadUrlService, never()).cachedZipToS3AndPresign(any(), any(), any(), any());
     }
   }
 
@@ -358,7 +358,7 @@ class ContentDownloadAuthTest {
 
       verify(contentService, never()).resolveCollectionDownloadEntries(any(), any(), any());
       verify(downloadUrlService, never()).presignObject(any(), any(), any());
-      verify(downloadUrlService, never()).zipToS3AndPresign(any(), any());
+      verify(downloadUrlService, never()).cachedZipToS3AndPresign(any(), any(), any(), any());
     }
 
     @Test
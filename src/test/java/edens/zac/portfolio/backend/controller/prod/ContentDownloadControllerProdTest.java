@@ -7,13 +7,16 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import edens.zac.portfolio.backend.config.GlobalExceptionHandler;
 import edens.zac.portfolio.backend.config.ResourceNotFoundException;
 import edens.zac.portfolio.backend.entity.CollectionEntity;
 import edens.zac.portfolio.backend.model.DownloadResolution;
+import edens.zac.portfolio.backend.services.ArchiveJobService;
 import edens.zac.portfolio.backend.services.ClientGalleryAuthService;
 import edens.zac.portfolio.backend.services.CollectionAccessService;
 import edens.zac.portfolio.backend.services.CollectionService;
@@ -23,6 +26,8 @@ import edens.zac.portfolio.backend.types.CollectionVisibility;
 import jakarta.servlet.http.Cookie;
 import java.net.URI;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -56,6 +61,7 @@ class ContentDownloadControllerProdTest {
   @Mock private ClientGalleryAuthService clientGalleryAuthService;
   @Mock private CollectionAccessService collectionAccessService;
   @Mock private DownloadUrlService downloadUrlService;
+  @Mock private ArchiveJobService archiveJobService;
 
   @InjectMocks private ContentDownloadControllerProd controller;
 
@@ -262,7 +268,8 @@ class ContentDownloadControllerProdTest {
           .thenReturn(List.of(webResolution("first.webp"), webResolution("second.webp")));
       when(contentService.collectionZipFilename("smith-wedding", 1L))
           .thenReturn("smith-wedding-1.zip");
-      when(downloadUrlService.zipToS3AndPresign(any(), eq("smith-wedding-1.zip")))
+      when(downloadUrlService.cachedZipToS3AndPresign(
+              any(), any(), any(), eq("smith-wedding-1.zip")))
           .thenReturn(ZIP_PRESIGNED);
 
       mockMvc
@@ -295,7 +302,7 @@ class ContentDownloadControllerProdTest {
           .andExpect(status().isFound())
           .andExpect(header().string("Location", PRESIGNED.toString()));
 
-      verify(downloadUrlService, never()).zipToS3AndPresign(any(), any());
+      verify(downloadUrlService, never()).cachedZipToS3AndPresign(any(), any(), any(), any());
     }
 
     @Test
@@ -307,7 +314,7 @@ class ContentDownloadControllerProdTest {
           .andExpect(status().isUnauthorized());
 
       verify(contentService, never()).resolveCollectionDownloadEntries(any(), any(), any());
-      verify(downloadUrlService, never()).zipToS3AndPresign(any(), any());
+      verify(downloadUrlService, never()).cachedZipToS3AndPresign(any(), any(), any(), any());
       verify(downloadUrlService, never()).presignObject(any(), any(), any());
     }
 
@@ -320,7 +327,7 @@ class ContentDownloadControllerProdTest {
           .perform(get("/api/read/collections/open-portfolio/download"))
           .andExpect(status().isNotFound());
 
-      verify(downloadUrlService, never()).zipToS3AndPresign(any(), any());
+      verify(downloadUrlService, never()).cachedZipToS3AndPresign(any(), any(), any(), any());
     }
 
     @Test
@@ -333,7 +340,8 @@ class ContentDownloadControllerProdTest {
           .thenReturn(List.of(webResolution("first.webp"), webResolution("third.webp")));
       when(contentService.collectionZipFilename("smith-wedding", 1L))
           .thenReturn("smith-wedding-1.zip");
-      when(downloadUrlService.zipToS3AndPresign(any(), any())).thenReturn(ZIP_PRESIGNED);
+      when(downloadUrlService.cachedZipToS3AndPresign(any(), any(), any(), any()))
+          .thenReturn(ZIP_PRESIGNED);
 
       mockMvc
           .perform(
@@ -344,7 +352,8 @@ class ContentDownloadControllerProdTest {
           .andExpect(status().isFound());
 
       // Subset ZIPs carry a -selection-<count> suffix so they don't collide with the "all" ZIP.
-      verify(downloadUrlService).zipToS3AndPresign(any(), eq("smith-wedding-1-selection-2.zip"));
+      verify(downloadUrlService)
+          .cachedZipToS3AndPresign(any(), any(), any(), eq("smith-wedding-1-selection-2.zip"));
 
       ArgumentCaptor<List<Long>> idsCaptor = ArgumentCaptor.forClass(List.class);
       verify(contentService)
@@ -366,7 +375,7 @@ class ContentDownloadControllerProdTest {
           .andExpect(status().isUnauthorized());
 
       verify(contentService, never()).resolveCollectionDownloadEntries(any(), any(), any());
-      verify(downloadUrlService, never()).zipToS3AndPresign(any(), any());
+      verify(downloadUrlService, never()).cachedZipToS3AndPresign(any(), any(), any(), any());
       verify(downloadUrlService, never()).presignObject(any(), any(), any());
     }
 
@@ -402,7 +411,8 @@ class ContentDownloadControllerProdTest {
           .thenReturn(List.of(webResolution("first.webp"), webResolution("second.webp")));
       when(contentService.collectionZipFilename("open-portfolio", 2L))
           .thenReturn("open-portfolio-2.zip");
-      when(downloadUrlService.zipToS3AndPresign(any(), eq("open-portfolio-2.zip")))
+      when(downloadUrlService.cachedZipToS3AndPresign(
+              any(), any(), any(), eq("open-portfolio-2.zip")))
           .thenReturn(ZIP_PRESIGNED);
 
       mockMvc
@@ -445,7 +455,85 @@ class ContentDownloadControllerProdTest {
 
       verify(contentService, never()).resolveCollectionDownloadEntries(any(), any(), any());
       verify(downloadUrlService, never()).presignObject(any(), any(), any());
-      verify(downloadUrlService, never()).zipToS3AndPresign(any(), any());
+      verify(downloadUrlService, never()).cachedZipToS3AndPresign(any(), any(), any(), any());
+    }
+  }
+
+  // ---------------------------------------------------------------------------
+  //  Async collection ZIP download
+  // ---------------------------------------------------------------------------
+
+  @Nested
+  class AsyncCollectionDownload {
+
+    private final UUID jobId = UUID.fromString("00000000-0000-0000-0000-0000000000aa");
+
+    @Test
+    void multipleImages_enqueuesJobAndReturns202() throws Exception {
+      when(collectionService.findEntityBySlug("open-portfolio")).thenReturn(openCollection());
+      List<DownloadResolution> entries = List.of(jpegResolution("a.jpg"), jpegResolution("b.jpg"));
+      when(contentService.resolveCollectionDownloadEntries(2L, "original", null))
+          .thenReturn(entries);
+      when(contentService.collectionZipFilename("open-portfolio", 2L))
+          .thenReturn("open-portfolio-2.zip");
+      when(archiveJobService.submit(2L, "original", entries, "open-portfolio-2.zip"))
+          .thenReturn(new ArchiveJobService.ArchiveJobResponse(jobId, "PENDING", 2, 0, 0, null));
+
+      mockMvc
+          .perform(
+              post("/api/read/collections/open-portfolio/download-jobs")
+                  .param("format", "original"))
+          .andExpect(status().isAccepted())
+          .andExpect(jsonPath("$.jobId").value(jobId.toString()))
+          .andExpect(jsonPath("$.totalEntries").value(2));
+
+      verify(downloadUrlService, never()).cachedZipToS3AndPresign(any(), any(), any(), any());
+    }
+
+    @Test
+    void protectedCollection_noCookie_returns401AndQueuesNothing() throws Exception {
+      when(collectionService.findEntityBySlug("smith-wedding")).thenReturn(protectedGallery());
+
+      mockMvc
+          .perform(post("/api/read/collections/smith-wedding/download-jobs"))
+          .andExpect(status().isUnauthorized());
+
+      verify(archiveJobService, never()).submit(any(), any(), any(), any());
+    }
+
+    @Test
+    void pollJob_returnsProgressOr404() throws Exception {
+      when(archiveJobService.getJob(jobId))
+          .thenReturn(
+              Optional.of(
+                  new ArchiveJobService.ArchiveJobResponse(
+                      jobId, "PROCESSING", 10, 4, 4096, null)));
+
+      mockMvc
+          .perform(get("/api/read/download-jobs/" + jobId))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.entriesDone").value(4))
+          .andExpect(jsonPath("$.bytesDone").value(4096));
+      mockMvc
+          .perform(get("/api/read/download-jobs/" + UUID.randomUUID()))
+          .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void jobFile_redirectsWhenCompletedAnd409WhileRunning() throws Exception {
+      var running = new ArchiveJobService.ArchiveJobResponse(jobId, "PROCESSING", 2, 1, 1, null);
+      when(archiveJobService.getJob(jobId)).thenReturn(Optional.of(running));
+      when(archiveJobService.resultUrl(jobId))
+          .thenReturn(Optional.empty())
+          .thenReturn(Optional.of(ZIP_PRESIGNED));
+
+      mockMvc
+          .perform(get("/api/read/download-jobs/" + jobId + "/file"))
+          .andExpect(status().isConflict());
+      mockMvc
+          .perform(get("/api/read/download-jobs/" + jobId + "/file"))
+          .andExpect(status().isFound())
+          .andExpect(header().string("Location", ZIP_PRESIGNED.toString()));
     }
   }
 }
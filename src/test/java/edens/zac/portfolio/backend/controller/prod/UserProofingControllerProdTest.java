@@ -0,0 +1,119 @@
+package edens.zac.portfolio.backend.controller.prod;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import edens.zac.portfolio.backend.model.AuthPrincipal;
+import edens.zac.portfolio.backend.model.ProofingRequests.Batch;
+import edens.zac.portfolio.backend.model.ProofingRequests.BatchResult;
+import edens.zac.portfolio.backend.model.ProofingRequests.RatingChange;
+import edens.zac.portfolio.backend.services.ProofingService;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+@ExtendWith(MockitoExtension.class)
+class UserProofingControllerProdTest {
+
+  @Mock private ProofingService proofingService;
+
+  @InjectMocks private UserProofingControllerProd controller;
+
+  private MockMvc mockMvc;
+
+  private final AuthPrincipal client = new AuthPrincipal(7L, "c@b.com", false, true);
+
+  private static final String BODY =
+      "{\"select\":[1,2],\"unselect\":[9],\"ratings\":[{\"contentId\":1,\"rating\":4},"
+          + "{\"contentId\":5,\"rating\":null}]}";
+
+  @BeforeEach
+  void setUp() {
+    mockMvc =
+        MockMvcBuilders.standaloneSetup(controller)
+            .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+            .build();
+  }
+
+  @AfterEach
+  void clearContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  private RequestPostProcessor asUser(AuthPrincipal principal) {
+    return request -> {
+      SecurityContextHolder.getContext()
+          .setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+      return request;
+    };
+  }
+
+  @Test
+  void batchAnonymousIsUnauthorized() throws Exception {
+    mockMvc
+        .perform(
+            post("/api/read/user/proofing/3/batch")
+                .header("Idempotency-Key", "k1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BODY))
+        .andExpect(status().isUnauthorized());
+
+    verify(proofingService, never()).applyBatch(anyLong(), anyLong(), anyString(), any());
+  }
+
+  @Test
+  void batchAuthenticatedPassesKeyAndReturnsCounts() throws Exception {
+    Batch expected =
+        new Batch(
+            List.of(1L, 2L),
+            List.of(9L),
+            List.of(new RatingChange(1L, 4), new RatingChange(5L, null)));
+    when(proofingService.applyBatch(eq(7L), eq(3L), eq("k1"), eq(expected)))
+        .thenReturn(new BatchResult(2, 1, 1, 1, false));
+
+    mockMvc
+        .perform(
+            post("/api/read/user/proofing/3/batch")
+                .with(asUser(client))
+                .header("Idempotency-Key", "k1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BODY))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.selected").value(2))
+        .andExpect(jsonPath("$.cleared").value(1))
+        .andExpect(jsonPath("$.replayed").value(false));
+  }
+
+  @Test
+  void batchWithoutKeyIsBadRequest() throws Exception {
+    mockMvc
+        .perform(
+            post("/api/read/user/proofing/3/batch")
+                .with(asUser(client))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BODY))
+        .andExpect(status().isBadRequest());
+
+    verify(proofingService, never()).applyBatch(anyLong(), anyLong(), anyString(), any());
+  }
+}
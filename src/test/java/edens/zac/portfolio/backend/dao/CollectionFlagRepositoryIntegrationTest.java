@@ -363,7 +363,7 @@ class CollectionFlagRepositoryIntegrationTest extends AbstractPostgresIntegratio
     assertThat(collectionRepository.findAllReferencedCollectionsByParentId(parent.getId()))
         .extracting(CollectionEntity::getId)
         .contains(child.getId());
-    assertThat(collectionRepository.findListedByLocationName("no-such-location", 10, 0)).isEmpty();
+    assertThat(collectionRepository.findListedByLocationId(-1L, null, 10, 0)).isEmpty();
 
     // Every column in the shared list survives the join projection and the shared row mapper.
     CollectionEntity viaParentLookup =
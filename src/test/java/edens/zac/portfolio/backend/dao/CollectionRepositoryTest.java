@@ -32,6 +32,9 @@ class CollectionRepositoryTest {
 
   @Mock private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
+  @Mock private ImageAudienceRepository imageAudienceRepository;
+  @Mock private LocationStatsRepository locationStatsRepository;
+
   @Captor private ArgumentCaptor<String> sqlCaptor;
 
   @Captor private ArgumentCaptor<MapSqlParameterSource> paramsCaptor;
@@ -40,7 +43,8 @@ class CollectionRepositoryTest {
 
   @BeforeEach
   void setUp() {
-    collectionRepository = new CollectionRepository(jdbcTemplate);
+    collectionRepository =
+        new CollectionRepository(jdbcTemplate, imageAudienceRepository, locationStatsRepository);
     // Replace the internal namedParameterJdbcTemplate with our mock
     setNamedParameterJdbcTemplate(collectionRepository, namedParameterJdbcTemplate);
   }
@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import edens.zac.portfolio.backend.AbstractPostgresIntegrationTest;
 import edens.zac.portfolio.backend.types.AccessLevel;
+import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,9 +12,10 @@ import org.springframework.jdbc.core.JdbcTemplate;
 
 /**
  * Proves {@link ContentRepository#isImageVisibleToUser} resolves its access predicate through the
- * role tables ({@code role_member} JOIN {@code role_collection}), not through the frozen {@code
- * user_collection} table. Access is granted ONLY via a role here — no {@code user_collection} row
- * is ever inserted — so a passing test confirms the seam was fully re-pointed onto roles.
+ * role tables ({@code role_member} plus the {@code role_collection} grants folded into {@code
+ * image_audience}), not through the frozen {@code user_collection} table. Access is granted ONLY
+ * via a role here — no {@code user_collection} row is ever inserted — so a passing test confirms
+ * the seam was fully re-pointed onto roles.
  *
  * <p>Slugs are prefixed {@code contentvis-} because the shared Testcontainers Postgres does NOT
  * truncate {@code collection} between test classes; reusing another class's slug would collide.
@@ -22,6 +24,7 @@ class ContentRepositoryRoleVisibilityIntegrationTest extends AbstractPostgresInt
 
   @Autowired private ContentRepository contentRepository;
   @Autowired private RoleRepository roleRepository;
+  @Autowired private ImageAudienceRepository imageAudienceRepository;
   @Autowired private JdbcTemplate jdbcTemplate;
 
   private Long seedUser(String label) {
@@ -62,6 +65,7 @@ class ContentRepositoryRoleVisibilityIntegrationTest extends AbstractPostgresInt
         "INSERT INTO collection_content (collection_id, content_id, visible) VALUES (?, ?, true)",
         collectionId,
         imageId);
+    imageAudienceRepository.refreshImages(List.of(imageId));
   }
 
   @Test
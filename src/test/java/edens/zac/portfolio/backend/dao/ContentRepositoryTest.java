@@ -26,13 +26,14 @@ class ContentRepositoryTest {
 
   @Mock private JdbcTemplate jdbcTemplate;
   @Mock private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+  @Mock private LocationStatsRepository locationStatsRepository;
   @Captor private ArgumentCaptor<String> sqlCaptor;
 
   private ContentRepository repository;
 
   @BeforeEach
   void setUp() {
-    repository = new ContentRepository(jdbcTemplate);
+    repository = new ContentRepository(jdbcTemplate, locationStatsRepository);
     injectMockTemplate(repository, namedParameterJdbcTemplate);
   }
 
@@ -0,0 +1,191 @@
+package edens.zac.portfolio.backend.dao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import edens.zac.portfolio.backend.AbstractPostgresIntegrationTest;
+import edens.zac.portfolio.backend.entity.ContentImageEntity;
+import edens.zac.portfolio.backend.model.Records;
+import edens.zac.portfolio.backend.services.GeohashUtil;
+import edens.zac.portfolio.backend.types.AccessLevel;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Capture locations round-trip through {@link ContentRepository#saveImage} with their geohash
+ * (V64), and {@link ImageMapRepository#findClusters} clusters only the images the viewer may see,
+ * leaving out images reachable only through password-protected galleries, and including boxes
+ * across the antimeridian. Each test works in its own patch of the globe because the shared
+ * container keeps other classes' images.
+ */
+class ImageMapRepositoryIntegrationTest extends AbstractPostgresIntegrationTest {
+
+  @Autowired private ImageMapRepository imageMapRepository;
+  @Autowired private ContentRepository contentRepository;
+  @Autowired private RoleRepository roleRepository;
+  @Autowired private ImageAudienceRepository imageAudienceRepository;
+  @Autowired private JdbcTemplate jdbc;
+
+  private long seedImage(double latitude, double longitude, Integer rating) {
+    return contentRepository
+        .saveImage(
+            ContentImageEntity.builder()
+                .title("map")
+                .imageUrlWeb("https://cdn.example.com/map-" + UUID.randomUUID() + ".jpg")
+                .rating(rating)
+                .gpsLatitude(latitude)
+                .gpsLongitude(longitude)
+                .build())
+        .getId();
+  }
+
+  private long seedCollection(String visibility, long... imageIds) {
+    String slug = "map-" + UUID.randomUUID();
+    long collectionId =
+        jdbc.queryForObject(
+            "INSERT INTO collection (title, slug, visibility) VALUES (?, ?, ?) RETURNING id",
+            Long.class,
+            slug,
+            slug,
+            visibility);
+    for (long imageId : imageIds) {
+      jdbc.update(
+          "INSERT INTO collection_content (collection_id, content_id, visible)"
+              + " VALUES (?, ?, true)",
+          collectionId,
+          imageId);
+      imageAudienceRepository.refreshImages(List.of(imageId));
+    }
+    return collectionId;
+  }
+
+  private long seedUser() {
+    String email = "map-" + UUID.randomUUID() + "@example.com";
+    return jdbc.queryForObject(
+        "INSERT INTO users (name, email, webauthn_user_handle, status) "
+            + "VALUES (?, ?, gen_random_uuid(), 'ACTIVE') RETURNING id",
+        Long.class,
+        email,
+        email);
+  }
+
+  private List<Records.MapCluster> clusters(
+      GeohashUtil.Bounds bounds, int precision, Long userId, boolean admin) {
+    return imageMapRepository.findClusters(
+        bounds, GeohashUtil.coveringCells(bounds, precision), precision, userId, admin);
+  }
+
+  @Test
+  void saveImageStoresCoordinatesWithTheirGeohash() {
+    long id = seedImage(-41.2865, 174.7762, null);
+
+    ContentImageEntity saved = contentRepository.findImageById(id).orElseThrow();
+    assertThat(saved.getGpsLatitude()).isEqualTo(-41.2865);
+    assertThat(saved.getGpsLongitude()).isEqualTo(174.7762);
+    assertThat(
+            jdbc.queryForObject("SELECT geohash FROM content_image WHERE id = ?", String.class, id))
+        .isEqualTo(GeohashUtil.encode(-41.2865, 174.7762, GeohashUtil.STORED_PRECISION));
+
+    saved.setGpsLatitude(null);
+    saved.setGpsLongitude(null);
+    contentRepository.saveImage(saved);
+    assertThat(
+            jdbc.queryForObject("SELECT geohash FROM content_image WHERE id = ?", String.class, id))
+        .isNull();
+  }
+
+  @Test
+  void clustersCountOnlyImagesTheViewerMaySee() {
+    long best = seedImage(-43.0001, 169.0001, 5);
+    long other = seedImage(-43.0002, 169.0002, 2);
+    long granted = seedImage(-43.0003, 169.0003, null);
+    seedImage(-43.0004, 169.0004, null); // in no collection: admins only
+    long far = seedImage(-42.6, 169.6, null);
+    seedCollection("LISTED", best, other, far);
+    long unlisted = seedCollection("UNLISTED", granted);
+
+    long userId = seedUser();
+    long roleId = roleRepository.createRole("map role " + UUID.randomUUID(), null);
+    roleRepository.addMember(roleId, userId, null);
+    roleRepository.setCollectionGrant(roleId, unlisted, AccessLevel.GENERAL, null);
+
+    GeohashUtil.Bounds bounds = new GeohashUtil.Bounds(-43.5, 168.5, -42.5, 170);
+    int precision = 4;
+    String cell = GeohashUtil.encode(-43.0001, 169.0001, precision);
+
+    List<Records.MapCluster> anonymous = clusters(bounds, precision, null, false);
+    assertThat(anonymous).extracting(Records.MapCluster::count).containsExactly(2L, 1L);
+    Records.MapCluster top = anonymous.get(0);
+    assertThat(top.geohash()).isEqualTo(cell);
+    assertThat(top.coverImageId()).isEqualTo(best);
+    assertThat(top.latitude()).isBetween(-43.0003, -43.0);
+
+    assertThat(clusters(bounds, precision, userId, false))
+        .filteredOn(c -> c.geohash().equals(cell))
+        .singleElement()
+        .extracting(Records.MapCluster::count)
+        .isEqualTo(3L);
+    assertThat(clusters(bounds, precision, seedUser(), false))
+        .filteredOn(c -> c.geohash().equals(cell))
+        .singleElement()
+        .extracting(Records.MapCluster::count)
+        .isEqualTo(2L);
+    assertThat(clusters(bounds, precision, null, true))
+        .filteredOn(c -> c.geohash().equals(cell))
+        .singleElement()
+        .extracting(Records.MapCluster::count)
+        .isEqualTo(4L);
+
+    assertThat(clusters(bounds, 1, null, false))
+        .extracting(Records.MapCluster::count)
+        .containsExactly(3L);
+  }
+
+  @Test
+  void imagesOnlyInPasswordProtectedGalleriesStayOffTheMap() {
+    long hidden = seedImage(-37.0001, 150.0001, 5);
+    long alsoPublic = seedImage(-37.0002, 150.0002, null);
+    long gallery = seedCollection("LISTED", hidden, alsoPublic);
+    long grantedGallery = seedCollection("UNLISTED", hidden);
+    jdbc.update(
+        "UPDATE collection SET gallery_password = '{bcrypt}x' WHERE id IN (?, ?)",
+        gallery,
+        grantedGallery);
+    seedCollection("LISTED", alsoPublic);
+
+    long userId = seedUser();
+    long roleId = roleRepository.createRole("map role " + UUID.randomUUID(), null);
+    roleRepository.addMember(roleId, userId, null);
+    roleRepository.setCollectionGrant(roleId, grantedGallery, AccessLevel.GENERAL, null);
+
+    GeohashUtil.Bounds bounds = new GeohashUtil.Bounds(-37.5, 149.5, -36.5, 150.5);
+    assertThat(clusters(bounds, 4, null, false))
+        .extracting(Records.MapCluster::coverImageId)
+        .containsExactly(alsoPublic);
+    assertThat(clusters(bounds, 4, userId, false))
+        .extracting(Records.MapCluster::coverImageId)
+        .containsExactly(alsoPublic);
+    assertThat(clusters(bounds, 4, null, true))
+        .extracting(Records.MapCluster::coverImageId)
+        .containsExactly(hidden);
+  }
+
+  @Test
+  void boxAcrossTheAntimeridianFindsBothSides() {
+    long east = seedImage(10.5, 179.9, null);
+    long west = seedImage(10.5, -179.9, null);
+    seedCollection("LISTED", east, west);
+
+    GeohashUtil.Bounds across = new GeohashUtil.Bounds(10, 179, 11, -179);
+    assertThat(clusters(across, 3, null, false))
+        .extracting(Records.MapCluster::coverImageId)
+        .containsExactlyInAnyOrder(east, west);
+
+    GeohashUtil.Bounds between = new GeohashUtil.Bounds(10, -179, 11, 179);
+    assertThat(clusters(between, 1, null, false))
+        .extracting(Records.MapCluster::coverImageId)
+        .doesNotContain(east, west);
+  }
+}
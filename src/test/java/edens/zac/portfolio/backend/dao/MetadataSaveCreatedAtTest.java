@@ -38,6 +38,8 @@ class MetadataSaveCreatedAtTest {
 
   @Mock private JdbcTemplate jdbcTemplate;
   @Mock private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+  @Mock private ImageAudienceRepository imageAudienceRepository;
+  @Mock private LocationStatsRepository locationStatsRepository;
 
   private EquipmentRepository equipmentRepository;
   private TagRepository tagRepository;
@@ -47,9 +49,10 @@ class MetadataSaveCreatedAtTest {
   @BeforeEach
   void setUp() {
     equipmentRepository = new EquipmentRepository(jdbcTemplate);
-    tagRepository = new TagRepository(jdbcTemplate);
+    tagRepository =
+        new TagRepository(jdbcTemplate, imageAudienceRepository, locationStatsRepository);
     personRepository = new PersonRepository(jdbcTemplate);
-    locationRepository = new LocationRepository(jdbcTemplate);
+    locationRepository = new LocationRepository(jdbcTemplate, locationStatsRepository);
     for (BaseDao repo :
         new BaseDao[] {equipmentRepository, tagRepository, personRepository, locationRepository}) {
       injectMockTemplate(repo);
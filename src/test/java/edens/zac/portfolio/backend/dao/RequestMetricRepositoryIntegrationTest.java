@@ -3,6 +3,7 @@ package edens.zac.portfolio.backend.dao;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import edens.zac.portfolio.backend.AbstractPostgresIntegrationTest;
+import edens.zac.portfolio.backend.dao.RequestMetricRepository.RequestMetricDelta;
 import edens.zac.portfolio.backend.dao.RequestMetricRepository.RequestMetricRow;
 import java.time.LocalDate;
 import java.util.List;
@@ -11,8 +12,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * Round-trip integration coverage for the V44 {@code request_metric} upsert. Verifies that {@link
- * RequestMetricRepository#increment} inserts a fresh row at count 1 then increments the SAME {@code
- * (day, route, slug)} row on subsequent calls — including the NULL-slug case, where the {@code
+ * RequestMetricRepository#upsertBatch} inserts a fresh row then adds to the SAME {@code (day,
+ * route, slug)} row on subsequent calls — including the NULL-slug case, where the {@code
  * COALESCE(slug, '')} unique index and matching {@code ON CONFLICT} target must collapse all
  * NULL-slug rows for a {@code (day, route)} to one row (Postgres would otherwise treat NULLs as
  * distinct and insert duplicates). Requires Docker (Testcontainers Postgres) — the V44 migration
@@ -31,12 +32,17 @@ class RequestMetricRepositoryIntegrationTest extends AbstractPostgresIntegration
         .sum();
   }
 
+  /** One request with no latency recorded, as a pre-V57 row would hold it. */
+  private void countOne(String route, String slug) {
+    repository.upsertBatch(List.of(new RequestMetricDelta(DAY, route, slug, 1, 0, 0, List.of())));
+  }
+
   @Test
-  void firstIncrementInsertsThenSubsequentIncrementsSameSlugRow() {
+  void firstUpsertInsertsThenSubsequentUpsertsAddToSameSlugRow() {
     String route = "/api/read/collections/{slug}";
-    repository.increment(DAY, route, "iceland-int");
-    repository.increment(DAY, route, "iceland-int");
-    repository.increment(DAY, route, "iceland-int");
+    countOne(route, "iceland-int");
+    countOne(route, "iceland-int");
+    countOne(route, "iceland-int");
 
     assertThat(countFor(route, "iceland-int")).isEqualTo(3L);
   }
@@ -44,8 +50,8 @@ class RequestMetricRepositoryIntegrationTest extends AbstractPostgresIntegration
   @Test
   void nullSlugRowsCollapseToOneAndIncrement() {
     String route = "/api/read/collections-null-int";
-    repository.increment(DAY, route, null);
-    repository.increment(DAY, route, null);
+    countOne(route, null);
+    countOne(route, null);
 
     List<RequestMetricRow> rows =
         repository.findByDayRange(DAY, DAY).stream().filter(r -> r.route().equals(route)).toList();
@@ -59,13 +65,38 @@ class RequestMetricRepositoryIntegrationTest extends AbstractPostgresIntegration
   @Test
   void distinctSlugsAndNullSlugAreSeparateRows() {
     String route = "/api/read/collections-distinct-int";
-    repository.increment(DAY, route, "a");
-    repository.increment(DAY, route, "b");
-    repository.increment(DAY, route, null);
-    repository.increment(DAY, route, "a");
+    countOne(route, "a");
+    countOne(route, "b");
+    countOne(route, null);
+    countOne(route, "a");
 
     assertThat(countFor(route, "a")).isEqualTo(2L);
     assertThat(countFor(route, "b")).isEqualTo(1L);
     assertThat(countFor(route, null)).isEqualTo(1L);
   }
+
+  @Test
+  void batchUpsertAddsCountsLatencyAndHistogramsIntoExistingRows() {
+    String route = "/api/read/collections-batch-int";
+    countOne(route, "pre-v57");
+    repository.upsertBatch(
+        List.of(
+            new RequestMetricDelta(DAY, route, "pre-v57", 2, 30, 20, List.of(0L, 1L, 1L)),
+            new RequestMetricDelta(DAY, route, null, 1, 4, 4, List.of(1L))));
+    repository.upsertBatch(
+        List.of(
+            new RequestMetricDelta(
+                DAY, route, "pre-v57", 1, 900, 900, List.of(0L, 0L, 0L, 0L, 0L, 0L, 0L, 1L))));
+
+    RequestMetricRow row =
+        repository.findByDayRange(DAY, DAY).stream()
+            .filter(r -> r.route().equals(route) && "pre-v57".equals(r.slug()))
+            .findFirst()
+            .orElseThrow();
+    assertThat(row.count()).isEqualTo(4L);
+    assertThat(row.totalMs()).isEqualTo(930L);
+    assertThat(row.maxMs()).isEqualTo(900L);
+    assertThat(row.latencyHistogram()).containsExactly(0L, 1L, 1L, 0L, 0L, 0L, 0L, 1L);
+    assertThat(countFor(route, null)).isEqualTo(1L);
+  }
 }
@@ -6,6 +6,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import edens.zac.portfolio.backend.dao.RequestMetricRepository.RequestMetricDelta;
 import edens.zac.portfolio.backend.dao.RequestMetricRepository.RequestMetricRow;
 import java.lang.reflect.Field;
 import java.time.LocalDate;
@@ -52,24 +53,37 @@ class RequestMetricRepositoryTest {
   }
 
   @Nested
-  class Increment {
+  class UpsertBatch {
 
     @Test
     void issuesUpsertWithCoalesceConflictTargetAndBoundParams() {
       when(namedParameterJdbcTemplate.update(anyString(), any(MapSqlParameterSource.class)))
           .thenReturn(1);
 
-      repository.increment(LocalDate.of(2026, 7, 7), "/api/read/collections/{slug}", "iceland");
+      repository.upsertBatch(
+          List.of(
+              new RequestMetricDelta(
+                  LocalDate.of(2026, 7, 7),
+                  "/api/read/collections/{slug}",
+                  "iceland",
+                  3,
+                  40,
+                  25,
+                  List.of(1L, 2L))));
 
       verify(namedParameterJdbcTemplate).update(sqlCaptor.capture(), paramsCaptor.capture());
       String sql = sqlCaptor.getValue();
-      assertThat(sql).contains("INSERT INTO request_metric (day, route, slug, count)");
+      assertThat(sql)
+          .contains(
+              "INSERT INTO request_metric (day, route, slug, count, total_ms, max_ms, latency_hist)");
       assertThat(sql).contains("ON CONFLICT (day, route, (COALESCE(slug, '')))");
-      assertThat(sql).contains("count = request_metric.count + 1");
-      assertThat(paramsCaptor.getValue().getValue("day")).isEqualTo(LocalDate.of(2026, 7, 7));
-      assertThat(paramsCaptor.getValue().getValue("route"))
-          .isEqualTo("/api/read/collections/{slug}");
-      assertThat(paramsCaptor.getValue().getValue("slug")).isEqualTo("iceland");
+      assertThat(sql).contains("count = request_metric.count + EXCLUDED.count");
+      MapSqlParameterSource params = paramsCaptor.getValue();
+      assertThat(params.getValue("day0")).isEqualTo(LocalDate.of(2026, 7, 7));
+      assertThat(params.getValue("route0")).isEqualTo("/api/read/collections/{slug}");
+      assertThat(params.getValue("slug0")).isEqualTo("iceland");
+      assertThat(params.getValue("count0")).isEqualTo(3L);
+      assertThat(params.getValue("hist0")).isEqualTo("{1,2}");
     }
 
     @Test
@@ -77,12 +91,15 @@ class RequestMetricRepositoryTest {
       when(namedParameterJdbcTemplate.update(anyString(), any(MapSqlParameterSource.class)))
           .thenReturn(1);
 
-      repository.increment(LocalDate.of(2026, 7, 7), "/api/read/collections", null);
+      repository.upsertBatch(
+          List.of(
+              new RequestMetricDelta(
+                  LocalDate.of(2026, 7, 7), "/api/read/collections", null, 1, 0, 0, List.of())));
 
       verify(namedParameterJdbcTemplate).update(sqlCaptor.capture(), paramsCaptor.capture());
       // The COALESCE conflict target is what lets a NULL slug collapse to one canonical row.
       assertThat(sqlCaptor.getValue()).contains("ON CONFLICT (day, route, (COALESCE(slug, '')))");
-      assertThat(paramsCaptor.getValue().getValue("slug")).isNull();
+      assertThat(paramsCaptor.getValue().getValue("slug0")).isNull();
     }
   }
 
@@ -93,7 +110,8 @@ class RequestMetricRepositoryTest {
     @Test
     void queriesBetweenBoundsInclusive() {
       RequestMetricRow row =
-          new RequestMetricRow(LocalDate.of(2026, 7, 6), "/api/read/collections", null, 12L);
+          new RequestMetricRow(
+              LocalDate.of(2026, 7, 6), "/api/read/collections", null, 12L, 0L, 0L, List.of());
       when(namedParameterJdbcTemplate.query(
               anyString(), any(MapSqlParameterSource.class), any(RowMapper.class)))
           .thenReturn(List.of(row));
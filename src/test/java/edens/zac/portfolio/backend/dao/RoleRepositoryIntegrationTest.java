@@ -204,4 +204,26 @@ class RoleRepositoryIntegrationTest extends AbstractPostgresIntegrationTest {
     repo.removeMember(roleId, user);
     assertThat(repo.canView(user, coll)).isFalse();
   }
+
+  @Test
+  void writesBumpAclVersionAndLocalCommitsOnlyWhenSomethingChanged() {
+    long user = seedUser("Acl-Versioned");
+    long coll = seedCollection("role-acl-version");
+    long roleId = repo.createRole("acl versioned", null);
+    long version = repo.aclVersion();
+    long commits = repo.localAclCommits();
+
+    repo.addMember(roleId, user, null);
+    repo.setCollectionGrant(roleId, coll, AccessLevel.CLIENT, null);
+    assertThat(repo.aclVersion()).isEqualTo(version + 2);
+    assertThat(repo.localAclCommits()).isEqualTo(commits + 2);
+
+    // ON CONFLICT DO NOTHING changes no row, so nothing is invalidated.
+    repo.addMember(roleId, user, null);
+    assertThat(repo.aclVersion()).isEqualTo(version + 2);
+
+    RoleRepository.AclState state = repo.loadAclState();
+    assertThat(state.version()).isEqualTo(version + 2);
+    assertThat(state.rows()).contains(new RoleRepository.AclRow(user, coll, true));
+  }
 }
@@ -26,6 +26,8 @@ class TagRepositoryTest {
 
   @Mock private JdbcTemplate jdbcTemplate;
   @Mock private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+  @Mock private ImageAudienceRepository imageAudienceRepository;
+  @Mock private LocationStatsRepository locationStatsRepository;
 
   @Captor private ArgumentCaptor<String> sqlCaptor;
   @Captor private ArgumentCaptor<SqlParameterSource> paramsCaptor;
@@ -35,7 +37,8 @@ class TagRepositoryTest {
 
   @BeforeEach
   void setUp() {
-    tagRepository = new TagRepository(jdbcTemplate);
+    tagRepository =
+        new TagRepository(jdbcTemplate, imageAudienceRepository, locationStatsRepository);
     setNamedParameterJdbcTemplate(tagRepository, namedParameterJdbcTemplate);
   }
 
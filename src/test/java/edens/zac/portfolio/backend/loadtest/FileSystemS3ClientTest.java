@@ -0,0 +1,175 @@
+package edens.zac.portfolio.backend.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import edens.zac.portfolio.backend.services.S3MultipartOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Random;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+/**
+ * The load-test S3 stand-in behaves like S3 for every call the app makes, including when driven by
+ * the app's own {@link S3MultipartOutputStream}.
+ */
+class FileSystemS3ClientTest {
+
+  private static final String BUCKET = "bucket";
+
+  @TempDir Path root;
+
+  private FileSystemS3Client s3;
+
+  @BeforeEach
+  void setUp() {
+    s3 = new FileSystemS3Client(root);
+  }
+
+  @Test
+  void putThenGetAndHeadRoundTrip() throws IOException {
+    byte[] body = "hello, load test".getBytes(StandardCharsets.UTF_8);
+    s3.putObject(r -> r.bucket(BUCKET).key("Image/Web/a.webp"), RequestBody.fromBytes(body));
+
+    try (InputStream in = s3.getObject(r -> r.bucket(BUCKET).key("Image/Web/a.webp"))) {
+      assertThat(in.readAllBytes()).isEqualTo(body);
+    }
+    HeadObjectResponse head =
+        s3.headObject(
+            r -> r.bucket(BUCKET).key("Image/Web/a.webp").checksumMode(ChecksumMode.ENABLED));
+    assertThat(head.contentLength()).isEqualTo(body.length);
+    assertThat(head.checksumCRC32()).isEqualTo(crc32(body));
+    assertThat(head.lastModified()).isNotNull();
+    assertThat(s3.objectFile(BUCKET, "Image/Web/a.webp")).isPresent();
+  }
+
+  @Test
+  void getHonoursByteRanges() throws IOException {
+    s3.putObject(
+        r -> r.bucket(BUCKET).key("k"),
+        RequestBody.fromBytes("0123456789".getBytes(StandardCharsets.UTF_8)));
+
+    try (InputStream in = s3.getObject(r -> r.bucket(BUCKET).key("k").range("bytes=2-5"))) {
+      assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("2345");
+    }
+    try (InputStream in = s3.getObject(r -> r.bucket(BUCKET).key("k").range("bytes=7-"))) {
+      assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("789");
+    }
+  }
+
+  @Test
+  void missingKeyIsA404NoSuchKey() {
+    assertThatThrownBy(() -> s3.headObject(r -> r.bucket(BUCKET).key("missing")))
+        .isInstanceOf(NoSuchKeyException.class)
+        .satisfies(e -> assertThat(((NoSuchKeyException) e).statusCode()).isEqualTo(404));
+    assertThatThrownBy(() -> s3.getObject(r -> r.bucket(BUCKET).key("missing")))
+        .isInstanceOf(NoSuchKeyException.class);
+  }
+
+  @Test
+  void deleteRemovesTheObject() {
+    s3.putObject(r -> r.bucket(BUCKET).key("k"), RequestBody.fromString("x"));
+    s3.deleteObject(r -> r.bucket(BUCKET).key("k"));
+
+    assertThat(s3.objectFile(BUCKET, "k")).isEmpty();
+  }
+
+  @Test
+  void keysCannotEscapeTheBucket() {
+    assertThatThrownBy(
+            () ->
+                s3.putObject(r -> r.bucket(BUCKET).key("../other/k"), RequestBody.fromString("x")))
+        .isInstanceOf(SdkClientException.class);
+  }
+
+  @Test
+  void multipartUploadFromTheAppsOutputStreamAssemblesAllParts() throws IOException {
+    byte[] payload = new byte[11 * 1024 * 1024];
+    new Random(7).nextBytes(payload);
+
+    try (OutputStream out = new S3MultipartOutputStream(s3, BUCKET, "tmp/archive.zip")) {
+      out.write(payload);
+    }
+
+    try (InputStream in = s3.getObject(r -> r.bucket(BUCKET).key("tmp/archive.zip"))) {
+      assertThat(in.readAllBytes()).isEqualTo(payload);
+    }
+    // Like S3, a multipart object reports a composite checksum rather than a full-object one.
+    assertThat(s3.headObject(r -> r.bucket(BUCKET).key("tmp/archive.zip")).checksumCRC32())
+        .endsWith("-3");
+    assertThat(root.resolve(".multipart")).isEmptyDirectory();
+  }
+
+  @Test
+  void uploadPartCopyCopiesTheSourceRange() throws IOException {
+    s3.putObject(
+        r -> r.bucket(BUCKET).key("src"),
+        RequestBody.fromBytes("abcdefghij".getBytes(StandardCharsets.UTF_8)));
+    String uploadId = s3.createMultipartUpload(r -> r.bucket(BUCKET).key("dst")).uploadId();
+
+    String headEtag =
+        s3.uploadPart(
+                r -> r.bucket(BUCKET).key("dst").uploadId(uploadId).partNumber(1),
+                RequestBody.fromString("HEAD:"))
+            .eTag();
+    String copyEtag =
+        s3.uploadPartCopy(
+                r ->
+                    r.sourceBucket(BUCKET)
+                        .sourceKey("src")
+                        .copySourceRange("bytes=3-6")
+                        .destinationBucket(BUCKET)
+                        .destinationKey("dst")
+                        .uploadId(uploadId)
+                        .partNumber(2))
+            .copyPartResult()
+            .eTag();
+    s3.completeMultipartUpload(
+        r ->
+            r.bucket(BUCKET)
+                .key("dst")
+                .uploadId(uploadId)
+                .multipartUpload(
+                    m ->
+                        m.parts(
+                            p -> p.partNumber(2).eTag(copyEtag),
+                            p -> p.partNumber(1).eTag(headEtag))));
+
+    try (InputStream in = s3.getObject(r -> r.bucket(BUCKET).key("dst"))) {
+      assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("HEAD:defg");
+    }
+  }
+
+  @Test
+  void abortDiscardsStagedParts() {
+    String uploadId = s3.createMultipartUpload(r -> r.bucket(BUCKET).key("dst")).uploadId();
+    s3.uploadPart(
+        r -> r.bucket(BUCKET).key("dst").uploadId(uploadId).partNumber(1),
+        RequestBody.fromString("part"));
+
+    s3.abortMultipartUpload(r -> r.bucket(BUCKET).key("dst").uploadId(uploadId));
+
+    assertThat(root.resolve(".multipart")).isEmptyDirectory();
+    assertThat(s3.objectFile(BUCKET, "dst")).isEmpty();
+  }
+
+  private static String crc32(byte[] bytes) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes);
+    return Base64.getEncoder()
+        .encodeToString(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+  }
+}
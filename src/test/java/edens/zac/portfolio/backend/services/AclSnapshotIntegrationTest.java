@@ -0,0 +1,89 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import edens.zac.portfolio.backend.AbstractPostgresIntegrationTest;
+import edens.zac.portfolio.backend.dao.RoleRepository;
+import edens.zac.portfolio.backend.types.AccessLevel;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Revocations reach {@link CollectionAccessService} through the ACL snapshot: this instance's own
+ * writes on the very next check, another instance's once {@code acl_version} is polled.
+ */
+class AclSnapshotIntegrationTest extends AbstractPostgresIntegrationTest {
+
+  @Autowired private CollectionAccessService collectionAccessService;
+  @Autowired private AclSnapshotService aclSnapshotService;
+  @Autowired private RoleRepository roleRepository;
+  @Autowired private JdbcTemplate jdbc;
+
+  private long seedUser() {
+    String email = "acl-" + UUID.randomUUID() + "@example.com";
+    return jdbc.queryForObject(
+        "INSERT INTO users (name, email, webauthn_user_handle, status) "
+            + "VALUES (?, ?, gen_random_uuid(), 'ACTIVE') RETURNING id",
+        Long.class,
+        email,
+        email);
+  }
+
+  private long seedCollection() {
+    String slug = "acl-" + UUID.randomUUID();
+    return jdbc.queryForObject(
+        "INSERT INTO collection (title, slug, visibility) VALUES (?, ?, 'UNLISTED') RETURNING id",
+        Long.class,
+        slug,
+        slug);
+  }
+
+  @Test
+  void localRevocationsAreSeenByTheNextCheck() {
+    assertThat(aclSnapshotService.isEnabled()).isTrue();
+    long user = seedUser();
+    long coll = seedCollection();
+    long roleId = roleRepository.createRole("acl role " + UUID.randomUUID(), null);
+    roleRepository.addMember(roleId, user, null);
+    roleRepository.setCollectionGrant(roleId, coll, AccessLevel.CLIENT, null);
+    assertThat(collectionAccessService.isClient(user, coll)).isTrue();
+
+    roleRepository.setCollectionGrant(roleId, coll, AccessLevel.GENERAL, null);
+    assertThat(collectionAccessService.isClient(user, coll)).isFalse();
+    assertThat(collectionAccessService.canView(user, coll)).isTrue();
+
+    roleRepository.removeMember(roleId, user);
+    assertThat(collectionAccessService.canView(user, coll)).isFalse();
+
+    roleRepository.addMember(roleId, user, null);
+    assertThat(collectionAccessService.canView(user, coll)).isTrue();
+    roleRepository.removeCollectionGrant(roleId, coll);
+    assertThat(collectionAccessService.canView(user, coll)).isFalse();
+    assertThat(collectionAccessService.memberCollectionIdsForUser(user)).isEmpty();
+
+    roleRepository.setCollectionGrant(roleId, coll, AccessLevel.GENERAL, null);
+    assertThat(collectionAccessService.canView(user, coll)).isTrue();
+    roleRepository.deleteRole(roleId);
+    assertThat(collectionAccessService.canView(user, coll)).isFalse();
+  }
+
+  @Test
+  void anotherInstancesRevocationIsSeenOnceTheVersionIsPolled() {
+    long user = seedUser();
+    long coll = seedCollection();
+    long roleId = roleRepository.createRole("acl role " + UUID.randomUUID(), null);
+    roleRepository.addMember(roleId, user, null);
+    roleRepository.setCollectionGrant(roleId, coll, AccessLevel.GENERAL, null);
+    assertThat(collectionAccessService.canView(user, coll)).isTrue();
+
+    // Another instance's write: same tables and version row, but not this instance's counter.
+    jdbc.update("DELETE FROM role_member WHERE role_id = ? AND user_id = ?", roleId, user);
+    jdbc.update("UPDATE acl_version SET version = version + 1 WHERE id = 1");
+    assertThat(collectionAccessService.canView(user, coll)).isTrue();
+
+    aclSnapshotService.pollVersion();
+    assertThat(collectionAccessService.canView(user, coll)).isFalse();
+  }
+}
@@ -0,0 +1,95 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edens.zac.portfolio.backend.dao.RoleRepository;
+import edens.zac.portfolio.backend.dao.RoleRepository.AclRow;
+import edens.zac.portfolio.backend.dao.RoleRepository.AclState;
+import edens.zac.portfolio.backend.dao.RoleRepository.EffectiveGrant;
+import edens.zac.portfolio.backend.types.AccessLevel;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AclSnapshotServiceTest {
+
+  @Mock private RoleRepository roleRepository;
+
+  private AclSnapshotService snapshot;
+
+  @BeforeEach
+  void setUp() {
+    snapshot = new AclSnapshotService(roleRepository, true);
+  }
+
+  private static AclState state(long version, AclRow... rows) {
+    return new AclState(version, List.of(rows));
+  }
+
+  @Test
+  void answersFromOneLoadWithoutFurtherQueries() {
+    when(roleRepository.loadAclState())
+        .thenReturn(state(3, new AclRow(1, 30, false), new AclRow(1, 10, true)));
+
+    assertThat(snapshot.canView(1L, 10L)).isTrue();
+    assertThat(snapshot.canView(1L, 30L)).isTrue();
+    assertThat(snapshot.canView(1L, 20L)).isFalse();
+    assertThat(snapshot.canView(2L, 10L)).isFalse();
+    assertThat(snapshot.isClient(1L, 10L)).isTrue();
+    assertThat(snapshot.isClient(1L, 30L)).isFalse();
+    assertThat(snapshot.viewableCollectionIds(1L)).containsExactly(10L, 30L);
+    assertThat(snapshot.effectiveGrants(1L))
+        .containsExactly(
+            new EffectiveGrant(10L, AccessLevel.CLIENT),
+            new EffectiveGrant(30L, AccessLevel.GENERAL));
+
+    verify(roleRepository, times(1)).loadAclState();
+    verify(roleRepository, never()).canView(1L, 10L);
+  }
+
+  @Test
+  void localCommitRebuildsBeforeTheNextCheck() {
+    when(roleRepository.loadAclState())
+        .thenReturn(state(1))
+        .thenReturn(state(2, new AclRow(1, 10, false)));
+    assertThat(snapshot.canView(1L, 10L)).isFalse();
+
+    when(roleRepository.localAclCommits()).thenReturn(1L);
+
+    assertThat(snapshot.canView(1L, 10L)).isTrue();
+    verify(roleRepository, times(2)).loadAclState();
+  }
+
+  @Test
+  void pollRebuildsOnlyWhenTheSharedVersionMoved() {
+    when(roleRepository.loadAclState())
+        .thenReturn(state(5))
+        .thenReturn(state(6, new AclRow(1, 10, true)));
+    assertThat(snapshot.isClient(1L, 10L)).isFalse();
+
+    when(roleRepository.aclVersion()).thenReturn(5L);
+    snapshot.pollVersion();
+    verify(roleRepository, times(1)).loadAclState();
+
+    when(roleRepository.aclVersion()).thenReturn(6L);
+    snapshot.pollVersion();
+    assertThat(snapshot.isClient(1L, 10L)).isTrue();
+    verify(roleRepository, times(2)).loadAclState();
+  }
+
+  @Test
+  void nullIdsAreDeniedWithoutLoading() {
+    assertThat(snapshot.canView(null, 10L)).isFalse();
+    assertThat(snapshot.isClient(1L, null)).isFalse();
+    assertThat(snapshot.viewableCollectionIds(null)).isEmpty();
+    verify(roleRepository, never()).loadAclState();
+  }
+}
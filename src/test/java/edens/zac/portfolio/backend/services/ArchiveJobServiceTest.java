@@ -0,0 +1,156 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edens.zac.portfolio.backend.dao.BackgroundJobRepository;
+import edens.zac.portfolio.backend.model.DownloadResolution;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ArchiveJobServiceTest {
+
+  private static final List<DownloadResolution> ENTRIES =
+      List.of(
+          new DownloadResolution("Image/Web/a.webp", ".webp", "image/webp", "a.webp"),
+          new DownloadResolution("Image/Web/b.webp", ".webp", "image/webp", "b.webp"));
+
+  private DownloadUrlService downloadUrlService;
+  private ArchiveJobService service;
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @BeforeEach
+  void setUp() {
+    downloadUrlService = mock(DownloadUrlService.class);
+    BackgroundJobRepository jobRepository = mock(BackgroundJobRepository.class);
+    when(jobRepository.insertIfNoLiveJob(any())).thenReturn(true);
+    BackgroundJobRegistry registry =
+        new BackgroundJobRegistry(
+            jobRepository, new ObjectMapper(), new ClusterNode("node-a"), 120, 24);
+    service = new ArchiveJobService(downloadUrlService, registry, 1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    service.shutdown();
+  }
+
+  /** Builds report one entry of 10 bytes, then block until the test releases them. */
+  private void stubBlockingBuild() throws IOException {
+    when(downloadUrlService.buildCachedZip(any(), anyString(), anyList(), anyString(), any()))
+        .thenAnswer(
+            inv -> {
+              DownloadUrlService.ZipProgress progress = inv.getArgument(4);
+              progress.entryWritten(10);
+              release.await(5, TimeUnit.SECONDS);
+              progress.entryWritten(20);
+              return "downloads-tmp/cache/abc/g.zip";
+            });
+  }
+
+  private ArchiveJobService.ArchiveJobResponse awaitJob(
+      UUID jobId, Predicate<ArchiveJobService.ArchiveJobResponse> condition)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (System.nanoTime() < deadline) {
+      var job = service.getJob(jobId).orElseThrow();
+      if (condition.test(job)) {
+        return job;
+      }
+      Thread.sleep(10);
+    }
+    throw new AssertionError("Job " + jobId + " did not reach the expected state");
+  }
+
+  @Test
+  void submit_reportsProgressAndPresignsOnlyOnceCompleted() throws Exception {
+    stubBlockingBuild();
+    when(downloadUrlService.presignObject(
+            "downloads-tmp/cache/abc/g.zip", "application/zip", "g.zip"))
+        .thenReturn(URI.create("https://bucket.s3.amazonaws.com/g.zip?sig=1"));
+
+    var submitted = service.submit(1L, "web", ENTRIES, "g.zip");
+    assertThat(submitted.totalEntries()).isEqualTo(2);
+
+    var running = awaitJob(submitted.jobId(), j -> j.entriesDone() == 1);
+    assertThat(running.status()).isEqualTo("PROCESSING");
+    assertThat(running.bytesDone()).isEqualTo(10);
+    assertThat(service.resultUrl(submitted.jobId())).isEmpty();
+
+    release.countDown();
+    var done = awaitJob(submitted.jobId(), j -> j.status().equals("COMPLETED"));
+    assertThat(done.entriesDone()).isEqualTo(2);
+    assertThat(done.bytesDone()).isEqualTo(30);
+    assertThat(service.resultUrl(submitted.jobId()))
+        .contains(URI.create("https://bucket.s3.amazonaws.com/g.zip?sig=1"));
+  }
+
+  @Test
+  void submit_identicalConcurrentRequest_joinsTheRunningJob() throws Exception {
+    stubBlockingBuild();
+
+    var first = service.submit(1L, "web", ENTRIES, "g.zip");
+    var second = service.submit(1L, "web", ENTRIES, "g.zip");
+    var otherFormat = service.submit(1L, "original", ENTRIES, "g.zip");
+
+    assertThat(second.jobId()).isEqualTo(first.jobId());
+    assertThat(otherFormat.jobId()).isNotEqualTo(first.jobId());
+    release.countDown();
+    awaitJob(first.jobId(), j -> j.status().equals("COMPLETED"));
+    awaitJob(otherFormat.jobId(), j -> j.status().equals("COMPLETED"));
+    verify(downloadUrlService, times(1))
+        .buildCachedZip(eq(1L), eq("web"), anyList(), eq("g.zip"), any());
+  }
+
+  @Test
+  void submit_buildsBeyondTheCapWaitAsPending() throws Exception {
+    stubBlockingBuild();
+
+    var first = service.submit(1L, "web", ENTRIES, "g.zip");
+    awaitJob(first.jobId(), j -> j.status().equals("PROCESSING"));
+    var queued = service.submit(2L, "web", ENTRIES, "h.zip");
+
+    assertThat(service.getJob(queued.jobId()).orElseThrow().status()).isEqualTo("PENDING");
+    release.countDown();
+    awaitJob(queued.jobId(), j -> j.status().equals("COMPLETED"));
+  }
+
+  @Test
+  void failedJob_isReportedAndReplacedOnRetry() throws Exception {
+    when(downloadUrlService.buildCachedZip(any(), anyString(), anyList(), anyString(), any()))
+        .thenThrow(new IOException("S3 unavailable"))
+        .thenReturn("downloads-tmp/cache/abc/g.zip");
+
+    var failed = service.submit(1L, "web", ENTRIES, "g.zip");
+    var job = awaitJob(failed.jobId(), j -> j.status().equals("FAILED"));
+    assertThat(job.error()).isEqualTo("S3 unavailable");
+    assertThat(service.resultUrl(failed.jobId())).isEmpty();
+
+    var retried = service.submit(1L, "web", ENTRIES, "g.zip");
+    assertThat(retried.jobId()).isNotEqualTo(failed.jobId());
+    awaitJob(retried.jobId(), j -> j.status().equals("COMPLETED"));
+  }
+
+  @Test
+  void getJob_returnsEmptyForUnknownId() {
+    assertThat(service.getJob(UUID.randomUUID())).isEmpty();
+  }
+}
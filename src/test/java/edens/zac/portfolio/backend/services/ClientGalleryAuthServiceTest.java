@@ -2,30 +2,45 @@ package edens.zac.portfolio.backend.services;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import edens.zac.portfolio.backend.config.ResourceNotFoundException;
 import edens.zac.portfolio.backend.dao.CollectionRepository;
 import edens.zac.portfolio.backend.entity.CollectionEntity;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 @ExtendWith(MockitoExtension.class)
 class ClientGalleryAuthServiceTest {
 
   @Mock private CollectionRepository collectionRepository;
 
+  private final PasswordEncoder passwordEncoder =
+      PasswordEncoderFactories.createDelegatingPasswordEncoder();
+
   private ClientGalleryAuthService clientGalleryAuthService;
 
   @BeforeEach
   void setUp() {
     clientGalleryAuthService =
-        new ClientGalleryAuthService(collectionRepository, "test-secret-key");
+        new ClientGalleryAuthService(
+            collectionRepository, "test-secret-key", passwordEncoder, 60, 100);
   }
 
   @Nested
@@ -93,6 +108,49 @@ class ClientGalleryAuthServiceTest {
           .isInstanceOf(ResourceNotFoundException.class)
           .hasMessageContaining("Collection not found with slug: missing");
     }
+
+    @Test
+    void validateClientGalleryAccess_hashedPassword_matchesWithoutUpgrade() {
+      CollectionEntity collection =
+          CollectionEntity.builder()
+              .id(1L)
+              .slug("gallery")
+              .galleryPassword(clientGalleryAuthService.hashPassword("secret123"))
+              .build();
+      when(collectionRepository.findBySlug("gallery")).thenReturn(Optional.of(collection));
+
+      assertThat(clientGalleryAuthService.validateClientGalleryAccess("gallery", "secret123"))
+          .isTrue();
+      assertThat(clientGalleryAuthService.validateClientGalleryAccess("gallery", "secret124"))
+          .isFalse();
+      verify(collectionRepository, never()).upgradeGalleryPassword(anyString(), anyString());
+    }
+
+    @Test
+    void validateClientGalleryAccess_legacyPlaintext_upgradesToHashOnSuccess() {
+      CollectionEntity collection =
+          CollectionEntity.builder().id(1L).slug("gallery").galleryPassword("secret123").build();
+      when(collectionRepository.findBySlug("gallery")).thenReturn(Optional.of(collection));
+
+      assertThat(clientGalleryAuthService.validateClientGalleryAccess("gallery", "secret123"))
+          .isTrue();
+
+      ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+      verify(collectionRepository).upgradeGalleryPassword(eq("secret123"), hash.capture());
+      assertThat(ClientGalleryAuthService.isHashed(hash.getValue())).isTrue();
+      assertThat(passwordEncoder.matches("secret123", hash.getValue())).isTrue();
+    }
+
+    @Test
+    void validateClientGalleryAccess_legacyPlaintext_wrongPasswordIsNotUpgraded() {
+      CollectionEntity collection =
+          CollectionEntity.builder().id(1L).slug("gallery").galleryPassword("secret123").build();
+      when(collectionRepository.findBySlug("gallery")).thenReturn(Optional.of(collection));
+
+      assertThat(clientGalleryAuthService.validateClientGalleryAccess("gallery", "secret"))
+          .isFalse();
+      verify(collectionRepository, never()).upgradeGalleryPassword(anyString(), anyString());
+    }
   }
 
   @Nested
@@ -167,6 +225,67 @@ class ClientGalleryAuthServiceTest {
 
       assertThat(result).isFalse();
     }
+
+    @Test
+    void validateAccessToken_verifiedToken_isServedFromCache() {
+      CollectionEntity collection =
+          CollectionEntity.builder().id(1L).slug("gallery").galleryPassword("secret123").build();
+      when(collectionRepository.findBySlug("gallery")).thenReturn(Optional.of(collection));
+      String token = clientGalleryAuthService.generateAccessToken("gallery");
+
+      assertThat(clientGalleryAuthService.validateAccessToken("gallery", token)).isTrue();
+      assertThat(clientGalleryAuthService.validateAccessToken("gallery", token)).isTrue();
+
+      verify(collectionRepository, times(1)).findBySlug("gallery");
+    }
+
+    @Test
+    void validateAccessToken_rejectedToken_isNotCached() {
+      CollectionEntity collection =
+          CollectionEntity.builder().id(1L).slug("gallery").galleryPassword("secret123").build();
+      when(collectionRepository.findBySlug("gallery")).thenReturn(Optional.of(collection));
+
+      clientGalleryAuthService.validateAccessToken("gallery", "wrong-hmac|9999999999");
+      clientGalleryAuthService.validateAccessToken("gallery", "wrong-hmac|9999999999");
+
+      verify(collectionRepository, times(2)).findBySlug("gallery");
+    }
+  }
+
+  @Nested
+  class BuildAccessCookies {
+
+    @Test
+    void fingerprintCookieIsKeyedOnTheStoredHash() {
+      String hash = clientGalleryAuthService.hashPassword("shared-pw");
+      CollectionEntity collection =
+          CollectionEntity.builder().id(1L).slug("gallery").galleryPassword(hash).build();
+      when(collectionRepository.findBySlug("gallery")).thenReturn(Optional.of(collection));
+
+      List<ResponseCookie> cookies =
+          clientGalleryAuthService.buildAccessCookies("gallery", true, Duration.ofHours(24));
+
+      assertThat(cookies).hasSize(2);
+      ResponseCookie group = cookies.get(1);
+      assertThat(group.getName())
+          .isEqualTo("gallery_access_pw_" + clientGalleryAuthService.passwordFingerprint(hash));
+      assertThat(clientGalleryAuthService.validatePasswordAccessToken(hash, group.getValue()))
+          .isTrue();
+    }
+
+    @Test
+    void unprotectedGallery_getsOnlyThePerSlugCookie() {
+      CollectionEntity collection =
+          CollectionEntity.builder().id(1L).slug("gallery").galleryPassword(null).build();
+      when(collectionRepository.findBySlug("gallery")).thenReturn(Optional.of(collection));
+
+      List<ResponseCookie> cookies =
+          clientGalleryAuthService.buildAccessCookies("gallery", false, Duration.ofHours(24));
+
+      assertThat(cookies)
+          .extracting(ResponseCookie::getName)
+          .containsExactly("gallery_access_gallery");
+    }
   }
 
   @Nested
@@ -0,0 +1,311 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edens.zac.portfolio.backend.AbstractPostgresIntegrationTest;
+import edens.zac.portfolio.backend.dao.BackgroundJobRepository;
+import edens.zac.portfolio.backend.dao.SchedulerLockRepository;
+import edens.zac.portfolio.backend.dao.UploadJobRepository;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Two backend instances on one database: node A and node B are each a {@link JobTrackingService}
+ * and {@link SchedulerLockService} (and {@link BackgroundJobRegistry}) with their own node id, as
+ * two JVMs would be. A job run on A can be polled and joined on B, a job A abandons is failed by
+ * B's reaper, and a scheduler lease admits one node at a time.
+ */
+class ClusterCoordinationIntegrationTest extends AbstractPostgresIntegrationTest {
+
+  @Autowired private UploadJobRepository uploadJobRepository;
+  @Autowired private SchedulerLockRepository schedulerLockRepository;
+  @Autowired private BackgroundJobRepository backgroundJobRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private JobTrackingService jobsA;
+  private JobTrackingService jobsB;
+  private BackgroundJobRegistry registryA;
+  private BackgroundJobRegistry registryB;
+  private String lockName;
+
+  /** Poll response of {@link FakeJob}. */
+  record FakeResponse(UUID jobId, String status, String error) {}
+
+  /** A background job whose state the test sets directly. */
+  static class FakeJob implements BackgroundJobRegistry.TrackedJob {
+    private final UUID jobId = UUID.randomUUID();
+    private volatile String status = "PENDING";
+    private volatile String s3Key;
+
+    @Override
+    public UUID jobId() {
+      return jobId;
+    }
+
+    @Override
+    public String status() {
+      return status;
+    }
+
+    @Override
+    public FakeResponse response() {
+      return new FakeResponse(jobId, status, null);
+    }
+
+    @Override
+    public String resultKey() {
+      return s3Key;
+    }
+
+    @Override
+    public String resultFilename() {
+      return "g.zip";
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    jobsA = new JobTrackingService(uploadJobRepository, new ClusterNode("node-a"), 120, 24);
+    jobsB = new JobTrackingService(uploadJobRepository, new ClusterNode("node-b"), 120, 24);
+    registryA = registryFor("node-a");
+    registryB = registryFor("node-b");
+    lockName = "test-" + UUID.randomUUID();
+  }
+
+  private SchedulerLockService lockFor(String node) {
+    return new SchedulerLockService(schedulerLockRepository, new ClusterNode(node));
+  }
+
+  private BackgroundJobRegistry registryFor(String node) {
+    return new BackgroundJobRegistry(
+        backgroundJobRepository, new ObjectMapper(), new ClusterNode(node), 120, 24);
+  }
+
+  private void ageHeartbeat(UUID jobId, Duration by) {
+    jdbcTemplate.update(
+        "UPDATE upload_job SET heartbeat_at = now() - make_interval(secs => ?) WHERE id = ?",
+        (double) by.toSeconds(),
+        jobId);
+  }
+
+  @Test
+  void jobProgressIsVisibleFromTheOtherNode() {
+    var job = jobsA.createJob(3);
+    assertThat(jobsB.getJob(job.jobId())).get().extracting("status").isEqualTo("PENDING");
+
+    job.markProcessing();
+    job.processed().incrementAndGet();
+    job.created().incrementAndGet();
+    jobsA.heartbeat();
+
+    var progress = jobsB.getJob(job.jobId()).orElseThrow();
+    assertThat(progress.status()).isEqualTo("PROCESSING");
+    assertThat(progress.processed()).isEqualTo(1);
+    assertThat(progress.created()).isEqualTo(1);
+    assertThat(progress.totalFiles()).isEqualTo(3);
+
+    job.processed().addAndGet(2);
+    job.skipped().incrementAndGet();
+    job.errors().add("c.jpg: unreadable");
+    job.markCompleted();
+
+    // No heartbeat needed: completion is written straight away.
+    var done = jobsB.getJob(job.jobId()).orElseThrow();
+    assertThat(done.status()).isEqualTo("FAILED");
+    assertThat(done.processed()).isEqualTo(3);
+    assertThat(done.errors()).containsExactly("c.jpg: unreadable");
+  }
+
+  @Test
+  void abandonedJobIsFailedAndStaysFailed() {
+    var job = jobsA.createJob(10);
+    job.markProcessing();
+    job.processed().addAndGet(4);
+    jobsA.heartbeat();
+    ageHeartbeat(job.jobId(), Duration.ofMinutes(10));
+
+    jobsB.reapStaleJobs();
+
+    var reaped = jobsB.getJob(job.jobId()).orElseThrow();
+    assertThat(reaped.status()).isEqualTo("FAILED");
+    assertThat(reaped.processed()).isEqualTo(4);
+    assertThat(reaped.errors()).containsExactly(JobTrackingService.ABANDONED_ERROR);
+
+    // Node A reconnects and finishes: the reaped row is not resurrected.
+    job.processed().addAndGet(6);
+    job.markCompleted();
+    jobsA.heartbeat();
+    assertThat(jobsB.getJob(job.jobId())).get().extracting("status").isEqualTo("FAILED");
+  }
+
+  @Test
+  void jobWithFreshHeartbeatIsNotReaped() {
+    var job = jobsA.createJob(2);
+    job.markProcessing();
+    jobsA.heartbeat();
+
+    jobsB.reapStaleJobs();
+
+    assertThat(jobsB.getJob(job.jobId())).get().extracting("status").isEqualTo("PROCESSING");
+  }
+
+  @Test
+  void pruneDeletesOnlyOldFinishedJobs() {
+    var old = jobsA.createJob(1);
+    old.markCompleted();
+    var recent = jobsA.createJob(1);
+    recent.markCompleted();
+    var live = jobsA.createJob(1);
+    jdbcTemplate.update(
+        "UPDATE upload_job SET finished_at = now() - interval '2 days' WHERE id = ?", old.jobId());
+
+    jobsB.pruneFinishedJobs();
+
+    assertThat(uploadJobRepository.findById(old.jobId())).isEmpty();
+    assertThat(uploadJobRepository.findById(recent.jobId())).isPresent();
+    assertThat(uploadJobRepository.findById(live.jobId())).isPresent();
+  }
+
+  @Test
+  void backgroundJobIsJoinedPolledAndDownloadedFromTheOtherNode() {
+    String key = "archive-" + UUID.randomUUID();
+    FakeJob job = new FakeJob();
+    UUID jobId =
+        registryA.submit(
+            BackgroundJobRegistry.Kind.ARCHIVE, key, Duration.ofHours(1), () -> job, j -> {});
+
+    AtomicInteger started = new AtomicInteger();
+    UUID joined =
+        registryB.submit(
+            BackgroundJobRegistry.Kind.ARCHIVE,
+            key,
+            Duration.ofHours(1),
+            FakeJob::new,
+            j -> started.incrementAndGet());
+    assertThat(joined).isEqualTo(jobId);
+    assertThat(started).hasValue(0);
+
+    job.status = "PROCESSING";
+    registryA.heartbeat();
+    assertThat(registryB.response(BackgroundJobRegistry.Kind.ARCHIVE, jobId, FakeResponse.class))
+        .get()
+        .extracting(FakeResponse::status)
+        .isEqualTo("PROCESSING");
+    assertThat(registryB.result(BackgroundJobRegistry.Kind.ARCHIVE, jobId)).isEmpty();
+
+    job.s3Key = "downloads-tmp/cache/abc/g.zip";
+    job.status = "COMPLETED";
+    registryA.finished(job);
+    assertThat(registryB.result(BackgroundJobRegistry.Kind.ARCHIVE, jobId))
+        .contains(new BackgroundJobRegistry.Result("downloads-tmp/cache/abc/g.zip", "g.zip"));
+    // A completed archive is still joined within the reuse window; other kinds join live jobs only.
+    assertThat(
+            registryB.submit(
+                BackgroundJobRegistry.Kind.ARCHIVE,
+                key,
+                Duration.ofHours(1),
+                FakeJob::new,
+                j -> {}))
+        .isEqualTo(jobId);
+    assertThat(
+            registryB.submit(
+                BackgroundJobRegistry.Kind.ARCHIVE, key, Duration.ZERO, FakeJob::new, j -> {}))
+        .isNotEqualTo(jobId);
+  }
+
+  @Test
+  void abandonedBackgroundJobIsFailedByTheOtherNode() {
+    FakeJob job = new FakeJob();
+    UUID jobId =
+        registryA.submit(
+            BackgroundJobRegistry.Kind.TAG_CONVERSION,
+            "tag-" + UUID.randomUUID(),
+            Duration.ZERO,
+            () -> job,
+            j -> {});
+    jdbcTemplate.update(
+        "UPDATE background_job SET heartbeat_at = now() - interval '10 minutes' WHERE id = ?",
+        jobId);
+
+    registryB.reapStaleJobs();
+
+    FakeResponse reaped =
+        registryB
+            .response(BackgroundJobRegistry.Kind.TAG_CONVERSION, jobId, FakeResponse.class)
+            .orElseThrow();
+    assertThat(reaped.status()).isEqualTo("FAILED");
+    assertThat(reaped.error()).isEqualTo(JobTrackingService.ABANDONED_ERROR);
+    assertThat(registryB.response(BackgroundJobRegistry.Kind.ARCHIVE, jobId, FakeResponse.class))
+        .isEmpty();
+  }
+
+  @Test
+  void leaseAdmitsOneNodeUntilItLapses() {
+    AtomicInteger runs = new AtomicInteger();
+    SchedulerLockService lockA = lockFor("node-a");
+    SchedulerLockService lockB = lockFor("node-b");
+
+    assertThat(lockA.runExclusively(lockName, Duration.ofMinutes(1), runs::incrementAndGet))
+        .isTrue();
+    assertThat(lockB.runExclusively(lockName, Duration.ofMinutes(1), runs::incrementAndGet))
+        .isFalse();
+    // Still held after the task finished, so A's own next tick in the period skips too.
+    assertThat(lockA.runExclusively(lockName, Duration.ofMinutes(1), runs::incrementAndGet))
+        .isFalse();
+    assertThat(runs).hasValue(1);
+
+    // A crashes mid-period: once the lease lapses, B takes over.
+    jdbcTemplate.update(
+        "UPDATE scheduler_lock SET locked_until = now() - interval '1 second' WHERE name = ?",
+        lockName);
+    assertThat(lockB.runExclusively(lockName, Duration.ofMinutes(1), runs::incrementAndGet))
+        .isTrue();
+    assertThat(runs).hasValue(2);
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT locked_by FROM scheduler_lock WHERE name = ?", String.class, lockName))
+        .isEqualTo("node-b");
+  }
+
+  @Test
+  void racingNodesRunTheTaskOnce() throws Exception {
+    int nodes = 8;
+    AtomicInteger runs = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(nodes);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < nodes; i++) {
+        SchedulerLockService lock = lockFor("node-" + i);
+        results.add(
+            pool.submit(
+                () -> {
+                  start.await();
+                  return lock.runExclusively(
+                      lockName, Duration.ofMinutes(1), runs::incrementAndGet);
+                }));
+      }
+      start.countDown();
+      int admitted = 0;
+      for (Future<Boolean> result : results) {
+        admitted += result.get() ? 1 : 0;
+      }
+      assertThat(admitted).isEqualTo(1);
+      assertThat(runs).hasValue(1);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+}
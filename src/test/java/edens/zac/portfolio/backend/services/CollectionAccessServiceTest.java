@@ -1,6 +1,7 @@
 package edens.zac.portfolio.backend.services;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import edens.zac.portfolio.backend.dao.RoleRepository;
@@ -17,6 +18,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 class CollectionAccessServiceTest {
 
   @Mock private RoleRepository roleRepository;
+  @Mock private AclSnapshotService aclSnapshot;
   @InjectMocks private CollectionAccessService service;
 
   @Test
@@ -45,4 +47,15 @@ class CollectionAccessServiceTest {
         .singleElement()
         .satisfies(g -> assertThat(g.level()).isEqualTo(AccessLevel.CLIENT));
   }
+
+  @Test
+  void enabledSnapshotAnswersWithoutTheRepository() {
+    when(aclSnapshot.isEnabled()).thenReturn(true);
+    when(aclSnapshot.canView(1L, 9L)).thenReturn(true);
+    when(aclSnapshot.isClient(1L, 9L)).thenReturn(true);
+
+    assertThat(service.canView(1L, 9L)).isTrue();
+    assertThat(service.isClient(1L, 9L)).isTrue();
+    verifyNoInteractions(roleRepository);
+  }
 }
@@ -0,0 +1,266 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import edens.zac.portfolio.backend.AbstractPostgresIntegrationTest;
+import edens.zac.portfolio.backend.dao.CollectionClosureRepository;
+import edens.zac.portfolio.backend.model.CollectionRequests;
+import edens.zac.portfolio.backend.model.Records;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The {@code collection_closure} table (V55) stays consistent with the link graph through every
+ * {@link CollectionService} link writer -- link, Structure-tab add/hide/reveal/remove and delete --
+ * and the consistency check and rebuild catch and repair a writer that bypasses the hooks.
+ */
+class CollectionClosureIntegrationTest extends AbstractPostgresIntegrationTest {
+
+  @Autowired private CollectionService collectionService;
+  @Autowired private CollectionClosureService closureService;
+  @Autowired private CollectionClosureRepository closureRepository;
+  @Autowired private JdbcTemplate jdbc;
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  /**
+   * Other integration tests write links with raw SQL (bypassing the hooks) into the shared
+   * container, so start every test from a freshly rebuilt table.
+   */
+  @BeforeEach
+  void rebuildClosure() {
+    closureService.rebuild();
+  }
+
+  /** The collection's descendants from the closure, nearest first. */
+  private List<Long> descendants(long ancestorId, boolean visibleOnly) {
+    return jdbc.queryForList(
+        "SELECT descendant_id FROM collection_closure WHERE ancestor_id = ?"
+            + " AND (visible_path OR NOT ?) ORDER BY depth, descendant_id",
+        Long.class,
+        ancestorId,
+        visibleOnly);
+  }
+
+  private long seedCollection(String slug) {
+    jdbc.update(
+        "INSERT INTO collection (title, slug, visibility) VALUES (?, ?, 'UNLISTED')", slug, slug);
+    return jdbc.queryForObject("SELECT id FROM collection WHERE slug=?", Long.class, slug);
+  }
+
+  /** A Structure-tab update that only touches the parent's child collections. */
+  private void structureTab(
+      long parentId, List<Records.ChildCollection> newValue, List<Long> remove) {
+    collectionService.updateContent(
+        parentId,
+        new CollectionRequests.Update(
+            parentId,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            new CollectionRequests.CollectionUpdate(null, newValue, remove),
+            null));
+  }
+
+  private void setVisible(long parentId, long childId, boolean visible) {
+    structureTab(
+        parentId,
+        List.of(new Records.ChildCollection(childId, null, null, null, visible, null)),
+        null);
+  }
+
+  private void assertConsistent() {
+    assertThat(closureService.check().drift()).isEmpty();
+  }
+
+  @Test
+  void linksMaintainAncestryIncrementally() {
+    long root = seedCollection("cl-root");
+    long year = seedCollection("cl-2025");
+    long day = seedCollection("cl-2025-day1");
+    long other = seedCollection("cl-other");
+
+    collectionService.linkCollectionToParent(root, year);
+    collectionService.linkCollectionToParent(year, day);
+    collectionService.linkCollectionToParent(other, day);
+
+    assertConsistent();
+    assertThat(closureRepository.findAncestorIds(day)).containsExactly(root, year, other);
+    assertThat(descendants(root, false)).containsExactly(year, day);
+    assertThat(closureRepository.isAncestor(root, day)).isTrue();
+    assertThat(closureRepository.isAncestor(day, root)).isFalse();
+  }
+
+  @Test
+  void concurrentLinksAroundOneCollectionBothReachTheClosure() throws Exception {
+    long top = seedCollection("cl-race-top");
+    long middle = seedCollection("cl-race-middle");
+    long bottom = seedCollection("cl-race-bottom");
+    CountDownLatch firstLinked = new CountDownLatch(1);
+    CountDownLatch releaseFirst = new CountDownLatch(1);
+
+    // The first link stays uncommitted while the second one starts.
+    CompletableFuture<Void> first =
+        CompletableFuture.runAsync(
+            () ->
+                transactionTemplate.executeWithoutResult(
+                    status -> {
+                      collectionService.linkCollectionToParent(top, middle);
+                      firstLinked.countDown();
+                      await(releaseFirst);
+                    }));
+    await(firstLinked);
+    CompletableFuture<Void> second =
+        CompletableFuture.runAsync(() -> collectionService.linkCollectionToParent(middle, bottom));
+    Thread.sleep(200);
+    assertThat(second).isNotDone();
+    releaseFirst.countDown();
+    first.get(10, TimeUnit.SECONDS);
+    second.get(10, TimeUnit.SECONDS);
+
+    assertConsistent();
+    assertThat(closureRepository.isAncestor(top, bottom)).isTrue();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Test
+  void diamondKeepsShortestDepthAndAnyVisibleChain() {
+    long top = seedCollection("cl-dia-top");
+    long left = seedCollection("cl-dia-left");
+    long right = seedCollection("cl-dia-right");
+    long bottom = seedCollection("cl-dia-bottom");
+    collectionService.linkCollectionToParent(top, left);
+    collectionService.linkCollectionToParent(top, right);
+    collectionService.linkCollectionToParent(left, bottom);
+    collectionService.linkCollectionToParent(right, bottom);
+    collectionService.linkCollectionToParent(top, bottom);
+
+    // Hiding one of three chains leaves bottom visibly reachable; removing the direct link keeps
+    // it reachable at depth 2.
+    setVisible(left, bottom, false);
+    assertThat(descendants(top, true)).contains(bottom);
+    structureTab(top, null, List.of(bottom));
+    assertConsistent();
+    assertThat(
+            jdbc.queryForObject(
+                "SELECT depth FROM collection_closure WHERE ancestor_id=? AND descendant_id=?",
+                Integer.class,
+                top,
+                bottom))
+        .isEqualTo(2);
+
+    // Hiding the last visible chain drops bottom from the visible subtree only.
+    setVisible(right, bottom, false);
+    assertConsistent();
+    assertThat(descendants(top, true)).containsExactly(left, right);
+    assertThat(descendants(top, false)).contains(bottom);
+
+    setVisible(left, bottom, true);
+    assertConsistent();
+    assertThat(descendants(top, true)).contains(bottom);
+  }
+
+  @Test
+  void hiddenStructureTabLinkIsRecordedAsInvisible() {
+    long parent = seedCollection("cl-hidden-parent");
+    long child = seedCollection("cl-hidden-child");
+
+    structureTab(
+        parent, List.of(new Records.ChildCollection(child, null, null, null, false, null)), null);
+
+    assertConsistent();
+    assertThat(descendants(parent, false)).containsExactly(child);
+    assertThat(descendants(parent, true)).isEmpty();
+  }
+
+  @Test
+  void unlinkAndDeleteDropChainsThroughTheRemovedCollection() {
+    long root = seedCollection("cl-del-root");
+    long middle = seedCollection("cl-del-middle");
+    long leaf = seedCollection("cl-del-leaf");
+    long loose = seedCollection("cl-del-loose");
+    collectionService.linkCollectionToParent(root, middle);
+    collectionService.linkCollectionToParent(middle, leaf);
+    collectionService.linkCollectionToParent(root, loose);
+
+    structureTab(root, null, List.of(loose));
+    assertConsistent();
+    assertThat(closureRepository.findAncestorIds(loose)).isEmpty();
+
+    collectionService.deleteCollection(middle);
+    assertConsistent();
+    assertThat(closureRepository.findAncestorIds(leaf)).isEmpty();
+    assertThat(descendants(root, false)).isEmpty();
+  }
+
+  @Test
+  void cycleCheckUsesTheClosure() {
+    long a = seedCollection("cl-cyc-a");
+    long b = seedCollection("cl-cyc-b");
+    long c = seedCollection("cl-cyc-c");
+    collectionService.linkCollectionToParent(a, b);
+    collectionService.linkCollectionToParent(b, c);
+
+    assertThatThrownBy(() -> collectionService.linkCollectionToParent(c, a))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Cycle detected");
+    assertConsistent();
+  }
+
+  @Test
+  void checkReportsDriftFromAHookBypassingWriterAndRebuildRepairsIt() {
+    long parent = seedCollection("cl-drift-parent");
+    long child = seedCollection("cl-drift-child");
+    Long contentId =
+        jdbc.queryForObject(
+            "INSERT INTO content (content_type) VALUES ('COLLECTION') RETURNING id", Long.class);
+    jdbc.update(
+        "INSERT INTO content_collection (id, referenced_collection_id) VALUES (?, ?)",
+        contentId,
+        child);
+    jdbc.update(
+        "INSERT INTO collection_content (collection_id, content_id, visible) VALUES (?, ?, true)",
+        parent,
+        contentId);
+
+    assertThat(closureService.check().drift())
+        .anySatisfy(
+            drift -> {
+              assertThat(drift.ancestorId()).isEqualTo(parent);
+              assertThat(drift.descendantId()).isEqualTo(child);
+              assertThat(drift.storedDepth()).isNull();
+              assertThat(drift.expectedDepth()).isEqualTo(1);
+            });
+
+    closureService.rebuild();
+
+    assertConsistent();
+    assertThat(closureRepository.isAncestor(parent, child)).isTrue();
+  }
+}
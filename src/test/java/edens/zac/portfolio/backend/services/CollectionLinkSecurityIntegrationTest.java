@@ -15,12 +15,12 @@ import org.springframework.jdbc.core.JdbcTemplate;
 
 /**
  * S5 and S6 on BOTH writers that create a parent-to-child join row: {@link
- * CollectionService#linkCollectionToParent} (createChildCollection, the staging auto-link, tag
- * conversion) and the admin Structure tab, which routes {@code PUT /api/admin/collections/{id}}
- * through {@code handleCollectionToCollectionUpdates} and builds the join row inline. An ancestor
- * may never be re-linked as a descendant, and a password already set on the parent waterfalls onto
- * a client-gallery child at link time. Real Postgres because both walk the collection_content ->
- * content_collection join chain.
+ * CollectionService#linkCollectionToParent} (createChildCollection, the staging auto-link; tag
+ * conversion uses its batch form) and the admin Structure tab, which routes {@code PUT
+ * /api/admin/collections/{id}} through {@code handleCollectionToCollectionUpdates} and builds the
+ * join row inline. An ancestor may never be re-linked as a descendant, and a password already set
+ * on the parent waterfalls onto a client-gallery child at link time. Real Postgres because both
+ * walk the collection_content -> content_collection join chain.
  *
  * <p>Rows live in the SHARED singleton container (only auth tables are truncated), so every slug
  * carries an s5-/s6- prefix and assertions never use global counts.
@@ -170,6 +170,46 @@ class CollectionLinkSecurityIntegrationTest extends AbstractPostgresIntegrationT
     assertThat(collectionRepository.findById(child).orElseThrow().getGalleryPassword()).isNull();
   }
 
+  // --- The batched link (tag conversion): same two guards, checked once per batch -
+
+  @Test
+  void batchLinkContainingAnAncestor_isRejectedAndLinksNothing() {
+    long a = seed("s5-batch-a", false, null);
+    long b = seed("s5-batch-b", false, null);
+    long fresh = seed("s5-batch-fresh", false, null);
+    collectionService.linkCollectionToParent(a, b);
+
+    assertThatThrownBy(() -> collectionService.linkCollectionsToParent(b, List.of(fresh, a)))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Cycle detected");
+    assertThat(collectionRepository.findAllParentCollectionsByChildId(fresh)).isEmpty();
+  }
+
+  @Test
+  void batchLink_skipsExistingLinks_ordersNewOnes_andCopiesPasswordDown() {
+    long parent = seed("s6-batch-parent", false, "batchpw");
+    long existing = seed("s6-batch-existing", false, null);
+    long client = seed("s6-batch-client", true, null);
+    long plain = seed("s6-batch-plain", false, null);
+    collectionService.linkCollectionToParent(parent, existing);
+
+    int linked =
+        collectionService.linkCollectionsToParent(parent, List.of(existing, client, plain, client));
+
+    assertThat(linked).isEqualTo(2);
+    List<Integer> orderIndexes =
+        jdbc.queryForList(
+            "SELECT cc.order_index FROM collection_content cc"
+                + " JOIN content_collection ccol ON ccol.id = cc.content_id"
+                + " WHERE cc.collection_id = ? ORDER BY cc.order_index",
+            Integer.class,
+            parent);
+    assertThat(orderIndexes).containsExactly(0, 1, 2);
+    assertThat(collectionRepository.findById(client).orElseThrow().getGalleryPassword())
+        .isEqualTo("batchpw");
+    assertThat(collectionRepository.findById(plain).orElseThrow().getGalleryPassword()).isNull();
+  }
+
   // --- The admin Structure tab: same two guards on the `collections` field -------
 
   @Test
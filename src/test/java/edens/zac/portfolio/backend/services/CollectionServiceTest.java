@@ -20,6 +20,7 @@ import edens.zac.portfolio.backend.config.ResourceNotFoundException;
 import edens.zac.portfolio.backend.dao.CollectionRepository;
 import edens.zac.portfolio.backend.dao.ContentRepository;
 import edens.zac.portfolio.backend.dao.LocationRepository;
+import edens.zac.portfolio.backend.dao.LocationStatsRepository;
 import edens.zac.portfolio.backend.dao.TagRepository;
 import edens.zac.portfolio.backend.entity.CollectionContentEntity;
 import edens.zac.portfolio.backend.entity.CollectionEntity;
@@ -68,6 +69,7 @@ class CollectionServiceTest {
 
   @Mock private ContentRepository contentRepository;
   @Mock private LocationRepository locationRepository;
+  @Mock private LocationStatsRepository locationStatsRepository;
   @Mock private TagRepository tagRepository;
   @Mock private CollectionProcessingUtil collectionProcessingUtil;
   @Mock private ContentMutationUtil contentMutationUtil;
@@ -79,6 +81,7 @@ class CollectionServiceTest {
   @Mock private ClientGalleryAuthService clientGalleryAuthService;
   @Mock private CollectionAccessService collectionAccessService;
   @Mock private RoleGrantPropagationService roleGrantPropagationService;
+  @Mock private CollectionClosureService collectionClosureService;
 
   @Mock
   private edens.zac.portfolio.backend.dao.CollectionSiblingRepository collectionSiblingRepository;
@@ -749,15 +752,20 @@ class CollectionServiceTest {
   @Nested
   class GetLocationPage {
 
+    private final LocationEntity seattle =
+        LocationEntity.builder().id(1L).locationName("Seattle").slug("seattle").build();
+
+    private ContentModels.Image imageModel(Long id, String title) {
+      return new ContentModels.Image(
+          id, null, title, null, null, null, null, null, null, null, null, null, null, null, null,
+          null, null, null, null, null, null, null, null, null, null, null, null, null, null, null,
+          null);
+    }
+
     @Test
-    void getLocationPage_shouldReturnCollectionsAndOrphanImages() {
+    void getLocationPage_shouldReturnCollectionsOrphanImagesAndStoredTotals() {
       // Arrange
-      String locationName = "Seattle";
-
-      LocationEntity seattleLocation =
-          LocationEntity.builder().id(1L).locationName("Seattle").slug("seattle").build();
-      when(locationRepository.findByLocationName(locationName))
-          .thenReturn(Optional.of(seattleLocation));
+      when(locationRepository.findBySlug("seattle")).thenReturn(Optional.of(seattle));
 
       CollectionEntity collectionEntity =
           CollectionEntity.builder()
@@ -766,128 +774,129 @@ class CollectionServiceTest {
               .slug("seattle-trip")
               .visibility(CollectionVisibility.LISTED)
               .build();
-
       CollectionModel collectionModel =
-          CollectionModel.builder()
-              .id(10L)
-              .title("Seattle Trip")
-              .slug("seattle-trip")
-              .locations(List.of(new Records.Location(1L, "Seattle", "seattle")))
-              .build();
-
+          CollectionModel.builder().id(10L).title("Seattle Trip").slug("seattle-trip").build();
       ContentImageEntity orphanImage = ContentImageEntity.builder().id(20L).title("Sunset").build();
 
-      ContentModels.Image imageModel =
-          new ContentModels.Image(
-              20L, null, "Sunset", null, null, null, null, null, null, null, null, null, null, null,
-              null, null, null, null, null, null, null, null, null, null, null, null, null, null,
-              null, null, null);
-
-      when(collectionRepository.countListedByLocationName(locationName)).thenReturn(1L);
-      when(collectionRepository.findListedByLocationName(locationName, 35, 0))
+      when(collectionRepository.findListedByLocationId(1L, null, 36, 0))
           .thenReturn(List.of(collectionEntity));
-      // totalCollections (1) <= collectionSize (35), so IDs are extracted from paginated result
-      // — no findListedIdsByLocationName call needed
       when(collectionProcessingUtil.batchConvertToBasicModels(List.of(collectionEntity)))
           .thenReturn(List.of(collectionModel));
-      when(contentRepository.findOrphanImagesByLocationName(
-              eq(locationName), eq(List.of(10L)), eq(50), eq(0)))
+      when(contentRepository.findOrphanImagesByLocationId(1L, null, 51, 0))
           .thenReturn(List.of(orphanImage));
-      when(contentRepository.countOrphanImagesByLocationName(eq(locationName), eq(List.of(10L))))
-          .thenReturn(1L);
       when(contentModelConverter.batchConvertImageEntitiesToModels(List.of(orphanImage)))
-          .thenReturn(List.of(imageModel));
+          .thenReturn(List.of(imageModel(20L, "Sunset")));
+      when(locationStatsRepository.findByLocationId(1L))
+          .thenReturn(Optional.of(new Records.LocationWithCounts(1L, "Seattle", "seattle", 1, 1)));
 
       // Act
-      LocationPageResponse result = service.getLocationPage(locationName, 0, 35, 0, 50);
+      LocationPageResponse result =
+          service.getLocationPageBySlug("seattle", 0, 35, null, 0, 50, null);
 
       // Assert
-      assertThat(result).isNotNull();
-      assertThat(result.location()).isNotNull();
+      assertThat(result.location()).isEqualTo(new Records.Location(1L, "Seattle", "seattle"));
       assertThat(result.collections()).hasSize(1);
       assertThat(result.collections().getFirst().getTitle()).isEqualTo("Seattle Trip");
       assertThat(result.images()).hasSize(1);
       assertThat(result.totalCollections()).isEqualTo(1L);
       assertThat(result.totalImages()).isEqualTo(1L);
+      assertThat(result.nextCollectionCursor()).isNull();
+      assertThat(result.nextImageCursor()).isNull();
     }
 
     @Test
-    void getLocationPage_noCollections_shouldReturnEmptyCollectionsWithOrphans() {
+    void getLocationPage_fullPages_shouldTrimTheExtraRowAndReturnCursorsForTheLastRows() {
       // Arrange
-      String locationName = "Portland";
-
-      when(locationRepository.findByLocationName(locationName)).thenReturn(Optional.empty());
-
-      ContentImageEntity orphanImage = ContentImageEntity.builder().id(30L).title("Bridge").build();
-
-      ContentModels.Image imageModel =
-          new ContentModels.Image(
-              30L, null, "Bridge", null, null, null, null, null, null, null, null, null, null, null,
-              null, null, null, null, null, null, null, null, null, null, null, null, null, null,
-              null, null, null);
-
-      when(collectionRepository.countListedByLocationName(locationName)).thenReturn(0L);
-      when(collectionRepository.findListedByLocationName(locationName, 35, 0))
-          .thenReturn(Collections.emptyList());
-      // totalCollections (0) <= collectionSize (35), so IDs extracted from empty paginated result
-      when(collectionProcessingUtil.batchConvertToBasicModels(Collections.emptyList()))
-          .thenReturn(Collections.emptyList());
-      when(contentRepository.findOrphanImagesByLocationName(
-              eq(locationName), eq(Collections.emptyList()), eq(50), eq(0)))
-          .thenReturn(List.of(orphanImage));
-      when(contentRepository.countOrphanImagesByLocationName(
-              eq(locationName), eq(Collections.emptyList())))
-          .thenReturn(1L);
-      when(contentModelConverter.batchConvertImageEntitiesToModels(List.of(orphanImage)))
-          .thenReturn(List.of(imageModel));
+      when(locationRepository.findBySlug("seattle")).thenReturn(Optional.of(seattle));
+      CollectionEntity first =
+          CollectionEntity.builder()
+              .id(11L)
+              .rating(5)
+              .collectionDate(LocalDate.of(2025, 6, 1))
+              .build();
+      CollectionEntity extra = CollectionEntity.builder().id(12L).rating(4).build();
+      ContentImageEntity shot =
+          ContentImageEntity.builder()
+              .id(21L)
+              .captureDate(LocalDateTime.of(2025, 6, 1, 9, 30))
+              .build();
+      ContentImageEntity extraShot = ContentImageEntity.builder().id(22L).build();
+
+      when(collectionRepository.findListedByLocationId(1L, null, 2, 2))
+          .thenReturn(List.of(first, extra));
+      when(contentRepository.findOrphanImagesByLocationId(1L, null, 2, 1))
+          .thenReturn(List.of(shot, extraShot));
+      when(collectionProcessingUtil.batchConvertToBasicModels(List.of(first)))
+          .thenReturn(List.of(CollectionModel.builder().id(11L).build()));
+      when(contentModelConverter.batchConvertImageEntitiesToModels(List.of(shot)))
+          .thenReturn(List.of(imageModel(21L, null)));
+      when(locationStatsRepository.findByLocationId(1L)).thenReturn(Optional.empty());
 
       // Act
-      LocationPageResponse result = service.getLocationPage(locationName, 0, 35, 0, 50);
+      LocationPageResponse result =
+          service.getLocationPageBySlug("seattle", 2, 1, null, 1, 1, null);
 
       // Assert
-      assertThat(result).isNotNull();
-      assertThat(result.location()).isNotNull();
-      assertThat(result.location().name()).isEqualTo("Portland");
-      assertThat(result.location().id()).isNull();
-      assertThat(result.collections()).isEmpty();
+      assertThat(result.collections()).hasSize(1);
       assertThat(result.images()).hasSize(1);
-      assertThat(result.images().getFirst().title()).isEqualTo("Bridge");
-      assertThat(result.totalCollections()).isEqualTo(0L);
-      assertThat(result.totalImages()).isEqualTo(1L);
+      assertThat(LocationPageCursor.decodeCollection(result.nextCollectionCursor()))
+          .isEqualTo(new LocationPageCursor.CollectionKey(5, LocalDate.of(2025, 6, 1), 11L));
+      assertThat(LocationPageCursor.decodeImage(result.nextImageCursor()))
+          .isEqualTo(new LocationPageCursor.ImageKey(LocalDateTime.of(2025, 6, 1, 9, 30), 21L));
+      assertThat(result.totalCollections()).isZero();
+      assertThat(result.totalImages()).isZero();
     }
 
     @Test
-    void getLocationPage_noResults_shouldReturnEmptyResponse() {
+    void getLocationPage_withCursors_shouldSeekInsteadOfSkipping() {
       // Arrange
-      String locationName = "Nowhere";
-
-      when(locationRepository.findByLocationName(locationName)).thenReturn(Optional.empty());
-
-      when(collectionRepository.countListedByLocationName(locationName)).thenReturn(0L);
-      when(collectionRepository.findListedByLocationName(locationName, 35, 0))
-          .thenReturn(Collections.emptyList());
-      // totalCollections (0) <= collectionSize (35), so IDs extracted from empty paginated result
-      when(collectionProcessingUtil.batchConvertToBasicModels(Collections.emptyList()))
-          .thenReturn(Collections.emptyList());
-      when(contentRepository.findOrphanImagesByLocationName(
-              eq(locationName), eq(Collections.emptyList()), eq(50), eq(0)))
-          .thenReturn(Collections.emptyList());
-      when(contentRepository.countOrphanImagesByLocationName(
-              eq(locationName), eq(Collections.emptyList())))
-          .thenReturn(0L);
+      when(locationRepository.findBySlug("seattle")).thenReturn(Optional.of(seattle));
+      LocationPageCursor.CollectionKey collectionsAfter =
+          new LocationPageCursor.CollectionKey(null, null, 40L);
+      LocationPageCursor.ImageKey imagesAfter = new LocationPageCursor.ImageKey(null, 90L);
+      when(collectionRepository.findListedByLocationId(1L, collectionsAfter, 36, 0))
+          .thenReturn(List.of());
+      when(contentRepository.findOrphanImagesByLocationId(1L, imagesAfter, 51, 0))
+          .thenReturn(List.of());
+      when(collectionProcessingUtil.batchConvertToBasicModels(List.of())).thenReturn(List.of());
+      when(contentModelConverter.batchConvertImageEntitiesToModels(List.of()))
+          .thenReturn(List.of());
 
-      // Act
-      LocationPageResponse result = service.getLocationPage(locationName, 0, 35, 0, 50);
+      // Act -- the page numbers are ignored once a cursor is given
+      LocationPageResponse result =
+          service.getLocationPageBySlug(
+              "seattle",
+              7,
+              35,
+              LocationPageCursor.encode(collectionsAfter),
+              9,
+              50,
+              LocationPageCursor.encode(imagesAfter));
 
       // Assert
-      assertThat(result).isNotNull();
-      assertThat(result.location()).isNotNull();
-      assertThat(result.location().name()).isEqualTo("Nowhere");
-      assertThat(result.location().id()).isNull();
       assertThat(result.collections()).isEmpty();
       assertThat(result.images()).isEmpty();
-      assertThat(result.totalCollections()).isEqualTo(0L);
-      assertThat(result.totalImages()).isEqualTo(0L);
+      assertThat(result.nextCollectionCursor()).isNull();
+      assertThat(result.nextImageCursor()).isNull();
+    }
+
+    @Test
+    void getLocationPage_malformedCursor_shouldThrowIllegalArgument() {
+      when(locationRepository.findBySlug("seattle")).thenReturn(Optional.of(seattle));
+
+      assertThatThrownBy(
+              () -> service.getLocationPageBySlug("seattle", 0, 35, "not-a-cursor", 0, 50, null))
+          .isInstanceOf(IllegalArgumentException.class);
+      verify(collectionRepository, never())
+          .findListedByLocationId(any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void getLocationPage_unknownSlug_shouldThrowNotFound() {
+      when(locationRepository.findBySlug("nowhere")).thenReturn(Optional.empty());
+
+      assertThatThrownBy(() -> service.getLocationPageBySlug("nowhere", 0, 35, null, 0, 50, null))
+          .isInstanceOf(ResourceNotFoundException.class);
     }
   }
 
@@ -1543,6 +1552,13 @@ class CollectionServiceTest {
   @Nested
   class SaveGalleryAccessParentPropagation {
 
+    private static final String HASH = "{bcrypt}secretpw-hash";
+
+    @BeforeEach
+    void stubHashing() {
+      lenient().when(clientGalleryAuthService.hashPassword("secretpw")).thenReturn(HASH);
+    }
+
     @Test
     void wrapperWithClientGalleryChildren_propagateTrue_updatesPasswordOnEachClientChild() {
       // The R1/S2 scenario: the wrapper is NOT itself a client gallery. Eligibility comes from
@@ -1569,9 +1585,9 @@ class CollectionServiceTest {
 
       service.updateGalleryAccess(100L, request);
 
-      verify(collectionRepository).saveGalleryAccess(100L, "secretpw", List.of());
-      verify(collectionRepository).updateGalleryPassword(101L, "secretpw");
-      verify(collectionRepository).updateGalleryPassword(102L, "secretpw");
+      verify(collectionRepository).saveGalleryAccess(100L, HASH, List.of());
+      verify(collectionRepository).updateGalleryPassword(101L, HASH);
+      verify(collectionRepository).updateGalleryPassword(102L, HASH);
     }
 
     @Test
@@ -1633,7 +1649,7 @@ class CollectionServiceTest {
 
       service.updateGalleryAccess(100L, request);
 
-      verify(collectionRepository).saveGalleryAccess(100L, "secretpw", List.of());
+      verify(collectionRepository).saveGalleryAccess(100L, HASH, List.of());
       verify(collectionRepository, never()).hasClientGalleryChildren(anyLong());
     }
 
@@ -1685,7 +1701,7 @@ class CollectionServiceTest {
 
       service.updateGalleryAccess(100L, request);
 
-      verify(collectionRepository).updateGalleryPassword(101L, "secretpw");
+      verify(collectionRepository).updateGalleryPassword(101L, HASH);
       verify(collectionRepository, never()).updateGalleryPassword(eq(102L), anyString());
       verify(collectionRepository, never()).updateGalleryPassword(eq(103L), anyString());
     }
@@ -1717,7 +1733,33 @@ class CollectionServiceTest {
 
       service.updateGalleryAccess(100L, request);
 
-      verify(collectionRepository).updateGalleryPassword(101L, "secretpw");
+      verify(collectionRepository).updateGalleryPassword(101L, HASH);
+    }
+
+    @Test
+    void recipientsAreEmailedThePlaintextWhileOnlyTheHashIsStored() {
+      CollectionEntity gallery =
+          CollectionEntity.builder()
+              .id(100L)
+              .title("Smith Wedding")
+              .slug("smith-wedding")
+              .isClient(true)
+              .visibility(CollectionVisibility.UNLISTED)
+              .build();
+      when(collectionRepository.findById(100L)).thenReturn(Optional.of(gallery));
+      when(emailService.sendGalleryPasswordEmail(
+              "client@example.com", "Smith Wedding", "smith-wedding", "secretpw"))
+          .thenReturn(new EmailService.SendResult(true, null));
+
+      CollectionRequests.GalleryAccessResponse response =
+          service.updateGalleryAccess(
+              100L,
+              new CollectionRequests.GalleryAccessRequest(
+                  "secretpw", List.of("client@example.com"), false));
+
+      assertThat(response.emailsSent()).isTrue();
+      assertThat(response.password()).isEqualTo("secretpw");
+      verify(collectionRepository).saveGalleryAccess(100L, HASH, List.of("client@example.com"));
     }
 
     @Test
@@ -2,15 +2,25 @@ package edens.zac.portfolio.backend.services;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import edens.zac.portfolio.backend.model.DownloadResolution;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.net.URI;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -27,6 +37,8 @@ import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
 import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.UploadPartResponse;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
@@ -41,12 +53,14 @@ class DownloadUrlServiceTest {
   @Mock private S3Client s3Client;
   @Mock private S3Presigner s3Presigner;
   @Mock private PresignedGetObjectRequest presigned;
+  @Mock private S3CopyZipAssembler copyZipAssembler;
 
   @InjectMocks private DownloadUrlService service;
 
   @BeforeEach
   void setUp() {
     ReflectionTestUtils.setField(service, "bucketName", BUCKET);
+    ReflectionTestUtils.setField(service, "streamThresholdMb", 32L);
   }
 
   private void stubPresign(String url) throws Exception {
@@ -116,4 +130,212 @@ class DownloadUrlServiceTest {
     assertThat(get.responseContentType()).isEqualTo("application/zip");
     assertThat(get.responseContentDisposition()).isEqualTo("attachment; filename=\"gallery.zip\"");
   }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void zipToS3AndPresign_writesStoredEntriesWithCrc() throws Exception {
+    ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+    when(s3Client.createMultipartUpload(any(Consumer.class)))
+        .thenReturn(CreateMultipartUploadResponse.builder().uploadId("up-1").build());
+    when(s3Client.uploadPart(any(Consumer.class), any(RequestBody.class)))
+        .thenAnswer(
+            inv -> {
+              RequestBody body = inv.getArgument(1);
+              uploaded.write(body.contentStreamProvider().newStream().readAllBytes());
+              return UploadPartResponse.builder().eTag("etag-1").build();
+            });
+    when(s3Client.completeMultipartUpload(any(Consumer.class)))
+        .thenReturn(CompleteMultipartUploadResponse.builder().build());
+    byte[] jpeg = "not-really-a-jpeg".getBytes();
+    when(s3Client.getObject(any(GetObjectRequest.class))).thenReturn(fakeS3Stream(jpeg));
+    stubPresign("https://portfolio-bucket.s3.amazonaws.com/downloads-tmp/zzz/one.zip?sig=abc");
+
+    service.zipToS3AndPresign(
+        List.of(new DownloadResolution("Image/Original/a.jpg", ".jpg", "image/jpeg", "a.jpg")),
+        "one.zip");
+
+    try (ZipInputStream zip =
+        new ZipInputStream(new ByteArrayInputStream(uploaded.toByteArray()))) {
+      ZipEntry entry = zip.getNextEntry();
+      assertThat(entry.getName()).isEqualTo("000_a.jpg");
+      assertThat(entry.getMethod()).isEqualTo(ZipEntry.STORED);
+      CRC32 crc = new CRC32();
+      crc.update(jpeg);
+      assertThat(entry.getCrc()).isEqualTo(crc.getValue());
+      assertThat(zip.readAllBytes()).isEqualTo(jpeg);
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void zipToS3AndPresign_entryOverTheStreamThreshold_isReadAgainIntoTheArchive() throws Exception {
+    ReflectionTestUtils.setField(service, "streamThresholdMb", 0L);
+    ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+    when(s3Client.createMultipartUpload(any(Consumer.class)))
+        .thenReturn(CreateMultipartUploadResponse.builder().uploadId("up-1").build());
+    when(s3Client.uploadPart(any(Consumer.class), any(RequestBody.class)))
+        .thenAnswer(
+            inv -> {
+              RequestBody body = inv.getArgument(1);
+              uploaded.write(body.contentStreamProvider().newStream().readAllBytes());
+              return UploadPartResponse.builder().eTag("etag-1").build();
+            });
+    when(s3Client.completeMultipartUpload(any(Consumer.class)))
+        .thenReturn(CompleteMultipartUploadResponse.builder().build());
+    byte[] jpeg = "a-large-original".getBytes();
+    when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(inv -> fakeS3Stream(jpeg));
+    stubPresign("https://portfolio-bucket.s3.amazonaws.com/downloads-tmp/zzz/one.zip?sig=abc");
+
+    service.zipToS3AndPresign(
+        List.of(new DownloadResolution("Image/Original/a.jpg", ".jpg", "image/jpeg", "a.jpg")),
+        "one.zip");
+
+    // Once for the CRC on a prefetch thread, once into the archive; never held whole.
+    verify(s3Client, times(2)).getObject(any(GetObjectRequest.class));
+    try (ZipInputStream zip =
+        new ZipInputStream(new ByteArrayInputStream(uploaded.toByteArray()))) {
+      ZipEntry entry = zip.getNextEntry();
+      assertThat(entry.getName()).isEqualTo("000_a.jpg");
+      assertThat(entry.getMethod()).isEqualTo(ZipEntry.STORED);
+      assertThat(zip.readAllBytes()).isEqualTo(jpeg);
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void cachedZipToS3AndPresign_liveArchive_isPresignedWithoutRebuilding() throws Exception {
+    ReflectionTestUtils.setField(service, "cacheReuseHours", 20L);
+    when(s3Client.headObject(any(Consumer.class)))
+        .thenReturn(
+            HeadObjectResponse.builder()
+                .lastModified(Instant.now().minus(2, ChronoUnit.HOURS))
+                .build());
+    stubPresign("https://portfolio-bucket.s3.amazonaws.com/downloads-tmp/cache/x/g.zip?sig=abc");
+
+    service.cachedZipToS3AndPresign(1L, "web", twoEntries(null), "g.zip");
+
+    verify(s3Client, never()).createMultipartUpload(any(Consumer.class));
+    verify(s3Client, never()).getObject(any(GetObjectRequest.class));
+    ArgumentCaptor<GetObjectPresignRequest> captor =
+        ArgumentCaptor.forClass(GetObjectPresignRequest.class);
+    verify(s3Presigner).presignGetObject(captor.capture());
+    assertThat(captor.getValue().getObjectRequest().key())
+        .isEqualTo(
+            DownloadUrlService.CACHE_PREFIX
+                + DownloadUrlService.archiveCacheKey(1L, "web", twoEntries(null))
+                + "/g.zip");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void cachedZipToS3AndPresign_missingArchive_isBuiltUnderCacheKey() throws Exception {
+    ReflectionTestUtils.setField(service, "cacheReuseHours", 20L);
+    when(s3Client.headObject(any(Consumer.class)))
+        .thenThrow(NoSuchKeyException.builder().message("missing").build());
+    when(s3Client.createMultipartUpload(any(Consumer.class)))
+        .thenReturn(CreateMultipartUploadResponse.builder().uploadId("up-1").build());
+    when(s3Client.uploadPart(any(Consumer.class), any(RequestBody.class)))
+        .thenReturn(UploadPartResponse.builder().eTag("etag-1").build());
+    when(s3Client.completeMultipartUpload(any(Consumer.class)))
+        .thenReturn(CompleteMultipartUploadResponse.builder().build());
+    when(s3Client.getObject(any(GetObjectRequest.class)))
+        .thenReturn(fakeS3Stream("first".getBytes()))
+        .thenReturn(fakeS3Stream("second".getBytes()));
+    stubPresign("https://portfolio-bucket.s3.amazonaws.com/downloads-tmp/cache/x/g.zip?sig=abc");
+
+    service.cachedZipToS3AndPresign(1L, "web", twoEntries(null), "g.zip");
+
+    verify(s3Client).completeMultipartUpload(any(Consumer.class));
+    ArgumentCaptor<GetObjectPresignRequest> captor =
+        ArgumentCaptor.forClass(GetObjectPresignRequest.class);
+    verify(s3Presigner).presignGetObject(captor.capture());
+    assertThat(captor.getValue().getObjectRequest().key())
+        .startsWith(DownloadUrlService.CACHE_PREFIX);
+    // Every entry made it in, so the archive is marked for reuse.
+    verify(s3Client).putObject(any(Consumer.class), any(RequestBody.class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void cachedZipToS3AndPresign_failedEntry_isServedButNotMarkedForReuse() throws Exception {
+    ReflectionTestUtils.setField(service, "cacheReuseHours", 20L);
+    when(s3Client.headObject(any(Consumer.class)))
+        .thenThrow(NoSuchKeyException.builder().message("missing").build());
+    ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+    when(s3Client.createMultipartUpload(any(Consumer.class)))
+        .thenReturn(CreateMultipartUploadResponse.builder().uploadId("up-1").build());
+    when(s3Client.uploadPart(any(Consumer.class), any(RequestBody.class)))
+        .thenAnswer(
+            inv -> {
+              RequestBody body = inv.getArgument(1);
+              uploaded.write(body.contentStreamProvider().newStream().readAllBytes());
+              return UploadPartResponse.builder().eTag("etag-1").build();
+            });
+    when(s3Client.completeMultipartUpload(any(Consumer.class)))
+        .thenReturn(CompleteMultipartUploadResponse.builder().build());
+    when(s3Client.getObject(any(GetObjectRequest.class)))
+        .thenReturn(fakeS3Stream("first".getBytes()))
+        .thenThrow(NoSuchKeyException.builder().message("gone").build());
+    stubPresign("https://portfolio-bucket.s3.amazonaws.com/downloads-tmp/cache/x/g.zip?sig=abc");
+
+    service.cachedZipToS3AndPresign(1L, "web", twoEntries(null), "g.zip");
+
+    try (ZipInputStream zip =
+        new ZipInputStream(new ByteArrayInputStream(uploaded.toByteArray()))) {
+      assertThat(zip.getNextEntry().getName()).isEqualTo("000_a.webp");
+      assertThat(zip.getNextEntry().getName()).isEqualTo("001_b.webp.error.txt");
+    }
+    verify(s3Presigner).presignGetObject(any(GetObjectPresignRequest.class));
+    verify(s3Client, never()).putObject(any(Consumer.class), any(RequestBody.class));
+  }
+
+  @Test
+  void archiveCacheKey_changesWithContentVersionAndSelection() {
+    String base = DownloadUrlService.archiveCacheKey(1L, "web", twoEntries(null));
+
+    assertThat(DownloadUrlService.archiveCacheKey(1L, "web", twoEntries(null))).isEqualTo(base);
+    assertThat(
+            DownloadUrlService.archiveCacheKey(
+                1L, "web", twoEntries(LocalDateTime.of(2026, 10, 1, 12, 0))))
+        .isNotEqualTo(base);
+    assertThat(DownloadUrlService.archiveCacheKey(1L, "web", twoEntries(null).subList(0, 1)))
+        .isNotEqualTo(base);
+    assertThat(DownloadUrlService.archiveCacheKey(2L, "web", twoEntries(null))).isNotEqualTo(base);
+  }
+
+  private static List<DownloadResolution> twoEntries(LocalDateTime secondUpdatedAt) {
+    return List.of(
+        new DownloadResolution("Image/Web/a.webp", ".webp", "image/webp", "a.webp"),
+        new DownloadResolution(
+            "Image/Web/b.webp", ".webp", "image/webp", "b.webp", secondUpdatedAt));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void cachedZipToS3AndPresign_originals_areAssembledByPartCopy() throws Exception {
+    ReflectionTestUtils.setField(service, "serverSideCopy", true);
+    stubPresign("https://portfolio-bucket.s3.amazonaws.com/downloads-tmp/cache/x/g.zip?sig=abc");
+
+    service.cachedZipToS3AndPresign(1L, "original", twoEntries(null), "g.zip");
+
+    verify(copyZipAssembler)
+        .assemble(eq(twoEntries(null)), any(String.class), any(), anyInt(), any());
+    verify(s3Client, never()).createMultipartUpload(any(Consumer.class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void cachedZipToS3AndPresign_originalsWithPlaceholders_areNotMarkedForReuse() throws Exception {
+    ReflectionTestUtils.setField(service, "serverSideCopy", true);
+    ReflectionTestUtils.setField(service, "cacheReuseHours", 20L);
+    when(s3Client.headObject(any(Consumer.class)))
+        .thenThrow(NoSuchKeyException.builder().message("missing").build());
+    when(copyZipAssembler.assemble(any(), any(String.class), any(), anyInt(), any())).thenReturn(1);
+    stubPresign("https://portfolio-bucket.s3.amazonaws.com/downloads-tmp/cache/x/g.zip?sig=abc");
+
+    service.cachedZipToS3AndPresign(1L, "original", twoEntries(null), "g.zip");
+
+    verify(s3Presigner).presignGetObject(any(GetObjectPresignRequest.class));
+    verify(s3Client, never()).putObject(any(Consumer.class), any(RequestBody.class));
+  }
 }
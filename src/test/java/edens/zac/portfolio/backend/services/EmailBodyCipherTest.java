@@ -0,0 +1,52 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class EmailBodyCipherTest {
+
+  private final EmailBodyCipher cipher = new EmailBodyCipher("outbox-test-key", true);
+
+  @Test
+  void roundTripsWithAFreshIvEachTime() {
+    String first = cipher.encrypt("Password: hunter2");
+    String second = cipher.encrypt("Password: hunter2");
+
+    assertThat(first).startsWith(EmailBodyCipher.PREFIX).doesNotContain("hunter2");
+    assertThat(first).isNotEqualTo(second);
+    assertThat(cipher.decrypt(first)).isEqualTo("Password: hunter2");
+    assertThat(cipher.decrypt(second)).isEqualTo("Password: hunter2");
+  }
+
+  @Test
+  void legacyPlaintextAndNullPassThrough() {
+    assertThat(cipher.decrypt("<p>queued before V65</p>")).isEqualTo("<p>queued before V65</p>");
+    assertThat(cipher.decrypt(null)).isNull();
+    assertThat(cipher.encrypt(null)).isNull();
+  }
+
+  @Test
+  void tamperedOrForeignBodiesAreRejected() {
+    String sealed = cipher.encrypt("https://example.com/invite/tok");
+    // Flip a decoded ciphertext byte: editing a base64 character may only touch padding bits.
+    byte[] bytes = Base64.getDecoder().decode(sealed.substring(EmailBodyCipher.PREFIX.length()));
+    bytes[bytes.length - 1] ^= 1;
+    String tampered = EmailBodyCipher.PREFIX + Base64.getEncoder().encodeToString(bytes);
+
+    assertThatThrownBy(() -> cipher.decrypt(tampered)).isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> new EmailBodyCipher("other-key", true).decrypt(sealed))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void keyIsRequiredOnlyWhileEmailIsEnabled() {
+    assertThatThrownBy(() -> new EmailBodyCipher("", true))
+        .isInstanceOf(IllegalStateException.class);
+
+    EmailBodyCipher disabled = new EmailBodyCipher("", false);
+    assertThatThrownBy(() -> disabled.encrypt("body")).isInstanceOf(IllegalStateException.class);
+  }
+}
@@ -0,0 +1,195 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import edens.zac.portfolio.backend.AbstractPostgresIntegrationTest;
+import edens.zac.portfolio.backend.dao.EmailOutboxRepository;
+import edens.zac.portfolio.backend.entity.EmailOutboxEntity;
+import edens.zac.portfolio.backend.loadtest.CapturingSesClient;
+import edens.zac.portfolio.backend.types.EmailOutboxStatus;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.services.sesv2.model.SendEmailRequest;
+import software.amazon.awssdk.services.sesv2.model.SendEmailResponse;
+import software.amazon.awssdk.services.sesv2.model.SesV2Exception;
+
+/**
+ * The outbox end to end against Postgres, with SES replaced by an in-process stub: messages commit
+ * and roll back with the caller's transaction, bodies are stored encrypted, transient failures come
+ * back after their backoff, and dead letters keep their sealed bodies and can be resent.
+ */
+class EmailOutboxIntegrationTest extends AbstractPostgresIntegrationTest {
+
+  @Autowired private EmailOutboxRepository outboxRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private FlakySesClient ses;
+  private EmailService emailService;
+  private EmailOutboxWorker worker;
+
+  /** Captures every send, throwing {@code failuresLeft} SES responses with this status first. */
+  static class FlakySesClient extends CapturingSesClient {
+    final AtomicInteger failuresLeft = new AtomicInteger();
+    volatile int failureStatus = 429;
+
+    FlakySesClient() {
+      super(100);
+    }
+
+    @Override
+    public SendEmailResponse sendEmail(SendEmailRequest request) {
+      if (failuresLeft.getAndDecrement() > 0) {
+        throw SesV2Exception.builder()
+            .message("stubbed SES failure")
+            .statusCode(failureStatus)
+            .build();
+      }
+      return super.sendEmail(request);
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate.update("DELETE FROM email_outbox");
+    ses = new FlakySesClient();
+    emailService =
+        new EmailService(
+            ses,
+            outboxRepository,
+            new EmailBodyCipher("integration-outbox-key", true),
+            true,
+            "noreply@example.com",
+            "https://example.com");
+    worker = new EmailOutboxWorker(outboxRepository, emailService, true, 1000, 3, 1, 60, 3);
+  }
+
+  private Long onlyMessageId() {
+    return jdbcTemplate.queryForObject("SELECT id FROM email_outbox", Long.class);
+  }
+
+  private void makeDueNow(Long id) {
+    jdbcTemplate.update("UPDATE email_outbox SET next_attempt_at = now() WHERE id = ?", id);
+  }
+
+  @Test
+  void queuedMessageIsDeliveredAndItsBodiesDropped() {
+    emailService.sendGalleryPasswordEmail("client@example.com", "Smith", "smith", "pw-1234");
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT html_body || text_body FROM email_outbox", String.class))
+        .doesNotContain("pw-1234");
+
+    assertThat(worker.drain()).isEqualTo(1);
+
+    assertThat(ses.emails())
+        .singleElement()
+        .satisfies(
+            email -> {
+              assertThat(email.to()).containsExactly("client@example.com");
+              assertThat(email.text()).contains("pw-1234");
+            });
+    EmailOutboxEntity sent = outboxRepository.findById(onlyMessageId()).orElseThrow();
+    assertThat(sent.getStatus()).isEqualTo(EmailOutboxStatus.SENT);
+    assertThat(sent.getMessageId()).isEqualTo(ses.emails().getFirst().messageId());
+    assertThat(sent.getHtmlBody()).isNull();
+    assertThat(sent.getTextBody()).isNull();
+    assertThat(worker.drain()).isZero();
+  }
+
+  @Test
+  void rolledBackTransactionQueuesNothing() {
+    new TransactionTemplate(transactionManager)
+        .executeWithoutResult(
+            status -> {
+              emailService.sendInviteEmail("new@example.com", "New", "https://example.com/i/x");
+              status.setRollbackOnly();
+            });
+
+    assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM email_outbox", Long.class))
+        .isZero();
+  }
+
+  @Test
+  void throttledMessageWaitsForItsBackoffThenSends() {
+    ses.failuresLeft.set(1);
+    emailService.sendInviteEmail("new@example.com", "New", "https://example.com/i/x");
+
+    assertThat(worker.drain()).isZero();
+    Long id = onlyMessageId();
+    EmailOutboxEntity retrying = outboxRepository.findById(id).orElseThrow();
+    assertThat(retrying.getStatus()).isEqualTo(EmailOutboxStatus.PENDING);
+    assertThat(retrying.getAttempts()).isEqualTo(1);
+    assertThat(retrying.getLastError()).contains("stubbed SES failure");
+    // Not due until the backoff has passed.
+    assertThat(worker.drain()).isZero();
+
+    makeDueNow(id);
+    assertThat(worker.drain()).isEqualTo(1);
+
+    EmailOutboxEntity sent = outboxRepository.findById(id).orElseThrow();
+    assertThat(sent.getStatus()).isEqualTo(EmailOutboxStatus.SENT);
+    assertThat(sent.getAttempts()).isEqualTo(2);
+    assertThat(ses.sentCount()).isEqualTo(1);
+  }
+
+  @Test
+  void exhaustedMessageIsDeadLetteredAndCanBeResent() {
+    ses.failuresLeft.set(3);
+    emailService.sendInviteEmail("new@example.com", "New", "https://example.com/i/x");
+    Long id = onlyMessageId();
+
+    for (int attempt = 0; attempt < 3; attempt++) {
+      makeDueNow(id);
+      worker.drain();
+    }
+
+    EmailOutboxEntity dead = outboxRepository.findById(id).orElseThrow();
+    assertThat(dead.getStatus()).isEqualTo(EmailOutboxStatus.DEAD);
+    assertThat(dead.getHtmlBody()).startsWith(EmailBodyCipher.PREFIX).doesNotContain("/i/x");
+    assertThat(worker.list(EmailOutboxStatus.DEAD, 50, 0).messages())
+        .singleElement()
+        .satisfies(m -> assertThat(m.id()).isEqualTo(id));
+
+    assertThat(worker.resend(id)).isTrue();
+    assertThat(worker.resend(id)).isFalse();
+    assertThat(worker.drain()).isEqualTo(1);
+    assertThat(outboxRepository.findById(id).orElseThrow().getStatus())
+        .isEqualTo(EmailOutboxStatus.SENT);
+    assertThat(ses.emails().getLast().text()).contains("https://example.com/i/x");
+  }
+
+  @Test
+  void deadLetterWithoutBodiesIsNotResent() {
+    ses.failuresLeft.set(1);
+    ses.failureStatus = 400;
+    emailService.sendInviteEmail("gone@example.com", "Gone", "https://example.com/i/y");
+    Long id = onlyMessageId();
+    worker.drain();
+    // A dead letter from before V65, whose plaintext bodies the migration dropped.
+    jdbcTemplate.update(
+        "UPDATE email_outbox SET html_body = NULL, text_body = NULL WHERE id = ?", id);
+
+    assertThat(worker.resend(id)).isFalse();
+    assertThat(outboxRepository.findById(id).orElseThrow().getStatus())
+        .isEqualTo(EmailOutboxStatus.DEAD);
+  }
+
+  @Test
+  void rejectionIsDeadLetteredWithoutRetry() {
+    ses.failuresLeft.set(1);
+    ses.failureStatus = 400;
+    emailService.sendInviteEmail("bounce@example.com", null, "https://example.com/i/x");
+
+    worker.drain();
+
+    EmailOutboxEntity dead = outboxRepository.findById(onlyMessageId()).orElseThrow();
+    assertThat(dead.getStatus()).isEqualTo(EmailOutboxStatus.DEAD);
+    assertThat(dead.getAttempts()).isEqualTo(1);
+  }
+}
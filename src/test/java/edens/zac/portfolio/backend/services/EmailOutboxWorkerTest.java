@@ -0,0 +1,153 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edens.zac.portfolio.backend.dao.EmailOutboxRepository;
+import edens.zac.portfolio.backend.entity.EmailOutboxEntity;
+import edens.zac.portfolio.backend.types.EmailOutboxStatus;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxWorkerTest {
+
+  @Mock private EmailOutboxRepository outboxRepository;
+  @Mock private EmailService emailService;
+
+  private EmailOutboxWorker worker(boolean enabled, double maxSendRate) {
+    return new EmailOutboxWorker(
+        outboxRepository, emailService, enabled, maxSendRate, 3, 30, 3600, 3);
+  }
+
+  private static EmailOutboxEntity message(long id, int attempts) {
+    return EmailOutboxEntity.builder()
+        .id(id)
+        .toAddress("client@example.com")
+        .subject("Your gallery is ready")
+        .htmlBody("<p>hi</p>")
+        .textBody("hi")
+        .label("gallery password email (slug=smith)")
+        .status(EmailOutboxStatus.SENDING)
+        .attempts(attempts)
+        .build();
+  }
+
+  @Test
+  void disabled_claimsNothing() {
+    assertThat(worker(false, 14).drain()).isZero();
+
+    verify(outboxRepository, never()).claimDue(anyInt(), anyInt());
+  }
+
+  @Test
+  void delivered_isMarkedSent() {
+    when(outboxRepository.claimDue(14, EmailOutboxWorker.CLAIM_LEASE_SECONDS))
+        .thenReturn(List.of(message(7L, 1)));
+    when(emailService.deliver(any()))
+        .thenReturn(new EmailService.Delivery(true, "m-1", false, null));
+
+    assertThat(worker(true, 14).drain()).isEqualTo(1);
+
+    verify(outboxRepository).markSent(7L, "m-1");
+  }
+
+  @Test
+  void transientFailure_isRetriedWithBackoff() {
+    when(outboxRepository.claimDue(anyInt(), anyInt())).thenReturn(List.of(message(7L, 2)));
+    when(emailService.deliver(any()))
+        .thenReturn(new EmailService.Delivery(false, null, true, "TooManyRequestsException: slow"));
+
+    assertThat(worker(true, 14).drain()).isZero();
+
+    // Second failed attempt: the 30s base doubled once.
+    verify(outboxRepository).markRetry(7L, 60, "TooManyRequestsException: slow");
+    verify(outboxRepository, never()).markDead(anyLong(), anyString());
+  }
+
+  @Test
+  void permanentFailure_isDeadLettered() {
+    when(outboxRepository.claimDue(anyInt(), anyInt())).thenReturn(List.of(message(7L, 1)));
+    when(emailService.deliver(any()))
+        .thenReturn(new EmailService.Delivery(false, null, false, "MessageRejected: bad address"));
+
+    worker(true, 14).drain();
+
+    verify(outboxRepository).markDead(7L, "MessageRejected: bad address");
+    verify(outboxRepository, never()).markRetry(anyLong(), anyLong(), anyString());
+  }
+
+  @Test
+  void transientFailureOnTheLastAttempt_isDeadLettered() {
+    when(outboxRepository.claimDue(anyInt(), anyInt())).thenReturn(List.of(message(7L, 3)));
+    when(emailService.deliver(any()))
+        .thenReturn(new EmailService.Delivery(false, null, true, "SdkClientException: timeout"));
+
+    worker(true, 14).drain();
+
+    verify(outboxRepository).markDead(7L, "SdkClientException: timeout");
+  }
+
+  @Test
+  void backoffDoublesPerAttemptUpToTheCap() {
+    EmailOutboxWorker worker = worker(true, 14);
+
+    assertThat(IntStream.rangeClosed(1, 9).mapToLong(worker::backoffSeconds).toArray())
+        .containsExactly(30, 60, 120, 240, 480, 960, 1920, 3600, 3600);
+  }
+
+  @Test
+  void sendsAreSpacedToTheRateCap() {
+    when(outboxRepository.claimDue(anyInt(), anyInt()))
+        .thenReturn(List.of(message(1L, 1), message(2L, 1), message(3L, 1), message(4L, 1)));
+    when(emailService.deliver(any())).thenReturn(new EmailService.Delivery(true, "m", false, null));
+    EmailOutboxWorker worker = worker(true, 20);
+
+    long started = System.nanoTime();
+    worker.drain();
+    long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+    // 20/s is one send per 50ms: the first goes at once, the other three wait their slots.
+    assertThat(elapsedMillis).isGreaterThanOrEqualTo(140);
+  }
+
+  @Test
+  void resend_onlyRequeuesDeadMessages() {
+    when(outboxRepository.requeueDead(7L)).thenReturn(1);
+    when(outboxRepository.requeueDead(8L)).thenReturn(0);
+    EmailOutboxWorker worker = worker(true, 14);
+
+    assertThat(worker.resend(7L)).isTrue();
+    assertThat(worker.resend(8L)).isFalse();
+  }
+
+  @Test
+  void list_clampsThePageAndDropsBodies() {
+    when(outboxRepository.findByStatus(EmailOutboxStatus.DEAD, 200, 0))
+        .thenReturn(List.of(message(7L, 8)));
+    when(outboxRepository.countByStatus(EmailOutboxStatus.DEAD)).thenReturn(1L);
+
+    EmailOutboxWorker.OutboxPage page = worker(true, 14).list(EmailOutboxStatus.DEAD, 5000, -3);
+
+    assertThat(page.limit()).isEqualTo(200);
+    assertThat(page.offset()).isZero();
+    assertThat(page.total()).isEqualTo(1);
+    assertThat(page.messages())
+        .singleElement()
+        .satisfies(
+            m -> {
+              assertThat(m.id()).isEqualTo(7L);
+              assertThat(m.attempts()).isEqualTo(8);
+            });
+  }
+}
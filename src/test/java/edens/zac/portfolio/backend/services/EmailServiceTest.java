@@ -2,10 +2,13 @@ package edens.zac.portfolio.backend.services;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import edens.zac.portfolio.backend.dao.EmailOutboxRepository;
+import edens.zac.portfolio.backend.entity.EmailOutboxEntity;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,15 +19,57 @@ import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.services.sesv2.SesV2Client;
 import software.amazon.awssdk.services.sesv2.model.Body;
 import software.amazon.awssdk.services.sesv2.model.SendEmailRequest;
+import software.amazon.awssdk.services.sesv2.model.SendEmailResponse;
 import software.amazon.awssdk.services.sesv2.model.SesV2Exception;
 
 @ExtendWith(MockitoExtension.class)
 class EmailServiceTest {
 
   @Mock private SesV2Client sesClient;
+  @Mock private EmailOutboxRepository outboxRepository;
+
+  private final EmailBodyCipher bodyCipher = new EmailBodyCipher("test-outbox-key", true);
 
   private EmailService newService(boolean enabled) {
-    return new EmailService(sesClient, enabled, "no-reply@edens.zac", "https://edens.zac");
+    return new EmailService(
+        sesClient,
+        outboxRepository,
+        bodyCipher,
+        enabled,
+        "no-reply@edens.zac",
+        "https://edens.zac");
+  }
+
+  /** The message the last send queued, as the outbox worker would claim it. */
+  private EmailOutboxEntity queued() {
+    ArgumentCaptor<String> to = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<String> subject = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<String> html = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<String> text = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<String> label = ArgumentCaptor.forClass(String.class);
+    verify(outboxRepository)
+        .insert(to.capture(), subject.capture(), html.capture(), text.capture(), label.capture());
+    return EmailOutboxEntity.builder()
+        .id(1L)
+        .toAddress(to.getValue())
+        .subject(subject.getValue())
+        .htmlBody(html.getValue())
+        .textBody(text.getValue())
+        .label(label.getValue())
+        .attempts(1)
+        .build();
+  }
+
+  /** Deliver the queued message and return the request SES received. */
+  private SendEmailRequest deliverQueued(EmailService service) {
+    when(sesClient.sendEmail(any(SendEmailRequest.class)))
+        .thenReturn(SendEmailResponse.builder().messageId("ses-1").build());
+    EmailService.Delivery delivery = service.deliver(queued());
+    assertThat(delivery.sent()).isTrue();
+    assertThat(delivery.messageId()).isEqualTo("ses-1");
+    ArgumentCaptor<SendEmailRequest> captor = ArgumentCaptor.forClass(SendEmailRequest.class);
+    verify(sesClient).sendEmail(captor.capture());
+    return captor.getValue();
   }
 
   @Nested
@@ -41,6 +86,8 @@ class EmailServiceTest {
       assertThat(result.sent()).isFalse();
       assertThat(result.reason()).isEqualTo("email-disabled");
       verify(sesClient, never()).sendEmail(any(SendEmailRequest.class));
+      verify(outboxRepository, never())
+          .insert(anyString(), anyString(), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -56,6 +103,8 @@ class EmailServiceTest {
       assertThat(result.sent()).isFalse();
       assertThat(result.reason()).isEqualTo("email-disabled");
       verify(sesClient, never()).sendEmail(any(SendEmailRequest.class));
+      verify(outboxRepository, never())
+          .insert(anyString(), anyString(), anyString(), anyString(), anyString());
     }
   }
 
@@ -70,10 +119,17 @@ class EmailServiceTest {
           service.sendGalleryPasswordEmail(
               "client@example.com", "Smith Wedding", "smith-wedding", "abcdef12");
 
-      ArgumentCaptor<SendEmailRequest> captor = ArgumentCaptor.forClass(SendEmailRequest.class);
-      verify(sesClient).sendEmail(captor.capture());
-
-      SendEmailRequest sent = captor.getValue();
+      // Nothing reaches SES inside the caller's request; the outbox worker delivers it.
+      verify(sesClient, never()).sendEmail(any(SendEmailRequest.class));
+      // The password is never queued in the clear.
+      EmailOutboxEntity stored = queued();
+      assertThat(stored.getHtmlBody())
+          .startsWith(EmailBodyCipher.PREFIX)
+          .doesNotContain("abcdef12");
+      assertThat(stored.getTextBody())
+          .startsWith(EmailBodyCipher.PREFIX)
+          .doesNotContain("abcdef12");
+      SendEmailRequest sent = deliverQueued(service);
       assertThat(sent.fromEmailAddress()).isEqualTo("no-reply@edens.zac");
       assertThat(sent.destination().toAddresses()).containsExactly("client@example.com");
 
@@ -103,9 +159,7 @@ class EmailServiceTest {
       service.sendGalleryPasswordEmail(
           "client@example.com", "<script>alert('xss')</script>", "evil-slug", "safe-password-123");
 
-      ArgumentCaptor<SendEmailRequest> captor = ArgumentCaptor.forClass(SendEmailRequest.class);
-      verify(sesClient).sendEmail(captor.capture());
-      String htmlBody = captor.getValue().content().simple().body().html().data();
+      String htmlBody = deliverQueued(service).content().simple().body().html().data();
 
       assertThat(htmlBody).doesNotContain("<script>alert('xss')</script>");
       assertThat(htmlBody).contains("&lt;script&gt;");
@@ -117,10 +171,9 @@ class EmailServiceTest {
 
       service.sendGalleryPasswordEmail("client@example.com", "Title", "slug", "p<>&\"'word");
 
-      ArgumentCaptor<SendEmailRequest> captor = ArgumentCaptor.forClass(SendEmailRequest.class);
-      verify(sesClient).sendEmail(captor.capture());
-      String htmlBody = captor.getValue().content().simple().body().html().data();
-      String textBody = captor.getValue().content().simple().body().text().data();
+      SendEmailRequest sent = deliverQueued(service);
+      String htmlBody = sent.content().simple().body().html().data();
+      String textBody = sent.content().simple().body().text().data();
 
       // HTML body: special chars are escaped.
       assertThat(htmlBody).contains("p&lt;&gt;&amp;&quot;&#39;word");
@@ -138,10 +191,9 @@ class EmailServiceTest {
           service.sendInviteEmail(
               "invitee@example.com", "Dana", "https://edens.zac/invite/tok-123");
 
-      ArgumentCaptor<SendEmailRequest> captor = ArgumentCaptor.forClass(SendEmailRequest.class);
-      verify(sesClient).sendEmail(captor.capture());
-
-      SendEmailRequest sent = captor.getValue();
+      // Nothing reaches SES inside the caller's request; the outbox worker delivers it.
+      verify(sesClient, never()).sendEmail(any(SendEmailRequest.class));
+      SendEmailRequest sent = deliverQueued(service);
       assertThat(sent.fromEmailAddress()).isEqualTo("no-reply@edens.zac");
       assertThat(sent.destination().toAddresses()).containsExactly("invitee@example.com");
       assertThat(sent.content().simple().subject().data()).contains("invited");
@@ -163,9 +215,7 @@ class EmailServiceTest {
 
       service.sendInviteEmail("invitee@example.com", null, "https://edens.zac/invite/tok-123");
 
-      ArgumentCaptor<SendEmailRequest> captor = ArgumentCaptor.forClass(SendEmailRequest.class);
-      verify(sesClient).sendEmail(captor.capture());
-      Body body = captor.getValue().content().simple().body();
+      Body body = deliverQueued(service).content().simple().body();
 
       assertThat(body.text().data()).startsWith("Hello,");
       assertThat(body.html().data()).contains("Hello,");
@@ -180,54 +230,78 @@ class EmailServiceTest {
       service.sendInviteEmail(
           "invitee@example.com", "<script>alert('xss')</script>", "https://edens.zac/invite/tok");
 
-      ArgumentCaptor<SendEmailRequest> captor = ArgumentCaptor.forClass(SendEmailRequest.class);
-      verify(sesClient).sendEmail(captor.capture());
-      String htmlBody = captor.getValue().content().simple().body().html().data();
+      String htmlBody = deliverQueued(service).content().simple().body().html().data();
 
       assertThat(htmlBody).doesNotContain("<script>alert('xss')</script>");
       assertThat(htmlBody).contains("&lt;script&gt;");
     }
 
     @Test
-    void inviteSesExceptionReturnsErrorReason() {
+    void sesRejectionIsNotRetryable() {
       EmailService service = newService(true);
+      service.sendInviteEmail("invitee@example.com", "Dana", "https://edens.zac/invite/tok");
       when(sesClient.sendEmail(any(SendEmailRequest.class)))
-          .thenThrow(SesV2Exception.builder().message("rejected").build());
+          .thenThrow(SesV2Exception.builder().message("rejected").statusCode(400).build());
 
-      EmailService.SendResult result =
-          service.sendInviteEmail("invitee@example.com", "Dana", "https://edens.zac/invite/tok");
+      EmailService.Delivery delivery = service.deliver(queued());
 
-      assertThat(result.sent()).isFalse();
-      assertThat(result.reason()).isEqualTo("ses-error");
+      assertThat(delivery.sent()).isFalse();
+      assertThat(delivery.retryable()).isFalse();
+      assertThat(delivery.error()).contains("rejected");
     }
 
     @Test
-    void sesExceptionReturnsErrorReason() {
+    void sesThrottleIsRetryable() {
       EmailService service = newService(true);
+      service.sendGalleryPasswordEmail("client@example.com", "Title", "slug", "password-1234");
       when(sesClient.sendEmail(any(SendEmailRequest.class)))
-          .thenThrow(SesV2Exception.builder().message("rejected").build());
+          .thenThrow(
+              SesV2Exception.builder()
+                  .message("Maximum sending rate exceeded")
+                  .statusCode(429)
+                  .build());
 
-      EmailService.SendResult result =
-          service.sendGalleryPasswordEmail("client@example.com", "Title", "slug", "password-1234");
+      EmailService.Delivery delivery = service.deliver(queued());
 
-      assertThat(result.sent()).isFalse();
-      assertThat(result.reason()).isEqualTo("ses-error");
+      assertThat(delivery.sent()).isFalse();
+      assertThat(delivery.retryable()).isTrue();
+    }
+
+    @Test
+    void bodySealedUnderAnotherKeyIsDeadLettered() {
+      EmailService service = newService(true);
+      service.sendInviteEmail("invitee@example.com", "Dana", "https://edens.zac/invite/tok");
+      EmailService rotated =
+          new EmailService(
+              sesClient,
+              outboxRepository,
+              new EmailBodyCipher("another-key", true),
+              true,
+              "no-reply@edens.zac",
+              "https://edens.zac");
+
+      EmailService.Delivery delivery = rotated.deliver(queued());
+
+      assertThat(delivery.sent()).isFalse();
+      assertThat(delivery.retryable()).isFalse();
+      verify(sesClient, never()).sendEmail(any(SendEmailRequest.class));
     }
 
     @Test
-    void sdkClientExceptionReturnsErrorReason() {
+    void sdkClientExceptionIsRetryable() {
       // Network failure / credential failure / region misconfig throws SdkClientException
-      // (NOT a subclass of SesV2Exception). Without the widened catch, this would crash with a
-      // 500 instead of returning a typed reason.
+      // (NOT a subclass of SesV2Exception). Without the widened catch, the worker pass would
+      // crash instead of scheduling a retry.
       EmailService service = newService(true);
+      service.sendGalleryPasswordEmail("client@example.com", "Title", "slug", "password-1234");
       when(sesClient.sendEmail(any(SendEmailRequest.class)))
           .thenThrow(SdkClientException.builder().message("connection refused").build());
 
-      EmailService.SendResult result =
-          service.sendGalleryPasswordEmail("client@example.com", "Title", "slug", "password-1234");
+      EmailService.Delivery delivery = service.deliver(queued());
 
-      assertThat(result.sent()).isFalse();
-      assertThat(result.reason()).isEqualTo("ses-error");
+      assertThat(delivery.sent()).isFalse();
+      assertThat(delivery.retryable()).isTrue();
+      assertThat(delivery.error()).contains("connection refused");
     }
   }
 }
@@ -0,0 +1,82 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class GeohashUtilTest {
+
+  @Test
+  void encodeMatchesKnownHashes() {
+    assertThat(GeohashUtil.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+    assertThat(GeohashUtil.encode(-25.382708, -49.265506, 9)).isEqualTo("6gkzwgjzn");
+    assertThat(GeohashUtil.encode(0, 0, 1)).isEqualTo("s");
+    assertThat(GeohashUtil.encode(-90, -180, 3)).isEqualTo("000");
+  }
+
+  @Test
+  void shorterHashIsAPrefixOfTheLongerOne() {
+    String full = GeohashUtil.encode(47.6062, -122.3321, GeohashUtil.STORED_PRECISION);
+    for (int precision = 1; precision < GeohashUtil.STORED_PRECISION; precision++) {
+      assertThat(full).startsWith(GeohashUtil.encode(47.6062, -122.3321, precision));
+    }
+  }
+
+  @Test
+  void encodeRejectsPrecisionOutOfRange() {
+    assertThatThrownBy(() -> GeohashUtil.encode(0, 0, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> GeohashUtil.encode(0, 0, 13))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void precisionGrowsWithZoomAndIsCapped() {
+    assertThat(GeohashUtil.precisionForZoom(0)).isEqualTo(1);
+    assertThat(GeohashUtil.precisionForZoom(2)).isEqualTo(1);
+    assertThat(GeohashUtil.precisionForZoom(3)).isEqualTo(2);
+    assertThat(GeohashUtil.precisionForZoom(6)).isEqualTo(3);
+    assertThat(GeohashUtil.precisionForZoom(11)).isEqualTo(5);
+    assertThat(GeohashUtil.precisionForZoom(18)).isEqualTo(GeohashUtil.MAX_CLUSTER_PRECISION);
+    assertThat(GeohashUtil.precisionForZoom(22)).isEqualTo(GeohashUtil.MAX_CLUSTER_PRECISION);
+  }
+
+  @Test
+  void wholeWorldIsCoveredByTheTopLevelCells() {
+    GeohashUtil.Bounds world = new GeohashUtil.Bounds(-90, -180, 90, 180);
+
+    List<String> cells = GeohashUtil.coveringCells(world, 1);
+
+    assertThat(cells).hasSize(32).doesNotHaveDuplicates();
+    assertThat(GeohashUtil.cellCount(world, 1)).isEqualTo(32);
+  }
+
+  @Test
+  void coveringCellsContainEveryPointInTheBox() {
+    GeohashUtil.Bounds box = new GeohashUtil.Bounds(47.5, -122.5, 47.8, -122.1);
+
+    List<String> cells = GeohashUtil.coveringCells(box, 4);
+
+    assertThat(cells).hasSize((int) GeohashUtil.cellCount(box, 4));
+    for (double lat = 47.5; lat <= 47.8; lat += 0.05) {
+      for (double lng = -122.5; lng <= -122.1; lng += 0.05) {
+        assertThat(cells).contains(GeohashUtil.encode(lat, lng, 4));
+      }
+    }
+  }
+
+  @Test
+  void boxAcrossTheAntimeridianCoversBothSides() {
+    GeohashUtil.Bounds box = new GeohashUtil.Bounds(-20, 175, -15, -175);
+
+    List<String> cells = GeohashUtil.coveringCells(box, 2);
+
+    assertThat(box.wrapsAntimeridian()).isTrue();
+    assertThat(cells)
+        .contains(GeohashUtil.encode(-17, 178, 2), GeohashUtil.encode(-17, -178, 2))
+        .doesNotContain(GeohashUtil.encode(-17, 0, 2));
+    assertThat(GeohashUtil.cellCount(box, 2)).isEqualTo(cells.size());
+  }
+}
@@ -0,0 +1,178 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import edens.zac.portfolio.backend.AbstractPostgresIntegrationTest;
+import edens.zac.portfolio.backend.dao.CollectionRepository;
+import edens.zac.portfolio.backend.dao.ContentRepository;
+import edens.zac.portfolio.backend.dao.ImageAudienceRepository.AudienceDrift;
+import edens.zac.portfolio.backend.dao.RoleRepository;
+import edens.zac.portfolio.backend.entity.CollectionContentEntity;
+import edens.zac.portfolio.backend.types.AccessLevel;
+import edens.zac.portfolio.backend.types.CollectionVisibility;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The {@code image_audience} projection (V58) follows every write that changes who can see an image
+ * -- collection visibility, membership add/hide/remove, role grants and role deletion -- only once
+ * the write commits, and the check and scheduled verifier catch and repair a writer that bypasses
+ * the hooks.
+ */
+class ImageAudienceIntegrationTest extends AbstractPostgresIntegrationTest {
+
+  @Autowired private ImageAudienceService imageAudienceService;
+  @Autowired private CollectionRepository collectionRepository;
+  @Autowired private ContentRepository contentRepository;
+  @Autowired private RoleRepository roleRepository;
+  @Autowired private TransactionTemplate transactionTemplate;
+  @Autowired private JdbcTemplate jdbc;
+
+  /**
+   * Other integration tests write memberships with raw SQL (bypassing the hooks) into the shared
+   * container, so start every test from a freshly rebuilt table.
+   */
+  @BeforeEach
+  void rebuildAudience() {
+    imageAudienceService.rebuild();
+  }
+
+  private long seedUser() {
+    String email = "audience-" + UUID.randomUUID() + "@example.com";
+    return jdbc.queryForObject(
+        "INSERT INTO users (name, email, webauthn_user_handle, status) "
+            + "VALUES (?, ?, gen_random_uuid(), 'ACTIVE') RETURNING id",
+        Long.class,
+        email,
+        email);
+  }
+
+  private long seedCollection(CollectionVisibility visibility) {
+    String slug = "audience-" + UUID.randomUUID();
+    return jdbc.queryForObject(
+        "INSERT INTO collection (title, slug, visibility) VALUES (?, ?, ?) RETURNING id",
+        Long.class,
+        slug,
+        slug,
+        visibility.name());
+  }
+
+  private long seedImage() {
+    long id =
+        jdbc.queryForObject(
+            "INSERT INTO content (content_type) VALUES ('IMAGE') RETURNING id", Long.class);
+    jdbc.update(
+        "INSERT INTO content_image (id, title, image_url_web) VALUES (?, ?, ?)",
+        id,
+        "img-" + id,
+        "https://cdn.example.com/audience-" + id + ".jpg");
+    return id;
+  }
+
+  /** Link through the repository write path, so the hook runs. */
+  private CollectionContentEntity link(long collectionId, long imageId) {
+    return collectionRepository.saveContent(
+        CollectionContentEntity.builder()
+            .collectionId(collectionId)
+            .contentId(imageId)
+            .orderIndex(0)
+            .visible(true)
+            .build());
+  }
+
+  private List<Long> storedRoleIds(long imageId) {
+    return jdbc.queryForList(
+        "SELECT unnest(role_ids) FROM image_audience WHERE image_id = ?", Long.class, imageId);
+  }
+
+  private void assertConsistent() {
+    assertThat(imageAudienceService.check().drift()).isEmpty();
+  }
+
+  @Test
+  void visibilityAndMembershipWritesKeepAudienceCurrent() {
+    long viewer = seedUser();
+    long collection = seedCollection(CollectionVisibility.UNLISTED);
+    long image = seedImage();
+
+    CollectionContentEntity membership = link(collection, image);
+    assertThat(contentRepository.isImageVisibleToUser(image, viewer)).isFalse();
+    assertConsistent();
+
+    collectionRepository.updateVisibility(collection, CollectionVisibility.LISTED);
+    assertThat(contentRepository.isImageVisibleToUser(image, viewer)).isTrue();
+    assertConsistent();
+
+    collectionRepository.updateContentVisible(membership.getId(), false);
+    assertThat(contentRepository.isImageVisibleToUser(image, viewer)).isFalse();
+    assertConsistent();
+
+    collectionRepository.updateContentVisible(membership.getId(), true);
+    collectionRepository.removeContentFromCollection(collection, List.of(image));
+    assertThat(contentRepository.isImageVisibleToUser(image, viewer)).isFalse();
+    assertConsistent();
+  }
+
+  @Test
+  void roleGrantsAndRoleDeletionFlowIntoAudience() {
+    long member = seedUser();
+    long outsider = seedUser();
+    long collection = seedCollection(CollectionVisibility.UNLISTED);
+    long image = seedImage();
+    link(collection, image);
+
+    long roleId = roleRepository.createRole("audience-" + UUID.randomUUID(), null);
+    roleRepository.addMember(roleId, member, null);
+    roleRepository.setCollectionGrant(roleId, collection, AccessLevel.GENERAL, null);
+
+    assertThat(storedRoleIds(image)).containsExactly(roleId);
+    assertThat(contentRepository.isImageVisibleToUser(image, member)).isTrue();
+    assertThat(contentRepository.isImageVisibleToUser(image, outsider)).isFalse();
+    assertConsistent();
+
+    roleRepository.deleteRole(roleId);
+    assertThat(storedRoleIds(image)).isEmpty();
+    assertThat(contentRepository.isImageVisibleToUser(image, member)).isFalse();
+    assertConsistent();
+  }
+
+  @Test
+  void rolledBackWriteLeavesNoAudienceRow() {
+    long viewer = seedUser();
+    long collection = seedCollection(CollectionVisibility.LISTED);
+    long image = seedImage();
+
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          link(collection, image);
+          status.setRollbackOnly();
+        });
+
+    assertThat(contentRepository.isImageVisibleToUser(image, viewer)).isFalse();
+    assertConsistent();
+  }
+
+  @Test
+  void checkReportsRawWriteDriftAndVerifierRepairsIt() {
+    long viewer = seedUser();
+    long collection = seedCollection(CollectionVisibility.LISTED);
+    long image = seedImage();
+    jdbc.update(
+        "INSERT INTO collection_content (collection_id, content_id, visible) VALUES (?, ?, true)",
+        collection,
+        image);
+
+    List<AudienceDrift> drift = imageAudienceService.check().drift();
+    assertThat(drift).containsExactly(new AudienceDrift(image, null, null, true, List.of()));
+    assertThat(contentRepository.isImageVisibleToUser(image, viewer)).isFalse();
+
+    assertThat(imageAudienceService.verify()).isEqualTo(1);
+    assertThat(contentRepository.isImageVisibleToUser(image, viewer)).isTrue();
+    assertConsistent();
+  }
+}
@@ -0,0 +1,58 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edens.zac.portfolio.backend.dao.ImageAudienceRepository;
+import edens.zac.portfolio.backend.dao.ImageAudienceRepository.AudienceDrift;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ImageAudienceServiceTest {
+
+  @Mock private ImageAudienceRepository imageAudienceRepository;
+
+  @InjectMocks private ImageAudienceService imageAudienceService;
+
+  @Test
+  void verify_consistentTable_refreshesNothing() {
+    when(imageAudienceRepository.findDrift(ImageAudienceService.DRIFT_SAMPLE_LIMIT))
+        .thenReturn(List.of());
+
+    assertThat(imageAudienceService.verify()).isZero();
+    verify(imageAudienceRepository, never()).refreshImages(any());
+  }
+
+  @Test
+  void verify_refreshesOnlyTheDriftedImages() {
+    when(imageAudienceRepository.findDrift(ImageAudienceService.DRIFT_SAMPLE_LIMIT))
+        .thenReturn(
+            List.of(
+                new AudienceDrift(4L, null, null, true, List.of()),
+                new AudienceDrift(9L, true, List.of(2L), null, null)));
+
+    assertThat(imageAudienceService.verify()).isEqualTo(2);
+    verify(imageAudienceRepository).refreshImages(List.of(4L, 9L));
+  }
+
+  @Test
+  void rebuild_reportsDriftFoundBeforeRebuilding() {
+    List<AudienceDrift> drift = List.of(new AudienceDrift(4L, null, null, true, List.of()));
+    when(imageAudienceRepository.findDrift(ImageAudienceService.DRIFT_SAMPLE_LIMIT))
+        .thenReturn(drift);
+    when(imageAudienceRepository.rebuild()).thenReturn(30);
+
+    ImageAudienceService.AudienceReport report = imageAudienceService.rebuild();
+
+    assertThat(report.rows()).isEqualTo(30);
+    assertThat(report.drift()).isEqualTo(drift);
+  }
+}
@@ -0,0 +1,204 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edens.zac.portfolio.backend.dao.CollectionRepository;
+import edens.zac.portfolio.backend.dao.ContentRepository;
+import edens.zac.portfolio.backend.dao.LocationRepository;
+import edens.zac.portfolio.backend.dao.PersonRepository;
+import edens.zac.portfolio.backend.dao.TagRepository;
+import edens.zac.portfolio.backend.entity.CollectionContentEntity;
+import edens.zac.portfolio.backend.entity.ContentImageEntity;
+import edens.zac.portfolio.backend.entity.TagEntity;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class ImageGroupCommitWriterTest {
+
+  @Mock private ImageProcessingService imageProcessingService;
+  @Mock private CollectionRepository collectionRepository;
+  @Mock private ContentRepository contentRepository;
+  @Mock private TagRepository tagRepository;
+  @Mock private PersonRepository personRepository;
+  @Mock private LocationRepository locationRepository;
+  @Mock private TransactionTemplate transactionTemplate;
+
+  @InjectMocks private ImageGroupCommitWriter writer;
+
+  private final TransactionStatus status = mock(TransactionStatus.class);
+
+  private final AtomicLong nextId = new AtomicLong(100);
+
+  @BeforeEach
+  void setUp() {
+    when(transactionTemplate.execute(any()))
+        .thenAnswer(
+            invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(status));
+  }
+
+  private ImageGroupCommitWriter.PendingImage pending(String filename, int orderIndex) {
+    return pending(filename, orderIndex, List.of());
+  }
+
+  private ImageGroupCommitWriter.PendingImage pending(
+      String filename, int orderIndex, List<String> tags) {
+    var data =
+        new ImageProcessingService.PreparedImageData(
+            filename,
+            "https://cdn/" + filename,
+            "https://cdn/" + filename + ".webp",
+            null,
+            null,
+            Map.of(),
+            tags,
+            List.of(),
+            2026,
+            1,
+            null,
+            null);
+    return new ImageGroupCommitWriter.PendingImage(data, filename, orderIndex);
+  }
+
+  private ImageProcessingService.DedupeResult created() {
+    return new ImageProcessingService.DedupeResult(
+        ContentImageEntity.builder().id(nextId.getAndIncrement()).build(),
+        ImageProcessingService.DedupeAction.CREATE);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void write_largeUpload_flushesOneBatchedTransactionPerGroup() {
+    List<ImageGroupCommitWriter.PendingImage> images = new ArrayList<>();
+    for (int i = 0; i < ImageGroupCommitWriter.GROUP_SIZE + 5; i++) {
+      images.add(pending("img" + i + ".jpg", i));
+    }
+    when(imageProcessingService.saveImageEntityWithDedupe(any(), any()))
+        .thenAnswer(invocation -> created());
+
+    var outcome = writer.write(1L, images);
+
+    assertThat(outcome.written()).hasSize(images.size());
+    assertThat(outcome.failures()).isEmpty();
+    verify(transactionTemplate, times(2)).execute(any());
+    ArgumentCaptor<List<CollectionContentEntity>> links = ArgumentCaptor.forClass(List.class);
+    verify(collectionRepository, times(2)).saveContentBatch(links.capture());
+    assertThat(links.getAllValues().get(0)).hasSize(ImageGroupCommitWriter.GROUP_SIZE);
+    assertThat(links.getAllValues().get(1)).hasSize(5);
+    assertThat(links.getAllValues().get(1).getLast().getOrderIndex()).isEqualTo(images.size() - 1);
+  }
+
+  @Test
+  void write_sharedTagAcrossGroup_isResolvedOnce() {
+    var images =
+        List.of(pending("a.jpg", 0, List.of("Portrait")), pending("b.jpg", 1, List.of("portrait")));
+    when(imageProcessingService.saveImageEntityWithDedupe(any(), any()))
+        .thenAnswer(invocation -> created());
+    when(tagRepository.findBySlug("portrait"))
+        .thenReturn(Optional.of(TagEntity.builder().id(7L).tagName("portrait").build()));
+
+    writer.write(1L, images);
+
+    verify(tagRepository, times(1)).findBySlug("portrait");
+    verify(tagRepository).addContentTagsBatch(Map.of(100L, List.of(7L), 101L, List.of(7L)));
+  }
+
+  @Test
+  void write_failingGroup_isRetriedRowByRowAndIsolatesTheBadImage() {
+    var good = pending("good.jpg", 0);
+    var bad = pending("bad.jpg", 1);
+    when(imageProcessingService.saveImageEntityWithDedupe(eq(good.data()), any()))
+        .thenAnswer(invocation -> created());
+    when(imageProcessingService.saveImageEntityWithDedupe(eq(bad.data()), any()))
+        .thenThrow(new RuntimeException("constraint violation"));
+
+    var outcome = writer.write(1L, List.of(good, bad));
+
+    assertThat(outcome.written())
+        .extracting(w -> w.source().filename())
+        .containsExactly("good.jpg");
+    assertThat(outcome.failures()).hasSize(1);
+    assertThat(outcome.failures().getFirst().filename()).isEqualTo("bad.jpg");
+    // One group attempt plus one retry per image
+    verify(transactionTemplate, times(3)).execute(any());
+  }
+
+  @Test
+  void write_failingTagLink_keepsTheImageAndReportsTheKeywordFailure() {
+    var tagged = pending("tagged.jpg", 0, List.of("Broken"));
+    var plain = pending("plain.jpg", 1);
+    when(imageProcessingService.saveImageEntityWithDedupe(any(), any()))
+        .thenAnswer(invocation -> created());
+    when(tagRepository.findBySlug("broken")).thenThrow(new RuntimeException("tag insert failed"));
+    Object savepoint = new Object();
+    when(status.createSavepoint()).thenReturn(savepoint);
+
+    var outcome = writer.write(1L, List.of(tagged, plain));
+
+    assertThat(outcome.written())
+        .extracting(w -> w.source().filename())
+        .containsExactly("tagged.jpg", "plain.jpg");
+    assertThat(outcome.failures())
+        .singleElement()
+        .satisfies(
+            f -> {
+              assertThat(f.filename()).isEqualTo("tagged.jpg");
+              assertThat(f.error()).contains("failed to associate tags");
+            });
+    // One transaction: the batch and then the lone retry rolled back to their savepoints
+    verify(transactionTemplate, times(1)).execute(any());
+    verify(status, times(2)).rollbackToSavepoint(savepoint);
+    verify(collectionRepository).saveContentBatch(anyList());
+  }
+
+  @Test
+  void write_skipAndAlreadyLinkedUpdate_areNotLinkedAgain() {
+    var skipped = pending("dup.jpg", 0);
+    var updated = pending("reexport.jpg", 1);
+    when(imageProcessingService.saveImageEntityWithDedupe(eq(skipped.data()), any()))
+        .thenReturn(
+            new ImageProcessingService.DedupeResult(
+                ContentImageEntity.builder().id(5L).build(),
+                ImageProcessingService.DedupeAction.SKIP));
+    when(imageProcessingService.saveImageEntityWithDedupe(eq(updated.data()), any()))
+        .thenReturn(
+            new ImageProcessingService.DedupeResult(
+                ContentImageEntity.builder().id(6L).build(),
+                ImageProcessingService.DedupeAction.UPDATE));
+    when(collectionRepository.findLinkedContentIds(1L, List.of(6L))).thenReturn(Set.of(6L));
+
+    var outcome = writer.write(1L, List.of(skipped, updated));
+
+    assertThat(outcome.written()).hasSize(2);
+    verify(collectionRepository).saveContentBatch(List.of());
+    verify(tagRepository, never()).addContentTagsBatch(anyMap());
+    verify(contentRepository, never()).addContentPeopleBatch(anyMap());
+    verify(locationRepository).replaceContentLocationsBatch(Map.of());
+    verify(collectionRepository, never()).saveContent(any());
+    verify(tagRepository, never()).saveContentTags(any(), anyList());
+  }
+}
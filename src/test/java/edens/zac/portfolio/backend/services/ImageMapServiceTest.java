@@ -0,0 +1,145 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import edens.zac.portfolio.backend.dao.ImageMapRepository;
+import edens.zac.portfolio.backend.model.AuthPrincipal;
+import edens.zac.portfolio.backend.model.ImageMapResponse;
+import edens.zac.portfolio.backend.model.Records;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+@ExtendWith(MockitoExtension.class)
+class ImageMapServiceTest {
+
+  @Mock private ImageMapRepository imageMapRepository;
+
+  @InjectMocks private ImageMapService imageMapService;
+
+  @AfterEach
+  void clearSecurityContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  private void setPrincipal(AuthPrincipal principal) {
+    var auth = new UsernamePasswordAuthenticationToken(principal, null, List.of());
+    SecurityContext context = SecurityContextHolder.createEmptyContext();
+    context.setAuthentication(auth);
+    SecurityContextHolder.setContext(context);
+  }
+
+  @Test
+  void clusters_anonymousViewer_sumsClusterCounts() {
+    List<Records.MapCluster> clusters =
+        List.of(
+            new Records.MapCluster("c23n", 7, 47.61, -122.33, 11L, "https://cdn/11.jpg"),
+            new Records.MapCluster("c22y", 2, 47.45, -122.30, 4L, "https://cdn/4.jpg"));
+    when(imageMapRepository.findClusters(any(), anyList(), anyInt(), isNull(), eq(false)))
+        .thenReturn(clusters);
+
+    ImageMapResponse response = imageMapService.clusters(47.3, -122.6, 47.8, -122.0, 8);
+
+    assertThat(response.precision()).isEqualTo(4);
+    assertThat(response.total()).isEqualTo(9);
+    assertThat(response.clusters()).isEqualTo(clusters);
+  }
+
+  @Test
+  void clusters_anonymousViewer_getsCoarsePrecisionAndRoundedPositions() {
+    when(imageMapRepository.findClusters(any(), anyList(), anyInt(), isNull(), eq(false)))
+        .thenReturn(List.of(new Records.MapCluster("c23nb", 1, 47.612345, -122.334567, 11L, "u")));
+
+    ImageMapResponse response = imageMapService.clusters(47.60, -122.34, 47.62, -122.32, 18);
+
+    assertThat(response.precision()).isEqualTo(ImageMapService.ANONYMOUS_MAX_PRECISION);
+    assertThat(response.clusters())
+        .singleElement()
+        .satisfies(
+            c -> {
+              assertThat(c.latitude()).isEqualTo(47.61);
+              assertThat(c.longitude()).isEqualTo(-122.33);
+            });
+  }
+
+  @Test
+  void clusters_signedInViewer_keepsFinePrecisionAndExactPositions() {
+    setPrincipal(new AuthPrincipal(42L, "a@example.com", false, true));
+    when(imageMapRepository.findClusters(any(), anyList(), anyInt(), eq(42L), eq(false)))
+        .thenReturn(List.of(new Records.MapCluster("c23nb", 1, 47.612345, -122.334567, 11L, "u")));
+
+    ImageMapResponse response = imageMapService.clusters(47.60, -122.34, 47.62, -122.32, 18);
+
+    assertThat(response.precision()).isGreaterThan(ImageMapService.ANONYMOUS_MAX_PRECISION);
+    assertThat(response.clusters().get(0).latitude()).isEqualTo(47.612345);
+  }
+
+  @Test
+  void clusters_signedInViewer_passesUserAndAdminFlag() {
+    setPrincipal(new AuthPrincipal(42L, "a@example.com", true, true));
+
+    imageMapService.clusters(10, 10, 20, 20, 5);
+
+    verify(imageMapRepository).findClusters(any(), anyList(), anyInt(), eq(42L), eq(true));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void clusters_hugeBoxAtHighZoom_isCoarsenedToTheCellBudgets() {
+    ArgumentCaptor<List<String>> cells = ArgumentCaptor.forClass(List.class);
+    ArgumentCaptor<Integer> precision = ArgumentCaptor.forClass(Integer.class);
+
+    ImageMapResponse response = imageMapService.clusters(-80, -170, 80, 170, 20);
+
+    verify(imageMapRepository)
+        .findClusters(any(), cells.capture(), precision.capture(), isNull(), eq(false));
+    GeohashUtil.Bounds bounds = new GeohashUtil.Bounds(-80, -170, 80, 170);
+    assertThat(response.precision()).isEqualTo(precision.getValue());
+    assertThat(GeohashUtil.cellCount(bounds, precision.getValue()))
+        .isLessThanOrEqualTo(ImageMapService.MAX_CLUSTER_CELLS);
+    assertThat(cells.getValue()).hasSizeLessThanOrEqualTo(ImageMapService.MAX_COVER_CELLS);
+    assertThat(cells.getValue()).allSatisfy(c -> assertThat(c.length()).isLessThanOrEqualTo(2));
+  }
+
+  @Test
+  void clusters_boxAcrossTheAntimeridian_isAccepted() {
+    imageMapService.clusters(-20, 175, -15, -175, 6);
+
+    ArgumentCaptor<GeohashUtil.Bounds> bounds = ArgumentCaptor.forClass(GeohashUtil.Bounds.class);
+    verify(imageMapRepository)
+        .findClusters(bounds.capture(), anyList(), anyInt(), isNull(), eq(false));
+    assertThat(bounds.getValue().wrapsAntimeridian()).isTrue();
+  }
+
+  @Test
+  void clusters_invalidBoxOrZoom_isRejected() {
+    assertThatThrownBy(() -> imageMapService.clusters(50, 0, 40, 10, 5))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> imageMapService.clusters(-91, 0, 40, 10, 5))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> imageMapService.clusters(0, -181, 10, 10, 5))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> imageMapService.clusters(0, 0, 10, Double.NaN, 5))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> imageMapService.clusters(0, 0, 10, 10, 23))
+        .isInstanceOf(IllegalArgumentException.class);
+    verifyNoInteractions(imageMapRepository);
+  }
+}
@@ -0,0 +1,80 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.drew.lang.GeoLocation;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+class ImageMetadataExtractorTest {
+
+  private final ImageMetadataExtractor extractor = new ImageMetadataExtractor();
+
+  private static byte[] encode(String format, int width, int height) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, out);
+    return out.toByteArray();
+  }
+
+  @Test
+  void headerDimensionsComeFromJpegAndPngHeaders() throws Exception {
+    assertThat(
+            ImageMetadataExtractor.readHeaderDimensions(
+                new ByteArrayInputStream(encode("jpg", 640, 427))))
+        .containsExactly(640, 427);
+    assertThat(
+            ImageMetadataExtractor.readHeaderDimensions(
+                new ByteArrayInputStream(encode("png", 31, 1200))))
+        .containsExactly(31, 1200);
+  }
+
+  @Test
+  void headerDimensionsAreNullForUnknownFormats() throws Exception {
+    assertThat(
+            ImageMetadataExtractor.readHeaderDimensions(
+                new ByteArrayInputStream("not an image".getBytes(StandardCharsets.UTF_8))))
+        .isNull();
+  }
+
+  @Test
+  void extractionReportsDimensionsForATaglessImage() throws Exception {
+    MockMultipartFile file =
+        new MockMultipartFile("file", "plain.jpg", "image/jpeg", encode("jpg", 300, 200));
+
+    var result = extractor.extractImageMetadata(file);
+
+    assertThat(result.metadata())
+        .containsEntry("imageWidth", "300")
+        .containsEntry("imageHeight", "200");
+  }
+
+  @Test
+  void gpsCoordinatesAreStoredAsDecimalDegrees() {
+    Map<String, String> metadata = new HashMap<>();
+
+    ImageMetadataExtractor.putGpsCoordinates(new GeoLocation(47.6062, -122.3321), metadata);
+
+    assertThat(metadata)
+        .containsEntry("gpsLatitude", "47.6062")
+        .containsEntry("gpsLongitude", "-122.3321");
+  }
+
+  @Test
+  void missingZeroOrOutOfRangeGpsIsSkipped() {
+    Map<String, String> metadata = new HashMap<>();
+
+    ImageMetadataExtractor.putGpsCoordinates(null, metadata);
+    ImageMetadataExtractor.putGpsCoordinates(new GeoLocation(0, 0), metadata);
+    ImageMetadataExtractor.putGpsCoordinates(new GeoLocation(91, 10), metadata);
+    ImageMetadataExtractor.putGpsCoordinates(new GeoLocation(10, Double.NaN), metadata);
+
+    assertThat(metadata).isEmpty();
+  }
+}
@@ -73,6 +73,33 @@ class ImageMetadataTest {
     assertFalse(tags.matches("anything"));
   }
 
+  // ==================== Lookup tables ====================
+
+  @Test
+  void forExifTag_matchesEveryDeclaredTagNameIgnoringCase() {
+    for (MetadataField field : MetadataField.values()) {
+      for (String tagName : field.getExifTags().getTagNames()) {
+        assertTrue(MetadataField.forExifTag(tagName).contains(field), tagName);
+        assertTrue(MetadataField.forExifTag(tagName.toUpperCase()).contains(field), tagName);
+      }
+    }
+  }
+
+  @Test
+  void forExifTag_unknownOrNullTagIsEmpty() {
+    assertTrue(MetadataField.forExifTag("Thumbnail Offset").isEmpty());
+    assertTrue(MetadataField.forExifTag(null).isEmpty());
+  }
+
+  @Test
+  void withXmpProperties_skipsExifOnlyFieldsAndKeepsOrder() {
+    var fields = MetadataField.withXmpProperties();
+
+    assertFalse(fields.contains(MetadataField.IMAGE_WIDTH));
+    assertTrue(fields.contains(MetadataField.CREATE_DATE));
+    assertTrue(fields.indexOf(MetadataField.ISO) < fields.indexOf(MetadataField.IS_FILM));
+  }
+
   // ==================== XmpProperty ====================
 
   @Test
@@ -13,6 +13,7 @@ import edens.zac.portfolio.backend.entity.ContentLensEntity;
 import edens.zac.portfolio.backend.services.validator.ContentValidator;
 import edens.zac.portfolio.backend.types.ContentType;
 import edens.zac.portfolio.backend.types.FilmFormat;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.awt.image.BufferedImage;
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -38,6 +39,7 @@ class ImageProcessingServiceTest {
   @Mock private LocationRepository locationRepository;
   @Mock private ImageMetadataExtractor imageMetadataExtractor;
   @Mock private ContentValidator contentValidator;
+  @Mock private VideoProcessor videoProcessor;
 
   private ImageProcessingService imageProcessingService;
 
@@ -56,6 +58,8 @@ class ImageProcessingServiceTest {
             locationRepository,
             imageMetadataExtractor,
             contentValidator,
+            new MediaPipelineMetrics(new SimpleMeterRegistry()),
+            videoProcessor,
             BUCKET_NAME,
             CLOUDFRONT_DOMAIN,
             CLOUDFRONT_DISTRIBUTION_ID);
@@ -60,6 +60,7 @@ class ImageUploadPipelineServiceTest {
   @Mock private CacheManager cacheManager;
   @Mock private ContentService contentService;
   @Mock private TransactionTemplate transactionTemplate;
+  @Mock private ImageGroupCommitWriter groupCommitWriter;
 
   @InjectMocks private ImageUploadPipelineService service;
 
@@ -115,6 +116,25 @@ class ImageUploadPipelineServiceTest {
     return new MockMultipartFile("files", filename, "image/jpeg", new byte[] {1, 2, 3, 4});
   }
 
+  /** Have the group-commit writer commit every pending image with the given dedupe result. */
+  private void writerCommitsAllAs(ImageProcessingService.DedupeResult dedupeResult) {
+    when(groupCommitWriter.write(any(), anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<ImageGroupCommitWriter.PendingImage> pending = invocation.getArgument(1);
+              return new ImageGroupCommitWriter.WriteOutcome(
+                  pending.stream()
+                      .map(p -> new ImageGroupCommitWriter.WrittenImage(p, dedupeResult))
+                      .toList(),
+                  List.of());
+            });
+  }
+
+  private void writerCommitsNothing() {
+    when(groupCommitWriter.write(any(), anyList()))
+        .thenReturn(new ImageGroupCommitWriter.WriteOutcome(List.of(), List.of()));
+  }
+
   @Nested
   class CreateCollectionWithImages {
 
@@ -156,8 +176,7 @@ class ImageUploadPipelineServiceTest {
           new ImageProcessingService.DedupeResult(
               edens.zac.portfolio.backend.entity.ContentImageEntity.builder().id(100L).build(),
               ImageProcessingService.DedupeAction.CREATE);
-      when(imageProcessingService.savePreparedImageWithDedupe(any(), any()))
-          .thenReturn(dedupeResult);
+      writerCommitsAllAs(dedupeResult);
 
       var imageModel = createImageModel(100L, 5);
       when(contentModelConverter.convertRegularContentEntityToModel(any())).thenReturn(imageModel);
@@ -193,6 +212,7 @@ class ImageUploadPipelineServiceTest {
       // prepareImageForUpload returns null (GIF filtered out in prepareImageAsync)
       when(imageProcessingService.prepareImageForUpload(any(), any()))
           .thenThrow(new RuntimeException("Processing failed"));
+      writerCommitsNothing();
 
       // Act
       ImageUploadResult result = service.createCollectionWithImages(createRequest, files, rawMap);
@@ -478,8 +498,7 @@ class ImageUploadPipelineServiceTest {
       var dedupeResult =
           new ImageProcessingService.DedupeResult(
               entity, ImageProcessingService.DedupeAction.CREATE);
-      when(imageProcessingService.savePreparedImageWithDedupe(any(), any()))
-          .thenReturn(dedupeResult);
+      writerCommitsAllAs(dedupeResult);
 
       var imageModel = createImageModel(100L, 5);
       when(contentModelConverter.convertRegularContentEntityToModel(any())).thenReturn(imageModel);
@@ -544,6 +563,7 @@ class ImageUploadPipelineServiceTest {
       // Simulate preparation failure
       when(imageProcessingService.prepareImageForUpload(any(), any()))
           .thenThrow(new RuntimeException("Corrupt image"));
+      writerCommitsNothing();
 
       // Act
       ImageUploadResult result = service.createImagesParallel(collectionId, files, rawMap);
@@ -584,8 +604,7 @@ class ImageUploadPipelineServiceTest {
       var entity = edens.zac.portfolio.backend.entity.ContentImageEntity.builder().id(100L).build();
       var dedupeResult =
           new ImageProcessingService.DedupeResult(entity, ImageProcessingService.DedupeAction.SKIP);
-      when(imageProcessingService.savePreparedImageWithDedupe(any(), any()))
-          .thenReturn(dedupeResult);
+      writerCommitsAllAs(dedupeResult);
 
       // Act
       ImageUploadResult result = service.createImagesParallel(collectionId, files, rawMap);
@@ -633,8 +652,7 @@ class ImageUploadPipelineServiceTest {
       var dedupeResult =
           new ImageProcessingService.DedupeResult(
               entity, ImageProcessingService.DedupeAction.CREATE);
-      when(imageProcessingService.savePreparedImageWithDedupe(any(), any()))
-          .thenReturn(dedupeResult);
+      writerCommitsAllAs(dedupeResult);
 
       var imageModel = createImageModel(100L, 5);
       when(contentModelConverter.convertRegularContentEntityToModel(any())).thenReturn(imageModel);
@@ -679,8 +697,7 @@ class ImageUploadPipelineServiceTest {
       var dedupeResult =
           new ImageProcessingService.DedupeResult(
               entity, ImageProcessingService.DedupeAction.CREATE);
-      when(imageProcessingService.savePreparedImageWithDedupe(any(), any()))
-          .thenReturn(dedupeResult);
+      writerCommitsAllAs(dedupeResult);
 
       var imageModel = createImageModel(100L, 5);
       when(contentModelConverter.convertRegularContentEntityToModel(any())).thenReturn(imageModel);
@@ -707,6 +724,7 @@ class ImageUploadPipelineServiceTest {
       // All images fail during preparation
       when(imageProcessingService.prepareImageForUpload(any(), any()))
           .thenThrow(new RuntimeException("S3 down"));
+      writerCommitsNothing();
 
       // Act - first call fails but should release semaphore
       service.createImagesParallel(collectionId, files, rawMap);
@@ -6,11 +6,11 @@ import java.time.Duration;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 
-class WebAuthnChallengeStoreTest {
+class InMemoryWebAuthnChallengeStoreTest {
 
   @Test
   void putThenTakeReturnsStoredValue() {
-    WebAuthnChallengeStore store = new WebAuthnChallengeStore(Duration.ofMinutes(5));
+    WebAuthnChallengeStore store = new InMemoryWebAuthnChallengeStore(Duration.ofMinutes(5));
     store.put("key-1", "challenge-options");
 
     Optional<Object> taken = store.take("key-1");
@@ -20,7 +20,7 @@ class WebAuthnChallengeStoreTest {
 
   @Test
   void takeIsSingleUse() {
-    WebAuthnChallengeStore store = new WebAuthnChallengeStore(Duration.ofMinutes(5));
+    WebAuthnChallengeStore store = new InMemoryWebAuthnChallengeStore(Duration.ofMinutes(5));
     store.put("key-1", "challenge-options");
 
     assertThat(store.take("key-1")).isPresent();
@@ -29,13 +29,13 @@ class WebAuthnChallengeStoreTest {
 
   @Test
   void takeMissingKeyIsEmpty() {
-    WebAuthnChallengeStore store = new WebAuthnChallengeStore(Duration.ofMinutes(5));
+    WebAuthnChallengeStore store = new InMemoryWebAuthnChallengeStore(Duration.ofMinutes(5));
     assertThat(store.take("nope")).isEmpty();
   }
 
   @Test
   void entriesExpireAfterTtl() throws InterruptedException {
-    WebAuthnChallengeStore store = new WebAuthnChallengeStore(Duration.ofMillis(50));
+    WebAuthnChallengeStore store = new InMemoryWebAuthnChallengeStore(Duration.ofMillis(50));
     store.put("key-1", "challenge-options");
 
     Thread.sleep(120);
@@ -3,24 +3,56 @@ package edens.zac.portfolio.backend.services;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import edens.zac.portfolio.backend.dao.UploadJobRepository;
+import edens.zac.portfolio.backend.entity.UploadJobEntity;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
 
+@ExtendWith(MockitoExtension.class)
 class JobTrackingServiceTest {
 
+  @Mock private UploadJobRepository uploadJobRepository;
+
+  private JobTrackingService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new JobTrackingService(uploadJobRepository, new ClusterNode("node-a"), 120, 24);
+  }
+
   @Test
   void createJob_returnsJobWithPendingStatus() {
-    var service = new JobTrackingService();
     var job = service.createJob(35);
     assertNotNull(job.jobId());
     assertEquals("PENDING", job.status());
     assertEquals(35, job.totalFiles());
   }
 
+  @Test
+  void createJob_registersJobUnderThisNode() {
+    var job = service.createJob(35);
+    verify(uploadJobRepository).insert(job.jobId(), "node-a", 35);
+  }
+
   @Test
   void getJob_returnsSnapshotOfCurrentState() {
-    var service = new JobTrackingService();
     var job = service.createJob(10);
     job.processed().incrementAndGet();
     job.created().incrementAndGet();
@@ -33,13 +65,35 @@ class JobTrackingServiceTest {
 
   @Test
   void getJob_returnsEmptyForUnknownId() {
-    var service = new JobTrackingService();
     assertTrue(service.getJob(UUID.randomUUID()).isEmpty());
   }
 
+  @Test
+  void getJob_readsAnotherNodesJobFromTheTable() {
+    UUID jobId = UUID.randomUUID();
+    when(uploadJobRepository.findById(jobId))
+        .thenReturn(
+            Optional.of(
+                UploadJobEntity.builder()
+                    .id(jobId)
+                    .ownerNode("node-b")
+                    .status("PROCESSING")
+                    .totalFiles(8)
+                    .processed(3)
+                    .created(2)
+                    .skipped(1)
+                    .errors(List.of())
+                    .build()));
+
+    var response = service.getJob(jobId);
+    assertTrue(response.isPresent());
+    assertEquals("PROCESSING", response.get().status());
+    assertEquals(8, response.get().totalFiles());
+    assertEquals(3, response.get().processed());
+  }
+
   @Test
   void markProcessing_updatesStatus() {
-    var service = new JobTrackingService();
     var job = service.createJob(5);
     job.markProcessing();
 
@@ -50,7 +104,6 @@ class JobTrackingServiceTest {
 
   @Test
   void markCompleted_setsCompletedStatus() {
-    var service = new JobTrackingService();
     var job = service.createJob(5);
     job.markProcessing();
     job.markCompleted();
@@ -62,7 +115,6 @@ class JobTrackingServiceTest {
 
   @Test
   void markCompleted_setsFailedStatusWhenErrorsExist() {
-    var service = new JobTrackingService();
     var job = service.createJob(5);
     job.markProcessing();
     job.errors().add("some error");
@@ -73,4 +125,111 @@ class JobTrackingServiceTest {
     assertEquals("FAILED", response.get().status());
     assertEquals(1, response.get().errors().size());
   }
+
+  @Test
+  void markCompleted_storesFinalStateAndEndsHeartbeats() {
+    var job = service.createJob(2);
+    job.markProcessing();
+    job.processed().addAndGet(2);
+    job.created().addAndGet(2);
+    job.markCompleted();
+
+    UploadJobEntity stored = captureSingleWrite();
+    assertEquals("COMPLETED", stored.getStatus());
+    assertEquals("node-a", stored.getOwnerNode());
+    assertEquals(2, stored.getCreated());
+
+    service.heartbeat();
+    verify(uploadJobRepository, times(1)).saveProgress(anyList());
+  }
+
+  @Test
+  void heartbeat_writesLiveJobProgress() {
+    var job = service.createJob(4);
+    job.markProcessing();
+    job.processed().incrementAndGet();
+    when(uploadJobRepository.saveProgress(anyList())).thenReturn(new int[] {1});
+
+    service.heartbeat();
+    service.heartbeat();
+
+    verify(uploadJobRepository, times(2)).saveProgress(anyList());
+  }
+
+  @Test
+  void heartbeat_retriesFinalStateThatFailedToStore() {
+    var job = service.createJob(1);
+    when(uploadJobRepository.saveProgress(anyList()))
+        .thenThrow(new DataAccessResourceFailureException("down"))
+        .thenReturn(new int[] {1});
+    job.markCompleted();
+
+    service.heartbeat();
+    service.heartbeat();
+
+    // Completion write failed, first beat stored it, second beat had nothing left to write.
+    verify(uploadJobRepository, times(2)).saveProgress(anyList());
+  }
+
+  @Test
+  void heartbeat_stopsReportingJobReapedByAnotherNode() {
+    var job = service.createJob(1);
+    job.markProcessing();
+    when(uploadJobRepository.saveProgress(anyList())).thenReturn(new int[] {0});
+
+    service.heartbeat();
+    service.heartbeat();
+
+    verify(uploadJobRepository, times(1)).saveProgress(anyList());
+  }
+
+  @Test
+  void heartbeat_withNoJobsTouchesNothing() {
+    service.heartbeat();
+    verify(uploadJobRepository, never()).saveProgress(anyList());
+  }
+
+  @Test
+  void storedErrorsAreCapped() {
+    var job = service.createJob(1);
+    for (int i = 0; i < JobTrackingService.MAX_STORED_ERRORS + 10; i++) {
+      job.errors().add("file " + i);
+    }
+    job.markCompleted();
+
+    assertEquals(JobTrackingService.MAX_STORED_ERRORS, captureSingleWrite().getErrors().size());
+    assertEquals(
+        JobTrackingService.MAX_STORED_ERRORS + 10,
+        service.getJob(job.jobId()).get().errors().size());
+  }
+
+  @Test
+  void reapStaleJobs_failsJobsPastTheStaleWindow() {
+    when(uploadJobRepository.failStale(any(), any()))
+        .thenReturn(
+            List.of(
+                UploadJobEntity.builder()
+                    .id(UUID.randomUUID())
+                    .ownerNode("node-b")
+                    .status("FAILED")
+                    .build()));
+
+    assertEquals(1, service.reapStaleJobs());
+    verify(uploadJobRepository)
+        .failStale(eq(Duration.ofSeconds(120)), eq(JobTrackingService.ABANDONED_ERROR));
+  }
+
+  @Test
+  void pruneFinishedJobs_usesRetentionWindow() {
+    when(uploadJobRepository.deleteFinishedOlderThan(Duration.ofHours(24))).thenReturn(3);
+    assertEquals(3, service.pruneFinishedJobs());
+  }
+
+  @SuppressWarnings("unchecked")
+  private UploadJobEntity captureSingleWrite() {
+    ArgumentCaptor<List<UploadJobEntity>> captor = ArgumentCaptor.forClass(List.class);
+    verify(uploadJobRepository).saveProgress(captor.capture());
+    assertEquals(1, captor.getValue().size());
+    return captor.getValue().get(0);
+  }
 }
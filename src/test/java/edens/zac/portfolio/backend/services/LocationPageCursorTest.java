@@ -0,0 +1,54 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class LocationPageCursorTest {
+
+  @Test
+  void collectionKey_roundTripsWithAndWithoutNulls() {
+    LocationPageCursor.CollectionKey full =
+        new LocationPageCursor.CollectionKey(4, LocalDate.of(2024, 2, 29), 17L);
+    LocationPageCursor.CollectionKey unrated = new LocationPageCursor.CollectionKey(null, null, 3L);
+
+    assertThat(LocationPageCursor.decodeCollection(LocationPageCursor.encode(full)))
+        .isEqualTo(full);
+    assertThat(LocationPageCursor.decodeCollection(LocationPageCursor.encode(unrated)))
+        .isEqualTo(unrated);
+  }
+
+  @Test
+  void imageKey_roundTripsWithAndWithoutCaptureDate() {
+    LocationPageCursor.ImageKey dated =
+        new LocationPageCursor.ImageKey(LocalDateTime.of(2023, 7, 4, 21, 15, 0, 500), 88L);
+    LocationPageCursor.ImageKey undated = new LocationPageCursor.ImageKey(null, 2L);
+
+    assertThat(LocationPageCursor.decodeImage(LocationPageCursor.encode(dated))).isEqualTo(dated);
+    assertThat(LocationPageCursor.decodeImage(LocationPageCursor.encode(undated)))
+        .isEqualTo(undated);
+  }
+
+  @Test
+  void blankCursor_meansFirstPage() {
+    assertThat(LocationPageCursor.decodeCollection(null)).isNull();
+    assertThat(LocationPageCursor.decodeImage(" ")).isNull();
+  }
+
+  @Test
+  void malformedOrMismatchedCursor_isRejected() {
+    String imageCursor = LocationPageCursor.encode(new LocationPageCursor.ImageKey(null, 2L));
+    String garbage = Base64.getUrlEncoder().withoutPadding().encodeToString("c1|x|y|z".getBytes());
+
+    assertThatThrownBy(() -> LocationPageCursor.decodeCollection(imageCursor))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> LocationPageCursor.decodeCollection(garbage))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> LocationPageCursor.decodeImage("%%%"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,248 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import edens.zac.portfolio.backend.AbstractPostgresIntegrationTest;
+import edens.zac.portfolio.backend.dao.CollectionRepository;
+import edens.zac.portfolio.backend.dao.ContentRepository;
+import edens.zac.portfolio.backend.dao.ImageAudienceRepository;
+import edens.zac.portfolio.backend.dao.LocationRepository;
+import edens.zac.portfolio.backend.dao.LocationStatsRepository;
+import edens.zac.portfolio.backend.entity.CollectionContentEntity;
+import edens.zac.portfolio.backend.entity.LocationEntity;
+import edens.zac.portfolio.backend.model.CollectionModel;
+import edens.zac.portfolio.backend.model.ContentModels;
+import edens.zac.portfolio.backend.model.LocationPageResponse;
+import edens.zac.portfolio.backend.model.Records;
+import edens.zac.portfolio.backend.types.CollectionVisibility;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The {@code location_stats} counts (V63) follow the location-association, collection-visibility,
+ * membership and delete write paths, the scheduled verifier repairs a writer that bypasses them,
+ * and the location page's keyset cursors walk each listing once, in order.
+ */
+class LocationStatsIntegrationTest extends AbstractPostgresIntegrationTest {
+
+  @Autowired private LocationStatsService locationStatsService;
+  @Autowired private LocationStatsRepository locationStatsRepository;
+  @Autowired private LocationRepository locationRepository;
+  @Autowired private CollectionRepository collectionRepository;
+  @Autowired private ContentRepository contentRepository;
+  @Autowired private CollectionService collectionService;
+  @Autowired private ImageAudienceRepository imageAudienceRepository;
+  @Autowired private PlatformTransactionManager transactionManager;
+  @Autowired private JdbcTemplate jdbc;
+
+  /** Other integration tests write the join tables with raw SQL into the shared container. */
+  @BeforeEach
+  void rebuildStats() {
+    locationStatsService.rebuild();
+  }
+
+  private LocationEntity seedLocation() {
+    return locationRepository.findOrCreate("Stats " + UUID.randomUUID());
+  }
+
+  private long seedCollection(CollectionVisibility visibility, Integer rating, LocalDate date) {
+    String slug = "stats-" + UUID.randomUUID();
+    return jdbc.queryForObject(
+        "INSERT INTO collection (title, slug, visibility, rating, collection_date)"
+            + " VALUES (?, ?, ?, ?, ?) RETURNING id",
+        Long.class,
+        slug,
+        slug,
+        visibility.name(),
+        rating,
+        date != null ? Date.valueOf(date) : null);
+  }
+
+  private long seedImage(LocalDateTime captureDate) {
+    long id =
+        jdbc.queryForObject(
+            "INSERT INTO content (content_type) VALUES ('IMAGE') RETURNING id", Long.class);
+    jdbc.update(
+        "INSERT INTO content_image (id, title, image_url_web, capture_date) VALUES (?, ?, ?, ?)",
+        id,
+        "img-" + id,
+        "https://cdn.example.com/stats-" + id + ".jpg",
+        captureDate != null ? Timestamp.valueOf(captureDate) : null);
+    return id;
+  }
+
+  private CollectionContentEntity link(long collectionId, long imageId) {
+    return collectionRepository.saveContent(
+        CollectionContentEntity.builder()
+            .collectionId(collectionId)
+            .contentId(imageId)
+            .orderIndex(0)
+            .visible(true)
+            .build());
+  }
+
+  /** Stored (collections, images) for a location; (0, 0) when it has no row. */
+  private List<Integer> counts(LocationEntity location) {
+    return locationStatsRepository
+        .findByLocationId(location.getId())
+        .map(c -> List.of(c.collectionCount(), c.imageCount()))
+        .orElse(List.of(0, 0));
+  }
+
+  @Test
+  void associationVisibilityAndMembershipWritesKeepCountsCurrent() {
+    LocationEntity location = seedLocation();
+    long collection = seedCollection(CollectionVisibility.UNLISTED, null, null);
+    long image = seedImage(null);
+
+    locationRepository.saveContentLocations(image, List.of(location.getId()));
+    assertThat(counts(location)).containsExactly(0, 1);
+
+    locationRepository.saveCollectionLocations(collection, List.of(location.getId()));
+    CollectionContentEntity membership = link(collection, image);
+    assertThat(counts(location)).containsExactly(0, 1);
+
+    collectionRepository.updateVisibility(collection, CollectionVisibility.LISTED);
+    assertThat(counts(location)).containsExactly(1, 0);
+
+    collectionRepository.updateContentVisible(membership.getId(), false);
+    assertThat(counts(location)).containsExactly(1, 1);
+
+    locationRepository.saveCollectionLocations(collection, List.of());
+    assertThat(counts(location)).containsExactly(0, 1);
+
+    locationRepository.saveContentLocations(image, List.of());
+    assertThat(locationStatsRepository.findByLocationId(location.getId())).isEmpty();
+    assertThat(locationStatsRepository.findDrift()).isEmpty();
+  }
+
+  @Test
+  void deletesRefreshTheLocationsTheyLeave() {
+    LocationEntity location = seedLocation();
+    long collection = seedCollection(CollectionVisibility.LISTED, 3, null);
+    long image = seedImage(null);
+    locationRepository.saveCollectionLocations(collection, List.of(location.getId()));
+    locationRepository.saveContentLocations(image, List.of(location.getId()));
+    link(collection, image);
+    assertThat(counts(location)).containsExactly(1, 0);
+
+    collectionRepository.deleteById(collection);
+    assertThat(counts(location)).containsExactly(0, 1);
+
+    contentRepository.deleteImageById(image);
+    assertThat(locationStatsRepository.findByLocationId(location.getId())).isEmpty();
+    assertThat(locationStatsRepository.findDrift()).isEmpty();
+  }
+
+  @Test
+  void verifyRepairsARawWriteThatBypassedTheHooks() {
+    LocationEntity location = seedLocation();
+    long image = seedImage(null);
+    jdbc.update(
+        "INSERT INTO content_image_locations (content_id, location_id) VALUES (?, ?)",
+        image,
+        location.getId());
+
+    assertThat(locationStatsRepository.findDrift())
+        .extracting(LocationStatsRepository.StatsDrift::locationId)
+        .containsExactly(location.getId());
+
+    assertThat(locationStatsService.verify()).isEqualTo(1);
+    assertThat(counts(location)).containsExactly(0, 1);
+    assertThat(locationStatsRepository.findAllWithCounts())
+        .contains(
+            new Records.LocationWithCounts(
+                location.getId(), location.getLocationName(), location.getSlug(), 0, 1));
+    assertThat(locationStatsRepository.findDrift()).isEmpty();
+  }
+
+  @Test
+  void cursorsWalkEachListingOnceInOrder() {
+    LocationEntity location = seedLocation();
+    // Expected order: rating desc, then date desc, nulls last, then id desc.
+    long unrated = seedCollection(CollectionVisibility.LISTED, null, LocalDate.of(2025, 1, 1));
+    long olderFour = seedCollection(CollectionVisibility.LISTED, 4, LocalDate.of(2020, 5, 1));
+    long undatedFour = seedCollection(CollectionVisibility.LISTED, 4, null);
+    long newerFour = seedCollection(CollectionVisibility.LISTED, 4, LocalDate.of(2024, 5, 1));
+    long five = seedCollection(CollectionVisibility.LISTED, 5, null);
+    List<Long> expectedCollections = List.of(five, newerFour, olderFour, undatedFour, unrated);
+    for (long collection : expectedCollections) {
+      locationRepository.saveCollectionLocations(collection, List.of(location.getId()));
+    }
+
+    // Expected order: capture date desc, nulls last, then id desc.
+    long undatedA = seedImage(null);
+    long undatedB = seedImage(null);
+    long early = seedImage(LocalDateTime.of(2021, 3, 1, 8, 0));
+    long late = seedImage(LocalDateTime.of(2023, 3, 1, 8, 0));
+    List<Long> expectedImages = List.of(late, early, undatedB, undatedA);
+    for (long image : expectedImages) {
+      locationRepository.saveContentLocations(image, List.of(location.getId()));
+    }
+
+    List<Long> seenCollections = new ArrayList<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      LocationPageResponse page =
+          collectionService.getLocationPageBySlug(location.getSlug(), 0, 2, cursor, 0, 1, null);
+      assertThat(page.totalCollections()).isEqualTo(5);
+      page.collections().stream().map(CollectionModel::getId).forEach(seenCollections::add);
+      cursor = page.nextCollectionCursor();
+      pages++;
+    } while (cursor != null && pages < 10);
+    assertThat(pages).isEqualTo(3);
+    assertThat(seenCollections).containsExactlyElementsOf(expectedCollections);
+
+    List<Long> seenImages = new ArrayList<>();
+    cursor = null;
+    pages = 0;
+    do {
+      LocationPageResponse page =
+          collectionService.getLocationPageBySlug(location.getSlug(), 0, 1, null, 0, 3, cursor);
+      assertThat(page.totalImages()).isEqualTo(4);
+      page.images().stream().map(ContentModels.Image::id).forEach(seenImages::add);
+      cursor = page.nextImageCursor();
+      pages++;
+    } while (cursor != null && pages < 10);
+    assertThat(pages).isEqualTo(2);
+    assertThat(seenImages).containsExactlyElementsOf(expectedImages);
+  }
+
+  @Test
+  void flushHooksRunAfterTheAudienceFlushWhicheverWasMarkedFirst() {
+    long location = seedLocation().getId();
+    long image = seedImage(null);
+
+    List<Class<?>> owners =
+        new TransactionTemplate(transactionManager)
+            .execute(
+                status -> {
+                  locationStatsRepository.markLocations(List.of(location));
+                  imageAudienceRepository.markImages(List.of(image));
+                  return TransactionSynchronizationManager.getSynchronizations().stream()
+                      .<Class<?>>map(sync -> sync.getClass().getEnclosingClass())
+                      .filter(
+                          owner ->
+                              owner == ImageAudienceRepository.class
+                                  || owner == LocationStatsRepository.class)
+                      .toList();
+                });
+
+    // Both take advisory locks before commit; one fixed order keeps two such writers deadlock-free.
+    assertThat(owners)
+        .containsExactly(ImageAudienceRepository.class, LocationStatsRepository.class);
+  }
+}
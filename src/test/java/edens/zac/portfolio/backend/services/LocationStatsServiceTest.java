@@ -0,0 +1,42 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edens.zac.portfolio.backend.dao.LocationStatsRepository;
+import edens.zac.portfolio.backend.dao.LocationStatsRepository.StatsDrift;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class LocationStatsServiceTest {
+
+  @Mock private LocationStatsRepository locationStatsRepository;
+
+  @InjectMocks private LocationStatsService locationStatsService;
+
+  @Test
+  void verify_consistentTable_refreshesNothing() {
+    when(locationStatsRepository.findDrift()).thenReturn(List.of());
+
+    assertThat(locationStatsService.verify()).isZero();
+    verify(locationStatsRepository, never()).refreshLocations(any());
+  }
+
+  @Test
+  void verify_refreshesOnlyTheDriftedLocations() {
+    when(locationStatsRepository.findDrift())
+        .thenReturn(
+            List.of(new StatsDrift(3L, null, null, 1, 0), new StatsDrift(8L, 2, 5, null, null)));
+
+    assertThat(locationStatsService.verify()).isEqualTo(2);
+    verify(locationStatsRepository).refreshLocations(List.of(3L, 8L));
+  }
+}
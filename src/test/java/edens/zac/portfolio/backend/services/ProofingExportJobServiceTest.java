@@ -0,0 +1,151 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edens.zac.portfolio.backend.dao.BackgroundJobRepository;
+import edens.zac.portfolio.backend.model.DownloadResolution;
+import edens.zac.portfolio.backend.model.ProofingRequests.ExportRequest;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProofingExportJobServiceTest {
+
+  private static final List<DownloadResolution> ENTRIES =
+      List.of(
+          new DownloadResolution("Image/Original/a.jpg", ".jpg", "image/jpeg", "a.jpg"),
+          new DownloadResolution("Image/Original/b.jpg", ".jpg", "image/jpeg", "b.jpg"));
+
+  private ProofingService proofingService;
+  private ContentService contentService;
+  private DownloadUrlService downloadUrlService;
+  private ProofingExportJobService service;
+
+  @BeforeEach
+  void setUp() {
+    proofingService = mock(ProofingService.class);
+    contentService = mock(ContentService.class);
+    downloadUrlService = mock(DownloadUrlService.class);
+    BackgroundJobRepository jobRepository = mock(BackgroundJobRepository.class);
+    when(jobRepository.insertIfNoLiveJob(any())).thenReturn(true);
+    BackgroundJobRegistry registry =
+        new BackgroundJobRegistry(
+            jobRepository, new ObjectMapper(), new ClusterNode("node-a"), 120, 24);
+    service =
+        new ProofingExportJobService(
+            proofingService, contentService, downloadUrlService, registry, 1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    service.shutdown();
+  }
+
+  private ProofingExportJobService.ProofingExportJobResponse awaitJob(
+      UUID jobId, Predicate<ProofingExportJobService.ProofingExportJobResponse> condition)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (System.nanoTime() < deadline) {
+      var job = service.getJob(jobId).orElseThrow();
+      if (condition.test(job)) {
+        return job;
+      }
+      Thread.sleep(10);
+    }
+    throw new AssertionError("Job " + jobId + " did not reach the expected state");
+  }
+
+  @Test
+  void submit_createsCollectionListsFilenamesAndBuildsArchive() throws Exception {
+    when(proofingService.createDeliveryCollection(7L, 3L, null))
+        .thenReturn(new ProofingService.Delivery(50L, "wedding-selects", 2));
+    when(proofingService.findOriginalFilenames(50L)).thenReturn(List.of("IMG_1.CR3", "IMG_2.jpg"));
+    when(contentService.resolveCollectionDownloadEntries(50L, "original")).thenReturn(ENTRIES);
+    when(contentService.collectionZipFilename("wedding-selects", 50L))
+        .thenReturn("wedding-selects-50.zip");
+    when(downloadUrlService.buildCachedZip(
+            eq(50L), eq("original"), eq(ENTRIES), eq("wedding-selects-50.zip"), any()))
+        .thenAnswer(
+            inv -> {
+              DownloadUrlService.ZipProgress progress = inv.getArgument(4);
+              progress.entryWritten(10);
+              progress.entryWritten(20);
+              return "downloads-tmp/cache/abc/wedding-selects-50.zip";
+            });
+    when(downloadUrlService.presignObject(
+            "downloads-tmp/cache/abc/wedding-selects-50.zip",
+            "application/zip",
+            "wedding-selects-50.zip"))
+        .thenReturn(URI.create("https://bucket.s3.amazonaws.com/w.zip?sig=1"));
+
+    var submitted = service.submit(3L, new ExportRequest(7L, null, true, null));
+    var done = awaitJob(submitted.jobId(), j -> "COMPLETED".equals(j.status()));
+
+    assertThat(done.deliveryCollectionId()).isEqualTo(50L);
+    assertThat(done.imagesCopied()).isEqualTo(2);
+    assertThat(done.filenames()).containsExactly("IMG_1.CR3", "IMG_2.jpg");
+    assertThat(done.lightroomFilter()).isEqualTo("IMG_1, IMG_2");
+    assertThat(done.archiveEntries()).isEqualTo(2);
+    assertThat(done.entriesDone()).isEqualTo(2);
+    assertThat(done.bytesDone()).isEqualTo(30);
+    assertThat(service.resultUrl(submitted.jobId()))
+        .contains(URI.create("https://bucket.s3.amazonaws.com/w.zip?sig=1"));
+    verify(proofingService).requireSelects(7L, 3L);
+  }
+
+  @Test
+  void submit_withoutArchiveSkipsTheZipAndHasNoFile() throws Exception {
+    when(proofingService.createDeliveryCollection(7L, 3L, "Picks"))
+        .thenReturn(new ProofingService.Delivery(50L, "picks", 2));
+
+    var submitted = service.submit(3L, new ExportRequest(7L, "Picks", null, false));
+    var done = awaitJob(submitted.jobId(), j -> "COMPLETED".equals(j.status()));
+
+    assertThat(done.archiveEntries()).isEqualTo(-1);
+    assertThat(done.filenames()).isNull();
+    assertThat(service.resultUrl(submitted.jobId())).isEmpty();
+    verify(downloadUrlService, never())
+        .buildCachedZip(any(), anyString(), anyList(), anyString(), any());
+  }
+
+  @Test
+  void submit_failedCopyMarksJobFailedAndFreesTheSelection() throws Exception {
+    when(proofingService.createDeliveryCollection(7L, 3L, null))
+        .thenThrow(new IllegalStateException("boom"));
+
+    var first = service.submit(3L, new ExportRequest(7L, null, null, null));
+    var failed = awaitJob(first.jobId(), j -> "FAILED".equals(j.status()));
+    assertThat(failed.error()).isEqualTo("boom");
+    assertThat(failed.deliveryCollectionId()).isNull();
+
+    var second = service.submit(3L, new ExportRequest(7L, null, null, null));
+    assertThat(second.jobId()).isNotEqualTo(first.jobId());
+  }
+
+  @Test
+  void submit_withoutSelectsIsRejectedBeforeQueueing() {
+    doThrow(new IllegalArgumentException("no selects"))
+        .when(proofingService)
+        .requireSelects(7L, 3L);
+
+    assertThatThrownBy(() -> service.submit(3L, new ExportRequest(7L, null, null, null)))
+        .isInstanceOf(IllegalArgumentException.class);
+    verify(proofingService, never()).createDeliveryCollection(any(), any(), any());
+  }
+}
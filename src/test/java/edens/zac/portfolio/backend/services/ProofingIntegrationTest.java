@@ -0,0 +1,193 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import edens.zac.portfolio.backend.AbstractPostgresIntegrationTest;
+import edens.zac.portfolio.backend.dao.ProofingSummaryRepository;
+import edens.zac.portfolio.backend.dao.RoleRepository;
+import edens.zac.portfolio.backend.dao.UserRatingOverrideRepository;
+import edens.zac.portfolio.backend.entity.UserRatingOverrideEntity;
+import edens.zac.portfolio.backend.model.ProofingRequests.Batch;
+import edens.zac.portfolio.backend.model.ProofingRequests.BatchResult;
+import edens.zac.portfolio.backend.model.ProofingRequests.CollectionSummary;
+import edens.zac.portfolio.backend.model.ProofingRequests.ImageSummary;
+import edens.zac.portfolio.backend.model.ProofingRequests.RatingChange;
+import edens.zac.portfolio.backend.types.AccessLevel;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Batched proofing writes (V59) apply set-based, replay on a repeated idempotency key, skip ids
+ * that are not visible images of the collection, and keep {@code proofing_summary} equal to a fresh
+ * derivation from the selects and overrides.
+ */
+class ProofingIntegrationTest extends AbstractPostgresIntegrationTest {
+
+  @Autowired private ProofingService proofingService;
+  @Autowired private ProofingSummaryRepository proofingSummaryRepository;
+  @Autowired private UserRatingOverrideRepository overrideRepository;
+  @Autowired private RoleRepository roleRepository;
+  @Autowired private JdbcTemplate jdbc;
+
+  private long clientA;
+  private long clientB;
+  private long collection;
+  private long image1;
+  private long image2;
+  private long hidden;
+
+  /** User truncation between tests cascades past the counters, so start from a rebuilt table. */
+  @BeforeEach
+  void seed() {
+    proofingSummaryRepository.rebuild();
+    clientA = seedUser();
+    clientB = seedUser();
+    collection = seedCollection();
+    image1 = seedImage(collection, true);
+    image2 = seedImage(collection, true);
+    hidden = seedImage(collection, false);
+    long roleId = roleRepository.createRole("proofing-" + UUID.randomUUID(), null);
+    roleRepository.setCollectionGrant(roleId, collection, AccessLevel.CLIENT, null);
+    roleRepository.addMember(roleId, clientA, null);
+    roleRepository.addMember(roleId, clientB, null);
+  }
+
+  private long seedUser() {
+    String email = "proofing-" + UUID.randomUUID() + "@example.com";
+    return jdbc.queryForObject(
+        "INSERT INTO users (name, email, webauthn_user_handle, status) "
+            + "VALUES (?, ?, gen_random_uuid(), 'ACTIVE') RETURNING id",
+        Long.class,
+        email,
+        email);
+  }
+
+  private long seedCollection() {
+    String slug = "proofing-" + UUID.randomUUID();
+    return jdbc.queryForObject(
+        "INSERT INTO collection (title, slug, visibility) VALUES (?, ?, 'UNLISTED') RETURNING id",
+        Long.class,
+        slug,
+        slug);
+  }
+
+  private long seedImage(long collectionId, boolean visible) {
+    long id =
+        jdbc.queryForObject(
+            "INSERT INTO content (content_type) VALUES ('IMAGE') RETURNING id", Long.class);
+    jdbc.update(
+        "INSERT INTO content_image (id, title, image_url_web) VALUES (?, ?, ?)",
+        id,
+        "img-" + id,
+        "https://cdn.example.com/proofing-" + id + ".jpg");
+    jdbc.update(
+        "INSERT INTO collection_content (collection_id, content_id, visible) VALUES (?, ?, ?)",
+        collectionId,
+        id,
+        visible);
+    return id;
+  }
+
+  @Test
+  void batchesMaintainSummaryAndReplayRepeatedKeys() {
+    Batch first =
+        new Batch(List.of(image1, image2, hidden), null, List.of(new RatingChange(image1, 5)));
+    assertThat(proofingService.applyBatch(clientA, collection, "a-1", first))
+        .isEqualTo(new BatchResult(2, 0, 1, 0, false));
+    assertThat(proofingService.applyBatch(clientA, collection, "a-1", first))
+        .isEqualTo(new BatchResult(2, 0, 1, 0, true));
+    proofingService.applyBatch(
+        clientB,
+        collection,
+        "b-1",
+        new Batch(List.of(image1), null, List.of(new RatingChange(image1, 3))));
+
+    CollectionSummary summary = proofingService.summarize(collection);
+    assertThat(summary.selects()).isEqualTo(3);
+    assertThat(summary.imagesSelected()).isEqualTo(2);
+    assertThat(summary.ratingHistogram()).containsExactly(0L, 0L, 0L, 1L, 0L, 1L);
+    assertThat(summary.images().get(0))
+        .isEqualTo(new ImageSummary(image1, 2, List.of(0, 0, 0, 1, 0, 1)));
+    assertThat(proofingSummaryRepository.countDrift()).isZero();
+
+    BatchResult undo =
+        proofingService.applyBatch(
+            clientA,
+            collection,
+            "a-2",
+            new Batch(null, List.of(image1), List.of(new RatingChange(image1, null))));
+    assertThat(undo).isEqualTo(new BatchResult(0, 1, 0, 1, false));
+
+    summary = proofingService.summarize(collection);
+    assertThat(summary.selects()).isEqualTo(2);
+    assertThat(summary.ratingHistogram()).containsExactly(0L, 0L, 0L, 1L, 0L, 0L);
+    assertThat(proofingSummaryRepository.countDrift()).isZero();
+  }
+
+  @Test
+  void singleImageRerateMovesTheOverrideBetweenBuckets() {
+    UserRatingOverrideEntity.UserRatingOverrideEntityBuilder override =
+        UserRatingOverrideEntity.builder()
+            .userId(clientA)
+            .contentId(image2)
+            .collectionId(collection);
+    overrideRepository.upsert(override.rating(2).build());
+    overrideRepository.upsert(override.rating(4).build());
+
+    assertThat(proofingService.summarize(collection).ratingHistogram())
+        .containsExactly(0L, 0L, 0L, 0L, 1L, 0L);
+    assertThat(proofingSummaryRepository.countDrift()).isZero();
+
+    overrideRepository.deleteByUserIdAndContentId(clientA, image2);
+    assertThat(proofingService.summarize(collection).ratingHistogram()).containsOnly(0L);
+    assertThat(proofingSummaryRepository.countDrift()).isZero();
+  }
+
+  @Test
+  void deliveryCollectionHoldsTheSelectsInSelectionOrderHiddenUnderTheParent() {
+    proofingService.applyBatch(clientA, collection, "a-1", new Batch(List.of(image2), null, null));
+    proofingService.applyBatch(clientA, collection, "a-2", new Batch(List.of(image1), null, null));
+
+    ProofingService.Delivery delivery =
+        proofingService.createDeliveryCollection(clientA, collection, "Client picks");
+
+    assertThat(delivery.imagesCopied()).isEqualTo(2);
+    assertThat(
+            jdbc.queryForList(
+                "SELECT content_id FROM collection_content WHERE collection_id = ?"
+                    + " ORDER BY order_index",
+                Long.class,
+                delivery.collectionId()))
+        .containsExactly(image2, image1);
+    assertThat(
+            jdbc.queryForObject(
+                "SELECT count(*) FROM collection_content cc"
+                    + " JOIN content_collection k ON k.id = cc.content_id"
+                    + " WHERE cc.collection_id = ? AND k.referenced_collection_id = ?"
+                    + " AND cc.visible = false",
+                Integer.class,
+                collection,
+                delivery.collectionId()))
+        .isEqualTo(1);
+    assertThat(proofingService.findOriginalFilenames(delivery.collectionId())).isEmpty();
+
+    // Only the client who made the picks reaches them; the parent's shared grant does not carry.
+    assertThat(roleRepository.isClient(clientA, delivery.collectionId())).isTrue();
+    assertThat(roleRepository.canView(clientB, delivery.collectionId())).isFalse();
+    assertThat(
+            proofingService
+                .createDeliveryCollection(clientA, collection, "Client picks again")
+                .collectionId())
+        .isNotEqualTo(delivery.collectionId());
+    assertThat(
+            jdbc.queryForObject(
+                "SELECT count(*) FROM role WHERE name = ?",
+                Integer.class,
+                ProofingService.DELIVERY_ROLE_PREFIX + clientA))
+        .isEqualTo(1);
+  }
+}
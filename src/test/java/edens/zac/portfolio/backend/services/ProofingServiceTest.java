@@ -0,0 +1,184 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import edens.zac.portfolio.backend.dao.AppUserRepository;
+import edens.zac.portfolio.backend.dao.CollectionRepository;
+import edens.zac.portfolio.backend.dao.ProofingBatchRepository;
+import edens.zac.portfolio.backend.dao.ProofingBatchRepository.StoredBatch;
+import edens.zac.portfolio.backend.dao.ProofingSummaryRepository;
+import edens.zac.portfolio.backend.dao.RoleRepository;
+import edens.zac.portfolio.backend.dao.UserRatingOverrideRepository;
+import edens.zac.portfolio.backend.dao.UserSelectRepository;
+import edens.zac.portfolio.backend.entity.AppUserEntity;
+import edens.zac.portfolio.backend.entity.CollectionEntity;
+import edens.zac.portfolio.backend.model.CollectionModel;
+import edens.zac.portfolio.backend.model.CollectionRequests;
+import edens.zac.portfolio.backend.model.ProofingRequests.Batch;
+import edens.zac.portfolio.backend.model.ProofingRequests.BatchResult;
+import edens.zac.portfolio.backend.model.ProofingRequests.RatingChange;
+import edens.zac.portfolio.backend.types.AccessLevel;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+
+@ExtendWith(MockitoExtension.class)
+class ProofingServiceTest {
+
+  @Mock private UserSelectRepository userSelectRepository;
+  @Mock private UserRatingOverrideRepository overrideRepository;
+  @Mock private ProofingBatchRepository proofingBatchRepository;
+  @Mock private ProofingSummaryRepository proofingSummaryRepository;
+  @Mock private CollectionAccessService collectionAccessService;
+  @Mock private CollectionService collectionService;
+  @Mock private CollectionRepository collectionRepository;
+  @Mock private AppUserRepository appUserRepository;
+  @Mock private RoleRepository roleRepository;
+  @Mock private RoleGrantPropagationService roleGrantPropagationService;
+
+  @InjectMocks private ProofingService service;
+
+  @Test
+  void applyBatchChecksAccessOnceAndAppliesEachPartAsOneSet() {
+    when(collectionAccessService.canView(7L, 3L)).thenReturn(true);
+    when(collectionAccessService.isClient(7L, 3L)).thenReturn(true);
+    when(proofingBatchRepository.claim(7L, "k1", 3L)).thenReturn(true);
+    when(userSelectRepository.deleteAll(7L, 3L, Set.of(9L))).thenReturn(List.of(9L));
+    when(userSelectRepository.insertAll(7L, 3L, Set.of(1L, 2L))).thenReturn(List.of(1L, 2L));
+    when(overrideRepository.deleteAll(7L, 3L, Set.of(5L))).thenReturn(List.of());
+    when(overrideRepository.upsertAll(7L, 3L, Map.of(1L, 4))).thenReturn(List.of(1L));
+
+    BatchResult result =
+        service.applyBatch(
+            7L,
+            3L,
+            "k1",
+            new Batch(
+                List.of(1L, 2L, 2L),
+                List.of(9L),
+                List.of(new RatingChange(1L, 4), new RatingChange(5L, null))));
+
+    assertThat(result).isEqualTo(new BatchResult(2, 1, 1, 0, false));
+    verify(proofingBatchRepository).recordCounts(7L, "k1", 2, 1, 1, 0);
+  }
+
+  @Test
+  void applyBatchWithoutRatingsSkipsClientCheck() {
+    when(collectionAccessService.canView(7L, 3L)).thenReturn(true);
+    when(proofingBatchRepository.claim(7L, "k1", 3L)).thenReturn(true);
+
+    service.applyBatch(7L, 3L, "k1", new Batch(List.of(1L), null, null));
+
+    verify(collectionAccessService, never()).isClient(anyLong(), anyLong());
+  }
+
+  @Test
+  void repeatedKeyReplaysStoredCountsWithoutWriting() {
+    when(collectionAccessService.canView(7L, 3L)).thenReturn(true);
+    when(proofingBatchRepository.claim(7L, "k1", 3L)).thenReturn(false);
+    when(proofingBatchRepository.find(7L, "k1"))
+        .thenReturn(Optional.of(new StoredBatch(3L, 2, 1, 0, 0)));
+
+    BatchResult result = service.applyBatch(7L, 3L, "k1", new Batch(List.of(1L, 2L), null, null));
+
+    assertThat(result).isEqualTo(new BatchResult(2, 1, 0, 0, true));
+    verifyNoInteractions(userSelectRepository, overrideRepository);
+  }
+
+  @Test
+  void keyReusedForAnotherCollectionIsRejected() {
+    when(collectionAccessService.canView(7L, 3L)).thenReturn(true);
+    when(proofingBatchRepository.claim(7L, "k1", 3L)).thenReturn(false);
+    when(proofingBatchRepository.find(7L, "k1"))
+        .thenReturn(Optional.of(new StoredBatch(8L, 1, 0, 0, 0)));
+
+    assertThatThrownBy(() -> service.applyBatch(7L, 3L, "k1", new Batch(List.of(1L), null, null)))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("collection 8");
+  }
+
+  @Test
+  void ratingsWithoutClientGrantAreDenied() {
+    when(collectionAccessService.canView(7L, 3L)).thenReturn(true);
+    when(collectionAccessService.isClient(7L, 3L)).thenReturn(false);
+
+    assertThatThrownBy(
+            () ->
+                service.applyBatch(
+                    7L, 3L, "k1", new Batch(null, null, List.of(new RatingChange(1L, 3)))))
+        .isInstanceOf(AccessDeniedException.class);
+    verify(proofingBatchRepository, never()).claim(anyLong(), any(), anyLong());
+  }
+
+  @Test
+  void malformedBatchesAreRejectedBeforeAnyAccessCheck() {
+    List<Long> tooMany =
+        LongStream.rangeClosed(1, ProofingService.MAX_BATCH_OPERATIONS + 1).boxed().toList();
+    assertThatThrownBy(() -> service.applyBatch(7L, 3L, " ", new Batch(List.of(1L), null, null)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(
+            () -> service.applyBatch(7L, 3L, "k1", new Batch(List.of(1L), List.of(1L), null)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(
+            () ->
+                service.applyBatch(
+                    7L, 3L, "k1", new Batch(null, null, List.of(new RatingChange(1L, 6)))))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> service.applyBatch(7L, 3L, "k1", new Batch(tooMany, null, null)))
+        .isInstanceOf(IllegalArgumentException.class);
+    verifyNoInteractions(collectionAccessService, proofingBatchRepository);
+  }
+
+  @Test
+  void createDeliveryCollectionCopiesSelectsIntoAHiddenChildGrantedOnlyToTheClient() {
+    when(collectionRepository.findById(3L))
+        .thenReturn(Optional.of(CollectionEntity.builder().id(3L).title("Smith Wedding").build()));
+    when(collectionRepository.findById(50L))
+        .thenReturn(Optional.of(CollectionEntity.builder().id(50L).slug("smith-selects").build()));
+    when(appUserRepository.findById(7L))
+        .thenReturn(Optional.of(AppUserEntity.builder().id(7L).name("Ann").build()));
+    when(userSelectRepository.findContentIdsByUserIdAndCollectionId(7L, 3L))
+        .thenReturn(List.of(11L, 12L));
+    CollectionModel child = CollectionModel.builder().id(50L).slug("smith-selects").build();
+    when(collectionService.createCollection(
+            new CollectionRequests.Create("Smith Wedding - Ann selects")))
+        .thenReturn(new CollectionRequests.UpdateResponse(child, null));
+    when(roleRepository.findOrCreateRole(ProofingService.DELIVERY_ROLE_PREFIX + 7L, null))
+        .thenReturn(90L);
+    when(collectionRepository.copyUserSelects(7L, 3L, 50L, 0)).thenReturn(2);
+
+    ProofingService.Delivery delivery = service.createDeliveryCollection(7L, 3L, null);
+
+    assertThat(delivery).isEqualTo(new ProofingService.Delivery(50L, "smith-selects", 2));
+    verify(collectionService).linkCollectionToParent(3L, 50L, false);
+    verify(roleRepository).addMember(90L, 7L, null);
+    verify(roleGrantPropagationService).setGrant(90L, 50L, AccessLevel.CLIENT, null);
+  }
+
+  @Test
+  void createDeliveryCollectionWithoutSelectsCreatesNothing() {
+    when(collectionRepository.findById(3L))
+        .thenReturn(Optional.of(CollectionEntity.builder().id(3L).title("Smith Wedding").build()));
+    when(appUserRepository.findById(7L))
+        .thenReturn(Optional.of(AppUserEntity.builder().id(7L).name("Ann").build()));
+
+    assertThatThrownBy(() -> service.createDeliveryCollection(7L, 3L, null))
+        .isInstanceOf(IllegalArgumentException.class);
+    verifyNoInteractions(collectionService);
+  }
+}
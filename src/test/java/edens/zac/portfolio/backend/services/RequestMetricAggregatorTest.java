@@ -0,0 +1,165 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import edens.zac.portfolio.backend.dao.RequestMetricRepository;
+import edens.zac.portfolio.backend.dao.RequestMetricRepository.RequestMetricDelta;
+import edens.zac.portfolio.backend.services.RequestMetricAggregator.DropPolicy;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RequestMetricAggregatorTest {
+
+  private static final LocalDate DAY = LocalDate.of(2026, 7, 7);
+  private static final String ROUTE = "/api/read/collections/{slug}";
+
+  @Mock private RequestMetricRepository repository;
+
+  @SuppressWarnings("unchecked")
+  private List<RequestMetricDelta> flushed(int times) {
+    ArgumentCaptor<List<RequestMetricDelta>> batch = ArgumentCaptor.forClass(List.class);
+    verify(repository, times(times)).upsertBatch(batch.capture());
+    return batch.getValue();
+  }
+
+  @Test
+  void aggregatesPerKeyAndFlushesOneBatch() {
+    RequestMetricAggregator aggregator =
+        new RequestMetricAggregator(repository, 100, DropPolicy.RETAIN);
+    aggregator.record(DAY, ROUTE, "iceland", 3);
+    aggregator.record(DAY, ROUTE, "iceland", 40);
+    aggregator.record(DAY, ROUTE, "iceland", 9000);
+    aggregator.record(DAY, ROUTE, null, 7);
+
+    aggregator.flush();
+
+    assertThat(flushed(1))
+        .containsExactlyInAnyOrder(
+            new RequestMetricDelta(
+                DAY,
+                ROUTE,
+                "iceland",
+                3,
+                9043,
+                9000,
+                List.of(1L, 0L, 0L, 1L, 0L, 0L, 0L, 0L, 0L, 0L, 1L)),
+            new RequestMetricDelta(
+                DAY, ROUTE, null, 1, 7, 7, List.of(0L, 1L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L)));
+    assertThat(aggregator.bufferedKeys()).isZero();
+
+    // Nothing buffered: no statement at all.
+    aggregator.flush();
+    verify(repository, times(1)).upsertBatch(any());
+  }
+
+  @Test
+  void newKeysBeyondTheBoundAreDropped() {
+    RequestMetricAggregator aggregator =
+        new RequestMetricAggregator(repository, 2, DropPolicy.RETAIN);
+    aggregator.record(DAY, ROUTE, "a", 1);
+    aggregator.record(DAY, ROUTE, "b", 1);
+    aggregator.record(DAY, ROUTE, "c", 1);
+    // Existing keys keep counting when full.
+    aggregator.record(DAY, ROUTE, "a", 1);
+
+    assertThat(aggregator.bufferedKeys()).isEqualTo(2);
+    aggregator.flush();
+    assertThat(flushed(1))
+        .extracting(RequestMetricDelta::slug, RequestMetricDelta::count)
+        .containsExactlyInAnyOrder(tuple("a", 2L), tuple("b", 1L));
+  }
+
+  @Test
+  void retainPolicyMergesAFailedBatchIntoTheNextFlush() {
+    RequestMetricAggregator aggregator =
+        new RequestMetricAggregator(repository, 100, DropPolicy.RETAIN);
+    aggregator.record(DAY, ROUTE, "a", 1);
+    doThrow(new RuntimeException("db slow")).doNothing().when(repository).upsertBatch(any());
+
+    aggregator.flush();
+    aggregator.record(DAY, ROUTE, "a", 1);
+    aggregator.flush();
+
+    assertThat(flushed(2)).singleElement().extracting(RequestMetricDelta::count).isEqualTo(2L);
+  }
+
+  @Test
+  void dropPolicyDiscardsAFailedBatch() {
+    RequestMetricAggregator aggregator =
+        new RequestMetricAggregator(repository, 100, DropPolicy.DROP);
+    aggregator.record(DAY, ROUTE, "a", 1);
+    doThrow(new RuntimeException("db slow")).when(repository).upsertBatch(any());
+
+    aggregator.flush();
+
+    assertThat(aggregator.bufferedKeys()).isZero();
+    aggregator.flush();
+    verify(repository, times(1)).upsertBatch(any());
+  }
+
+  @Test
+  void concurrentRecordsAreNotLostAcrossFlushes() throws Exception {
+    RequestMetricAggregator aggregator =
+        new RequestMetricAggregator(repository, 100, DropPolicy.RETAIN);
+    long[] total = new long[1];
+    doAnswerSumming(total);
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    for (int t = 0; t < 4; t++) {
+      pool.submit(
+          () -> {
+            for (int i = 0; i < 5_000; i++) {
+              aggregator.record(DAY, ROUTE, "hot", 1);
+            }
+          });
+    }
+    for (int i = 0; i < 20; i++) {
+      aggregator.flush();
+    }
+    pool.shutdown();
+    assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    aggregator.flush();
+
+    assertThat(total[0]).isEqualTo(20_000L);
+  }
+
+  @Test
+  void bucketsUseInclusiveUpperBounds() {
+    assertThat(RequestMetricAggregator.bucketOf(0)).isZero();
+    assertThat(RequestMetricAggregator.bucketOf(5)).isZero();
+    assertThat(RequestMetricAggregator.bucketOf(6)).isEqualTo(1);
+    assertThat(RequestMetricAggregator.bucketOf(5000)).isEqualTo(9);
+    assertThat(RequestMetricAggregator.bucketOf(5001)).isEqualTo(10);
+    verify(repository, never()).upsertBatch(any());
+  }
+
+  @SuppressWarnings("unchecked")
+  private void doAnswerSumming(long[] total) {
+    doAnswer(
+            inv -> {
+              for (RequestMetricDelta d : (List<RequestMetricDelta>) inv.getArgument(0)) {
+                synchronized (total) {
+                  total[0] += d.count();
+                }
+              }
+              return null;
+            })
+        .when(repository)
+        .upsertBatch(any());
+  }
+}
@@ -0,0 +1,389 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import edens.zac.portfolio.backend.AbstractPostgresIntegrationTest;
+import edens.zac.portfolio.backend.dao.CollectionClosureRepository;
+import edens.zac.portfolio.backend.dao.CollectionRepository;
+import edens.zac.portfolio.backend.dao.RoleRepository;
+import edens.zac.portfolio.backend.dao.RoleRepository.CollectionGrant;
+import edens.zac.portfolio.backend.entity.CollectionEntity;
+import edens.zac.portfolio.backend.types.AccessLevel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Diffs the set-based (closure-table) propagation in {@link RoleGrantPropagationService} against
+ * the original per-node BFS on randomized collection graphs. Each seed builds the same random graph
+ * twice -- with hidden links, diamonds and cycles (written directly, bypassing the link-time cycle
+ * check, so the graph's closure rows are re-derived from scratch after every link write) -- replays
+ * the same random sequence of grant, removal, visibility-toggle, link and unlink operations through
+ * each implementation, and compares the resulting {@code role_collection} rows by graph position.
+ */
+class RoleGrantPropagationEquivalenceIntegrationTest extends AbstractPostgresIntegrationTest {
+
+  private static final int COLLECTIONS = 12;
+  private static final int ROLES = 2;
+  private static final int OPERATIONS = 25;
+
+  @Autowired private RoleGrantPropagationService propagation;
+  @Autowired private RoleRepository roleRepository;
+  @Autowired private CollectionRepository collectionRepository;
+  @Autowired private CollectionClosureRepository closureRepository;
+  @Autowired private JdbcTemplate jdbc;
+
+  /** One step of the replayed script; indexes refer to graph positions, not ids. */
+  private record Op(String kind, int role, int a, int b, AccessLevel level) {}
+
+  /** A built graph: collection ids and role ids by position. */
+  private record Graph(List<Long> collections, List<Long> roles) {}
+
+  @ParameterizedTest
+  @ValueSource(longs = {1L, 7L, 42L, 1234L, 98765L})
+  void setBasedPropagationMatchesBfs(long seed) {
+    Random random = new Random(seed);
+    List<int[]> edges = new ArrayList<>();
+    for (int child = 1; child < COLLECTIONS; child++) {
+      // A spanning tree first, then extra edges for diamonds, back-edges (cycles) and self-links.
+      edges.add(new int[] {random.nextInt(child), child, random.nextInt(4) == 0 ? 0 : 1});
+    }
+    for (int i = 0; i < COLLECTIONS / 2; i++) {
+      edges.add(
+          new int[] {
+            random.nextInt(COLLECTIONS), random.nextInt(COLLECTIONS), random.nextInt(3) == 0 ? 0 : 1
+          });
+    }
+    List<Op> ops = randomOps(random);
+
+    Graph legacyGraph = buildGraph("bfs-" + seed, edges);
+    replay(legacyGraph, ops, new LegacyBfsPropagation(roleRepository, collectionRepository));
+    Graph cteGraph = buildGraph("cte-" + seed, edges);
+    replay(cteGraph, ops, null);
+
+    Set<String> expected = snapshot(legacyGraph);
+    assertThat(snapshot(cteGraph)).isNotEmpty().isEqualTo(expected);
+  }
+
+  private List<Op> randomOps(Random random) {
+    List<Op> ops = new ArrayList<>();
+    String[] kinds = {"grant", "grant", "grant", "remove", "toggle", "link", "unlink"};
+    for (int i = 0; i < OPERATIONS; i++) {
+      AccessLevel level = random.nextBoolean() ? AccessLevel.CLIENT : AccessLevel.GENERAL;
+      ops.add(
+          new Op(
+              kinds[random.nextInt(kinds.length)],
+              random.nextInt(ROLES),
+              random.nextInt(COLLECTIONS),
+              random.nextInt(COLLECTIONS),
+              level));
+    }
+    return ops;
+  }
+
+  private Graph buildGraph(String prefix, List<int[]> edges) {
+    List<Long> collections = new ArrayList<>();
+    for (int i = 0; i < COLLECTIONS; i++) {
+      String slug = prefix + "-" + i;
+      jdbc.update(
+          "INSERT INTO collection (title, slug, visibility) VALUES (?, ?, 'UNLISTED')", slug, slug);
+      collections.add(
+          jdbc.queryForObject("SELECT id FROM collection WHERE slug=?", Long.class, slug));
+    }
+    for (int[] edge : edges) {
+      link(collections.get(edge[0]), collections.get(edge[1]), edge[2] == 1);
+    }
+    closureRepository.rederive(collections);
+    List<Long> roles = new ArrayList<>();
+    for (int i = 0; i < ROLES; i++) {
+      roles.add(roleRepository.createRole("role:" + prefix + "-" + i, null));
+    }
+    return new Graph(collections, roles);
+  }
+
+  private void link(long parentId, long childId, boolean visible) {
+    Long contentId =
+        jdbc.queryForObject(
+            "INSERT INTO content (content_type) VALUES ('COLLECTION') RETURNING id", Long.class);
+    jdbc.update(
+        "INSERT INTO content_collection (id, referenced_collection_id) VALUES (?, ?)",
+        contentId,
+        childId);
+    jdbc.update(
+        "INSERT INTO collection_content (collection_id, content_id, visible) VALUES (?, ?, ?)",
+        parentId,
+        contentId,
+        visible);
+  }
+
+  /** Flip one existing link's visibility; returns the previous value, or null if unlinked. */
+  private Boolean toggle(long parentId, long childId) {
+    List<Boolean> current =
+        jdbc.queryForList(
+            "SELECT cc.visible FROM collection_content cc"
+                + " JOIN content_collection cct ON cct.id = cc.content_id"
+                + " WHERE cc.collection_id = ? AND cct.referenced_collection_id = ?",
+            Boolean.class,
+            parentId,
+            childId);
+    if (current.size() != 1) {
+      return null;
+    }
+    jdbc.update(
+        "UPDATE collection_content cc SET visible = NOT cc.visible FROM content_collection cct"
+            + " WHERE cc.content_id = cct.id AND cc.collection_id = ?"
+            + " AND cct.referenced_collection_id = ?",
+        parentId,
+        childId);
+    return current.get(0);
+  }
+
+  private boolean unlink(long parentId, long childId) {
+    return jdbc.update(
+            "DELETE FROM collection_content cc USING content_collection cct"
+                + " WHERE cc.content_id = cct.id AND cc.collection_id = ?"
+                + " AND cct.referenced_collection_id = ?",
+            parentId,
+            childId)
+        > 0;
+  }
+
+  /**
+   * Replay the script through the legacy BFS, or through the service when {@code legacy} is null.
+   */
+  private void replay(Graph graph, List<Op> ops, LegacyBfsPropagation legacy) {
+    for (Op op : ops) {
+      long role = graph.roles().get(op.role());
+      long a = graph.collections().get(op.a());
+      long b = graph.collections().get(op.b());
+      switch (op.kind()) {
+        case "grant" -> {
+          if (legacy != null) {
+            legacy.setGrant(role, a, op.level());
+          } else {
+            propagation.setGrant(role, a, op.level(), null);
+          }
+        }
+        case "remove" -> {
+          if (legacy != null) {
+            legacy.removeGrant(role, a);
+          } else {
+            propagation.removeGrant(role, a);
+          }
+        }
+        case "toggle" -> {
+          Boolean was = toggle(a, b);
+          closureRepository.rederive(graph.collections());
+          if (was != null) {
+            if (legacy != null) {
+              legacy.onChildVisibilityToggled(a, b, was, !was);
+            } else {
+              propagation.onChildVisibilityToggled(a, b, was, !was);
+            }
+          }
+        }
+        case "link" -> {
+          link(a, b, true);
+          closureRepository.rederive(graph.collections());
+          if (legacy != null) {
+            legacy.onChildLinked(a, b);
+          } else {
+            propagation.onChildLinked(a, b);
+          }
+        }
+        case "unlink" -> {
+          boolean unlinked = unlink(a, b);
+          closureRepository.rederive(graph.collections());
+          if (unlinked) {
+            if (legacy != null) {
+              legacy.onChildUnlinked(a, b);
+            } else {
+              propagation.onChildUnlinked(a, b);
+            }
+          }
+        }
+        default -> throw new IllegalStateException(op.kind());
+      }
+    }
+  }
+
+  /** The graph's grant rows, with ids translated back to graph positions. */
+  private Set<String> snapshot(Graph graph) {
+    Map<Long, Integer> position = new HashMap<>();
+    for (int i = 0; i < graph.collections().size(); i++) {
+      position.put(graph.collections().get(i), i);
+    }
+    Set<String> rows = new TreeSet<>();
+    for (int r = 0; r < graph.roles().size(); r++) {
+      long roleId = graph.roles().get(r);
+      for (int c = 0; c < graph.collections().size(); c++) {
+        for (CollectionGrant grant :
+            roleRepository.allGrantsForCollection(graph.collections().get(c))) {
+          if (grant.roleId() == roleId) {
+            Integer origin =
+                grant.direct() ? null : position.get(grant.inheritedFromCollectionId());
+            rows.add(r + ":" + c + ":" + grant.level() + ":" + origin);
+          }
+        }
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * The original per-node BFS propagation, kept verbatim as the reference implementation. Walks the
+   * graph one hop per query and writes one row per statement.
+   */
+  private record LegacyBfsPropagation(
+      RoleRepository roleRepository, CollectionRepository collectionRepository) {
+
+    void setGrant(Long roleId, Long collectionId, AccessLevel level) {
+      roleRepository.setCollectionGrant(roleId, collectionId, level, null);
+      roleRepository.removeInheritedGrantsByOrigin(roleId, collectionId);
+      propagateToVisibleSubtree(roleId, level, collectionId, collectionId);
+      rematerializeSubtreeFromAncestors(roleId, collectionId);
+    }
+
+    void removeGrant(Long roleId, Long collectionId) {
+      roleRepository.removeCollectionGrant(roleId, collectionId);
+      roleRepository.removeInheritedGrantsByOrigin(roleId, collectionId);
+      rematerializeSubtreeFromAncestors(roleId, collectionId);
+    }
+
+    void onChildLinked(Long parentId, Long childId) {
+      for (CollectionGrant grant : roleRepository.allGrantsForCollection(parentId)) {
+        Long originId = grant.direct() ? parentId : grant.inheritedFromCollectionId();
+        roleRepository.insertInheritedGrant(grant.roleId(), childId, grant.level(), originId);
+        propagateToVisibleSubtree(grant.roleId(), grant.level(), originId, childId);
+      }
+    }
+
+    void onChildUnlinked(Long parentId, Long childId) {
+      Set<Long> origins = ancestorsOf(parentId);
+      origins.add(parentId);
+      for (Long member : subtreeOf(childId)) {
+        for (CollectionGrant grant : roleRepository.allGrantsForCollection(member)) {
+          if (!grant.direct() && origins.contains(grant.inheritedFromCollectionId())) {
+            roleRepository.removeInheritedGrantsForCollectionByOrigin(
+                grant.roleId(), member, grant.inheritedFromCollectionId());
+          }
+        }
+      }
+    }
+
+    void onChildVisibilityToggled(
+        Long parentId, Long childId, boolean wasVisible, boolean nowVisible) {
+      if (wasVisible == nowVisible) {
+        return;
+      }
+      if (nowVisible) {
+        onChildLinked(parentId, childId);
+      } else {
+        onChildUnlinked(parentId, childId);
+      }
+    }
+
+    private void propagateToVisibleSubtree(
+        Long roleId, AccessLevel level, Long originCollectionId, Long rootId) {
+      Set<Long> visited = new HashSet<>();
+      visited.add(rootId);
+      Deque<Long> pending =
+          new ArrayDeque<>(
+              collectionRepository.findVisibleReferencedCollectionIdsByParentId(rootId));
+      while (!pending.isEmpty()) {
+        Long current = pending.poll();
+        if (!visited.add(current)) {
+          continue;
+        }
+        if (!current.equals(originCollectionId)) {
+          roleRepository.insertInheritedGrant(roleId, current, level, originCollectionId);
+        }
+        pending.addAll(collectionRepository.findVisibleReferencedCollectionIdsByParentId(current));
+      }
+    }
+
+    private void rematerializeSubtreeFromAncestors(Long roleId, Long collectionId) {
+      for (Long ancestorId : visiblyLinkedAncestorsOf(collectionId)) {
+        roleRepository.directGrantsForCollection(ancestorId).stream()
+            .filter(g -> g.roleId().equals(roleId))
+            .forEach(
+                g -> {
+                  roleRepository.insertInheritedGrant(roleId, collectionId, g.level(), ancestorId);
+                  propagateToVisibleSubtree(roleId, g.level(), ancestorId, collectionId);
+                });
+      }
+    }
+
+    private Set<Long> ancestorsOf(Long collectionId) {
+      Set<Long> visited = new HashSet<>();
+      visited.add(collectionId);
+      Set<Long> ancestors = new LinkedHashSet<>();
+      Deque<Long> pending = new ArrayDeque<>(parentIdsOf(collectionId));
+      while (!pending.isEmpty()) {
+        Long current = pending.poll();
+        if (!visited.add(current)) {
+          continue;
+        }
+        ancestors.add(current);
+        pending.addAll(parentIdsOf(current));
+      }
+      return ancestors;
+    }
+
+    private Set<Long> subtreeOf(Long rootId) {
+      Set<Long> visited = new LinkedHashSet<>();
+      visited.add(rootId);
+      Deque<Long> pending = new ArrayDeque<>(childIdsOf(rootId));
+      while (!pending.isEmpty()) {
+        Long current = pending.poll();
+        if (!visited.add(current)) {
+          continue;
+        }
+        pending.addAll(childIdsOf(current));
+      }
+      return visited;
+    }
+
+    private Set<Long> visiblyLinkedAncestorsOf(Long collectionId) {
+      Set<Long> visited = new HashSet<>();
+      visited.add(collectionId);
+      Set<Long> ancestors = new LinkedHashSet<>();
+      Deque<Long> pending =
+          new ArrayDeque<>(
+              collectionRepository.findVisibleParentCollectionIdsByChildId(collectionId));
+      while (!pending.isEmpty()) {
+        Long current = pending.poll();
+        if (!visited.add(current)) {
+          continue;
+        }
+        ancestors.add(current);
+        pending.addAll(collectionRepository.findVisibleParentCollectionIdsByChildId(current));
+      }
+      return ancestors;
+    }
+
+    private List<Long> parentIdsOf(Long collectionId) {
+      return collectionRepository.findAllParentCollectionsByChildId(collectionId).stream()
+          .map(CollectionEntity::getId)
+          .toList();
+    }
+
+    private List<Long> childIdsOf(Long collectionId) {
+      return collectionRepository.findAllReferencedCollectionsByParentId(collectionId).stream()
+          .map(CollectionEntity::getId)
+          .toList();
+    }
+  }
+}
@@ -25,6 +25,7 @@ class RoleGrantPropagationServiceIntegrationTest extends AbstractPostgresIntegra
   @Autowired private RoleGrantPropagationService propagation;
   @Autowired private RoleRepository roleRepository;
   @Autowired private CollectionService collectionService;
+  @Autowired private CollectionClosureService closureService;
   @Autowired private JdbcTemplate jdbc;
 
   private long seedUser(String name) {
@@ -54,6 +55,8 @@ class RoleGrantPropagationServiceIntegrationTest extends AbstractPostgresIntegra
             + " AND cct.referenced_collection_id = ?",
         parentId,
         childId);
+    // The waterfall reads its subtrees from the closure, which this raw write bypasses.
+    closureService.onChildVisibilityToggled(parentId, childId, true, false);
   }
 
   private int grantRowCount(long roleId, long collectionId) {
@@ -333,4 +336,52 @@ class RoleGrantPropagationServiceIntegrationTest extends AbstractPostgresIntegra
     assertThat(grantRowCount(roleId, hidden)).isZero();
     assertThat(grantRowCount(roleId, hiddenChild)).isZero();
   }
+
+  @Test
+  void deepDiamondLadderIsWalkedByPairsNotPaths() {
+    // 24 stacked diamonds: 2^24 distinct chains between top and bottom, 73 ancestors of the bottom.
+    long user = seedUser("Wf-Ladder");
+    long top = seedCollection("wf-ld-top");
+    long join = top;
+    long firstLeft = 0;
+    for (int level = 0; level < 24; level++) {
+      long left = seedCollection("wf-ld-left-" + level);
+      if (level == 0) {
+        firstLeft = left;
+      }
+      long right = seedCollection("wf-ld-right-" + level);
+      long next = seedCollection("wf-ld-join-" + level);
+      collectionService.linkCollectionToParent(join, left);
+      collectionService.linkCollectionToParent(join, right);
+      collectionService.linkCollectionToParent(left, next);
+      collectionService.linkCollectionToParent(right, next);
+      join = next;
+    }
+    long bottom = join;
+    long roleId = seedMemberRole("role:wf-ld", user);
+    propagation.setGrant(roleId, top, AccessLevel.GENERAL, null);
+    propagation.setGrant(roleId, bottom, AccessLevel.CLIENT, null);
+
+    propagation.removeGrant(roleId, bottom);
+
+    assertThat(roleRepository.canView(user, bottom)).isTrue();
+    assertThat(roleRepository.isClient(user, bottom)).isFalse();
+    assertThat(inheritedFrom(roleId, bottom)).isEqualTo(top);
+
+    // Unlinking re-derives the closure rows of the top; the right-hand chain still carries them.
+    collectionService.updateContent(top, removeChildrenUpdate(top, List.of(firstLeft)));
+    assertThat(roleRepository.canView(user, bottom)).isTrue();
+    assertThat(roleRepository.canView(user, firstLeft)).isFalse();
+
+    // A full rebuild over the ladder finds nothing to repair and keeps the shortest depth.
+    CollectionClosureService.ClosureReport report = closureService.rebuild();
+    assertThat(report.drift()).isEmpty();
+    assertThat(
+            jdbc.queryForObject(
+                "SELECT depth FROM collection_closure WHERE ancestor_id=? AND descendant_id=?",
+                Integer.class,
+                top,
+                bottom))
+        .isEqualTo(48);
+  }
 }
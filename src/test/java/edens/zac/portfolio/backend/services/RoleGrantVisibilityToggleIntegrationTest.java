@@ -26,6 +26,7 @@ class RoleGrantVisibilityToggleIntegrationTest extends AbstractPostgresIntegrati
 
   @Autowired private RoleRepository roleRepository;
   @Autowired private CollectionService collectionService;
+  @Autowired private CollectionClosureService closureService;
   @Autowired private JdbcTemplate jdbc;
 
   private long seedUser(String name) {
@@ -55,6 +56,8 @@ class RoleGrantVisibilityToggleIntegrationTest extends AbstractPostgresIntegrati
             + " AND cct.referenced_collection_id = ?",
         parentId,
         childId);
+    // The waterfall reads its subtrees from the closure, which this raw write bypasses.
+    closureService.onChildVisibilityToggled(parentId, childId, true, false);
   }
 
   private int grantRowCount(long roleId, long collectionId) {
@@ -0,0 +1,405 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edens.zac.portfolio.backend.model.DownloadResolution;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CopyPartResult;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartCopyRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartCopyResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+/**
+ * Unit tests for {@link S3CopyZipAssembler}, run against an in-memory stand-in for the bucket that
+ * honours ranged GETs and part copies, so the assembled bytes can be unzipped and checked.
+ */
+@ExtendWith(MockitoExtension.class)
+class S3CopyZipAssemblerTest {
+
+  private static final int MB = 1024 * 1024;
+
+  @Mock private S3Client s3;
+
+  @InjectMocks private S3CopyZipAssembler assembler;
+
+  /** Source objects, and whether each carries a stored CRC32 checksum. */
+  private final Map<String, byte[]> objects = new HashMap<>();
+
+  private final Map<String, Boolean> hasChecksum = new HashMap<>();
+
+  /** Keys whose HEAD succeeds but whose GET fails. */
+  private final Set<String> unreadable = new HashSet<>();
+
+  /** Part number to part bytes, and which of those parts came from a server-side copy. */
+  private final Map<Integer, byte[]> parts = new ConcurrentHashMap<>();
+
+  private final Map<Integer, Boolean> copiedParts = new ConcurrentHashMap<>();
+  private final AtomicInteger bytesDownloaded = new AtomicInteger();
+  private byte[] assembled;
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    ReflectionTestUtils.setField(assembler, "bucketName", "bucket");
+    ReflectionTestUtils.setField(assembler, "streamThresholdMb", 32L);
+    lenient()
+        .when(s3.createMultipartUpload(any(Consumer.class)))
+        .thenReturn(CreateMultipartUploadResponse.builder().uploadId("up-1").build());
+    lenient()
+        .when(s3.headObject(any(HeadObjectRequest.class)))
+        .thenAnswer(inv -> head(inv.getArgument(0)));
+    lenient()
+        .when(s3.getObject(any(GetObjectRequest.class)))
+        .thenAnswer(
+            inv -> {
+              GetObjectRequest request = inv.getArgument(0);
+              if (unreadable.contains(request.key())) {
+                throw NoSuchKeyException.builder().message(request.key()).build();
+              }
+              requireMatch(request.key(), request.ifMatch());
+              byte[] slice = slice(objects.get(request.key()), request.range());
+              bytesDownloaded.addAndGet(slice.length);
+              return new ResponseInputStream<>(
+                  GetObjectResponse.builder().contentLength((long) slice.length).build(),
+                  AbortableInputStream.create(new ByteArrayInputStream(slice)));
+            });
+    lenient()
+        .when(s3.uploadPart(any(Consumer.class), any(RequestBody.class)))
+        .thenAnswer(
+            inv -> {
+              UploadPartRequest.Builder request = UploadPartRequest.builder();
+              inv.<Consumer<UploadPartRequest.Builder>>getArgument(0).accept(request);
+              RequestBody body = inv.getArgument(1);
+              int number = request.build().partNumber();
+              parts.put(number, body.contentStreamProvider().newStream().readAllBytes());
+              return UploadPartResponse.builder().eTag("etag-" + number).build();
+            });
+    lenient()
+        .when(s3.uploadPartCopy(any(UploadPartCopyRequest.class)))
+        .thenAnswer(
+            inv -> {
+              UploadPartCopyRequest request = inv.getArgument(0);
+              requireMatch(request.sourceKey(), request.copySourceIfMatch());
+              parts.put(
+                  request.partNumber(),
+                  slice(objects.get(request.sourceKey()), request.copySourceRange()));
+              copiedParts.put(request.partNumber(), true);
+              return UploadPartCopyResponse.builder()
+                  .copyPartResult(
+                      CopyPartResult.builder().eTag("etag-" + request.partNumber()).build())
+                  .build();
+            });
+    lenient()
+        .when(s3.completeMultipartUpload(any(Consumer.class)))
+        .thenAnswer(
+            inv -> {
+              CompleteMultipartUploadRequest.Builder request =
+                  CompleteMultipartUploadRequest.builder();
+              inv.<Consumer<CompleteMultipartUploadRequest.Builder>>getArgument(0).accept(request);
+              ByteArrayOutputStream out = new ByteArrayOutputStream();
+              for (CompletedPart part : request.build().multipartUpload().parts()) {
+                out.writeBytes(parts.get(part.partNumber()));
+              }
+              assembled = out.toByteArray();
+              return CompleteMultipartUploadResponse.builder().build();
+            });
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private HeadObjectResponse head(HeadObjectRequest request) {
+    String key = request.key();
+    byte[] body = objects.get(key);
+    if (body == null) {
+      throw NoSuchKeyException.builder().message(key).build();
+    }
+    HeadObjectResponse.Builder head =
+        HeadObjectResponse.builder().contentLength((long) body.length).eTag(eTag(body));
+    if (hasChecksum.get(key)) {
+      CRC32 crc = new CRC32();
+      crc.update(body);
+      head.checksumCRC32(
+          Base64.getEncoder()
+              .encodeToString(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array()));
+    }
+    return head.build();
+  }
+
+  private static String eTag(byte[] body) {
+    return "\"" + Integer.toHexString(Arrays.hashCode(body)) + "\"";
+  }
+
+  /** Fail a conditional read or copy with 412, as S3 does, once the object no longer matches. */
+  private void requireMatch(String key, String ifMatch) {
+    if (ifMatch != null && !ifMatch.equals(eTag(objects.get(key)))) {
+      throw S3Exception.builder().statusCode(412).message("PreconditionFailed").build();
+    }
+  }
+
+  private static byte[] slice(byte[] body, String range) {
+    if (range == null) {
+      return body;
+    }
+    String[] bounds = range.substring("bytes=".length()).split("-");
+    return Arrays.copyOfRange(body, Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]) + 1);
+  }
+
+  private void putObject(String key, int size, boolean checksum) {
+    byte[] body = new byte[size];
+    new Random(key.hashCode()).nextBytes(body);
+    objects.put(key, body);
+    hasChecksum.put(key, checksum);
+  }
+
+  private static DownloadResolution entry(String key) {
+    return new DownloadResolution(
+        key, ".jpg", "image/jpeg", key.substring(key.lastIndexOf('/') + 1));
+  }
+
+  private Map<String, byte[]> unzip() throws IOException {
+    Map<String, byte[]> contents = new TreeMap<>();
+    try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(assembled))) {
+      for (ZipEntry e = in.getNextEntry(); e != null; e = in.getNextEntry()) {
+        assertThat(e.getMethod()).isEqualTo(ZipEntry.STORED);
+        contents.put(e.getName(), in.readAllBytes());
+      }
+    }
+    return contents;
+  }
+
+  @Test
+  void assemble_copiesLargeBodiesServerSideAndCoalescesSmallOnes() throws IOException {
+    putObject("Image/Original/big1.jpg", 14 * MB, true);
+    putObject("Image/Original/small.jpg", 300 * 1024, true);
+    putObject("Image/Original/big2.jpg", 12 * MB, true);
+
+    assembler.assemble(
+        List.of(
+            entry("Image/Original/big1.jpg"),
+            entry("Image/Original/small.jpg"),
+            entry("Image/Original/big2.jpg")),
+        "downloads-tmp/cache/x/a.zip",
+        executor,
+        4);
+
+    Map<String, byte[]> contents = unzip();
+    assertThat(contents.keySet()).containsExactly("000_big1.jpg", "001_small.jpg", "002_big2.jpg");
+    assertThat(contents.get("000_big1.jpg")).isEqualTo(objects.get("Image/Original/big1.jpg"));
+    assertThat(contents.get("001_small.jpg")).isEqualTo(objects.get("Image/Original/small.jpg"));
+    assertThat(contents.get("002_big2.jpg")).isEqualTo(objects.get("Image/Original/big2.jpg"));
+
+    // Every part but the last honours S3's 5 MB minimum.
+    int lastPart = parts.keySet().stream().max(Integer::compare).orElseThrow();
+    parts.forEach(
+        (number, bytes) -> {
+          if (number != lastPart) {
+            assertThat(bytes.length).isGreaterThanOrEqualTo((int) S3CopyZipAssembler.MIN_PART_SIZE);
+          }
+        });
+    assertThat(copiedParts).isNotEmpty();
+    // Only the top-up ranges and the small file passed through the JVM, not the 26 MB of bodies.
+    assertThat(bytesDownloaded.get()).isLessThan(12 * MB);
+  }
+
+  @Test
+  void assemble_objectWithoutStoredCrc_isFetchedAndWrittenInline() throws IOException {
+    putObject("Image/Original/legacy.jpg", 6 * MB, false);
+    putObject("Image/Original/new.jpg", 7 * MB, true);
+
+    assembler.assemble(
+        List.of(entry("Image/Original/legacy.jpg"), entry("Image/Original/new.jpg")),
+        "k.zip",
+        executor,
+        2);
+
+    Map<String, byte[]> contents = unzip();
+    assertThat(contents.get("000_legacy.jpg")).isEqualTo(objects.get("Image/Original/legacy.jpg"));
+    assertThat(contents.get("001_new.jpg")).isEqualTo(objects.get("Image/Original/new.jpg"));
+  }
+
+  @Test
+  void assemble_largeObjectWithoutStoredCrc_isReadForItsCrcAndCopied() throws IOException {
+    ReflectionTestUtils.setField(assembler, "streamThresholdMb", 8L);
+    putObject("Image/Original/legacy.jpg", 12 * MB, false);
+
+    assembler.assemble(List.of(entry("Image/Original/legacy.jpg")), "k.zip", executor, 2);
+
+    assertThat(unzip().get("000_legacy.jpg")).isEqualTo(objects.get("Image/Original/legacy.jpg"));
+    assertThat(copiedParts).isNotEmpty();
+  }
+
+  @Test
+  void assemble_missingObject_becomesErrorPlaceholder() throws IOException {
+    putObject("Image/Original/ok.jpg", 1024, true);
+
+    int placeholders =
+        assembler.assemble(
+            List.of(entry("Image/Original/gone.jpg"), entry("Image/Original/ok.jpg")),
+            "k.zip",
+            executor,
+            2);
+
+    assertThat(placeholders).isEqualTo(1);
+    Map<String, byte[]> contents = unzip();
+    assertThat(contents.keySet()).containsExactly("000_gone.jpg.error.txt", "001_ok.jpg");
+    assertThat(new String(contents.get("000_gone.jpg.error.txt")))
+        .startsWith("Could not include this image");
+  }
+
+  @Test
+  void assemble_unreadableObjectWithoutStoredCrc_becomesErrorPlaceholder() throws IOException {
+    putObject("Image/Original/legacy-a.jpg", 2048, false);
+    putObject("Image/Original/legacy-b.jpg", 4096, false);
+    unreadable.add("Image/Original/legacy-a.jpg");
+    ReflectionTestUtils.setField(assembler, "prefetchConcurrency", 2);
+
+    int placeholders =
+        assembler.assemble(
+            List.of(entry("Image/Original/legacy-a.jpg"), entry("Image/Original/legacy-b.jpg")),
+            "k.zip",
+            executor,
+            2);
+
+    assertThat(placeholders).isEqualTo(1);
+    Map<String, byte[]> contents = unzip();
+    assertThat(contents.keySet()).containsExactly("000_legacy-a.jpg.error.txt", "001_legacy-b.jpg");
+    assertThat(contents.get("001_legacy-b.jpg"))
+        .isEqualTo(objects.get("Image/Original/legacy-b.jpg"));
+  }
+
+  @Test
+  void assemble_headsEntriesConcurrently() throws IOException {
+    putObject("Image/Original/a.jpg", 1024, true);
+    putObject("Image/Original/b.jpg", 1024, true);
+    ReflectionTestUtils.setField(assembler, "headConcurrency", 2);
+    // Each HEAD waits for the other; run one at a time, neither would see its partner.
+    CountDownLatch bothInFlight = new CountDownLatch(2);
+    AtomicInteger overlapped = new AtomicInteger();
+    when(s3.headObject(any(HeadObjectRequest.class)))
+        .thenAnswer(
+            inv -> {
+              bothInFlight.countDown();
+              if (bothInFlight.await(5, TimeUnit.SECONDS)) {
+                overlapped.incrementAndGet();
+              }
+              return head(inv.getArgument(0));
+            });
+
+    assembler.assemble(
+        List.of(entry("Image/Original/a.jpg"), entry("Image/Original/b.jpg")),
+        "k.zip",
+        executor,
+        2);
+
+    assertThat(overlapped.get()).isEqualTo(2);
+    assertThat(unzip().keySet()).containsExactly("000_a.jpg", "001_b.jpg");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void assemble_failedPartCopy_abortsTheUpload() {
+    putObject("Image/Original/big.jpg", 12 * MB, true);
+    when(s3.uploadPartCopy(any(UploadPartCopyRequest.class)))
+        .thenThrow(AwsServiceException.builder().message("copy failed").build());
+
+    assertThatThrownBy(
+            () ->
+                assembler.assemble(List.of(entry("Image/Original/big.jpg")), "k.zip", executor, 2))
+        .isInstanceOf(AwsServiceException.class);
+    verify(s3).abortMultipartUpload(any(Consumer.class));
+    verify(s3, never()).completeMultipartUpload(any(Consumer.class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void assemble_objectReplacedAfterItsHead_isRebuiltAsPlaceholder() throws IOException {
+    putObject("Image/Original/big.jpg", 12 * MB, true);
+    putObject("Image/Original/ok.jpg", 1024, true);
+    when(s3.headObject(any(HeadObjectRequest.class)))
+        .thenAnswer(
+            inv -> {
+              HeadObjectResponse head = head(inv.getArgument(0));
+              if (inv.<HeadObjectRequest>getArgument(0).key().equals("Image/Original/big.jpg")) {
+                putObject("Image/Original/big.jpg", 13 * MB, true); // overwritten after the HEAD
+              }
+              return head;
+            });
+
+    int placeholders =
+        assembler.assemble(
+            List.of(entry("Image/Original/big.jpg"), entry("Image/Original/ok.jpg")),
+            "k.zip",
+            executor,
+            2);
+
+    assertThat(placeholders).isEqualTo(1);
+    assertThat(unzip().keySet()).containsExactly("000_big.jpg.error.txt", "001_ok.jpg");
+    verify(s3).abortMultipartUpload(any(Consumer.class));
+    verify(s3).completeMultipartUpload(any(Consumer.class));
+  }
+
+  @Test
+  void fullObjectCrc32_ignoresCompositeMultipartChecksums() {
+    assertThat(S3CopyZipAssembler.fullObjectCrc32("AAAAAQ==")).isEqualTo(1L);
+    assertThat(S3CopyZipAssembler.fullObjectCrc32("/////w==")).isEqualTo(0xFFFFFFFFL);
+    assertThat(S3CopyZipAssembler.fullObjectCrc32("AAAAAQ==-3")).isNull();
+    assertThat(S3CopyZipAssembler.fullObjectCrc32(null)).isNull();
+  }
+}
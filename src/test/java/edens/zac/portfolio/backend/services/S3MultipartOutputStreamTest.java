@@ -11,17 +11,24 @@ import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import software.amazon.awssdk.awscore.exception.AwsServiceException;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
 import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 import software.amazon.awssdk.services.s3.model.UploadPartResponse;
 
 /** Unit tests for the streaming multipart-upload {@link java.io.OutputStream}. */
@@ -129,4 +136,55 @@ class S3MultipartOutputStreamTest {
     assertThatThrownBy(out::close).isInstanceOf(AwsServiceException.class);
     verify(s3).abortMultipartUpload(any(Consumer.class));
   }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void asyncParts_completeWithPartsSortedByNumber() throws IOException {
+    when(s3.uploadPart(any(Consumer.class), any(RequestBody.class)))
+        .thenAnswer(
+            inv -> {
+              UploadPartRequest.Builder request = UploadPartRequest.builder();
+              inv.<Consumer<UploadPartRequest.Builder>>getArgument(0).accept(request);
+              int number = request.build().partNumber();
+              // Part 1 finishes last, so completion order differs from part order.
+              Thread.sleep(number == 1 ? 100 : 0);
+              return UploadPartResponse.builder().eTag("etag-" + number).build();
+            });
+
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    try (S3MultipartOutputStream out =
+        new S3MultipartOutputStream(s3, "bucket", "key", executor, 3)) {
+      out.write(pattern(2 * PART_SIZE + 10));
+    } finally {
+      executor.shutdown();
+    }
+
+    ArgumentCaptor<Consumer<CompleteMultipartUploadRequest.Builder>> complete =
+        ArgumentCaptor.forClass(Consumer.class);
+    verify(s3).completeMultipartUpload(complete.capture());
+    CompleteMultipartUploadRequest.Builder request = CompleteMultipartUploadRequest.builder();
+    complete.getValue().accept(request);
+    List<CompletedPart> parts = request.build().multipartUpload().parts();
+    assertThat(parts).extracting(CompletedPart::partNumber).containsExactly(1, 2, 3);
+    assertThat(parts).extracting(CompletedPart::eTag).containsExactly("etag-1", "etag-2", "etag-3");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void asyncParts_backgroundFailureAbortsOnClose() {
+    when(s3.uploadPart(any(Consumer.class), any(RequestBody.class)))
+        .thenThrow(AwsServiceException.builder().message("slow down").build());
+
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    try {
+      S3MultipartOutputStream out = new S3MultipartOutputStream(s3, "bucket", "key", executor, 2);
+      out.write(pattern(PART_SIZE + 10), 0, PART_SIZE + 10);
+
+      assertThatThrownBy(out::close).isInstanceOf(AwsServiceException.class);
+      verify(s3).abortMultipartUpload(any(Consumer.class));
+      verify(s3, never()).completeMultipartUpload(any(Consumer.class));
+    } finally {
+      executor.shutdown();
+    }
+  }
 }
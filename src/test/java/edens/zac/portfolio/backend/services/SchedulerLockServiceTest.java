@@ -0,0 +1,52 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import edens.zac.portfolio.backend.dao.SchedulerLockRepository;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+@ExtendWith(MockitoExtension.class)
+class SchedulerLockServiceTest {
+
+  private static final Duration LEASE = Duration.ofMinutes(54);
+
+  @Mock private SchedulerLockRepository schedulerLockRepository;
+
+  private final AtomicInteger runs = new AtomicInteger();
+
+  private SchedulerLockService service() {
+    return new SchedulerLockService(schedulerLockRepository, new ClusterNode("node-a"));
+  }
+
+  @Test
+  void runsTheTaskWhenTheLeaseIsTaken() {
+    when(schedulerLockRepository.tryAcquire("task", LEASE, "node-a")).thenReturn(true);
+
+    assertThat(service().runExclusively("task", LEASE, runs::incrementAndGet)).isTrue();
+    assertThat(runs).hasValue(1);
+  }
+
+  @Test
+  void skipsTheTaskWhileAnotherNodeHoldsTheLease() {
+    when(schedulerLockRepository.tryAcquire("task", LEASE, "node-a")).thenReturn(false);
+
+    assertThat(service().runExclusively("task", LEASE, runs::incrementAndGet)).isFalse();
+    assertThat(runs).hasValue(0);
+  }
+
+  @Test
+  void skipsTheTaskWhenTheDatabaseIsUnreachable() {
+    when(schedulerLockRepository.tryAcquire("task", LEASE, "node-a"))
+        .thenThrow(new DataAccessResourceFailureException("down"));
+
+    assertThat(service().runExclusively("task", LEASE, runs::incrementAndGet)).isFalse();
+    assertThat(runs).hasValue(0);
+  }
+}
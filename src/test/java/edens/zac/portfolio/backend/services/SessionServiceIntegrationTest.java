@@ -22,6 +22,7 @@ import org.springframework.mock.web.MockHttpServletResponse;
 class SessionServiceIntegrationTest extends AbstractPostgresIntegrationTest {
 
   @Autowired private SessionService sessionService;
+  @Autowired private SessionPrincipalCache principalCache;
   @Autowired private AppUserRepository userRepository;
   @Autowired private UserSessionRepository sessionRepository;
   @Autowired private JdbcTemplate jdbcTemplate;
@@ -128,6 +129,8 @@ class SessionServiceIntegrationTest extends AbstractPostgresIntegrationTest {
             .getLastSeenAt();
 
     assertThat(sessionService.resolve(raw)).isPresent();
+    // The slide is written behind; flush the buffer the scheduler would drain.
+    principalCache.flushTouches();
 
     LocalDateTime after =
         sessionRepository
@@ -174,6 +177,7 @@ class SessionServiceIntegrationTest extends AbstractPostgresIntegrationTest {
         sessionId);
 
     assertThat(sessionService.resolve(raw)).isPresent();
+    principalCache.flushTouches();
 
     LocalDateTime slidExpiry =
         sessionRepository.findByTokenHash(tokenHash).orElseThrow().getExpiresAt();
@@ -196,4 +200,23 @@ class SessionServiceIntegrationTest extends AbstractPostgresIntegrationTest {
     assertThat(principal).isPresent();
     assertThat(principal.get().mfaSatisfied()).isTrue();
   }
+
+  @Test
+  void cachedSessionIsDroppedOnRevokeAndOnUserChange() {
+    AppUserEntity admin = seedAdmin("cached@example.com");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    sessionService.create(admin, false, new MockHttpServletRequest(), response);
+    String raw = rawTokenFrom(response);
+    assertThat(sessionService.resolve(raw)).isPresent();
+
+    // A write that bypasses the eviction hooks is not seen while the entry is cached...
+    userRepository.updateEmail(admin.getId(), "renamed@example.com");
+    assertThat(sessionService.resolve(raw).orElseThrow().email()).isEqualTo("cached@example.com");
+    // ...until the user is evicted.
+    principalCache.evictUser(admin.getId());
+    assertThat(sessionService.resolve(raw).orElseThrow().email()).isEqualTo("renamed@example.com");
+
+    sessionService.revoke(raw, new MockHttpServletResponse());
+    assertThat(sessionService.resolve(raw)).isEmpty();
+  }
 }
@@ -0,0 +1,130 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edens.zac.portfolio.backend.dao.AppUserRepository;
+import edens.zac.portfolio.backend.dao.UserSessionRepository;
+import edens.zac.portfolio.backend.dao.UserSessionRepository.SessionTouch;
+import edens.zac.portfolio.backend.entity.AppUserEntity;
+import edens.zac.portfolio.backend.entity.UserSessionEntity;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/** Cache and write-behind behavior of {@link SessionService#resolve}, without a database. */
+@ExtendWith(MockitoExtension.class)
+class SessionServiceTest {
+
+  private static final String RAW = "raw-token";
+
+  @Mock private UserSessionRepository sessionRepository;
+  @Mock private AppUserRepository appUserRepository;
+
+  private SessionPrincipalCache cache;
+  private SessionService service;
+  private String tokenHash;
+
+  @BeforeEach
+  void setUp() {
+    cache = new SessionPrincipalCache(sessionRepository, 30, 100);
+    service = new SessionService(sessionRepository, appUserRepository, cache, true, 60, 24, 90);
+    tokenHash = TokenUtil.sha256Hex(RAW);
+  }
+
+  private void givenSession(LocalDateTime lastSeenAt) {
+    LocalDateTime now = LocalDateTime.now();
+    when(sessionRepository.findByTokenHash(tokenHash))
+        .thenReturn(
+            Optional.of(
+                UserSessionEntity.builder()
+                    .id(5L)
+                    .userId(7L)
+                    .tokenHash(tokenHash)
+                    .createdAt(now.minusDays(3))
+                    .lastSeenAt(lastSeenAt)
+                    .expiresAt(now.plusDays(10))
+                    .build()));
+    when(appUserRepository.findById(7L))
+        .thenReturn(
+            Optional.of(
+                AppUserEntity.builder().id(7L).email("a@example.com").isAdmin(true).build()));
+  }
+
+  @Test
+  void repeatResolvesAreServedFromTheCache() {
+    givenSession(LocalDateTime.now());
+
+    for (int i = 0; i < 5; i++) {
+      assertThat(service.resolve(RAW)).get().extracting("email").isEqualTo("a@example.com");
+    }
+
+    verify(sessionRepository, times(1)).findByTokenHash(tokenHash);
+    verify(appUserRepository, times(1)).findById(7L);
+    verify(sessionRepository, never()).touch(anyLong(), any(), any());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void staleSessionSlideIsBufferedUntilFlush() {
+    givenSession(LocalDateTime.now().minusDays(2));
+
+    service.resolve(RAW);
+    service.resolve(RAW);
+    verify(sessionRepository, never()).touchAll(any());
+
+    cache.flushTouches();
+    ArgumentCaptor<Collection<SessionTouch>> batch = ArgumentCaptor.forClass(Collection.class);
+    verify(sessionRepository).touchAll(batch.capture());
+    assertThat(batch.getValue())
+        .singleElement()
+        .satisfies(
+            t -> {
+              assertThat(t.sessionId()).isEqualTo(5L);
+              assertThat(t.expiresAt()).isAfter(LocalDateTime.now().plusDays(6));
+            });
+
+    // Drained: a second flush writes nothing.
+    cache.flushTouches();
+    verify(sessionRepository, times(1)).touchAll(any());
+  }
+
+  @Test
+  void revokeAndUserEvictionForceAReload() {
+    givenSession(LocalDateTime.now());
+    service.resolve(RAW);
+
+    cache.evictUser(7L);
+    service.resolve(RAW);
+    verify(sessionRepository, times(2)).findByTokenHash(tokenHash);
+
+    service.revoke(RAW, new MockHttpServletResponse());
+    service.resolve(RAW);
+    verify(sessionRepository).revokeByTokenHash(tokenHash);
+    verify(sessionRepository, times(3)).findByTokenHash(tokenHash);
+  }
+
+  @Test
+  void zeroTtlDisablesCaching() {
+    cache = new SessionPrincipalCache(sessionRepository, 0, 100);
+    service = new SessionService(sessionRepository, appUserRepository, cache, true, 60, 24, 90);
+    givenSession(LocalDateTime.now());
+
+    service.resolve(RAW);
+    service.resolve(RAW);
+
+    verify(sessionRepository, times(2)).findByTokenHash(tokenHash);
+  }
+}
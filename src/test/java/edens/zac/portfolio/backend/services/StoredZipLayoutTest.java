@@ -0,0 +1,95 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Round-trips {@link StoredZipLayout} output through the JDK's ZIP readers. */
+class StoredZipLayoutTest {
+
+  private static final LocalDateTime MODIFIED = LocalDateTime.of(2026, 10, 18, 9, 30, 12);
+
+  @TempDir Path tempDir;
+
+  private static byte[] archive(StoredZipLayout layout, List<String> names, List<byte[]> bodies) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int i = 0; i < names.size(); i++) {
+      CRC32 crc = new CRC32();
+      crc.update(bodies.get(i));
+      out.writeBytes(layout.addEntry(names.get(i), bodies.get(i).length, crc.getValue()));
+      out.writeBytes(bodies.get(i));
+    }
+    out.writeBytes(layout.finish());
+    assertThat(layout.offset()).isEqualTo(out.size());
+    return out.toByteArray();
+  }
+
+  private void assertReadable(byte[] zip, List<String> names, List<byte[]> bodies)
+      throws IOException {
+    // Streaming reader: relies on the local headers.
+    try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+      for (int i = 0; i < names.size(); i++) {
+        ZipEntry entry = in.getNextEntry();
+        assertThat(entry.getName()).isEqualTo(names.get(i));
+        assertThat(entry.getMethod()).isEqualTo(ZipEntry.STORED);
+        assertThat(in.readAllBytes()).isEqualTo(bodies.get(i));
+      }
+      assertThat(in.getNextEntry()).isNull();
+    }
+    // Random-access reader: relies on the central directory and end records.
+    Path file = tempDir.resolve("archive.zip");
+    Files.write(file, zip);
+    try (ZipFile zipFile = new ZipFile(file.toFile())) {
+      List<? extends ZipEntry> entries = Collections.list(zipFile.entries());
+      assertThat(entries).extracting(ZipEntry::getName).containsExactlyElementsOf(names);
+      for (int i = 0; i < names.size(); i++) {
+        ZipEntry entry = entries.get(i);
+        assertThat(entry.getSize()).isEqualTo(bodies.get(i).length);
+        try (var body = zipFile.getInputStream(entry)) {
+          assertThat(body.readAllBytes()).isEqualTo(bodies.get(i));
+        }
+      }
+    }
+  }
+
+  @Test
+  void classicLayout_isReadableByJdkZipReaders() throws IOException {
+    List<String> names = List.of("000_a.jpg", "001_Zoë.jpg", "002_empty.txt");
+    List<byte[]> bodies =
+        List.of(
+            "first body".getBytes(StandardCharsets.UTF_8),
+            "second, longer body".getBytes(StandardCharsets.UTF_8),
+            new byte[0]);
+
+    assertReadable(archive(new StoredZipLayout(MODIFIED), names, bodies), names, bodies);
+  }
+
+  @Test
+  void forcedZip64Layout_isReadableByJdkZipReaders() throws IOException {
+    List<String> names = new ArrayList<>();
+    List<byte[]> bodies = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      names.add(String.format("%03d_img.jpg", i));
+      bodies.add(("body-" + i).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Threshold 0 puts every size and offset through the ZIP64 extra fields and end records,
+    // which otherwise only appear past 4 GB.
+    assertReadable(archive(new StoredZipLayout(MODIFIED, 0), names, bodies), names, bodies);
+  }
+}
@@ -8,6 +8,7 @@ import edens.zac.portfolio.backend.model.CollectionModel;
 import edens.zac.portfolio.backend.model.CollectionRequests;
 import edens.zac.portfolio.backend.model.SaveAsCollectionRequest;
 import edens.zac.portfolio.backend.types.CollectionVisibility;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -190,6 +191,47 @@ class TagConversionIntegrationTest extends AbstractPostgresIntegrationTest {
     assertThat(listedChildRows).isEqualTo(1);
   }
 
+  @Test
+  void convert_snapshotsImagesOnceEach_afterMembers_newestCaptureFirst() {
+    long tag = seedTag("Portraits", "portraits");
+    long member = seedCollection("portrait-session", CollectionVisibility.LISTED, 5);
+    tagCollection(member, tag);
+
+    long hostA = seedCollection("portrait-host-a", CollectionVisibility.LISTED, 1);
+    long hostB = seedCollection("portrait-host-b", CollectionVisibility.UNLISTED, 1);
+    long older = seedImage("https://cdn/older.jpg");
+    long newer = seedImage("https://cdn/newer.jpg");
+    long undated = seedImage("https://cdn/undated.jpg");
+    jdbc.update("UPDATE content_image SET capture_date = '2021-05-01' WHERE id = ?", older);
+    jdbc.update("UPDATE content_image SET capture_date = '2024-08-15' WHERE id = ?", newer);
+    for (long image : new long[] {older, newer, undated}) {
+      tagContent(image, tag);
+      addMembership(hostA, image, true);
+    }
+    // A second visible membership must not duplicate the image in the snapshot.
+    addMembership(hostB, older, true);
+
+    Long newCollectionId = tagService.convertTagToCollection(tag, null).collection().getId();
+
+    List<Long> imageOrder =
+        jdbc.queryForList(
+            """
+            SELECT cc.content_id FROM collection_content cc
+            JOIN content c ON c.id = cc.content_id
+            WHERE cc.collection_id = ? AND c.content_type = 'IMAGE'
+            ORDER BY cc.order_index
+            """,
+            Long.class,
+            newCollectionId);
+    assertThat(imageOrder).containsExactly(newer, older, undated);
+    List<Integer> orderIndexes =
+        jdbc.queryForList(
+            "SELECT order_index FROM collection_content WHERE collection_id = ? ORDER BY order_index",
+            Integer.class,
+            newCollectionId);
+    assertThat(orderIndexes).containsExactly(0, 1, 2, 3);
+  }
+
   @Test
   void convert_rejectedWhenRealCollectionAlreadyOwnsSlug() {
     seedCollection("already-taken", CollectionVisibility.LISTED, 1);
@@ -3,6 +3,7 @@ package edens.zac.portfolio.backend.services;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
@@ -11,15 +12,16 @@ import static org.mockito.Mockito.when;
 
 import edens.zac.portfolio.backend.dao.CollectionRepository;
 import edens.zac.portfolio.backend.dao.TagRepository;
-import edens.zac.portfolio.backend.entity.CollectionContentEntity;
 import edens.zac.portfolio.backend.entity.CollectionEntity;
 import edens.zac.portfolio.backend.entity.TagEntity;
 import edens.zac.portfolio.backend.model.CollectionModel;
 import edens.zac.portfolio.backend.model.CollectionRequests;
 import edens.zac.portfolio.backend.model.SaveAsCollectionRequest;
 import edens.zac.portfolio.backend.types.CollectionVisibility;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -63,7 +65,7 @@ class TagServiceTest {
     memberCollection.setId(200L);
     when(tagRepository.findCollectionsByTagId(eq(5L), anyList()))
         .thenReturn(List.of(memberCollection));
-    when(tagRepository.findImageContentByTagId(eq(5L), anyList())).thenReturn(List.of(300L, 301L));
+    when(collectionService.linkCollectionsToParent(99L, List.of(200L))).thenReturn(1);
     when(collectionRepository.getMaxOrderIndexForCollection(99L)).thenReturn(0);
 
     when(collectionService.getUpdateCollectionData("landscape"))
@@ -85,17 +87,13 @@ class TagServiceTest {
     assertThat(saveCaptor.getValue().getSlug()).isEqualTo("landscape");
     assertThat(saveCaptor.getValue().getVisibility()).isEqualTo(CollectionVisibility.UNLISTED);
 
-    // Member collection linked; two images snapshotted with incrementing order indexes.
-    verify(collectionService).linkCollectionToParent(99L, 200L);
-    ArgumentCaptor<CollectionContentEntity> contentCaptor =
-        ArgumentCaptor.forClass(CollectionContentEntity.class);
-    verify(collectionRepository, org.mockito.Mockito.times(2)).saveContent(contentCaptor.capture());
-    assertThat(contentCaptor.getAllValues())
-        .extracting(CollectionContentEntity::getContentId)
-        .containsExactly(300L, 301L);
-    assertThat(contentCaptor.getAllValues())
-        .extracting(CollectionContentEntity::getOrderIndex)
-        .containsExactly(1, 2);
+    // Member collections linked as one batch; images copied by one set-based insert that starts
+    // after the member link's order index.
+    verify(collectionService).linkCollectionsToParent(99L, List.of(200L));
+    verify(collectionService, never()).linkCollectionToParent(any(), any());
+    verify(tagRepository).snapshotTaggedImages(eq(5L), eq(99L), anyList(), eq(1));
+    verify(tagRepository, never()).findTaggedImageIdsForSnapshot(any(), any(), anyList());
+    verify(collectionRepository, never()).saveContent(any());
 
     // Tag flagged converted; response is the real collection at the tag slug.
     verify(tagRepository).updateConvertedCollectionId(5L, 99L);
@@ -112,7 +110,6 @@ class TagServiceTest {
     created.setId(99L);
     when(collectionRepository.findById(99L)).thenReturn(Optional.of(created));
     when(tagRepository.findCollectionsByTagId(eq(5L), anyList())).thenReturn(List.of());
-    when(tagRepository.findImageContentByTagId(eq(5L), anyList())).thenReturn(List.of());
     when(collectionService.getUpdateCollectionData("landscape"))
         .thenReturn(responseWithId(99L, "landscape"));
 
@@ -137,7 +134,6 @@ class TagServiceTest {
     created.setId(99L);
     when(collectionRepository.findById(99L)).thenReturn(Optional.of(created));
     when(tagRepository.findCollectionsByTagId(eq(5L), anyList())).thenReturn(List.of());
-    when(tagRepository.findImageContentByTagId(eq(5L), anyList())).thenReturn(List.of());
     when(collectionService.getUpdateCollectionData("landscape"))
         .thenReturn(responseWithId(99L, "landscape"));
 
@@ -171,7 +167,6 @@ class TagServiceTest {
     ArgumentCaptor<List<CollectionVisibility>> scopeCaptor = scopeCaptor();
     when(tagRepository.findCollectionsByTagId(eq(5L), scopeCaptor.capture()))
         .thenReturn(List.of(plain, gated));
-    when(tagRepository.findImageContentByTagId(eq(5L), anyList())).thenReturn(List.of());
     when(collectionService.getUpdateCollectionData("landscape"))
         .thenReturn(responseWithId(99L, "landscape"));
 
@@ -183,8 +178,7 @@ class TagServiceTest {
         .containsExactlyInAnyOrder(CollectionVisibility.LISTED, CollectionVisibility.UNLISTED)
         .doesNotContain(CollectionVisibility.HIDDEN);
     // Password-gated member collection is skipped; only the plain one is linked.
-    verify(collectionService).linkCollectionToParent(99L, 200L);
-    verify(collectionService, never()).linkCollectionToParent(99L, 201L);
+    verify(collectionService).linkCollectionsToParent(99L, List.of(200L));
   }
 
   @Test
@@ -204,7 +198,6 @@ class TagServiceTest {
     ArgumentCaptor<List<CollectionVisibility>> scopeCaptor = scopeCaptor();
     when(tagRepository.findCollectionsByTagId(eq(5L), scopeCaptor.capture()))
         .thenReturn(List.of(gated));
-    when(tagRepository.findImageContentByTagId(eq(5L), anyList())).thenReturn(List.of());
     when(collectionService.getUpdateCollectionData("landscape"))
         .thenReturn(responseWithId(99L, "landscape"));
 
@@ -217,7 +210,66 @@ class TagServiceTest {
             CollectionVisibility.LISTED,
             CollectionVisibility.UNLISTED,
             CollectionVisibility.HIDDEN);
-    verify(collectionService).linkCollectionToParent(99L, 201L);
+    verify(collectionService).linkCollectionsToParent(99L, List.of(201L));
+  }
+
+  @Test
+  @DisplayName("background conversion copies images in chunks and reports progress")
+  void convertTagToCollection_withProgress_copiesImagesInChunksAndReports() {
+    TagEntity tag = unconvertedTag();
+    when(tagRepository.findById(5L)).thenReturn(Optional.of(tag));
+    when(collectionRepository.findBySlug("landscape")).thenReturn(Optional.empty());
+    when(collectionService.createCollection(any())).thenReturn(responseWithId(99L, "landscape-1"));
+    CollectionEntity created = new CollectionEntity();
+    created.setId(99L);
+    when(collectionRepository.findById(99L)).thenReturn(Optional.of(created));
+    when(tagRepository.findCollectionsByTagId(eq(5L), anyList())).thenReturn(List.of());
+    // Empty new collection: images start at order index 0.
+    when(collectionRepository.getMaxOrderIndexForCollection(99L)).thenReturn(null);
+    int chunk = TagService.BACKGROUND_IMAGE_CHUNK;
+    List<Long> imageIds = LongStream.rangeClosed(1, chunk + 10).boxed().toList();
+    when(tagRepository.findTaggedImageIdsForSnapshot(eq(5L), eq(99L), anyList()))
+        .thenReturn(imageIds);
+    when(tagRepository.insertSnapshotImages(eq(99L), anyList(), anyInt()))
+        .thenAnswer(invocation -> invocation.<List<Long>>getArgument(1).size());
+    when(collectionService.getUpdateCollectionData("landscape"))
+        .thenReturn(responseWithId(99L, "landscape"));
+
+    List<String> events = new ArrayList<>();
+    tagService.convertTagToCollection(
+        5L,
+        null,
+        new TagService.ConversionProgress() {
+          @Override
+          public void collectionCreated(Long collectionId) {
+            events.add("created " + collectionId);
+          }
+
+          @Override
+          public void membersLinked(int count) {
+            events.add("members " + count);
+          }
+
+          @Override
+          public void imagesPlanned(int total) {
+            events.add("planned " + total);
+          }
+
+          @Override
+          public void imagesCopied(int count) {
+            events.add("copied " + count);
+          }
+        });
+
+    assertThat(events)
+        .containsExactly(
+            "created 99", "members 0", "planned " + (chunk + 10), "copied " + chunk, "copied 10");
+    // The set is ranked once; each chunk continues the order index where the last one stopped.
+    verify(tagRepository).findTaggedImageIdsForSnapshot(eq(5L), eq(99L), anyList());
+    verify(tagRepository).insertSnapshotImages(99L, imageIds.subList(0, chunk), 0);
+    verify(tagRepository).insertSnapshotImages(99L, imageIds.subList(chunk, chunk + 10), chunk);
+    verify(tagRepository, never()).snapshotTaggedImages(any(), any(), anyList(), anyInt());
+    verify(tagRepository).updateConvertedCollectionId(5L, 99L);
   }
 
   @SuppressWarnings("unchecked")
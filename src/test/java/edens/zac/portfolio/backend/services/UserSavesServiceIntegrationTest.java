@@ -5,6 +5,8 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import edens.zac.portfolio.backend.AbstractPostgresIntegrationTest;
 import edens.zac.portfolio.backend.config.ResourceNotFoundException;
+import edens.zac.portfolio.backend.dao.CollectionRepository;
+import edens.zac.portfolio.backend.dao.ImageAudienceRepository;
 import edens.zac.portfolio.backend.dao.RoleRepository;
 import edens.zac.portfolio.backend.model.ContentModels;
 import edens.zac.portfolio.backend.types.AccessLevel;
@@ -27,6 +29,8 @@ class UserSavesServiceIntegrationTest extends AbstractPostgresIntegrationTest {
 
   @Autowired private UserSavesService userSavesService;
   @Autowired private RoleRepository roleRepository;
+  @Autowired private CollectionRepository collectionRepository;
+  @Autowired private ImageAudienceRepository imageAudienceRepository;
   @Autowired private JdbcTemplate jdbcTemplate;
 
   private Long seedUser(String email) {
@@ -61,13 +65,17 @@ class UserSavesServiceIntegrationTest extends AbstractPostgresIntegrationTest {
         visibility.name());
   }
 
-  /** Add {@code imageId} to {@code collectionId} with the given per-membership visibility flag. */
+  /**
+   * Add {@code imageId} to {@code collectionId} with the given per-membership visibility flag. The
+   * raw insert bypasses the repository hooks, so the image's audience row is refreshed here.
+   */
   private void addMembership(Long collectionId, Long imageId, boolean visible) {
     jdbcTemplate.update(
         "INSERT INTO collection_content (collection_id, content_id, visible) VALUES (?, ?, ?)",
         collectionId,
         imageId,
         visible);
+    imageAudienceRepository.refreshImages(List.of(imageId));
   }
 
   /**
@@ -240,10 +248,13 @@ class UserSavesServiceIntegrationTest extends AbstractPostgresIntegrationTest {
         .containsExactly(imageId);
 
     // Owner hides the image (soft-remove the membership).
-    jdbcTemplate.update(
-        "UPDATE collection_content SET visible = false WHERE collection_id = ? AND content_id = ?",
-        listed,
-        imageId);
+    Long membershipId =
+        jdbcTemplate.queryForObject(
+            "SELECT id FROM collection_content WHERE collection_id = ? AND content_id = ?",
+            Long.class,
+            listed,
+            imageId);
+    collectionRepository.updateContentVisible(membershipId, false);
 
     // The raw save row still exists, but the full-model read filters it out.
     assertThat(userSavesService.listSavedImageIds(userId)).containsExactly(imageId);
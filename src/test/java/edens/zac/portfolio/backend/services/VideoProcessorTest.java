@@ -0,0 +1,95 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import edens.zac.portfolio.backend.services.VideoVariantPlanner.VideoVariantPlan;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+/** Command shape for each plan, and the per-job deadline; ffmpeg itself is not needed. */
+class VideoProcessorTest {
+
+  private static final Path IN = Path.of("/tmp/in.mp4");
+  private static final Path FULL = Path.of("/tmp/full.mp4");
+  private static final Path WEB = Path.of("/tmp/web.mp4");
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final VideoProcessor processor =
+      new VideoProcessor(new MediaPipelineMetrics(registry), 1, 1, 300, 2, 0);
+
+  @AfterEach
+  void shutdown() {
+    processor.shutdown();
+  }
+
+  @Test
+  void smallSourceIsOneRemuxWithThumbnailOnStdout() {
+    List<String> command =
+        VideoProcessor.renditionCommand(VideoVariantPlanner.compute(800, 600), IN, FULL, WEB, 2);
+
+    assertThat(command)
+        .containsSequence("-filter_complex", "[0:v:0]split=1[v_thumb];[v_thumb]null[thumb]");
+    assertThat(command).containsSequence("-map", "0:v:0", "-c:v", "copy");
+    assertThat(command).doesNotContain("libx264", WEB.toString());
+    assertThat(command)
+        .endsWith("-map", "[thumb]", "-frames:v", "1", "-c:v", "png", "-f", "image2pipe", "pipe:1");
+  }
+
+  @Test
+  void largeSourceEncodesBothVariantsInOneInvocation() {
+    VideoVariantPlan plan = VideoVariantPlanner.compute(3840, 2160);
+
+    List<String> command = VideoProcessor.renditionCommand(plan, IN, FULL, WEB, 3);
+
+    String graph = command.get(command.indexOf("-filter_complex") + 1);
+    assertThat(graph)
+        .startsWith("[0:v:0]split=3[v_full][v_web][v_thumb];")
+        .contains("[v_full]scale=w=2000:h=2000")
+        .contains("[v_web]scale=w=1080:h=1080")
+        .contains("[v_thumb]scale=w=2000:h=2000");
+    assertThat(command.stream().filter("libx264"::equals)).hasSize(2);
+    assertThat(command).containsSequence("-map", "[full]").containsSequence("-map", "[web]");
+    assertThat(command).contains(FULL.toString(), WEB.toString());
+    assertThat(command).containsSequence("-threads", "3", "-i");
+    assertThat(command.stream().filter("ffmpeg"::equals)).hasSize(1);
+  }
+
+  @Test
+  @EnabledOnOs({OS.LINUX, OS.MAC})
+  void processOutlivingTheDeadlineIsKilled() {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+    long start = System.nanoTime();
+
+    assertThatThrownBy(() -> processor.run(List.of("sleep", "10"), "ffmpeg", "encode", deadline))
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining("timeout");
+
+    assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+    assertThat(registry.get("portfolio.ffmpeg.process").tags("operation", "encode").timer().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  @EnabledOnOs({OS.LINUX, OS.MAC})
+  void stdoutAndExitCodeAreCollected() throws Exception {
+    VideoProcessor.ProcessResult result =
+        processor.run(
+            List.of("sh", "-c", "printf 640x360; exit 3"),
+            "ffprobe",
+            "probe",
+            System.nanoTime() + TimeUnit.SECONDS.toNanos(10));
+
+    assertThat(result.exitCode()).isEqualTo(3);
+    assertThat(new String(result.stdout())).isEqualTo("640x360");
+    assertThat(registry.get("portfolio.ffmpeg.process").tags("exit_code", "3").timer().count())
+        .isEqualTo(1);
+  }
+}
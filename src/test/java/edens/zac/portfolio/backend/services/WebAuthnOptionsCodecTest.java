@@ -0,0 +1,138 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.webauthn.api.AttestationConveyancePreference;
+import org.springframework.security.web.webauthn.api.AuthenticatorSelectionCriteria;
+import org.springframework.security.web.webauthn.api.AuthenticatorTransport;
+import org.springframework.security.web.webauthn.api.Bytes;
+import org.springframework.security.web.webauthn.api.CredProtectAuthenticationExtensionsClientInput;
+import org.springframework.security.web.webauthn.api.CredProtectAuthenticationExtensionsClientInput.CredProtect;
+import org.springframework.security.web.webauthn.api.ImmutableAuthenticationExtensionsClientInput;
+import org.springframework.security.web.webauthn.api.ImmutableAuthenticationExtensionsClientInputs;
+import org.springframework.security.web.webauthn.api.ImmutablePublicKeyCredentialUserEntity;
+import org.springframework.security.web.webauthn.api.PublicKeyCredentialCreationOptions;
+import org.springframework.security.web.webauthn.api.PublicKeyCredentialDescriptor;
+import org.springframework.security.web.webauthn.api.PublicKeyCredentialParameters;
+import org.springframework.security.web.webauthn.api.PublicKeyCredentialRequestOptions;
+import org.springframework.security.web.webauthn.api.PublicKeyCredentialRpEntity;
+import org.springframework.security.web.webauthn.api.PublicKeyCredentialType;
+import org.springframework.security.web.webauthn.api.ResidentKeyRequirement;
+import org.springframework.security.web.webauthn.api.UserVerificationRequirement;
+import org.springframework.security.web.webauthn.management.ImmutablePublicKeyCredentialCreationOptionsRequest;
+import org.springframework.security.web.webauthn.management.ImmutablePublicKeyCredentialRequestOptionsRequest;
+import org.springframework.security.web.webauthn.management.MapPublicKeyCredentialUserEntityRepository;
+import org.springframework.security.web.webauthn.management.MapUserCredentialRepository;
+import org.springframework.security.web.webauthn.management.Webauthn4JRelyingPartyOperations;
+
+class WebAuthnOptionsCodecTest {
+
+  private static PublicKeyCredentialDescriptor descriptor() {
+    return PublicKeyCredentialDescriptor.builder()
+        .type(PublicKeyCredentialType.PUBLIC_KEY)
+        .id(Bytes.random())
+        .transports(AuthenticatorTransport.INTERNAL, AuthenticatorTransport.HYBRID)
+        .build();
+  }
+
+  @Test
+  void creationOptionsRoundTrip() {
+    PublicKeyCredentialCreationOptions options =
+        PublicKeyCredentialCreationOptions.builder()
+            .rp(PublicKeyCredentialRpEntity.builder().id("example.com").name("Example").build())
+            .user(
+                ImmutablePublicKeyCredentialUserEntity.builder()
+                    .id(Bytes.random())
+                    .name("admin@example.com")
+                    .displayName("Admin")
+                    .build())
+            .challenge(Bytes.random())
+            .pubKeyCredParams(
+                PublicKeyCredentialParameters.EdDSA,
+                PublicKeyCredentialParameters.ES256,
+                PublicKeyCredentialParameters.RS256)
+            .timeout(Duration.ofMinutes(5))
+            .excludeCredentials(List.of(descriptor()))
+            .authenticatorSelection(
+                AuthenticatorSelectionCriteria.builder()
+                    .residentKey(ResidentKeyRequirement.REQUIRED)
+                    .userVerification(UserVerificationRequirement.PREFERRED)
+                    .build())
+            .attestation(AttestationConveyancePreference.NONE)
+            .extensions(
+                new ImmutableAuthenticationExtensionsClientInputs(
+                    ImmutableAuthenticationExtensionsClientInput.credProps,
+                    new CredProtectAuthenticationExtensionsClientInput(
+                        new CredProtect(
+                            CredProtect.ProtectionPolicy.USER_VERIFICATION_REQUIRED, true))))
+            .build();
+
+    Object decoded = WebAuthnOptionsCodec.decode(WebAuthnOptionsCodec.encode(options));
+
+    assertThat(decoded)
+        .isInstanceOf(PublicKeyCredentialCreationOptions.class)
+        .usingRecursiveComparison()
+        .isEqualTo(options);
+  }
+
+  @Test
+  void requestOptionsRoundTrip() {
+    PublicKeyCredentialRequestOptions options =
+        PublicKeyCredentialRequestOptions.builder()
+            .challenge(Bytes.random())
+            .timeout(Duration.ofMinutes(5))
+            .rpId("example.com")
+            .allowCredentials(List.of(descriptor(), descriptor()))
+            .userVerification(UserVerificationRequirement.REQUIRED)
+            .build();
+
+    Object decoded = WebAuthnOptionsCodec.decode(WebAuthnOptionsCodec.encode(options));
+
+    assertThat(decoded)
+        .isInstanceOf(PublicKeyCredentialRequestOptions.class)
+        .usingRecursiveComparison()
+        .isEqualTo(options);
+  }
+
+  @Test
+  void optionsMintedByTheEngineRoundTrip() {
+    Webauthn4JRelyingPartyOperations operations =
+        new Webauthn4JRelyingPartyOperations(
+            new MapPublicKeyCredentialUserEntityRepository(),
+            new MapUserCredentialRepository(),
+            PublicKeyCredentialRpEntity.builder().id("example.com").name("Example").build(),
+            Set.of("https://example.com"));
+    var admin =
+        new UsernamePasswordAuthenticationToken(
+            "admin@example.com", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN"));
+
+    PublicKeyCredentialCreationOptions creation =
+        operations.createPublicKeyCredentialCreationOptions(
+            new ImmutablePublicKeyCredentialCreationOptionsRequest(admin));
+    PublicKeyCredentialRequestOptions request =
+        operations.createCredentialRequestOptions(
+            new ImmutablePublicKeyCredentialRequestOptionsRequest(admin));
+
+    assertThat(WebAuthnOptionsCodec.decode(WebAuthnOptionsCodec.encode(creation)))
+        .usingRecursiveComparison()
+        .isEqualTo(creation);
+    assertThat(WebAuthnOptionsCodec.decode(WebAuthnOptionsCodec.encode(request)))
+        .usingRecursiveComparison()
+        .isEqualTo(request);
+  }
+
+  @Test
+  void otherTypesAreRejected() {
+    assertThatThrownBy(() -> WebAuthnOptionsCodec.encode("not options"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> WebAuthnOptionsCodec.decode("{\"kind\":\"other\"}"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
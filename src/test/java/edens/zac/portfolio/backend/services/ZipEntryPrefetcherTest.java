@@ -0,0 +1,230 @@
+package edens.zac.portfolio.backend.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import edens.zac.portfolio.backend.model.DownloadResolution;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+/** Unit tests for {@link ZipEntryPrefetcher}. */
+class ZipEntryPrefetcherTest {
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private static List<DownloadResolution> entries(int n) {
+    return IntStream.range(0, n)
+        .mapToObj(i -> new DownloadResolution("key-" + i, ".jpg", "image/jpeg", i + ".jpg"))
+        .toList();
+  }
+
+  private static ResponseInputStream<GetObjectResponse> body(DownloadResolution entry) {
+    return stream(entry.s3Key().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static ResponseInputStream<GetObjectResponse> stream(byte[] bytes) {
+    return new ResponseInputStream<>(
+        GetObjectResponse.builder().contentLength((long) bytes.length).build(),
+        AbortableInputStream.create(new ByteArrayInputStream(bytes)));
+  }
+
+  @Test
+  void next_returnsEntriesInInputOrderEvenWhenFetchesFinishOutOfOrder() throws IOException {
+    List<DownloadResolution> entries = entries(6);
+    List<String> drained = new ArrayList<>();
+
+    try (ZipEntryPrefetcher prefetcher =
+        new ZipEntryPrefetcher(
+            entries,
+            entry -> {
+              // Earlier entries are the slowest, so completion order is reversed.
+              sleep(60 - 10L * Integer.parseInt(entry.s3Key().substring(4)));
+              return body(entry);
+            },
+            executor,
+            6,
+            Long.MAX_VALUE,
+            1024)) {
+      while (prefetcher.hasNext()) {
+        drained.add(new String(prefetcher.next().bytes(), StandardCharsets.UTF_8));
+      }
+    }
+
+    assertThat(drained).containsExactly("key-0", "key-1", "key-2", "key-3", "key-4", "key-5");
+  }
+
+  @Test
+  void next_sdkFailureIsReturnedAsErrorForThatEntryOnly() throws IOException {
+    List<DownloadResolution> entries = entries(3);
+
+    try (ZipEntryPrefetcher prefetcher =
+        new ZipEntryPrefetcher(
+            entries,
+            entry -> {
+              if (entry.s3Key().equals("key-1")) {
+                throw SdkClientException.create("NoSuchKey");
+              }
+              return body(entry);
+            },
+            executor,
+            2,
+            Long.MAX_VALUE,
+            1024)) {
+      assertThat(prefetcher.next().error()).isNull();
+      ZipEntryPrefetcher.Fetched failed = prefetcher.next();
+      assertThat(failed.bytes()).isNull();
+      assertThat(failed.error()).isInstanceOf(SdkClientException.class);
+      assertThat(prefetcher.next().error()).isNull();
+    }
+  }
+
+  @Test
+  void next_ioFailureFailsTheDownload() {
+    List<DownloadResolution> entries = entries(1);
+
+    try (ZipEntryPrefetcher prefetcher =
+        new ZipEntryPrefetcher(
+            entries,
+            entry -> {
+              throw new UncheckedIOException(new IOException("connection reset"));
+            },
+            executor,
+            1,
+            Long.MAX_VALUE,
+            1024)) {
+      assertThatThrownBy(prefetcher::next)
+          .isInstanceOf(IOException.class)
+          .hasMessage("connection reset");
+    }
+  }
+
+  @Test
+  void zeroBudget_stillFetchesTheEntryTheWriterIsWaitingOn() throws IOException {
+    List<DownloadResolution> entries = entries(4);
+    AtomicInteger fetches = new AtomicInteger();
+
+    try (ZipEntryPrefetcher prefetcher =
+        new ZipEntryPrefetcher(
+            entries,
+            entry -> {
+              fetches.incrementAndGet();
+              return body(entry);
+            },
+            executor,
+            4,
+            0,
+            1024)) {
+      int drained = 0;
+      while (prefetcher.hasNext()) {
+        assertThat(prefetcher.next().bytes()).isNotNull();
+        drained++;
+      }
+      assertThat(drained).isEqualTo(4);
+    }
+    assertThat(fetches.get()).isEqualTo(4);
+  }
+
+  @Test
+  void budget_isReservedBeforeEachGetIsSent() throws IOException {
+    List<DownloadResolution> entries = entries(8);
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+
+    try (ZipEntryPrefetcher prefetcher =
+        new ZipEntryPrefetcher(
+            entries,
+            entry -> {
+              maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+              sleep(20);
+              inFlight.decrementAndGet();
+              return body(entry);
+            },
+            executor,
+            8,
+            2048,
+            1024)) {
+      // Two reservations fit the budget; no GET beyond them starts before the writer drains one.
+      sleep(100);
+      assertThat(maxInFlight.get()).isEqualTo(2);
+      while (prefetcher.hasNext()) {
+        prefetcher.next();
+      }
+    }
+    assertThat(maxInFlight.get()).isLessThanOrEqualTo(3);
+  }
+
+  @Test
+  void entryOverTheBufferLimit_isReadForItsCrcButNotKept() throws IOException {
+    byte[] large = new byte[10_000];
+    new Random(1).nextBytes(large);
+    CRC32 crc = new CRC32();
+    crc.update(large);
+
+    try (ZipEntryPrefetcher prefetcher =
+        new ZipEntryPrefetcher(entries(1), entry -> stream(large), executor, 1, 0, 4096)) {
+      ZipEntryPrefetcher.Fetched fetched = prefetcher.next();
+      assertThat(fetched.streamed()).isTrue();
+      assertThat(fetched.bytes()).isNull();
+      assertThat(fetched.size()).isEqualTo(large.length);
+      assertThat(fetched.crc()).isEqualTo(crc.getValue());
+    }
+  }
+
+  @Test
+  void close_interruptsFetchesTheWriterNeverTook() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+
+    ZipEntryPrefetcher prefetcher =
+        new ZipEntryPrefetcher(
+            entries(1),
+            entry -> {
+              started.countDown();
+              try {
+                Thread.sleep(10_000);
+              } catch (InterruptedException e) {
+                interrupted.countDown();
+              }
+              return body(entry);
+            },
+            executor,
+            1,
+            Long.MAX_VALUE,
+            1024);
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    prefetcher.close();
+
+    assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(Math.max(0, millis));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}